@@ -0,0 +1,207 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.questdb;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cutlass.line.LineTcpSender;
+import io.questdb.cutlass.line.tcp.DefaultLineTcpReceiverConfiguration;
+import io.questdb.cutlass.line.tcp.LineTcpReceiver;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.mp.WorkerPool;
+import io.questdb.mp.WorkerPoolConfiguration;
+import io.questdb.network.DefaultIODispatcherConfiguration;
+import io.questdb.network.IODispatcherConfiguration;
+import io.questdb.network.Net;
+import io.questdb.std.Files;
+import io.questdb.std.IOURingFacadeImpl;
+import io.questdb.std.Os;
+import io.questdb.std.str.Path;
+
+/**
+ * End-to-end ILP ingestion benchmark that compares epoll and io_uring receive paths of the
+ * network IO job. Many connections send small batches, which is where per-socket syscalls
+ * dominate the cost of the IO thread.
+ */
+public class LineTcpReceiverIOURingBenchmark {
+    private static final int CONNECTIONS = 512;
+    private static final int PORT = 9019;
+    private static final int ROWS_PER_CONNECTION = 50_000;
+    private static final int SENDER_BUFFER_SIZE = 1024;
+    private static final int SENDER_THREADS = 16;
+    private static final int TABLES = 8;
+
+    public static void main(String[] args) throws Exception {
+        if (!IOURingFacadeImpl.INSTANCE.isAvailable()) {
+            System.out.println("io_uring is not available, only epoll is measured");
+        }
+        final String root = System.getProperty("java.io.tmpdir") + Files.SEPARATOR + "ilp-io-uring-bench";
+        try (Path path = new Path().of(root).slash$()) {
+            Files.mkdirs(path, 509);
+        }
+        final CairoConfiguration configuration = new DefaultCairoConfiguration(root);
+        try (CairoEngine engine = new CairoEngine(configuration)) {
+            run(engine, "epoll", false);
+            if (IOURingFacadeImpl.INSTANCE.isAvailable()) {
+                run(engine, "io_uring", true);
+            }
+        }
+        LogFactory.haltInstance();
+    }
+
+    private static long countRows(CairoEngine engine, String prefix) {
+        long count = 0;
+        try (Path path = new Path()) {
+            for (int t = 0; t < TABLES; t++) {
+                final String tableName = prefix + t;
+                if (engine.getStatus(AllowAllCairoSecurityContext.INSTANCE, path, tableName) == TableUtils.TABLE_EXISTS) {
+                    try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, tableName)) {
+                        count += reader.size();
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private static void run(CairoEngine engine, String mode, boolean ioURingEnabled) {
+        final IODispatcherConfiguration dispatcherConfiguration = new DefaultIODispatcherConfiguration() {
+            @Override
+            public int getBindPort() {
+                return PORT;
+            }
+
+            @Override
+            public int getLimit() {
+                return CONNECTIONS + 1;
+            }
+
+            @Override
+            public boolean isIOURingEnabled() {
+                return ioURingEnabled;
+            }
+        };
+        final DefaultLineTcpReceiverConfiguration receiverConfiguration = new DefaultLineTcpReceiverConfiguration() {
+            @Override
+            public IODispatcherConfiguration getDispatcherConfiguration() {
+                return dispatcherConfiguration;
+            }
+
+            @Override
+            public int getWriterQueueCapacity() {
+                return 1024;
+            }
+        };
+
+        final WorkerPool ioPool = newPool(2);
+        final WorkerPool writerPool = newPool(2);
+        final String prefix = mode + "_" + System.currentTimeMillis() + "_";
+        final long expectedRows = (long) CONNECTIONS * ROWS_PER_CONNECTION;
+        try (LineTcpReceiver ignored = new LineTcpReceiver(receiverConfiguration, engine, ioPool, writerPool)) {
+            ioPool.start(null);
+            writerPool.start(null);
+
+            final long start = System.nanoTime();
+            final SOCountDownLatch doneLatch = new SOCountDownLatch(SENDER_THREADS);
+            for (int i = 0; i < SENDER_THREADS; i++) {
+                final int threadId = i;
+                new Thread(() -> {
+                    try {
+                        send(prefix, threadId);
+                    } finally {
+                        doneLatch.countDown();
+                    }
+                }).start();
+            }
+            doneLatch.await();
+            final long sentNanos = System.nanoTime() - start;
+
+            long rows;
+            while ((rows = countRows(engine, prefix)) < expectedRows) {
+                Os.sleep(10);
+            }
+            final long ingestedNanos = System.nanoTime() - start;
+            System.out.println(
+                    mode
+                            + ": connections=" + CONNECTIONS
+                            + ", rows=" + rows
+                            + ", sent in " + sentNanos / 1_000_000 + "ms"
+                            + ", ingested in " + ingestedNanos / 1_000_000 + "ms"
+                            + ", rate=" + rows * 1_000_000_000L / ingestedNanos + " rows/s"
+            );
+        } finally {
+            ioPool.halt();
+            writerPool.halt();
+        }
+    }
+
+    private static WorkerPool newPool(int workerCount) {
+        return new WorkerPool(new WorkerPoolConfiguration() {
+            @Override
+            public int getWorkerCount() {
+                return workerCount;
+            }
+
+            @Override
+            public boolean haltOnError() {
+                return false;
+            }
+        });
+    }
+
+    private static void send(String prefix, int threadId) {
+        final int connectionsPerThread = CONNECTIONS / SENDER_THREADS;
+        final LineTcpSender[] senders = new LineTcpSender[connectionsPerThread];
+        try {
+            for (int i = 0; i < connectionsPerThread; i++) {
+                senders[i] = LineTcpSender.newSender(Net.parseIPv4("127.0.0.1"), PORT, SENDER_BUFFER_SIZE);
+            }
+            // interleave connections, so that each receive picks up only a few rows
+            for (int r = 0; r < ROWS_PER_CONNECTION; r++) {
+                for (int i = 0; i < connectionsPerThread; i++) {
+                    senders[i]
+                            .metric(prefix + (i % TABLES))
+                            .tag("sensor", "s" + threadId)
+                            .field("value", r)
+                            .$(r * 1000L);
+                }
+            }
+            for (int i = 0; i < connectionsPerThread; i++) {
+                senders[i].flush();
+            }
+        } finally {
+            for (int i = 0; i < connectionsPerThread; i++) {
+                if (senders[i] != null) {
+                    senders[i].close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.questdb;
+
+import io.questdb.mp.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MCSequenceBenchmark {
+
+    private final static int CYCLE = 1024;
+    private final RingQueue<Event> queue = new RingQueue<>(Event::new, CYCLE);
+    private final MPSequence pubSeq = new MPSequence(CYCLE);
+    @Param({"1", "2", "4", "8"})
+    public int stripes;
+    private MCSequence subSeq;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(MCSequenceBenchmark.class.getSimpleName())
+                .warmupIterations(2)
+                .measurementIterations(3)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Benchmark
+    @Group("oneToMany")
+    @GroupThreads(4)
+    public long consume() {
+        return consume0();
+    }
+
+    @Benchmark
+    @Group("manyToMany")
+    @GroupThreads(4)
+    public long consumeMany() {
+        return consume0();
+    }
+
+    @Benchmark
+    @Group("oneToMany")
+    @GroupThreads(1)
+    public void publish() {
+        publish0();
+    }
+
+    @Benchmark
+    @Group("manyToMany")
+    @GroupThreads(4)
+    public void publishMany() {
+        publish0();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportContention() {
+        System.out.println();
+        System.out.println("stripes=" + stripes + ", subCasFailures=" + subSeq.getCasFailureCount() + ", pubCasFailures=" + pubSeq.getCasFailureCount());
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        subSeq = stripes > 1 ? new StripedMCSequence(CYCLE, stripes) : new MCSequence(CYCLE);
+        pubSeq.then(subSeq).then(pubSeq);
+    }
+
+    private long consume0() {
+        final long cursor = subSeq.next();
+        if (cursor > -1) {
+            final long value = queue.get(cursor).value;
+            subSeq.done(cursor);
+            return value;
+        }
+        return cursor;
+    }
+
+    private void publish0() {
+        final long cursor = pubSeq.next();
+        if (cursor > -1) {
+            queue.get(cursor).value = cursor;
+            pubSeq.done(cursor);
+        }
+    }
+
+    private static class Event {
+        long value;
+    }
+}
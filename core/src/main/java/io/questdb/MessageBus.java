@@ -43,6 +43,12 @@ public interface MessageBus extends Closeable {
 
     CairoConfiguration getConfiguration();
 
+    Sequence getHashJoinBuildPubSeq();
+
+    RingQueue<HashJoinBuildTask> getHashJoinBuildQueue();
+
+    Sequence getHashJoinBuildSubSeq();
+
     Sequence getIndexerPubSequence();
 
     RingQueue<ColumnIndexerTask> getIndexerQueue();
@@ -95,6 +101,12 @@ public interface MessageBus extends Closeable {
 
     MCSequence getPageFrameReduceSubSeq(int shard);
 
+    Sequence getSortPubSeq();
+
+    RingQueue<SortTask> getSortQueue();
+
+    Sequence getSortSubSeq();
+
     FanOut getTableWriterEventFanOut();
 
     MPSequence getTableWriterEventPubSeq();
@@ -69,6 +69,14 @@ public class MessageBusImpl implements MessageBus {
     private final MPSequence latestByPubSeq;
     private final MCSequence latestBySubSeq;
 
+    private final RingQueue<HashJoinBuildTask> hashJoinBuildQueue;
+    private final MPSequence hashJoinBuildPubSeq;
+    private final MCSequence hashJoinBuildSubSeq;
+
+    private final RingQueue<SortTask> sortQueue;
+    private final MPSequence sortPubSeq;
+    private final MCSequence sortSubSeq;
+
     private final RingQueue<TableWriterTask> tableWriterEventQueue;
     private final MPSequence tableWriterEventPubSeq;
     private final FanOut tableWriterEventSubSeq;
@@ -95,6 +103,7 @@ public class MessageBusImpl implements MessageBus {
 
     public MessageBusImpl(@NotNull CairoConfiguration configuration) {
         this.configuration = configuration;
+        final int consumerStripeCount = configuration.getQueueConsumerStripeCount();
         this.indexerQueue = new RingQueue<>(ColumnIndexerTask::new, configuration.getColumnIndexerQueueCapacity());
         this.indexerPubSeq = new MPSequence(indexerQueue.getCycle());
         this.indexerSubSeq = new MCSequence(indexerQueue.getCycle());
@@ -107,27 +116,27 @@ public class MessageBusImpl implements MessageBus {
 
         this.o3CallbackQueue = new RingQueue<>(O3CallbackTask::new, configuration.getO3CallbackQueueCapacity());
         this.o3CallbackPubSeq = new MPSequence(this.o3CallbackQueue.getCycle());
-        this.o3CallbackSubSeq = new MCSequence(this.o3CallbackQueue.getCycle());
+        this.o3CallbackSubSeq = newSubSeq(this.o3CallbackQueue.getCycle(), consumerStripeCount);
         o3CallbackPubSeq.then(o3CallbackSubSeq).then(o3CallbackPubSeq);
 
         this.o3PartitionQueue = new RingQueue<>(O3PartitionTask::new, configuration.getO3PartitionQueueCapacity());
         this.o3PartitionPubSeq = new MPSequence(this.o3PartitionQueue.getCycle());
-        this.o3PartitionSubSeq = new MCSequence(this.o3PartitionQueue.getCycle());
+        this.o3PartitionSubSeq = newSubSeq(this.o3PartitionQueue.getCycle(), consumerStripeCount);
         o3PartitionPubSeq.then(o3PartitionSubSeq).then(o3PartitionPubSeq);
 
         this.o3OpenColumnQueue = new RingQueue<>(O3OpenColumnTask::new, configuration.getO3OpenColumnQueueCapacity());
         this.o3OpenColumnPubSeq = new MPSequence(this.o3OpenColumnQueue.getCycle());
-        this.o3OpenColumnSubSeq = new MCSequence(this.o3OpenColumnQueue.getCycle());
+        this.o3OpenColumnSubSeq = newSubSeq(this.o3OpenColumnQueue.getCycle(), consumerStripeCount);
         o3OpenColumnPubSeq.then(o3OpenColumnSubSeq).then(o3OpenColumnPubSeq);
 
         this.o3CopyQueue = new RingQueue<>(O3CopyTask::new, configuration.getO3CopyQueueCapacity());
         this.o3CopyPubSeq = new MPSequence(this.o3CopyQueue.getCycle());
-        this.o3CopySubSeq = new MCSequence(this.o3CopyQueue.getCycle());
+        this.o3CopySubSeq = newSubSeq(this.o3CopyQueue.getCycle(), consumerStripeCount);
         o3CopyPubSeq.then(o3CopySubSeq).then(o3CopyPubSeq);
 
         this.o3PurgeDiscoveryQueue = new RingQueue<>(O3PartitionPurgeTask::new, configuration.getO3PurgeDiscoveryQueueCapacity());
         this.o3PurgeDiscoveryPubSeq = new MPSequence(this.o3PurgeDiscoveryQueue.getCycle());
-        this.o3PurgeDiscoverySubSeq = new MCSequence(this.o3PurgeDiscoveryQueue.getCycle());
+        this.o3PurgeDiscoverySubSeq = newSubSeq(this.o3PurgeDiscoveryQueue.getCycle(), consumerStripeCount);
         this.o3PurgeDiscoveryPubSeq.then(this.o3PurgeDiscoverySubSeq).then(o3PurgeDiscoveryPubSeq);
 
         this.latestByQueue = new RingQueue<>(LatestByTask::new, configuration.getLatestByQueueCapacity());
@@ -135,6 +144,16 @@ public class MessageBusImpl implements MessageBus {
         this.latestBySubSeq = new MCSequence(latestByQueue.getCycle());
         latestByPubSeq.then(latestBySubSeq).then(latestByPubSeq);
 
+        this.hashJoinBuildQueue = new RingQueue<>(HashJoinBuildTask::new, configuration.getHashJoinBuildQueueCapacity());
+        this.hashJoinBuildPubSeq = new MPSequence(hashJoinBuildQueue.getCycle());
+        this.hashJoinBuildSubSeq = new MCSequence(hashJoinBuildQueue.getCycle());
+        hashJoinBuildPubSeq.then(hashJoinBuildSubSeq).then(hashJoinBuildPubSeq);
+
+        this.sortQueue = new RingQueue<>(SortTask::new, configuration.getSortQueueCapacity());
+        this.sortPubSeq = new MPSequence(sortQueue.getCycle());
+        this.sortSubSeq = new MCSequence(sortQueue.getCycle());
+        sortPubSeq.then(sortSubSeq).then(sortPubSeq);
+
         this.tableWriterEventQueue = new RingQueue<>(
                 TableWriterTask::new,
                 configuration.getWriterCommandQueueSlotSize(),
@@ -170,7 +189,7 @@ public class MessageBusImpl implements MessageBus {
             );
 
             final MPSequence reducePubSeq = new MPSequence(reduceQueueCapacity);
-            final MCSequence reduceSubSeq = new MCSequence(reduceQueueCapacity);
+            final MCSequence reduceSubSeq = newSubSeq(reduceQueueCapacity, consumerStripeCount);
             final FanOut collectFanOut = new FanOut();
             reducePubSeq.then(reduceSubSeq).then(collectFanOut).then(reducePubSeq);
 
@@ -220,6 +239,21 @@ public class MessageBusImpl implements MessageBus {
         return configuration;
     }
 
+    @Override
+    public Sequence getHashJoinBuildPubSeq() {
+        return hashJoinBuildPubSeq;
+    }
+
+    @Override
+    public RingQueue<HashJoinBuildTask> getHashJoinBuildQueue() {
+        return hashJoinBuildQueue;
+    }
+
+    @Override
+    public Sequence getHashJoinBuildSubSeq() {
+        return hashJoinBuildSubSeq;
+    }
+
     @Override
     public Sequence getIndexerPubSequence() {
         return indexerPubSeq;
@@ -350,6 +384,21 @@ public class MessageBusImpl implements MessageBus {
         return pageFrameReduceSubSeq[shard];
     }
 
+    @Override
+    public Sequence getSortPubSeq() {
+        return sortPubSeq;
+    }
+
+    @Override
+    public RingQueue<SortTask> getSortQueue() {
+        return sortQueue;
+    }
+
+    @Override
+    public Sequence getSortSubSeq() {
+        return sortSubSeq;
+    }
+
     @Override
     public FanOut getTableWriterEventFanOut() {
         return tableWriterEventSubSeq;
@@ -424,4 +473,8 @@ public class MessageBusImpl implements MessageBus {
     public Sequence getTextImportRequestSubSeq() {
         return textImportRequestSubSeq;
     }
+
+    private static MCSequence newSubSeq(int cycle, int stripeCount) {
+        return stripeCount > 1 ? new StripedMCSequence(cycle, Math.min(stripeCount, cycle)) : new MCSequence(cycle);
+    }
 }
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb;
+
+import io.questdb.metrics.MetricsRegistry;
+import io.questdb.mp.MCSequence;
+
+/**
+ * Contention stats of the consumer sequences of the shared worker queues. Gauges are
+ * registered once and read the sequences of the message bus the metrics are bound to.
+ */
+public class MessageBusMetrics {
+    private static final int O3_CALLBACK = 0;
+    private static final int O3_PARTITION = 1;
+    private static final int O3_OPEN_COLUMN = 2;
+    private static final int O3_COPY = 3;
+    private static final int O3_PURGE_DISCOVERY = 4;
+    private static final int PAGE_FRAME_REDUCE = 5;
+    private volatile MessageBus messageBus;
+
+    public MessageBusMetrics(MetricsRegistry metricsRegistry) {
+        addGauges(metricsRegistry, "o3_callback", O3_CALLBACK);
+        addGauges(metricsRegistry, "o3_partition", O3_PARTITION);
+        addGauges(metricsRegistry, "o3_open_column", O3_OPEN_COLUMN);
+        addGauges(metricsRegistry, "o3_copy", O3_COPY);
+        addGauges(metricsRegistry, "o3_purge_discovery", O3_PURGE_DISCOVERY);
+        addGauges(metricsRegistry, "page_frame_reduce", PAGE_FRAME_REDUCE);
+    }
+
+    public void of(MessageBus messageBus) {
+        this.messageBus = messageBus;
+    }
+
+    private long getCasFailureCount(int queue) {
+        final MessageBus messageBus = this.messageBus;
+        if (messageBus == null) {
+            return 0;
+        }
+        if (queue == PAGE_FRAME_REDUCE) {
+            long count = 0;
+            for (int i = 0, n = messageBus.getPageFrameReduceShardCount(); i < n; i++) {
+                count += messageBus.getPageFrameReduceSubSeq(i).getCasFailureCount();
+            }
+            return count;
+        }
+        return getSubSeq(messageBus, queue).getCasFailureCount();
+    }
+
+    private long getParkCount(int queue) {
+        final MessageBus messageBus = this.messageBus;
+        if (messageBus == null) {
+            return 0;
+        }
+        if (queue == PAGE_FRAME_REDUCE) {
+            long count = 0;
+            for (int i = 0, n = messageBus.getPageFrameReduceShardCount(); i < n; i++) {
+                count += messageBus.getPageFrameReduceSubSeq(i).getParkCount();
+            }
+            return count;
+        }
+        return getSubSeq(messageBus, queue).getParkCount();
+    }
+
+    private static MCSequence getSubSeq(MessageBus messageBus, int queue) {
+        switch (queue) {
+            case O3_CALLBACK:
+                return messageBus.getO3CallbackSubSeq();
+            case O3_PARTITION:
+                return messageBus.getO3PartitionSubSeq();
+            case O3_OPEN_COLUMN:
+                return messageBus.getO3OpenColumnSubSeq();
+            case O3_COPY:
+                return messageBus.getO3CopySubSeq();
+            default:
+                return messageBus.getO3PurgeDiscoverySubSeq();
+        }
+    }
+
+    private void addGauges(MetricsRegistry metricsRegistry, String queueName, int queue) {
+        metricsRegistry.newVirtualGauge(queueName + "_queue_cas_failures", () -> getCasFailureCount(queue));
+        metricsRegistry.newVirtualGauge(queueName + "_queue_parks", () -> getParkCount(queue));
+    }
+}
@@ -25,9 +25,11 @@
 package io.questdb;
 
 import io.questdb.cairo.TableWriterMetrics;
+import io.questdb.cairo.WalMetrics;
 import io.questdb.metrics.HealthMetricsImpl;
 import io.questdb.cutlass.http.processors.JsonQueryMetrics;
 import io.questdb.cutlass.pgwire.PGWireMetrics;
+import io.questdb.griffin.QueryCacheMetrics;
 import io.questdb.metrics.*;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Unsafe;
@@ -38,8 +40,11 @@ public class Metrics implements Scrapable {
     private final GCMetrics gcMetrics;
     private final JsonQueryMetrics jsonQuery;
     private final PGWireMetrics pgWire;
+    private final QueryCacheMetrics queryCache;
     private final HealthMetricsImpl healthCheck;
     private final TableWriterMetrics tableWriter;
+    private final WalMetrics wal;
+    private final MessageBusMetrics messageBus;
     private final MetricsRegistry metricsRegistry;
     private final Runtime runtime = Runtime.getRuntime();
     private final VirtualGauge.StatProvider jvmFreeMemRef = runtime::freeMemory;
@@ -51,8 +56,11 @@ public class Metrics implements Scrapable {
         this.gcMetrics = new GCMetrics();
         this.jsonQuery = new JsonQueryMetrics(metricsRegistry);
         this.pgWire = new PGWireMetrics(metricsRegistry);
+        this.queryCache = new QueryCacheMetrics(metricsRegistry);
         this.healthCheck = new HealthMetricsImpl(metricsRegistry);
         this.tableWriter = new TableWriterMetrics(metricsRegistry);
+        this.wal = new WalMetrics(metricsRegistry);
+        this.messageBus = new MessageBusMetrics(metricsRegistry);
         createMemoryGauges(metricsRegistry);
         this.metricsRegistry = metricsRegistry;
     }
@@ -83,6 +91,10 @@ public class Metrics implements Scrapable {
         return enabled;
     }
 
+    public MessageBusMetrics messageBus() {
+        return messageBus;
+    }
+
     public JsonQueryMetrics jsonQuery() {
         return jsonQuery;
     }
@@ -91,6 +103,10 @@ public class Metrics implements Scrapable {
         return pgWire;
     }
 
+    public QueryCacheMetrics queryCache() {
+        return queryCache;
+    }
+
     public HealthMetricsImpl health() {
         return healthCheck;
     }
@@ -99,6 +115,10 @@ public class Metrics implements Scrapable {
         return tableWriter;
     }
 
+    public WalMetrics wal() {
+        return wal;
+    }
+
     @Override
     public void scrapeIntoPrometheus(CharSink sink) {
         metricsRegistry.scrapeIntoPrometheus(sink);
@@ -118,6 +118,9 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlSortKeyMaxPages;
     private final long sqlSortLightValuePageSize;
     private final int sqlSortLightValueMaxPages;
+    private final int sqlSortRadixThreshold;
+    private final int sqlSpillPartitionCount;
+    private final String sqlSpillRoot;
     private final int sqlHashJoinValuePageSize;
     private final int sqlHashJoinValueMaxPages;
     private final long sqlLatestByRowCount;
@@ -141,6 +144,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long sharedWorkerYieldThreshold;
     private final long sharedWorkerSleepThreshold;
     private final long sharedWorkerSleepTimeout;
+    private final boolean sharedWorkerNumaAware;
     private final WorkerPoolConfiguration sharedWorkerPoolConfiguration = new PropWorkerPoolConfiguration();
     private final PGWireConfiguration pgWireConfiguration = new PropPGWireConfiguration();
     private final InputFormatConfiguration inputFormatConfiguration;
@@ -166,6 +170,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlBindVariablePoolSize;
     private final int sqlPageFrameMinRows;
     private final int sqlPageFrameMaxRows;
+    private final int sqlPageFramePrefetchFrames;
     private final int sqlJitMode;
     private final int sqlJitIRMemoryPageSize;
     private final int sqlJitIRMemoryMaxPages;
@@ -224,6 +229,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int o3CopyQueueCapacity;
     private final int o3PurgeDiscoveryQueueCapacity;
     private final int o3ColumnMemorySize;
+    private final long o3MergeMemoryBudget;
     private final int maxUncommittedRows;
     private final long commitLag;
     private final long instanceHashLo;
@@ -238,6 +244,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int circuitBreakerBufferSize;
     private final long circuitBreakerTimeout;
     private final int latestByQueueCapacity;
+    private final int sortQueueCapacity;
+    private final int hashJoinBuildQueueCapacity;
     private final int sampleByIndexSearchPageSize;
     private final int binaryEncodingMaxLength;
     private final long writerDataIndexKeyAppendPageSize;
@@ -253,7 +261,9 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int cairoPageFrameReduceColumnListCapacity;
     private final int cairoPageFrameReduceTaskPoolCapacity;
     private final long writerFileOpenOpts;
+    private final int queryCacheCapacity;
     private final int queryCacheEventQueueCapacity;
+    private final int queueConsumerStripeCount;
     private final int columnPurgeQueueCapacity;
     private final long columnPurgeRetryDelayLimit;
     private final double columnPurgeRetryDelayMultiplier;
@@ -261,6 +271,13 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long columnPurgeRetryDelay;
     private final boolean sqlParallelFilterEnabled;
     private final boolean sqlParallelFilterPreTouchEnabled;
+    private final boolean sqlParallelGroupByEnabled;
+    private final boolean sqlParallelHashJoinEnabled;
+    private final boolean sqlParallelAsOfJoinEnabled;
+    private final boolean zoneMapEnabled;
+    private final long zoneMapBlockRows;
+    private final int bloomFilterBitsPerRow;
+    private final boolean symbolDictionaryCacheEnabled;
     private final int cairoPageFrameReduceShardCount;
     private final int sqlStrFunctionBufferMaxSize;
     private final int cairoSqlCopyQueueCapacity;
@@ -340,6 +357,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int pgBinaryParamsCapacity;
     private int pgCharacterStorePoolCapacity;
     private int pgConnectionPoolInitialCapacity;
+    private int pgCopyCommitBatchSize;
     private String pgPassword;
     private String pgUsername;
     private boolean pgReadOnlySecurityContext;
@@ -373,11 +391,14 @@ public class PropServerConfiguration implements ServerConfiguration {
     private long lineTcpNetConnectionTimeout;
     private long lineTcpNetConnectionQueueTimeout;
     private int lineTcpNetConnectionRcvBuf;
+    private boolean lineTcpNetIOURingEnabled;
     private int lineTcpConnectionPoolInitialCapacity;
     private LineProtoTimestampAdapter lineTcpTimestampAdapter;
     private int lineTcpMsgBufferSize;
     private int lineTcpMaxMeasurementSize;
     private int lineTcpWriterQueueCapacity;
+    private int lineTcpWriterBatchRows;
+    private long lineTcpWriterRebalanceInterval;
     private int lineTcpWriterWorkerCount;
     private int[] lineTcpWriterWorkerAffinity;
     private boolean lineTcpWriterWorkerPoolHaltOnError;
@@ -650,6 +671,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.pgBinaryParamsCapacity = getInt(properties, env, PropertyKey.PG_BINARY_PARAM_COUNT_CAPACITY, 2);
                 this.pgCharacterStorePoolCapacity = getInt(properties, env, PropertyKey.PG_CHARACTER_STORE_POOL_CAPACITY, 64);
                 this.pgConnectionPoolInitialCapacity = getInt(properties, env, PropertyKey.PG_CONNECTION_POOL_CAPACITY, 4);
+                this.pgCopyCommitBatchSize = getInt(properties, env, PropertyKey.PG_COPY_COMMIT_BATCH_SIZE, 100_000);
                 this.pgPassword = getString(properties, env, PropertyKey.PG_PASSWORD, "quest");
                 this.pgUsername = getString(properties, env, PropertyKey.PG_USER, "admin");
                 this.pgReadOnlySecurityContext = getBoolean(properties, env, PropertyKey.PG_SECURITY_READONLY, false);
@@ -719,6 +741,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlSortKeyMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_KEY_MAX_PAGES, Integer.MAX_VALUE);
             this.sqlSortLightValuePageSize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_SORT_LIGHT_VALUE_PAGE_SIZE, 8 * 1048576);
             this.sqlSortLightValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_LIGHT_VALUE_MAX_PAGES, Integer.MAX_VALUE);
+            this.sqlSortRadixThreshold = getInt(properties, env, PropertyKey.CAIRO_SQL_SORT_RADIX_THRESHOLD, 1024);
+            this.sqlSpillPartitionCount = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SQL_SPILL_PARTITION_COUNT, 16));
             this.sqlHashJoinValuePageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_VALUE_PAGE_SIZE, 16777216);
             this.sqlHashJoinValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_VALUE_MAX_PAGES, Integer.MAX_VALUE);
             this.sqlLatestByRowCount = getInt(properties, env, PropertyKey.CAIRO_SQL_LATEST_BY_ROW_COUNT, 1000);
@@ -750,6 +774,13 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.cairoPageFrameReduceColumnListCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_COLUMN_LIST_CAPACITY, 16));
             this.sqlParallelFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_ENABLED, true);
             this.sqlParallelFilterPreTouchEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_PRETOUCH_ENABLED, true);
+            this.sqlParallelGroupByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ENABLED, false);
+            this.sqlParallelHashJoinEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED, false);
+            this.sqlParallelAsOfJoinEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_ASOF_JOIN_ENABLED, false);
+            this.zoneMapEnabled = getBoolean(properties, env, PropertyKey.CAIRO_ZONE_MAP_ENABLED, true);
+            this.zoneMapBlockRows = Numbers.ceilPow2(getLong(properties, env, PropertyKey.CAIRO_ZONE_MAP_BLOCK_ROWS, 65536));
+            this.bloomFilterBitsPerRow = getInt(properties, env, PropertyKey.CAIRO_BLOOM_FILTER_BITS_PER_ROW, 10);
+            this.symbolDictionaryCacheEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SYMBOL_DICTIONARY_CACHE_ENABLED, true);
             this.cairoPageFrameReduceShardCount = getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 4);
             this.cairoPageFrameReduceTaskPoolCapacity = getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_TASK_POOL_CAPACITY, 4);
 
@@ -775,6 +806,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlDistinctTimestampLoadFactor = getDouble(properties, env, PropertyKey.CAIRO_SQL_DISTINCT_TIMESTAMP_LOAD_FACTOR, 0.5);
             this.sqlPageFrameMinRows = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_MIN_ROWS, 1_000);
             this.sqlPageFrameMaxRows = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 1_000_000);
+            this.sqlPageFramePrefetchFrames = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_PREFETCH_FRAMES, 0);
 
             this.sqlJitMode = getSqlJitMode(properties, env);
             this.sqlJitIRMemoryPageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JIT_IR_MEMORY_PAGE_SIZE, 8 * 1024);
@@ -822,6 +854,15 @@ public class PropServerConfiguration implements ServerConfiguration {
                 throw new ServerConfigurationException("Configuration value for " + PropertyKey.CAIRO_SQL_COPY_WORK_ROOT.getPropertyPath() + " can't point to root, data, conf or snapshot dirs. ");
             }
 
+            final String sqlSpillRoot = getString(properties, env, PropertyKey.CAIRO_SQL_SPILL_ROOT, this.tmpRoot);
+            this.sqlSpillRoot = sqlSpillRoot != null ? getCanonicalPath(sqlSpillRoot) : null;
+            if (pathEquals(root, this.sqlSpillRoot) ||
+                    pathEquals(this.root, this.sqlSpillRoot) ||
+                    pathEquals(this.confRoot, this.sqlSpillRoot) ||
+                    pathEquals(this.snapshotRoot, this.sqlSpillRoot)) {
+                throw new ServerConfigurationException("Configuration value for " + PropertyKey.CAIRO_SQL_SPILL_ROOT.getPropertyPath() + " can't point to root, data, conf or snapshot dirs. ");
+            }
+
             this.cairoSqlCopyMaxIndexChunkSize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_COPY_MAX_INDEX_CHUNK_SIZE, 100 * Numbers.SIZE_1MB);
             this.cairoSqlCopyMaxIndexChunkSize -= (cairoSqlCopyMaxIndexChunkSize % CsvFileIndexer.INDEX_ENTRY_SIZE);
             if (this.cairoSqlCopyMaxIndexChunkSize < 16) {
@@ -843,6 +884,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.o3CopyQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_O3_COPY_QUEUE_CAPACITY, 128);
             this.o3PurgeDiscoveryQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_O3_PURGE_DISCOVERY_QUEUE_CAPACITY, 128));
             this.o3ColumnMemorySize = (int) Files.ceilPageSize(getIntSize(properties, env, PropertyKey.CAIRO_O3_COLUMN_MEMORY_SIZE, 8 * Numbers.SIZE_1MB));
+            this.o3MergeMemoryBudget = getLongSize(properties, env, PropertyKey.CAIRO_O3_MERGE_MEMORY_BUDGET, 0);
             this.maxUncommittedRows = getInt(properties, env, PropertyKey.CAIRO_MAX_UNCOMMITTED_ROWS, 500_000);
             this.commitLag = getLong(properties, env, PropertyKey.CAIRO_COMMIT_LAG, 300_000) * 1_000;
             this.o3QuickSortEnabled = getBoolean(properties, env, PropertyKey.CAIRO_O3_QUICKSORT_ENABLED, false);
@@ -857,6 +899,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlAnalyticTreeKeyMaxPages = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SQL_ANALYTIC_TREE_MAX_PAGES, 2048));
             this.sqlTxnScoreboardEntryCount = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_O3_TXN_SCOREBOARD_ENTRY_COUNT, 16384));
             this.latestByQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_LATESTBY_QUEUE_CAPACITY, 32));
+            this.sortQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SORT_QUEUE_CAPACITY, 32));
+            this.hashJoinBuildQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_HASH_JOIN_BUILD_QUEUE_CAPACITY, 32));
             this.telemetryEnabled = getBoolean(properties, env, PropertyKey.TELEMETRY_ENABLED, true);
             this.telemetryDisableCompletely = getBoolean(properties, env, PropertyKey.TELEMETRY_DISABLE_COMPLETELY, false);
             this.telemetryQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.TELEMETRY_QUEUE_CAPACITY, 512));
@@ -910,6 +954,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 // deprecated
                 this.lineTcpNetConnectionRcvBuf = getIntSize(properties, env, PropertyKey.LINE_TCP_NET_RECV_BUF_SIZE, -1);
                 this.lineTcpNetConnectionRcvBuf = getIntSize(properties, env, PropertyKey.LINE_TCP_NET_CONNECTION_RCVBUF, this.lineTcpNetConnectionRcvBuf);
+                this.lineTcpNetIOURingEnabled = getBoolean(properties, env, PropertyKey.LINE_TCP_NET_IO_URING_ENABLED, false);
 
                 this.lineTcpConnectionPoolInitialCapacity = getInt(properties, env, PropertyKey.LINE_TCP_CONNECTION_POOL_CAPACITY, 8);
                 this.lineTcpTimestampAdapter = getLineTimestampAdaptor(properties, env, PropertyKey.LINE_TCP_TIMESTAMP);
@@ -920,6 +965,8 @@ public class PropServerConfiguration implements ServerConfiguration {
                             PropertyKey.LINE_TCP_MAX_MEASUREMENT_SIZE.getPropertyPath() + " (" + this.lineTcpMaxMeasurementSize + ") cannot be more than line.tcp.msg.buffer.size (" + this.lineTcpMsgBufferSize + ")");
                 }
                 this.lineTcpWriterQueueCapacity = getQueueCapacity(properties, env, PropertyKey.LINE_TCP_WRITER_QUEUE_CAPACITY, 128);
+                this.lineTcpWriterBatchRows = getInt(properties, env, PropertyKey.LINE_TCP_WRITER_BATCH_ROWS, 0);
+                this.lineTcpWriterRebalanceInterval = getLong(properties, env, PropertyKey.LINE_TCP_WRITER_REBALANCE_INTERVAL, 0);
                 this.lineTcpWriterWorkerCount = getInt(properties, env, PropertyKey.LINE_TCP_WRITER_WORKER_COUNT, 1);
                 cpuUsed += this.lineTcpWriterWorkerCount;
                 this.lineTcpWriterWorkerAffinity = getAffinity(properties, env, PropertyKey.LINE_TCP_WRITER_WORKER_AFFINITY, lineTcpWriterWorkerCount);
@@ -988,6 +1035,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sharedWorkerYieldThreshold = getLong(properties, env, PropertyKey.SHARED_WORKER_YIELD_THRESHOLD, 100);
             this.sharedWorkerSleepThreshold = getLong(properties, env, PropertyKey.SHARED_WORKER_SLEEP_THRESHOLD, 10_000);
             this.sharedWorkerSleepTimeout = getLong(properties, env, PropertyKey.SHARED_WORKER_SLEEP_TIMEOUT, 100);
+            this.sharedWorkerNumaAware = getBoolean(properties, env, PropertyKey.SHARED_WORKER_NUMA_AWARE, false);
 
             this.metricsEnabled = getBoolean(properties, env, PropertyKey.METRICS_ENABLED, false);
             this.writerAsyncCommandBusyWaitTimeout = getLong(properties, env, PropertyKey.CAIRO_WRITER_ALTER_BUSY_WAIT_TIMEOUT, 500);
@@ -996,7 +1044,9 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.writerAsyncCommandQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_WRITER_COMMAND_QUEUE_CAPACITY, 32));
             this.writerAsyncCommandQueueSlotSize = Numbers.ceilPow2(getLongSize(properties, env, PropertyKey.CAIRO_WRITER_COMMAND_QUEUE_SLOT_SIZE, 2048));
 
+            this.queryCacheCapacity = getInt(properties, env, PropertyKey.CAIRO_QUERY_CACHE_CAPACITY, 256);
             this.queryCacheEventQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_QUERY_CACHE_EVENT_QUEUE_CAPACITY, 4));
+            this.queueConsumerStripeCount = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_QUEUE_CONSUMER_STRIPE_COUNT, 1));
 
             this.buildInformation = buildInformation;
             this.binaryEncodingMaxLength = getInt(properties, env, PropertyKey.BINARYDATA_ENCODING_MAXLENGTH, 32768);
@@ -1915,6 +1965,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlBindVariablePoolSize;
         }
 
+        @Override
+        public int getBloomFilterBitsPerRow() {
+            return bloomFilterBitsPerRow;
+        }
+
         @Override
         public BuildInformation getBuildInformation() {
             return buildInformation;
@@ -2070,6 +2125,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlGroupByPoolCapacity;
         }
 
+        @Override
+        public int getHashJoinBuildQueueCapacity() {
+            return hashJoinBuildQueueCapacity;
+        }
+
         @Override
         public long getIdleCheckInterval() {
             return idleCheckInterval;
@@ -2155,6 +2215,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return o3ColumnMemorySize;
         }
 
+        @Override
+        public long getO3MergeMemoryBudget() {
+            return o3MergeMemoryBudget;
+        }
+
         @Override
         public int getO3CopyQueueCapacity() {
             return o3CopyQueueCapacity;
@@ -2210,11 +2275,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return o3PartitionPurgeListCapacity;
         }
 
+        @Override
+        public int getQueryCacheCapacity() {
+            return queryCacheCapacity;
+        }
+
         @Override
         public int getQueryCacheEventQueueCapacity() {
             return queryCacheEventQueueCapacity;
         }
 
+        @Override
+        public int getQueueConsumerStripeCount() {
+            return queueConsumerStripeCount;
+        }
+
         @Override
         public int getReaderPoolMaxSegments() {
             return readerPoolMaxSegments;
@@ -2265,6 +2340,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return snapshotRoot;
         }
 
+        @Override
+        public int getSortQueueCapacity() {
+            return sortQueueCapacity;
+        }
+
         @Override
         public long getSpinLockTimeout() {
             return spinLockTimeout;
@@ -2485,6 +2565,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlPageFrameMaxRows;
         }
 
+        @Override
+        public int getSqlPageFramePrefetchFrames() {
+            return sqlPageFramePrefetchFrames;
+        }
+
         @Override
         public int getSqlPageFrameMinRows() {
             return sqlPageFrameMinRows;
@@ -2515,6 +2600,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlSortLightValuePageSize;
         }
 
+        @Override
+        public int getSqlSortRadixThreshold() {
+            return sqlSortRadixThreshold;
+        }
+
         @Override
         public int getSqlSortValueMaxPages() {
             return sqlSortValueMaxPages;
@@ -2525,6 +2615,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlSortValuePageSize;
         }
 
+        @Override
+        public int getSqlSpillPartitionCount() {
+            return sqlSpillPartitionCount;
+        }
+
+        @Override
+        public CharSequence getSqlSpillRoot() {
+            return sqlSpillRoot;
+        }
+
         @Override
         public CharSequence getSystemTableNamePrefix() {
             return systemTableNamePrefix;
@@ -2628,6 +2728,36 @@ public class PropServerConfiguration implements ServerConfiguration {
         public boolean isSqlParallelFilterPreTouchEnabled() {
             return sqlParallelFilterPreTouchEnabled;
         }
+
+        @Override
+        public boolean isSqlParallelGroupByEnabled() {
+            return sqlParallelGroupByEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelHashJoinEnabled() {
+            return sqlParallelHashJoinEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelAsOfJoinEnabled() {
+            return sqlParallelAsOfJoinEnabled;
+        }
+
+        @Override
+        public long getZoneMapBlockRows() {
+            return zoneMapBlockRows;
+        }
+
+        @Override
+        public boolean isSymbolDictionaryCacheEnabled() {
+            return symbolDictionaryCacheEnabled;
+        }
+
+        @Override
+        public boolean isZoneMapEnabled() {
+            return zoneMapEnabled;
+        }
     }
 
     private class PropLineUdpReceiverConfiguration implements LineUdpReceiverConfiguration {
@@ -2807,6 +2937,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getQueueTimeout() {
             return lineTcpNetConnectionQueueTimeout;
         }
+
+        @Override
+        public boolean isIOURingEnabled() {
+            return lineTcpNetIOURingEnabled;
+        }
     }
 
     private class PropLineTcpWriterWorkerPoolConfiguration implements WorkerPoolConfiguration {
@@ -2975,6 +3110,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineTcpWriterQueueCapacity;
         }
 
+        @Override
+        public int getWriterBatchRows() {
+            return lineTcpWriterBatchRows;
+        }
+
+        @Override
+        public long getWriterRebalanceInterval() {
+            return lineTcpWriterRebalanceInterval;
+        }
+
         @Override
         public WorkerPoolConfiguration getWriterWorkerPoolConfiguration() {
             return lineTcpWriterWorkerPoolConfiguration;
@@ -3057,6 +3202,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getMaxQueryResponseRowLimit() {
             return maxHttpQueryResponseRowLimit;
         }
+
+        @Override
+        public boolean isQueryCacheEnabled() {
+            return httpSqlCacheEnabled;
+        }
     }
 
     private class PropWorkerPoolConfiguration implements WorkerPoolConfiguration {
@@ -3094,6 +3244,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getSleepTimeout() {
             return sharedWorkerSleepTimeout;
         }
+
+        @Override
+        public boolean isNumaAware() {
+            return sharedWorkerNumaAware;
+        }
     }
 
     private class PropWaitProcessorConfiguration implements WaitProcessorConfiguration {
@@ -3217,6 +3372,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return pgConnectionPoolInitialCapacity;
         }
 
+        @Override
+        public int getCopyCommitBatchSize() {
+            return pgCopyCommitBatchSize;
+        }
+
         @Override
         public String getDefaultPassword() {
             return pgPassword;
@@ -74,6 +74,9 @@ public enum PropertyKey {
     CAIRO_SQL_SORT_KEY_MAX_PAGES("cairo.sql.sort.key.max.pages"),
     CAIRO_SQL_SORT_LIGHT_VALUE_PAGE_SIZE("cairo.sql.sort.light.value.page.size"),
     CAIRO_SQL_SORT_LIGHT_VALUE_MAX_PAGES("cairo.sql.sort.light.value.max.pages"),
+    CAIRO_SQL_SORT_RADIX_THRESHOLD("cairo.sql.sort.radix.threshold"),
+    CAIRO_SQL_SPILL_PARTITION_COUNT("cairo.sql.spill.partition.count"),
+    CAIRO_SQL_SPILL_ROOT("cairo.sql.spill.root"),
     CAIRO_SQL_HASH_JOIN_VALUE_PAGE_SIZE("cairo.sql.hash.join.value.page.size"),
     CAIRO_SQL_HASH_JOIN_VALUE_MAX_PAGES("cairo.sql.hash.join.value.max.pages"),
     CAIRO_SQL_LATEST_BY_ROW_COUNT("cairo.sql.latest.by.row.count"),
@@ -88,6 +91,13 @@ public enum PropertyKey {
     CAIRO_PAGE_FRAME_COLUMN_LIST_CAPACITY("cairo.page.frame.column.list.capacity"),
     CAIRO_SQL_PARALLEL_FILTER_ENABLED("cairo.sql.parallel.filter.enabled"),
     CAIRO_SQL_PARALLEL_FILTER_PRETOUCH_ENABLED("cairo.sql.parallel.filter.pretouch.enabled"),
+    CAIRO_SQL_PARALLEL_GROUPBY_ENABLED("cairo.sql.parallel.groupby.enabled"),
+    CAIRO_SQL_PARALLEL_HASH_JOIN_ENABLED("cairo.sql.parallel.hash.join.enabled"),
+    CAIRO_SQL_PARALLEL_ASOF_JOIN_ENABLED("cairo.sql.parallel.asof.join.enabled"),
+    CAIRO_ZONE_MAP_ENABLED("cairo.zone.map.enabled"),
+    CAIRO_ZONE_MAP_BLOCK_ROWS("cairo.zone.map.block.rows"),
+    CAIRO_BLOOM_FILTER_BITS_PER_ROW("cairo.bloom.filter.bits.per.row"),
+    CAIRO_SYMBOL_DICTIONARY_CACHE_ENABLED("cairo.symbol.dictionary.cache.enabled"),
     CAIRO_PAGE_FRAME_SHARD_COUNT("cairo.page.frame.shard.count"),
     CAIRO_PAGE_FRAME_TASK_POOL_CAPACITY("cairo.page.frame.task.pool.capacity"),
     CAIRO_SQL_JOIN_METADATA_PAGE_SIZE("cairo.sql.join.metadata.page.size"),
@@ -115,6 +125,7 @@ public enum PropertyKey {
     CAIRO_SQL_DISTINCT_TIMESTAMP_LOAD_FACTOR("cairo.sql.distinct.timestamp.load.factor"),
     CAIRO_SQL_PAGE_FRAME_MIN_ROWS("cairo.sql.page.frame.min.rows"),
     CAIRO_SQL_PAGE_FRAME_MAX_ROWS("cairo.sql.page.frame.max.rows"),
+    CAIRO_SQL_PAGE_FRAME_PREFETCH_FRAMES("cairo.sql.page.frame.prefetch.frames"),
     CAIRO_SQL_JIT_IR_MEMORY_PAGE_SIZE("cairo.sql.jit.ir.memory.page.size"),
     CAIRO_SQL_JIT_IR_MEMORY_MAX_PAGES("cairo.sql.jit.ir.memory.max.pages"),
     CAIRO_SQL_JIT_BIND_VARS_MEMORY_PAGE_SIZE("cairo.sql.jit.bind.vars.memory.page.size"),
@@ -145,6 +156,7 @@ public enum PropertyKey {
     CAIRO_O3_UPD_PARTITION_SIZE_QUEUE_CAPACITY("cairo.o3.upd.partition.size.queue.capacity"),
     CAIRO_O3_PURGE_DISCOVERY_QUEUE_CAPACITY("cairo.o3.purge.discovery.queue.capacity"),
     CAIRO_O3_COLUMN_MEMORY_SIZE("cairo.o3.column.memory.size"),
+    CAIRO_O3_MERGE_MEMORY_BUDGET("cairo.o3.merge.memory.budget"),
     CAIRO_MAX_UNCOMMITTED_ROWS("cairo.max.uncommitted.rows"),
     CAIRO_COMMIT_LAG("cairo.commit.lag"),
     CAIRO_O3_QUICKSORT_ENABLED("cairo.o3.quicksort.enabled"),
@@ -160,9 +172,13 @@ public enum PropertyKey {
     CAIRO_SQL_ANALYTIC_TREE_MAX_PAGES("cairo.sql.analytic.tree.max.pages"),
     CAIRO_O3_TXN_SCOREBOARD_ENTRY_COUNT("cairo.o3.txn.scoreboard.entry.count"),
     CAIRO_LATESTBY_QUEUE_CAPACITY("cairo.latestby.queue.capacity"),
+    CAIRO_SORT_QUEUE_CAPACITY("cairo.sort.queue.capacity"),
+    CAIRO_HASH_JOIN_BUILD_QUEUE_CAPACITY("cairo.hash.join.build.queue.capacity"),
     CAIRO_O3_PARTITION_PURGE_LIST_INITIAL_CAPACITY("cairo.o3.partition.purge.list.initial.capacity"),
     CAIRO_O3_ENABLED("cairo.o3.enabled"),
+    CAIRO_QUERY_CACHE_CAPACITY("cairo.query.cache.capacity"),
     CAIRO_QUERY_CACHE_EVENT_QUEUE_CAPACITY("cairo.query.cache.event.queue.capacity"),
+    CAIRO_QUEUE_CONSUMER_STRIPE_COUNT("cairo.queue.consumer.stripe.count"),
     CAIRO_IO_URING_ENABLED("cairo.iouring.enabled"),
     CAIRO_MAX_CRASH_FILES("cairo.max.crash.files"),
     CIRCUIT_BREAKER_THROTTLE("circuit.breaker.throttle"),
@@ -270,11 +286,14 @@ public enum PropertyKey {
     LINE_TCP_NET_CONNECTION_QUEUE_TIMEOUT("line.tcp.net.connection.queue.timeout"),
     LINE_TCP_NET_RECV_BUF_SIZE("line.tcp.net.recv.buf.size"),
     LINE_TCP_NET_CONNECTION_RCVBUF("line.tcp.net.connection.rcvbuf"),
+    LINE_TCP_NET_IO_URING_ENABLED("line.tcp.net.io.uring.enabled"),
     LINE_TCP_CONNECTION_POOL_CAPACITY("line.tcp.connection.pool.capacity"),
     LINE_TCP_TIMESTAMP("line.tcp.timestamp"),
     LINE_TCP_MSG_BUFFER_SIZE("line.tcp.msg.buffer.size"),
     LINE_TCP_MAX_MEASUREMENT_SIZE("line.tcp.max.measurement.size"),
     LINE_TCP_WRITER_QUEUE_CAPACITY("line.tcp.writer.queue.capacity"),
+    LINE_TCP_WRITER_BATCH_ROWS("line.tcp.writer.batch.rows"),
+    LINE_TCP_WRITER_REBALANCE_INTERVAL("line.tcp.writer.rebalance.interval"),
     LINE_TCP_WRITER_WORKER_COUNT("line.tcp.writer.worker.count"),
     LINE_TCP_WRITER_WORKER_AFFINITY("line.tcp.writer.worker.affinity"),
     LINE_TCP_WRITER_HALT_ON_ERROR("line.tcp.writer.halt.on.error"),
@@ -330,6 +349,7 @@ public enum PropertyKey {
     PG_BINARY_PARAM_COUNT_CAPACITY("pg.binary.param.count.capacity"),
     PG_CHARACTER_STORE_POOL_CAPACITY("pg.character.store.pool.capacity"),
     PG_CONNECTION_POOL_CAPACITY("pg.connection.pool.capacity"),
+    PG_COPY_COMMIT_BATCH_SIZE("pg.copy.commit.batch.size"),
     PG_WORKER_COUNT("pg.worker.count"),
     PG_SELECT_CACHE_BLOCK_COUNT("pg.select.cache.block.count"),
     PG_SELECT_CACHE_ROW_COUNT("pg.select.cache.row.count"),
@@ -345,6 +365,7 @@ public enum PropertyKey {
     SHARED_WORKER_COUNT("shared.worker.count"),
     SHARED_WORKER_AFFINITY("shared.worker.affinity"),
     SHARED_WORKER_HALT_ON_ERROR("shared.worker.haltOnError"),
+    SHARED_WORKER_NUMA_AWARE("shared.worker.numa.aware"),
     SHARED_WORKER_SLEEP_THRESHOLD("shared.worker.sleep.threshold"),
     SHARED_WORKER_SLEEP_TIMEOUT("shared.worker.sleep.timeout"),
     SHARED_WORKER_YIELD_THRESHOLD("shared.worker.yield.threshold"),
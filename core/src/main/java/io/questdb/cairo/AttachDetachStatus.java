@@ -34,6 +34,7 @@ public enum AttachDetachStatus {
     DETACH_ERR_COPY,
     DETACH_ERR_ALREADY_DETACHED,
     DETACH_ERR_MKDIR,
+    DETACH_ERR_COMPRESSED,
     ATTACH_ERR_PARTITION_EXISTS,
     ATTACH_ERR_RENAME,
     ATTACH_ERR_COPY,
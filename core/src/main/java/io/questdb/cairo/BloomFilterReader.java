@@ -0,0 +1,247 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+
+import java.io.Closeable;
+
+/**
+ * Read-only view of a column Bloom filter file. Filters are kept per block of rows,
+ * blocks are the same as those of zone maps. The file is a fixed header followed by
+ * one filter per block:
+ * <pre>
+ *     header: covered row count (8), block row count (8), column type (8), filter size (8)
+ *     entry:  split block Bloom filter of "filter size" bytes
+ * </pre>
+ * Filter is an array of 32-byte buckets, each value sets one bit in every 32-bit word of
+ * a single bucket. Hashes of values are produced by {@link #hashLong(long)} for long and
+ * symbol columns and by {@link #hashStr(CharSequence)} for string columns. Null values
+ * are not added to the filter. Like zone maps, filter is trusted only when the writer
+ * published covered row count that reaches the end of the block.
+ */
+public class BloomFilterReader implements Closeable {
+    static final int HEADER_OFFSET_COVERED_ROWS = 0;
+    static final int HEADER_OFFSET_BLOCK_ROWS = 8;
+    static final int HEADER_OFFSET_COLUMN_TYPE = 16;
+    static final int HEADER_OFFSET_FILTER_SIZE = 24;
+    static final int HEADER_SIZE = 32;
+    static final int BUCKET_SIZE = 32;
+    private static final int[] SALT = {
+            0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d,
+            0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31
+    };
+    private FilesFacade ff;
+    private long address;
+    private long size;
+    private long coveredRows;
+    private long partitionRowCount;
+    private long filterSize;
+    private int blockRowsShift;
+
+    /**
+     * Size of single block filter. It is rounded up to power of 2, so that single bucket
+     * never crosses page boundary.
+     *
+     * @param blockRows  number of rows in block
+     * @param bitsPerRow number of filter bits per row
+     * @return filter size in bytes
+     */
+    public static long getFilterSize(long blockRows, int bitsPerRow) {
+        return Math.max(BUCKET_SIZE, Numbers.ceilPow2(blockRows * bitsPerRow / Byte.SIZE));
+    }
+
+    public static long hashLong(long value) {
+        // murmur3 finalizer
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Hashes chars of the value the same way as the writer hashes UTF-16 string
+     * column data.
+     */
+    public static long hashStr(CharSequence value) {
+        return Hash.xxHash64(0, value.length() * 2L, 0, new CharSequenceAccessor(value));
+    }
+
+    /**
+     * Adds hash to block filter.
+     *
+     * @param filterAddress address of block filter
+     * @param filterSize    size of block filter in bytes
+     * @param hash          value hash
+     */
+    public static void insert(long filterAddress, long filterSize, long hash) {
+        final long bucketAddress = filterAddress + bucket(filterSize, hash) * BUCKET_SIZE;
+        final int key = (int) hash;
+        for (int i = 0; i < SALT.length; i++) {
+            final long p = bucketAddress + (long) i * Integer.BYTES;
+            Unsafe.getUnsafe().putInt(p, Unsafe.getUnsafe().getInt(p) | (1 << ((key * SALT[i]) >>> 27)));
+        }
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.LONG:
+            case ColumnType.SYMBOL:
+            case ColumnType.STRING:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (address != 0) {
+            ff.munmap(address, size, MemoryTag.MMAP_TABLE_READER);
+            address = 0;
+            size = 0;
+        }
+    }
+
+    public int getBlockRowsShift() {
+        return blockRowsShift;
+    }
+
+    /**
+     * Filter can be used only when writer covered all rows of the block that are
+     * visible to the reader.
+     *
+     * @param block block index within partition
+     * @return true when filter of the block is reliable
+     */
+    public boolean isBlockCovered(long block) {
+        final long blockRowHi = Math.min((block + 1) << blockRowsShift, partitionRowCount);
+        return coveredRows >= blockRowHi && HEADER_SIZE + (block + 1) * filterSize <= size;
+    }
+
+    /**
+     * @param block block index within partition
+     * @param hash  value hash
+     * @return false when none of the block rows has the value
+     */
+    public boolean mayContain(long block, long hash) {
+        final long bucketAddress = address + HEADER_SIZE + block * filterSize + bucket(filterSize, hash) * BUCKET_SIZE;
+        final int key = (int) hash;
+        for (int i = 0; i < SALT.length; i++) {
+            final int bit = 1 << ((key * SALT[i]) >>> 27);
+            if ((Unsafe.getUnsafe().getInt(bucketAddress + (long) i * Integer.BYTES) & bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Maps Bloom filter file of a column partition.
+     *
+     * @param ff                files facade
+     * @param path              path to Bloom filter file
+     * @param columnType        type of column as seen by the reader, file of a different type is ignored
+     * @param partitionRowCount number of partition rows visible to the reader
+     * @return false when file does not exist or cannot be used
+     */
+    public boolean of(FilesFacade ff, LPSZ path, int columnType, long partitionRowCount) {
+        close();
+        final long fd = ff.openRO(path);
+        if (fd < 0) {
+            return false;
+        }
+        try {
+            final long len = ff.length(fd);
+            if (len < HEADER_SIZE) {
+                return false;
+            }
+            final long addr = ff.mmap(fd, len, 0, Files.MAP_RO, MemoryTag.MMAP_TABLE_READER);
+            if (addr == FilesFacade.MAP_FAILED) {
+                return false;
+            }
+            this.ff = ff;
+            this.address = addr;
+            this.size = len;
+        } finally {
+            ff.close(fd);
+        }
+
+        final long blockRows = Unsafe.getUnsafe().getLong(address + HEADER_OFFSET_BLOCK_ROWS);
+        final long filterSize = Unsafe.getUnsafe().getLong(address + HEADER_OFFSET_FILTER_SIZE);
+        if (blockRows < 1 || (blockRows & (blockRows - 1)) != 0
+                || filterSize < BUCKET_SIZE || (filterSize & (filterSize - 1)) != 0
+                || Unsafe.getUnsafe().getLong(address + HEADER_OFFSET_COLUMN_TYPE) != columnType) {
+            close();
+            return false;
+        }
+        this.blockRowsShift = Numbers.msb(blockRows);
+        this.filterSize = filterSize;
+        this.partitionRowCount = partitionRowCount;
+        this.coveredRows = Unsafe.getUnsafe().getLong(address + HEADER_OFFSET_COVERED_ROWS);
+        // filters are published before covered row count
+        Unsafe.getUnsafe().loadFence();
+        return true;
+    }
+
+    private static long bucket(long filterSize, long hash) {
+        return ((hash >>> 32) * (filterSize / BUCKET_SIZE)) >>> 32;
+    }
+
+    // Presents chars of a sequence as little-endian UTF-16 bytes. Hash reads longs and ints
+    // at even offsets only, length of the data is even.
+    private static class CharSequenceAccessor implements Hash.MemoryAccessor {
+        private final CharSequence value;
+
+        private CharSequenceAccessor(CharSequence value) {
+            this.value = value;
+        }
+
+        @Override
+        public byte getByte(long offset) {
+            final char c = value.charAt((int) (offset >> 1));
+            return (offset & 1) == 0 ? (byte) c : (byte) (c >> 8);
+        }
+
+        @Override
+        public int getInt(long offset) {
+            final int i = (int) (offset >> 1);
+            return value.charAt(i) | (value.charAt(i + 1) << 16);
+        }
+
+        @Override
+        public long getLong(long offset) {
+            final int i = (int) (offset >> 1);
+            return value.charAt(i)
+                    | ((long) value.charAt(i + 1) << 16)
+                    | ((long) value.charAt(i + 2) << 32)
+                    | ((long) value.charAt(i + 3) << 48);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+import static io.questdb.cairo.BloomFilterReader.*;
+
+/**
+ * Maintains per-block Bloom filters of long, symbol and string column partitions. Like
+ * {@link ZoneMapWriter}, it only hashes rows that are not yet covered by the filter file.
+ * See {@link BloomFilterReader} for the file layout.
+ */
+public class BloomFilterWriter implements Closeable {
+    private static final Log LOG = LogFactory.getLog(BloomFilterWriter.class);
+    private final FilesFacade ff;
+    private final long blockRows;
+    private final int blockRowsShift;
+    private final long filterSize;
+    private final long fileOpenOpts;
+    private final MemoryCMARW mem = Vm.getCMARWInstance();
+
+    public BloomFilterWriter(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.blockRows = configuration.getZoneMapBlockRows();
+        this.blockRowsShift = Numbers.msb(blockRows);
+        this.filterSize = BloomFilterReader.getFilterSize(blockRows, configuration.getBloomFilterBitsPerRow());
+        this.fileOpenOpts = configuration.getWriterFileOpenOpts();
+    }
+
+    @Override
+    public void close() {
+        closeFilter();
+    }
+
+    /**
+     * Brings Bloom filter of column partition up to date with the partition row count.
+     *
+     * @param path          path to partition directory, it is restored before the method returns
+     * @param columnName    name of the column
+     * @param columnNameTxn column name txn in the partition
+     * @param columnType    column type, must be supported by {@link BloomFilterReader#isSupported(int)}
+     * @param columnTop     column top in the partition
+     * @param rowCount      partition row count
+     */
+    public void update(Path path, CharSequence columnName, long columnNameTxn, int columnType, long columnTop, long rowCount) {
+        if (rowCount < 1) {
+            return;
+        }
+        final int plen = path.length();
+        try {
+            final long coveredRows = openFilter(path, columnName, columnNameTxn, columnType, rowCount);
+            if (coveredRows < rowCount) {
+                if (ColumnType.isString(columnType)) {
+                    updateStrBlocks(path.trimTo(plen), columnName, columnNameTxn, columnTop, coveredRows, rowCount);
+                } else {
+                    updateFixBlocks(path.trimTo(plen), columnName, columnNameTxn, columnType, columnTop, coveredRows, rowCount);
+                }
+            }
+        } finally {
+            path.trimTo(plen);
+            closeFilter();
+        }
+    }
+
+    private void closeFilter() {
+        if (mem.isOpen()) {
+            // do not let close() zero out the tail of the file
+            mem.jumpTo(mem.size());
+            mem.close(false);
+        }
+    }
+
+    private long openFilter(Path path, CharSequence columnName, long columnNameTxn, int columnType, long rowCount) {
+        TableUtils.bfFile(path, columnName, columnNameTxn);
+        final long len = ff.length(path);
+        if (len >= HEADER_SIZE) {
+            mem.of(ff, path, ff.getPageSize(), len, MemoryTag.MMAP_TABLE_WRITER, fileOpenOpts, -1);
+            final long coveredRows = mem.getLong(HEADER_OFFSET_COVERED_ROWS);
+            if (mem.getLong(HEADER_OFFSET_BLOCK_ROWS) == blockRows
+                    && mem.getLong(HEADER_OFFSET_FILTER_SIZE) == filterSize
+                    && mem.getLong(HEADER_OFFSET_COLUMN_TYPE) == columnType
+                    && coveredRows <= rowCount) {
+                return coveredRows;
+            }
+            closeFilter();
+        }
+
+        if (len > -1) {
+            // readers may still have the file mapped, replace it rather than rewrite in place
+            LOG.info().$("rebuilding bloom filter [path=").$(path).I$();
+            if (!ff.remove(path)) {
+                throw CairoException.critical(ff.errno()).put("could not remove bloom filter [file=").put(path).put(']');
+            }
+        }
+
+        mem.of(ff, path, ff.getPageSize(), -1, MemoryTag.MMAP_TABLE_WRITER, fileOpenOpts, -1);
+        mem.putLong(HEADER_OFFSET_COVERED_ROWS, 0);
+        mem.putLong(HEADER_OFFSET_BLOCK_ROWS, blockRows);
+        mem.putLong(HEADER_OFFSET_COLUMN_TYPE, columnType);
+        mem.putLong(HEADER_OFFSET_FILTER_SIZE, filterSize);
+        return 0;
+    }
+
+    private void publish(long rowCount) {
+        // publish filters before covered row count
+        Unsafe.getUnsafe().storeFence();
+        mem.putLong(HEADER_OFFSET_COVERED_ROWS, rowCount);
+    }
+
+    // rows above column top are nulls, nulls are not added to the filter
+    private void updateFixBlocks(
+            Path path,
+            CharSequence columnName,
+            long columnNameTxn,
+            int columnType,
+            long columnTop,
+            long coveredRows,
+            long rowCount
+    ) {
+        final long dataRowLo = Math.max(coveredRows, columnTop) - columnTop;
+        final long dataRowHi = rowCount - columnTop;
+        if (dataRowLo < dataRowHi) {
+            final boolean symbol = ColumnType.isSymbol(columnType);
+            final int shl = ColumnType.pow2SizeOf(columnType);
+            final long fd = TableUtils.openRO(ff, TableUtils.dFile(path, columnName, columnNameTxn), LOG);
+            long mapAddress = 0;
+            long mapOffset = 0;
+            long mapSize = 0;
+            try {
+                final long dataLo = dataRowLo << shl;
+                final long dataHi = dataRowHi << shl;
+                if (ff.length(fd) < dataHi) {
+                    throw CairoException.critical(0).put("column file is too short [file=").put(path)
+                            .put(", expectedSize=").put(dataHi)
+                            .put(", actualSize=").put(ff.length(fd))
+                            .put(']');
+                }
+                mapOffset = dataLo - dataLo % ff.getPageSize();
+                mapSize = dataHi - mapOffset;
+                mapAddress = TableUtils.mapRO(ff, fd, mapSize, mapOffset, MemoryTag.MMAP_TABLE_WRITER);
+                // address of the first column value in the file
+                final long dataAddress = mapAddress - mapOffset;
+
+                long row = dataRowLo + columnTop;
+                while (row < rowCount) {
+                    final long block = row >>> blockRowsShift;
+                    final long blockRowHi = Math.min((block + 1) << blockRowsShift, rowCount);
+                    final long filterAddress = mem.appendAddressFor(HEADER_SIZE + block * filterSize, filterSize);
+                    if (symbol) {
+                        for (long p = dataAddress + ((row - columnTop) << shl), lim = dataAddress + ((blockRowHi - columnTop) << shl); p < lim; p += Integer.BYTES) {
+                            final int key = Unsafe.getUnsafe().getInt(p);
+                            if (key != SymbolTable.VALUE_IS_NULL) {
+                                BloomFilterReader.insert(filterAddress, filterSize, hashLong(key));
+                            }
+                        }
+                    } else {
+                        for (long p = dataAddress + ((row - columnTop) << shl), lim = dataAddress + ((blockRowHi - columnTop) << shl); p < lim; p += Long.BYTES) {
+                            final long value = Unsafe.getUnsafe().getLong(p);
+                            if (value != Numbers.LONG_NaN) {
+                                BloomFilterReader.insert(filterAddress, filterSize, hashLong(value));
+                            }
+                        }
+                    }
+                    row = blockRowHi;
+                }
+            } finally {
+                if (mapAddress != 0) {
+                    ff.munmap(mapAddress, mapSize, MemoryTag.MMAP_TABLE_WRITER);
+                }
+                ff.close(fd);
+            }
+        }
+        // make sure filters of null-only blocks exist too
+        mem.appendAddressFor(HEADER_SIZE + ((rowCount - 1) >>> blockRowsShift) * filterSize, filterSize);
+        publish(rowCount);
+    }
+
+    private void updateStrBlocks(
+            Path path,
+            CharSequence columnName,
+            long columnNameTxn,
+            long columnTop,
+            long coveredRows,
+            long rowCount
+    ) {
+        final int plen = path.length();
+        final long dataRowLo = Math.max(coveredRows, columnTop) - columnTop;
+        final long dataRowHi = rowCount - columnTop;
+        if (dataRowLo < dataRowHi) {
+            long indexFd = -1;
+            long indexMapAddress = 0;
+            long indexMapOffset = 0;
+            long indexMapSize = 0;
+            long dataFd = -1;
+            long dataMapAddress = 0;
+            long dataMapOffset = 0;
+            long dataMapSize = 0;
+            try {
+                // index file has row count + 1 entries, the last one is the end of data
+                indexFd = TableUtils.openRO(ff, TableUtils.iFile(path.trimTo(plen), columnName, columnNameTxn), LOG);
+                final long indexLo = dataRowLo * Long.BYTES;
+                final long indexHi = (dataRowHi + 1) * Long.BYTES;
+                if (ff.length(indexFd) < indexHi) {
+                    throw CairoException.critical(0).put("column file is too short [file=").put(path)
+                            .put(", expectedSize=").put(indexHi)
+                            .put(", actualSize=").put(ff.length(indexFd))
+                            .put(']');
+                }
+                indexMapOffset = indexLo - indexLo % ff.getPageSize();
+                indexMapSize = indexHi - indexMapOffset;
+                indexMapAddress = TableUtils.mapRO(ff, indexFd, indexMapSize, indexMapOffset, MemoryTag.MMAP_TABLE_WRITER);
+                // addresses of the first entries in the files
+                final long indexAddress = indexMapAddress - indexMapOffset;
+
+                final long dataLo = Unsafe.getUnsafe().getLong(indexAddress + indexLo);
+                final long dataHi = Unsafe.getUnsafe().getLong(indexAddress + dataRowHi * Long.BYTES);
+                dataFd = TableUtils.openRO(ff, TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn), LOG);
+                if (ff.length(dataFd) < dataHi) {
+                    throw CairoException.critical(0).put("column file is too short [file=").put(path)
+                            .put(", expectedSize=").put(dataHi)
+                            .put(", actualSize=").put(ff.length(dataFd))
+                            .put(']');
+                }
+                // every row has at least the length prefix, so data range is never empty
+                dataMapOffset = dataLo - dataLo % ff.getPageSize();
+                dataMapSize = dataHi - dataMapOffset;
+                dataMapAddress = TableUtils.mapRO(ff, dataFd, dataMapSize, dataMapOffset, MemoryTag.MMAP_TABLE_WRITER);
+                final long dataAddress = dataMapAddress - dataMapOffset;
+
+                long row = dataRowLo + columnTop;
+                while (row < rowCount) {
+                    final long block = row >>> blockRowsShift;
+                    final long blockRowHi = Math.min((block + 1) << blockRowsShift, rowCount);
+                    final long filterAddress = mem.appendAddressFor(HEADER_SIZE + block * filterSize, filterSize);
+                    for (long r = row - columnTop, lim = blockRowHi - columnTop; r < lim; r++) {
+                        final long offset = Unsafe.getUnsafe().getLong(indexAddress + r * Long.BYTES);
+                        final int len = Unsafe.getUnsafe().getInt(dataAddress + offset);
+                        if (len != TableUtils.NULL_LEN) {
+                            BloomFilterReader.insert(filterAddress, filterSize, Hash.hashMem(dataAddress + offset + Integer.BYTES, len * 2L));
+                        }
+                    }
+                    row = blockRowHi;
+                }
+            } finally {
+                if (dataMapAddress != 0) {
+                    ff.munmap(dataMapAddress, dataMapSize, MemoryTag.MMAP_TABLE_WRITER);
+                }
+                if (indexMapAddress != 0) {
+                    ff.munmap(indexMapAddress, indexMapSize, MemoryTag.MMAP_TABLE_WRITER);
+                }
+                if (dataFd != -1) {
+                    ff.close(dataFd);
+                }
+                if (indexFd != -1) {
+                    ff.close(indexFd);
+                }
+            }
+        }
+        mem.appendAddressFor(HEADER_SIZE + ((rowCount - 1) >>> blockRowsShift) * filterSize, filterSize);
+        publish(rowCount);
+    }
+}
@@ -71,6 +71,14 @@ public interface CairoConfiguration {
 
     int getBindVariablePoolSize();
 
+    /**
+     * Size of Bloom filters that are kept per zone map block of columns created with BLOOM flag.
+     * Zero disables maintenance of Bloom filters.
+     *
+     * @return number of filter bits per row of the block
+     */
+    int getBloomFilterBitsPerRow();
+
     BuildInformation getBuildInformation();
 
     SqlExecutionCircuitBreakerConfiguration getCircuitBreakerConfiguration();
@@ -139,6 +147,8 @@ public interface CairoConfiguration {
 
     int getGroupByPoolCapacity();
 
+    int getHashJoinBuildQueueCapacity();
+
     default IOURingFacade getIOURingFacade() {
         return IOURingFacadeImpl.INSTANCE;
     }
@@ -183,6 +193,14 @@ public interface CairoConfiguration {
 
     int getO3CopyQueueCapacity();
 
+    /**
+     * Limits estimated memory of partition merges a single O3 commit runs concurrently.
+     * A partition merge that does not fit waits until preceding merges complete.
+     *
+     * @return budget in bytes, 0 means unlimited
+     */
+    long getO3MergeMemoryBudget();
+
     int getO3OpenColumnQueueCapacity();
 
     int getO3PartitionQueueCapacity();
@@ -208,8 +226,18 @@ public interface CairoConfiguration {
 
     int getPartitionPurgeListCapacity();
 
+    int getQueryCacheCapacity();
+
     int getQueryCacheEventQueueCapacity();
 
+    /**
+     * Number of stripes the consumer sequences of O3 and page frame reduce queues are split into.
+     * Values above 1 trade strict FIFO order of consumption for less CAS contention between workers.
+     *
+     * @return stripe count, 1 keeps the single consumer cursor
+     */
+    int getQueueConsumerStripeCount();
+
     default Rnd getRandom() {
         Rnd rnd = RANDOM.get();
         if (rnd == null) {
@@ -252,6 +280,8 @@ public interface CairoConfiguration {
 
     CharSequence getSnapshotRoot(); // same as root/../snapshot
 
+    int getSortQueueCapacity();
+
     long getSpinLockTimeout();
 
     int getSqlAnalyticRowIdMaxPages();
@@ -348,6 +378,14 @@ public interface CairoConfiguration {
 
     int getSqlPageFrameMinRows();
 
+    /**
+     * Number of page frames ahead of the reduce workers whose column pages are
+     * advised to the kernel for read-ahead before they are filtered.
+     *
+     * @return prefetch distance in frames, 0 disables prefetching
+     */
+    int getSqlPageFramePrefetchFrames();
+
     int getSqlSmallMapKeyCapacity();
 
     int getSqlSortKeyMaxPages();
@@ -358,10 +396,30 @@ public interface CairoConfiguration {
 
     long getSqlSortLightValuePageSize();
 
+    /**
+     * Sorts of fewer rows than this use tree chain, larger sorts on fixed-width keys use parallel radix sort.
+     *
+     * @return row count threshold
+     */
+    int getSqlSortRadixThreshold();
+
     int getSqlSortValueMaxPages();
 
     int getSqlSortValuePageSize();
 
+    /**
+     * Number of on-disk partitions hash joins and keyed GROUP BY split their input into
+     * once the in-memory structures hit their limits.
+     *
+     * @return power of 2 partition count
+     */
+    int getSqlSpillPartitionCount();
+
+    /**
+     * @return directory for spill files, null disables spilling
+     */
+    CharSequence getSqlSpillRoot();
+
     CharSequence getSystemTableNamePrefix();
 
     TelemetryConfiguration getTelemetryConfiguration();
@@ -408,4 +466,34 @@ public interface CairoConfiguration {
     boolean isSqlParallelFilterEnabled();
 
     boolean isSqlParallelFilterPreTouchEnabled();
+
+    boolean isSqlParallelGroupByEnabled();
+
+    boolean isSqlParallelHashJoinEnabled();
+
+    boolean isSqlParallelAsOfJoinEnabled();
+
+    /**
+     * Symbol dictionary cache is engine-wide, off-heap map of committed symbol values to their
+     * keys, shared by ILP symbol lookups and table readers.
+     *
+     * @return true when symbol lookups go through the shared dictionary cache first
+     */
+    boolean isSymbolDictionaryCacheEnabled();
+
+    /**
+     * Number of rows summarized by single zone map entry, power of 2.
+     *
+     * @return zone map block size in rows
+     */
+    long getZoneMapBlockRows();
+
+    /**
+     * Zone maps are per-block min, max and null count statistics of numeric columns. Table
+     * writer maintains them on commit and table scans use them to skip blocks of rows
+     * that cannot match the filter.
+     *
+     * @return true when table writers maintain zone maps and queries use them
+     */
+    boolean isZoneMapEnabled();
 }
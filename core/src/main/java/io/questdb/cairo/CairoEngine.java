@@ -34,6 +34,7 @@ import io.questdb.cairo.sql.ReaderOutOfDateException;
 import io.questdb.cairo.vm.api.MemoryMARW;
 import io.questdb.cutlass.text.TextImportExecutionContext;
 import io.questdb.griffin.DatabaseSnapshotAgent;
+import io.questdb.griffin.SharedQueryCache;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
@@ -70,8 +71,13 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
     private final AtomicLong asyncCommandCorrelationId = new AtomicLong();
     private final IDGenerator tableIdGenerator;
     private final TableRegistry tableRegistry;
+    private final MatViewRegistry matViewRegistry;
+    private final SharedQueryCache queryCache;
+    private final SymbolDictionaryCache symbolDictionaryCache;
 
     private final TextImportExecutionContext textImportExecutionContext;
+    // set by the ILP receiver while it is running
+    private volatile WriterAssignmentSource writerAssignmentSource;
     // Kept for embedded API purposes. The second constructor (the one with metrics)
     // should be preferred for internal use.
     public CairoEngine(CairoConfiguration configuration) {
@@ -84,8 +90,12 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         this.metrics = metrics;
         this.tableRegistry = new TableRegistry(this);
         this.messageBus = new MessageBusImpl(configuration);
-        this.writerPool = new WriterPool(configuration, messageBus, metrics);
-        this.readerPool = new ReaderPool(configuration, messageBus);
+        metrics.messageBus().of(messageBus);
+        this.symbolDictionaryCache = new SymbolDictionaryCache(configuration);
+        this.writerPool = new WriterPool(configuration, messageBus, metrics, symbolDictionaryCache);
+        this.readerPool = new ReaderPool(configuration, messageBus, symbolDictionaryCache);
+        this.matViewRegistry = new MatViewRegistry(this);
+        this.queryCache = new SharedQueryCache(configuration.getQueryCacheCapacity(), metrics.queryCache(), matViewRegistry);
         this.engineMaintenanceJob = new EngineMaintenanceJob(configuration);
         if (configuration.getTelemetryConfiguration().getEnabled()) {
             this.telemetryQueue = new RingQueue<>(TelemetryTask::new, configuration.getTelemetryConfiguration().getQueueCapacity());
@@ -118,11 +128,16 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
             close();
             throw e;
         }
+        try (Path path = new Path()) {
+            matViewRegistry.load(path);
+        }
     }
 
     @TestOnly
     public boolean clear() {
         tableRegistry.clear();
+        queryCache.clear();
+        matViewRegistry.clear();
         boolean b1 = readerPool.releaseAll();
         boolean b2 = writerPool.releaseAll();
         return b1 & b2;
@@ -130,6 +145,8 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
 
     @Override
     public void close() {
+        // cached factories may hold readers, free them before the pools
+        Misc.free(queryCache);
         Misc.free(writerPool);
         Misc.free(readerPool);
         Misc.free(tableIdGenerator);
@@ -242,6 +259,18 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         return metrics;
     }
 
+    public SymbolDictionaryCache getSymbolDictionaryCache() {
+        return symbolDictionaryCache;
+    }
+
+    public MatViewRegistry getMatViewRegistry() {
+        return matViewRegistry;
+    }
+
+    public SharedQueryCache getQueryCache() {
+        return queryCache;
+    }
+
     public IDGenerator getTableIdGenerator() {
         return tableIdGenerator;
     }
@@ -344,6 +373,10 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         return telemetryQueue;
     }
 
+    TableRegistry getTableRegistry() {
+        return tableRegistry;
+    }
+
     public SCSequence getTelemetrySubSequence() {
         return telemetrySubSeq;
     }
@@ -376,6 +409,14 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         return sequencer.createWal();
     }
 
+    public WriterAssignmentSource getWriterAssignmentSource() {
+        return writerAssignmentSource;
+    }
+
+    public void setWriterAssignmentSource(WriterAssignmentSource writerAssignmentSource) {
+        this.writerAssignmentSource = writerAssignmentSource;
+    }
+
     public CharSequence lock(
             CairoSecurityContext securityContext,
             CharSequence tableName,
@@ -441,6 +482,7 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
                     LOG.error().$("remove failed [tableName='").utf8(tableName).$("', error=").$(errno).$(']').$();
                     throw CairoException.critical(errno).put("Table remove failed");
                 }
+                matViewRegistry.remove(tableName);
                 return;
             } finally {
                 unlock(securityContext, tableName, null, false);
@@ -471,6 +513,7 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         if (null == lockedReason) {
             try {
                 rename0(path, tableName, otherPath, newName);
+                matViewRegistry.rename(tableName, path, newName);
             } finally {
                 unlock(securityContext, tableName, null, false);
             }
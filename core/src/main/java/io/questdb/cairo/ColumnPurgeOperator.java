@@ -279,6 +279,24 @@ public class ColumnPurgeOperator implements Closeable {
                     }
                 }
 
+                if (ZoneMapReader.isSupported(task.getColumnType())) {
+                    path.trimTo(pathTrimToPartition);
+                    TableUtils.zmFile(path, task.getColumnName(), columnVersion);
+                    if (couldNotRemove(ff, path)) {
+                        allDone = false;
+                        continue;
+                    }
+                }
+
+                if (BloomFilterReader.isSupported(task.getColumnType())) {
+                    path.trimTo(pathTrimToPartition);
+                    TableUtils.bfFile(path, task.getColumnName(), columnVersion);
+                    if (couldNotRemove(ff, path)) {
+                        allDone = false;
+                        continue;
+                    }
+                }
+
                 // Check if it's symbol, try remove .k and .v files in the partition
                 if (ColumnType.isSymbol(task.getColumnType())) {
                     path.trimTo(pathTrimToPartition);
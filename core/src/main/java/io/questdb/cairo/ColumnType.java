@@ -77,7 +77,9 @@ public final class ColumnType {
     public static final short REGCLASS = 25;
     public static final short REGPROCEDURE = 26;
     public static final short ARRAY_STRING = 27;
-    public static final short NULL = 28;
+    // UTF-8 encoded string, stored in the same [offset] + [length][bytes] layout as BINARY
+    public static final short VARCHAR = 28;
+    public static final short NULL = 29;
 
     // Overload matrix algo depends on the fact that MAX == NULL
     public static final short MAX = NULL;
@@ -221,7 +223,11 @@ public final class ColumnType {
     }
 
     public static boolean isVariableLength(int columnType) {
-        return columnType == STRING || columnType == BINARY;
+        return columnType == STRING || columnType == BINARY || columnType == VARCHAR;
+    }
+
+    public static boolean isVarchar(int columnType) {
+        return columnType == VARCHAR;
     }
 
     public static String nameOf(int columnType) {
@@ -295,7 +301,12 @@ public final class ColumnType {
         return (fromType == STRING && toType == SYMBOL)
                 || (fromType == SYMBOL && toType == STRING)
                 || (fromType == CHAR && toType == SYMBOL)
-                || (fromType == CHAR && toType == STRING);
+                || (fromType == CHAR && toType == STRING)
+                || (fromType == STRING && toType == VARCHAR)
+                || (fromType == SYMBOL && toType == VARCHAR)
+                || (fromType == CHAR && toType == VARCHAR)
+                || (fromType == VARCHAR && toType == STRING)
+                || (fromType == VARCHAR && toType == SYMBOL);
     }
 
     private static boolean isGeoHashWideningCast(int fromType, int toType) {
@@ -384,6 +395,7 @@ public final class ColumnType {
         typeNameMap.put(REGCLASS, "regclass");
         typeNameMap.put(REGPROCEDURE, "regprocedure");
         typeNameMap.put(ARRAY_STRING, "text[]");
+        typeNameMap.put(VARCHAR, "VARCHAR");
 
         nameTypeMap.put("boolean", BOOLEAN);
         nameTypeMap.put("byte", BYTE);
@@ -408,7 +420,7 @@ public final class ColumnType {
         nameTypeMap.put("bigint", LONG);
         nameTypeMap.put("real", FLOAT);
         nameTypeMap.put("bytea", STRING);
-        nameTypeMap.put("varchar", STRING);
+        nameTypeMap.put("varchar", VARCHAR);
         nameTypeMap.put("regclass", REGCLASS);
         nameTypeMap.put("regprocedure", REGPROCEDURE);
         nameTypeMap.put("text[]", ARRAY_STRING);
@@ -451,6 +463,7 @@ public final class ColumnType {
         TYPE_SIZE_POW2[VAR_ARG] = -1;
         TYPE_SIZE_POW2[RECORD] = -1;
         TYPE_SIZE_POW2[NULL] = -1;
+        TYPE_SIZE_POW2[VARCHAR] = -1;
         TYPE_SIZE_POW2[LONG128] = 4;
 
         TYPE_SIZE[UNDEFINED] = -1;
@@ -477,6 +490,7 @@ public final class ColumnType {
         TYPE_SIZE[VAR_ARG] = -1;
         TYPE_SIZE[RECORD] = -1;
         TYPE_SIZE[NULL] = 0;
+        TYPE_SIZE[VARCHAR] = 0;
         TYPE_SIZE[LONG128] = 2 * Long.BYTES;
     }
 
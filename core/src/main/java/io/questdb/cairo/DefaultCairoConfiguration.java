@@ -113,6 +113,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 8;
     }
 
+    @Override
+    public int getBloomFilterBitsPerRow() {
+        return 10;
+    }
+
     @Override
     public BuildInformation getBuildInformation() {
         return buildInformation;
@@ -298,6 +303,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024;
     }
 
+    @Override
+    public int getHashJoinBuildQueueCapacity() {
+        return 32;
+    }
+
     @Override
     public long getIdleCheckInterval() {
         return 100;
@@ -388,6 +398,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 8 * Numbers.SIZE_1MB;
     }
 
+    @Override
+    public long getO3MergeMemoryBudget() {
+        return 0;
+    }
+
     @Override
     public int getO3CopyQueueCapacity() {
         return 1024;
@@ -418,6 +433,36 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isSqlParallelGroupByEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlParallelAsOfJoinEnabled() {
+        return false;
+    }
+
+    @Override
+    public long getZoneMapBlockRows() {
+        return 65536;
+    }
+
+    @Override
+    public boolean isSymbolDictionaryCacheEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isZoneMapEnabled() {
+        return true;
+    }
+
     @Override
     public int getSqlCopyLogRetentionDays() {
         return 3;
@@ -488,6 +533,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 128;
     }
 
+    @Override
+    public int getSortQueueCapacity() {
+        return 32;
+    }
+
     @Override
     public long getSpinLockTimeout() {
         return 5000;
@@ -695,6 +745,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1_000_000;
     }
 
+    @Override
+    public int getSqlPageFramePrefetchFrames() {
+        return 0;
+    }
+
     @Override
     public int getSqlSortKeyMaxPages() {
         return 128;
@@ -715,6 +770,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 8 * Numbers.SIZE_1MB;
     }
 
+    @Override
+    public int getSqlSortRadixThreshold() {
+        return 1024;
+    }
+
     @Override
     public int getSqlSortValueMaxPages() {
         return 1024;
@@ -725,6 +785,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return Numbers.SIZE_1MB * 16;
     }
 
+    @Override
+    public int getSqlSpillPartitionCount() {
+        return 16;
+    }
+
+    @Override
+    public CharSequence getSqlSpillRoot() {
+        return null;
+    }
+
     @Override
     public TelemetryConfiguration getTelemetryConfiguration() {
         return telemetryConfiguration;
@@ -819,11 +889,21 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return circuitBreakerConfiguration;
     }
 
+    @Override
+    public int getQueryCacheCapacity() {
+        return 256;
+    }
+
     @Override
     public int getQueryCacheEventQueueCapacity() {
         return 4;
     }
 
+    @Override
+    public int getQueueConsumerStripeCount() {
+        return 1;
+    }
+
     @Override
     public boolean isIOURingEnabled() {
         return true;
@@ -22,38 +22,64 @@
  *
  ******************************************************************************/
 
+
 package io.questdb.cairo;
 
 import io.questdb.cairo.sql.DataFrame;
 import org.jetbrains.annotations.Nullable;
 
 public class FullFwdDataFrameCursor extends AbstractFullDataFrameCursor {
+    private final ZoneMapPruner pruner;
+
+    public FullFwdDataFrameCursor() {
+        this(null);
+    }
+
+    public FullFwdDataFrameCursor(@Nullable ZoneMapFilter zoneMapFilter) {
+        this.pruner = zoneMapFilter != null ? new ZoneMapPruner(zoneMapFilter) : null;
+    }
+
+    @Override
+    public void close() {
+        if (pruner != null) {
+            pruner.clear();
+        }
+        super.close();
+    }
 
     @Override
     public @Nullable DataFrame next() {
-        while (this.partitionIndex < partitionHi) {
-            final long hi = getTableReader().openPartition(partitionIndex);
-            if (hi < 1) {
-                // this partition is missing, skip
-                partitionIndex++;
-            } else {
-                frame.partitionIndex = partitionIndex;
-                frame.rowLo = 0;
-                frame.rowHi = hi;
-                partitionIndex++;
+        if (pruner == null) {
+            return nextPartition();
+        }
+        // partitions are split into runs of blocks that may match the filter
+        while (true) {
+            if (pruner.next()) {
+                frame.partitionIndex = pruner.getPartitionIndex();
+                frame.rowLo = pruner.getRowLo();
+                frame.rowHi = pruner.getRowHi();
                 return frame;
             }
+            if (nextPartition() == null) {
+                return null;
+            }
+            pruner.of(reader, frame.partitionIndex, frame.rowLo, frame.rowHi);
         }
-        return null;
     }
 
     @Override
     public void toTop() {
         this.partitionIndex = 0;
+        if (pruner != null) {
+            pruner.clear();
+        }
     }
 
     @Override
     public @Nullable DataFrame skipTo(long rowCount) {
+        if (pruner != null) {
+            pruner.clear();
+        }
         int partitionCount = getTableReader().getPartitionCount();
 
         if (partitionCount < 1) {
@@ -91,4 +117,21 @@ public class FullFwdDataFrameCursor extends AbstractFullDataFrameCursor {
     public boolean supportsRandomAccess() {
         return true;
     }
+
+    private @Nullable DataFrame nextPartition() {
+        while (this.partitionIndex < partitionHi) {
+            final long hi = getTableReader().openPartition(partitionIndex);
+            if (hi < 1) {
+                // this partition is missing, skip
+                partitionIndex++;
+            } else {
+                frame.partitionIndex = partitionIndex;
+                frame.rowLo = 0;
+                frame.rowHi = hi;
+                partitionIndex++;
+                return frame;
+            }
+        }
+        return null;
+    }
 }
@@ -28,13 +28,30 @@ import io.questdb.cairo.sql.DataFrameCursor;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Misc;
+import org.jetbrains.annotations.Nullable;
 
 public class FullFwdDataFrameCursorFactory extends AbstractDataFrameCursorFactory {
-    private final FullFwdDataFrameCursor cursor = new FullFwdDataFrameCursor();
+    private final FullFwdDataFrameCursor cursor;
     private FullBwdDataFrameCursor bwdCursor;
 
     public FullFwdDataFrameCursorFactory(String tableName, int tableId, long tableVersion) {
+        this(tableName, tableId, tableVersion, null);
+    }
+
+    /**
+     * @param zoneMapFilter optional filter to skip blocks of rows that cannot match the query filter,
+     *                      it only applies to the forward cursor
+     */
+    public FullFwdDataFrameCursorFactory(String tableName, int tableId, long tableVersion, @Nullable ZoneMapFilter zoneMapFilter) {
         super(tableName, tableId, tableVersion);
+        this.cursor = new FullFwdDataFrameCursor(zoneMapFilter);
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        Misc.free(cursor);
     }
 
     @Override
@@ -27,8 +27,11 @@ package io.questdb.cairo;
 import io.questdb.cairo.sql.DataFrame;
 import io.questdb.cairo.vm.api.MemoryR;
 import io.questdb.griffin.model.RuntimeIntrinsicIntervalModel;
+import org.jetbrains.annotations.Nullable;
 
 public class IntervalFwdDataFrameCursor extends AbstractIntervalDataFrameCursor {
+    private final ZoneMapPruner pruner;
+
     /**
      * Cursor for data frames that chronologically intersect collection of intervals.
      * Data frame low and high row will be within intervals inclusive of edges. Intervals
@@ -39,11 +42,63 @@ public class IntervalFwdDataFrameCursor extends AbstractIntervalDataFrameCursor
      * @param timestampIndex index of timestamp column in the readr that is used by this cursor
      */
     public IntervalFwdDataFrameCursor(RuntimeIntrinsicIntervalModel intervals, int timestampIndex) {
+        this(intervals, timestampIndex, null);
+    }
+
+    /**
+     * @param zoneMapFilter optional filter to skip blocks of rows that cannot match the query filter
+     */
+    public IntervalFwdDataFrameCursor(RuntimeIntrinsicIntervalModel intervals, int timestampIndex, @Nullable ZoneMapFilter zoneMapFilter) {
         super(intervals, timestampIndex);
+        this.pruner = zoneMapFilter != null ? new ZoneMapPruner(zoneMapFilter) : null;
+    }
+
+    @Override
+    public void close() {
+        if (pruner != null) {
+            pruner.clear();
+        }
+        super.close();
     }
 
     @Override
     public DataFrame next() {
+        if (pruner == null) {
+            return nextInterval();
+        }
+        // frames are split into runs of blocks that may match the filter
+        while (true) {
+            if (pruner.next()) {
+                dataFrame.partitionIndex = pruner.getPartitionIndex();
+                dataFrame.rowLo = pruner.getRowLo();
+                dataFrame.rowHi = pruner.getRowHi();
+                return dataFrame;
+            }
+            if (nextInterval() == null) {
+                return null;
+            }
+            pruner.of(reader, dataFrame.partitionIndex, dataFrame.rowLo, dataFrame.rowHi);
+        }
+    }
+
+    @Override
+    public boolean reload() {
+        if (pruner != null) {
+            pruner.clear();
+        }
+        return super.reload();
+    }
+
+    @Override
+    public void toTop() {
+        super.toTop();
+        partitionLimit = 0;
+        if (pruner != null) {
+            pruner.clear();
+        }
+    }
+
+    private DataFrame nextInterval() {
         // order of logical operations is important
         // we are not calculating partition rages when intervals are empty
         while (intervalsLo < intervalsHi && partitionLo < partitionHi) {
@@ -121,10 +176,4 @@ public class IntervalFwdDataFrameCursor extends AbstractIntervalDataFrameCursor
         }
         return null;
     }
-
-    @Override
-    public void toTop() {
-        super.toTop();
-        partitionLimit = 0;
-    }
 }
@@ -30,6 +30,7 @@ import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.model.RuntimeIntrinsicIntervalModel;
 import io.questdb.std.Misc;
+import org.jetbrains.annotations.Nullable;
 
 public class IntervalFwdDataFrameCursorFactory extends AbstractDataFrameCursorFactory {
     private final IntervalFwdDataFrameCursor cursor;
@@ -42,9 +43,20 @@ public class IntervalFwdDataFrameCursorFactory extends AbstractDataFrameCursorFa
             long tableVersion,
             RuntimeIntrinsicIntervalModel intervals,
             int timestampIndex
+    ) {
+        this(tableName, tableId, tableVersion, intervals, timestampIndex, null);
+    }
+
+    public IntervalFwdDataFrameCursorFactory(
+            String tableName,
+            int tableId,
+            long tableVersion,
+            RuntimeIntrinsicIntervalModel intervals,
+            int timestampIndex,
+            @Nullable ZoneMapFilter zoneMapFilter
     ) {
         super(tableName, tableId, tableVersion);
-        this.cursor = new IntervalFwdDataFrameCursor(intervals, timestampIndex);
+        this.cursor = new IntervalFwdDataFrameCursor(intervals, timestampIndex, zoneMapFilter);
         this.intervals = intervals;
     }
 
@@ -69,6 +81,7 @@ public class IntervalFwdDataFrameCursorFactory extends AbstractDataFrameCursorFa
     @Override
     public void close() {
         super.close();
+        Misc.free(cursor);
         Misc.free(intervals);
     }
 
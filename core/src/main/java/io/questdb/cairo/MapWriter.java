@@ -72,6 +72,11 @@ public interface MapWriter extends SymbolCountProvider {
 
     int put(CharSequence symbol, SymbolValueCountCollector valueCountCollector);
 
+    /**
+     * Called after commit, makes committed symbol values visible in the shared symbol dictionary cache.
+     */
+    void publishCommitted();
+
     void rollback(int symbolCount);
 
     void setSymbolIndexInTxWriter(int symbolIndexInTxWriter);
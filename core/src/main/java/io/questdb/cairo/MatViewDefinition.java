@@ -0,0 +1,273 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryMAR;
+import io.questdb.cairo.vm.api.MemoryMR;
+import io.questdb.griffin.SharedQueryCache;
+import io.questdb.std.Chars;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Definition and refresh state of a materialized SAMPLE BY view. The view itself is a regular
+ * partitioned table, the definition is kept next to its files in {@link #MAT_VIEW_FILE_NAME}.
+ * <p>
+ * Refresh state is a snapshot of the base table partition table taken at the last refresh: for every
+ * base partition we keep its timestamp, row count, name txn and column version. Comparing the snapshot to
+ * the current partition table tells which time ranges of the base table were touched by the commits since.
+ */
+public class MatViewDefinition {
+    public static final String MAT_VIEW_FILE_NAME = "_mv";
+    static final int MAT_VIEW_FORMAT_VERSION = 1;
+    static final int PARTITION_TIMESTAMP_OFFSET = 0;
+    static final int PARTITION_SIZE_OFFSET = 1;
+    static final int PARTITION_NAME_TXN_OFFSET = 2;
+    static final int PARTITION_COLUMN_VERSION_OFFSET = 3;
+    static final int LONGS_PER_PARTITION = 4;
+
+    private final String viewName;
+    private final String baseTableName;
+    private final String query;
+    private final String queryKey;
+    private final LongList basePartitions = new LongList();
+    private volatile long refreshedBaseTxn;
+    private long baseTruncateVersion;
+    private long baseMinTimestamp;
+    private long baseMaxTimestamp;
+    // base txn at which refresh failed last time, refresh is not retried until base table changes
+    private long failedBaseTxn = -1;
+
+    public MatViewDefinition(CharSequence viewName, CharSequence baseTableName, CharSequence query) {
+        this.viewName = Chars.toString(viewName);
+        this.baseTableName = Chars.toString(baseTableName);
+        this.query = Chars.toString(query);
+        final StringSink sink = new StringSink();
+        SharedQueryCache.buildKey(sink, query, null);
+        this.queryKey = sink.toString();
+        this.refreshedBaseTxn = -1;
+        this.baseTruncateVersion = -1;
+        this.baseMinTimestamp = Long.MAX_VALUE;
+        this.baseMaxTimestamp = Long.MIN_VALUE;
+    }
+
+    public static MatViewDefinition load(FilesFacade ff, Path path, CharSequence viewName) {
+        final int pathLen = path.length();
+        try (MemoryMR mem = Vm.getMRInstance()) {
+            TableUtils.openSmallFile(ff, path, pathLen, mem, MAT_VIEW_FILE_NAME, MemoryTag.MMAP_DEFAULT);
+            long offset = 0;
+            final int version = mem.getInt(offset);
+            if (version != MAT_VIEW_FORMAT_VERSION) {
+                throw CairoException.critical(0).put("unsupported materialized view format [view=").put(viewName)
+                        .put(", version=").put(version).put(']');
+            }
+            offset += Integer.BYTES;
+            final CharSequence baseTableName = mem.getStr(offset);
+            offset += Vm.getStorageLength(baseTableName.length());
+            final String baseTableNameStr = Chars.toString(baseTableName);
+            final CharSequence query = mem.getStr(offset);
+            offset += Vm.getStorageLength(query.length());
+
+            final MatViewDefinition definition = new MatViewDefinition(viewName, baseTableNameStr, query);
+            definition.refreshedBaseTxn = mem.getLong(offset);
+            offset += Long.BYTES;
+            definition.baseTruncateVersion = mem.getLong(offset);
+            offset += Long.BYTES;
+            definition.baseMinTimestamp = mem.getLong(offset);
+            offset += Long.BYTES;
+            definition.baseMaxTimestamp = mem.getLong(offset);
+            offset += Long.BYTES;
+            final int partitionLongs = mem.getInt(offset);
+            offset += Integer.BYTES;
+            for (int i = 0; i < partitionLongs; i++) {
+                definition.basePartitions.add(mem.getLong(offset));
+                offset += Long.BYTES;
+            }
+            return definition;
+        }
+    }
+
+    public String getBaseTableName() {
+        return baseTableName;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public String getQueryKey() {
+        return queryKey;
+    }
+
+    public long getRefreshedBaseTxn() {
+        return refreshedBaseTxn;
+    }
+
+    public String getViewName() {
+        return viewName;
+    }
+
+    /**
+     * Collects base table time intervals, as [lo, hi) pairs, that changed between the refresh snapshot and
+     * the current state of the reader. Partition that is new, removed, rewritten by O3 or updated is
+     * dirty as a whole. Partition that only grew is dirty from the snapshot max timestamp when it was
+     * the last partition, rows could only be appended there. Truncate, non-partitioned base table and
+     * missing snapshot make the whole table dirty, which the caller has to combine with the view's own
+     * partitions.
+     *
+     * @return false when the whole base table has to be recomputed
+     */
+    boolean collectDirtyIntervals(TableReader baseReader, LongList intervals) {
+        intervals.clear();
+        final TxReader txFile = baseReader.getTxFile();
+        final int partitionBy = baseReader.getPartitionedBy();
+        if (
+                refreshedBaseTxn == -1
+                        || !PartitionBy.isPartitioned(partitionBy)
+                        || txFile.getTruncateVersion() != baseTruncateVersion
+        ) {
+            return false;
+        }
+
+        final PartitionBy.PartitionAddMethod addMethod = PartitionBy.getPartitionAddMethod(partitionBy);
+        assert addMethod != null;
+        final int oldCount = basePartitions.size() / LONGS_PER_PARTITION;
+        final int newCount = txFile.getPartitionCount();
+        final long oldLastPartitionTimestamp = oldCount > 0 ? getPartitionLong(oldCount - 1, PARTITION_TIMESTAMP_OFFSET) : Long.MIN_VALUE;
+        int i = 0;
+        int j = 0;
+        while (i < oldCount || j < newCount) {
+            final long oldTs = i < oldCount ? getPartitionLong(i, PARTITION_TIMESTAMP_OFFSET) : Long.MAX_VALUE;
+            final long newTs = j < newCount ? txFile.getPartitionTimestamp(j) : Long.MAX_VALUE;
+            if (oldTs < newTs) {
+                // partition is gone
+                addInterval(intervals, oldTs, addMethod.calculate(oldTs, 1));
+                i++;
+            } else if (newTs < oldTs) {
+                // new partition
+                addInterval(intervals, newTs, addMethod.calculate(newTs, 1));
+                j++;
+            } else {
+                final long newSize = j == newCount - 1 ? txFile.getTransientRowCount() : txFile.getPartitionSize(j);
+                final long oldSize = getPartitionLong(i, PARTITION_SIZE_OFFSET);
+                if (
+                        getPartitionLong(i, PARTITION_NAME_TXN_OFFSET) != txFile.getPartitionNameTxn(j)
+                                || getPartitionLong(i, PARTITION_COLUMN_VERSION_OFFSET) != txFile.getPartitionColumnVersion(j)
+                ) {
+                    addInterval(intervals, newTs, addMethod.calculate(newTs, 1));
+                } else if (newSize != oldSize) {
+                    if (newSize > oldSize && newTs == oldLastPartitionTimestamp) {
+                        addInterval(intervals, baseMaxTimestamp, addMethod.calculate(newTs, 1));
+                    } else {
+                        addInterval(intervals, newTs, addMethod.calculate(newTs, 1));
+                    }
+                }
+                i++;
+                j++;
+            }
+        }
+        return true;
+    }
+
+    long getBaseMaxTimestamp() {
+        return baseMaxTimestamp;
+    }
+
+    long getBaseMinTimestamp() {
+        return baseMinTimestamp;
+    }
+
+    long getFailedBaseTxn() {
+        return failedBaseTxn;
+    }
+
+    void setFailedBaseTxn(long failedBaseTxn) {
+        this.failedBaseTxn = failedBaseTxn;
+    }
+
+    /**
+     * Forgets refresh snapshot, so that next refresh recomputes the whole view. Refresh is not attempted
+     * again until base table moves past the given txn.
+     */
+    void invalidate(long failedBaseTxn) {
+        basePartitions.clear();
+        baseTruncateVersion = -1;
+        refreshedBaseTxn = -1;
+        this.failedBaseTxn = failedBaseTxn;
+    }
+
+    /**
+     * Captures base table state the view has been computed from. Refreshed txn is published last, queries
+     * are rewritten to the view only when it matches current txn of the base table.
+     */
+    public void snapshot(TableReader baseReader) {
+        final TxReader txFile = baseReader.getTxFile();
+        basePartitions.clear();
+        if (PartitionBy.isPartitioned(baseReader.getPartitionedBy())) {
+            for (int i = 0, n = txFile.getPartitionCount(); i < n; i++) {
+                basePartitions.add(txFile.getPartitionTimestamp(i));
+                basePartitions.add(i == n - 1 ? txFile.getTransientRowCount() : txFile.getPartitionSize(i));
+                basePartitions.add(txFile.getPartitionNameTxn(i));
+                basePartitions.add(txFile.getPartitionColumnVersion(i));
+            }
+        }
+        baseTruncateVersion = txFile.getTruncateVersion();
+        baseMinTimestamp = txFile.getMinTimestamp();
+        baseMaxTimestamp = txFile.getMaxTimestamp();
+        failedBaseTxn = -1;
+        refreshedBaseTxn = baseReader.getTxn();
+    }
+
+    void store(FilesFacade ff, Path path) {
+        final int pathLen = path.length();
+        try (MemoryMAR mem = Vm.getMARInstance()) {
+            TableUtils.openSmallFile(ff, path, pathLen, mem, MAT_VIEW_FILE_NAME, MemoryTag.MMAP_DEFAULT);
+            mem.putInt(MAT_VIEW_FORMAT_VERSION);
+            mem.putStr(baseTableName);
+            mem.putStr(query);
+            mem.putLong(refreshedBaseTxn);
+            mem.putLong(baseTruncateVersion);
+            mem.putLong(baseMinTimestamp);
+            mem.putLong(baseMaxTimestamp);
+            mem.putInt(basePartitions.size());
+            for (int i = 0, n = basePartitions.size(); i < n; i++) {
+                mem.putLong(basePartitions.getQuick(i));
+            }
+        }
+    }
+
+    private static void addInterval(LongList intervals, long lo, long hi) {
+        intervals.add(lo);
+        intervals.add(hi);
+    }
+
+    private long getPartitionLong(int partitionIndex, int offset) {
+        return basePartitions.getQuick(partitionIndex * LONGS_PER_PARTITION + offset);
+    }
+}
@@ -0,0 +1,252 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.*;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Keeps materialized views up to date with their base tables. On every run the job compares txn of
+ * each base table with the txn the view has been refreshed to. When base table has moved on, the
+ * base partition table is diffed against the snapshot kept in {@link MatViewDefinition} to find time
+ * intervals touched by the commits, including O3 rewrites of older partitions. View partitions
+ * overlapping those intervals are removed and recomputed by running view query over the partition
+ * interval only, the rest of the view is left as is.
+ */
+public class MatViewRefreshJob extends SynchronizedJob implements Closeable {
+    private static final Log LOG = LogFactory.getLog(MatViewRefreshJob.class);
+    private static final String WRITER_LOCK_REASON = "matViewRefresh";
+    private final CairoEngine engine;
+    private final ObjList<MatViewDefinition> views = new ObjList<>();
+    private final LongList dirtyIntervals = new LongList();
+    private final LongList viewPartitions = new LongList();
+    private final BytecodeAssembler asm = new BytecodeAssembler();
+    private final EntityColumnFilter columnFilter = new EntityColumnFilter();
+    private Path path = new Path();
+    private SqlCompiler compiler;
+    private SqlExecutionContextImpl executionContext;
+
+    public MatViewRefreshJob(CairoEngine engine, @Nullable FunctionFactoryCache functionFactoryCache) {
+        this.engine = engine;
+        this.compiler = new SqlCompiler(engine, functionFactoryCache, null);
+        this.executionContext = new SqlExecutionContextImpl(engine, 1);
+        this.executionContext.with(AllowAllCairoSecurityContext.INSTANCE, null, null);
+    }
+
+    @Override
+    public void close() {
+        this.compiler = Misc.free(compiler);
+        this.executionContext = Misc.free(executionContext);
+        this.path = Misc.free(path);
+    }
+
+    private void addViewPartitions(long lo, long hi, long minTimestamp, long maxTimestamp, PartitionBy.PartitionFloorMethod floorMethod, PartitionBy.PartitionAddMethod addMethod) {
+        // base partition can be much wider than the data it holds
+        lo = Math.max(lo, minTimestamp);
+        hi = Math.min(hi, maxTimestamp + 1);
+        for (long partitionTimestamp = floorMethod.floor(lo); partitionTimestamp < hi; partitionTimestamp = addMethod.calculate(partitionTimestamp, 1)) {
+            viewPartitions.add(partitionTimestamp);
+        }
+    }
+
+    private void collectViewPartitions(MatViewDefinition view, TableReader baseReader, TableWriter writer) {
+        viewPartitions.clear();
+        final int partitionBy = writer.getPartitionBy();
+        final PartitionBy.PartitionFloorMethod floorMethod = PartitionBy.getPartitionFloorMethod(partitionBy);
+        final PartitionBy.PartitionAddMethod addMethod = PartitionBy.getPartitionAddMethod(partitionBy);
+        assert floorMethod != null && addMethod != null;
+
+        // base rows that the view has been computed from or should be computed from
+        final TxReader txFile = baseReader.getTxFile();
+        final long minTimestamp = Math.min(view.getBaseMinTimestamp(), txFile.getMinTimestamp());
+        final long maxTimestamp = Math.max(view.getBaseMaxTimestamp(), txFile.getMaxTimestamp());
+
+        if (view.collectDirtyIntervals(baseReader, dirtyIntervals)) {
+            for (int i = 0, n = dirtyIntervals.size(); i < n; i += 2) {
+                addViewPartitions(dirtyIntervals.getQuick(i), dirtyIntervals.getQuick(i + 1), minTimestamp, maxTimestamp, floorMethod, addMethod);
+            }
+        } else {
+            // full recompute, partitions that view has and base no longer backs are recomputed as empty
+            for (int i = 0, n = writer.getPartitionCount(); i < n; i++) {
+                viewPartitions.add(writer.getPartitionTimestamp(i));
+            }
+            if (txFile.getMinTimestamp() <= txFile.getMaxTimestamp()) {
+                addViewPartitions(txFile.getMinTimestamp(), txFile.getMaxTimestamp() + 1, Long.MIN_VALUE, Long.MAX_VALUE - 1, floorMethod, addMethod);
+            }
+        }
+
+        viewPartitions.sort();
+        int unique = 0;
+        for (int i = 0, n = viewPartitions.size(); i < n; i++) {
+            final long partitionTimestamp = viewPartitions.getQuick(i);
+            if (unique == 0 || viewPartitions.getQuick(unique - 1) != partitionTimestamp) {
+                viewPartitions.setQuick(unique++, partitionTimestamp);
+            }
+        }
+        viewPartitions.setPos(unique);
+    }
+
+    private boolean refresh(MatViewDefinition view) {
+        final TableReader baseReader;
+        try {
+            baseReader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, view.getBaseTableName());
+        } catch (CairoException e) {
+            // base table is dropped or being re-created, view stays stale
+            return false;
+        }
+
+        final long baseTxn = baseReader.getTxn();
+        try {
+            if (baseTxn == view.getRefreshedBaseTxn() || baseTxn == view.getFailedBaseTxn()) {
+                return false;
+            }
+
+            final TableReaderMetadata baseMetadata = baseReader.getMetadata();
+            final CharSequence baseTimestampColumn = baseMetadata.getColumnName(baseMetadata.getTimestampIndex());
+            final TableWriter writer;
+            try {
+                writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, view.getViewName(), WRITER_LOCK_REASON);
+            } catch (EntryUnavailableException e) {
+                // view is being altered or dropped, try again later
+                return false;
+            }
+
+            try {
+                collectViewPartitions(view, baseReader, writer);
+                final PartitionBy.PartitionAddMethod addMethod = PartitionBy.getPartitionAddMethod(writer.getPartitionBy());
+                assert addMethod != null;
+                for (int i = 0, n = viewPartitions.size(); i < n; i++) {
+                    final long partitionTimestamp = viewPartitions.getQuick(i);
+                    refreshPartition(view, writer, baseTimestampColumn, partitionTimestamp, addMethod.calculate(partitionTimestamp, 1));
+                }
+                view.snapshot(baseReader);
+                storeView(view);
+                LOG.info().$("refreshed materialized view [view=").$(view.getViewName())
+                        .$(", baseTxn=").$(baseTxn)
+                        .$(", partitions=").$(viewPartitions.size())
+                        .I$();
+            } finally {
+                writer.close();
+            }
+            return true;
+        } catch (SqlException e) {
+            LOG.error().$("could not refresh materialized view [view=").$(view.getViewName())
+                    .$(", baseTxn=").$(baseTxn)
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .I$();
+            invalidate(view, baseTxn);
+        } catch (CairoException e) {
+            LOG.error().$("could not refresh materialized view [view=").$(view.getViewName())
+                    .$(", baseTxn=").$(baseTxn)
+                    .$(", errno=").$(e.getErrno())
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .I$();
+            invalidate(view, baseTxn);
+        } finally {
+            baseReader.close();
+        }
+        return false;
+    }
+
+    /**
+     * Some of the view partitions may already be removed, view is recomputed in full once the
+     * base table changes again.
+     */
+    private void invalidate(MatViewDefinition view, long baseTxn) {
+        view.invalidate(baseTxn);
+        try {
+            storeView(view);
+        } catch (CairoException e) {
+            LOG.error().$("could not store materialized view state [view=").$(view.getViewName())
+                    .$(", errno=").$(e.getErrno())
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .I$();
+        }
+    }
+
+    private void refreshPartition(
+            MatViewDefinition view,
+            TableWriter writer,
+            CharSequence baseTimestampColumn,
+            long lo,
+            long hi
+    ) throws SqlException {
+        for (int i = 0, n = writer.getPartitionCount(); i < n; i++) {
+            if (writer.getPartitionTimestamp(i) == lo) {
+                writer.removePartition(lo);
+                break;
+            }
+        }
+
+        try (
+                RecordCursorFactory factory = compiler.compileMatViewQuery(view, baseTimestampColumn, lo, hi, executionContext);
+                RecordCursor cursor = factory.getCursor(executionContext)
+        ) {
+            final RecordMetadata metadata = factory.getMetadata();
+            final RecordMetadata writerMetadata = writer.getMetadata();
+            columnFilter.of(writerMetadata.getColumnCount());
+            final RecordToRowCopier copier = RecordToRowCopierUtils.generateCopier(asm, metadata, writerMetadata, columnFilter);
+            final int timestampIndex = writerMetadata.getTimestampIndex();
+            final Record record = cursor.getRecord();
+            while (cursor.hasNext()) {
+                final TableWriter.Row row = writer.newRow(record.getTimestamp(timestampIndex));
+                copier.copy(record, row);
+                row.append();
+            }
+            writer.commit();
+        }
+    }
+
+    private void storeView(MatViewDefinition view) {
+        path.of(engine.getConfiguration().getRoot()).concat(view.getViewName());
+        view.store(engine.getConfiguration().getFilesFacade(), path);
+    }
+
+    @Override
+    protected boolean runSerially() {
+        final MatViewRegistry registry = engine.getMatViewRegistry();
+        if (registry.isEmpty()) {
+            return false;
+        }
+        registry.getViews(views);
+        boolean useful = false;
+        for (int i = 0, n = views.size(); i < n; i++) {
+            useful |= refresh(views.getQuick(i));
+        }
+        return useful;
+    }
+}
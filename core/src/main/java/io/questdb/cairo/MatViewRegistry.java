@@ -0,0 +1,155 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Materialized views known to the engine, by view name and by the normalized text of their query.
+ * Views are discovered on startup by looking for definition files in table directories.
+ */
+public class MatViewRegistry {
+    private static final Log LOG = LogFactory.getLog(MatViewRegistry.class);
+    private final ConcurrentHashMap<MatViewDefinition> viewsByName = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<MatViewDefinition> viewsByQueryKey = new ConcurrentHashMap<>();
+    private final CairoEngine engine;
+
+    MatViewRegistry(CairoEngine engine) {
+        this.engine = engine;
+    }
+
+    public MatViewDefinition getView(CharSequence viewName) {
+        return viewsByName.get(viewName);
+    }
+
+    /**
+     * @param queryKey query text normalized by {@link io.questdb.griffin.SharedQueryCache#buildKey}
+     * @return view which has the same query or null
+     */
+    public MatViewDefinition getViewByQueryKey(CharSequence queryKey) {
+        return viewsByQueryKey.get(queryKey);
+    }
+
+    public void getViews(ObjList<MatViewDefinition> views) {
+        views.clear();
+        for (MatViewDefinition view : viewsByName.values()) {
+            views.add(view);
+        }
+    }
+
+    public boolean isEmpty() {
+        return viewsByName.isEmpty();
+    }
+
+    /**
+     * View is fresh when it has been refreshed up to the current txn of the base table.
+     */
+    public boolean isFresh(MatViewDefinition view) {
+        try (TableReader baseReader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, view.getBaseTableName())) {
+            return baseReader.getTxn() == view.getRefreshedBaseTxn();
+        } catch (CairoException e) {
+            // base table is gone or cannot be read, the view is not usable in place of the base table
+            return false;
+        }
+    }
+
+    /**
+     * Stores the definition in the view directory and makes the view available for refresh and rewrite.
+     * Caller is expected to hold the view table lock.
+     */
+    public void register(MatViewDefinition view, Path path) {
+        final CairoConfiguration configuration = engine.getConfiguration();
+        path.of(configuration.getRoot()).concat(view.getViewName());
+        view.store(configuration.getFilesFacade(), path);
+        add(view);
+        LOG.info().$("registered materialized view [view=").$(view.getViewName()).$(", base=").$(view.getBaseTableName()).I$();
+    }
+
+    void add(MatViewDefinition view) {
+        final MatViewDefinition other = viewsByName.put(view.getViewName(), view);
+        if (other != null) {
+            viewsByQueryKey.remove(other.getQueryKey(), other);
+        }
+        viewsByQueryKey.put(view.getQueryKey(), view);
+    }
+
+    void clear() {
+        viewsByName.clear();
+        viewsByQueryKey.clear();
+    }
+
+    void load(Path path) {
+        final CairoConfiguration configuration = engine.getConfiguration();
+        final FilesFacade ff = configuration.getFilesFacade();
+        path.of(configuration.getRoot());
+        final int rootLen = path.length();
+        final StringSink viewName = new StringSink();
+        ff.iterateDir(path.$(), (pUtf8NameZ, type) -> {
+            if (Files.isDir(pUtf8NameZ, type)) {
+                path.trimTo(rootLen).concat(pUtf8NameZ);
+                final int plen = path.length();
+                if (ff.exists(path.concat(MatViewDefinition.MAT_VIEW_FILE_NAME).$())) {
+                    path.trimTo(plen);
+                    viewName.clear();
+                    Chars.utf8DecodeZ(pUtf8NameZ, viewName);
+                    load(path, viewName);
+                }
+            }
+        });
+        path.trimTo(rootLen);
+    }
+
+    void remove(CharSequence viewName) {
+        final MatViewDefinition view = viewsByName.remove(viewName);
+        if (view != null) {
+            viewsByQueryKey.remove(view.getQueryKey(), view);
+            LOG.info().$("removed materialized view [view=").$(viewName).I$();
+        }
+    }
+
+    void rename(CharSequence viewName, Path path, CharSequence newName) {
+        if (viewsByName.get(viewName) != null) {
+            remove(viewName);
+            path.of(engine.getConfiguration().getRoot()).concat(newName);
+            load(path, newName);
+        }
+    }
+
+    private void load(Path path, CharSequence viewName) {
+        try {
+            add(MatViewDefinition.load(engine.getConfiguration().getFilesFacade(), path, viewName));
+        } catch (CairoException e) {
+            LOG.error().$("could not load materialized view [view=").$(viewName)
+                    .$(", errno=").$(e.getErrno())
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .I$();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.IntList;
+import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Combines symbol map diffs of consecutive WAL transactions from the same segment,
+ * so that the transactions can be applied to the table in one go.
+ * <p>
+ * WalWriter allocates keys of new symbols sequentially within the segment, and each
+ * transaction clean symbol count is the previous transaction's clean count plus
+ * the number of symbols it added. Concatenating entries therefore yields a single
+ * diff per column that starts at the clean count of the first transaction.
+ */
+class MergedSymbolMapDiffs implements SymbolMapDiffCursor, Mutable {
+    private final ObjList<ColumnDiff> columnDiffs = new ObjList<>();
+    private final ObjList<ColumnDiff> diffPool = new ObjList<>();
+    private int diffIndex;
+
+    public void add(SymbolMapDiffCursor cursor) {
+        SymbolMapDiff diff;
+        while ((diff = cursor.nextSymbolMapDiff()) != null) {
+            final int columnIndex = diff.getColumnIndex();
+            ColumnDiff columnDiff = columnDiffs.getQuiet(columnIndex);
+            if (columnDiff == null) {
+                columnDiff = nextColumnDiff();
+                columnDiff.of(columnIndex, diff.getCleanSymbolCount());
+                columnDiffs.extendAndSet(columnIndex, columnDiff);
+            }
+
+            SymbolMapDiffEntry entry;
+            while ((entry = diff.nextEntry()) != null) {
+                columnDiff.add(entry.getKey(), entry.getSymbol());
+            }
+        }
+        diffIndex = 0;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0, n = columnDiffs.size(); i < n; i++) {
+            final ColumnDiff columnDiff = columnDiffs.getQuick(i);
+            if (columnDiff != null) {
+                columnDiff.clear();
+                diffPool.add(columnDiff);
+            }
+        }
+        columnDiffs.clear();
+        diffIndex = 0;
+    }
+
+    @Override
+    public SymbolMapDiff nextSymbolMapDiff() {
+        // diffs are returned in column order, same as they are stored in WAL events
+        while (diffIndex < columnDiffs.size()) {
+            final ColumnDiff columnDiff = columnDiffs.getQuick(diffIndex++);
+            if (columnDiff != null) {
+                columnDiff.toTop();
+                return columnDiff;
+            }
+        }
+        return null;
+    }
+
+    private ColumnDiff nextColumnDiff() {
+        final int n = diffPool.size();
+        if (n > 0) {
+            final ColumnDiff columnDiff = diffPool.getQuick(n - 1);
+            diffPool.setPos(n - 1);
+            return columnDiff;
+        }
+        return new ColumnDiff();
+    }
+
+    private static class ColumnDiff implements SymbolMapDiff, SymbolMapDiffEntry, Mutable {
+        private final IntList keys = new IntList();
+        private final ObjList<StringSink> symbols = new ObjList<>();
+        private int cleanSymbolCount;
+        private int columnIndex;
+        private int current;
+        private int size;
+
+        @Override
+        public void clear() {
+            size = 0;
+            current = -1;
+            keys.clear();
+        }
+
+        @Override
+        public int getCleanSymbolCount() {
+            return cleanSymbolCount;
+        }
+
+        @Override
+        public int getColumnIndex() {
+            return columnIndex;
+        }
+
+        @Override
+        public int getKey() {
+            return keys.getQuick(current);
+        }
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public CharSequence getSymbol() {
+            return symbols.getQuick(current);
+        }
+
+        @Override
+        public SymbolMapDiffEntry nextEntry() {
+            return ++current < keys.size() ? this : null;
+        }
+
+        private void add(int key, CharSequence symbol) {
+            final int index = keys.size();
+            keys.add(key);
+            StringSink sink = symbols.getQuiet(index);
+            if (sink == null) {
+                sink = new StringSink();
+                symbols.extendAndSet(index, sink);
+            }
+            sink.clear();
+            sink.put(symbol);
+            size = Math.max(size, key - cleanSymbolCount + 1);
+        }
+
+        private void of(int columnIndex, int cleanSymbolCount) {
+            this.columnIndex = columnIndex;
+            this.cleanSymbolCount = cleanSymbolCount;
+            clear();
+        }
+
+        private void toTop() {
+            current = -1;
+        }
+    }
+}
@@ -120,6 +120,21 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                 .$(", directIoFlag=").$(directIoFlag)
                 .I$();
 
+        // var offsets are read before the copy, which may shift them
+        final long copiedBytes = getCopiedBytes(
+                columnType,
+                blockType,
+                timestampMergeIndexSize,
+                srcDataFixAddr + srcDataFixOffset,
+                srcDataLo,
+                srcDataHi,
+                srcOooFixAddr,
+                srcOooLo,
+                srcOooHi,
+                dstVarOffset,
+                dstVarOffsetEnd
+        );
+
         try {
             switch (blockType) {
                 case O3_BLOCK_MERGE:
@@ -186,6 +201,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                 default:
                     break;
             }
+            tableWriter.o3AddCopiedBytes(copiedBytes);
         } catch (Throwable th) {
             FilesFacade ff = tableWriter.getFilesFacade();
             O3Utils.unmapAndClose(ff, srcDataFixFd, srcDataFixAddr, srcDataFixSize);
@@ -731,6 +747,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
         switch (ColumnType.tagOf(columnType)) {
             case ColumnType.STRING:
             case ColumnType.BINARY:
+            case ColumnType.VARCHAR:
                 copyVarSizeCol(
                         ff,
                         srcFixAddr,
@@ -807,6 +824,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
         switch (ColumnType.tagOf(columnType)) {
             case ColumnType.STRING:
             case ColumnType.BINARY:
+            case ColumnType.VARCHAR:
                 // we can find out the edge of string column in one of two ways
                 // 1. if srcOooHi is at the limit of the page - we need to copy the whole page of strings
                 // 2  if there are more items behind srcOooHi we can get offset of srcOooHi+1
@@ -974,6 +992,47 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
         }
     }
 
+    private static long getCopiedBytes(
+            int columnType,
+            int blockType,
+            long timestampMergeIndexSize,
+            long srcDataFixAddr,
+            long srcDataLo,
+            long srcDataHi,
+            long srcOooFixAddr,
+            long srcOooLo,
+            long srcOooHi,
+            long dstVarOffset,
+            long dstVarOffsetEnd
+    ) {
+        final long rowCount;
+        final long varSize;
+        switch (blockType) {
+            case O3_BLOCK_MERGE:
+                rowCount = timestampMergeIndexSize / TableWriter.TIMESTAMP_MERGE_ENTRY_BYTES;
+                varSize = dstVarOffsetEnd - dstVarOffset;
+                break;
+            case O3_BLOCK_O3:
+                rowCount = srcOooHi - srcOooLo + 1;
+                varSize = ColumnType.isVariableLength(columnType)
+                        ? O3Utils.findVarOffset(srcOooFixAddr, srcOooHi + 1) - O3Utils.findVarOffset(srcOooFixAddr, srcOooLo)
+                        : 0;
+                break;
+            case O3_BLOCK_DATA:
+                rowCount = srcDataHi - srcDataLo + 1;
+                varSize = ColumnType.isVariableLength(columnType)
+                        ? O3Utils.findVarOffset(srcDataFixAddr, srcDataHi + 1) - O3Utils.findVarOffset(srcDataFixAddr, srcDataLo)
+                        : 0;
+                break;
+            default:
+                return 0;
+        }
+        if (ColumnType.isVariableLength(columnType)) {
+            return rowCount * Long.BYTES + varSize;
+        }
+        return rowCount << ColumnType.pow2SizeOf(columnType);
+    }
+
     private static void mergeCopy(
             int columnType,
             long timestampMergeIndexAddr,
@@ -991,7 +1050,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
             long dstVarOffset,
             long dstVarOffsetEnd
     ) {
-        final long rowCount = srcOooHi - srcOooLo + 1 + srcDataHi - srcDataLo + 1;
+        final long rowCount = timestampMergeIndexSize / TableWriter.TIMESTAMP_MERGE_ENTRY_BYTES;
         switch (ColumnType.tagOf(columnType)) {
             case ColumnType.BOOLEAN:
             case ColumnType.BYTE:
@@ -1020,6 +1079,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                 Unsafe.getUnsafe().putLong(dstFixAddr + rowCount * 8, dstVarOffsetEnd);
                 break;
             case ColumnType.BINARY:
+            case ColumnType.VARCHAR:
                 Vect.oooMergeCopyBinColumn(
                         timestampMergeIndexAddr,
                         rowCount,
@@ -80,6 +80,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
         switch (ColumnType.tagOf(columnType)) {
             case ColumnType.BINARY:
             case ColumnType.STRING:
+            case ColumnType.VARCHAR:
                 appendVarColumn(
                         columnCounter,
                         columnType,
@@ -312,7 +313,10 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int columnIndex,
             long columnNameTxn
     ) {
-        final long mergeLen = mergeOOOHi - mergeOOOLo + 1 + mergeDataHi - mergeDataLo + 1;
+        // merge index is shorter than merge bounds when deduplication dropped replaced rows
+        final long mergeLen = timestampMergeIndexAddr != 0
+                ? timestampMergeIndexSize / TableWriter.TIMESTAMP_MERGE_ENTRY_BYTES
+                : mergeOOOHi - mergeOOOLo + 1 + mergeDataHi - mergeDataLo + 1;
         final Path pathToPartition = Path.getThreadLocal(pathToTable);
         TableUtils.setPathForPartition(pathToPartition, tableWriter.getPartitionBy(), oooTimestampLo, false);
         final int pplen = pathToPartition.length();
@@ -528,6 +532,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
         switch (ColumnType.tagOf(columnType)) {
             case ColumnType.BINARY:
             case ColumnType.STRING:
+            case ColumnType.VARCHAR:
                 try {
                     // index files are opened as normal
                     iFile(pathToPartition.trimTo(plen), columnName, columnNameTxn);
@@ -1525,6 +1530,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
         switch (ColumnType.tagOf(columnType)) {
             case ColumnType.BINARY:
             case ColumnType.STRING:
+            case ColumnType.VARCHAR:
                 // index files are opened as normal
                 mergeVarColumn(
                         pathToPartition,
@@ -1688,6 +1694,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
         switch (ColumnType.tagOf(columnType)) {
             case ColumnType.BINARY:
             case ColumnType.STRING:
+            case ColumnType.VARCHAR:
                 try {
                     iFile(pathToPartition.trimTo(plen), columnName, columnNameTxn);
                     srcDataFixFd = openRW(ff, pathToPartition, LOG, tableWriter.getConfiguration().getWriterFileOpenOpts());
@@ -1848,6 +1855,13 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
         }
     }
 
+    private static long getMergeDuplicateCount(long mergeOOOLo, long mergeOOOHi, long mergeDataLo, long mergeDataHi, long mergeLen) {
+        if (mergeDataLo > -1 && mergeOOOLo > -1) {
+            return mergeOOOHi - mergeOOOLo + 1 + mergeDataHi - mergeDataLo + 1 - mergeLen;
+        }
+        return 0;
+    }
+
     private static void mergeFixColumn(
             Path pathToPartition,
             int pplen,
@@ -1944,7 +1958,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
 
             dFile(pathToPartition.trimTo(pDirNameLen), columnName, columnNameTxn);
             dstFixFd = openRW(ff, pathToPartition, LOG, tableWriter.getConfiguration().getWriterFileOpenOpts());
-            dstFixSize = ((srcOooHi - srcOooLo + 1) + srcDataMax - srcDataTop) << shl;
+            dstFixSize = ((srcOooHi - srcOooLo + 1) + srcDataMax - srcDataTop - getMergeDuplicateCount(mergeOOOLo, mergeOOOHi, mergeDataLo, mergeDataHi, mergeLen)) << shl;
             dstFixAddr = mapRW(ff, dstFixFd, dstFixSize, MemoryTag.MMAP_O3);
             if (directIoFlag) {
                 ff.fadvise(dstFixFd, 0, dstFixSize, Files.POSIX_FADV_RANDOM);
@@ -2255,7 +2269,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
 
             iFile(pathToPartition.trimTo(pDirNameLen), columnName, columnNameTxn);
             dstFixFd = openRW(ff, pathToPartition, LOG, tableWriter.getConfiguration().getWriterFileOpenOpts());
-            dstFixSize = (srcOooHi - srcOooLo + 1 + srcDataMax - srcDataTop + 1) * Long.BYTES;
+            dstFixSize = (srcOooHi - srcOooLo + 1 + srcDataMax - srcDataTop + 1 - getMergeDuplicateCount(mergeOOOLo, mergeOOOHi, mergeDataLo, mergeDataHi, mergeLen)) * Long.BYTES;
             dstFixAddr = mapRW(ff, dstFixFd, dstFixSize, MemoryTag.MMAP_O3);
             if (directIoFlag) {
                 ff.fadvise(dstFixFd, 0, dstFixSize, Files.POSIX_FADV_RANDOM);
@@ -214,6 +214,10 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
 
                 assert srcTimestampFd != -1 && srcTimestampFd != 1;
 
+                // With deduplication, O3 rows that have the same timestamp as existing rows
+                // must land in the merge block, where the existing rows are replaced. Boundary
+                // searches then include equal timestamps into the merge instead of prefix or suffix.
+                final boolean dedup = tableWriter.getMetadata().isDedupEnabled();
                 int branch;
 
                 if (o3TimestampLo > dataTimestampLo) {
@@ -222,7 +226,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                     //   |      |  | OOO |
                     //   |      |  |     |
 
-                    if (o3TimestampLo >= dataTimestampHi) {
+                    if (o3TimestampLo > dataTimestampHi || (o3TimestampLo == dataTimestampHi && !dedup)) {
 
                         // +------+
                         // | data |
@@ -250,7 +254,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                         prefixLo = 0;
                         prefixHi = Vect.boundedBinarySearch64Bit(
                                 srcTimestampAddr,
-                                o3TimestampLo,
+                                dedup ? o3TimestampLo - 1 : o3TimestampLo,
                                 0,
                                 srcDataMax - 1,
                                 BinarySearch.SCAN_DOWN
@@ -270,7 +274,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                             mergeO3Hi = srcOooHi;
                             mergeDataHi = Vect.boundedBinarySearch64Bit(
                                     srcTimestampAddr,
-                                    o3TimestampMax - 1,
+                                    dedup ? o3TimestampMax : o3TimestampMax - 1,
                                     mergeDataLo,
                                     srcDataMax - 1,
                                     BinarySearch.SCAN_DOWN
@@ -307,7 +311,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                                     dataTimestampHi,
                                     srcOooLo,
                                     srcOooHi,
-                                    BinarySearch.SCAN_UP
+                                    dedup ? BinarySearch.SCAN_DOWN : BinarySearch.SCAN_UP
                             );
 
                             mergeDataHi = srcDataMax - 1;
@@ -342,7 +346,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
 
                     prefixType = O3_BLOCK_O3;
                     prefixLo = srcOooLo;
-                    if (dataTimestampLo < o3TimestampMax) {
+                    if (dataTimestampLo < o3TimestampMax || (dataTimestampLo == o3TimestampMax && dedup)) {
 
                         //
                         //  +------+  | OOO |
@@ -352,12 +356,19 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                         mergeDataLo = 0;
                         prefixHi = Vect.boundedBinarySearchIndexT(
                                 sortedTimestampsAddr,
-                                dataTimestampLo,
+                                dedup ? dataTimestampLo - 1 : dataTimestampLo,
                                 srcOooLo,
                                 srcOooHi,
                                 BinarySearch.SCAN_DOWN
                         );
                         mergeO3Lo = prefixHi + 1;
+                        if (prefixHi < srcOooLo) {
+                            // all O3 rows of the partition start at or after the first existing row
+                            prefixType = O3_BLOCK_NONE;
+                            prefixLo = 0;
+                            prefixHi = -1;
+                            mergeO3Lo = srcOooLo;
+                        }
 
                         if (o3TimestampMax < dataTimestampHi) {
 
@@ -394,7 +405,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                             mergeDataHi = srcDataMax - 1;
                             mergeO3Hi = Vect.boundedBinarySearchIndexT(
                                     sortedTimestampsAddr,
-                                    dataTimestampHi - 1,
+                                    dedup ? dataTimestampHi : dataTimestampHi - 1,
                                     mergeO3Lo,
                                     srcOooHi,
                                     BinarySearch.SCAN_DOWN
@@ -462,7 +473,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                         .$(", table=").$(pathToTable)
                         .I$();
 
-                if (prefixType == O3_BLOCK_NONE) {
+                if (prefixType == O3_BLOCK_NONE && mergeType == O3_BLOCK_NONE) {
                     // We do not need to create a copy of partition when we simply need to append
                     // existing the one.
                     openColumnMode = OPEN_MID_PARTITION_FOR_APPEND;
@@ -586,6 +597,207 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
         );
     }
 
+    private static long dedupMergeIndex(
+            long mergeIndexAddr,
+            long mergeRowCount,
+            ReadOnlyObjList<? extends MemoryCR> oooColumns,
+            ObjList<MemoryMA> columns,
+            Path pathToTable,
+            long oooTimestampLo,
+            long partitionTimestamp,
+            long srcDataMax,
+            long srcDataTxn,
+            int openColumnMode,
+            TableWriter tableWriter,
+            LongList keyColumns
+    ) {
+        final TableWriterMetadata metadata = tableWriter.getMetadata();
+        final IntList dedupKeyColumnIndexes = metadata.getDedupKeyColumnIndexes();
+        final int timestampIndex = metadata.getTimestampIndex();
+        final FilesFacade ff = tableWriter.getFilesFacade();
+        final Path path = Path.getThreadLocal(pathToTable);
+        TableUtils.setPathForPartition(path, tableWriter.getPartitionBy(), oooTimestampLo, false);
+        TableUtils.txnPartitionConditionally(path, srcDataTxn);
+        final int plen = path.length();
+
+        // (column index, fd, address, size) quads of key columns in the existing partition
+        keyColumns.clear();
+        try {
+            for (int i = 0, n = dedupKeyColumnIndexes.size(); i < n; i++) {
+                final int columnIndex = dedupKeyColumnIndexes.getQuick(i);
+                if (columnIndex == timestampIndex) {
+                    continue;
+                }
+                final long size = srcDataMax << ColumnType.pow2SizeOf(metadata.getColumnType(columnIndex));
+                final long fd;
+                if (openColumnMode == OPEN_LAST_PARTITION_FOR_MERGE) {
+                    // negative fd indicates descriptor reuse
+                    fd = -columns.getQuick(getPrimaryColumnIndex(columnIndex)).getFd();
+                } else {
+                    dFile(path.trimTo(plen), metadata.getColumnName(columnIndex), tableWriter.getColumnNameTxn(partitionTimestamp, columnIndex));
+                    fd = TableUtils.openRO(ff, path, LOG);
+                }
+                keyColumns.add(columnIndex, fd, 0, size);
+                keyColumns.setQuick(keyColumns.size() - 2, mapRO(ff, Math.abs(fd), size, MemoryTag.MMAP_O3));
+            }
+            return dedupMergeIndex0(mergeIndexAddr, mergeRowCount, oooColumns, metadata, keyColumns);
+        } finally {
+            for (int i = 0, n = keyColumns.size(); i < n; i += 4) {
+                O3Utils.unmapAndClose(ff, keyColumns.getQuick(i + 1), keyColumns.getQuick(i + 2), keyColumns.getQuick(i + 3));
+            }
+            keyColumns.clear();
+        }
+    }
+
+    private static long dedupMergeIndex0(
+            long mergeIndexAddr,
+            long mergeRowCount,
+            ReadOnlyObjList<? extends MemoryCR> oooColumns,
+            TableWriterMetadata metadata,
+            LongList keyColumns
+    ) {
+        long duplicateCount = 0;
+        // (key hash, index position) pairs of the current run, sorting them by hash
+        // avoids comparing every partition row to every O3 row of the same timestamp
+        long hashIndex = 0;
+        long hashIndexSize = 0;
+        try {
+            long runLo = 0;
+            while (runLo < mergeRowCount) {
+                final long timestamp = getTimestampIndexValue(mergeIndexAddr, runLo);
+                long runHi = runLo + 1;
+                while (runHi < mergeRowCount && getTimestampIndexValue(mergeIndexAddr, runHi) == timestamp) {
+                    runHi++;
+                }
+
+                final long runSize = runHi - runLo;
+                if (runSize > 1) {
+                    final long size = runSize * TIMESTAMP_MERGE_ENTRY_BYTES;
+                    if (size > hashIndexSize) {
+                        hashIndex = Unsafe.realloc(hashIndex, hashIndexSize, size, MemoryTag.NATIVE_O3);
+                        hashIndexSize = size;
+                    }
+                    for (long i = 0; i < runSize; i++) {
+                        final long p = hashIndex + i * TIMESTAMP_MERGE_ENTRY_BYTES;
+                        final long row = getTimestampIndexRow(mergeIndexAddr, runLo + i);
+                        Unsafe.getUnsafe().putLong(p, dedupKeyHash(row, oooColumns, metadata, keyColumns));
+                        Unsafe.getUnsafe().putLong(p + Long.BYTES, runLo + i);
+                    }
+                    Vect.sortLongIndexAscInPlace(hashIndex, runSize);
+                    duplicateCount += dedupHashGroups(mergeIndexAddr, hashIndex, runSize, oooColumns, metadata, keyColumns);
+                }
+                runLo = runHi;
+            }
+        } finally {
+            Unsafe.free(hashIndex, hashIndexSize, MemoryTag.NATIVE_O3);
+        }
+
+        if (duplicateCount == 0) {
+            return mergeRowCount;
+        }
+
+        long dst = 0;
+        for (long i = 0; i < mergeRowCount; i++) {
+            if (getTimestampIndexRow(mergeIndexAddr, i) != -1L) {
+                if (dst != i) {
+                    Vect.memcpy(
+                            mergeIndexAddr + dst * TIMESTAMP_MERGE_ENTRY_BYTES,
+                            mergeIndexAddr + i * TIMESTAMP_MERGE_ENTRY_BYTES,
+                            TIMESTAMP_MERGE_ENTRY_BYTES
+                    );
+                }
+                dst++;
+            }
+        }
+        return dst;
+    }
+
+    /**
+     * Marks partition rows replaced by O3 rows in the merge index with -1. Both partition and O3 rows
+     * are unique by key on their own, so a group of equal hashes holds at most two rows per key.
+     *
+     * @return number of rows marked
+     */
+    private static long dedupHashGroups(
+            long mergeIndexAddr,
+            long hashIndex,
+            long count,
+            ReadOnlyObjList<? extends MemoryCR> oooColumns,
+            TableWriterMetadata metadata,
+            LongList keyColumns
+    ) {
+        long duplicateCount = 0;
+        long groupLo = 0;
+        while (groupLo < count) {
+            final long hash = getTimestampIndexValue(hashIndex, groupLo);
+            long groupHi = groupLo + 1;
+            while (groupHi < count && getTimestampIndexValue(hashIndex, groupHi) == hash) {
+                groupHi++;
+            }
+
+            if (groupHi - groupLo > 1) {
+                for (long j = groupLo; j < groupHi; j++) {
+                    final long jPos = getTimestampIndexRow(hashIndex, j);
+                    final long row = getTimestampIndexRow(mergeIndexAddr, jPos);
+                    // existing partition rows have the top bit set, O3 rows do not
+                    if (row < 0) {
+                        final long dataRow = row & Long.MAX_VALUE;
+                        for (long k = groupLo; k < groupHi; k++) {
+                            final long o3Row = getTimestampIndexRow(mergeIndexAddr, getTimestampIndexRow(hashIndex, k));
+                            if (o3Row > -1 && dedupKeysEqual(dataRow, o3Row, oooColumns, metadata, keyColumns)) {
+                                Unsafe.getUnsafe().putLong(mergeIndexAddr + jPos * TIMESTAMP_MERGE_ENTRY_BYTES + Long.BYTES, -1L);
+                                duplicateCount++;
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+            groupLo = groupHi;
+        }
+        return duplicateCount;
+    }
+
+    private static long dedupKeyHash(
+            long row,
+            ReadOnlyObjList<? extends MemoryCR> oooColumns,
+            TableWriterMetadata metadata,
+            LongList keyColumns
+    ) {
+        long hash = 0;
+        for (int i = 0, n = keyColumns.size(); i < n; i += 4) {
+            final int columnIndex = (int) keyColumns.getQuick(i);
+            final int shl = ColumnType.pow2SizeOf(metadata.getColumnType(columnIndex));
+            final long addr;
+            if (row < 0) {
+                addr = keyColumns.getQuick(i + 2) + ((row & Long.MAX_VALUE) << shl);
+            } else {
+                addr = oooColumns.getQuick(getPrimaryColumnIndex(columnIndex)).addressOf(0) + (row << shl);
+            }
+            hash = hash * 31 + Hash.hashMem(addr, 1L << shl);
+        }
+        return hash;
+    }
+
+    private static boolean dedupKeysEqual(
+            long dataRow,
+            long o3Row,
+            ReadOnlyObjList<? extends MemoryCR> oooColumns,
+            TableWriterMetadata metadata,
+            LongList keyColumns
+    ) {
+        for (int i = 0, n = keyColumns.size(); i < n; i += 4) {
+            final int columnIndex = (int) keyColumns.getQuick(i);
+            final int shl = ColumnType.pow2SizeOf(metadata.getColumnType(columnIndex));
+            final long dataAddr = keyColumns.getQuick(i + 2) + (dataRow << shl);
+            final long o3Addr = oooColumns.getQuick(getPrimaryColumnIndex(columnIndex)).addressOf(0) + (o3Row << shl);
+            if (!O3Utils.fixedValuesEqual(dataAddr, o3Addr, shl)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static long createMergeIndex(
             long srcDataTimestampAddr,
             long sortedTimestampsAddr,
@@ -606,7 +818,6 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                     sortedTimestampsAddr + mergeOOOLo * 16,
                     mergeOOOHi - mergeOOOLo + 1
             );
-            Unsafe.recordMemAlloc(indexSize, MemoryTag.NATIVE_O3);
             return ptr;
         } finally {
             Unsafe.free(index, indexSize, MemoryTag.NATIVE_O3);
@@ -757,8 +968,8 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
         final long timestampMergeIndexAddr;
         final long timestampMergeIndexSize;
         if (mergeType == O3_BLOCK_MERGE) {
-            timestampMergeIndexSize = (mergeDataHi - mergeDataLo + 1) * TIMESTAMP_MERGE_ENTRY_BYTES;
-            assert timestampMergeIndexSize > 0; // avoid SIGSEGV
+            final long srcDataIndexSize = (mergeDataHi - mergeDataLo + 1) * TIMESTAMP_MERGE_ENTRY_BYTES;
+            assert srcDataIndexSize > 0; // avoid SIGSEGV
 
             timestampMergeIndexAddr = createMergeIndex(
                     srcTimestampAddr,
@@ -767,8 +978,47 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                     mergeDataHi,
                     mergeOOOLo,
                     mergeOOOHi,
-                    timestampMergeIndexSize
+                    srcDataIndexSize
             );
+
+            // merge index size is the number of rows merge block writes out
+            long mergeRowCount = mergeDataHi - mergeDataLo + 1 + mergeOOOHi - mergeOOOLo + 1;
+            if (tableWriter.getMetadata().isDedupEnabled()) {
+                try {
+                    final long dedupRowCount = dedupMergeIndex(
+                            timestampMergeIndexAddr,
+                            mergeRowCount,
+                            oooColumns,
+                            columns,
+                            pathToTable,
+                            oooTimestampLo,
+                            partitionTimestamp,
+                            srcDataMax,
+                            srcDataTxn,
+                            openColumnMode,
+                            tableWriter,
+                            o3Basket.getDedupKeyColumns()
+                    );
+                    tableWriter.o3NotifyPartitionDuplicates(partitionTimestamp, mergeRowCount - dedupRowCount);
+                    mergeRowCount = dedupRowCount;
+                } catch (Throwable e) {
+                    LOG.error().$("dedup error [table=").$(tableWriter.getTableName())
+                            .$(", e=").$(e)
+                            .I$();
+                    tableWriter.o3BumpErrorCount();
+                    O3CopyJob.closeColumnIdleQuick(
+                            timestampMergeIndexAddr,
+                            0,
+                            srcTimestampFd,
+                            srcTimestampAddr,
+                            srcTimestampSize,
+                            tableWriter
+                    );
+                    throw e;
+                }
+            }
+            timestampMergeIndexSize = mergeRowCount * TIMESTAMP_MERGE_ENTRY_BYTES;
+            Unsafe.recordMemAlloc(timestampMergeIndexSize, MemoryTag.NATIVE_O3);
         } else {
             timestampMergeIndexAddr = 0;
             timestampMergeIndexSize = 0;
@@ -50,6 +50,8 @@ public class O3Utils {
         final int workerCount = workerPool.getWorkerCount();
         final O3PartitionPurgeJob purgeDiscoveryJob = new O3PartitionPurgeJob(messageBus, workerPool.getWorkerCount());
         final ColumnPurgeJob columnPurgeJob = new ColumnPurgeJob(cairoEngine, functionFactoryCache);
+        final WalApplyJob walApplyJob = new WalApplyJob(cairoEngine, workerCount);
+        final MatViewRefreshJob matViewRefreshJob = new MatViewRefreshJob(cairoEngine, functionFactoryCache);
 
         workerPool.assign(purgeDiscoveryJob);
         workerPool.assign(columnPurgeJob);
@@ -57,8 +59,12 @@ public class O3Utils {
         workerPool.assign(new O3OpenColumnJob(messageBus));
         workerPool.assign(new O3CopyJob(messageBus));
         workerPool.assign(new O3CallbackJob(messageBus));
+        workerPool.assign(walApplyJob);
+        workerPool.assign(matViewRefreshJob);
         workerPool.freeOnExit(purgeDiscoveryJob);
         workerPool.freeOnExit(columnPurgeJob);
+        workerPool.freeOnExit(walApplyJob);
+        workerPool.freeOnExit(matViewRefreshJob);
 
         final MicrosecondClock microsecondClock = messageBus.getConfiguration().getMicrosecondClock();
         final NanosecondClock nanosecondClock = messageBus.getConfiguration().getNanosecondClock();
@@ -76,6 +82,24 @@ public class O3Utils {
         }
     }
 
+    static boolean fixedValuesEqual(long addr1, long addr2, int shl) {
+        switch (shl) {
+            case 0:
+                return Unsafe.getUnsafe().getByte(addr1) == Unsafe.getUnsafe().getByte(addr2);
+            case 1:
+                return Unsafe.getUnsafe().getShort(addr1) == Unsafe.getUnsafe().getShort(addr2);
+            case 2:
+                return Unsafe.getUnsafe().getInt(addr1) == Unsafe.getUnsafe().getInt(addr2);
+            default:
+                for (long offset = 0, size = 1L << shl; offset < size; offset += Long.BYTES) {
+                    if (Unsafe.getUnsafe().getLong(addr1 + offset) != Unsafe.getUnsafe().getLong(addr2 + offset)) {
+                        return false;
+                    }
+                }
+                return true;
+        }
+    }
+
     static long getVarColumnLength(long srcLo, long srcHi, long srcFixAddr) {
         return findVarOffset(srcFixAddr, srcHi + 1) - findVarOffset(srcFixAddr, srcLo);
     }
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.std.BinarySequence;
+import io.questdb.std.Long256;
+
+/**
+ * Hashes values written by {@link RecordSink} instead of storing them. Two sinks writing the
+ * same sequence of values, such as master and slave key sinks of a hash join, produce the same hash.
+ */
+public class RecordHasher implements RecordSinkSPI {
+    private static final long M = 0x9E3779B97F4A7C15L;
+    private static final long NULL_STR_HASH = 0x5BD1E9955BD1E995L;
+    private long hash;
+
+    public long hash(Record record, RecordSink sink) {
+        hash = 0;
+        sink.copy(record, this);
+        // final avalanche, so that low bits depend on all the input
+        long h = hash;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * @param record         record to hash
+     * @param sink           key sink
+     * @param partitionCount power of 2
+     * @return partition of the record key
+     */
+    public int partition(Record record, RecordSink sink, int partitionCount) {
+        return (int) (hash(record, sink) & (partitionCount - 1));
+    }
+
+    @Override
+    public void putBin(BinarySequence value) {
+        if (value == null) {
+            mix(NULL_STR_HASH);
+        } else {
+            final long len = value.length();
+            for (long i = 0; i < len; i++) {
+                mix(value.byteAt(i));
+            }
+            mix(len);
+        }
+    }
+
+    @Override
+    public void putBool(boolean value) {
+        mix(value ? 1 : 0);
+    }
+
+    @Override
+    public void putByte(byte value) {
+        mix(value);
+    }
+
+    @Override
+    public void putChar(char value) {
+        mix(value);
+    }
+
+    @Override
+    public void putDate(long value) {
+        mix(value);
+    }
+
+    @Override
+    public void putDouble(double value) {
+        mix(Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    public void putFloat(float value) {
+        mix(Float.floatToRawIntBits(value));
+    }
+
+    @Override
+    public void putInt(int value) {
+        mix(value);
+    }
+
+    @Override
+    public void putLong(long value) {
+        mix(value);
+    }
+
+    @Override
+    public void putLong128LittleEndian(long hi, long lo) {
+        mix(lo);
+        mix(hi);
+    }
+
+    @Override
+    public void putLong256(Long256 value) {
+        mix(value.getLong0());
+        mix(value.getLong1());
+        mix(value.getLong2());
+        mix(value.getLong3());
+    }
+
+    @Override
+    public void putRecord(Record value) {
+        // noop
+    }
+
+    @Override
+    public void putShort(short value) {
+        mix(value);
+    }
+
+    @Override
+    public void putStr(CharSequence value) {
+        if (value == null) {
+            mix(NULL_STR_HASH);
+        } else {
+            putStr(value, 0, value.length());
+        }
+    }
+
+    @Override
+    public void putStr(CharSequence value, int lo, int hi) {
+        for (int i = lo; i < hi; i++) {
+            mix(value.charAt(i));
+        }
+        mix(hi - lo);
+    }
+
+    @Override
+    public void putStrLowerCase(CharSequence value) {
+        if (value == null) {
+            mix(NULL_STR_HASH);
+        } else {
+            putStrLowerCase(value, 0, value.length());
+        }
+    }
+
+    @Override
+    public void putStrLowerCase(CharSequence value, int lo, int hi) {
+        for (int i = lo; i < hi; i++) {
+            mix(Character.toLowerCase(value.charAt(i)));
+        }
+        mix(hi - lo);
+    }
+
+    @Override
+    public void putTimestamp(long value) {
+        mix(value);
+    }
+
+    @Override
+    public void skip(int bytes) {
+        // noop
+    }
+
+    private void mix(long value) {
+        hash = (hash ^ value) * M;
+        hash ^= hash >>> 29;
+    }
+}
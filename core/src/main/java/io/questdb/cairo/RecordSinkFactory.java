@@ -189,6 +189,7 @@ public class RecordSinkFactory {
                     asm.invokeInterface(rGetDouble, 1);
                     asm.invokeInterface(wPutDouble, 2);
                     break;
+                case ColumnType.VARCHAR:
                 case ColumnType.STRING:
                     asm.aload(2);
                     asm.aload(1);
@@ -239,6 +240,11 @@ public class RecordSinkFactory {
                     asm.iconst(Long.BYTES);
                     asm.invokeInterface(wSkip, 1);
                     break;
+                case -ColumnType.DOUBLE:
+                    asm.aload(2);
+                    asm.iconst(Double.BYTES);
+                    asm.invokeInterface(wSkip, 1);
+                    break;
                 case ColumnType.GEOBYTE:
                     asm.aload(2);
                     asm.aload(1);
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.MemoryCMARWImpl;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Set of on-disk record chains, used by operators that run out of memory to split their input
+ * into partitions and then process partitions one by one. Records are appended to a partition
+ * chosen by the caller, usually by key hash, see {@link RecordHasher}. Partition files are created
+ * under {@link CairoConfiguration#getSqlSpillRoot()} on first write and removed on clear.
+ */
+public class RecordSpill implements Closeable, Mutable {
+    private static final long EXTEND_SEGMENT_SIZE = Numbers.SIZE_1MB;
+    private static final Log LOG = LogFactory.getLog(RecordSpill.class);
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private final ObjList<RecordChain> chains = new ObjList<>();
+    private final FilesFacade ff;
+    private final LongList lastOffsets = new LongList();
+    private final ObjList<MemoryCMARWImpl> mems = new ObjList<>();
+    private final int mkDirMode;
+    private final CharSequence name;
+    private final int partitionCount;
+    private final CharSequence root;
+    private final long spillId;
+    private Path path;
+    private boolean open;
+
+    public RecordSpill(
+            CairoConfiguration configuration,
+            @Transient ColumnTypes columnTypes,
+            RecordSink recordSink,
+            CharSequence name
+    ) {
+        this(configuration, columnTypes, recordSink, name, configuration.getSqlSpillPartitionCount());
+    }
+
+    public RecordSpill(
+            CairoConfiguration configuration,
+            @Transient ColumnTypes columnTypes,
+            RecordSink recordSink,
+            CharSequence name,
+            int partitionCount
+    ) {
+        this.ff = configuration.getFilesFacade();
+        this.mkDirMode = configuration.getMkDirMode();
+        this.root = configuration.getSqlSpillRoot();
+        this.partitionCount = partitionCount;
+        this.name = name;
+        this.spillId = configuration.getMicrosecondClock().getTicks() * 1000 + SEQUENCE.incrementAndGet() % 1000;
+        for (int i = 0; i < partitionCount; i++) {
+            final MemoryCMARWImpl mem = new MemoryCMARWImpl();
+            mems.add(mem);
+            chains.add(new RecordChain(columnTypes, recordSink, mem));
+            lastOffsets.add(-1L);
+        }
+    }
+
+    public static boolean isEnabled(CairoConfiguration configuration) {
+        return configuration.getSqlSpillRoot() != null;
+    }
+
+    @Override
+    public void clear() {
+        if (open) {
+            open = false;
+            for (int i = 0; i < partitionCount; i++) {
+                chains.getQuick(i).clear();
+                final Path partitionPath = partitionPath(i);
+                if (ff.exists(partitionPath) && !ff.remove(partitionPath)) {
+                    LOG.error().$("could not remove spill file [path=").$(path).$(", errno=").$(ff.errno()).$(']').$();
+                }
+                lastOffsets.setQuick(i, -1L);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.freeObjListAndKeepObjects(chains);
+        path = Misc.free(path);
+    }
+
+    /**
+     * @param partition partition index
+     * @return chain positioned at the top of the partition, valid until next write
+     */
+    public RecordChain getPartition(int partition) {
+        final RecordChain chain = chains.getQuick(partition);
+        chain.toTop();
+        return chain;
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public void put(Record record, int partition) {
+        if (!open) {
+            openPartitions();
+        }
+        lastOffsets.setQuick(partition, chains.getQuick(partition).put(record, lastOffsets.getQuick(partition)));
+    }
+
+    public void setSymbolTableResolver(SymbolTableSource resolver) {
+        for (int i = 0; i < partitionCount; i++) {
+            chains.getQuick(i).setSymbolTableResolver(resolver);
+        }
+    }
+
+    private void openPartitions() {
+        if (path == null) {
+            path = new Path();
+        }
+        path.of(root).slash$();
+        if (!ff.exists(path) && ff.mkdirs(path, mkDirMode) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create spill directory [path=").put(path).put(']');
+        }
+        open = true;
+        for (int i = 0; i < partitionCount; i++) {
+            try {
+                mems.getQuick(i).of(ff, partitionPath(i), EXTEND_SEGMENT_SIZE, -1, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE, -1);
+            } catch (Throwable e) {
+                clear();
+                throw e;
+            }
+        }
+        LOG.info().$("spilling to disk [name=").$(name).$(", id=").$(spillId).$(", partitions=").$(partitionCount).$(']').$();
+    }
+
+    private Path partitionPath(int partition) {
+        return path.of(root).concat(name).put('.').put(spillId).put('.').put(partition).put(".s").$();
+    }
+}
@@ -33,6 +33,12 @@ public interface Sequencer extends Closeable {
 
     void open();
 
+    // returns cursor over the txns committed after the given one, cursor has to be closed after use
+    SequencerCursor getCursor(long lastCommittedTxn);
+
+    // returns the last txn number handed out by the sequencer
+    long getMaxTxn();
+
     // returns next available txn number
     long nextTxn(int walId, long segmentId);
 
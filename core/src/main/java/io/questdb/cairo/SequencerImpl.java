@@ -46,6 +46,8 @@ public class SequencerImpl implements Sequencer {
     private final TxnCatalog catalog;
     private final IDGenerator txnGenerator;
     private final IDGenerator walIdGenerator;
+    // last txn with catalog entry written, read by WAL apply without taking the lock
+    private volatile long maxTxn;
 
     SequencerImpl(CairoEngine engine, String tableName) {
         this.engine = engine;
@@ -65,7 +67,8 @@ public class SequencerImpl implements Sequencer {
             txnGenerator = new IDGenerator(configuration, TXN_FILE_NAME);
             txnGenerator.open(path);
             catalog = new TxnCatalog(ff);
-            catalog.open(path, rootLen, txnGenerator.getCurrentId());
+            maxTxn = txnGenerator.getCurrentId();
+            catalog.open(path, rootLen, maxTxn);
         } catch (Throwable th) {
             close();
             throw th;
@@ -94,9 +97,25 @@ public class SequencerImpl implements Sequencer {
     }
 
     @Override
-    public long nextTxn(int walId, long segmentId) {
+    public SequencerCursor getCursor(long lastCommittedTxn) {
+        schemaLock.readLock().lock();
+        try {
+            return catalog.getCursor(path, rootLen, lastCommittedTxn, getMaxTxn());
+        } finally {
+            schemaLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long getMaxTxn() {
+        return maxTxn;
+    }
+
+    @Override
+    public synchronized long nextTxn(int walId, long segmentId) {
         final long txn = txnGenerator.getNextId();
         catalog.setEntry(txn, walId, segmentId);
+        maxTxn = txn;
         return txn;
     }
 
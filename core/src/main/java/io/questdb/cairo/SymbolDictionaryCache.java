@@ -0,0 +1,313 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Engine-wide cache of symbol value to key mappings, one entry per symbol column.
+ * Table writer publishes symbol values to the entry once they are committed, ILP symbol
+ * lookups and symbol map readers consult the entry before searching symbol map files.
+ * <p>
+ * Entries keep their hash table and symbol values off-heap. Lookups are lock-free,
+ * inserts come from the table writer only and are serialised on the entry. Entries
+ * are reference counted, entry memory is released when the last writer, reader or
+ * ILP symbol cache using it is closed.
+ * <p>
+ * Entry is identified by table id, column writer index and column name txn. Since
+ * symbol keys are assigned in the order values are added, a key found in the entry is
+ * valid for every symbol map of the same column that has at least key + 1 values.
+ * Truncate is the only operation that reassigns keys, it invalidates the entry.
+ */
+public class SymbolDictionaryCache {
+    private static final Log LOG = LogFactory.getLog(SymbolDictionaryCache.class);
+    private final LongObjHashMap<Entry> entries = new LongObjHashMap<>();
+    private final boolean enabled;
+
+    public SymbolDictionaryCache(CairoConfiguration configuration) {
+        this.enabled = configuration.isSymbolDictionaryCacheEnabled();
+    }
+
+    /**
+     * Acquires reference to cache entry of symbol column. Entry must be closed when
+     * it is no longer used.
+     *
+     * @param tableId           table id
+     * @param columnWriterIndex column writer index
+     * @param columnNameTxn     column name txn of the symbol map files
+     * @return entry or null when cache is disabled or entry is in use for another column name txn
+     */
+    @Nullable
+    public synchronized Entry acquire(int tableId, int columnWriterIndex, long columnNameTxn) {
+        if (!enabled) {
+            return null;
+        }
+        final long key = Numbers.encodeLowHighInts(columnWriterIndex, tableId);
+        final int index = entries.keyIndex(key);
+        if (index < 0) {
+            final Entry entry = entries.valueAtQuick(index);
+            if (entry.columnNameTxn != columnNameTxn) {
+                // column files have been replaced while old ones are still open, this is
+                // transient, old version does not get cached
+                return null;
+            }
+            entry.refCount++;
+            return entry;
+        }
+        final Entry entry = new Entry(this, tableId, columnWriterIndex, columnNameTxn);
+        entries.putAt(index, key, entry);
+        return entry;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Makes entry unusable and removes it from the cache, so that subsequent acquire
+     * calls create new entry. Entry memory is released when its references are closed.
+     */
+    synchronized void invalidate(Entry entry) {
+        if (entry.valid) {
+            entry.valid = false;
+            entries.remove(entry.key());
+            LOG.info().$("invalidated [tableId=").$(entry.tableId)
+                    .$(", columnWriterIndex=").$(entry.columnWriterIndex)
+                    .$(", size=").$(entry.size)
+                    .I$();
+        }
+    }
+
+    private synchronized void release(Entry entry) {
+        assert entry.refCount > 0;
+        if (--entry.refCount == 0) {
+            if (entry.valid) {
+                entry.valid = false;
+                entries.remove(entry.key());
+            }
+            entry.free();
+        }
+    }
+
+    private synchronized Entry renew(Entry entry) {
+        release(entry);
+        return acquire(entry.tableId, entry.columnWriterIndex, entry.columnNameTxn);
+    }
+
+    public static class Entry implements Closeable {
+        // Hash table layout: capacity mask followed by slots. Slot is 16 bytes: address of
+        // the value, value hash and symbol key. Value address is written last, non-zero address
+        // publishes the slot to readers. Value is stored as int length followed by chars.
+        private static final int SLOT_SIZE = 16;
+        private static final long TABLE_HEADER_SIZE = 8;
+        private static final int INITIAL_CAPACITY = 256;
+        private static final long VALUE_PAGE_SIZE = 64 * 1024;
+        private final SymbolDictionaryCache cache;
+        private final int tableId;
+        private final int columnWriterIndex;
+        private final long columnNameTxn;
+        // hash tables replaced by resize, readers may still be probing them,
+        // they are released together with the entry
+        private final LongList retiredTables = new LongList();
+        // address and size pairs of value pages
+        private final LongList valuePages = new LongList();
+        private volatile long tableAddr;
+        private volatile int size;
+        private volatile boolean valid = true;
+        private int refCount = 1;
+        private long valueAppendAddr;
+        private long valueLimitAddr;
+
+        private Entry(SymbolDictionaryCache cache, int tableId, int columnWriterIndex, long columnNameTxn) {
+            this.cache = cache;
+            this.tableId = tableId;
+            this.columnWriterIndex = columnWriterIndex;
+            this.columnNameTxn = columnNameTxn;
+            this.tableAddr = allocTable(INITIAL_CAPACITY);
+        }
+
+        @Override
+        public void close() {
+            cache.release(this);
+        }
+
+        /**
+         * @return number of symbol values in the entry, values of keys from 0 to size - 1
+         * have been published
+         */
+        public int getSize() {
+            return size;
+        }
+
+        public boolean isValid() {
+            return valid;
+        }
+
+        /**
+         * Looks up symbol key by value. Lookup does not block and can run concurrently
+         * with inserts.
+         *
+         * @param value symbol value, not null
+         * @return symbol key or {@link SymbolTable#VALUE_NOT_FOUND}
+         */
+        public int keyOf(CharSequence value) {
+            if (valid) {
+                final long table = tableAddr;
+                final long mask = Unsafe.getUnsafe().getLong(table);
+                final int hash = Hash.spread(Chars.hashCode(value));
+                long index = hash & mask;
+                while (true) {
+                    final long slot = table + TABLE_HEADER_SIZE + index * SLOT_SIZE;
+                    final long valueAddr = Unsafe.getUnsafe().getLongVolatile(null, slot);
+                    if (valueAddr == 0) {
+                        return SymbolTable.VALUE_NOT_FOUND;
+                    }
+                    if (Unsafe.getUnsafe().getInt(slot + 8) == hash && equals(value, valueAddr)) {
+                        return Unsafe.getUnsafe().getInt(slot + 12);
+                    }
+                    index = (index + 1) & mask;
+                }
+            }
+            return SymbolTable.VALUE_NOT_FOUND;
+        }
+
+        /**
+         * Invalidates this entry, releases it and acquires new entry of the same column.
+         */
+        @Nullable
+        Entry renew() {
+            cache.invalidate(this);
+            return cache.renew(this);
+        }
+
+        private static long allocTable(int capacity) {
+            final long size = TABLE_HEADER_SIZE + (long) capacity * SLOT_SIZE;
+            final long addr = Unsafe.malloc(size, MemoryTag.NATIVE_SYMBOL_CACHE);
+            Vect.memset(addr, size, 0);
+            Unsafe.getUnsafe().putLong(addr, capacity - 1);
+            return addr;
+        }
+
+        private static boolean equals(CharSequence value, long valueAddr) {
+            final int len = value.length();
+            if (Unsafe.getUnsafe().getInt(valueAddr) != len) {
+                return false;
+            }
+            for (int i = 0; i < len; i++) {
+                if (Unsafe.getUnsafe().getChar(valueAddr + Integer.BYTES + i * 2L) != value.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static void freeTable(long addr) {
+            Unsafe.free(addr, TABLE_HEADER_SIZE + (Unsafe.getUnsafe().getLong(addr) + 1) * SLOT_SIZE, MemoryTag.NATIVE_SYMBOL_CACHE);
+        }
+
+        private static void insert(long table, long valueAddr, int hash, int key) {
+            final long mask = Unsafe.getUnsafe().getLong(table);
+            long index = hash & mask;
+            long slot;
+            while (Unsafe.getUnsafe().getLong(slot = table + TABLE_HEADER_SIZE + index * SLOT_SIZE) != 0) {
+                index = (index + 1) & mask;
+            }
+            Unsafe.getUnsafe().putInt(slot + 8, hash);
+            Unsafe.getUnsafe().putInt(slot + 12, key);
+            Unsafe.getUnsafe().putOrderedLong(null, slot, valueAddr);
+        }
+
+        private void free() {
+            if (tableAddr != 0) {
+                freeTable(tableAddr);
+                tableAddr = 0;
+            }
+            for (int i = 0, n = retiredTables.size(); i < n; i++) {
+                freeTable(retiredTables.getQuick(i));
+            }
+            retiredTables.clear();
+            for (int i = 0, n = valuePages.size(); i < n; i += 2) {
+                Unsafe.free(valuePages.getQuick(i), valuePages.getQuick(i + 1), MemoryTag.NATIVE_SYMBOL_CACHE);
+            }
+            valuePages.clear();
+            valueAppendAddr = valueLimitAddr = 0;
+        }
+
+        private long key() {
+            return Numbers.encodeLowHighInts(columnWriterIndex, tableId);
+        }
+
+        private long putValue(CharSequence value) {
+            final int len = value.length();
+            final long valueSize = Integer.BYTES + len * 2L;
+            if (valueAppendAddr + valueSize > valueLimitAddr) {
+                final long pageSize = Math.max(VALUE_PAGE_SIZE, valueSize);
+                valueAppendAddr = Unsafe.malloc(pageSize, MemoryTag.NATIVE_SYMBOL_CACHE);
+                valueLimitAddr = valueAppendAddr + pageSize;
+                valuePages.add(valueAppendAddr, pageSize);
+            }
+            final long addr = valueAppendAddr;
+            Unsafe.getUnsafe().putInt(addr, len);
+            Chars.copyStrChars(value, 0, len, addr + Integer.BYTES);
+            valueAppendAddr += valueSize;
+            return addr;
+        }
+
+        /**
+         * Adds symbol values of keys from the current size up to symbol count. Called by
+         * table writer after symbol values have been committed.
+         */
+        synchronized void publish(SymbolMapWriter writer, int symbolCount) {
+            for (int key = size; key < symbolCount && valid; key++) {
+                final CharSequence value = writer.valueOf(key);
+                long table = tableAddr;
+                final long capacity = Unsafe.getUnsafe().getLong(table) + 1;
+                if ((key + 1) * 2L > capacity) {
+                    // keep load factor at 0.5, readers move over to the new table
+                    // when it is published, the old one remains readable
+                    final long newTable = allocTable((int) (capacity * 2));
+                    for (long i = 0; i < capacity; i++) {
+                        final long slot = table + TABLE_HEADER_SIZE + i * SLOT_SIZE;
+                        final long valueAddr = Unsafe.getUnsafe().getLong(slot);
+                        if (valueAddr != 0) {
+                            insert(newTable, valueAddr, Unsafe.getUnsafe().getInt(slot + 8), Unsafe.getUnsafe().getInt(slot + 12));
+                        }
+                    }
+                    retiredTables.add(table);
+                    tableAddr = table = newTable;
+                }
+                insert(table, putValue(value), Hash.spread(Chars.hashCode(value)), key);
+                size = key + 1;
+            }
+        }
+    }
+}
@@ -35,6 +35,7 @@ import io.questdb.log.LogFactory;
 import io.questdb.std.*;
 import io.questdb.std.str.Path;
 import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 
 import java.io.Closeable;
@@ -58,6 +59,8 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
     private final Path path = new Path();
     private final StringSink columnNameSink = new StringSink();
     private long columnNameTxn;
+    // shared symbol value to key cache, keys it returns are valid while they are below symbol count
+    private SymbolDictionaryCache.Entry dictionary;
 
     public SymbolMapReaderImpl() {
     }
@@ -66,8 +69,20 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
         of(configuration, path, name, columnNameTxn, symbolCount);
     }
 
+    public SymbolMapReaderImpl(
+            CairoConfiguration configuration,
+            Path path,
+            CharSequence name,
+            long columnNameTxn,
+            int symbolCount,
+            @Nullable SymbolDictionaryCache.Entry dictionary
+    ) {
+        of(configuration, path, name, columnNameTxn, symbolCount, dictionary);
+    }
+
     @Override
     public void close() {
+        dictionary = Misc.free(dictionary);
         Misc.free(indexReader);
         Misc.free(charMem);
         this.cache.clear();
@@ -116,6 +131,25 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
     }
 
     public void of(CairoConfiguration configuration, Path path, CharSequence columnName, long columnNameTxn, int symbolCount) {
+        of(configuration, path, columnName, columnNameTxn, symbolCount, null);
+    }
+
+    /**
+     * Opens symbol map of the column.
+     *
+     * @param dictionary entry of shared symbol dictionary cache for this column or null, reader takes
+     *                   over the entry reference and closes it together with the symbol map
+     */
+    public void of(
+            CairoConfiguration configuration,
+            Path path,
+            CharSequence columnName,
+            long columnNameTxn,
+            int symbolCount,
+            @Nullable SymbolDictionaryCache.Entry dictionary
+    ) {
+        Misc.free(this.dictionary);
+        this.dictionary = dictionary;
         FilesFacade ff = configuration.getFilesFacade();
         this.configuration = configuration;
         this.path.of(path);
@@ -185,6 +219,10 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
     @Override
     public int keyOf(CharSequence value) {
         if (value != null) {
+            final int key = dictionaryKeyOf(value);
+            if (key != SymbolTable.VALUE_NOT_FOUND) {
+                return key;
+            }
             int hash = Hash.boundedHash(value, maxHash);
             final RowCursor cursor = indexReader.getCursor(true, hash, 0, maxOffset - Long.BYTES);
             while (cursor.hasNext()) {
@@ -234,6 +272,17 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
         return symbol != null ? symbol : fetchAndCache(key);
     }
 
+    private int dictionaryKeyOf(CharSequence value) {
+        if (dictionary != null) {
+            final int key = dictionary.keyOf(value);
+            // dictionary may be ahead of this reader
+            if (key < symbolCount) {
+                return key;
+            }
+        }
+        return SymbolTable.VALUE_NOT_FOUND;
+    }
+
     private CharSequence fetchAndCache(int key) {
         final CharSequence cs = uncachedValue(key);
         assert cs != null;
@@ -269,6 +318,10 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
         @Override
         public int keyOf(CharSequence value) {
             if (value != null) {
+                final int key = dictionaryKeyOf(value);
+                if (key != SymbolTable.VALUE_NOT_FOUND) {
+                    return key;
+                }
                 int hash = Hash.boundedHash(value, maxHash);
                 rowCursor = indexReader.initCursor(rowCursor, hash, 0, maxOffset - Long.BYTES);
                 while (rowCursor.hasNext()) {
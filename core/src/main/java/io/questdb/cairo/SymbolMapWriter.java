@@ -34,6 +34,7 @@ import io.questdb.std.*;
 import io.questdb.std.str.Path;
 import io.questdb.std.str.SingleCharCharSequence;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 
@@ -54,6 +55,7 @@ public class SymbolMapWriter implements Closeable, MapWriter {
     private final SymbolValueCountCollector valueCountCollector;
     private boolean nullValue = false;
     private int symbolIndexInTxWriter;
+    private SymbolDictionaryCache.Entry dictionary;
 
     public SymbolMapWriter(
             CairoConfiguration configuration,
@@ -63,8 +65,26 @@ public class SymbolMapWriter implements Closeable, MapWriter {
             int symbolCount,
             int symbolIndexInTxWriter,
             @NotNull SymbolValueCountCollector valueCountCollector
+    ) {
+        this(configuration, path, name, columnNameTxn, symbolCount, symbolIndexInTxWriter, valueCountCollector, null);
+    }
+
+    /**
+     * @param dictionary entry of shared symbol dictionary cache for this column or null, writer
+     *                   takes over the entry reference and closes it together with the symbol map
+     */
+    public SymbolMapWriter(
+            CairoConfiguration configuration,
+            Path path,
+            CharSequence name,
+            long columnNameTxn,
+            int symbolCount,
+            int symbolIndexInTxWriter,
+            @NotNull SymbolValueCountCollector valueCountCollector,
+            @Nullable SymbolDictionaryCache.Entry dictionary
     ) {
         final int plen = path.length();
+        this.dictionary = dictionary;
         try {
             final FilesFacade ff = configuration.getFilesFacade();
             final long mapPageSize = configuration.getMiscAppendPageSize();
@@ -151,6 +171,7 @@ public class SymbolMapWriter implements Closeable, MapWriter {
 
     @Override
     public void close() {
+        dictionary = Misc.free(dictionary);
         Misc.free(indexWriter);
         Misc.free(charMem);
         if (this.offsetMem != null) {
@@ -196,6 +217,13 @@ public class SymbolMapWriter implements Closeable, MapWriter {
         return lookupAndPut(symbol, valueCountCollector);
     }
 
+    @Override
+    public void publishCommitted() {
+        if (dictionary != null) {
+            dictionary.publish(this, getSymbolCount());
+        }
+    }
+
     @Override
     public void rollback(int symbolCount) {
         indexWriter.rollbackValues(keyToOffset(symbolCount - 1));
@@ -214,6 +242,10 @@ public class SymbolMapWriter implements Closeable, MapWriter {
 
     @Override
     public void truncate() {
+        if (dictionary != null) {
+            // keys are about to be reassigned
+            dictionary = dictionary.renew();
+        }
         final int symbolCapacity = offsetMem.getInt(HEADER_CAPACITY);
         offsetMem.truncate();
         offsetMem.putInt(HEADER_CAPACITY, symbolCapacity);
@@ -228,6 +260,10 @@ public class SymbolMapWriter implements Closeable, MapWriter {
         }
     }
 
+    CharSequence valueOf(int key) {
+        return charMem.getStr(offsetMem.getLong(keyToOffset(key)));
+    }
+
     static int offsetToKey(long offset) {
         return (int) ((offset - HEADER_SIZE) / 8L);
     }
@@ -27,6 +27,7 @@ package io.questdb.cairo;
 import io.questdb.MessageBus;
 import io.questdb.cairo.sql.StaticSymbolTable;
 import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.MemoryCMRCompressedImpl;
 import io.questdb.cairo.vm.NullMemoryMR;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
@@ -47,10 +48,12 @@ import static io.questdb.cairo.TableUtils.TXN_FILE_NAME;
 
 public class TableReader implements Closeable, SymbolTableSource {
     private static final Log LOG = LogFactory.getLog(TableReader.class);
-    private static final int PARTITIONS_SLOT_SIZE = 4;
+    // slot size has to be power of 2, MSB is used to binary search partition timestamps
+    private static final int PARTITIONS_SLOT_SIZE = 8;
     private static final int PARTITIONS_SLOT_OFFSET_SIZE = 1;
     private static final int PARTITIONS_SLOT_OFFSET_NAME_TXN = 2;
     private static final int PARTITIONS_SLOT_OFFSET_COLUMN_VERSION = 3;
+    private static final int PARTITIONS_SLOT_OFFSET_COMPRESSED = 4;
     private static final int PARTITIONS_SLOT_SIZE_MSB = Numbers.msb(PARTITIONS_SLOT_SIZE);
     private final FilesFacade ff;
     private final Path path;
@@ -63,6 +66,7 @@ public class TableReader implements Closeable, SymbolTableSource {
     private final PartitionBy.PartitionFloorMethod partitionFloorMethod;
     private final String tableName;
     private final MessageBus messageBus;
+    private final SymbolDictionaryCache symbolDictionaryCache;
     private final ObjList<SymbolMapReader> symbolMapReaders = new ObjList<>();
     private final CairoConfiguration configuration;
     private final TxReader txFile;
@@ -86,7 +90,17 @@ public class TableReader implements Closeable, SymbolTableSource {
     }
 
     public TableReader(CairoConfiguration configuration, CharSequence tableName, @Nullable MessageBus messageBus) {
+        this(configuration, tableName, messageBus, null);
+    }
+
+    public TableReader(
+            CairoConfiguration configuration,
+            CharSequence tableName,
+            @Nullable MessageBus messageBus,
+            @Nullable SymbolDictionaryCache symbolDictionaryCache
+    ) {
         this.configuration = configuration;
+        this.symbolDictionaryCache = symbolDictionaryCache;
         this.clock = configuration.getMillisecondClock();
         this.ff = configuration.getFilesFacade();
         this.tableName = Chars.toString(tableName);
@@ -131,6 +145,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                 this.openPartitionInfo.setQuick(i * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_SIZE, -1); // size
                 this.openPartitionInfo.setQuick(i * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_NAME_TXN, txFile.getPartitionNameTxn(i)); // txn
                 this.openPartitionInfo.setQuick(i * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_COLUMN_VERSION, txFile.getPartitionColumnVersion(i)); // cv
+                this.openPartitionInfo.setQuick(i * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_COMPRESSED, 0); // compressed
             }
             this.columnTops = new LongList(capacity / 2);
             this.columnTops.setPos(capacity / 2);
@@ -340,6 +355,48 @@ public class TableReader implements Closeable, SymbolTableSource {
         return openPartition0(partitionIndex);
     }
 
+    /**
+     * Maps Bloom filter of column partition, see {@link BloomFilterWriter}.
+     *
+     * @return false when Bloom filter does not exist or is not usable
+     */
+    public boolean openBloomFilter(int partitionIndex, int columnIndex, BloomFilterReader bloomFilter, long partitionRowCount) {
+        final long partitionTimestamp = txFile.getPartitionTimestamp(partitionIndex);
+        final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, metadata.getWriterIndex(columnIndex));
+        try {
+            TableUtils.txnPartitionConditionally(pathGenPartitioned(partitionIndex), txFile.getPartitionNameTxn(partitionIndex));
+            return bloomFilter.of(
+                    ff,
+                    TableUtils.bfFile(path, metadata.getColumnName(columnIndex), columnNameTxn),
+                    metadata.getColumnType(columnIndex),
+                    partitionRowCount
+            );
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
+    /**
+     * Maps zone map of column partition, see {@link ZoneMapWriter}.
+     *
+     * @return false when zone map does not exist or is not usable
+     */
+    public boolean openZoneMap(int partitionIndex, int columnIndex, ZoneMapReader zoneMap, long partitionRowCount) {
+        final long partitionTimestamp = txFile.getPartitionTimestamp(partitionIndex);
+        final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, metadata.getWriterIndex(columnIndex));
+        try {
+            TableUtils.txnPartitionConditionally(pathGenPartitioned(partitionIndex), txFile.getPartitionNameTxn(partitionIndex));
+            return zoneMap.of(
+                    ff,
+                    TableUtils.zmFile(path, metadata.getColumnName(columnIndex), columnNameTxn),
+                    metadata.getColumnType(columnIndex),
+                    partitionRowCount
+            );
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     public void reconcileOpenPartitionsFrom(int partitionIndex, boolean forceTruncate) {
         int txPartitionCount = txFile.getPartitionCount();
         int txPartitionIndex = partitionIndex;
@@ -472,6 +529,10 @@ public class TableReader implements Closeable, SymbolTableSource {
         return false;
     }
 
+    private SymbolDictionaryCache.Entry acquireSymbolDictionary(int writerColumnIndex, long columnNameTxn) {
+        return symbolDictionaryCache != null ? symbolDictionaryCache.acquire(metadata.getId(), writerColumnIndex, columnNameTxn) : null;
+    }
+
     private void checkSchedulePurgeO3Partitions() {
         long txnLocks = txnScoreboard.getActiveReaderCount(txn);
         long partitionTableVersion = txFile.getPartitionTableVersion();
@@ -724,6 +785,7 @@ public class TableReader implements Closeable, SymbolTableSource {
         openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE, -1L); // size
         openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_NAME_TXN, -1L); // name txn
         openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_COLUMN_VERSION, -1L); // column version
+        openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_COMPRESSED, 0L); // compressed
         partitionCount++;
         LOG.debug().$("inserted partition [index=").$(partitionIndex).$(", path=").$(path).$(", timestamp=").$ts(timestamp).I$();
     }
@@ -738,12 +800,15 @@ public class TableReader implements Closeable, SymbolTableSource {
         // symbol column index is the index of symbol column in dense array of symbol columns, e.g.
         // if table has only one symbol columns, the symbolColumnIndex is 0 regardless of column position
         // in the metadata.
+        final int writerColumnIndex = metadata.getWriterIndex(columnIndex);
+        final long columnNameTxn = columnVersionReader.getDefaultColumnNameTxn(writerColumnIndex);
         return new SymbolMapReaderImpl(
                 configuration,
                 path,
                 metadata.getColumnName(columnIndex),
-                columnVersionReader.getDefaultColumnNameTxn(metadata.getWriterIndex(columnIndex)),
-                txFile.getSymbolValueCount(symbolColumnIndex)
+                columnNameTxn,
+                txFile.getSymbolValueCount(symbolColumnIndex),
+                acquireSymbolDictionary(writerColumnIndex, columnNameTxn)
         );
     }
 
@@ -779,12 +844,18 @@ public class TableReader implements Closeable, SymbolTableSource {
             ObjList<MemoryMR> columns,
             int primaryIndex,
             MemoryMR mem,
-            long columnSize
+            long columnSize,
+            boolean compressed
     ) {
-        if (mem != null && mem != NullMemoryMR.INSTANCE) {
+        // partition can be compressed after reader opened it, memory is then re-created
+        // rather than re-opened
+        if (mem != null && mem != NullMemoryMR.INSTANCE && compressed == (mem instanceof MemoryCMRCompressedImpl)) {
             mem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_READER);
         } else {
-            mem = Vm.getMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER);
+            Misc.free(mem);
+            mem = compressed
+                    ? Vm.getCompressedCMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER)
+                    : Vm.getMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER);
             columns.setQuick(primaryIndex, mem);
         }
         return mem;
@@ -815,8 +886,9 @@ public class TableReader implements Closeable, SymbolTableSource {
                             .$(", partitionCount=").$(partitionCount)
                             .$(']').$();
 
-                    openPartitionColumns(partitionIndex, path, getColumnBase(partitionIndex), partitionSize);
                     final int offset = partitionIndex * PARTITIONS_SLOT_SIZE;
+                    this.openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_COMPRESSED, TableUtils.isPartitionCompressed(ff, path) ? 1 : 0);
+                    openPartitionColumns(partitionIndex, path, getColumnBase(partitionIndex), partitionSize);
                     this.openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE, partitionSize);
                     final long txPartitionNameTxn = txFile.getPartitionNameTxn(partitionIndex);
                     this.openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_NAME_TXN, txPartitionNameTxn);
@@ -979,7 +1051,14 @@ public class TableReader implements Closeable, SymbolTableSource {
                     final int writerColumnIndex = metadata.getWriterIndex(columnIndex);
                     final long columnNameTxn = columnVersionReader.getDefaultColumnNameTxn(writerColumnIndex);
                     int symbolCount = txFile.getSymbolValueCount(symbolMapIndex++);
-                    ((SymbolMapReaderImpl) symbolMapReader).of(configuration, path, metadata.getColumnName(columnIndex), columnNameTxn, symbolCount);
+                    ((SymbolMapReaderImpl) symbolMapReader).of(
+                            configuration,
+                            path,
+                            metadata.getColumnName(columnIndex),
+                            columnNameTxn,
+                            symbolCount,
+                            acquireSymbolDictionary(writerColumnIndex, columnNameTxn)
+                    );
                 }
             }
         }
@@ -1005,6 +1084,7 @@ public class TableReader implements Closeable, SymbolTableSource {
             MemoryMR mem2 = columns.getQuick(secondaryIndex);
 
             final long partitionTimestamp = openPartitionInfo.getQuick(partitionIndex * PARTITIONS_SLOT_SIZE);
+            final boolean compressed = openPartitionInfo.getQuick(partitionIndex * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_COMPRESSED) == 1;
             int writerIndex = metadata.getWriterIndex(columnIndex);
             final int versionRecordIndex = columnVersionReader.getRecordIndex(partitionTimestamp, writerIndex);
             final long columnTop = versionRecordIndex > -1L ? columnVersionReader.getColumnTopByIndex(versionRecordIndex) : 0L;
@@ -1027,14 +1107,14 @@ public class TableReader implements Closeable, SymbolTableSource {
                 if (ColumnType.isVariableLength(columnType)) {
                     long columnSize = columnRowCount * 8L + 8L;
                     TableUtils.iFile(path.trimTo(plen), name, columnTxn);
-                    mem2 = openOrCreateMemory(path, columns, secondaryIndex, mem2, columnSize);
+                    mem2 = openOrCreateMemory(path, columns, secondaryIndex, mem2, columnSize, compressed);
                     columnSize = mem2.getLong(columnRowCount * 8L);
                     TableUtils.dFile(path.trimTo(plen), name, columnTxn);
-                    openOrCreateMemory(path, columns, primaryIndex, mem1, columnSize);
+                    openOrCreateMemory(path, columns, primaryIndex, mem1, columnSize, compressed);
                 } else {
                     long columnSize = columnRowCount << ColumnType.pow2SizeOf(columnType);
                     TableUtils.dFile(path.trimTo(plen), name, columnTxn);
-                    openOrCreateMemory(path, columns, primaryIndex, mem1, columnSize);
+                    openOrCreateMemory(path, columns, primaryIndex, mem1, columnSize, compressed);
                     Misc.free(columns.getAndSetQuick(secondaryIndex, null));
                 }
 
@@ -1205,10 +1285,24 @@ public class TableReader implements Closeable, SymbolTableSource {
             final int writerColumnIndex = metadata.getWriterIndex(columnIndex);
             final long columnNameTxn = columnVersionReader.getDefaultColumnNameTxn(writerColumnIndex);
             if (reader instanceof SymbolMapReaderImpl) {
-                ((SymbolMapReaderImpl) reader).of(configuration, path, metadata.getColumnName(columnIndex), columnNameTxn, 0);
+                ((SymbolMapReaderImpl) reader).of(
+                        configuration,
+                        path,
+                        metadata.getColumnName(columnIndex),
+                        columnNameTxn,
+                        0,
+                        acquireSymbolDictionary(writerColumnIndex, columnNameTxn)
+                );
                 return reader;
             }
-            return new SymbolMapReaderImpl(configuration, path, metadata.getColumnName(columnIndex), columnNameTxn, 0);
+            return new SymbolMapReaderImpl(
+                    configuration,
+                    path,
+                    metadata.getColumnName(columnIndex),
+                    columnNameTxn,
+                    0,
+                    acquireSymbolDictionary(writerColumnIndex, columnNameTxn)
+            );
         } else {
             return reader;
         }
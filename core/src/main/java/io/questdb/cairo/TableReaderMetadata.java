@@ -261,6 +261,10 @@ public class TableReaderMetadata extends BaseRecordMetadata implements Closeable
         return version;
     }
 
+    public boolean isColumnBloomFilter(int columnIndex) {
+        return TableUtils.isColumnBloomFilter(metaMem, getWriterIndex(columnIndex));
+    }
+
     public boolean isWalEnabled() {
         return walEnabled;
     }
@@ -27,12 +27,17 @@ package io.questdb.cairo;
 import io.questdb.cairo.sql.Record;
 import io.questdb.std.BinarySequence;
 import io.questdb.std.Long256;
+import io.questdb.std.ObjList;
 import io.questdb.std.Rows;
 import io.questdb.std.Sinkable;
 import io.questdb.std.str.CharSink;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8Sequence;
 
 public class TableReaderRecord implements Record, Sinkable {
 
+    private final ObjList<StringSink> varcharSinksA = new ObjList<>();
+    private final ObjList<StringSink> varcharSinksB = new ObjList<>();
     private int columnBase;
     private long recordIndex = 0;
     private TableReader reader;
@@ -153,6 +158,9 @@ public class TableReaderRecord implements Record, Sinkable {
 
     @Override
     public CharSequence getStr(int col) {
+        if (isVarchar(col)) {
+            return VarcharTypeDriver.toUtf16(getVarchar(col), varcharSinksA, col);
+        }
         final long recordIndex = getAdjustedRecordIndex(col) * Long.BYTES;
         final int absoluteColumnIndex = ifOffsetNegThen0ElseValue(
                 recordIndex,
@@ -192,6 +200,15 @@ public class TableReaderRecord implements Record, Sinkable {
         final int index = TableReader.getPrimaryColumnIndex(columnBase, col);
         final long recordIndex = getAdjustedRecordIndex(col) * Long.BYTES;
         final int absoluteColumnIndex = ifOffsetNegThen0ElseValue(recordIndex, index);
+        if (isVarchar(col)) {
+            return VarcharTypeDriver.toUtf16(
+                    reader.getColumn(absoluteColumnIndex).getVarcharB(
+                            reader.getColumn(absoluteColumnIndex + 1).getLong(recordIndex)
+                    ),
+                    varcharSinksB,
+                    col
+            );
+        }
         return reader.getColumn(absoluteColumnIndex).getStr2(
                 reader.getColumn(absoluteColumnIndex + 1).getLong(recordIndex)
         );
@@ -199,6 +216,9 @@ public class TableReaderRecord implements Record, Sinkable {
 
     @Override
     public int getStrLen(int col) {
+        if (isVarchar(col)) {
+            return VarcharTypeDriver.utf16Length(getVarchar(col));
+        }
         final int index = TableReader.getPrimaryColumnIndex(columnBase, col);
         final long recordIndex = getAdjustedRecordIndex(col) * Long.BYTES;
         final int absoluteColumnIndex = ifOffsetNegThen0ElseValue(recordIndex, index);
@@ -207,6 +227,18 @@ public class TableReaderRecord implements Record, Sinkable {
         );
     }
 
+    @Override
+    public Utf8Sequence getVarchar(int col) {
+        final long recordIndex = getAdjustedRecordIndex(col) * Long.BYTES;
+        final int absoluteColumnIndex = ifOffsetNegThen0ElseValue(
+                recordIndex,
+                TableReader.getPrimaryColumnIndex(columnBase, col)
+        );
+        return reader.getColumn(absoluteColumnIndex).getVarcharA(
+                reader.getColumn(absoluteColumnIndex + 1).getLong(recordIndex)
+        );
+    }
+
     @Override
     public CharSequence getSym(int col) {
         final long offset = getAdjustedRecordIndex(col) * Integer.BYTES;
@@ -280,6 +312,10 @@ public class TableReaderRecord implements Record, Sinkable {
         return offset < 0 ? 0 : value;
     }
 
+    private boolean isVarchar(int col) {
+        return ColumnType.isVarchar(reader.getMetadata().getColumnType(col));
+    }
+
     private long getAdjustedRecordIndex(int col) {
         assert col > -1 && col < reader.getColumnCount() : "Column index out of bounds: " + col + " >= " + reader.getColumnCount();
         return recordIndex - reader.getColumnTop(columnBase, col);
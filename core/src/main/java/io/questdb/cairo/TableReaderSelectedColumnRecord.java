@@ -28,6 +28,8 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.vm.api.MemoryR;
 import io.questdb.std.*;
 import io.questdb.std.str.CharSink;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8Sequence;
 import org.jetbrains.annotations.NotNull;
 
 import static io.questdb.cairo.TableReaderRecord.ifOffsetNegThen0ElseValue;
@@ -35,6 +37,8 @@ import static io.questdb.cairo.TableReaderRecord.ifOffsetNegThen0ElseValue;
 public class TableReaderSelectedColumnRecord implements Record {
 
     private final IntList columnIndexes;
+    private final ObjList<StringSink> varcharSinksA = new ObjList<>();
+    private final ObjList<StringSink> varcharSinksB = new ObjList<>();
     private int columnBase;
     private long recordIndex = 0;
     private TableReader reader;
@@ -158,6 +162,9 @@ public class TableReaderSelectedColumnRecord implements Record {
     @Override
     public CharSequence getStr(int columnIndex) {
         final int col = deferenceColumn(columnIndex);
+        if (isVarchar(col)) {
+            return VarcharTypeDriver.toUtf16(getVarchar(columnIndex), varcharSinksA, columnIndex);
+        }
         final long recordIndex = getAdjustedRecordIndex(col) * Long.BYTES;
         final int absoluteColumnIndex = ifOffsetNegThen0ElseValue(
                 recordIndex,
@@ -224,6 +231,15 @@ public class TableReaderSelectedColumnRecord implements Record {
                 recordIndex,
                 TableReader.getPrimaryColumnIndex(columnBase, col)
         );
+        if (isVarchar(col)) {
+            return VarcharTypeDriver.toUtf16(
+                    reader.getColumn(absoluteColumnIndex).getVarcharB(
+                            reader.getColumn(absoluteColumnIndex + 1).getLong(recordIndex)
+                    ),
+                    varcharSinksB,
+                    columnIndex
+            );
+        }
         return reader.getColumn(absoluteColumnIndex).getStr2(
                 reader.getColumn(absoluteColumnIndex + 1).getLong(recordIndex)
         );
@@ -232,6 +248,9 @@ public class TableReaderSelectedColumnRecord implements Record {
     @Override
     public int getStrLen(int columnIndex) {
         final int col = deferenceColumn(columnIndex);
+        if (isVarchar(col)) {
+            return VarcharTypeDriver.utf16Length(getVarchar(columnIndex));
+        }
         final long recordIndex = getAdjustedRecordIndex(col) * Long.BYTES;
         final int absoluteColumnIndex = ifOffsetNegThen0ElseValue(
                 recordIndex,
@@ -242,6 +261,19 @@ public class TableReaderSelectedColumnRecord implements Record {
         );
     }
 
+    @Override
+    public Utf8Sequence getVarchar(int columnIndex) {
+        final int col = deferenceColumn(columnIndex);
+        final long recordIndex = getAdjustedRecordIndex(col) * Long.BYTES;
+        final int absoluteColumnIndex = ifOffsetNegThen0ElseValue(
+                recordIndex,
+                TableReader.getPrimaryColumnIndex(columnBase, col)
+        );
+        return reader.getColumn(absoluteColumnIndex).getVarcharA(
+                reader.getColumn(absoluteColumnIndex + 1).getLong(recordIndex)
+        );
+    }
+
     @Override
     public CharSequence getSym(int columnIndex) {
         final int col = deferenceColumn(columnIndex);
@@ -317,6 +349,10 @@ public class TableReaderSelectedColumnRecord implements Record {
         return columnIndexes.getQuick(columnIndex);
     }
 
+    private boolean isVarchar(int col) {
+        return ColumnType.isVarchar(reader.getMetadata().getColumnType(col));
+    }
+
     private long getAdjustedRecordIndex(int col) {
         assert col > -1 && col < reader.getColumnCount() : "Column index out of bounds: " + col + " >= " + reader.getColumnCount();
         return recordIndex - reader.getColumnTop(columnBase, col);
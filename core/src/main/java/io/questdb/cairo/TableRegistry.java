@@ -26,15 +26,19 @@ package io.questdb.cairo;
 
 import io.questdb.std.Chars;
 import io.questdb.std.ConcurrentHashMap;
+import io.questdb.std.ObjList;
 
 import java.io.Closeable;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class TableRegistry implements Closeable {
     private final ConcurrentHashMap<Sequencer> tableRegistry = new ConcurrentHashMap<>();
 
     private final CairoEngine engine;
+    // bumped every time the set of sequencers changes, lets pollers skip re-reading table names
+    private final AtomicLong version = new AtomicLong();
 
     TableRegistry(CairoEngine engine) {
         this.engine = engine;
@@ -47,6 +51,7 @@ public class TableRegistry implements Closeable {
         if (other != null) {
             // could happen if there was a table with the same name before
             other.close();
+            version.incrementAndGet();
         }
 
         final SequencerImpl sequencer = new SequencerImpl(engine, tableName);
@@ -64,10 +69,28 @@ public class TableRegistry implements Closeable {
                 sequencer.close();
                 return other;
             }
+            version.incrementAndGet();
         }
         return sequencer;
     }
 
+    // unlike getSequencer() does not open sequencer when it is not in the registry
+    Sequencer peekSequencer(CharSequence tableName) {
+        return tableRegistry.get(tableName);
+    }
+
+    long getVersion() {
+        return version.get();
+    }
+
+    // populates the list with names of the tables which have sequencer open
+    void getTableNames(ObjList<CharSequence> tableNames) {
+        tableNames.clear();
+        for (CharSequence tableName : tableRegistry.keySet()) {
+            tableNames.add(tableName);
+        }
+    }
+
     void clear() {
         // create proper clear() and close() methods
         final Set<Map.Entry<CharSequence, Sequencer>> entries =  tableRegistry.entrySet();
@@ -75,6 +98,7 @@ public class TableRegistry implements Closeable {
             entry.getValue().close();
         }
         tableRegistry.clear();
+        version.incrementAndGet();
     }
 
     @Override
@@ -51,6 +51,10 @@ public interface TableStructure {
 
     boolean isWallEnabled();
 
+    boolean isBloomFilter(int columnIndex);
+
+    boolean isDedupKey(int columnIndex);
+
     boolean isIndexed(int columnIndex);
 
     boolean isSequential(int columnIndex);
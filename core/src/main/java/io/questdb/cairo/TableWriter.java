@@ -30,6 +30,7 @@ import io.questdb.Metrics;
 import io.questdb.cairo.sql.AsyncWriterCommand;
 import io.questdb.cairo.sql.ReaderOutOfDateException;
 import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.vm.BlockCompression;
 import io.questdb.cairo.vm.MemoryFCRImpl;
 import io.questdb.cairo.vm.MemoryFMCRImpl;
 import io.questdb.cairo.vm.NullMapWriter;
@@ -49,6 +50,7 @@ import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.Path;
 import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8Sequence;
 import io.questdb.tasks.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -80,9 +82,11 @@ public class TableWriter implements Closeable {
     private static final Runnable NOOP = () -> {
     };
     private static final ObjectFactory<MemoryCMOR> GET_MEMORY_CMOR = Vm::getMemoryCMOR;
-    private static final int PARTITION_UPDATE_SINK_ENTRY_SIZE = 8;
+    // the last entry value is the merge memory estimate the partition holds from the O3 merge budget
+    private static final int PARTITION_UPDATE_SINK_ENTRY_SIZE = 10;
     final ObjList<MemoryMA> columns;
     private final ObjList<MapWriter> symbolMapWriters;
+    private final SymbolDictionaryCache symbolDictionaryCache;
     private final ObjList<MapWriter> denseSymbolMapWriters;
     private final ObjList<ColumnIndexer> indexers;
     private final ObjList<ColumnIndexer> denseIndexers = new ObjList<>();
@@ -126,6 +130,10 @@ public class TableWriter implements Closeable {
     private final SOUnboundedCountDownLatch o3DoneLatch = new SOUnboundedCountDownLatch();
     private final AtomicLong o3PartitionUpdRemaining = new AtomicLong();
     private final AtomicInteger o3ErrorCount = new AtomicInteger();
+    private final AtomicLong o3MergeBytesInFlight = new AtomicLong();
+    private final AtomicLong o3CopiedBytes = new AtomicLong();
+    private final LongList o3PartitionOffsets = new LongList();
+    private final long o3MergeMemoryBudget;
     private final MemoryMARW todoMem = Vm.getMARWInstance();
     private final TxWriter txWriter;
     private final LongList o3PartitionRemoveCandidates = new LongList();
@@ -153,6 +161,10 @@ public class TableWriter implements Closeable {
     private final WeakClosableObjectPool<MemoryCMOR> walColumnMemoryPool;
     private final ObjList<MemoryCMOR> walMappedColumns = new ObjList<>();
     private final IntList symbolRewriteMap = new IntList();
+    // partitions touched by O3 since zone maps were last updated
+    private final LongList zoneMapDirtyPartitions = new LongList();
+    private final ZoneMapWriter zoneMapWriter;
+    private final BloomFilterWriter bloomFilterWriter;
     private MemoryCMR attachMetaMem;
     private TableWriterMetadata attachMetadata;
     private ColumnVersionReader attachColumnVersionReader;
@@ -195,6 +207,10 @@ public class TableWriter implements Closeable {
     private long o3RowCount;
     private final O3ColumnUpdateMethod o3MoveUncommittedRef = this::o3MoveUncommitted0;
     private long lastPartitionTimestamp;
+    // zone maps of partitions below this timestamp are up to date, except for O3 dirty partitions
+    private long zoneMapPartitionTimestampLo;
+    // number of complete zone map blocks in the last partition as of the last update
+    private long zoneMapLastPartitionBlocks = -1;
     private boolean o3InError = false;
     private ObjList<? extends MemoryA> activeColumns;
     private ObjList<Runnable> activeNullSetters;
@@ -218,9 +234,24 @@ public class TableWriter implements Closeable {
             LifecycleManager lifecycleManager,
             CharSequence root,
             Metrics metrics
+    ) {
+        this(configuration, tableName, messageBus, ownMessageBus, lock, lifecycleManager, root, metrics, null);
+    }
+
+    public TableWriter(
+            CairoConfiguration configuration,
+            CharSequence tableName,
+            MessageBus messageBus,
+            MessageBus ownMessageBus,
+            boolean lock,
+            LifecycleManager lifecycleManager,
+            CharSequence root,
+            Metrics metrics,
+            @Nullable SymbolDictionaryCache symbolDictionaryCache
     ) {
         LOG.info().$("open '").utf8(tableName).$('\'').$();
         this.configuration = configuration;
+        this.symbolDictionaryCache = symbolDictionaryCache;
         this.directIOFlag = (Os.type != Os.WINDOWS || configuration.getWriterFileOpenOpts() != CairoConfiguration.O_NONE);
         this.metrics = metrics;
         this.ownMessageBus = ownMessageBus;
@@ -238,6 +269,10 @@ public class TableWriter implements Closeable {
         this.tableName = Chars.toString(tableName);
         this.o3QuickSortEnabled = configuration.isO3QuickSortEnabled();
         this.o3ColumnMemorySize = configuration.getO3ColumnMemorySize();
+        this.o3MergeMemoryBudget = configuration.getO3MergeMemoryBudget();
+        this.zoneMapWriter = configuration.isZoneMapEnabled() ? new ZoneMapWriter(configuration) : null;
+        // Bloom filters share blocks and update schedule with zone maps
+        this.bloomFilterWriter = zoneMapWriter != null && configuration.getBloomFilterBitsPerRow() > 0 ? new BloomFilterWriter(configuration) : null;
         this.path = new Path().of(root).concat(tableName);
         this.other = new Path().of(root).concat(tableName);
         this.rootLen = path.length();
@@ -307,6 +342,8 @@ public class TableWriter implements Closeable {
                 partitionDirFmt = null;
             }
             this.commitInterval = calculateCommitInterval();
+            // partitions written before the writer was opened are not backfilled
+            this.zoneMapPartitionTimestampLo = txWriter.getPartitionCount() > 0 ? txWriter.getLastPartitionTimestamp() : Long.MIN_VALUE;
 
             configureColumnMemory();
             configureTimestampSetter();
@@ -365,6 +402,10 @@ public class TableWriter implements Closeable {
         return Unsafe.getUnsafe().getLong(timestampIndex + indexRow * 16);
     }
 
+    static long getTimestampIndexRow(long timestampIndex, long indexRow) {
+        return Unsafe.getUnsafe().getLong(timestampIndex + indexRow * 16 + Long.BYTES);
+    }
+
     public void addColumn(CharSequence name, int type) {
         checkColumnName(name);
         addColumn(name, type, configuration.getDefaultSymbolCapacity(), configuration.getDefaultSymbolCacheFlag(), false, 0, false);
@@ -778,6 +819,107 @@ public class TableWriter implements Closeable {
         commit(commitMode, metadata.getCommitLag());
     }
 
+    /**
+     * Rewrites column files of the partition in block-compressed format, see {@link BlockCompression}.
+     * Compressed copy is written into a new partition directory version, which is then committed
+     * in place of the original directory. Compressed partitions are read-only: O3 inserts and
+     * updates into them fail. Active partition cannot be compressed.
+     *
+     * @param timestamp timestamp within the partition to compress
+     * @return false when table is not partitioned or partition does not exist
+     */
+    public boolean compressPartition(long timestamp) {
+        if (!PartitionBy.isPartitioned(partitionBy)) {
+            return false;
+        }
+
+        // commit changes, there may be uncommitted rows of any partition
+        commit();
+
+        timestamp = getPartitionLo(timestamp);
+        final int index = txWriter.getPartitionIndex(timestamp);
+        if (index < 0) {
+            LOG.error().$("partition does not exist [table=").utf8(tableName).$(", partition=").$ts(timestamp).I$();
+            return false;
+        }
+
+        if (timestamp == getPartitionLo(txWriter.getMaxTimestamp())) {
+            throw CairoException.nonCritical().put("cannot compress active partition [table=").put(tableName)
+                    .put(", partition=").ts(timestamp)
+                    .put(']');
+        }
+
+        if (isPartitionCompressed(index)) {
+            LOG.info().$("partition is already compressed [table=").utf8(tableName).$(", partition=").$ts(timestamp).I$();
+            return true;
+        }
+
+        final long partitionNameTxn = txWriter.getPartitionNameTxn(index);
+        final long newPartitionNameTxn = getTxn();
+        setPathForPartition(path, rootLen, partitionBy, timestamp, partitionNameTxn);
+        setPathForPartition(other, rootLen, partitionBy, timestamp, newPartitionNameTxn);
+        final int plen = path.length();
+        final int olen = other.length();
+        try {
+            if (ff.exists(other.$())) {
+                throw CairoException.critical(0).put("partition directory already exists [path=").put(other).put(']');
+            }
+            if (ff.mkdirs(other.trimTo(olen).slash$(), mkDirMode) != 0) {
+                throw CairoException.critical(ff.errno()).put("could not create directory [path=").put(other).put(']');
+            }
+
+            try {
+                for (int i = 0; i < columnCount; i++) {
+                    final int columnType = metadata.getColumnType(i);
+                    if (columnType > 0) {
+                        final CharSequence columnName = metadata.getColumnName(i);
+                        final long columnNameTxn = columnVersionWriter.getColumnNameTxn(timestamp, i);
+                        compressPartitionFile(dFile(path.trimTo(plen), columnName, columnNameTxn), dFile(other.trimTo(olen), columnName, columnNameTxn));
+                        if (ColumnType.isVariableLength(columnType)) {
+                            compressPartitionFile(iFile(path.trimTo(plen), columnName, columnNameTxn), iFile(other.trimTo(olen), columnName, columnNameTxn));
+                        }
+                        copyPartitionFile(keyFileName(path.trimTo(plen), columnName, columnNameTxn), keyFileName(other.trimTo(olen), columnName, columnNameTxn));
+                        copyPartitionFile(valueFileName(path.trimTo(plen), columnName, columnNameTxn), valueFileName(other.trimTo(olen), columnName, columnNameTxn));
+                        copyPartitionFile(zmFile(path.trimTo(plen), columnName, columnNameTxn), zmFile(other.trimTo(olen), columnName, columnNameTxn));
+                        copyPartitionFile(bfFile(path.trimTo(plen), columnName, columnNameTxn), bfFile(other.trimTo(olen), columnName, columnNameTxn));
+                    }
+                }
+
+                // marker goes last, partition directory without it is incomplete
+                if (!ff.touch(other.trimTo(olen).concat(COMPRESSED_PARTITION_MARKER).$())) {
+                    throw CairoException.critical(ff.errno()).put("could not create marker [path=").put(other).put(']');
+                }
+                fsyncPartitionFile(other);
+                // directory entries of the new partition must be durable before txn points at it
+                if (!ff.isRestrictedFileSystem()) {
+                    fsyncPartitionFile(other.trimTo(olen).$());
+                }
+            } catch (Throwable e) {
+                if (ff.rmdir(other.trimTo(olen).$()) != 0) {
+                    LOG.error().$("could not remove compressed partition copy [errno=").$(ff.errno()).$(", path=").$(other).I$();
+                }
+                throw e;
+            }
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+
+        // partition name txn becomes current txn, which is the version of the directory written above
+        txWriter.updatePartitionSizeAndTxnByIndex(index * LONGS_PER_TX_ATTACHED_PARTITION, txWriter.getPartitionSize(index));
+        txWriter.bumpPartitionTableVersion();
+        txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
+
+        LOG.info().$("partition compressed [table=").utf8(tableName)
+                .$(", partition=").$ts(timestamp)
+                .$(", nameTxn=").$(newPartitionNameTxn)
+                .I$();
+
+        // Call O3 methods to remove check TxnScoreboard and remove partition directly
+        safeDeletePartitionDir(timestamp, partitionNameTxn);
+        return true;
+    }
+
     public AttachDetachStatus detachPartition(long timestamp) {
         // Should be checked by SQL compiler
         assert metadata.getTimestampIndex() > -1;
@@ -802,6 +944,9 @@ public class TableWriter implements Closeable {
         if (timestamp == getPartitionLo(maxTimestamp)) {
             return AttachDetachStatus.DETACH_ERR_ACTIVE;
         }
+        if (isPartitionCompressed(partitionIndex)) {
+            return AttachDetachStatus.DETACH_ERR_COMPRESSED;
+        }
         long minTimestamp = txWriter.getMinTimestamp();
 
         long partitionNameTxn = txWriter.getPartitionNameTxn(partitionIndex);
@@ -1078,6 +1223,10 @@ public class TableWriter implements Closeable {
         return txWriter.getRowCount();
     }
 
+    public long getSeqTxn() {
+        return txWriter.getSeqTxn();
+    }
+
     public long getStructureVersion() {
         return txWriter.getStructureVersion();
     }
@@ -1129,6 +1278,16 @@ public class TableWriter implements Closeable {
         return tempMem16b != 0;
     }
 
+    public boolean isPartitionCompressed(int partitionIndex) {
+        final long timestamp = txWriter.getPartitionTimestamp(partitionIndex);
+        setPathForPartition(other, rootLen, partitionBy, timestamp, txWriter.getPartitionNameTxn(partitionIndex));
+        try {
+            return TableUtils.isPartitionCompressed(ff, other);
+        } finally {
+            other.trimTo(rootLen);
+        }
+    }
+
     public Row newRow(long timestamp) {
 
         switch (rowAction) {
@@ -1148,6 +1307,12 @@ public class TableWriter implements Closeable {
 
             default: // switch partition
                 bumpMasterRef();
+                if (metadata.isDedupEnabled()) {
+                    // Deduplicated tables commit via O3 merge, which is where rows with matching keys
+                    // are replaced. Rows go to O3 memory in the order they are written, which lets the
+                    // merge tell the most recent duplicate.
+                    return newRowO3(timestamp);
+                }
                 if (timestamp > partitionTimestampHi || timestamp < txWriter.getMaxTimestamp()) {
                     if (timestamp < txWriter.getMaxTimestamp()) {
                         return newRowO3(timestamp);
@@ -1259,7 +1424,10 @@ public class TableWriter implements Closeable {
                 long o3Lo = rowLo;
                 long o3Hi = rowHi;
 
-                if (!ordered) {
+                // rows with matching deduplication keys can sit next to each other in ordered
+                // segment too, so deduplicated tables always copy and sort the timestamp index
+                final boolean sort = !ordered || metadata.isDedupEnabled();
+                if (sort) {
                     final long timestampMemorySize = (rowHi - rowLo) << 4;
                     o3TimestampMem.jumpTo(timestampMemorySize);
                     long destTimestampAddr = o3TimestampMem.getAddress();
@@ -1271,19 +1439,26 @@ public class TableWriter implements Closeable {
                         Vect.quickSortLongIndexAscInPlace(destTimestampAddr, o3RowCount);
                     }
 
-                    o3Sort(destTimestampAddr, timestampIndex, rowHi - rowLo);
+                    long sortedRowCount = rowHi - rowLo;
+                    if (metadata.isDedupEnabled()) {
+                        sortedRowCount = o3DedupSortedIndex(destTimestampAddr, sortedRowCount);
+                        o3TimestampMem.jumpTo(sortedRowCount << 4);
+                        o3RowCount = sortedRowCount;
+                    }
+
+                    o3Sort(destTimestampAddr, timestampIndex, sortedRowCount);
                     timestampAddr = destTimestampAddr;
 
                     // Sorted data is now sorted in memory copy of the data from mmap files
                     // Row indexes start from 0, not rowLo
-                    o3Hi = rowHi - rowLo;
+                    o3Hi = sortedRowCount;
                     o3Lo = 0L;
                 } else {
                     timestampAddr = walTimestampColumn.addressOf(0);
                 }
 
                 o3Columns = remapWalSymbols(mapDiffCursor, o3Lo, o3Hi, walPath);
-                processO3Block(0L, timestampIndex, timestampAddr, o3Hi, o3TimestampMin, o3TimestampMax, !ordered, o3Lo);
+                processO3Block(0L, timestampIndex, timestampAddr, o3Hi, o3TimestampMin, o3TimestampMax, sort, o3Lo);
             } finally {
                 finishO3Append(0L);
                 o3Columns = o3MemColumns;
@@ -1342,6 +1517,8 @@ public class TableWriter implements Closeable {
         // Bookmark masterRef to track how many rows is in uncommitted state
         this.committedMasterRef = masterRef;
         o3ProcessPartitionRemoveCandidates();
+        updateZoneMaps();
+        publishSymbols();
 
         metrics.tableWriter().incrementCommits();
         metrics.tableWriter().addCommittedRows(rowsAdded);
@@ -1379,6 +1556,10 @@ public class TableWriter implements Closeable {
             throw CairoException.nonCritical().put("Cannot remove timestamp from partitioned table");
         }
 
+        if (isColumnDedupKey(metaMem, index)) {
+            throw CairoException.nonCritical().put("Cannot remove deduplication key column [column=").put(name).put(']');
+        }
+
         commit();
 
         this.metaSwapIndex = removeColumnFromMeta(index);
@@ -1471,6 +1652,11 @@ public class TableWriter implements Closeable {
                 prevTimestamp = 0L; // meaningless
             } else {
                 final int prevIndex = index - 1;
+                if (isPartitionCompressed(prevIndex)) {
+                    throw CairoException.nonCritical().put("cannot remove active partition, previous partition is compressed [table=").put(tableName)
+                            .put(", partition=").ts(txWriter.getPartitionTimestamp(prevIndex))
+                            .put(']');
+                }
                 prevTimestamp = txWriter.getPartitionTimestamp(prevIndex);
                 newTransientRowCount = txWriter.getPartitionSize(prevIndex);
                 try {
@@ -1764,6 +1950,16 @@ public class TableWriter implements Closeable {
         this.lifecycleManager = lifecycleManager;
     }
 
+    /**
+     * Sets sequencer txn to be stored with the next commit. WAL apply uses it to
+     * record how far the table caught up with its sequencer.
+     *
+     * @param seqTxn last sequencer txn included in the next commit
+     */
+    public void setSeqTxn(long seqTxn) {
+        txWriter.setSeqTxn(seqTxn);
+    }
+
     public void setMetaCommitLag(long commitLag) {
         try {
             commit();
@@ -1884,6 +2080,8 @@ public class TableWriter implements Closeable {
             removePartitionDirectories();
             rowAction = ROW_ACTION_OPEN_PARTITION;
         } else {
+            // zone maps describe data that is about to be discarded
+            removeZoneMapFiles();
             // truncate columns, we cannot remove them
             for (int i = 0; i < columnCount; i++) {
                 getPrimaryColumn(i).truncate();
@@ -1895,6 +2093,9 @@ public class TableWriter implements Closeable {
             }
         }
 
+        zoneMapPartitionTimestampLo = Long.MIN_VALUE;
+        zoneMapLastPartitionBlocks = -1;
+        zoneMapDirtyPartitions.clear();
         txWriter.resetTimestamp();
         columnVersionWriter.truncate(PartitionBy.isPartitioned(partitionBy));
         txWriter.truncate(columnVersionWriter.getVersion());
@@ -2032,6 +2233,7 @@ public class TableWriter implements Closeable {
                 nullers.add(() -> mem1.putInt(SymbolTable.VALUE_IS_NULL));
                 break;
             case ColumnType.BINARY:
+            case ColumnType.VARCHAR:
                 nullers.add(() -> mem2.putLong(mem1.putNullBin()));
                 break;
             case ColumnType.GEOBYTE:
@@ -2229,6 +2431,10 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private SymbolDictionaryCache.Entry acquireSymbolDictionary(int columnIndex, long columnNameTxn) {
+        return symbolDictionaryCache != null ? symbolDictionaryCache.acquire(metadata.getId(), columnIndex, columnNameTxn) : null;
+    }
+
     private void attachPartitionCheckSymbolColumn(long partitionSize, long columnTop, String columnName, long columnNameTxn, Path partitionPath, long partitionTimestamp, int columnIndex) {
         long columnSize = partitionSize - columnTop;
         if (columnSize == 0) {
@@ -2342,6 +2548,7 @@ public class TableWriter implements Closeable {
                             break;
                         case ColumnType.STRING:
                         case ColumnType.BINARY:
+                        case ColumnType.VARCHAR:
                             attachPartitionCheckFilesMatchVarLenColumn(partitionSize, columnTop, columnName, columnNameTxn, partitionPath, partitionTimestamp, columnIndex);
                             break;
                         case ColumnType.SYMBOL:
@@ -2488,6 +2695,8 @@ public class TableWriter implements Closeable {
             // Bookmark masterRef to track how many rows is in uncommitted state
             this.committedMasterRef = masterRef;
             o3ProcessPartitionRemoveCandidates();
+            updateZoneMaps();
+            publishSymbols();
 
             metrics.tableWriter().incrementCommits();
             metrics.tableWriter().addCommittedRows(rowsAdded);
@@ -2498,6 +2707,13 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void compressPartitionFile(LPSZ from, LPSZ to) {
+        // column may not have the file in this partition, e.g. when column top covers the partition
+        if (ff.exists(from)) {
+            BlockCompression.compress(ff, from, to, BlockCompression.DEFAULT_BLOCK_SIZE, defaultCommitMode);
+        }
+    }
+
     private void configureAppendPosition() {
         final boolean partitioned = PartitionBy.isPartitioned(partitionBy);
         if (this.txWriter.getMaxTimestamp() > Long.MIN_VALUE || !partitioned) {
@@ -2537,6 +2753,7 @@ public class TableWriter implements Closeable {
             switch (ColumnType.tagOf(type)) {
                 case ColumnType.BINARY:
                 case ColumnType.STRING:
+                case ColumnType.VARCHAR:
                     secondary = Vm.getMAInstance();
                     oooSecondary = Vm.getCARWInstance(o3ColumnMemorySize, Integer.MAX_VALUE, MemoryTag.NATIVE_O3);
                     oooSecondary2 = Vm.getCARWInstance(o3ColumnMemorySize, Integer.MAX_VALUE, MemoryTag.NATIVE_O3);
@@ -2585,7 +2802,8 @@ public class TableWriter implements Closeable {
                         columnNameTxn,
                         txWriter.unsafeReadSymbolTransientCount(symbolIndex),
                         symbolIndex,
-                        txWriter
+                        txWriter,
+                        acquireSymbolDictionary(i, columnNameTxn)
                 );
 
                 symbolMapWriters.extendAndSet(i, symbolMapWriter);
@@ -2630,6 +2848,12 @@ public class TableWriter implements Closeable {
                     if (isSequential(metaMem, i)) {
                         flags |= META_FLAG_BIT_SEQUENTIAL;
                     }
+                    if (isColumnDedupKey(metaMem, i)) {
+                        flags |= META_FLAG_BIT_DEDUP_KEY;
+                    }
+                    if (isColumnBloomFilter(metaMem, i)) {
+                        flags |= META_FLAG_BIT_BLOOM_FILTER;
+                    }
                     ddlMem.putLong(flags);
                     ddlMem.putInt(indexValueBlockSize);
                     ddlMem.putLong(getColumnHash(metaMem, i));
@@ -2689,6 +2913,15 @@ public class TableWriter implements Closeable {
         return res;
     }
 
+    private void copyPartitionFile(LPSZ from, LPSZ to) {
+        if (ff.exists(from)) {
+            if (ff.copy(from, to) < 0) {
+                throw CairoException.critical(ff.errno()).put("could not copy [from=").put(from).put(", to=").put(to).put(']');
+            }
+            fsyncPartitionFile(to);
+        }
+    }
+
     private void copyVersionAndLagValues() {
         ddlMem.putInt(ColumnType.VERSION);
         ddlMem.putInt(metaMem.getInt(META_OFFSET_TABLE_ID));
@@ -2756,7 +2989,8 @@ public class TableWriter implements Closeable {
                 columnNameTxn,
                 0,
                 denseSymbolMapWriters.size(),
-                txWriter
+                txWriter,
+                acquireSymbolDictionary(columnCount, columnNameTxn)
         );
         denseSymbolMapWriters.add(w);
         symbolMapWriters.extendAndSet(columnCount, w);
@@ -2797,6 +3031,8 @@ public class TableWriter implements Closeable {
         Misc.free(columnVersionWriter);
         Misc.free(o3ColumnTopSink);
         Misc.free(o3PartitionUpdateSink);
+        Misc.free(zoneMapWriter);
+        Misc.free(bloomFilterWriter);
         Misc.free(slaveTxReader);
         Misc.free(commandQueue);
         updateOperator = Misc.free(updateOperator);
@@ -2939,6 +3175,19 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void fsyncPartitionFile(LPSZ path) {
+        if (defaultCommitMode != CommitMode.NOSYNC) {
+            final long fd = TableUtils.openRO(ff, path, LOG);
+            try {
+                if (ff.fsync(fd) != 0) {
+                    throw CairoException.critical(ff.errno()).put("could not fsync [path=").put(path).put(']');
+                }
+            } finally {
+                ff.close(fd);
+            }
+        }
+    }
+
     BitmapIndexWriter getBitmapIndexWriter(int columnIndex) {
         return indexers.getQuick(columnIndex).getWriter();
     }
@@ -3009,7 +3258,7 @@ public class TableWriter implements Closeable {
         long ts = this.txWriter.getMaxTimestamp();
         if (ts > Numbers.LONG_NaN) {
             final int columnIndex = metadata.getColumnIndex(columnName);
-            try (final MemoryMR roMem = indexMem) {
+            try (final MemoryMR roMem = indexMem; final MemoryMR compressedMem = Vm.getCompressedCMRInstance()) {
                 // Index last partition separately
                 for (int i = 0, n = txWriter.getPartitionCount() - 1; i < n; i++) {
 
@@ -3027,6 +3276,7 @@ public class TableWriter implements Closeable {
 
                             path.trimTo(plen);
                             LOG.info().$("indexing [path=").$(path).I$();
+                            final MemoryMR mem = TableUtils.isPartitionCompressed(ff, path) ? compressedMem : roMem;
 
                             createIndexFiles(columnName, columnNameTxn, indexValueBlockSize, plen, true);
                             final long partitionSize = txWriter.getPartitionSizeByPartitionTimestamp(timestamp);
@@ -3035,9 +3285,9 @@ public class TableWriter implements Closeable {
                             if (columnTop > -1L && partitionSize > columnTop) {
                                 TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn);
                                 final long columnSize = (partitionSize - columnTop) << ColumnType.pow2SizeOf(ColumnType.INT);
-                                roMem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_WRITER);
+                                mem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_WRITER);
                                 indexer.configureWriter(configuration, path.trimTo(plen), columnName, columnNameTxn, columnTop);
-                                indexer.index(roMem, columnTop, partitionSize);
+                                indexer.index(mem, columnTop, partitionSize);
                             }
                         }
                     }
@@ -3212,6 +3462,11 @@ public class TableWriter implements Closeable {
                 Vect.quickSortLongIndexAscInPlace(sortedTimestampsAddr, o3RowCount);
             }
 
+            if (metadata.isDedupEnabled()) {
+                o3RowCount = o3DedupSortedIndex(sortedTimestampsAddr, o3RowCount);
+                o3TimestampMem.jumpTo(o3RowCount * TIMESTAMP_MERGE_ENTRY_BYTES);
+            }
+
             // we have three frames:
             // partition logical "lo" and "hi" - absolute bounds (partitionLo, partitionHi)
             // partition actual data "lo" and "hi" (dataLo, dataHi)
@@ -3306,6 +3561,152 @@ public class TableWriter implements Closeable {
         return finishO3Commit(partitionTimestampHiLimit);
     }
 
+    /**
+     * Removes rows with the same timestamp and deduplication key values from the sorted
+     * timestamp index. Of the duplicate rows the one written last is kept.
+     * <p>
+     * Rows of each run of equal timestamps are sorted by hash of their key values, so that only rows
+     * with the same hash are compared. Every comparison of equal keys drops a row, which keeps the cost
+     * at n*log(n) of the run length regardless of how many keys share the timestamp.
+     *
+     * @param sortedTimestampsAddr address of sorted (timestamp, row) index
+     * @param rowCount             number of entries in the index
+     * @return number of entries left in the index
+     */
+    private long o3DedupSortedIndex(long sortedTimestampsAddr, long rowCount) {
+        long duplicateCount = 0;
+        // (key hash, index position) pairs of the current run
+        long hashIndex = 0;
+        long hashIndexSize = 0;
+        try {
+            long runLo = 0;
+            while (runLo < rowCount) {
+                final long timestamp = getTimestampIndexValue(sortedTimestampsAddr, runLo);
+                long runHi = runLo + 1;
+                while (runHi < rowCount && getTimestampIndexValue(sortedTimestampsAddr, runHi) == timestamp) {
+                    runHi++;
+                }
+
+                final long runSize = runHi - runLo;
+                if (runSize > 1) {
+                    final long size = runSize * TIMESTAMP_MERGE_ENTRY_BYTES;
+                    if (size > hashIndexSize) {
+                        hashIndex = Unsafe.realloc(hashIndex, hashIndexSize, size, MemoryTag.NATIVE_O3);
+                        hashIndexSize = size;
+                    }
+                    for (long i = 0; i < runSize; i++) {
+                        final long p = hashIndex + i * TIMESTAMP_MERGE_ENTRY_BYTES;
+                        Unsafe.getUnsafe().putLong(p, o3DedupKeyHash(getTimestampIndexRow(sortedTimestampsAddr, runLo + i)));
+                        Unsafe.getUnsafe().putLong(p + Long.BYTES, runLo + i);
+                    }
+                    Vect.sortLongIndexAscInPlace(hashIndex, runSize);
+                    duplicateCount += o3DedupHashGroups(sortedTimestampsAddr, hashIndex, runSize);
+                }
+                runLo = runHi;
+            }
+        } finally {
+            Unsafe.free(hashIndex, hashIndexSize, MemoryTag.NATIVE_O3);
+        }
+
+        if (duplicateCount == 0) {
+            return rowCount;
+        }
+
+        long dst = 0;
+        for (long i = 0; i < rowCount; i++) {
+            if (getTimestampIndexRow(sortedTimestampsAddr, i) != -1L) {
+                if (dst != i) {
+                    Vect.memcpy(
+                            sortedTimestampsAddr + dst * TIMESTAMP_MERGE_ENTRY_BYTES,
+                            sortedTimestampsAddr + i * TIMESTAMP_MERGE_ENTRY_BYTES,
+                            TIMESTAMP_MERGE_ENTRY_BYTES
+                    );
+                }
+                dst++;
+            }
+        }
+
+        LOG.info().$("o3 deduplicated [table=").utf8(tableName)
+                .$(", rowCount=").$(rowCount)
+                .$(", duplicates=").$(duplicateCount)
+                .I$();
+        return dst;
+    }
+
+    /**
+     * Marks duplicate rows in the sorted timestamp index with -1.
+     *
+     * @param sortedTimestampsAddr address of sorted (timestamp, row) index
+     * @param hashIndex            (key hash, index position) pairs of a run of equal timestamps sorted by hash
+     * @param count                number of pairs
+     * @return number of rows marked
+     */
+    private long o3DedupHashGroups(long sortedTimestampsAddr, long hashIndex, long count) {
+        long duplicateCount = 0;
+        long groupLo = 0;
+        while (groupLo < count) {
+            final long hash = getTimestampIndexValue(hashIndex, groupLo);
+            long groupHi = groupLo + 1;
+            while (groupHi < count && getTimestampIndexValue(hashIndex, groupHi) == hash) {
+                groupHi++;
+            }
+
+            // group holds one key unless hashes collide, so inner loop either drops a row or moves on
+            for (long j = groupLo; j < groupHi; j++) {
+                final long jPos = getTimestampIndexRow(hashIndex, j);
+                final long jRow = getTimestampIndexRow(sortedTimestampsAddr, jPos);
+                if (jRow == -1L) {
+                    continue;
+                }
+                for (long k = j + 1; k < groupHi; k++) {
+                    final long kPos = getTimestampIndexRow(hashIndex, k);
+                    final long kRow = getTimestampIndexRow(sortedTimestampsAddr, kPos);
+                    if (kRow != -1L && o3DedupKeysEqual(jRow, kRow)) {
+                        duplicateCount++;
+                        if (kRow > jRow) {
+                            Unsafe.getUnsafe().putLong(sortedTimestampsAddr + jPos * TIMESTAMP_MERGE_ENTRY_BYTES + Long.BYTES, -1L);
+                            break;
+                        }
+                        Unsafe.getUnsafe().putLong(sortedTimestampsAddr + kPos * TIMESTAMP_MERGE_ENTRY_BYTES + Long.BYTES, -1L);
+                    }
+                }
+            }
+            groupLo = groupHi;
+        }
+        return duplicateCount;
+    }
+
+    private long o3DedupKeyHash(long row) {
+        final IntList keyColumns = metadata.getDedupKeyColumnIndexes();
+        final int timestampIndex = metadata.getTimestampIndex();
+        long hash = 0;
+        for (int i = 0, n = keyColumns.size(); i < n; i++) {
+            final int columnIndex = keyColumns.getQuick(i);
+            if (columnIndex != timestampIndex) {
+                final int shl = ColumnType.pow2SizeOf(metadata.getColumnType(columnIndex));
+                final long addr = o3Columns.getQuick(getPrimaryColumnIndex(columnIndex)).addressOf(0);
+                hash = hash * 31 + Hash.hashMem(addr + (row << shl), 1L << shl);
+            }
+        }
+        return hash;
+    }
+
+    private boolean o3DedupKeysEqual(long row1, long row2) {
+        final IntList keyColumns = metadata.getDedupKeyColumnIndexes();
+        final int timestampIndex = metadata.getTimestampIndex();
+        for (int i = 0, n = keyColumns.size(); i < n; i++) {
+            final int columnIndex = keyColumns.getQuick(i);
+            if (columnIndex != timestampIndex) {
+                final int shl = ColumnType.pow2SizeOf(metadata.getColumnType(columnIndex));
+                final long addr = o3Columns.getQuick(getPrimaryColumnIndex(columnIndex)).addressOf(0);
+                if (!O3Utils.fixedValuesEqual(addr + (row1 << shl), addr + (row2 << shl), shl)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     private void o3CommitPartitionAsync(
             AtomicInteger columnCounter,
             long maxTimestamp,
@@ -3388,6 +3789,7 @@ public class TableWriter implements Closeable {
                 boolean partitionMutates = o3PartitionUpdateSink.get(offset + 5) != 0;
                 long srcOooMax = o3PartitionUpdateSink.get(offset + 6);
                 long srcDataMax = o3PartitionUpdateSink.get(offset + 7);
+                long duplicateCount = Math.max(o3PartitionUpdateSink.get(offset + 9), 0);
 
                 o3PartitionUpdate(
                         timestampMin,
@@ -3397,6 +3799,7 @@ public class TableWriter implements Closeable {
                         srcOooPartitionHi,
                         srcOooMax,
                         srcDataMax,
+                        duplicateCount,
                         partitionMutates
                 );
 
@@ -3405,6 +3808,19 @@ public class TableWriter implements Closeable {
     }
 
     private void o3ConsumePartitionUpdates() {
+        o3ConsumeQueues(0);
+
+        if (o3ErrorCount.get() == 0) {
+            o3ConsumePartitionUpdateSink();
+        }
+    }
+
+    /**
+     * Processes tasks from O3 partition, open column and copy queues until all partition updates
+     * are done or, when mergeBytes is positive, until merges in flight leave room for mergeBytes
+     * in the merge memory budget.
+     */
+    private void o3ConsumeQueues(long mergeBytes) {
         final Sequence partitionSubSeq = messageBus.getO3PartitionSubSeq();
         final RingQueue<O3PartitionTask> partitionQueue = messageBus.getO3PartitionQueue();
         final Sequence openColumnSubSeq = messageBus.getO3OpenColumnSubSeq();
@@ -3480,11 +3896,7 @@ public class TableWriter implements Closeable {
                     o3CopySafe(cursor);
                 }
             }
-        } while (this.o3PartitionUpdRemaining.get() > 0);
-
-        if (o3ErrorCount.get() == 0) {
-            o3ConsumePartitionUpdateSink();
-        }
+        } while (this.o3PartitionUpdRemaining.get() > 0 && (mergeBytes == 0 || o3MergeBytesInFlight.get() + mergeBytes > o3MergeMemoryBudget));
     }
 
     private void o3CopySafe(
@@ -3504,10 +3916,41 @@ public class TableWriter implements Closeable {
         }
     }
 
+    void o3AddCopiedBytes(long bytes) {
+        o3CopiedBytes.addAndGet(bytes);
+    }
+
     void o3CountDownDoneLatch() {
         o3DoneLatch.countDown();
     }
 
+    private void o3AwaitMergeBudget(long mergeBytes) {
+        // budget is released as merges complete, it is not awaited when nothing is in flight,
+        // so that a merge larger than the budget can still proceed
+        if (o3PartitionUpdRemaining.get() > 0 && o3MergeBytesInFlight.get() + mergeBytes > o3MergeMemoryBudget) {
+            o3ConsumeQueues(mergeBytes);
+        }
+    }
+
+    private long o3EstimateMergeRowSize() {
+        // merge index entry per row
+        long rowSize = TIMESTAMP_MERGE_ENTRY_BYTES;
+        final long rowCount = Math.max(1, o3RowCount);
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (columnType < 0) {
+                continue;
+            }
+            if (ColumnType.isVariableLength(columnType)) {
+                // average value size of O3 data stands in for the partition data
+                rowSize += Long.BYTES + o3Columns.getQuick(getPrimaryColumnIndex(i)).size() / rowCount;
+            } else {
+                rowSize += ColumnType.sizeOf(columnType);
+            }
+        }
+        return rowSize;
+    }
+
     private void o3MoveLag0(
             int columnIndex,
             final int columnType,
@@ -3704,6 +4147,10 @@ public class TableWriter implements Closeable {
         }
     }
 
+    void o3NotifyPartitionDuplicates(long partitionTimestamp, long duplicateCount) {
+        o3PartitionUpdateSink.set(getPartitionUpdateSinkOffset(partitionTimestamp) + 9, duplicateCount);
+    }
+
     void o3NotifyPartitionUpdate(
             long timestampMin,
             long timestampMax,
@@ -3714,9 +4161,11 @@ public class TableWriter implements Closeable {
             long srcOooMax,
             long srcDataMax
     ) {
-        long basePartitionTs = o3PartitionUpdateSink.get(0);
-        int partitionSinkIndex = (int) ((partitionTimestamp - basePartitionTs) / PartitionBy.getPartitionTimeIntervalFloor(partitionBy));
-        int offset = partitionSinkIndex * PARTITION_UPDATE_SINK_ENTRY_SIZE;
+        final int offset = getPartitionUpdateSinkOffset(partitionTimestamp);
+        final long mergeBytes = o3PartitionUpdateSink.get(offset + 8);
+        if (mergeBytes > 0) {
+            o3MergeBytesInFlight.addAndGet(-mergeBytes);
+        }
 
         o3PartitionUpdateSink.set(offset, partitionTimestamp);
         o3PartitionUpdateSink.set(offset + 1, timestampMin);
@@ -3765,10 +4214,19 @@ public class TableWriter implements Closeable {
             long srcOooPartitionHi,
             long srcOooMax,
             long srcDataMax,
+            long duplicateCount,
             boolean partitionMutates
     ) {
         this.txWriter.minTimestamp = Math.min(timestampMin, this.txWriter.minTimestamp);
-        final long partitionSize = srcDataMax + srcOooPartitionHi - srcOooPartitionLo + 1;
+        final long partitionSize = srcDataMax + srcOooPartitionHi - srcOooPartitionLo + 1 - duplicateCount;
+        if (duplicateCount > 0) {
+            // row counts were incremented by the full O3 batch before partitions were merged
+            if (partitionTimestamp == partitionFloorMethod.floor(txWriter.getMaxTimestamp())) {
+                txWriter.transientRowCount -= duplicateCount;
+            } else {
+                txWriter.fixedRowCount -= duplicateCount;
+            }
+        }
         final long rowDelta = srcOooPartitionHi - srcOooMax;
         final int partitionIndex = txWriter.findAttachedPartitionIndexByLoTimestamp(partitionTimestamp);
         if (partitionTimestamp == lastPartitionTimestamp) {
@@ -3792,6 +4250,7 @@ public class TableWriter implements Closeable {
                 .$(", partitionMutates=").$(partitionMutates)
                 .$(", lastPartitionTimestamp=").$(lastPartitionTimestamp)
                 .$(", partitionSize=").$(partitionSize)
+                .$(", duplicateCount=").$(duplicateCount)
                 .I$();
 
         if (partitionMutates) {
@@ -3809,6 +4268,10 @@ public class TableWriter implements Closeable {
             }
             txWriter.updatePartitionSizeByIndex(partitionIndex, partitionTimestamp, partitionSize);
         }
+
+        if (zoneMapWriter != null) {
+            zoneMapDirtyPartitions.add(partitionTimestamp);
+        }
     }
 
     private void o3ProcessPartitionRemoveCandidates() {
@@ -4511,9 +4974,12 @@ public class TableWriter implements Closeable {
             long rowLo
     ) {
         o3ErrorCount.set(0);
+        o3MergeBytesInFlight.set(0);
+        o3CopiedBytes.set(0);
         o3PartitionRemoveCandidates.clear();
         o3ColumnCounters.clear();
         o3BasketPool.clear();
+        final long mergeStart = configuration.getMicrosecondClock().getTicks();
 
         // move uncommitted is liable to change max timestamp
         // however we need to identify last partition before max timestamp skips to NULL for example
@@ -4537,8 +5003,45 @@ public class TableWriter implements Closeable {
             resizeColumnTopSink(o3TimestampMin, o3TimestampMax);
             resizePartitionUpdateSink(o3TimestampMin, o3TimestampMax);
 
-            // One loop iteration per partition.
+            // Find out partition boundaries upfront, so that partitions can be dispatched in any order.
+            // Transient row count is rolled over partitions in timestamp order here, as described above.
+            o3PartitionOffsets.clear();
             while (srcOoo < srcOooMax) {
+                final long o3Timestamp = getTimestampIndexValue(sortedTimestampsAddr, srcOoo);
+                final long srcOooTimestampCeil = partitionCeilMethod.ceil(o3Timestamp) - 1;
+                final long srcOooHi = srcOooTimestampCeil < o3TimestampMax
+                        ? Vect.boundedBinarySearchIndexT(sortedTimestampsAddr, srcOooTimestampCeil, srcOoo, srcOooMax - 1, BinarySearch.SCAN_DOWN)
+                        : srcOooMax - 1;
+                final long partitionTimestamp = partitionFloorMethod.floor(o3Timestamp);
+                final long partitionO3RowCount = srcOooHi - srcOoo + 1;
+                if (partitionTimestamp < lastPartitionTimestamp) {
+                    final int partitionIndex = txWriter.getPartitionIndex(partitionTimestamp);
+                    if (partitionIndex > -1 && isPartitionCompressed(partitionIndex)) {
+                        success = false;
+                        throw CairoException.nonCritical().put("cannot insert into compressed partition [table=").put(tableName)
+                                .put(", partition=").ts(partitionTimestamp)
+                                .put(']');
+                    }
+                    this.txWriter.fixedRowCount += partitionO3RowCount;
+                } else {
+                    if (partitionTimestamp > lastPartitionTimestamp) {
+                        this.txWriter.fixedRowCount += prevTransientRowCount;
+                    }
+                    prevTransientRowCount = getO3PartitionDataMax(partitionTimestamp, transientRowCount) + partitionO3RowCount;
+                }
+                o3PartitionOffsets.add(srcOoo);
+                srcOoo = srcOooHi + 1;
+            }
+
+            // With limited merge memory, the most recent partitions are merged first.
+            final int partitionCount = o3PartitionOffsets.size();
+            final boolean mergeBudgeted = o3MergeMemoryBudget > 0;
+            final long mergeRowSize = mergeBudgeted ? o3EstimateMergeRowSize() : 0;
+
+            // One loop iteration per partition.
+            for (int p = 0; p < partitionCount; p++) {
+                final int partitionOrdinal = mergeBudgeted ? partitionCount - p - 1 : p;
+                srcOoo = o3PartitionOffsets.getQuick(partitionOrdinal);
                 try {
                     final long srcOooLo = srcOoo;
                     final long o3Timestamp = getTimestampIndexValue(sortedTimestampsAddr, srcOoo);
@@ -4585,7 +5088,8 @@ public class TableWriter implements Closeable {
                     }
 
                     // We're appending onto the last partition.
-                    final boolean append = last && (srcDataMax == 0 || o3Timestamp >= maxTimestamp);
+                    // With deduplication, O3 rows at the max timestamp may replace existing rows.
+                    final boolean append = last && (srcDataMax == 0 || o3Timestamp > maxTimestamp || (o3Timestamp == maxTimestamp && !metadata.isDedupEnabled()));
 
                     // Number of rows to insert from the O3 segment into this partition.
                     final long srcOooBatchRowSize = srcOooHi - srcOooLo + 1;
@@ -4617,16 +5121,12 @@ public class TableWriter implements Closeable {
                             .$(", memUsed=").$(Unsafe.getMemUsed())
                             .I$();
 
-                    if (partitionTimestamp < lastPartitionTimestamp) {
-                        // increment fixedRowCount by number of rows old partition incremented
-                        this.txWriter.fixedRowCount += partitionSize - srcDataMax;
-                    } else if (partitionTimestamp == lastPartitionTimestamp) {
-                        // this is existing "last" partition, we can set the size directly
-                        prevTransientRowCount = partitionSize;
-                    } else {
-                        // this is potentially a new last partition
-                        this.txWriter.fixedRowCount += prevTransientRowCount;
-                        prevTransientRowCount = partitionSize;
+                    if (mergeBudgeted && !append) {
+                        // the merge maps both existing and new partition data
+                        final long mergeBytes = (2 * srcDataMax + srcOooBatchRowSize) * mergeRowSize;
+                        o3PartitionUpdateSink.set(getPartitionUpdateSinkOffset(partitionTimestamp) + 8, mergeBytes);
+                        o3AwaitMergeBudget(mergeBytes);
+                        o3MergeBytesInFlight.addAndGet(mergeBytes);
                     }
 
                     o3PartitionUpdRemaining.incrementAndGet();
@@ -4734,7 +5234,7 @@ public class TableWriter implements Closeable {
                         // To collect column top values from o3 partition tasks add them to pre-allocated array of longs
                         // use o3ColumnTopSink LongList and allocate columns + 1 longs per partition
                         // then set first value to partition timestamp
-                        long colTopSinkIndex = (long) (pCount - 1) * (metadata.getColumnCount() + 1);
+                        long colTopSinkIndex = (long) partitionOrdinal * (metadata.getColumnCount() + 1);
                         long columnTopSinkAddress = colTopSinkIndex * Long.BYTES;
                         long columnTopPartitionSinkAddr = o3ColumnTopSink.getAddress() + columnTopSinkAddress;
                         assert columnTopPartitionSinkAddr + (columnCount + 1L) * Long.BYTES <= o3ColumnTopSink.getAddress() + o3ColumnTopSink.size() * Long.BYTES;
@@ -4781,6 +5281,16 @@ public class TableWriter implements Closeable {
             o3ConsumePartitionUpdates();
             o3DoneLatch.await(latchCount);
 
+            final long mergeMicros = configuration.getMicrosecondClock().getTicks() - mergeStart;
+            final long copiedBytes = o3CopiedBytes.get();
+            metrics.tableWriter().addO3Merge(mergeMicros, copiedBytes);
+            LOG.info()
+                    .$("o3 merged [table=").utf8(tableName)
+                    .$(", partitions=").$(pCount)
+                    .$(", copiedBytes=").$(copiedBytes)
+                    .$(", micros=").$(mergeMicros)
+                    .I$();
+
             o3InError = !success || o3ErrorCount.get() > 0;
             if (success && o3ErrorCount.get() > 0) {
                 //noinspection ThrowFromFinallyBlock
@@ -4816,6 +5326,12 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void publishSymbols() {
+        for (int i = 0, n = denseSymbolMapWriters.size(); i < n; i++) {
+            denseSymbolMapWriters.getQuick(i).publishCommitted();
+        }
+    }
+
     private void publishTableWriterEvent(int cmdType, long tableId, long correlationId, int errorCode, CharSequence errorMsg, long affectedRowsCount, int eventType) {
         long pubCursor;
         do {
@@ -4904,8 +5420,15 @@ public class TableWriter implements Closeable {
     private long readMinTimestamp(long partitionTimestamp) {
         setStateForTimestamp(other, partitionTimestamp, false);
         try {
+            final boolean compressed = TableUtils.isPartitionCompressed(ff, other);
             dFile(other, metadata.getColumnName(metadata.getTimestampIndex()), COLUMN_NAME_TXN_NONE);
             if (ff.exists(other)) {
+                if (compressed) {
+                    // only the first block is inflated
+                    try (MemoryCMR mem = Vm.getCompressedCMRInstance(ff, other, Long.BYTES, MemoryTag.MMAP_TABLE_WRITER)) {
+                        return mem.getLong(0);
+                    }
+                }
                 // read min timestamp value
                 final long fd = TableUtils.openRO(ff, other, LOG);
                 try {
@@ -5210,6 +5733,8 @@ public class TableWriter implements Closeable {
         removeFileAndOrLog(ff, iFile(path.trimTo(plen), columnName, columnNameTxn));
         removeFileAndOrLog(ff, keyFileName(path.trimTo(plen), columnName, columnNameTxn));
         removeFileAndOrLog(ff, valueFileName(path.trimTo(plen), columnName, columnNameTxn));
+        removeFileAndOrLog(ff, zmFile(path.trimTo(plen), columnName, columnNameTxn));
+        removeFileAndOrLog(ff, bfFile(path.trimTo(plen), columnName, columnNameTxn));
         path.trimTo(rootLen);
     }
 
@@ -5274,6 +5799,26 @@ public class TableWriter implements Closeable {
         removeColumn(columnCount - 1);
     }
 
+    private void removeZoneMapFiles() {
+        final long partitionTimestamp = txWriter.getLastPartitionTimestamp();
+        try {
+            setPathForPartition(path, partitionBy, partitionTimestamp, false);
+            final int plen = path.length();
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (ZoneMapReader.isSupported(columnType)) {
+                    final long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, i);
+                    removeFileAndOrLog(ff, zmFile(path.trimTo(plen), metadata.getColumnName(i), columnNameTxn));
+                } else if (BloomFilterReader.isSupported(columnType)) {
+                    final long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, i);
+                    removeFileAndOrLog(ff, bfFile(path.trimTo(plen), metadata.getColumnName(i), columnNameTxn));
+                }
+            }
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     private void removeMetaFile() {
         try {
             path.concat(META_FILE_NAME).$();
@@ -5457,6 +6002,8 @@ public class TableWriter implements Closeable {
         renameFileOrLog(ff, iFile(path.trimTo(plen), columnName, columnNameTxn), iFile(other.trimTo(plen), newName, columnNameTxn));
         renameFileOrLog(ff, keyFileName(path.trimTo(plen), columnName, columnNameTxn), keyFileName(other.trimTo(plen), newName, columnNameTxn));
         renameFileOrLog(ff, valueFileName(path.trimTo(plen), columnName, columnNameTxn), valueFileName(other.trimTo(plen), newName, columnNameTxn));
+        renameFileOrLog(ff, zmFile(path.trimTo(plen), columnName, columnNameTxn), zmFile(other.trimTo(plen), newName, columnNameTxn));
+        renameFileOrLog(ff, bfFile(path.trimTo(plen), columnName, columnNameTxn), bfFile(other.trimTo(plen), newName, columnNameTxn));
         path.trimTo(rootLen);
         other.trimTo(rootLen);
     }
@@ -5629,6 +6176,8 @@ public class TableWriter implements Closeable {
         LOG.info().$("repairing abnormally terminated truncate on ").$(path).$();
         if (PartitionBy.isPartitioned(partitionBy)) {
             removePartitionDirectories();
+        } else {
+            removeZoneMapFiles();
         }
         txWriter.truncate(columnVersionWriter.getVersion());
         clearTodoLog();
@@ -5662,6 +6211,20 @@ public class TableWriter implements Closeable {
         o3ColumnTopSink.zero(-1L);
     }
 
+    private int getPartitionUpdateSinkOffset(long partitionTimestamp) {
+        final long basePartitionTs = o3PartitionUpdateSink.get(0);
+        final int partitionSinkIndex = (int) ((partitionTimestamp - basePartitionTs) / PartitionBy.getPartitionTimeIntervalFloor(partitionBy));
+        return partitionSinkIndex * PARTITION_UPDATE_SINK_ENTRY_SIZE;
+    }
+
+    private long getO3PartitionDataMax(long partitionTimestamp, long transientRowCount) {
+        final int partitionIndex = txWriter.findAttachedPartitionIndexByLoTimestamp(partitionTimestamp);
+        if (partitionIndex > -1) {
+            return partitionTimestamp == lastPartitionTimestamp ? transientRowCount : getPartitionSizeByIndex(partitionIndex);
+        }
+        return 0;
+    }
+
     private void resizePartitionUpdateSink(long o3TimestampMin, long o3TimestampMax) {
         int maxPartitionsAffected = (int) ((o3TimestampMax - o3TimestampMin) / PartitionBy.getPartitionTimeIntervalFloor(partitionBy) + 2);
         int size = maxPartitionsAffected * PARTITION_UPDATE_SINK_ENTRY_SIZE;
@@ -5851,6 +6414,7 @@ public class TableWriter implements Closeable {
                 switch (ColumnType.tagOf(type)) {
                     case ColumnType.BINARY:
                     case ColumnType.STRING:
+                    case ColumnType.VARCHAR:
                         assert mem2 != null;
                         if (doubleAllocate) {
                             mem2.allocate(pos * Long.BYTES + Long.BYTES);
@@ -6144,6 +6708,103 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void updateZoneMaps() {
+        if (zoneMapWriter == null) {
+            return;
+        }
+        try {
+            final int partitionCount = txWriter.getPartitionCount();
+            if (partitionCount == 0) {
+                return;
+            }
+
+            // partitions appended since the last update
+            int lo = partitionCount;
+            while (lo > 0 && txWriter.getPartitionTimestamp(lo - 1) >= zoneMapPartitionTimestampLo) {
+                lo--;
+            }
+
+            // older partitions rewritten by O3
+            for (int i = 0, n = zoneMapDirtyPartitions.size(); i < n; i++) {
+                final int partitionIndex = txWriter.getPartitionIndex(zoneMapDirtyPartitions.getQuick(i));
+                if (partitionIndex > -1 && partitionIndex < lo) {
+                    updateZoneMaps(partitionIndex, txWriter.getPartitionSize(partitionIndex));
+                }
+            }
+
+            final int last = partitionCount - 1;
+            for (int i = lo; i < last; i++) {
+                updateZoneMaps(i, txWriter.getPartitionSize(i));
+            }
+
+            // active partition is only worth scanning when one of its blocks is complete
+            final long lastPartitionTimestamp = txWriter.getPartitionTimestamp(last);
+            final long transientRowCount = txWriter.getTransientRowCount();
+            final long blocks = transientRowCount / zoneMapWriter.getBlockRows();
+            if (lastPartitionTimestamp != zoneMapPartitionTimestampLo
+                    || blocks != zoneMapLastPartitionBlocks
+                    || zoneMapDirtyPartitions.indexOf(lastPartitionTimestamp) > -1) {
+                updateZoneMaps(last, transientRowCount);
+            }
+            zoneMapPartitionTimestampLo = lastPartitionTimestamp;
+            zoneMapLastPartitionBlocks = blocks;
+        } catch (CairoException e) {
+            // zone maps are optional, reader treats missing or stale map as "may match"
+            LOG.error().$("could not update zone maps [table=").$(tableName)
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+        } finally {
+            zoneMapDirtyPartitions.clear();
+            path.trimTo(rootLen);
+        }
+    }
+
+    private void updateZoneMaps(int partitionIndex, long partitionRowCount) {
+        final long partitionTimestamp = txWriter.getPartitionTimestamp(partitionIndex);
+        setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, false);
+        txnPartitionConditionally(path, txWriter.getPartitionNameTxn(partitionIndex));
+        final int timestampIndex = metadata.getTimestampIndex();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (columnType < 0 || i == timestampIndex || !ZoneMapReader.isSupported(columnType)) {
+                continue;
+            }
+            final long columnTop = columnVersionWriter.getColumnTop(partitionTimestamp, i);
+            if (columnTop < 0) {
+                continue;
+            }
+            zoneMapWriter.update(
+                    path,
+                    metadata.getColumnName(i),
+                    columnVersionWriter.getColumnNameTxn(partitionTimestamp, i),
+                    columnType,
+                    Math.min(columnTop, partitionRowCount),
+                    partitionRowCount
+            );
+        }
+
+        if (bloomFilterWriter != null) {
+            final IntList bloomFilterColumns = metadata.getBloomFilterColumnIndexes();
+            for (int i = 0, n = bloomFilterColumns.size(); i < n; i++) {
+                final int columnIndex = bloomFilterColumns.getQuick(i);
+                final int columnType = metadata.getColumnType(columnIndex);
+                final long columnTop = columnVersionWriter.getColumnTop(partitionTimestamp, columnIndex);
+                if (columnType < 0 || columnTop < 0) {
+                    continue;
+                }
+                bloomFilterWriter.update(
+                        path,
+                        metadata.getColumnName(columnIndex),
+                        columnVersionWriter.getColumnNameTxn(partitionTimestamp, columnIndex),
+                        columnType,
+                        Math.min(columnTop, partitionRowCount),
+                        partitionRowCount
+                );
+            }
+        }
+    }
+
     private void validateSwapMeta(CharSequence columnName) {
         try {
             try {
@@ -6179,6 +6840,14 @@ public class TableWriter implements Closeable {
         if (isSequential(metaMem, i)) {
             flags |= META_FLAG_BIT_SEQUENTIAL;
         }
+
+        if (isColumnDedupKey(metaMem, i)) {
+            flags |= META_FLAG_BIT_DEDUP_KEY;
+        }
+
+        if (isColumnBloomFilter(metaMem, i)) {
+            flags |= META_FLAG_BIT_BLOOM_FILTER;
+        }
         ddlMem.putLong(flags);
         ddlMem.putInt(getIndexBlockCapacity(metaMem, i));
         ddlMem.putLong(getColumnHash(metaMem, i));
@@ -6278,6 +6947,12 @@ public class TableWriter implements Closeable {
 
         void putSym(int columnIndex, char value);
 
+        void putVarchar(int columnIndex, Utf8Sequence value);
+
+        void putVarchar(int columnIndex, CharSequence value);
+
+        void putVarchar(int columnIndex, CharSequence value, int pos, int len);
+
         default void putSymIndex(int columnIndex, int key) {
             putInt(columnIndex, key);
         }
@@ -6443,6 +7118,24 @@ public class TableWriter implements Closeable {
             setRowValueNotNull(columnIndex);
         }
 
+        @Override
+        public void putVarchar(int columnIndex, Utf8Sequence value) {
+            getSecondaryColumn(columnIndex).putLong(VarcharTypeDriver.appendValue(getPrimaryColumn(columnIndex), value));
+            setRowValueNotNull(columnIndex);
+        }
+
+        @Override
+        public void putVarchar(int columnIndex, CharSequence value) {
+            getSecondaryColumn(columnIndex).putLong(VarcharTypeDriver.appendValue(getPrimaryColumn(columnIndex), value));
+            setRowValueNotNull(columnIndex);
+        }
+
+        @Override
+        public void putVarchar(int columnIndex, CharSequence value, int pos, int len) {
+            getSecondaryColumn(columnIndex).putLong(VarcharTypeDriver.appendValue(getPrimaryColumn(columnIndex), value, pos, pos + len));
+            setRowValueNotNull(columnIndex);
+        }
+
         private MemoryA getPrimaryColumn(int columnIndex) {
             return activeColumns.getQuick(getPrimaryColumnIndex(columnIndex));
         }
@@ -27,6 +27,7 @@ package io.questdb.cairo;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
 import io.questdb.std.Chars;
+import io.questdb.std.IntList;
 import io.questdb.std.LowerCaseCharSequenceIntHashMap;
 import io.questdb.std.ObjList;
 
@@ -38,6 +39,8 @@ public class TableWriterMetadata extends BaseRecordMetadata {
     private int maxUncommittedRows;
     private long commitLag;
     private long structureVersion;
+    private final IntList dedupKeyColumnIndexes = new IntList();
+    private final IntList bloomFilterColumnIndexes = new IntList();
 
     public TableWriterMetadata(MemoryMR metaMem) {
         reload(metaMem);
@@ -57,6 +60,8 @@ public class TableWriterMetadata extends BaseRecordMetadata {
 
         long offset = TableUtils.getColumnNameOffset(columnCount);
         this.symbolMapCount = 0;
+        this.dedupKeyColumnIndexes.clear();
+        this.bloomFilterColumnIndexes.clear();
         columnNameIndexMap.clear();
         // don't create strings in this loop, we already have them in columnNameIndexMap
         for (int i = 0; i < columnCount; i++) {
@@ -80,15 +85,29 @@ public class TableWriterMetadata extends BaseRecordMetadata {
             if (ColumnType.isSymbol(type)) {
                 symbolMapCount++;
             }
+            if (type > 0 && TableUtils.isColumnDedupKey(metaMem, i)) {
+                dedupKeyColumnIndexes.add(i);
+            }
+            if (type > 0 && TableUtils.isColumnBloomFilter(metaMem, i)) {
+                bloomFilterColumnIndexes.add(i);
+            }
             offset += Vm.getStorageLength(name);
         }
         metaFileSize = (int) offset;
     }
 
+    public IntList getBloomFilterColumnIndexes() {
+        return bloomFilterColumnIndexes;
+    }
+
     public long getCommitLag() {
         return commitLag;
     }
 
+    public IntList getDedupKeyColumnIndexes() {
+        return dedupKeyColumnIndexes;
+    }
+
     public int getDenseColumnCount() {
         int count = 0;
         for (int i = 0; i < columnCount; i++) {
@@ -99,6 +118,10 @@ public class TableWriterMetadata extends BaseRecordMetadata {
         return count;
     }
 
+    public boolean isDedupEnabled() {
+        return dedupKeyColumnIndexes.size() > 0;
+    }
+
     public void setCommitLag(long micros) {
         this.commitLag = micros;
     }
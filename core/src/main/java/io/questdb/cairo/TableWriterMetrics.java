@@ -34,6 +34,9 @@ public class TableWriterMetrics {
     private final Counter o3CommitCounter;
     private final Counter committedRowCounter;
     private final Counter rollbackCounter;
+    // Time spent and bytes copied by O3 partition merges, divide by o3 commit count for per-commit values.
+    private final Counter o3MergeMicrosCounter;
+    private final Counter o3MergeCopiedBytesCounter;
 
     // For write amplification metric, `physicallyWrittenRowCounter / committedRowCounter`.
     private final Counter physicallyWrittenRowCounter;
@@ -43,6 +46,8 @@ public class TableWriterMetrics {
         this.o3CommitCounter = metricsRegistry.newCounter("o3_commits");
         this.committedRowCounter = metricsRegistry.newCounter("committed_rows");
         this.rollbackCounter = metricsRegistry.newCounter("rollbacks");
+        this.o3MergeMicrosCounter = metricsRegistry.newCounter("o3_merge_micros");
+        this.o3MergeCopiedBytesCounter = metricsRegistry.newCounter("o3_merge_copied_bytes");
         this.physicallyWrittenRowCounter = metricsRegistry.newCounter("physically_written_rows");
     }
 
@@ -50,6 +55,11 @@ public class TableWriterMetrics {
         committedRowCounter.add(rows);
     }
 
+    public void addO3Merge(long micros, long copiedBytes) {
+        o3MergeMicrosCounter.add(micros);
+        o3MergeCopiedBytesCounter.add(copiedBytes);
+    }
+
     public void addPhysicallyWrittenRows(long rows) {
         physicallyWrittenRowCounter.add(rows);
     }
@@ -62,6 +72,14 @@ public class TableWriterMetrics {
         return o3CommitCounter.getValue();
     }
 
+    public long getO3MergeCopiedBytes() {
+        return o3MergeCopiedBytesCounter.getValue();
+    }
+
+    public long getO3MergeMicros() {
+        return o3MergeMicrosCounter.getValue();
+    }
+
     public long getCommittedRows() {
         return committedRowCounter.getValue();
     }
@@ -56,6 +56,7 @@ public class TxReader implements Closeable, Mutable {
     protected long partitionTableVersion;
     protected int attachedPartitionsSize = 0;
     protected long columnVersion;
+    protected long seqTxn;
     private PartitionBy.PartitionFloorMethod partitionFloorMethod;
     private MemoryMR roTxMemBase;
     private int baseOffset;
@@ -102,6 +103,7 @@ public class TxReader implements Closeable, Mutable {
         mem.putLong(baseOffset + TX_OFFSET_PARTITION_TABLE_VERSION_64, partitionTableVersion);
         mem.putLong(baseOffset + TX_OFFSET_COLUMN_VERSION_64, columnVersion);
         mem.putLong(baseOffset + TX_OFFSET_TRUNCATE_VERSION_64, truncateVersion);
+        mem.putLong(baseOffset + TX_OFFSET_SEQ_TXN_64, seqTxn);
         mem.putInt(baseOffset + TX_OFFSET_MAP_WRITER_COUNT_32, symbolColumnCount);
 
         int symbolMapCount = symbolCountSnapshot.size();
@@ -233,6 +235,13 @@ public class TxReader implements Closeable, Mutable {
         return symbolColumnCount;
     }
 
+    /**
+     * @return last sequencer txn applied to the table from WAL, 0 when table was never written via WAL
+     */
+    public long getSeqTxn() {
+        return seqTxn;
+    }
+
     public int getSymbolValueCount(int i) {
         return symbolCountSnapshot.get(i);
     }
@@ -290,6 +299,7 @@ public class TxReader implements Closeable, Mutable {
             final long prevColumnVersion = this.columnVersion;
             this.columnVersion = unsafeReadColumnVersion();
             this.truncateVersion = getLong(TableUtils.TX_OFFSET_TRUNCATE_VERSION_64);
+            this.seqTxn = getLong(TableUtils.TX_OFFSET_SEQ_TXN_64);
             this.symbolColumnCount = this.symbolsSize / 8;
 
             unsafeLoadSymbolCounts(symbolColumnCount);
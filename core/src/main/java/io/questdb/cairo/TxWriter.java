@@ -167,6 +167,7 @@ public final class TxWriter extends TxReader implements Closeable, Mutable, Symb
             putLong(TX_OFFSET_TXN_64, ++txn);
             putLong(TX_OFFSET_MAX_TIMESTAMP_64, maxTimestamp);
             putLong(TX_OFFSET_TRANSIENT_ROW_COUNT_64, transientRowCount);
+            putLong(TX_OFFSET_SEQ_TXN_64, seqTxn);
 
             // Store symbol counts. Unfortunately we cannot skip it in here
             storeSymbolCounts(symbolCountProviders);
@@ -317,6 +318,10 @@ public final class TxWriter extends TxReader implements Closeable, Mutable, Symb
         }
     }
 
+    public void setSeqTxn(long seqTxn) {
+        this.seqTxn = seqTxn;
+    }
+
     public void truncate(long columnVersion) {
         recordStructureVersion++;
         maxTimestamp = Long.MIN_VALUE;
@@ -334,6 +339,8 @@ public final class TxWriter extends TxReader implements Closeable, Mutable, Symb
         writeAreaSize = calculateWriteSize();
         writeBaseOffset = calculateWriteOffset();
         resetTxn(txMemBase, writeBaseOffset, getSymbolColumnCount(), ++txn, ++dataVersion, ++partitionTableVersion, structureVersion, columnVersion, ++truncateVersion);
+        // truncate does not rewind WAL, keep the applied sequencer txn
+        putLong(TX_OFFSET_SEQ_TXN_64, seqTxn);
         finishABHeader(writeBaseOffset, symbolColumnCount * 8, 0, CommitMode.NOSYNC);
     }
 
@@ -399,6 +406,7 @@ public final class TxWriter extends TxReader implements Closeable, Mutable, Symb
         putLong(TX_OFFSET_COLUMN_VERSION_64, columnVersion);
         putInt(TX_OFFSET_MAP_WRITER_COUNT_32, symbolColumnCount);
         putLong(TX_OFFSET_TRUNCATE_VERSION_64, truncateVersion);
+        putLong(TX_OFFSET_SEQ_TXN_64, seqTxn);
 
         // store symbol counts
         storeSymbolCounts(symbolCountProviders);
@@ -26,6 +26,7 @@ package io.questdb.cairo;
 
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMAR;
+import io.questdb.cairo.vm.api.MemoryMR;
 import io.questdb.std.*;
 import io.questdb.std.str.Path;
 
@@ -34,6 +35,7 @@ import java.io.Closeable;
 import static io.questdb.cairo.TableUtils.*;
 
 public class TxnCatalog implements Closeable {
+    private static final long TXN_ENTRY_SIZE = Long.BYTES + Integer.BYTES + Long.BYTES;
     private final FilesFacade ff;
     private final MemoryMAR metaMem = Vm.getMARInstance();
 
@@ -46,12 +48,25 @@ public class TxnCatalog implements Closeable {
         if (startTxn == 0) {
             metaMem.putInt(WalWriter.WAL_FORMAT_VERSION);
         } else {
-            metaMem.jumpTo(Integer.BYTES + startTxn * (Long.BYTES + Integer.BYTES + Long.BYTES));
+            metaMem.jumpTo(Integer.BYTES + startTxn * TXN_ENTRY_SIZE);
         }
     }
 
-    private long calcOffsetForTxn(long txn) {
-        return Integer.BYTES + (txn - 1) * (Long.BYTES + Integer.BYTES + Long.BYTES);
+    private static long calcOffsetForTxn(long txn) {
+        return Integer.BYTES + (txn - 1) * TXN_ENTRY_SIZE;
+    }
+
+    SequencerCursor getCursor(Path path, int pathLen, long txnLo, long txnHi) {
+        final Cursor cursor = new Cursor();
+        try {
+            cursor.of(ff, path.concat(CATALOG_FILE_NAME).$(), txnLo, txnHi);
+        } catch (Throwable th) {
+            cursor.close();
+            throw th;
+        } finally {
+            path.trimTo(pathLen);
+        }
+        return cursor;
     }
 
     void setEntry(long txn, int walId, long segmentId) {
@@ -65,4 +80,46 @@ public class TxnCatalog implements Closeable {
     public void close() {
         Misc.free(metaMem);
     }
+
+    private static class Cursor implements SequencerCursor {
+        private final MemoryMR mem = Vm.getMRInstance();
+        private long offset;
+        private long limit;
+
+        @Override
+        public void close() {
+            Misc.free(mem);
+        }
+
+        @Override
+        public long getSegmentId() {
+            return mem.getLong(offset + Long.BYTES + Integer.BYTES);
+        }
+
+        @Override
+        public long getTxn() {
+            return mem.getLong(offset);
+        }
+
+        @Override
+        public int getWalId() {
+            return mem.getInt(offset + Long.BYTES);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (offset + TXN_ENTRY_SIZE < limit) {
+                offset += TXN_ENTRY_SIZE;
+                return true;
+            }
+            return false;
+        }
+
+        // iterates txns in (txnLo, txnHi] range
+        void of(FilesFacade ff, Path path, long txnLo, long txnHi) {
+            limit = calcOffsetForTxn(txnHi + 1);
+            offset = calcOffsetForTxn(txnLo + 1) - TXN_ENTRY_SIZE;
+            mem.of(ff, path, ff.getPageSize(), limit, MemoryTag.MMAP_SEQUENCER);
+        }
+    }
 }
@@ -0,0 +1,221 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.api.MemoryA;
+import io.questdb.std.Chars;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8Sequence;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Storage format of UTF-8 encoded varchar values. Varchar column shares the file
+ * layout with BINARY:
+ * <ul>
+ *     <li>index vector (.i) - 8 byte offset of each value in the data vector</li>
+ *     <li>data vector (.d) - 8 byte length followed by the UTF-8 bytes of the value,
+ *     length of null value is -1</li>
+ * </ul>
+ * Sharing the layout allows O3 merge and column top handling to treat varchar
+ * column exactly as BINARY.
+ */
+public final class VarcharTypeDriver {
+
+    private VarcharTypeDriver() {
+    }
+
+    /**
+     * Appends UTF-8 value to the data vector.
+     *
+     * @param dataMem data vector
+     * @param value   UTF-8 value, null is allowed
+     * @return append offset of the data vector after the value
+     */
+    public static long appendValue(MemoryA dataMem, @Nullable Utf8Sequence value) {
+        if (value == null) {
+            return dataMem.putNullBin();
+        }
+        final int size = value.length();
+        dataMem.putLong(size);
+        final long ptr = value.ptr();
+        if (ptr != 0) {
+            dataMem.putBlockOfBytes(ptr, size);
+        } else {
+            for (int i = 0; i < size; i++) {
+                dataMem.putByte(value.byteAt(i));
+            }
+        }
+        return dataMem.getAppendOffset();
+    }
+
+    /**
+     * Encodes UTF-16 value as UTF-8 and appends it to the data vector. Unpaired
+     * surrogates are replaced with '?'.
+     *
+     * @param dataMem data vector
+     * @param value   UTF-16 value, null is allowed
+     * @return append offset of the data vector after the value
+     */
+    public static long appendValue(MemoryA dataMem, @Nullable CharSequence value) {
+        if (value == null) {
+            return dataMem.putNullBin();
+        }
+        return appendValue(dataMem, value, 0, value.length());
+    }
+
+    /**
+     * Encodes chars between lo and hi of the UTF-16 value as UTF-8 and appends them
+     * to the data vector. Unpaired surrogates are replaced with '?'.
+     *
+     * @param dataMem data vector
+     * @param value   UTF-16 value
+     * @param lo      index of the first char, inclusive
+     * @param hi      index of the last char, exclusive
+     * @return append offset of the data vector after the value
+     */
+    public static long appendValue(MemoryA dataMem, CharSequence value, int lo, int hi) {
+        dataMem.putLong(utf8Length(value, lo, hi));
+        for (int i = lo; i < hi; i++) {
+            final char c = value.charAt(i);
+            if (c < 128) {
+                dataMem.putByte((byte) c);
+            } else if (c < 2048) {
+                dataMem.putByte((byte) (192 | c >> 6));
+                dataMem.putByte((byte) (128 | c & 63));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < hi && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    dataMem.putByte((byte) (240 | codePoint >> 18));
+                    dataMem.putByte((byte) (128 | codePoint >> 12 & 63));
+                    dataMem.putByte((byte) (128 | codePoint >> 6 & 63));
+                    dataMem.putByte((byte) (128 | codePoint & 63));
+                } else {
+                    dataMem.putByte((byte) '?');
+                }
+            } else {
+                dataMem.putByte((byte) (224 | c >> 12));
+                dataMem.putByte((byte) (128 | c >> 6 & 63));
+                dataMem.putByte((byte) (128 | c & 63));
+            }
+        }
+        return dataMem.getAppendOffset();
+    }
+
+    /**
+     * Decodes UTF-8 value into the sink.
+     *
+     * @param value UTF-8 value backed by native memory, null is allowed
+     * @param sink  reusable sink, cleared before decoding
+     * @return the sink or null when value is null
+     */
+    public static CharSequence toUtf16(@Nullable Utf8Sequence value, StringSink sink) {
+        if (value == null) {
+            return null;
+        }
+        sink.clear();
+        final long ptr = value.ptr();
+        assert ptr != 0 || value.length() == 0;
+        Chars.utf8Decode(ptr, ptr + value.length(), sink);
+        return sink;
+    }
+
+    /**
+     * Decodes UTF-8 value into the per-column sink. Records use this to serve
+     * getStr() calls on varchar columns, sinks are created on first use.
+     *
+     * @param value UTF-8 value backed by native memory, null is allowed
+     * @param sinks per-column sinks
+     * @param col   column index
+     * @return the sink or null when value is null
+     */
+    public static CharSequence toUtf16(@Nullable Utf8Sequence value, ObjList<StringSink> sinks, int col) {
+        if (value == null) {
+            return null;
+        }
+        StringSink sink = sinks.getQuiet(col);
+        if (sink == null) {
+            sink = new StringSink();
+            sinks.extendAndSet(col, sink);
+        }
+        return toUtf16(value, sink);
+    }
+
+    /**
+     * @param value UTF-8 value, null is allowed
+     * @return number of UTF-16 chars the value decodes to or -1 when value is null
+     */
+    public static int utf16Length(@Nullable Utf8Sequence value) {
+        if (value == null) {
+            return TableUtils.NULL_LEN;
+        }
+        int len = 0;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            final int b = value.byteAt(i) & 0xff;
+            if ((b & 0xc0) != 0x80) {
+                // code points outside the BMP take a surrogate pair
+                len += (b & 0xf8) == 0xf0 ? 2 : 1;
+            }
+        }
+        return len;
+    }
+
+    /**
+     * @param value UTF-16 value
+     * @return number of bytes UTF-8 encoding of the value takes
+     */
+    public static int utf8Length(CharSequence value) {
+        return utf8Length(value, 0, value.length());
+    }
+
+    /**
+     * @param value UTF-16 value
+     * @param lo    index of the first char, inclusive
+     * @param hi    index of the last char, exclusive
+     * @return number of bytes UTF-8 encoding of the chars between lo and hi takes
+     */
+    public static int utf8Length(CharSequence value, int lo, int hi) {
+        int size = 0;
+        for (int i = lo; i < hi; i++) {
+            final char c = value.charAt(i);
+            if (c < 128) {
+                size++;
+            } else if (c < 2048) {
+                size += 2;
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < hi && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    i++;
+                    size += 4;
+                } else {
+                    size++;
+                }
+            } else {
+                size += 3;
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,323 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.Job;
+import io.questdb.std.ConcurrentHashMap;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.questdb.cairo.WalTxnType.*;
+
+/**
+ * Applies WAL transactions to tables. The job is meant to be assigned to the shared
+ * worker pool; each worker walks the tables known to the {@link TableRegistry} and
+ * applies those whose writer is not taken by another worker, so different tables
+ * are applied concurrently while transactions of the same table are applied in
+ * sequencer order.
+ * <p>
+ * Consecutive DATA transactions from the same WAL segment cover contiguous row ranges
+ * and are coalesced into a single {@link TableWriter#processWalCommit} call, i.e. into one
+ * O3 merge and one table commit. The last applied sequencer txn is stored in table's
+ * _txn file atomically with the data, so that apply resumes from the right place.
+ */
+public class WalApplyJob implements Job, Closeable {
+    private static final Log LOG = LogFactory.getLog(WalApplyJob.class);
+    private static final String WRITER_LOCK_REASON = "walApply";
+    private final CairoEngine engine;
+    private final WalMetrics metrics;
+    private final ConcurrentHashMap<TableState> tableStates = new ConcurrentHashMap<>();
+    private final ObjList<ObjList<CharSequence>> tableNames;
+    private final long[] tableNamesVersions;
+    private final ObjList<Path> paths;
+    private final ObjList<WalReaderEvents> walEvents;
+    private final ObjList<MergedSymbolMapDiffs> symbolMapDiffs;
+    private final AtomicBoolean halted = new AtomicBoolean(false);
+
+    public WalApplyJob(CairoEngine engine, int workerCount) {
+        this.engine = engine;
+        this.metrics = engine.getMetrics().wal();
+        this.tableNames = new ObjList<>(workerCount);
+        this.tableNamesVersions = new long[workerCount];
+        this.paths = new ObjList<>(workerCount);
+        this.walEvents = new ObjList<>(workerCount);
+        this.symbolMapDiffs = new ObjList<>(workerCount);
+
+        final FilesFacade ff = engine.getConfiguration().getFilesFacade();
+        for (int i = 0; i < workerCount; i++) {
+            tableNames.add(new ObjList<>());
+            tableNamesVersions[i] = -1;
+            paths.add(new Path());
+            walEvents.add(new WalReaderEvents(ff));
+            symbolMapDiffs.add(new MergedSymbolMapDiffs());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (halted.compareAndSet(false, true)) {
+            Misc.freeObjList(walEvents);
+            Misc.freeObjList(paths);
+        }
+    }
+
+    @Override
+    public boolean run(int workerId) {
+        final ObjList<CharSequence> tableNames = this.tableNames.getQuick(workerId);
+        final TableRegistry tableRegistry = engine.getTableRegistry();
+        final long registryVersion = tableRegistry.getVersion();
+        if (tableNamesVersions[workerId] != registryVersion) {
+            tableRegistry.getTableNames(tableNames);
+            tableNamesVersions[workerId] = registryVersion;
+        }
+
+        boolean useful = false;
+        final int n = tableNames.size();
+        for (int i = 0; i < n; i++) {
+            // workers start at different tables to avoid all of them contending for the same writer
+            final CharSequence tableName = tableNames.getQuick((i + workerId) % n);
+            useful |= applyTable(workerId, tableName);
+        }
+        return useful;
+    }
+
+    private boolean applyTable(int workerId, CharSequence tableName) {
+        final Sequencer sequencer = engine.getTableRegistry().peekSequencer(tableName);
+        if (sequencer == null) {
+            return false;
+        }
+        final TableState tableState = getTableState(tableName);
+        // table could have been re-created since last apply, in which case sequencer instance is different
+        if (tableState.sequencer == sequencer && sequencer.getMaxTxn() <= tableState.appliedTxn) {
+            return false;
+        }
+
+        final TableWriter writer;
+        try {
+            writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, tableName, WRITER_LOCK_REASON);
+        } catch (EntryUnavailableException e) {
+            // writer is busy, either another worker applies the table or it is being altered
+            return false;
+        } catch (CairoException e) {
+            LOG.error().$("could not open writer [table=").$(tableName).$(", msg=").$(e.getFlyweightMessage()).I$();
+            return false;
+        }
+
+        try {
+            final long appliedTxn = writer.getSeqTxn();
+            final long txnCount = applyTxns(workerId, sequencer, writer, appliedTxn);
+            updateTableState(tableState, sequencer, writer.getSeqTxn());
+            return txnCount > 0;
+        } catch (CairoException e) {
+            LOG.critical().$("could not apply WAL [table=").$(tableName)
+                    .$(", seqTxn=").$(writer.getSeqTxn())
+                    .$(", errno=").$(e.getErrno())
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .I$();
+            return false;
+        } finally {
+            writer.close();
+        }
+    }
+
+    private long applyTxns(int workerId, Sequencer sequencer, TableWriter writer, long appliedTxn) {
+        final Path path = paths.getQuick(workerId);
+        final WalReaderEvents events = walEvents.getQuick(workerId);
+        final MergedSymbolMapDiffs symbolMapDiffs = this.symbolMapDiffs.getQuick(workerId);
+        final CairoConfiguration configuration = engine.getConfiguration();
+
+        long txnCount = 0;
+        // pending batch of DATA transactions
+        int batchTxns = 0;
+        long batchLastTxn = appliedTxn;
+        long batchRowLo = 0;
+        long batchRowHi = 0;
+        long batchMinTimestamp = Long.MAX_VALUE;
+        long batchMaxTimestamp = Long.MIN_VALUE;
+        boolean batchInOrder = true;
+
+        int walId = -1;
+        long segmentId = -1;
+        WalEventCursor eventCursor = null;
+        symbolMapDiffs.clear();
+
+        try (SequencerCursor sequencerCursor = sequencer.getCursor(appliedTxn)) {
+            while (sequencerCursor.hasNext()) {
+                final long txn = sequencerCursor.getTxn();
+                if (sequencerCursor.getWalId() != walId || sequencerCursor.getSegmentId() != segmentId) {
+                    if (batchTxns > 0) {
+                        commitBatch(writer, path, segmentId, batchInOrder, batchRowLo, batchRowHi, batchMinTimestamp, batchMaxTimestamp, symbolMapDiffs, batchLastTxn, batchTxns);
+                        txnCount += batchTxns;
+                        batchTxns = 0;
+                    }
+                    walId = sequencerCursor.getWalId();
+                    segmentId = sequencerCursor.getSegmentId();
+                    path.of(configuration.getRoot()).concat(writer.getTableName()).concat(WalWriter.WAL_NAME_BASE).put(walId);
+                    eventCursor = events.of(path, path.length(), segmentId, WalWriter.WAL_FORMAT_VERSION);
+                }
+
+                if (!seekEvent(eventCursor, txn)) {
+                    // sequencer hands out txn before WAL writer completes the event, pick it up next time
+                    break;
+                }
+
+                switch (eventCursor.getType()) {
+                    case DATA:
+                        final WalEventCursor.DataInfo dataInfo = eventCursor.getDataInfo();
+                        if (batchTxns > 0 && dataInfo.getStartRowID() != batchRowHi) {
+                            commitBatch(writer, path, segmentId, batchInOrder, batchRowLo, batchRowHi, batchMinTimestamp, batchMaxTimestamp, symbolMapDiffs, batchLastTxn, batchTxns);
+                            txnCount += batchTxns;
+                            batchTxns = 0;
+                        }
+                        if (batchTxns == 0) {
+                            batchRowLo = dataInfo.getStartRowID();
+                            batchMinTimestamp = dataInfo.getMinTimestamp();
+                            batchMaxTimestamp = dataInfo.getMaxTimestamp();
+                            batchInOrder = !dataInfo.isOutOfOrder();
+                        } else {
+                            batchInOrder &= !dataInfo.isOutOfOrder() && dataInfo.getMinTimestamp() >= batchMaxTimestamp;
+                            batchMinTimestamp = Math.min(batchMinTimestamp, dataInfo.getMinTimestamp());
+                            batchMaxTimestamp = Math.max(batchMaxTimestamp, dataInfo.getMaxTimestamp());
+                        }
+                        batchRowHi = dataInfo.getEndRowID();
+                        batchLastTxn = txn;
+                        symbolMapDiffs.add(dataInfo);
+                        batchTxns++;
+                        break;
+                    case ADD_COLUMN:
+                    case REMOVE_COLUMN:
+                        if (batchTxns > 0) {
+                            commitBatch(writer, path, segmentId, batchInOrder, batchRowLo, batchRowHi, batchMinTimestamp, batchMaxTimestamp, symbolMapDiffs, batchLastTxn, batchTxns);
+                            txnCount += batchTxns;
+                            batchTxns = 0;
+                        }
+                        // structure change commits _txn, the seqTxn goes along with it
+                        writer.setSeqTxn(txn);
+                        if (eventCursor.getType() == ADD_COLUMN) {
+                            final WalEventCursor.AddColumnInfo addColumnInfo = eventCursor.getAddColumnInfo();
+                            writer.addColumn(addColumnInfo.getColumnName(), addColumnInfo.getColumnType());
+                        } else {
+                            final int columnIndex = eventCursor.getRemoveColumnInfo().getColumnIndex();
+                            writer.removeColumn(writer.getMetadata().getColumnName(columnIndex));
+                        }
+                        metrics.addAppliedTxns(1);
+                        txnCount++;
+                        break;
+                    default:
+                        throw CairoException.critical(0).put("unsupported WAL event [type=").put(eventCursor.getType())
+                                .put(", txn=").put(txn)
+                                .put(']');
+                }
+            }
+
+            if (batchTxns > 0) {
+                commitBatch(writer, path, segmentId, batchInOrder, batchRowLo, batchRowHi, batchMinTimestamp, batchMaxTimestamp, symbolMapDiffs, batchLastTxn, batchTxns);
+                txnCount += batchTxns;
+            }
+        } finally {
+            events.close();
+            symbolMapDiffs.clear();
+        }
+        return txnCount;
+    }
+
+    private void commitBatch(
+            TableWriter writer,
+            Path walPath,
+            long segmentId,
+            boolean inOrder,
+            long rowLo,
+            long rowHi,
+            long minTimestamp,
+            long maxTimestamp,
+            MergedSymbolMapDiffs symbolMapDiffs,
+            long lastTxn,
+            int txnCount
+    ) {
+        writer.setSeqTxn(lastTxn);
+        writer.processWalCommit(walPath, segmentId, inOrder, rowLo, rowHi, minTimestamp, maxTimestamp + 1, symbolMapDiffs);
+        symbolMapDiffs.clear();
+
+        LOG.debug().$("applied WAL [table=").$(writer.getTableName())
+                .$(", seqTxn=").$(lastTxn)
+                .$(", txns=").$(txnCount)
+                .$(", rows=").$(rowHi - rowLo)
+                .I$();
+        metrics.incrementApplyCommits();
+        metrics.addAppliedTxns(txnCount);
+        metrics.addAppliedRows(rowHi - rowLo);
+    }
+
+    private TableState getTableState(CharSequence tableName) {
+        TableState tableState = tableStates.get(tableName);
+        if (tableState == null) {
+            tableState = new TableState();
+            final TableState other = tableStates.putIfAbsent(tableName, tableState);
+            if (other != null) {
+                return other;
+            }
+        }
+        return tableState;
+    }
+
+    private static boolean seekEvent(WalEventCursor eventCursor, long txn) {
+        if (eventCursor.getTxn() == txn) {
+            return true;
+        }
+        while (eventCursor.tryHasNext() && eventCursor.hasNext()) {
+            final long eventTxn = eventCursor.getTxn();
+            if (eventTxn == txn) {
+                return true;
+            }
+            if (eventTxn > txn) {
+                throw CairoException.critical(0).put("WAL event is missing [txn=").put(txn).put(']');
+            }
+        }
+        return false;
+    }
+
+    // called under table writer lock, the only concurrent access is the appliedTxn check in applyTable()
+    private void updateTableState(TableState tableState, Sequencer sequencer, long appliedTxn) {
+        final long lag = sequencer.getMaxTxn() - appliedTxn;
+        metrics.addTxnLag(lag - tableState.lag);
+        tableState.lag = lag;
+        tableState.appliedTxn = appliedTxn;
+        tableState.sequencer = sequencer;
+    }
+
+    private static class TableState {
+        private volatile long appliedTxn = -1;
+        private volatile Sequencer sequencer;
+        private long lag;
+    }
+}
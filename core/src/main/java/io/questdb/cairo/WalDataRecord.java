@@ -27,13 +27,18 @@ package io.questdb.cairo;
 import io.questdb.cairo.sql.Record;
 import io.questdb.std.BinarySequence;
 import io.questdb.std.Long256;
+import io.questdb.std.ObjList;
 import io.questdb.std.Rows;
 import io.questdb.std.Sinkable;
 import io.questdb.std.str.CharSink;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8Sequence;
 
 import static io.questdb.cairo.WalReader.getPrimaryColumnIndex;
 
 public class WalDataRecord implements Record, Sinkable {
+    private final ObjList<StringSink> varcharSinksA = new ObjList<>();
+    private final ObjList<StringSink> varcharSinksB = new ObjList<>();
     private long recordIndex = 0;
     private WalReader reader;
 
@@ -109,6 +114,9 @@ public class WalDataRecord implements Record, Sinkable {
 
     @Override
     public CharSequence getStr(int col) {
+        if (isVarchar(col)) {
+            return VarcharTypeDriver.toUtf16(getVarchar(col), varcharSinksA, col);
+        }
         final long offset = recordIndex * Long.BYTES;
         final int absoluteColumnIndex = getPrimaryColumnIndex(col);
         return reader.getColumn(absoluteColumnIndex).getStr(reader.getColumn(absoluteColumnIndex + 1).getLong(offset));
@@ -139,16 +147,33 @@ public class WalDataRecord implements Record, Sinkable {
     public CharSequence getStrB(int col) {
         final long offset = recordIndex * Long.BYTES;
         final int absoluteColumnIndex = getPrimaryColumnIndex(col);
+        if (isVarchar(col)) {
+            return VarcharTypeDriver.toUtf16(
+                    reader.getColumn(absoluteColumnIndex).getVarcharB(reader.getColumn(absoluteColumnIndex + 1).getLong(offset)),
+                    varcharSinksB,
+                    col
+            );
+        }
         return reader.getColumn(absoluteColumnIndex).getStr2(reader.getColumn(absoluteColumnIndex + 1).getLong(offset));
     }
 
     @Override
     public int getStrLen(int col) {
+        if (isVarchar(col)) {
+            return VarcharTypeDriver.utf16Length(getVarchar(col));
+        }
         final long offset = recordIndex * Long.BYTES;
         final int absoluteColumnIndex = getPrimaryColumnIndex(col);
         return reader.getColumn(absoluteColumnIndex).getStrLen(reader.getColumn(absoluteColumnIndex + 1).getLong(offset));
     }
 
+    @Override
+    public Utf8Sequence getVarchar(int col) {
+        final long offset = recordIndex * Long.BYTES;
+        final int absoluteColumnIndex = getPrimaryColumnIndex(col);
+        return reader.getColumn(absoluteColumnIndex).getVarcharA(reader.getColumn(absoluteColumnIndex + 1).getLong(offset));
+    }
+
     @Override
     public CharSequence getSym(int col) {
         return reader.getSymbolValue(col, getInt(col));
@@ -192,6 +217,10 @@ public class WalDataRecord implements Record, Sinkable {
         return col == reader.getTimestampIndex() ? getDesignatedTimestamp(col) : getLong(col);
     }
 
+    private boolean isVarchar(int col) {
+        return ColumnType.isVarchar(reader.getColumnType(col));
+    }
+
     private long getDesignatedTimestamp(int col) {
         final long offset = 2 * recordIndex * Long.BYTES;
         final int absoluteColumnIndex = getPrimaryColumnIndex(col);
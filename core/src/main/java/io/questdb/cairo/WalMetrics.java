@@ -0,0 +1,79 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.metrics.Counter;
+import io.questdb.metrics.Gauge;
+import io.questdb.metrics.MetricsRegistry;
+
+public class WalMetrics {
+
+    // Number of TableWriter commits performed by WAL apply, each commit can cover many WAL transactions
+    private final Counter applyCommitCounter;
+    private final Counter appliedTxnCounter;
+    private final Counter appliedRowCounter;
+
+    // Sequencer transactions not yet applied to the tables, summed across all tables
+    private final Gauge txnLagGauge;
+
+    public WalMetrics(MetricsRegistry metricsRegistry) {
+        this.applyCommitCounter = metricsRegistry.newCounter("wal_apply_commits");
+        this.appliedTxnCounter = metricsRegistry.newCounter("wal_applied_txns");
+        this.appliedRowCounter = metricsRegistry.newCounter("wal_applied_rows");
+        this.txnLagGauge = metricsRegistry.newGauge("wal_txn_lag");
+    }
+
+    public void addAppliedRows(long rows) {
+        appliedRowCounter.add(rows);
+    }
+
+    public void addAppliedTxns(long txns) {
+        appliedTxnCounter.add(txns);
+    }
+
+    public void addTxnLag(long delta) {
+        txnLagGauge.add(delta);
+    }
+
+    public long getAppliedRows() {
+        return appliedRowCounter.getValue();
+    }
+
+    public long getAppliedTxns() {
+        return appliedTxnCounter.getValue();
+    }
+
+    public long getApplyCommitCount() {
+        return applyCommitCounter.getValue();
+    }
+
+    public long getTxnLag() {
+        return txnLagGauge.getValue();
+    }
+
+    public void incrementApplyCommits() {
+        applyCommitCounter.inc();
+    }
+}
@@ -37,6 +37,7 @@ import io.questdb.std.*;
 import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.str.Path;
 import io.questdb.std.str.SingleCharCharSequence;
+import io.questdb.std.str.Utf8Sequence;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.Closeable;
@@ -278,6 +279,7 @@ public class WalWriter implements Closeable {
                 nullers.add(() -> mem1.putInt(SymbolTable.VALUE_IS_NULL));
                 break;
             case ColumnType.BINARY:
+            case ColumnType.VARCHAR:
                 nullers.add(() -> mem2.putLong(mem1.putNullBin()));
                 break;
             case ColumnType.GEOBYTE:
@@ -307,6 +309,7 @@ public class WalWriter implements Closeable {
             switch (ColumnType.tagOf(type)) {
                 case ColumnType.BINARY:
                 case ColumnType.STRING:
+                case ColumnType.VARCHAR:
                     secondary = Vm.getMAInstance();
                     break;
                 default:
@@ -886,6 +889,24 @@ public class WalWriter implements Closeable {
             putSym(columnIndex, str);
         }
 
+        @Override
+        public void putVarchar(int columnIndex, Utf8Sequence value) {
+            getSecondaryColumn(columnIndex).putLong(VarcharTypeDriver.appendValue(getPrimaryColumn(columnIndex), value));
+            setRowValueNotNull(columnIndex);
+        }
+
+        @Override
+        public void putVarchar(int columnIndex, CharSequence value) {
+            getSecondaryColumn(columnIndex).putLong(VarcharTypeDriver.appendValue(getPrimaryColumn(columnIndex), value));
+            setRowValueNotNull(columnIndex);
+        }
+
+        @Override
+        public void putVarchar(int columnIndex, CharSequence value, int pos, int len) {
+            getSecondaryColumn(columnIndex).putLong(VarcharTypeDriver.appendValue(getPrimaryColumn(columnIndex), value, pos, pos + len));
+            setRowValueNotNull(columnIndex);
+        }
+
         private MemoryA getPrimaryColumn(int columnIndex) {
             return columns.getQuick(getPrimaryColumnIndex(columnIndex));
         }
@@ -0,0 +1,44 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+/**
+ * Source of table to writer thread assignments, implemented by ingestion schedulers that
+ * spread tables across their writer threads.
+ */
+public interface WriterAssignmentSource {
+
+    void collectAssignments(Sink sink);
+
+    interface Sink {
+        /**
+         * @param tableName      name of the table
+         * @param writerThreadId writer thread the table is assigned to
+         * @param eventCount     number of events scheduled for the table
+         * @param costNanos      time writer thread spent on the table since the last load check
+         */
+        void put(CharSequence tableName, int writerThreadId, long eventCount, long costNanos);
+    }
+}
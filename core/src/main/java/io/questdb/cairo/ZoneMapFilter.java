@@ -0,0 +1,255 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.ObjList;
+import io.questdb.std.Sinkable;
+import io.questdb.std.str.CharSink;
+
+/**
+ * Conjunction of simple column predicates that is used to discard blocks of rows
+ * based on their zone maps and Bloom filters. Filter is only ever a pre-filter: the real
+ * filter is still applied to the rows of blocks that may match. Predicates follow SQL
+ * null semantics, e.g. null never satisfies an ordered comparison. Equality predicates
+ * also carry value hash, which is checked against Bloom filter of the column when the
+ * column has one.
+ */
+public class ZoneMapFilter implements Sinkable {
+    public static final int OP_EQ = 0;
+    public static final int OP_NE = 1;
+    public static final int OP_LT = 2;
+    public static final int OP_LE = 3;
+    public static final int OP_GT = 4;
+    public static final int OP_GE = 5;
+    public static final int OP_IS_NULL = 6;
+    public static final int OP_IS_NOT_NULL = 7;
+    // equality of doubles is approximate, see EqDoubleFunctionFactory
+    private static final double DOUBLE_EQ_TOLERANCE = 0.0000000001;
+    private static final String[] OP_NAMES = {"=", "!=", "<", "<=", ">", ">=", "is null", "is not null"};
+    // distinct reader column indexes and their types
+    private final IntList columnIndexes = new IntList();
+    private final IntList columnTypes = new IntList();
+    // 1 when Bloom filters of the column should be used, 0 otherwise
+    private final IntList columnBloomFilters = new IntList();
+    // predicate -> index in columnIndexes
+    private final IntList predicateColumns = new IntList();
+    private final IntList predicateOps = new IntList();
+    // long value or raw double bits
+    private final LongList predicateValues = new LongList();
+    // Bloom filter hash of equality predicate value
+    private final LongList predicateHashes = new LongList();
+    // values of string and symbol predicates, they are only kept for printing
+    private final ObjList<CharSequence> predicateStrings = new ObjList<>();
+
+    public void add(int columnIndex, int columnType, int op, long value) {
+        add0(columnIndex, columnType, op, value, op == OP_EQ ? BloomFilterReader.hashLong(value) : 0, null);
+    }
+
+    public void add(int columnIndex, int columnType, int op, double value) {
+        add0(columnIndex, columnType, op, Double.doubleToRawLongBits(value), 0, null);
+    }
+
+    /**
+     * Adds equality predicate of a column that has no zone map, e.g. string or symbol.
+     * Such predicate is only checked against Bloom filters.
+     *
+     * @param columnIndex reader column index
+     * @param columnType  column type
+     * @param hash        value hash, see {@link BloomFilterReader}
+     * @param value       value as it appears in SQL
+     */
+    public void addEq(int columnIndex, int columnType, long hash, CharSequence value) {
+        add0(columnIndex, columnType, OP_EQ, 0, hash, value);
+    }
+
+    /**
+     * Marks column as one that may have Bloom filters in table partitions.
+     */
+    public void enableBloomFilter(int columnIndex) {
+        final int slot = columnIndexes.indexOf(columnIndex, 0, columnIndexes.size());
+        if (slot > -1) {
+            columnBloomFilters.setQuick(slot, 1);
+        }
+    }
+
+    public int getColumnCount() {
+        return columnIndexes.size();
+    }
+
+    public int getColumnIndex(int slot) {
+        return columnIndexes.getQuick(slot);
+    }
+
+    public int getColumnType(int slot) {
+        return columnTypes.getQuick(slot);
+    }
+
+    public int getPredicateColumn(int predicate) {
+        return predicateColumns.getQuick(predicate);
+    }
+
+    public int getPredicateCount() {
+        return predicateOps.size();
+    }
+
+    public boolean isBloomFilterEnabled(int slot) {
+        return columnBloomFilters.getQuick(slot) == 1;
+    }
+
+    public boolean isEmpty() {
+        return predicateOps.size() == 0;
+    }
+
+    /**
+     * @param predicate   index of predicate
+     * @param bloomFilter Bloom filter of predicate column
+     * @param block       block index within partition
+     * @return false only when none of the block rows can satisfy the predicate
+     */
+    public boolean mayMatch(int predicate, BloomFilterReader bloomFilter, long block) {
+        return predicateOps.getQuick(predicate) != OP_EQ
+                || !bloomFilter.isBlockCovered(block)
+                || bloomFilter.mayContain(block, predicateHashes.getQuick(predicate));
+    }
+
+    /**
+     * @param predicate index of predicate
+     * @param zoneMap   zone map of predicate column
+     * @param block     block index within partition
+     * @return false only when none of the block rows can satisfy the predicate
+     */
+    public boolean mayMatch(int predicate, ZoneMapReader zoneMap, long block) {
+        if (!zoneMap.isBlockCovered(block)) {
+            return true;
+        }
+        final int op = predicateOps.getQuick(predicate);
+        final long nullCount = zoneMap.getNullCount(block);
+        if (ColumnType.tagOf(columnTypes.getQuick(predicateColumns.getQuick(predicate))) == ColumnType.DOUBLE) {
+            return mayMatchDouble(
+                    op,
+                    Double.longBitsToDouble(predicateValues.getQuick(predicate)),
+                    zoneMap.getMinDouble(block),
+                    zoneMap.getMaxDouble(block),
+                    nullCount
+            );
+        }
+        return mayMatchLong(
+                op,
+                predicateValues.getQuick(predicate),
+                zoneMap.getMinLong(block),
+                zoneMap.getMaxLong(block),
+                nullCount
+        );
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        for (int i = 0, n = predicateOps.size(); i < n; i++) {
+            if (i > 0) {
+                sink.put(" and ");
+            }
+            final int slot = predicateColumns.getQuick(i);
+            final int op = predicateOps.getQuick(i);
+            sink.put('#').put(columnIndexes.getQuick(slot)).put(' ').put(OP_NAMES[op]);
+            if (op < OP_IS_NULL) {
+                sink.put(' ');
+                final CharSequence str = predicateStrings.getQuick(i);
+                if (str != null) {
+                    sink.put('\'').put(str).put('\'');
+                } else if (ColumnType.tagOf(columnTypes.getQuick(slot)) == ColumnType.DOUBLE) {
+                    sink.put(Double.longBitsToDouble(predicateValues.getQuick(i)));
+                } else {
+                    sink.put(predicateValues.getQuick(i));
+                }
+            }
+        }
+    }
+
+    private void add0(int columnIndex, int columnType, int op, long value, long hash, CharSequence str) {
+        int slot = columnIndexes.indexOf(columnIndex, 0, columnIndexes.size());
+        if (slot < 0) {
+            slot = columnIndexes.size();
+            columnIndexes.add(columnIndex);
+            columnTypes.add(columnType);
+            columnBloomFilters.add(0);
+        }
+        predicateColumns.add(slot);
+        predicateOps.add(op);
+        predicateValues.add(value);
+        predicateHashes.add(hash);
+        predicateStrings.add(str);
+    }
+
+    // min greater than max means the block has nulls only
+    private static boolean mayMatchDouble(int op, double value, double min, double max, long nullCount) {
+        switch (op) {
+            case OP_EQ:
+                return min <= max && value >= min - DOUBLE_EQ_TOLERANCE && value <= max + DOUBLE_EQ_TOLERANCE;
+            case OP_NE:
+                return nullCount > 0 || min != value || max != value;
+            case OP_LT:
+                return min < value;
+            case OP_LE:
+                return min <= value;
+            case OP_GT:
+                return max > value;
+            case OP_GE:
+                return max >= value;
+            case OP_IS_NULL:
+                return nullCount > 0;
+            case OP_IS_NOT_NULL:
+                return min <= max;
+            default:
+                return true;
+        }
+    }
+
+    // Ordered comparison of long values can be done by SQL either as long or as double
+    // comparison, block is discarded only when both agree.
+    private static boolean mayMatchLong(int op, long value, long min, long max, long nullCount) {
+        switch (op) {
+            case OP_EQ:
+                return min <= value && value <= max;
+            case OP_NE:
+                return nullCount > 0 || min != value || max != value;
+            case OP_LT:
+                return min <= max && (min < value || (double) min < (double) value);
+            case OP_LE:
+                return min <= max && (min <= value || (double) min <= (double) value);
+            case OP_GT:
+                return min <= max && (max > value || (double) max > (double) value);
+            case OP_GE:
+                return min <= max && (max >= value || (double) max >= (double) value);
+            case OP_IS_NULL:
+                return nullCount > 0;
+            case OP_IS_NOT_NULL:
+                return min <= max;
+            default:
+                return true;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+import java.io.Closeable;
+
+/**
+ * Splits row range of a partition into runs of blocks that may match {@link ZoneMapFilter}.
+ * Blocks that cannot match are skipped altogether. Columns without zone map or Bloom filter
+ * do not discard anything, so that pruner degrades to returning the original range.
+ */
+public class ZoneMapPruner implements Closeable {
+    private final ZoneMapFilter filter;
+    private final ObjList<ZoneMapReader> zoneMaps = new ObjList<>();
+    private final ObjList<BloomFilterReader> bloomFilters = new ObjList<>();
+    // zone maps and Bloom filters that are usable for current partition
+    private final boolean[] available;
+    private final boolean[] bloomFilterAvailable;
+    private boolean pruning;
+    private int unitShift;
+    private int partitionIndex;
+    private long position;
+    private long limit;
+    private long rowLo;
+    private long rowHi;
+    private long prunedRowCount;
+
+    public ZoneMapPruner(ZoneMapFilter filter) {
+        this.filter = filter;
+        final int n = filter.getColumnCount();
+        for (int i = 0; i < n; i++) {
+            zoneMaps.add(new ZoneMapReader());
+            bloomFilters.add(filter.isBloomFilterEnabled(i) ? new BloomFilterReader() : null);
+        }
+        this.available = new boolean[n];
+        this.bloomFilterAvailable = new boolean[n];
+    }
+
+    public void clear() {
+        for (int i = 0, n = zoneMaps.size(); i < n; i++) {
+            zoneMaps.getQuick(i).close();
+            Misc.free(bloomFilters.getQuick(i));
+        }
+        position = limit = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.freeObjList(zoneMaps);
+        Misc.freeObjList(bloomFilters);
+    }
+
+    public int getPartitionIndex() {
+        return partitionIndex;
+    }
+
+    /**
+     * @return number of rows skipped since the pruner was created
+     */
+    public long getPrunedRowCount() {
+        return prunedRowCount;
+    }
+
+    public long getRowHi() {
+        return rowHi;
+    }
+
+    public long getRowLo() {
+        return rowLo;
+    }
+
+    /**
+     * Finds next run of blocks that may match the filter.
+     *
+     * @return false when range of the partition is exhausted
+     */
+    public boolean next() {
+        if (position >= limit) {
+            return false;
+        }
+
+        if (!pruning) {
+            rowLo = position;
+            rowHi = limit;
+            position = limit;
+            return true;
+        }
+
+        long unit = position >>> unitShift;
+        while (!mayMatch(unit << unitShift)) {
+            unit++;
+            if (unit << unitShift >= limit) {
+                prunedRowCount += limit - position;
+                position = limit;
+                return false;
+            }
+        }
+        final long lo = Math.max(position, unit << unitShift);
+        prunedRowCount += lo - position;
+
+        unit++;
+        while (unit << unitShift < limit && mayMatch(unit << unitShift)) {
+            unit++;
+        }
+        rowLo = lo;
+        rowHi = Math.min(limit, unit << unitShift);
+        position = rowHi;
+        return true;
+    }
+
+    /**
+     * Prepares pruning of [lo, hi) row range of partition. Partition must be open.
+     */
+    public void of(TableReader reader, int partitionIndex, long lo, long hi) {
+        this.partitionIndex = partitionIndex;
+        this.position = lo;
+        this.limit = hi;
+        this.pruning = false;
+        this.unitShift = Integer.MAX_VALUE;
+
+        final long partitionRowCount = reader.openPartition(partitionIndex);
+        for (int i = 0, n = zoneMaps.size(); i < n; i++) {
+            final int columnIndex = filter.getColumnIndex(i);
+            final ZoneMapReader zoneMap = zoneMaps.getQuick(i);
+            available[i] = ZoneMapReader.isSupported(filter.getColumnType(i))
+                    && reader.openZoneMap(partitionIndex, columnIndex, zoneMap, partitionRowCount);
+            if (available[i]) {
+                pruning = true;
+                unitShift = Math.min(unitShift, zoneMap.getBlockRowsShift());
+            }
+            final BloomFilterReader bloomFilter = bloomFilters.getQuick(i);
+            bloomFilterAvailable[i] = bloomFilter != null
+                    && reader.openBloomFilter(partitionIndex, columnIndex, bloomFilter, partitionRowCount);
+            if (bloomFilterAvailable[i]) {
+                pruning = true;
+                unitShift = Math.min(unitShift, bloomFilter.getBlockRowsShift());
+            }
+        }
+    }
+
+    private boolean mayMatch(long row) {
+        for (int i = 0, n = filter.getPredicateCount(); i < n; i++) {
+            final int slot = filter.getPredicateColumn(i);
+            if (available[slot]) {
+                final ZoneMapReader zoneMap = zoneMaps.getQuick(slot);
+                if (!filter.mayMatch(i, zoneMap, row >>> zoneMap.getBlockRowsShift())) {
+                    return false;
+                }
+            }
+            if (bloomFilterAvailable[slot]) {
+                final BloomFilterReader bloomFilter = bloomFilters.getQuick(slot);
+                if (!filter.mayMatch(i, bloomFilter, row >>> bloomFilter.getBlockRowsShift())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
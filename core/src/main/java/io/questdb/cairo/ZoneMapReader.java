@@ -0,0 +1,167 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+
+import java.io.Closeable;
+
+/**
+ * Read-only view of a column zone map file. The file is a fixed header followed by
+ * one entry per block of rows:
+ * <pre>
+ *     header: covered row count (8), block row count (8), column type (8), reserved (8)
+ *     entry:  min (8), max (8), null count (8)
+ * </pre>
+ * Integer columns store min and max as longs, double columns store raw double bits.
+ * Block with no values has min greater than max. Writer appends entries first and
+ * publishes covered row count last, so that a block is only trusted when covered row
+ * count reaches the end of the block as seen by the reader.
+ */
+public class ZoneMapReader implements Closeable {
+    static final int HEADER_OFFSET_COVERED_ROWS = 0;
+    static final int HEADER_OFFSET_BLOCK_ROWS = 8;
+    static final int HEADER_OFFSET_COLUMN_TYPE = 16;
+    static final int HEADER_SIZE = 32;
+    static final int ENTRY_OFFSET_MIN = 0;
+    static final int ENTRY_OFFSET_MAX = 8;
+    static final int ENTRY_OFFSET_NULL_COUNT = 16;
+    static final int ENTRY_SIZE = 24;
+    private FilesFacade ff;
+    private long address;
+    private long size;
+    private long coveredRows;
+    private long partitionRowCount;
+    private int blockRowsShift;
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (address != 0) {
+            ff.munmap(address, size, MemoryTag.MMAP_TABLE_READER);
+            address = 0;
+            size = 0;
+        }
+    }
+
+    public int getBlockRowsShift() {
+        return blockRowsShift;
+    }
+
+    public double getMaxDouble(long block) {
+        return Unsafe.getUnsafe().getDouble(entryAddress(block) + ENTRY_OFFSET_MAX);
+    }
+
+    public long getMaxLong(long block) {
+        return Unsafe.getUnsafe().getLong(entryAddress(block) + ENTRY_OFFSET_MAX);
+    }
+
+    public double getMinDouble(long block) {
+        return Unsafe.getUnsafe().getDouble(entryAddress(block) + ENTRY_OFFSET_MIN);
+    }
+
+    public long getMinLong(long block) {
+        return Unsafe.getUnsafe().getLong(entryAddress(block) + ENTRY_OFFSET_MIN);
+    }
+
+    public long getNullCount(long block) {
+        return Unsafe.getUnsafe().getLong(entryAddress(block) + ENTRY_OFFSET_NULL_COUNT);
+    }
+
+    /**
+     * Block statistics can be used only when writer covered all rows of the block
+     * that are visible to the reader.
+     *
+     * @param block block index within partition
+     * @return true when min, max and null count of the block are reliable
+     */
+    public boolean isBlockCovered(long block) {
+        final long blockRowHi = Math.min((block + 1) << blockRowsShift, partitionRowCount);
+        return coveredRows >= blockRowHi && HEADER_SIZE + (block + 1) * ENTRY_SIZE <= size;
+    }
+
+    /**
+     * Maps zone map file of a column partition.
+     *
+     * @param ff                files facade
+     * @param path              path to zone map file
+     * @param columnType        type of column as seen by the reader, file of a different type is ignored
+     * @param partitionRowCount number of partition rows visible to the reader
+     * @return false when file does not exist or cannot be used
+     */
+    public boolean of(FilesFacade ff, LPSZ path, int columnType, long partitionRowCount) {
+        close();
+        final long fd = ff.openRO(path);
+        if (fd < 0) {
+            return false;
+        }
+        try {
+            final long len = ff.length(fd);
+            if (len < HEADER_SIZE) {
+                return false;
+            }
+            final long addr = ff.mmap(fd, len, 0, Files.MAP_RO, MemoryTag.MMAP_TABLE_READER);
+            if (addr == FilesFacade.MAP_FAILED) {
+                return false;
+            }
+            this.ff = ff;
+            this.address = addr;
+            this.size = len;
+        } finally {
+            ff.close(fd);
+        }
+
+        final long blockRows = Unsafe.getUnsafe().getLong(address + HEADER_OFFSET_BLOCK_ROWS);
+        if (blockRows < 1 || (blockRows & (blockRows - 1)) != 0
+                || Unsafe.getUnsafe().getLong(address + HEADER_OFFSET_COLUMN_TYPE) != columnType) {
+            close();
+            return false;
+        }
+        this.blockRowsShift = Numbers.msb(blockRows);
+        this.partitionRowCount = partitionRowCount;
+        this.coveredRows = Unsafe.getUnsafe().getLong(address + HEADER_OFFSET_COVERED_ROWS);
+        // entries are published before covered row count
+        Unsafe.getUnsafe().loadFence();
+        return true;
+    }
+
+    private long entryAddress(long block) {
+        return address + HEADER_SIZE + block * ENTRY_SIZE;
+    }
+}
@@ -0,0 +1,320 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+import static io.questdb.cairo.ZoneMapReader.*;
+
+/**
+ * Maintains per-block min, max and null count of numeric column partitions. Statistics
+ * are updated incrementally: rows already covered by the zone map file are not read again.
+ * See {@link ZoneMapReader} for the file layout.
+ */
+public class ZoneMapWriter implements Closeable {
+    private static final Log LOG = LogFactory.getLog(ZoneMapWriter.class);
+    private final FilesFacade ff;
+    private final long blockRows;
+    private final int blockRowsShift;
+    private final long fileOpenOpts;
+    private final MemoryCMARW mem = Vm.getCMARWInstance();
+    private long minLong;
+    private long maxLong;
+    private double minDouble;
+    private double maxDouble;
+    private long nullCount;
+
+    public ZoneMapWriter(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.blockRows = configuration.getZoneMapBlockRows();
+        this.blockRowsShift = Numbers.msb(blockRows);
+        this.fileOpenOpts = configuration.getWriterFileOpenOpts();
+    }
+
+    @Override
+    public void close() {
+        closeZoneMap();
+    }
+
+    public long getBlockRows() {
+        return blockRows;
+    }
+
+    /**
+     * Brings zone map of column partition up to date with the partition row count.
+     *
+     * @param path          path to partition directory, it is restored before the method returns
+     * @param columnName    name of the column
+     * @param columnNameTxn column name txn in the partition
+     * @param columnType    column type, must be supported by {@link ZoneMapReader#isSupported(int)}
+     * @param columnTop     column top in the partition
+     * @param rowCount      partition row count
+     */
+    public void update(Path path, CharSequence columnName, long columnNameTxn, int columnType, long columnTop, long rowCount) {
+        if (rowCount < 1) {
+            return;
+        }
+        final int plen = path.length();
+        try {
+            final long coveredRows = openZoneMap(path, columnName, columnNameTxn, columnType, rowCount);
+            if (coveredRows < rowCount) {
+                updateBlocks(path.trimTo(plen), columnName, columnNameTxn, columnType, columnTop, coveredRows, rowCount);
+            }
+        } finally {
+            path.trimTo(plen);
+            closeZoneMap();
+        }
+    }
+
+    private void closeZoneMap() {
+        if (mem.isOpen()) {
+            // do not let close() zero out the tail of the file
+            mem.jumpTo(mem.size());
+            mem.close(false);
+        }
+    }
+
+    private void initBlock(int columnType) {
+        if (ColumnType.tagOf(columnType) == ColumnType.DOUBLE) {
+            minDouble = Double.POSITIVE_INFINITY;
+            maxDouble = Double.NEGATIVE_INFINITY;
+        } else {
+            minLong = Long.MAX_VALUE;
+            maxLong = Long.MIN_VALUE;
+        }
+        nullCount = 0;
+    }
+
+    private void loadBlock(int columnType, long entryOffset) {
+        if (ColumnType.tagOf(columnType) == ColumnType.DOUBLE) {
+            minDouble = mem.getDouble(entryOffset + ENTRY_OFFSET_MIN);
+            maxDouble = mem.getDouble(entryOffset + ENTRY_OFFSET_MAX);
+        } else {
+            minLong = mem.getLong(entryOffset + ENTRY_OFFSET_MIN);
+            maxLong = mem.getLong(entryOffset + ENTRY_OFFSET_MAX);
+        }
+        nullCount = mem.getLong(entryOffset + ENTRY_OFFSET_NULL_COUNT);
+    }
+
+    private long openZoneMap(Path path, CharSequence columnName, long columnNameTxn, int columnType, long rowCount) {
+        TableUtils.zmFile(path, columnName, columnNameTxn);
+        final long len = ff.length(path);
+        if (len >= HEADER_SIZE) {
+            mem.of(ff, path, ff.getPageSize(), len, MemoryTag.MMAP_TABLE_WRITER, fileOpenOpts, -1);
+            final long coveredRows = mem.getLong(HEADER_OFFSET_COVERED_ROWS);
+            if (mem.getLong(HEADER_OFFSET_BLOCK_ROWS) == blockRows
+                    && mem.getLong(HEADER_OFFSET_COLUMN_TYPE) == columnType
+                    && coveredRows <= rowCount) {
+                return coveredRows;
+            }
+            closeZoneMap();
+        }
+
+        if (len > -1) {
+            // Incompatible or damaged file. Readers may still have it mapped, so rather than
+            // rewriting it in place we replace it with a new file.
+            LOG.info().$("rebuilding zone map [path=").$(path).I$();
+            if (!ff.remove(path)) {
+                throw CairoException.critical(ff.errno()).put("could not remove zone map [file=").put(path).put(']');
+            }
+        }
+
+        mem.of(ff, path, ff.getPageSize(), -1, MemoryTag.MMAP_TABLE_WRITER, fileOpenOpts, -1);
+        mem.putLong(HEADER_OFFSET_COVERED_ROWS, 0);
+        mem.putLong(HEADER_OFFSET_BLOCK_ROWS, blockRows);
+        mem.putLong(HEADER_OFFSET_COLUMN_TYPE, columnType);
+        return 0;
+    }
+
+    private void scan(int columnType, long address, long count) {
+        long min = minLong;
+        long max = maxLong;
+        long nulls = nullCount;
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+                for (long p = address, lim = address + count; p < lim; p++) {
+                    final byte v = Unsafe.getUnsafe().getByte(p);
+                    min = Math.min(min, v);
+                    max = Math.max(max, v);
+                }
+                break;
+            case ColumnType.SHORT:
+                for (long p = address, lim = address + count * Short.BYTES; p < lim; p += Short.BYTES) {
+                    final short v = Unsafe.getUnsafe().getShort(p);
+                    min = Math.min(min, v);
+                    max = Math.max(max, v);
+                }
+                break;
+            case ColumnType.INT:
+                for (long p = address, lim = address + count * Integer.BYTES; p < lim; p += Integer.BYTES) {
+                    final int v = Unsafe.getUnsafe().getInt(p);
+                    if (v != Numbers.INT_NaN) {
+                        min = Math.min(min, v);
+                        max = Math.max(max, v);
+                    } else {
+                        nulls++;
+                    }
+                }
+                break;
+            case ColumnType.DOUBLE:
+                scanDouble(address, count);
+                return;
+            default:
+                for (long p = address, lim = address + count * Long.BYTES; p < lim; p += Long.BYTES) {
+                    final long v = Unsafe.getUnsafe().getLong(p);
+                    if (v != Numbers.LONG_NaN) {
+                        min = Math.min(min, v);
+                        max = Math.max(max, v);
+                    } else {
+                        nulls++;
+                    }
+                }
+                break;
+        }
+        minLong = min;
+        maxLong = max;
+        nullCount = nulls;
+    }
+
+    private void scanDouble(long address, long count) {
+        double min = minDouble;
+        double max = maxDouble;
+        long nulls = nullCount;
+        for (long p = address, lim = address + count * Double.BYTES; p < lim; p += Double.BYTES) {
+            final double v = Unsafe.getUnsafe().getDouble(p);
+            if (v == v) {
+                // plain comparison to be consistent with how SQL compares doubles
+                if (v < min) {
+                    min = v;
+                }
+                if (v > max) {
+                    max = v;
+                }
+            } else {
+                nulls++;
+            }
+        }
+        minDouble = min;
+        maxDouble = max;
+        nullCount = nulls;
+    }
+
+    private void storeBlock(int columnType, long entryOffset) {
+        if (ColumnType.tagOf(columnType) == ColumnType.DOUBLE) {
+            mem.putDouble(entryOffset + ENTRY_OFFSET_MIN, minDouble);
+            mem.putDouble(entryOffset + ENTRY_OFFSET_MAX, maxDouble);
+        } else {
+            mem.putLong(entryOffset + ENTRY_OFFSET_MIN, minLong);
+            mem.putLong(entryOffset + ENTRY_OFFSET_MAX, maxLong);
+        }
+        mem.putLong(entryOffset + ENTRY_OFFSET_NULL_COUNT, nullCount);
+    }
+
+    private void updateBlocks(
+            Path path,
+            CharSequence columnName,
+            long columnNameTxn,
+            int columnType,
+            long columnTop,
+            long coveredRows,
+            long rowCount
+    ) {
+        final int shl = ColumnType.pow2SizeOf(columnType);
+        final long dataRowLo = Math.max(coveredRows, columnTop) - columnTop;
+        final long dataRowHi = rowCount - columnTop;
+
+        long fd = -1;
+        long mapAddress = 0;
+        long mapOffset = 0;
+        long mapSize = 0;
+        try {
+            if (dataRowLo < dataRowHi) {
+                fd = TableUtils.openRO(ff, TableUtils.dFile(path, columnName, columnNameTxn), LOG);
+                final long dataLo = dataRowLo << shl;
+                final long dataHi = dataRowHi << shl;
+                if (ff.length(fd) < dataHi) {
+                    throw CairoException.critical(0).put("column file is too short [file=").put(path)
+                            .put(", expectedSize=").put(dataHi)
+                            .put(", actualSize=").put(ff.length(fd))
+                            .put(']');
+                }
+                mapOffset = dataLo - dataLo % ff.getPageSize();
+                mapSize = dataHi - mapOffset;
+                mapAddress = TableUtils.mapRO(ff, fd, mapSize, mapOffset, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            // address of the first column value in the file
+            final long dataAddress = mapAddress - mapOffset;
+            final boolean nullable = ColumnType.tagOf(columnType) != ColumnType.BYTE && ColumnType.tagOf(columnType) != ColumnType.SHORT;
+
+            for (long block = coveredRows >>> blockRowsShift, blockHi = (rowCount - 1) >>> blockRowsShift; block <= blockHi; block++) {
+                final long blockRowLo = block << blockRowsShift;
+                final long blockRowHi = Math.min(blockRowLo + blockRows, rowCount);
+                final long rowLo = Math.max(coveredRows, blockRowLo);
+                final long entryOffset = HEADER_SIZE + block * ENTRY_SIZE;
+
+                if (rowLo > blockRowLo) {
+                    loadBlock(columnType, entryOffset);
+                } else {
+                    initBlock(columnType);
+                }
+
+                // rows above column top are nulls, byte and short read them as 0
+                final long topRows = Math.min(blockRowHi, columnTop) - rowLo;
+                if (topRows > 0) {
+                    if (nullable) {
+                        nullCount += topRows;
+                    } else {
+                        minLong = Math.min(minLong, 0);
+                        maxLong = Math.max(maxLong, 0);
+                    }
+                }
+
+                final long dataBlockLo = Math.max(rowLo, columnTop);
+                if (dataBlockLo < blockRowHi) {
+                    scan(columnType, dataAddress + ((dataBlockLo - columnTop) << shl), blockRowHi - dataBlockLo);
+                }
+                storeBlock(columnType, entryOffset);
+            }
+
+            // publish entries before covered row count
+            Unsafe.getUnsafe().storeFence();
+            mem.putLong(HEADER_OFFSET_COVERED_ROWS, rowCount);
+        } finally {
+            if (mapAddress != 0) {
+                ff.munmap(mapAddress, mapSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            if (fd != -1) {
+                ff.close(fd);
+            }
+        }
+    }
+}
@@ -256,6 +256,7 @@ public class CompactMap implements Map, Reopenable {
                 case ColumnType.LONG:
                 case ColumnType.DATE:
                 case ColumnType.TIMESTAMP:
+                case ColumnType.VARCHAR:
                 case ColumnType.STRING:
                 case ColumnType.BINARY:
                 case ColumnType.GEOLONG:
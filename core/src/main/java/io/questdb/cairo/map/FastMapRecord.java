@@ -74,6 +74,7 @@ final class FastMapRecord implements MapRecord {
 
         for (int i = 0; i < n; i++) {
             switch (ColumnType.tagOf(keyTypes.getColumnType(i))) {
+                case ColumnType.VARCHAR:
                 case ColumnType.STRING:
                     if (csA == null) {
                         csA = new DirectCharSequence[n + split];
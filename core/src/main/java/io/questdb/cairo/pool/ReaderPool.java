@@ -28,6 +28,7 @@ import io.questdb.MessageBus;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoException;
 import io.questdb.cairo.EntryUnavailableException;
+import io.questdb.cairo.SymbolDictionaryCache;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.pool.ex.EntryLockedException;
 import io.questdb.cairo.pool.ex.PoolClosedException;
@@ -35,6 +36,7 @@ import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.ConcurrentHashMap;
 import io.questdb.std.Unsafe;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
 import java.util.Map;
@@ -52,12 +54,18 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
     private final ConcurrentHashMap<Entry> entries = new ConcurrentHashMap<>();
     private final int maxSegments;
     private final MessageBus messageBus;
+    private final SymbolDictionaryCache symbolDictionaryCache;
     private final int maxEntries;
 
     public ReaderPool(CairoConfiguration configuration, MessageBus messageBus) {
+        this(configuration, messageBus, null);
+    }
+
+    public ReaderPool(CairoConfiguration configuration, MessageBus messageBus, @Nullable SymbolDictionaryCache symbolDictionaryCache) {
         super(configuration, configuration.getInactiveReaderTTL());
         this.maxSegments = configuration.getReaderPoolMaxSegments();
         this.messageBus = messageBus;
+        this.symbolDictionaryCache = symbolDictionaryCache;
         this.maxEntries = maxSegments * ENTRY_SIZE;
     }
 
@@ -90,7 +98,7 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
                                     .$("open '").utf8(name)
                                     .$("' [at=").$(e.index).$(':').$(i)
                                     .$(']').$();
-                            r = new R(this, e, i, name, messageBus);
+                            r = new R(this, e, i, name, messageBus, symbolDictionaryCache);
                         } catch (CairoException ex) {
                             Unsafe.arrayPutOrdered(e.allocations, i, UNALLOCATED);
                             throw ex;
@@ -379,8 +387,15 @@ public class ReaderPool extends AbstractPool implements ResourcePool<TableReader
         private ReaderPool pool;
         private Entry entry;
 
-        public R(ReaderPool pool, Entry entry, int index, CharSequence name, MessageBus messageBus) {
-            super(pool.getConfiguration(), name, messageBus);
+        public R(
+                ReaderPool pool,
+                Entry entry,
+                int index,
+                CharSequence name,
+                MessageBus messageBus,
+                SymbolDictionaryCache symbolDictionaryCache
+        ) {
+            super(pool.getConfiguration(), name, messageBus, symbolDictionaryCache);
             this.pool = pool;
             this.entry = entry;
             this.index = index;
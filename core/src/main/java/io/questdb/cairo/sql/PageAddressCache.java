@@ -36,6 +36,9 @@ public class PageAddressCache implements Mutable {
 
     // Index remapping for variable length columns.
     private final IntList varLenColumnIndexes = new IntList();
+    // Value size shift for fixed size columns, -1 for variable length columns.
+    private final IntList columnShiftBits = new IntList();
+    private final IntList columnTypes = new IntList();
 
     private LongList pageAddresses = new LongList();
     // Index page addresses and page sizes are stored only for variable length columns.
@@ -50,11 +53,16 @@ public class PageAddressCache implements Mutable {
     public void of(@Transient RecordMetadata metadata) {
         this.columnCount = metadata.getColumnCount();
         this.varLenColumnIndexes.setAll(columnCount, -1);
+        this.columnShiftBits.setAll(columnCount, -1);
+        this.columnTypes.clear();
         this.varLenColumnCount = 0;
         for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
             final int columnType = metadata.getColumnType(columnIndex);
+            columnTypes.add(columnType);
             if (ColumnType.isVariableLength(columnType)) {
                 varLenColumnIndexes.setQuick(columnIndex, varLenColumnCount++);
+            } else {
+                columnShiftBits.setQuick(columnIndex, ColumnType.pow2SizeOf(columnType));
             }
         }
     }
@@ -62,6 +70,8 @@ public class PageAddressCache implements Mutable {
     @Override
     public void clear() {
         varLenColumnIndexes.clear();
+        columnShiftBits.clear();
+        columnTypes.clear();
         if (pageAddresses.size() < cacheSizeThreshold) {
             pageAddresses.clear();
             indexPageAddresses.clear();
@@ -102,6 +112,19 @@ public class PageAddressCache implements Mutable {
         return indexPageAddresses.getQuick(varLenColumnCount * frameIndex + varLenColumnIndex);
     }
 
+    public int getColumnShiftBits(int columnIndex) {
+        assert columnShiftBits.getQuick(columnIndex) > -1;
+        return columnShiftBits.getQuick(columnIndex);
+    }
+
+    public boolean isVarcharColumn(int columnIndex) {
+        return ColumnType.isVarchar(columnTypes.getQuick(columnIndex));
+    }
+
+    public boolean isVarLenColumn(int columnIndex) {
+        return varLenColumnIndexes.getQuick(columnIndex) > -1;
+    }
+
     public long getPageSize(int frameIndex, int columnIndex) {
         assert pageSizes.size() >= varLenColumnCount * (frameIndex + 1);
         int varLenColumnIndex = varLenColumnIndexes.getQuick(columnIndex);
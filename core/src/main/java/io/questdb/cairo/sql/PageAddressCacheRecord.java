@@ -26,11 +26,15 @@ package io.questdb.cairo.sql;
 
 import io.questdb.cairo.CairoException;
 import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.VarcharTypeDriver;
 import io.questdb.cairo.vm.NullMemoryMR;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryCR;
 import io.questdb.std.*;
 import io.questdb.std.str.CharSink;
+import io.questdb.std.str.DirectByteCharSequence;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8Sequence;
 
 import java.io.Closeable;
 
@@ -39,6 +43,10 @@ public class PageAddressCacheRecord implements Record, Closeable {
     private final MemoryCR.ByteSequenceView bsview = new MemoryCR.ByteSequenceView();
     private final MemoryCR.CharSequenceView csview = new MemoryCR.CharSequenceView();
     private final MemoryCR.CharSequenceView csview2 = new MemoryCR.CharSequenceView();
+    private final DirectByteCharSequence utf8view = new DirectByteCharSequence();
+    private final DirectByteCharSequence utf8view2 = new DirectByteCharSequence();
+    private final ObjList<StringSink> varcharSinksA = new ObjList<>();
+    private final ObjList<StringSink> varcharSinksB = new ObjList<>();
     private final Long256Impl long256A = new Long256Impl();
     private final Long256Impl long256B = new Long256Impl();
 
@@ -211,6 +219,9 @@ public class PageAddressCacheRecord implements Record, Closeable {
 
     @Override
     public CharSequence getStr(int columnIndex) {
+        if (pageAddressCache.isVarcharColumn(columnIndex)) {
+            return VarcharTypeDriver.toUtf16(getVarchar(columnIndex, utf8view), varcharSinksA, columnIndex);
+        }
         final long dataPageAddress = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (dataPageAddress == 0) {
             return NullMemoryMR.INSTANCE.getStr(0);
@@ -223,6 +234,9 @@ public class PageAddressCacheRecord implements Record, Closeable {
 
     @Override
     public CharSequence getStrB(int columnIndex) {
+        if (pageAddressCache.isVarcharColumn(columnIndex)) {
+            return VarcharTypeDriver.toUtf16(getVarchar(columnIndex, utf8view2), varcharSinksB, columnIndex);
+        }
         final long dataPageAddress = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (dataPageAddress == 0) {
             return NullMemoryMR.INSTANCE.getStr2(0);
@@ -235,6 +249,9 @@ public class PageAddressCacheRecord implements Record, Closeable {
 
     @Override
     public int getStrLen(int columnIndex) {
+        if (pageAddressCache.isVarcharColumn(columnIndex)) {
+            return VarcharTypeDriver.utf16Length(getVarchar(columnIndex, utf8view));
+        }
         final long dataPageAddress = pageAddressCache.getPageAddress(frameIndex, columnIndex);
         if (dataPageAddress == 0) {
             return NullMemoryMR.INSTANCE.getStrLen(0);
@@ -244,6 +261,11 @@ public class PageAddressCacheRecord implements Record, Closeable {
         return Unsafe.getUnsafe().getInt(dataPageAddress + offset);
     }
 
+    @Override
+    public Utf8Sequence getVarchar(int columnIndex) {
+        return getVarchar(columnIndex, utf8view);
+    }
+
     @Override
     public CharSequence getSym(int columnIndex) {
         final long address = pageAddressCache.getPageAddress(frameIndex, columnIndex);
@@ -377,6 +399,32 @@ public class PageAddressCacheRecord implements Record, Closeable {
         return null;
     }
 
+    private DirectByteCharSequence getVarchar(int columnIndex, DirectByteCharSequence view) {
+        final long dataPageAddress = pageAddressCache.getPageAddress(frameIndex, columnIndex);
+        if (dataPageAddress == 0) {
+            return null;
+        }
+        final long indexPageAddress = pageAddressCache.getIndexPageAddress(frameIndex, columnIndex);
+        final long offset = Unsafe.getUnsafe().getLong(indexPageAddress + rowIndex * Long.BYTES);
+        final long pageLimit = pageAddressCache.getPageSize(frameIndex, columnIndex);
+        final long address = dataPageAddress + offset;
+        final long len = Unsafe.getUnsafe().getLong(address);
+        if (len != TableUtils.NULL_LEN) {
+            if (len + Long.BYTES + offset <= pageLimit) {
+                return view.of(address + Long.BYTES, address + Long.BYTES + len);
+            }
+            throw CairoException.critical(0)
+                    .put("Varchar is outside of file boundary [offset=")
+                    .put(offset)
+                    .put(", len=")
+                    .put(len)
+                    .put(", pageLimit=")
+                    .put(pageLimit)
+                    .put(']');
+        }
+        return null;
+    }
+
     private SymbolTable getSymbolTable(int columnIndex) {
         SymbolTable symbolTable = symbolTableCache.getQuiet(columnIndex);
         if (symbolTable == null) {
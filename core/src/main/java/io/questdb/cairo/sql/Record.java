@@ -27,6 +27,7 @@ package io.questdb.cairo.sql;
 import io.questdb.std.BinarySequence;
 import io.questdb.std.Long256;
 import io.questdb.std.str.CharSink;
+import io.questdb.std.str.Utf8Sequence;
 
 /**
  * Access the value of columns of a table record by column index.
@@ -252,6 +253,17 @@ public interface Record {
         sink.put(getStr(col));
     }
 
+    /**
+     * Gets the value of a varchar column by index. Varchar values are stored as
+     * UTF-8 and are returned without transcoding.
+     *
+     * @param col numeric index of the column
+     * @return UTF-8 byte sequence, null if value is null
+     */
+    default Utf8Sequence getVarchar(int col) {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * Gets the value of a string column by index
      * getStrB used for A/B comparison with getStr to compare references
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql.async;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.PageAddressCache;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+
+/**
+ * Advises the kernel to read ahead column pages of the page frames that are about to be
+ * reduced, so that page faults on partitions that are not in page cache are taken by the
+ * kernel while workers filter preceding frames. When io_uring is available, advices are
+ * batched and submitted with a single syscall per call to {@link #prefetch}.
+ * <p>
+ * The prefetcher is not thread safe, it is used by the query owner thread only.
+ */
+public class PageFramePrefetcher implements QuietCloseable {
+
+    private static final Log LOG = LogFactory.getLog(PageFramePrefetcher.class);
+    // madvise length is limited to int in io_uring sqe
+    private static final long MAX_ADVICE_LEN = 1L << 30;
+    private static final int RING_CAPACITY = 64;
+
+    private final FilesFacade ff;
+    private final boolean ioURingEnabled;
+    private final int prefetchFrames;
+    private final IOURingFacade rf;
+    private int inFlight;
+    private int prefetchedFrameCount;
+    private IOURing ring;
+    private boolean ringInitialized;
+
+    public PageFramePrefetcher(CairoConfiguration configuration) {
+        this.ff = configuration.getFilesFacade();
+        this.rf = configuration.getIOURingFacade();
+        this.ioURingEnabled = configuration.isIOURingEnabled();
+        // WILLNEED is only supported on Linux
+        this.prefetchFrames = Files.POSIX_MADV_WILLNEED > -1 ? configuration.getSqlPageFramePrefetchFrames() : 0;
+    }
+
+    public void clear() {
+        await();
+        prefetchedFrameCount = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        ring = Misc.free(ring);
+        ringInitialized = false;
+    }
+
+    /**
+     * Advises read-ahead of the frames that are within the prefetch distance from
+     * the reduced frame count and were not advised yet.
+     *
+     * @param pageAddressCache   page addresses of the frame sequence
+     * @param frameRowCounts     row counts of the frames
+     * @param reducedFrameCount  number of frames reduced so far
+     */
+    public void prefetch(PageAddressCache pageAddressCache, LongList frameRowCounts, int reducedFrameCount) {
+        if (prefetchFrames == 0) {
+            return;
+        }
+        final int limit = (int) Math.min(frameRowCounts.size(), (long) reducedFrameCount + prefetchFrames);
+        if (prefetchedFrameCount >= limit) {
+            return;
+        }
+        initRing();
+        if (ring != null) {
+            reap();
+        }
+
+        final int columnCount = pageAddressCache.getColumnCount();
+        for (; prefetchedFrameCount < limit; prefetchedFrameCount++) {
+            final int frameIndex = prefetchedFrameCount;
+            final long rowCount = frameRowCounts.getQuick(frameIndex);
+            for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+                final long pageAddress = pageAddressCache.getPageAddress(frameIndex, columnIndex);
+                if (pageAddress == 0) {
+                    // column top
+                    continue;
+                }
+                if (pageAddressCache.isVarLenColumn(columnIndex)) {
+                    advise(pageAddress, pageAddressCache.getPageSize(frameIndex, columnIndex));
+                    advise(pageAddressCache.getIndexPageAddress(frameIndex, columnIndex), rowCount * Long.BYTES);
+                } else {
+                    advise(pageAddress, rowCount << pageAddressCache.getColumnShiftBits(columnIndex));
+                }
+            }
+        }
+
+        if (ring != null) {
+            ring.submit();
+        }
+    }
+
+    private void advise(long address, long len) {
+        // madvise requires page aligned address
+        final long lo = address - address % Files.PAGE_SIZE;
+        final long hi = address + len;
+        for (long addr = lo; addr < hi; addr += MAX_ADVICE_LEN) {
+            final long chunkLen = Math.min(MAX_ADVICE_LEN, hi - addr);
+            if (ring != null && inFlight < RING_CAPACITY) {
+                long id = ring.enqueueMadvise(addr, (int) chunkLen, Files.POSIX_MADV_WILLNEED);
+                if (id == -1) {
+                    // submission queue is full, flush it and try again
+                    ring.submit();
+                    reap();
+                    id = ring.enqueueMadvise(addr, (int) chunkLen, Files.POSIX_MADV_WILLNEED);
+                }
+                if (id > -1) {
+                    inFlight++;
+                    continue;
+                }
+            }
+            ff.madvise(addr, chunkLen, Files.POSIX_MADV_WILLNEED);
+        }
+    }
+
+    // Waits for in-flight advices, so that none of them outlives the frame sequence's mappings.
+    private void await() {
+        while (inFlight > 0) {
+            ring.submitAndWait();
+            reap();
+        }
+    }
+
+    private void initRing() {
+        if (!ringInitialized) {
+            ringInitialized = true;
+            if (ioURingEnabled && rf.isAvailable()) {
+                try {
+                    ring = rf.newInstance(RING_CAPACITY);
+                } catch (CairoException e) {
+                    LOG.error().$("could not create io_uring, falling back to madvise [ex=").$((Throwable) e).I$();
+                }
+            }
+        }
+    }
+
+    private void reap() {
+        // advices are best effort, so errors are ignored
+        while (ring.nextCqe()) {
+            inFlight--;
+        }
+    }
+}
@@ -52,6 +52,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     private final LongList frameRowCounts = new LongList();
     private final PageFrameReducer reducer;
     private final PageAddressCache pageAddressCache;
+    private final PageFramePrefetcher prefetcher;
     private final MessageBus messageBus;
     private final MillisecondClock clock;
     private long id;
@@ -79,6 +80,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
             WeakClosableObjectPool<PageFrameReduceTask> localTaskPool
     ) {
         this.pageAddressCache = new PageAddressCache(configuration);
+        this.prefetcher = new PageFramePrefetcher(configuration);
         this.messageBus = messageBus;
         this.reducer = reducer;
         this.clock = configuration.getMillisecondClock();
@@ -145,6 +147,8 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         frameCount = 0;
         dispatchStartFrameIndex = 0;
         collectedFrameIndex = -1;
+        // in-flight prefetches have to complete before the page addresses become invalid
+        prefetcher.clear();
         pageAddressCache.clear();
         symbolTableSource = Misc.freeIfCloseable(symbolTableSource);
         // collect sequence may not be set here when
@@ -164,6 +168,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     @Override
     public void close() {
         this.clear();
+        Misc.free(prefetcher);
         Misc.freeIfCloseable(circuitBreaker);
         Misc.free(record);
     }
@@ -291,6 +296,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     public long next() {
         assert collectedFrameIndex < frameCount - 1;
         while (true) {
+            prefetch();
             long cursor = collectSubSeq.next();
             if (cursor > -1) {
                 PageFrameReduceTask task = reduceQueue.get(cursor);
@@ -381,6 +387,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         // join the gang to consume published tasks
         while (reduceCounter.get() < frameCount) {
             idle = false;
+            prefetch();
             if (stealWork(reduceQueue, reduceSubSeq, record, circuitBreaker)) {
                 if (isActive()) {
                     continue;
@@ -409,6 +416,10 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         return true;
     }
 
+    private void prefetch() {
+        prefetcher.prefetch(pageAddressCache, frameRowCounts, reduceCounter.get());
+    }
+
     private void workLocally() {
         assert dispatchStartFrameIndex < frameCount;
 
@@ -468,6 +479,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
             id = ID_SEQ.incrementAndGet();
             dispatchStartFrameIndex = 0;
             collectedFrameIndex = -1;
+            prefetcher.clear();
             reduceCounter.set(0);
             valid.set(true);
         }
@@ -29,6 +29,8 @@ import io.questdb.std.BinarySequence;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.Long256;
 import io.questdb.std.Long256Impl;
+import io.questdb.std.str.DirectByteCharSequence;
+import io.questdb.std.str.Utf8Sequence;
 
 //contiguous readable
 public abstract class AbstractMemoryCR implements MemoryCR {
@@ -36,6 +38,8 @@ public abstract class AbstractMemoryCR implements MemoryCR {
     private final MemoryCR.ByteSequenceView bsview = new MemoryCR.ByteSequenceView();
     private final MemoryCR.CharSequenceView csview = new MemoryCR.CharSequenceView();
     private final MemoryCR.CharSequenceView csview2 = new MemoryCR.CharSequenceView();
+    private final DirectByteCharSequence utf8view = new DirectByteCharSequence();
+    private final DirectByteCharSequence utf8view2 = new DirectByteCharSequence();
     private final Long256Impl long256 = new Long256Impl();
     private final Long256Impl long256B = new Long256Impl();
     protected long pageAddress = 0;
@@ -82,6 +86,14 @@ public abstract class AbstractMemoryCR implements MemoryCR {
         return getStr(offset, csview2);
     }
 
+    public final Utf8Sequence getVarcharA(long offset) {
+        return getVarchar(offset, utf8view);
+    }
+
+    public final Utf8Sequence getVarcharB(long offset) {
+        return getVarchar(offset, utf8view2);
+    }
+
     public Long256 getLong256A(long offset) {
         getLong256(offset, long256);
         return long256;
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.CommitMode;
+import io.questdb.cairo.TableUtils;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+
+/**
+ * Block-compressed column file format used for cold partitions.
+ * <p>
+ * File layout, all values little-endian:
+ * <pre>
+ * [magic: long][uncompressed size: long][block size: int][block count: int]
+ * [block offsets: long * (block count + 1)]
+ * [block 0][block 1]...[block N-1]
+ * </pre>
+ * Block offsets are absolute file offsets, the last entry is the end of the last block.
+ * Each block holds up to "block size" bytes of the original column file, deflated without
+ * a zlib wrapper. Blocks that do not compress are stored as is; such blocks are recognised
+ * by their stored length being equal to the uncompressed length.
+ */
+public final class BlockCompression {
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+    public static final long HEADER_BLOCK_COUNT_OFFSET = 20;
+    public static final long HEADER_BLOCK_INDEX_OFFSET = 24;
+    public static final long HEADER_BLOCK_SIZE_OFFSET = 16;
+    public static final long HEADER_MAGIC_OFFSET = 0;
+    public static final long HEADER_SIZE_OFFSET = 8;
+    // "QDBBLKZ" followed by format version
+    public static final long MAGIC = 0x015A4B4C42424451L;
+    private static final Log LOG = LogFactory.getLog(BlockCompression.class);
+
+    private BlockCompression() {
+    }
+
+    public static long compress(FilesFacade ff, LPSZ srcPath, LPSZ dstPath, int blockSize) {
+        return compress(ff, srcPath, dstPath, blockSize, CommitMode.NOSYNC);
+    }
+
+    /**
+     * Compresses column file into block-compressed format. The source file is left intact,
+     * it is up to the caller to swap files once the compressed copy is durable.
+     *
+     * @param ff         files facade
+     * @param srcPath    path to the raw column file
+     * @param dstPath    path to the block-compressed file, the file is truncated if it exists
+     * @param blockSize  uncompressed size of each block, the unit of decompression
+     * @param commitMode compressed file is fsynced before it is closed unless commit mode is {@link CommitMode#NOSYNC}
+     * @return size of compressed file
+     */
+    public static long compress(FilesFacade ff, LPSZ srcPath, LPSZ dstPath, int blockSize, int commitMode) {
+        assert blockSize > 0;
+        long srcFd = -1;
+        long srcAddr = 0;
+        long srcSize = 0;
+        long dstFd = -1;
+        long outBuf = 0;
+        final long outBufSize = getMaxCompressedBlockSize(blockSize);
+        long index = 0;
+        long indexSize = 0;
+        long z_streamp = 0;
+        try {
+            srcFd = TableUtils.openRO(ff, srcPath, LOG);
+            srcSize = ff.length(srcFd);
+            if (srcSize < 0) {
+                throw CairoException.critical(ff.errno()).put("could not get length: ").put(srcPath);
+            }
+            if (srcSize > 0) {
+                srcAddr = TableUtils.mapRO(ff, srcFd, srcSize, MemoryTag.MMAP_DEFAULT);
+            }
+
+            final long blockCount = (srcSize + blockSize - 1) / blockSize;
+            if (blockCount > Integer.MAX_VALUE) {
+                throw CairoException.critical(0).put("too many blocks [file=").put(srcPath).put(", blockCount=").put(blockCount).put(']');
+            }
+            indexSize = getHeaderSize((int) blockCount);
+            index = Unsafe.malloc(indexSize, MemoryTag.NATIVE_DEFAULT);
+            outBuf = Unsafe.malloc(outBufSize, MemoryTag.NATIVE_DEFAULT);
+
+            Unsafe.getUnsafe().putLong(index + HEADER_MAGIC_OFFSET, MAGIC);
+            Unsafe.getUnsafe().putLong(index + HEADER_SIZE_OFFSET, srcSize);
+            Unsafe.getUnsafe().putInt(index + HEADER_BLOCK_SIZE_OFFSET, blockSize);
+            Unsafe.getUnsafe().putInt(index + HEADER_BLOCK_COUNT_OFFSET, (int) blockCount);
+
+            dstFd = TableUtils.openRW(ff, dstPath, LOG, CairoConfiguration.O_NONE);
+            if (!ff.truncate(dstFd, 0)) {
+                throw CairoException.critical(ff.errno()).put("could not truncate [file=").put(dstPath).put(']');
+            }
+
+            z_streamp = Zip.deflateInit();
+            if (z_streamp < 0) {
+                throw CairoException.critical(0).put("could not initialise deflate [ret=").put(z_streamp).put(']');
+            }
+
+            long dstOffset = indexSize;
+            for (long i = 0; i < blockCount; i++) {
+                final long blockLo = i * blockSize;
+                final int len = (int) Math.min(blockSize, srcSize - blockLo);
+
+                Zip.deflateReset(z_streamp);
+                Zip.setInput(z_streamp, srcAddr + blockLo, len);
+                final int ret = Zip.deflate(z_streamp, outBuf, (int) outBufSize, true);
+                if (ret != Zip.Z_STREAM_END) {
+                    throw CairoException.critical(0).put("could not compress block [file=").put(srcPath)
+                            .put(", block=").put(i)
+                            .put(", ret=").put(ret)
+                            .put(']');
+                }
+                final int compressedLen = (int) outBufSize - Zip.availOut(z_streamp);
+
+                final long writeAddr;
+                final int writeLen;
+                if (compressedLen < len) {
+                    writeAddr = outBuf;
+                    writeLen = compressedLen;
+                } else {
+                    writeAddr = srcAddr + blockLo;
+                    writeLen = len;
+                }
+                if (ff.write(dstFd, writeAddr, writeLen, dstOffset) != writeLen) {
+                    throw CairoException.critical(ff.errno()).put("could not write [file=").put(dstPath).put(']');
+                }
+                Unsafe.getUnsafe().putLong(index + HEADER_BLOCK_INDEX_OFFSET + i * Long.BYTES, dstOffset);
+                dstOffset += writeLen;
+            }
+            Unsafe.getUnsafe().putLong(index + HEADER_BLOCK_INDEX_OFFSET + blockCount * Long.BYTES, dstOffset);
+
+            if (ff.write(dstFd, index, indexSize, 0) != indexSize) {
+                throw CairoException.critical(ff.errno()).put("could not write [file=").put(dstPath).put(']');
+            }
+
+            if (commitMode != CommitMode.NOSYNC && ff.fsync(dstFd) != 0) {
+                throw CairoException.critical(ff.errno()).put("could not fsync [file=").put(dstPath).put(']');
+            }
+
+            LOG.info().$("compressed [src=").$(srcPath)
+                    .$(", dst=").$(dstPath)
+                    .$(", size=").$(srcSize)
+                    .$(", compressedSize=").$(dstOffset)
+                    .I$();
+            return dstOffset;
+        } finally {
+            if (z_streamp > 0) {
+                Zip.deflateEnd(z_streamp);
+            }
+            if (srcAddr != 0) {
+                ff.munmap(srcAddr, srcSize, MemoryTag.MMAP_DEFAULT);
+            }
+            if (srcFd != -1) {
+                ff.close(srcFd);
+            }
+            if (dstFd != -1) {
+                ff.close(dstFd);
+            }
+            Unsafe.free(index, indexSize, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(outBuf, outBufSize, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    public static long getHeaderSize(int blockCount) {
+        return HEADER_BLOCK_INDEX_OFFSET + (blockCount + 1L) * Long.BYTES;
+    }
+
+    /**
+     * Checks the magic at the start of the file without mapping it.
+     *
+     * @param ff   files facade
+     * @param fd   open file descriptor
+     * @param temp scratch memory of at least 8 bytes
+     * @return true when file is in block-compressed format
+     */
+    public static boolean isCompressed(FilesFacade ff, long fd, long temp) {
+        return ff.read(fd, temp, Long.BYTES, HEADER_MAGIC_OFFSET) == Long.BYTES
+                && Unsafe.getUnsafe().getLong(temp) == MAGIC;
+    }
+
+    // upper bound of raw deflate output as per zlib's deflateBound()
+    private static long getMaxCompressedBlockSize(int blockSize) {
+        return blockSize + (blockSize >> 12) + (blockSize >> 14) + (blockSize >> 25) + 13 + 64;
+    }
+}
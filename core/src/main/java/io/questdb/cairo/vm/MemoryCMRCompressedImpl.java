@@ -0,0 +1,208 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Zip;
+import io.questdb.std.str.LPSZ;
+
+/**
+ * Contiguous readable memory over a block-compressed column file, see {@link BlockCompression}.
+ * Blocks are inflated on demand, in order, into a single native buffer so that
+ * consumers keep seeing one contiguous page, same as with {@link MemoryCMRImpl}.
+ * Only the blocks covering the requested size are decompressed; {@link #extend(long)}
+ * inflates further blocks using the block index.
+ */
+public class MemoryCMRCompressedImpl extends AbstractMemoryCR implements MemoryCMR {
+    private static final Log LOG = LogFactory.getLog(MemoryCMRCompressedImpl.class);
+    private long blockCount;
+    private int blockSize;
+    private long bufferSize;
+    private long compressedAddress;
+    private long compressedSize;
+    private long decodedBlockCount;
+    private int memoryTag = MemoryTag.MMAP_DEFAULT;
+    private long uncompressedSize;
+    private long z_streamp;
+
+    public MemoryCMRCompressedImpl(FilesFacade ff, LPSZ name, long size, int memoryTag) {
+        of(ff, name, 0, size, memoryTag, 0);
+    }
+
+    public MemoryCMRCompressedImpl() {
+        // intentionally left empty
+    }
+
+    @Override
+    public void close() {
+        if (pageAddress != 0) {
+            pageAddress = Unsafe.free(pageAddress, bufferSize, MemoryTag.NATIVE_TABLE_READER);
+        }
+        bufferSize = 0;
+        size = 0;
+        decodedBlockCount = 0;
+        if (z_streamp > 0) {
+            Zip.inflateEnd(z_streamp);
+            z_streamp = 0;
+        }
+        if (compressedAddress != 0) {
+            ff.munmap(compressedAddress, compressedSize, memoryTag);
+            compressedAddress = 0;
+        }
+        compressedSize = 0;
+        if (fd != -1) {
+            ff.close(fd);
+            LOG.debug().$("closed [fd=").$(fd).I$();
+            fd = -1;
+        }
+    }
+
+    @Override
+    public void extend(long newSize) {
+        if (newSize > size) {
+            if (newSize > uncompressedSize) {
+                throw CairoException.critical(0).put("compressed column cannot be extended [fd=").put(fd)
+                        .put(", size=").put(uncompressedSize)
+                        .put(", newSize=").put(newSize)
+                        .put(']');
+            }
+            inflateTo(newSize);
+        }
+    }
+
+    public long getCompressedSize() {
+        return compressedSize;
+    }
+
+    @Override
+    public boolean isMapped(long offset, long len) {
+        return offset + len <= size();
+    }
+
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag, long opts, int madviseOpts) {
+        close();
+        this.ff = ff;
+        this.memoryTag = memoryTag;
+        fd = TableUtils.openRO(ff, name, LOG);
+        try {
+            compressedSize = ff.length(fd);
+            if (compressedSize < BlockCompression.getHeaderSize(0)) {
+                throw CairoException.critical(ff.errno()).put("invalid compressed column file [file=").put(name)
+                        .put(", size=").put(compressedSize)
+                        .put(']');
+            }
+            compressedAddress = TableUtils.mapRO(ff, fd, compressedSize, memoryTag);
+            if (Unsafe.getUnsafe().getLong(compressedAddress + BlockCompression.HEADER_MAGIC_OFFSET) != BlockCompression.MAGIC) {
+                throw CairoException.critical(0).put("not a compressed column file [file=").put(name).put(']');
+            }
+            uncompressedSize = Unsafe.getUnsafe().getLong(compressedAddress + BlockCompression.HEADER_SIZE_OFFSET);
+            blockSize = Unsafe.getUnsafe().getInt(compressedAddress + BlockCompression.HEADER_BLOCK_SIZE_OFFSET);
+            blockCount = Unsafe.getUnsafe().getInt(compressedAddress + BlockCompression.HEADER_BLOCK_COUNT_OFFSET);
+            if (BlockCompression.getHeaderSize((int) blockCount) > compressedSize) {
+                throw CairoException.critical(0).put("corrupt compressed column file, block index is truncated [file=").put(name).put(']');
+            }
+            z_streamp = Zip.inflateInit(true);
+            if (z_streamp < 0) {
+                throw CairoException.critical(0).put("could not initialise inflate [ret=").put(z_streamp).put(']');
+            }
+            inflateTo(size < 0 ? uncompressedSize : Math.min(size, uncompressedSize));
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+
+        LOG.debug().$("open compressed [file=").$(name)
+                .$(", fd=").$(fd)
+                .$(", compressedSize=").$(compressedSize)
+                .$(", size=").$(this.size)
+                .I$();
+    }
+
+    @Override
+    public void smallFile(FilesFacade ff, LPSZ name, int memoryTag) {
+        of(ff, name, ff.getPageSize(), -1, memoryTag, CairoConfiguration.O_NONE, -1);
+    }
+
+    @Override
+    public void wholeFile(FilesFacade ff, LPSZ name, int memoryTag) {
+        of(ff, name, ff.getMapPageSize(), -1, memoryTag, CairoConfiguration.O_NONE, -1);
+    }
+
+    private long getBlockOffset(long block) {
+        return Unsafe.getUnsafe().getLong(compressedAddress + BlockCompression.HEADER_BLOCK_INDEX_OFFSET + block * Long.BYTES);
+    }
+
+    private void inflateTo(long newSize) {
+        final long targetBlockCount = (newSize + blockSize - 1) / blockSize;
+        if (targetBlockCount > decodedBlockCount) {
+            final long newBufferSize = Math.min(targetBlockCount * blockSize, uncompressedSize);
+            if (pageAddress == 0) {
+                pageAddress = Unsafe.malloc(newBufferSize, MemoryTag.NATIVE_TABLE_READER);
+            } else {
+                pageAddress = Unsafe.realloc(pageAddress, bufferSize, newBufferSize, MemoryTag.NATIVE_TABLE_READER);
+            }
+            bufferSize = newBufferSize;
+
+            for (long block = decodedBlockCount; block < targetBlockCount; block++) {
+                final long lo = getBlockOffset(block);
+                final long hi = getBlockOffset(block + 1);
+                final long dst = pageAddress + block * blockSize;
+                final int len = (int) Math.min(blockSize, uncompressedSize - block * blockSize);
+                if (lo < 0 || hi > compressedSize || hi < lo) {
+                    throw CairoException.critical(0).put("corrupt compressed column block index [fd=").put(fd)
+                            .put(", block=").put(block)
+                            .put(']');
+                }
+
+                if (hi - lo == len) {
+                    // block was stored uncompressed
+                    Unsafe.getUnsafe().copyMemory(compressedAddress + lo, dst, len);
+                } else {
+                    Zip.inflateReset(z_streamp);
+                    Zip.setInput(z_streamp, compressedAddress + lo, (int) (hi - lo));
+                    final int n = Zip.inflate(z_streamp, dst, len, true);
+                    if (n != len) {
+                        throw CairoException.critical(0).put("could not inflate column block [fd=").put(fd)
+                                .put(", block=").put(block)
+                                .put(", expected=").put(len)
+                                .put(", actual=").put(n)
+                                .put(']');
+                    }
+                }
+            }
+            decodedBlockCount = targetBlockCount;
+        }
+        size = newSize;
+    }
+}
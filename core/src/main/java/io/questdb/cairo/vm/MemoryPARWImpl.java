@@ -32,6 +32,7 @@ import io.questdb.log.LogFactory;
 import io.questdb.std.*;
 import io.questdb.std.str.AbstractCharSequence;
 import io.questdb.std.str.CharSink;
+import io.questdb.std.str.Utf8Sequence;
 import org.jetbrains.annotations.NotNull;
 
 import static io.questdb.cairo.vm.Vm.STRING_LENGTH_BYTES;
@@ -599,6 +600,15 @@ public class MemoryPARWImpl implements MemoryARW {
         return getStr0(offset, csview2);
     }
 
+    public Utf8Sequence getVarcharA(long offset) {
+        // values may straddle pages, varchar columns are never read from paged memory
+        throw new UnsupportedOperationException();
+    }
+
+    public Utf8Sequence getVarcharB(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
     public Long256 getLong256A(long offset) {
         getLong256(offset, long256);
         return long256;
@@ -55,6 +55,11 @@ public class NullMapWriter implements MapWriter {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void publishCommitted() {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void rollback(int symbolCount) {
         throw new UnsupportedOperationException();
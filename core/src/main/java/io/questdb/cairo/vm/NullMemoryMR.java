@@ -29,6 +29,7 @@ import io.questdb.cairo.vm.api.MemoryMR;
 import io.questdb.std.*;
 import io.questdb.std.str.CharSink;
 import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Utf8Sequence;
 
 public class NullMemoryMR implements MemoryMR {
 
@@ -104,6 +105,16 @@ public class NullMemoryMR implements MemoryMR {
         return null;
     }
 
+    @Override
+    public Utf8Sequence getVarcharA(long offset) {
+        return null;
+    }
+
+    @Override
+    public Utf8Sequence getVarcharB(long offset) {
+        return null;
+    }
+
     @Override
     public Long256 getLong256A(long offset) {
         return Long256Impl.NULL_LONG256;
@@ -115,6 +115,14 @@ public class Vm {
         return new MemoryCMRImpl();
     }
 
+    public static MemoryCMR getCompressedCMRInstance() {
+        return new MemoryCMRCompressedImpl();
+    }
+
+    public static MemoryCMR getCompressedCMRInstance(FilesFacade ff, LPSZ name, long size, int memoryTag) {
+        return new MemoryCMRCompressedImpl(ff, name, size, memoryTag);
+    }
+
     public static MemoryMR getMRInstance(FilesFacade ff, LPSZ name, long size, int memoryTag) {
         return new MemoryCMRImpl(ff, name, size, memoryTag);
     }
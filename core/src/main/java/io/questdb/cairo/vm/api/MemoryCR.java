@@ -30,6 +30,7 @@ import io.questdb.cairo.vm.Vm;
 import io.questdb.std.*;
 import io.questdb.std.str.AbstractCharSequence;
 import io.questdb.std.str.CharSink;
+import io.questdb.std.str.DirectByteCharSequence;
 
 //contiguous readable 
 public interface MemoryCR extends MemoryC, MemoryR {
@@ -42,6 +43,15 @@ public interface MemoryCR extends MemoryC, MemoryR {
         return null;
     }
 
+    default DirectByteCharSequence getVarchar(long offset, DirectByteCharSequence view) {
+        final long addr = addressOf(offset);
+        final long len = Unsafe.getUnsafe().getLong(addr);
+        if (len > -1) {
+            return view.of(addr + Long.BYTES, addr + Long.BYTES + len);
+        }
+        return null;
+    }
+
     default long getBinLen(long offset) {
         return getLong(offset);
     }
@@ -29,6 +29,7 @@ import io.questdb.std.Long256;
 import io.questdb.std.Long256Acceptor;
 import io.questdb.std.Unsafe;
 import io.questdb.std.str.CharSink;
+import io.questdb.std.str.Utf8Sequence;
 
 import java.io.Closeable;
 
@@ -86,6 +87,10 @@ public interface MemoryR extends Closeable {
 
     int getStrLen(long offset);
 
+    Utf8Sequence getVarcharA(long offset);
+
+    Utf8Sequence getVarcharB(long offset);
+
     void extend(long size);
 
     long size();
@@ -29,6 +29,7 @@ import io.questdb.std.FilesFacade;
 import io.questdb.std.Long256;
 import io.questdb.std.Long256Acceptor;
 import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Utf8Sequence;
 import org.jetbrains.annotations.NotNull;
 
 public class NullMemory implements MemoryMAR, MemoryCARW {
@@ -214,6 +215,16 @@ public class NullMemory implements MemoryMAR, MemoryCARW {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public Utf8Sequence getVarcharA(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Utf8Sequence getVarcharB(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public Long256 getLong256A(long offset) {
         throw new UnsupportedOperationException();
@@ -0,0 +1,948 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.arrow;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.*;
+
+import java.io.Closeable;
+
+/**
+ * Serializes query result as Apache Arrow IPC stream: schema message, dictionary batches for symbol
+ * columns and then record batches, terminated by end-of-stream marker.
+ * <p>
+ * When the factory supports page frames, record batches are built straight from column memory. Fixed-width
+ * column values are not copied at all, stream segments point to the mapped column pages. Symbol columns are
+ * sent as int keys against symbol table dictionaries. Other factories are serialized record by record in
+ * batches of the same size, symbols are sent as strings in this case.
+ * <p>
+ * Output is produced one message at a time, the caller drains message segments, see {@link #getSegmentCount()},
+ * before asking for the next message. Segments stay valid until the next call to {@link #nextMessage()}.
+ */
+public class ArrowStreamWriter implements Mutable, Closeable {
+    private static final int ALIGNMENT = 8;
+    private static final int CONTINUATION_MARKER = -1;
+    private static final byte HEADER_DICTIONARY_BATCH = 2;
+    private static final byte HEADER_RECORD_BATCH = 3;
+    private static final byte HEADER_SCHEMA = 1;
+    private static final short METADATA_VERSION_V5 = 4;
+    private static final short PRECISION_DOUBLE = 2;
+    private static final short PRECISION_SINGLE = 1;
+    private static final int STATE_BATCH = 2;
+    private static final int STATE_DICTIONARY = 1;
+    private static final int STATE_DONE = 4;
+    private static final int STATE_EOS = 3;
+    private static final int STATE_SCHEMA = 0;
+    private static final short TIME_UNIT_MICROSECOND = 2;
+    private static final short TIME_UNIT_MILLISECOND = 1;
+    private static final byte TYPE_BINARY = 4;
+    private static final byte TYPE_BOOL = 6;
+    private static final byte TYPE_FIXED_SIZE_BINARY = 15;
+    private static final byte TYPE_FLOATING_POINT = 3;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_NULL = 1;
+    private static final byte TYPE_TIMESTAMP = 10;
+    private static final byte TYPE_UTF8 = 5;
+    private final int batchRows;
+    private final LongList bufferOffsets = new LongList();
+    // address and size pairs of body buffers of the current batch
+    private final LongList buffers = new LongList();
+    private final ObjList<MemoryCARW> dataMem = new ObjList<>();
+    private final FlatBufferBuilder fbb = new FlatBufferBuilder();
+    private final IntList fieldOffsets = new IntList();
+    private final MemoryCARW headerMem;
+    // length and null count pairs of field nodes of the current batch
+    private final LongList nodes = new LongList();
+    private final ObjList<MemoryCARW> offsetMem = new ObjList<>();
+    private final long pageSize;
+    // address and size pairs of the current message
+    private final LongList segments = new LongList();
+    private final LongList validityAddresses = new LongList();
+    private final ObjList<MemoryCARW> validityMem = new ObjList<>();
+    private final long zeroes;
+    private int columnCount;
+    private int dictionaryColumnIndex;
+    private RecordMetadata metadata;
+    private PageFrameCursor pageFrameCursor;
+    private Record record;
+    private RecordCursor recordCursor;
+    // number of result rows consumed so far, including skipped rows
+    private long rowCount;
+    private long skip;
+    private int state = STATE_DONE;
+    private long stop;
+
+    public ArrowStreamWriter(int batchRows, long pageSize) {
+        this.batchRows = batchRows;
+        this.pageSize = pageSize;
+        this.headerMem = Vm.getCARWInstance(pageSize, Integer.MAX_VALUE, MemoryTag.NATIVE_HTTP_CONN);
+        this.zeroes = Unsafe.calloc(ALIGNMENT, MemoryTag.NATIVE_HTTP_CONN);
+    }
+
+    @Override
+    public void clear() {
+        pageFrameCursor = Misc.free(pageFrameCursor);
+        recordCursor = Misc.free(recordCursor);
+        record = null;
+        metadata = null;
+        segments.clear();
+        state = STATE_DONE;
+        // batches can be large, do not hold on to memory between queries
+        headerMem.close();
+        freeColumnMemory();
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Unsafe.free(zeroes, ALIGNMENT, MemoryTag.NATIVE_HTTP_CONN);
+    }
+
+    public int getSegmentCount() {
+        return segments.size() / 2;
+    }
+
+    public long getSegmentAddress(int index) {
+        return segments.getQuick(index * 2);
+    }
+
+    public long getSegmentSize(int index) {
+        return segments.getQuick(index * 2 + 1);
+    }
+
+    /**
+     * @return true between {@link #of} and {@link #clear()}, including after the stream has ended
+     */
+    public boolean isOpen() {
+        return metadata != null;
+    }
+
+    /**
+     * Prepares next message of the stream.
+     *
+     * @return false when the stream has ended
+     */
+    public boolean nextMessage() {
+        segments.clear();
+        headerMem.jumpTo(0);
+        switch (state) {
+            case STATE_SCHEMA:
+                writeSchema();
+                dictionaryColumnIndex = nextDictionaryColumn(-1);
+                state = dictionaryColumnIndex < columnCount ? STATE_DICTIONARY : STATE_BATCH;
+                return true;
+            case STATE_DICTIONARY:
+                writeDictionary(dictionaryColumnIndex);
+                dictionaryColumnIndex = nextDictionaryColumn(dictionaryColumnIndex);
+                if (dictionaryColumnIndex == columnCount) {
+                    state = STATE_BATCH;
+                }
+                return true;
+            case STATE_BATCH:
+                if (pageFrameCursor != null ? writePageFrameBatch() : writeRecordBatch()) {
+                    return true;
+                }
+                state = STATE_EOS;
+                // fall through
+            case STATE_EOS:
+                final long address = headerMem.appendAddressFor(2 * Integer.BYTES);
+                Unsafe.getUnsafe().putInt(address, CONTINUATION_MARKER);
+                Unsafe.getUnsafe().putInt(address + Integer.BYTES, 0);
+                segments.add(address, 2 * Integer.BYTES);
+                state = STATE_DONE;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Opens result cursor of the factory.
+     *
+     * @param factory          query factory
+     * @param executionContext execution context
+     * @param skip             number of leading rows to skip
+     * @param stop             row number to stop at, exclusive
+     * @throws SqlException when cursor cannot be opened
+     */
+    public void of(RecordCursorFactory factory, SqlExecutionContext executionContext, long skip, long stop) throws SqlException {
+        clear();
+        this.metadata = factory.getMetadata();
+        this.columnCount = metadata.getColumnCount();
+        this.skip = skip;
+        this.stop = stop;
+        this.rowCount = 0;
+        if (factory.supportPageFrameCursor() && !factory.hasDescendingOrder()) {
+            pageFrameCursor = factory.getPageFrameCursor(executionContext, DataFrameCursorFactory.ORDER_ASC);
+        }
+        if (pageFrameCursor == null) {
+            recordCursor = factory.getCursor(executionContext);
+            record = recordCursor.getRecord();
+        }
+        for (int i = dataMem.size(); i < columnCount; i++) {
+            dataMem.add(Vm.getCARWInstance(pageSize, Integer.MAX_VALUE, MemoryTag.NATIVE_HTTP_CONN));
+            offsetMem.add(Vm.getCARWInstance(pageSize, Integer.MAX_VALUE, MemoryTag.NATIVE_HTTP_CONN));
+            validityMem.add(Vm.getCARWInstance(pageSize, Integer.MAX_VALUE, MemoryTag.NATIVE_HTTP_CONN));
+        }
+        state = STATE_SCHEMA;
+    }
+
+    private static byte arrowType(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                return TYPE_BOOL;
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.GEOBYTE:
+            case ColumnType.GEOSHORT:
+            case ColumnType.GEOINT:
+            case ColumnType.GEOLONG:
+                return TYPE_INT;
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                return TYPE_FLOATING_POINT;
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return TYPE_TIMESTAMP;
+            case ColumnType.VARCHAR:
+            case ColumnType.STRING:
+            case ColumnType.SYMBOL:
+                return TYPE_UTF8;
+            case ColumnType.BINARY:
+                return TYPE_BINARY;
+            case ColumnType.LONG256:
+            case ColumnType.LONG128:
+                return TYPE_FIXED_SIZE_BINARY;
+            default:
+                return TYPE_NULL;
+        }
+    }
+
+    private static boolean isNull(int columnTag, long address) {
+        switch (columnTag) {
+            case ColumnType.CHAR:
+                return Unsafe.getUnsafe().getChar(address) == 0;
+            case ColumnType.INT:
+            case ColumnType.SYMBOL:
+                return Unsafe.getUnsafe().getInt(address) == Numbers.INT_NaN;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return Unsafe.getUnsafe().getLong(address) == Numbers.LONG_NaN;
+            case ColumnType.FLOAT:
+                return Float.isNaN(Unsafe.getUnsafe().getFloat(address));
+            case ColumnType.DOUBLE:
+                return Double.isNaN(Unsafe.getUnsafe().getDouble(address));
+            case ColumnType.GEOBYTE:
+                return Unsafe.getUnsafe().getByte(address) == GeoHashes.BYTE_NULL;
+            case ColumnType.GEOSHORT:
+                return Unsafe.getUnsafe().getShort(address) == GeoHashes.SHORT_NULL;
+            case ColumnType.GEOINT:
+                return Unsafe.getUnsafe().getInt(address) == GeoHashes.INT_NULL;
+            case ColumnType.GEOLONG:
+                return Unsafe.getUnsafe().getLong(address) == GeoHashes.NULL;
+            case ColumnType.LONG128:
+                return Unsafe.getUnsafe().getLong(address) == Numbers.LONG_NaN
+                        && Unsafe.getUnsafe().getLong(address + Long.BYTES) == Numbers.LONG_NaN;
+            case ColumnType.LONG256:
+                return Unsafe.getUnsafe().getLong(address) == Numbers.LONG_NaN
+                        && Unsafe.getUnsafe().getLong(address + Long.BYTES) == Numbers.LONG_NaN
+                        && Unsafe.getUnsafe().getLong(address + 2 * Long.BYTES) == Numbers.LONG_NaN
+                        && Unsafe.getUnsafe().getLong(address + 3 * Long.BYTES) == Numbers.LONG_NaN;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isNullable(int columnTag) {
+        switch (columnTag) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private static void putUtf8(MemoryCARW mem, CharSequence value) {
+        for (int i = 0, n = value.length(); i < n; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                mem.putByte((byte) c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                putUtf8CodePoint(mem, Character.toCodePoint(c, value.charAt(++i)));
+            } else {
+                putUtf8CodePoint(mem, c);
+            }
+        }
+    }
+
+    // UTF-16 string as stored in column files
+    private static void putUtf8(MemoryCARW mem, long address, int charCount) {
+        for (int i = 0; i < charCount; i++) {
+            final char c = Unsafe.getUnsafe().getChar(address + ((long) i << 1));
+            if (c < 0x80) {
+                mem.putByte((byte) c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < charCount) {
+                final char l = Unsafe.getUnsafe().getChar(address + ((long) (i + 1) << 1));
+                if (Character.isLowSurrogate(l)) {
+                    putUtf8CodePoint(mem, Character.toCodePoint(c, l));
+                    i++;
+                } else {
+                    putUtf8CodePoint(mem, c);
+                }
+            } else {
+                putUtf8CodePoint(mem, c);
+            }
+        }
+    }
+
+    private static void putUtf8CodePoint(MemoryCARW mem, int cp) {
+        if (cp < 0x800) {
+            mem.putByte((byte) (0xc0 | (cp >> 6)));
+            mem.putByte((byte) (0x80 | (cp & 0x3f)));
+        } else if (cp < 0x10000) {
+            mem.putByte((byte) (0xe0 | (cp >> 12)));
+            mem.putByte((byte) (0x80 | ((cp >> 6) & 0x3f)));
+            mem.putByte((byte) (0x80 | (cp & 0x3f)));
+        } else {
+            mem.putByte((byte) (0xf0 | (cp >> 18)));
+            mem.putByte((byte) (0x80 | ((cp >> 12) & 0x3f)));
+            mem.putByte((byte) (0x80 | ((cp >> 6) & 0x3f)));
+            mem.putByte((byte) (0x80 | (cp & 0x3f)));
+        }
+    }
+
+    private static void setBit(long bits, long index) {
+        final long address = bits + (index >>> 3);
+        Unsafe.getUnsafe().putByte(address, (byte) (Unsafe.getUnsafe().getByte(address) | (1 << (index & 7))));
+    }
+
+    private static long zeroBits(MemoryCARW mem, long count) {
+        final long size = (count + 7) >>> 3;
+        final long address = mem.appendAddressFor(size);
+        Vect.memset(address, size, 0);
+        return address;
+    }
+
+    private void addBuffer(long address, long size) {
+        buffers.add(address, size);
+    }
+
+    private void addNode(long length, long nullCount) {
+        nodes.add(length, nullCount);
+    }
+
+    private void addValidity(long bits, long rows, long nullCount) {
+        // validity bitmap can be omitted when there are no nulls
+        addBuffer(bits, nullCount > 0 ? (rows + 7) >>> 3 : 0);
+    }
+
+    private void addVarBuffers(int columnIndex, long bits, long rows, long nullCount) {
+        final MemoryCARW offsets = offsetMem.getQuick(columnIndex);
+        final MemoryCARW data = dataMem.getQuick(columnIndex);
+        addNode(rows, nullCount);
+        addValidity(bits, rows, nullCount);
+        addBuffer(offsets.addressOf(0), offsets.getAppendOffset());
+        addBuffer(data.getAppendOffset() > 0 ? data.addressOf(0) : 0, data.getAppendOffset());
+    }
+
+    private void appendRecordValue(int columnIndex, int columnType, long bits, long row) {
+        final MemoryCARW data = dataMem.getQuick(columnIndex);
+        boolean valid;
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                // data of boolean column is bitmap allocated up front
+                if (record.getBool(columnIndex)) {
+                    setBit(data.addressOf(0), row);
+                }
+                return;
+            case ColumnType.BYTE:
+                data.putByte(record.getByte(columnIndex));
+                return;
+            case ColumnType.SHORT:
+                data.putShort(record.getShort(columnIndex));
+                return;
+            case ColumnType.CHAR: {
+                final char value = record.getChar(columnIndex);
+                data.putChar(value);
+                valid = value != 0;
+                break;
+            }
+            case ColumnType.INT: {
+                final int value = record.getInt(columnIndex);
+                data.putInt(value);
+                valid = value != Numbers.INT_NaN;
+                break;
+            }
+            case ColumnType.LONG: {
+                final long value = record.getLong(columnIndex);
+                data.putLong(value);
+                valid = value != Numbers.LONG_NaN;
+                break;
+            }
+            case ColumnType.DATE: {
+                final long value = record.getDate(columnIndex);
+                data.putLong(value);
+                valid = value != Numbers.LONG_NaN;
+                break;
+            }
+            case ColumnType.TIMESTAMP: {
+                final long value = record.getTimestamp(columnIndex);
+                data.putLong(value);
+                valid = value != Numbers.LONG_NaN;
+                break;
+            }
+            case ColumnType.FLOAT: {
+                final float value = record.getFloat(columnIndex);
+                data.putFloat(value);
+                valid = value == value;
+                break;
+            }
+            case ColumnType.DOUBLE: {
+                final double value = record.getDouble(columnIndex);
+                data.putDouble(value);
+                valid = value == value;
+                break;
+            }
+            case ColumnType.GEOBYTE: {
+                final byte value = record.getGeoByte(columnIndex);
+                data.putByte(value);
+                valid = value != GeoHashes.BYTE_NULL;
+                break;
+            }
+            case ColumnType.GEOSHORT: {
+                final short value = record.getGeoShort(columnIndex);
+                data.putShort(value);
+                valid = value != GeoHashes.SHORT_NULL;
+                break;
+            }
+            case ColumnType.GEOINT: {
+                final int value = record.getGeoInt(columnIndex);
+                data.putInt(value);
+                valid = value != GeoHashes.INT_NULL;
+                break;
+            }
+            case ColumnType.GEOLONG: {
+                final long value = record.getGeoLong(columnIndex);
+                data.putLong(value);
+                valid = value != GeoHashes.NULL;
+                break;
+            }
+            case ColumnType.LONG128: {
+                final long lo = record.getLong128Lo(columnIndex);
+                final long hi = record.getLong128Hi(columnIndex);
+                data.putLong(lo);
+                data.putLong(hi);
+                valid = lo != Numbers.LONG_NaN || hi != Numbers.LONG_NaN;
+                break;
+            }
+            case ColumnType.LONG256: {
+                final Long256 value = record.getLong256A(columnIndex);
+                data.putLong(value.getLong0());
+                data.putLong(value.getLong1());
+                data.putLong(value.getLong2());
+                data.putLong(value.getLong3());
+                valid = value.getLong0() != Numbers.LONG_NaN
+                        || value.getLong1() != Numbers.LONG_NaN
+                        || value.getLong2() != Numbers.LONG_NaN
+                        || value.getLong3() != Numbers.LONG_NaN;
+                break;
+            }
+            case ColumnType.VARCHAR:
+            case ColumnType.STRING:
+            case ColumnType.SYMBOL: {
+                final CharSequence value = ColumnType.isSymbol(columnType) ? record.getSym(columnIndex) : record.getStr(columnIndex);
+                if (valid = value != null) {
+                    putUtf8(data, value);
+                }
+                offsetMem.getQuick(columnIndex).putInt((int) data.getAppendOffset());
+                break;
+            }
+            case ColumnType.BINARY: {
+                final BinarySequence value = record.getBin(columnIndex);
+                if (valid = value != null) {
+                    final long len = value.length();
+                    value.copyTo(data.appendAddressFor(len), 0, len);
+                }
+                offsetMem.getQuick(columnIndex).putInt((int) data.getAppendOffset());
+                break;
+            }
+            default:
+                return;
+        }
+        if (valid) {
+            setBit(bits, row);
+        }
+    }
+
+    private void finishMessage(byte headerType, int header, long bodyLength) {
+        fbb.startTable(5);
+        fbb.addShort(0, METADATA_VERSION_V5);
+        fbb.addByte(1, headerType);
+        fbb.addOffset(2, header);
+        fbb.addLong(3, bodyLength);
+        fbb.finish(fbb.endTable());
+
+        // metadata is padded, so that body starts 8-byte aligned
+        final int metadataSize = (fbb.size() + ALIGNMENT - 1) & -ALIGNMENT;
+        final long address = headerMem.appendAddressFor(2 * Integer.BYTES + metadataSize);
+        Unsafe.getUnsafe().putInt(address, CONTINUATION_MARKER);
+        Unsafe.getUnsafe().putInt(address + Integer.BYTES, metadataSize);
+        Vect.memset(address + 2 * Integer.BYTES, metadataSize, 0);
+        fbb.copyTo(address + 2 * Integer.BYTES);
+        // message header goes in front of the body segments, its slot is reserved up front
+        segments.setQuick(0, address);
+        segments.setQuick(1, 2 * Integer.BYTES + metadataSize);
+    }
+
+    private void freeColumnMemory() {
+        for (int i = 0, n = dataMem.size(); i < n; i++) {
+            dataMem.getQuick(i).close();
+            offsetMem.getQuick(i).close();
+            validityMem.getQuick(i).close();
+        }
+    }
+
+    private boolean isDictionaryEncoded(int columnIndex) {
+        return pageFrameCursor != null && ColumnType.isSymbol(metadata.getColumnType(columnIndex));
+    }
+
+    private int nextDictionaryColumn(int columnIndex) {
+        int i = columnIndex + 1;
+        while (i < columnCount && !isDictionaryEncoded(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private void resetColumnMemory() {
+        for (int i = 0; i < columnCount; i++) {
+            dataMem.getQuick(i).jumpTo(0);
+            offsetMem.getQuick(i).jumpTo(0);
+            validityMem.getQuick(i).jumpTo(0);
+        }
+        nodes.clear();
+        buffers.clear();
+    }
+
+    // adds body segments and returns body length
+    private long writeBody() {
+        long bodyLength = 0;
+        // first segment is reserved for message header
+        segments.add(0L, 0L);
+        for (int i = 0, n = buffers.size(); i < n; i += 2) {
+            final long size = buffers.getQuick(i + 1);
+            if (size > 0) {
+                segments.add(buffers.getQuick(i), size);
+                final long padding = -size & (ALIGNMENT - 1);
+                if (padding > 0) {
+                    segments.add(zeroes, padding);
+                }
+                bodyLength += size + padding;
+            }
+        }
+        return bodyLength;
+    }
+
+    private void writeDictionary(int columnIndex) {
+        resetColumnMemory();
+        final StaticSymbolTable symbolTable = (StaticSymbolTable) pageFrameCursor.getSymbolTable(columnIndex);
+        final int symbolCount = symbolTable.getSymbolCount();
+        final MemoryCARW offsets = offsetMem.getQuick(columnIndex);
+        final MemoryCARW data = dataMem.getQuick(columnIndex);
+        offsets.putInt(0);
+        for (int key = 0; key < symbolCount; key++) {
+            putUtf8(data, symbolTable.valueOf(key));
+            offsets.putInt((int) data.getAppendOffset());
+        }
+        addVarBuffers(columnIndex, 0, symbolCount, 0);
+
+        final long bodyLength = writeBody();
+        fbb.clear();
+        final int recordBatch = writeRecordBatchHeader(symbolCount, bodyLength);
+        fbb.startTable(3);
+        fbb.addLong(0, columnIndex);
+        fbb.addOffset(1, recordBatch);
+        fbb.addBoolean(2, false);
+        finishMessage(HEADER_DICTIONARY_BATCH, fbb.endTable(), bodyLength);
+    }
+
+    private void writeFixedColumn(int columnIndex, int columnTag, int shift, long address, long rows) {
+        final long size = rows << shift;
+        final long bits;
+        long nullCount = 0;
+        if (address != 0) {
+            // zero-copy, the stream points straight at column memory
+            bits = isNullable(columnTag) ? zeroBits(validityMem.getQuick(columnIndex), rows) : 0;
+            if (bits != 0) {
+                for (long r = 0; r < rows; r++) {
+                    if (isNull(columnTag, address + (r << shift))) {
+                        nullCount++;
+                    } else {
+                        setBit(bits, r);
+                    }
+                }
+            }
+            addNode(rows, nullCount);
+            addValidity(bits, rows, nullCount);
+            addBuffer(address, size);
+        } else {
+            // column top, values are implied
+            final MemoryCARW data = dataMem.getQuick(columnIndex);
+            final long values = data.appendAddressFor(size);
+            Vect.memset(values, size, 0);
+            if (isNullable(columnTag)) {
+                bits = zeroBits(validityMem.getQuick(columnIndex), rows);
+                nullCount = rows;
+            } else {
+                bits = 0;
+            }
+            addNode(rows, nullCount);
+            addValidity(bits, rows, nullCount);
+            addBuffer(values, size);
+        }
+    }
+
+    private void writeBooleanColumn(int columnIndex, long address, long rows) {
+        final long bits = zeroBits(dataMem.getQuick(columnIndex), rows);
+        if (address != 0) {
+            for (long r = 0; r < rows; r++) {
+                if (Unsafe.getUnsafe().getByte(address + r) != 0) {
+                    setBit(bits, r);
+                }
+            }
+        }
+        addNode(rows, 0);
+        addBuffer(0, 0);
+        addBuffer(bits, (rows + 7) >>> 3);
+    }
+
+    private boolean writePageFrameBatch() {
+        while (rowCount < stop) {
+            final PageFrame frame = pageFrameCursor.next();
+            if (frame == null) {
+                return false;
+            }
+            final long frameRows = frame.getPartitionHi() - frame.getPartitionLo();
+            final long lo = Math.max(0, Math.min(skip - rowCount, frameRows));
+            final long hi = Math.max(0, Math.min(stop - rowCount, frameRows));
+            rowCount += frameRows;
+            if (lo < hi) {
+                writePageFrameBatch(frame, lo, hi);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writePageFrameBatch(PageFrame frame, long lo, long hi) {
+        resetColumnMemory();
+        final long rows = hi - lo;
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            final int columnTag = ColumnType.tagOf(columnType);
+            final long address = frame.getPageAddress(i);
+            switch (columnTag) {
+                case ColumnType.BOOLEAN:
+                    writeBooleanColumn(i, address != 0 ? address + lo : 0, rows);
+                    break;
+                case ColumnType.VARCHAR:
+                case ColumnType.STRING:
+                case ColumnType.BINARY:
+                    writeVarColumn(i, columnTag, address, address != 0 ? frame.getIndexPageAddress(i) + (lo << 3) : 0, rows);
+                    break;
+                default:
+                    final int shift = frame.getColumnShiftBits(i);
+                    writeFixedColumn(i, columnTag, shift, address != 0 ? address + (lo << shift) : 0, rows);
+                    break;
+            }
+        }
+        writeRecordBatchMessage(rows);
+    }
+
+    private boolean writeRecordBatch() {
+        resetColumnMemory();
+        validityAddresses.clear();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            // validity bitmaps and boolean values are sized for the whole batch up front
+            validityAddresses.add(isNullable(ColumnType.tagOf(columnType)) ? zeroBits(validityMem.getQuick(i), batchRows) : 0);
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.BOOLEAN:
+                    zeroBits(dataMem.getQuick(i), batchRows);
+                    break;
+                case ColumnType.VARCHAR:
+                case ColumnType.STRING:
+                case ColumnType.SYMBOL:
+                case ColumnType.BINARY:
+                    offsetMem.getQuick(i).putInt(0);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        long rows = 0;
+        while (rows < batchRows && rowCount < stop && recordCursor.hasNext()) {
+            if (++rowCount > skip) {
+                for (int i = 0; i < columnCount; i++) {
+                    appendRecordValue(i, metadata.getColumnType(i), validityAddresses.getQuick(i), rows);
+                }
+                rows++;
+            }
+        }
+        if (rows == 0) {
+            return false;
+        }
+
+        for (int i = 0; i < columnCount; i++) {
+            final int columnTag = ColumnType.tagOf(metadata.getColumnType(i));
+            final MemoryCARW data = dataMem.getQuick(i);
+            switch (columnTag) {
+                case ColumnType.BOOLEAN:
+                    addNode(rows, 0);
+                    addBuffer(0, 0);
+                    addBuffer(data.addressOf(0), (rows + 7) >>> 3);
+                    break;
+                case ColumnType.VARCHAR:
+                case ColumnType.STRING:
+                case ColumnType.SYMBOL:
+                case ColumnType.BINARY: {
+                    final long bits = validityMem.getQuick(i).addressOf(0);
+                    addVarBuffers(i, bits, rows, rows - countBits(bits, rows));
+                    break;
+                }
+                default:
+                    if (arrowType(metadata.getColumnType(i)) == TYPE_NULL) {
+                        addNode(rows, rows);
+                    } else if (isNullable(columnTag)) {
+                        final long bits = validityMem.getQuick(i).addressOf(0);
+                        final long nullCount = rows - countBits(bits, rows);
+                        addNode(rows, nullCount);
+                        addValidity(bits, rows, nullCount);
+                        addBuffer(data.addressOf(0), data.getAppendOffset());
+                    } else {
+                        addNode(rows, 0);
+                        addBuffer(0, 0);
+                        addBuffer(data.addressOf(0), data.getAppendOffset());
+                    }
+                    break;
+            }
+        }
+        writeRecordBatchMessage(rows);
+        return true;
+    }
+
+    private static long countBits(long bits, long count) {
+        long result = 0;
+        final long size = (count + 7) >>> 3;
+        for (long i = 0; i < size; i++) {
+            result += Integer.bitCount(Unsafe.getUnsafe().getByte(bits + i) & 0xff);
+        }
+        return result;
+    }
+
+    private int writeRecordBatchHeader(long rows, long bodyLength) {
+        final int nodeCount = nodes.size() / 2;
+        fbb.startVector(2 * Long.BYTES, nodeCount, Long.BYTES);
+        for (int i = nodeCount - 1; i > -1; i--) {
+            fbb.addStruct(nodes.getQuick(i * 2), nodes.getQuick(i * 2 + 1));
+        }
+        final int nodeVector = fbb.endVector();
+
+        final int bufferCount = buffers.size() / 2;
+        // buffer offsets within body follow the same padding rules as writeBody()
+        bufferOffsets.clear();
+        long offset = 0;
+        for (int i = 0; i < bufferCount; i++) {
+            bufferOffsets.add(offset);
+            final long size = buffers.getQuick(i * 2 + 1);
+            offset += size + (-size & (ALIGNMENT - 1));
+        }
+        assert offset == bodyLength;
+        fbb.startVector(2 * Long.BYTES, bufferCount, Long.BYTES);
+        for (int i = bufferCount - 1; i > -1; i--) {
+            fbb.addStruct(bufferOffsets.getQuick(i), buffers.getQuick(i * 2 + 1));
+        }
+        final int bufferVector = fbb.endVector();
+
+        fbb.startTable(4);
+        fbb.addLong(0, rows);
+        fbb.addOffset(1, nodeVector);
+        fbb.addOffset(2, bufferVector);
+        return fbb.endTable();
+    }
+
+    private void writeRecordBatchMessage(long rows) {
+        final long bodyLength = writeBody();
+        fbb.clear();
+        finishMessage(HEADER_RECORD_BATCH, writeRecordBatchHeader(rows, bodyLength), bodyLength);
+    }
+
+    private void writeSchema() {
+        fbb.clear();
+        fieldOffsets.clear();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            final int name = fbb.createString(metadata.getColumnName(i));
+            final int type = writeType(columnType);
+            int dictionary = 0;
+            if (isDictionaryEncoded(i)) {
+                final int indexType = writeIntType(Integer.SIZE, true);
+                fbb.startTable(4);
+                fbb.addLong(0, i);
+                fbb.addOffset(1, indexType);
+                fbb.addBoolean(2, false);
+                dictionary = fbb.endTable();
+            }
+            fbb.startVector(Integer.BYTES, 0, Integer.BYTES);
+            final int children = fbb.endVector();
+
+            fbb.startTable(7);
+            fbb.addOffset(0, name);
+            fbb.addBoolean(1, true);
+            fbb.addByte(2, arrowType(columnType));
+            fbb.addOffset(3, type);
+            if (dictionary != 0) {
+                fbb.addOffset(4, dictionary);
+            }
+            fbb.addOffset(5, children);
+            fieldOffsets.add(fbb.endTable());
+        }
+
+        fbb.startVector(Integer.BYTES, columnCount, Integer.BYTES);
+        for (int i = columnCount - 1; i > -1; i--) {
+            fbb.addOffset(fieldOffsets.getQuick(i));
+        }
+        final int fields = fbb.endVector();
+
+        fbb.startTable(4);
+        // little endian
+        fbb.addShort(0, (short) 0);
+        fbb.addOffset(1, fields);
+        final int schema = fbb.endTable();
+        segments.add(0L, 0L);
+        finishMessage(HEADER_SCHEMA, schema, 0);
+    }
+
+    private int writeIntType(int bitWidth, boolean signed) {
+        fbb.startTable(2);
+        fbb.addInt(0, bitWidth);
+        fbb.addBoolean(1, signed);
+        return fbb.endTable();
+    }
+
+    private int writeTimestampType(short unit) {
+        final int timezone = fbb.createString("UTC");
+        fbb.startTable(2);
+        fbb.addShort(0, unit);
+        fbb.addOffset(1, timezone);
+        return fbb.endTable();
+    }
+
+    private int writeType(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.GEOBYTE:
+                return writeIntType(Byte.SIZE, true);
+            case ColumnType.SHORT:
+            case ColumnType.GEOSHORT:
+                return writeIntType(Short.SIZE, true);
+            case ColumnType.CHAR:
+                return writeIntType(Character.SIZE, false);
+            case ColumnType.INT:
+            case ColumnType.GEOINT:
+                return writeIntType(Integer.SIZE, true);
+            case ColumnType.LONG:
+            case ColumnType.GEOLONG:
+                return writeIntType(Long.SIZE, true);
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                fbb.startTable(1);
+                fbb.addShort(0, ColumnType.isDouble(columnType) ? PRECISION_DOUBLE : PRECISION_SINGLE);
+                return fbb.endTable();
+            case ColumnType.DATE:
+                return writeTimestampType(TIME_UNIT_MILLISECOND);
+            case ColumnType.TIMESTAMP:
+                return writeTimestampType(TIME_UNIT_MICROSECOND);
+            case ColumnType.LONG128:
+            case ColumnType.LONG256:
+                fbb.startTable(1);
+                fbb.addInt(0, ColumnType.sizeOf(columnType));
+                return fbb.endTable();
+            default:
+                // Null, Bool, Utf8 and Binary types have no attributes
+                fbb.startTable(0);
+                return fbb.endTable();
+        }
+    }
+
+    private void writeVarColumn(int columnIndex, int columnTag, long dataAddress, long indexAddress, long rows) {
+        final MemoryCARW offsets = offsetMem.getQuick(columnIndex);
+        final MemoryCARW data = dataMem.getQuick(columnIndex);
+        final long bits = zeroBits(validityMem.getQuick(columnIndex), rows);
+        long nullCount = 0;
+        offsets.putInt(0);
+        for (long r = 0; r < rows; r++) {
+            if (dataAddress == 0) {
+                nullCount++;
+            } else {
+                final long valueAddress = dataAddress + Unsafe.getUnsafe().getLong(indexAddress + (r << 3));
+                if (columnTag == ColumnType.STRING) {
+                    final int len = Unsafe.getUnsafe().getInt(valueAddress);
+                    if (len < 0) {
+                        nullCount++;
+                    } else {
+                        putUtf8(data, valueAddress + Integer.BYTES, len);
+                        setBit(bits, r);
+                    }
+                } else {
+                    final long len = Unsafe.getUnsafe().getLong(valueAddress);
+                    if (len < 0) {
+                        nullCount++;
+                    } else {
+                        Vect.memcpy(data.appendAddressFor(len), valueAddress + Long.BYTES, len);
+                        setBit(bits, r);
+                    }
+                }
+            }
+            offsets.putInt((int) data.getAppendOffset());
+        }
+        addVarBuffers(columnIndex, bits, rows, nullCount);
+    }
+}
@@ -0,0 +1,259 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.arrow;
+
+import io.questdb.std.IntList;
+import io.questdb.std.Mutable;
+import io.questdb.std.Unsafe;
+
+/**
+ * Minimal FlatBuffers encoder, enough to produce Arrow IPC metadata. Like the reference
+ * implementation, the buffer is filled back to front, so that children are written before
+ * their parents. Unlike the reference implementation fields are always written, even when
+ * they equal their default value, and vtables are never shared.
+ */
+public class FlatBufferBuilder implements Mutable {
+    private static final int INITIAL_CAPACITY = 1024;
+    private final IntList vtable = new IntList();
+    private byte[] buf = new byte[INITIAL_CAPACITY];
+    // position of the first written byte, buffer is filled towards zero
+    private int space = INITIAL_CAPACITY;
+    private int minAlign = 1;
+    private int objectStart;
+    private int vectorElementCount;
+
+    public void addBoolean(int slot, boolean value) {
+        addByte(slot, (byte) (value ? 1 : 0));
+    }
+
+    public void addByte(int slot, byte value) {
+        prep(Byte.BYTES, 0);
+        putByte(value);
+        vtable.setQuick(slot, offset());
+    }
+
+    public void addInt(int slot, int value) {
+        prep(Integer.BYTES, 0);
+        putInt(value);
+        vtable.setQuick(slot, offset());
+    }
+
+    public void addLong(int slot, long value) {
+        prep(Long.BYTES, 0);
+        putLong(value);
+        vtable.setQuick(slot, offset());
+    }
+
+    public void addOffset(int slot, int offset) {
+        addOffset(offset);
+        vtable.setQuick(slot, offset());
+    }
+
+    /**
+     * Adds element to offset vector, elements have to be added in reverse order.
+     */
+    public void addOffset(int offset) {
+        prep(Integer.BYTES, 0);
+        putInt(offset() - offset + Integer.BYTES);
+    }
+
+    public void addShort(int slot, short value) {
+        prep(Short.BYTES, 0);
+        putShort(value);
+        vtable.setQuick(slot, offset());
+    }
+
+    /**
+     * Adds struct of two longs to struct vector, elements have to be added in reverse order.
+     */
+    public void addStruct(long first, long second) {
+        prep(Long.BYTES, 2 * Long.BYTES);
+        putLong(second);
+        putLong(first);
+    }
+
+    @Override
+    public void clear() {
+        space = buf.length;
+        minAlign = 1;
+        vtable.clear();
+    }
+
+    /**
+     * Writes finished buffer to native memory.
+     *
+     * @param address destination, must have at least {@link #size()} bytes available
+     */
+    public void copyTo(long address) {
+        for (int i = space, n = buf.length; i < n; i++) {
+            Unsafe.getUnsafe().putByte(address + i - space, buf[i]);
+        }
+    }
+
+    public int createString(CharSequence value) {
+        final int len = utf8Length(value);
+        prep(Integer.BYTES, len + 1);
+        putByte((byte) 0);
+        startVector(1, len, 1);
+        space -= len;
+        for (int i = 0, p = space, n = value.length(); i < n; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                buf[p++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[p++] = (byte) (0xc0 | (c >> 6));
+                buf[p++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isSurrogate(c) && i + 1 < n && Character.isSurrogatePair(c, value.charAt(i + 1))) {
+                final int cp = Character.toCodePoint(c, value.charAt(++i));
+                buf[p++] = (byte) (0xf0 | (cp >> 18));
+                buf[p++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                buf[p++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                buf[p++] = (byte) (0x80 | (cp & 0x3f));
+            } else {
+                buf[p++] = (byte) (0xe0 | (c >> 12));
+                buf[p++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                buf[p++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        return endVector();
+    }
+
+    public int endTable() {
+        prep(Integer.BYTES, 0);
+        putInt(0);
+        final int objectOffset = offset();
+        final int fieldCount = vtable.size();
+        for (int i = fieldCount - 1; i > -1; i--) {
+            final int fieldOffset = vtable.getQuick(i);
+            prep(Short.BYTES, 0);
+            putShort((short) (fieldOffset != 0 ? objectOffset - fieldOffset : 0));
+        }
+        prep(Short.BYTES, 0);
+        putShort((short) (objectOffset - objectStart));
+        prep(Short.BYTES, 0);
+        putShort((short) ((fieldCount + 2) * Short.BYTES));
+        // table starts with signed offset to its vtable
+        putIntAt(buf.length - objectOffset, offset() - objectOffset);
+        vtable.clear();
+        return objectOffset;
+    }
+
+    public int endVector() {
+        prep(Integer.BYTES, 0);
+        putInt(vectorElementCount);
+        return offset();
+    }
+
+    public void finish(int rootTable) {
+        prep(minAlign, Integer.BYTES);
+        addOffset(rootTable);
+    }
+
+    public int size() {
+        return buf.length - space;
+    }
+
+    public void startTable(int fieldCount) {
+        vtable.setAll(fieldCount, 0);
+        objectStart = offset();
+    }
+
+    public void startVector(int elementSize, int elementCount, int alignment) {
+        vectorElementCount = elementCount;
+        prep(Integer.BYTES, elementSize * elementCount);
+        prep(alignment, elementSize * elementCount);
+    }
+
+    private static int utf8Length(CharSequence value) {
+        int len = 0;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                len++;
+            } else if (c < 0x800) {
+                len += 2;
+            } else if (Character.isSurrogate(c) && i + 1 < n && Character.isSurrogatePair(c, value.charAt(i + 1))) {
+                len += 4;
+                i++;
+            } else {
+                len += 3;
+            }
+        }
+        return len;
+    }
+
+    private void grow() {
+        final int oldCapacity = buf.length;
+        final byte[] grown = new byte[oldCapacity * 2];
+        System.arraycopy(buf, 0, grown, oldCapacity, oldCapacity);
+        buf = grown;
+        space += oldCapacity;
+    }
+
+    private int offset() {
+        return buf.length - space;
+    }
+
+    // aligns buffer so that after "additionalBytes" are written the next "size" bytes are aligned
+    private void prep(int size, int additionalBytes) {
+        if (size > minAlign) {
+            minAlign = size;
+        }
+        final int alignSize = (~(buf.length - space + additionalBytes) + 1) & (size - 1);
+        while (space < alignSize + size + additionalBytes) {
+            grow();
+        }
+        for (int i = 0; i < alignSize; i++) {
+            buf[--space] = 0;
+        }
+    }
+
+    private void putByte(byte value) {
+        buf[--space] = value;
+    }
+
+    private void putInt(int value) {
+        space -= Integer.BYTES;
+        putIntAt(space, value);
+    }
+
+    private void putIntAt(int position, int value) {
+        buf[position] = (byte) value;
+        buf[position + 1] = (byte) (value >> 8);
+        buf[position + 2] = (byte) (value >> 16);
+        buf[position + 3] = (byte) (value >> 24);
+    }
+
+    private void putLong(long value) {
+        putInt((int) (value >> 32));
+        putInt((int) value);
+    }
+
+    private void putShort(short value) {
+        buf[--space] = (byte) (value >> 8);
+        buf[--space] = (byte) value;
+    }
+}
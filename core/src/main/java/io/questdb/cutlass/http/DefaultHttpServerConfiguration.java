@@ -102,6 +102,11 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
         public long getMaxQueryResponseRowLimit() {
             return Long.MAX_VALUE;
         }
+
+        @Override
+        public boolean isQueryCacheEnabled() {
+            return true;
+        }
     };
 
     public DefaultHttpServerConfiguration() {
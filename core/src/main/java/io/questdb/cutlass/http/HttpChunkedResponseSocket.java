@@ -33,6 +33,11 @@ public interface HttpChunkedResponseSocket extends CharSink {
 
     void done() throws PeerDisconnectedException, PeerIsSlowToReadException;
 
+    /**
+     * @return number of bytes that can be written to the current chunk before it has to be sent
+     */
+    long getWriteNAvailable();
+
     HttpResponseHeader headers();
 
     boolean resetToBookmark();
@@ -44,4 +49,12 @@ public interface HttpChunkedResponseSocket extends CharSink {
     void status(int status, CharSequence contentType);
 
     void shutdownWrite();
+
+    /**
+     * Copies raw bytes to the current chunk.
+     *
+     * @param address address of the bytes
+     * @param len     number of bytes, must not exceed {@link #getWriteNAvailable()}
+     */
+    void writeBytes(long address, int len);
 }
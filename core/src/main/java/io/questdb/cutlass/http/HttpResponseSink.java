@@ -536,6 +536,11 @@ public class HttpResponseSink implements Closeable, Mutable {
             }
         }
 
+        @Override
+        public long getWriteNAvailable() {
+            return buffer.getWriteNAvailable();
+        }
+
         @Override
         public HttpResponseHeader headers() {
             return headerImpl;
@@ -579,6 +584,12 @@ public class HttpResponseSink implements Closeable, Mutable {
         public void shutdownWrite() {
             nf.shutdown(fd, Net.SHUT_WR);
         }
+
+        @Override
+        public void writeBytes(long address, int len) {
+            Vect.memcpy(buffer.getWriteAddress(len), address, len);
+            buffer.onWrite(len);
+        }
     }
 
     private class ChunkBuffer extends AbstractCharSink implements Closeable, Reopenable {
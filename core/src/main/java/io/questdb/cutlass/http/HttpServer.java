@@ -30,11 +30,7 @@ import io.questdb.cairo.CairoEngine;
 import io.questdb.cutlass.http.processors.*;
 import io.questdb.griffin.DatabaseSnapshotAgent;
 import io.questdb.griffin.FunctionFactoryCache;
-import io.questdb.log.Log;
-import io.questdb.log.LogFactory;
-import io.questdb.mp.FanOut;
 import io.questdb.mp.Job;
-import io.questdb.mp.SCSequence;
 import io.questdb.mp.WorkerPool;
 import io.questdb.network.IODispatcher;
 import io.questdb.network.IODispatchers;
@@ -48,8 +44,6 @@ import java.io.Closeable;
 
 public class HttpServer implements Closeable {
 
-    private static final Log LOG = LogFactory.getLog(HttpServer.class);
-
     private final ObjList<HttpRequestProcessorSelectorImpl> selectors;
     private final IODispatcher<HttpConnectionContext> dispatcher;
     private final int workerCount;
@@ -76,10 +70,6 @@ public class HttpServer implements Closeable {
         for (int i = 0; i < workerCount; i++) {
             final int index = i;
 
-            final SCSequence queryCacheEventSubSeq = new SCSequence();
-            final FanOut queryCacheEventFanOut = messageBus.getQueryCacheEventFanOut();
-            queryCacheEventFanOut.and(queryCacheEventSubSeq);
-
             pool.assign(i, new Job() {
                 private final HttpRequestProcessorSelector selector = selectors.getQuick(index);
                 private final IORequestProcessor<HttpConnectionContext> processor =
@@ -87,14 +77,6 @@ public class HttpServer implements Closeable {
 
                 @Override
                 public boolean run(int workerId) {
-                    long seq = queryCacheEventSubSeq.next();
-                    if (seq > -1) {
-                        // Queue is not empty, so flush query cache.
-                        LOG.info().$("flushing HTTP server query cache [worker=").$(workerId).$(']').$();
-                        QueryCache.getThreadLocalInstance().clear();
-                        queryCacheEventSubSeq.done(seq);
-                    }
-
                     boolean useful = dispatcher.processIOQueue(processor);
                     useful |= rescheduleContext.runReruns(selector);
 
@@ -104,15 +86,7 @@ public class HttpServer implements Closeable {
 
             // http context factory has thread local pools
             // therefore we need each thread to clean their thread locals individually
-            pool.assignThreadLocalCleaner(i, () -> {
-                httpContextFactory.freeThreadLocal();
-                Misc.free(QueryCache.getThreadLocalInstance());
-            });
-
-            pool.freeOnExit(() -> {
-                messageBus.getQueryCacheEventFanOut().remove(queryCacheEventSubSeq);
-                queryCacheEventSubSeq.clear();
-            });
+            pool.assignThreadLocalCleaner(i, httpContextFactory::freeThreadLocal);
         }
     }
 
@@ -65,6 +65,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     private final Metrics metrics;
     private final long asyncWriterStartTimeout;
     private final long asyncCommandTimeout;
+    private final SharedQueryCache queryCache;
 
     @TestOnly
     public JsonQueryProcessor(
@@ -130,6 +131,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         this.metrics = engine.getMetrics();
         this.asyncWriterStartTimeout = engine.getConfiguration().getWriterAsyncCommandBusyWaitTimeout();
         this.asyncCommandTimeout = engine.getConfiguration().getWriterAsyncCommandMaxTimeout();
+        this.queryCache = configuration.isQueryCacheEnabled() ? engine.getQueryCache() : null;
     }
 
     @Override
@@ -164,7 +166,11 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
                 return;
             }
 
-            final RecordCursorFactory factory = QueryCache.getThreadLocalInstance().poll(state.getQuery());
+            RecordCursorFactory factory = null;
+            if (queryCache != null) {
+                SharedQueryCache.buildKey(state.getQueryCacheKey(), state.getQuery(), null);
+                factory = queryCache.poll(state.getQueryCacheKey(), null);
+            }
             if (factory != null) {
                 try {
                     sqlExecutionContext.storeTelemetry(CompiledQuery.SELECT, Telemetry.ORIGIN_HTTP_JSON);
@@ -175,6 +181,8 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
                 } catch (ReaderOutOfDateException e) {
                     LOG.info().$(e.getFlyweightMessage()).$();
                     Misc.free(factory);
+                    // other pooled copies were compiled against the same table structure
+                    queryCache.invalidate(state.getQueryCacheKey());
                     compileQuery(state);
                 }
             } else {
@@ -218,7 +226,9 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
                     context,
                     nanosecondClock,
                     configuration.getFloatScale(),
-                    configuration.getDoubleScale()
+                    configuration.getDoubleScale(),
+                    queryCache,
+                    metrics.jsonQuery().cachedQueriesGauge()
             ));
         }
 
@@ -42,4 +42,6 @@ public interface JsonQueryProcessorConfiguration {
     CharSequence getKeepAliveHeader();
 
     long getMaxQueryResponseRowLimit();
+
+    boolean isQueryCacheEnabled();
 }
@@ -33,11 +33,13 @@ import io.questdb.cutlass.http.HttpConnectionContext;
 import io.questdb.cutlass.http.HttpRequestHeader;
 import io.questdb.cutlass.text.TextUtil;
 import io.questdb.cutlass.text.Utf8Exception;
+import io.questdb.griffin.SharedQueryCache;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContextImpl;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.log.LogRecord;
+import io.questdb.metrics.Gauge;
 import io.questdb.mp.SCSequence;
 import io.questdb.network.PeerDisconnectedException;
 import io.questdb.network.PeerIsSlowToReadException;
@@ -45,6 +47,7 @@ import io.questdb.std.*;
 import io.questdb.std.str.CharSink;
 import io.questdb.std.str.DirectByteCharSequence;
 import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 
@@ -60,6 +63,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     static final int QUERY_PREFIX = 1;
     private static final Log LOG = LogFactory.getLog(JsonQueryProcessorState.class);
     private final StringSink query = new StringSink();
+    private final StringSink queryCacheKey = new StringSink();
     private final StringSink columnsQueryParameter = new StringSink();
     private final ObjList<StateResumeAction> resumeActions = new ObjList<>();
     private final IntList columnTypesAndFlags = new IntList();
@@ -71,6 +75,8 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private final int doubleScale;
     private final SCSequence eventSubSequence = new SCSequence();
     private final long statementTimeout;
+    private final SharedQueryCache queryCache;
+    private final Gauge cachedQueriesGauge;
     private OperationFuture operationFuture;
     private Rnd rnd;
     private RecordCursorFactory recordCursorFactory;
@@ -99,7 +105,9 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
             HttpConnectionContext httpConnectionContext,
             NanosecondClock nanosecondClock,
             int floatScale,
-            int doubleScale
+            int doubleScale,
+            @Nullable SharedQueryCache queryCache,
+            Gauge cachedQueriesGauge
     ) {
         this.httpConnectionContext = httpConnectionContext;
         resumeActions.extendAndSet(QUERY_PREFIX, this::onQueryPrefix);
@@ -115,6 +123,8 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         this.floatScale = floatScale;
         this.doubleScale = doubleScale;
         this.statementTimeout = httpConnectionContext.getRequestHeader().getStatementTimeout();
+        this.queryCache = queryCache;
+        this.cachedQueriesGauge = cachedQueriesGauge;
     }
 
     @Override
@@ -126,14 +136,15 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         cursor = Misc.free(cursor);
         record = null;
         if (null != recordCursorFactory) {
-            if (queryCacheable) {
-                QueryCache.getThreadLocalInstance().push(query, recordCursorFactory);
+            if (queryCacheable && queryCache != null) {
+                queryCache.push(queryCacheKey, recordCursorFactory, null, cachedQueriesGauge);
             } else {
                 recordCursorFactory.close();
             }
             recordCursorFactory = null;
         }
         query.clear();
+        queryCacheKey.clear();
         columnsQueryParameter.clear();
         queryState = QUERY_PREFIX;
         columnIndex = 0;
@@ -198,6 +209,10 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         return httpConnectionContext;
     }
 
+    StringSink getQueryCacheKey() {
+        return queryCacheKey;
+    }
+
     public CharSequence getQuery() {
         return query;
     }
@@ -544,6 +559,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
                 case ColumnType.CHAR:
                     putCharValue(socket, record, columnIdx);
                     break;
+                case ColumnType.VARCHAR:
                 case ColumnType.STRING:
                     putStrValue(socket, record, columnIdx);
                     break;
@@ -30,6 +30,7 @@ import io.questdb.cairo.*;
 import io.questdb.cairo.sql.NetworkSqlExecutionCircuitBreaker;
 import io.questdb.cairo.sql.ReaderOutOfDateException;
 import io.questdb.cairo.sql.Record;
+import io.questdb.cutlass.arrow.ArrowStreamWriter;
 import io.questdb.cutlass.http.*;
 import io.questdb.cutlass.text.TextUtil;
 import io.questdb.cutlass.text.Utf8Exception;
@@ -66,6 +67,9 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
     private final int doubleScale;
     private final NetworkSqlExecutionCircuitBreaker circuitBreaker;
     private final Metrics metrics;
+    private final SharedQueryCache queryCache;
+    private final int arrowBatchRows;
+    private final long arrowPageSize;
 
     @TestOnly
     public TextQueryProcessor(
@@ -92,6 +96,9 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         this.doubleScale = configuration.getDoubleScale();
         this.circuitBreaker = new NetworkSqlExecutionCircuitBreaker(engine.getConfiguration().getCircuitBreakerConfiguration(), MemoryTag.NATIVE_CB4);
         this.metrics = engine.getMetrics();
+        this.queryCache = configuration.isQueryCacheEnabled() ? engine.getQueryCache() : null;
+        this.arrowBatchRows = engine.getConfiguration().getSqlPageFrameMaxRows();
+        this.arrowPageSize = engine.getConfiguration().getMiscAppendPageSize();
     }
 
     @Override
@@ -119,7 +126,10 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         try {
             boolean isExpRequest = isExpUrl(context.getRequestHeader().getUrl());
 
-            state.recordCursorFactory = QueryCache.getThreadLocalInstance().poll(state.query);
+            if (queryCache != null) {
+                SharedQueryCache.buildKey(state.queryCacheKey, state.query, null);
+                state.recordCursorFactory = queryCache.poll(state.queryCacheKey, null);
+            }
             state.setQueryCacheable(true);
             sqlExecutionContext.with(
                     context.getCairoSecurityContext(),
@@ -153,7 +163,16 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                     boolean runQuery = true;
                     for (int retries = 0; runQuery; retries++) {
                         try {
-                            state.cursor = state.recordCursorFactory.getCursor(sqlExecutionContext);
+                            if (state.arrow) {
+                                state.getArrowWriter(arrowBatchRows, arrowPageSize).of(
+                                        state.recordCursorFactory,
+                                        sqlExecutionContext,
+                                        state.skip,
+                                        state.stop
+                                );
+                            } else {
+                                state.cursor = state.recordCursorFactory.getCursor(sqlExecutionContext);
+                            }
                             runQuery = false;
                         } catch (ReaderOutOfDateException e) {
                             if (retries == ReaderOutOfDateException.MAX_RETRY_ATTEMPS) {
@@ -161,6 +180,9 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                             }
                             info(state).$(e.getFlyweightMessage()).$();
                             state.recordCursorFactory = Misc.free(state.recordCursorFactory);
+                            if (queryCache != null) {
+                                queryCache.invalidate(state.queryCacheKey);
+                            }
                             final CompiledQuery cc = compiler.compile(state.query, sqlExecutionContext);
                             if (cc.getType() != CompiledQuery.SELECT && isExpRequest) {
                                 throw SqlException.$(0, "/exp endpoint only accepts SELECT");
@@ -198,7 +220,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         TextQueryProcessorState state = LV.get(context);
         if (state == null) {
-            LV.set(context, state = new TextQueryProcessorState(context));
+            LV.set(context, state = new TextQueryProcessorState(context, queryCache, metrics.jsonQuery().cachedQueriesGauge()));
         }
         // new request clears random
         state.rnd = null;
@@ -216,7 +238,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
             HttpConnectionContext context
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         TextQueryProcessorState state = LV.get(context);
-        if (state == null || state.cursor == null) {
+        if (state == null || (state.cursor == null && (state.arrowWriter == null || !state.arrowWriter.isOpen()))) {
             return;
         }
 
@@ -225,6 +247,11 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         LOG.debug().$("resume [fd=").$(context.getFd()).$(']').$();
 
         final HttpChunkedResponseSocket socket = context.getChunkedResponseSocket();
+        if (state.cursor == null) {
+            resumeSendArrow(socket, state);
+            readyForNextRequest(context);
+            return;
+        }
         final int columnCount = state.metadata.getColumnCount();
 
         OUT:
@@ -344,11 +371,14 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
     }
 
     protected void header(HttpChunkedResponseSocket socket, TextQueryProcessorState state, int status_code) throws PeerDisconnectedException, PeerIsSlowToReadException {
-        socket.status(status_code, "text/csv; charset=utf-8");
+        // errors are always sent as text
+        final boolean arrow = state.arrow && status_code == 200;
+        final String extension = arrow ? ".arrow\"" : ".csv\"";
+        socket.status(status_code, arrow ? "application/vnd.apache.arrow.stream" : "text/csv; charset=utf-8");
         if (state.fileName != null && state.fileName.length() > 0) {
-            socket.headers().put("Content-Disposition: attachment; filename=\"").put(state.fileName).put(".csv\"").put(Misc.EOL);
+            socket.headers().put("Content-Disposition: attachment; filename=\"").put(state.fileName).put(extension).put(Misc.EOL);
         } else {
-            socket.headers().put("Content-Disposition: attachment; filename=\"questdb-query-").put(clock.getTicks()).put(".csv\"").put(Misc.EOL);
+            socket.headers().put("Content-Disposition: attachment; filename=\"questdb-query-").put(clock.getTicks()).put(extension).put(Misc.EOL);
         }
 
         socket.headers().setKeepAlive(configuration.getKeepAliveHeader());
@@ -439,6 +469,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         state.stop = stop;
         state.noMeta = Chars.equalsNc("true", request.getUrlParam("nm"));
         state.countRows = Chars.equalsNc("true", request.getUrlParam("count"));
+        state.arrow = Chars.equalsNc("arrow", request.getUrlParam("fmt"));
         return true;
     }
 
@@ -499,6 +530,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
             case ColumnType.BINARY:
             case ColumnType.RECORD:
                 break;
+            case ColumnType.VARCHAR:
             case ColumnType.STRING:
                 putStringOrNull(socket, rec.getStr(col));
                 break;
@@ -542,6 +574,37 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         }
     }
 
+    private void resumeSendArrow(
+            HttpChunkedResponseSocket socket,
+            TextQueryProcessorState state
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        final ArrowStreamWriter writer = state.arrowWriter;
+        while (true) {
+            if (state.arrowSegmentIndex < writer.getSegmentCount()) {
+                final long size = writer.getSegmentSize(state.arrowSegmentIndex);
+                final int len = (int) Math.min(size - state.arrowSegmentOffset, socket.getWriteNAvailable());
+                if (len > 0) {
+                    socket.writeBytes(writer.getSegmentAddress(state.arrowSegmentIndex) + state.arrowSegmentOffset, len);
+                    state.arrowSegmentOffset += len;
+                }
+                if (state.arrowSegmentOffset == size) {
+                    state.arrowSegmentIndex++;
+                    state.arrowSegmentOffset = 0;
+                } else {
+                    // response buffer is full, progress is in the state so that
+                    // we can resume from here when peer is slow to read
+                    socket.sendChunk(false);
+                }
+            } else if (writer.nextMessage()) {
+                state.arrowSegmentIndex = 0;
+                state.arrowSegmentOffset = 0;
+            } else {
+                sendDone(socket, state);
+                break;
+            }
+        }
+    }
+
     private void sendConfirmation(HttpChunkedResponseSocket socket) throws PeerDisconnectedException, PeerIsSlowToReadException {
         socket.put("DDL Success\n");
         socket.sendChunk(true);
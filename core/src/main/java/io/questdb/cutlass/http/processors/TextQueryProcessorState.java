@@ -28,17 +28,28 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cutlass.arrow.ArrowStreamWriter;
 import io.questdb.cutlass.http.HttpConnectionContext;
+import io.questdb.griffin.SharedQueryCache;
+import io.questdb.metrics.Gauge;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
 import io.questdb.std.Rnd;
 import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 
 public class TextQueryProcessorState implements Mutable, Closeable {
     final StringSink query = new StringSink();
+    final StringSink queryCacheKey = new StringSink();
     private final HttpConnectionContext httpConnectionContext;
+    private final SharedQueryCache queryCache;
+    private final Gauge cachedQueriesGauge;
+    boolean arrow = false;
+    int arrowSegmentIndex;
+    long arrowSegmentOffset;
+    ArrowStreamWriter arrowWriter;
     boolean countRows = false;
     boolean noMeta = false;
     RecordCursorFactory recordCursorFactory;
@@ -54,18 +65,30 @@ public class TextQueryProcessorState implements Mutable, Closeable {
     private boolean queryCacheable = false;
     String fileName;
 
-    public TextQueryProcessorState(HttpConnectionContext httpConnectionContext) {
+    public TextQueryProcessorState(
+            HttpConnectionContext httpConnectionContext,
+            @Nullable SharedQueryCache queryCache,
+            Gauge cachedQueriesGauge
+    ) {
         this.httpConnectionContext = httpConnectionContext;
+        this.queryCache = queryCache;
+        this.cachedQueriesGauge = cachedQueriesGauge;
     }
 
     @Override
     public void clear() {
         metadata = null;
         cursor = Misc.free(cursor);
+        if (arrowWriter != null) {
+            // releases the cursor before factory goes back to the cache
+            arrowWriter.clear();
+        }
+        arrowSegmentIndex = 0;
+        arrowSegmentOffset = 0;
         record = null;
         if (null != recordCursorFactory) {
-            if (queryCacheable) {
-                QueryCache.getThreadLocalInstance().push(query, recordCursorFactory);
+            if (queryCacheable && queryCache != null) {
+                queryCache.push(queryCacheKey, recordCursorFactory, null, cachedQueriesGauge);
             } else {
                 recordCursorFactory.close();
             }
@@ -73,6 +96,7 @@ public class TextQueryProcessorState implements Mutable, Closeable {
         }
         queryCacheable = false;
         query.clear();
+        queryCacheKey.clear();
         queryState = JsonQueryProcessorState.QUERY_PREFIX;
         columnIndex = 0;
         countRows = false;
@@ -81,6 +105,7 @@ public class TextQueryProcessorState implements Mutable, Closeable {
     @Override
     public void close() {
         cursor = Misc.free(cursor);
+        arrowWriter = Misc.free(arrowWriter);
         recordCursorFactory = Misc.free(recordCursorFactory);
     }
 
@@ -88,6 +113,13 @@ public class TextQueryProcessorState implements Mutable, Closeable {
         return httpConnectionContext.getFd();
     }
 
+    ArrowStreamWriter getArrowWriter(int batchRows, long pageSize) {
+        if (arrowWriter == null) {
+            arrowWriter = new ArrowStreamWriter(batchRows, pageSize);
+        }
+        return arrowWriter;
+    }
+
     void setQueryCacheable(boolean queryCacheable) {
         this.queryCacheable = queryCacheable;
     }
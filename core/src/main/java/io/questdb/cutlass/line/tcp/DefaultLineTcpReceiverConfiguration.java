@@ -93,6 +93,16 @@ public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfi
         return 64;
     }
 
+    @Override
+    public int getWriterBatchRows() {
+        return 0;
+    }
+
+    @Override
+    public long getWriterRebalanceInterval() {
+        return 0;
+    }
+
     @Override
     public MicrosecondClock getMicrosecondClock() {
         return MicrosecondClockImpl.INSTANCE;
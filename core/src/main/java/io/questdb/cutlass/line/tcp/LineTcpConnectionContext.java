@@ -31,13 +31,14 @@ import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.network.AbstractMutableIOContext;
 import io.questdb.network.NetworkFacade;
+import io.questdb.network.RecvBufferIOContext;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Unsafe;
 import io.questdb.std.Vect;
 import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.str.DirectByteCharSequence;
 
-class LineTcpConnectionContext extends AbstractMutableIOContext<LineTcpConnectionContext> {
+class LineTcpConnectionContext extends AbstractMutableIOContext<LineTcpConnectionContext> implements RecvBufferIOContext {
     private static final Log LOG = LogFactory.getLog(LineTcpConnectionContext.class);
     private static final long QUEUE_FULL_LOG_HYSTERESIS_IN_MS = 10_000;
     protected final NetworkFacade nf;
@@ -54,6 +55,10 @@ class LineTcpConnectionContext extends AbstractMutableIOContext<LineTcpConnectio
     protected long recvBufStartOfMeasurement;
     private long lastQueueFullLogMillis = 0;
     private boolean goodMeasurement;
+    // set when dispatcher receives data on behalf of this context, the context does not read from the socket then
+    private boolean dispatcherRecv;
+    // bytes received by the dispatcher and not yet consumed by read()
+    private int dispatcherRecvBytes;
 
     LineTcpConnectionContext(LineTcpReceiverConfiguration configuration, LineTcpMeasurementScheduler scheduler, Metrics metrics) {
         nf = configuration.getNetworkFacade();
@@ -71,6 +76,8 @@ class LineTcpConnectionContext extends AbstractMutableIOContext<LineTcpConnectio
     public void clear() {
         recvBufPos = recvBufStart;
         peerDisconnected = false;
+        dispatcherRecv = false;
+        dispatcherRecvBytes = 0;
         resetParser();
     }
 
@@ -134,6 +141,16 @@ class LineTcpConnectionContext extends AbstractMutableIOContext<LineTcpConnectio
         }
     }
 
+    @Override
+    public long getRecvBufferAddress() {
+        return recvBufPos;
+    }
+
+    @Override
+    public int getRecvBufferSize() {
+        return (int) (recvBufEnd - recvBufPos);
+    }
+
     IOContextResult handleIO(NetworkIOJob netIoJob) {
         read();
         return parseMeasurements(netIoJob);
@@ -210,6 +227,17 @@ class LineTcpConnectionContext extends AbstractMutableIOContext<LineTcpConnectio
         }
     }
 
+    @Override
+    public void onRecv(int res) {
+        dispatcherRecv = true;
+        if (res > 0) {
+            recvBufPos += res;
+            dispatcherRecvBytes = res;
+        } else {
+            peerDisconnected = true;
+        }
+    }
+
     private void logParseError() {
         int position = (int) (parser.getBufferAddress() - recvBufStartOfMeasurement);
         assert position >= 0;
@@ -234,6 +262,13 @@ class LineTcpConnectionContext extends AbstractMutableIOContext<LineTcpConnectio
     }
 
     protected boolean read() {
+        if (dispatcherRecv) {
+            // bytes are already in the buffer, next receive is submitted by the dispatcher
+            // when the context is registered for read again
+            final boolean received = dispatcherRecvBytes > 0;
+            dispatcherRecvBytes = 0;
+            return received;
+        }
         int bufferRemaining = (int) (recvBufEnd - recvBufPos);
         final int orig = bufferRemaining;
         if (bufferRemaining > 0 && !peerDisconnected) {
@@ -33,6 +33,7 @@ import io.questdb.std.Chars;
 import io.questdb.std.Numbers;
 import io.questdb.std.NumericException;
 import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
 import io.questdb.std.str.DirectByteCharSequence;
 import io.questdb.std.str.FloatingDirectCharSink;
 
@@ -222,6 +223,16 @@ public class LineTcpEventBuffer {
         }
     }
 
+    public long addVarchar(long address, DirectByteCharSequence value) {
+        // varchar is stored as UTF-8, the value is copied without decoding
+        final int size = value.length();
+        checkCapacity(address, Byte.BYTES + Integer.BYTES + size);
+        Unsafe.getUnsafe().putByte(address, LineTcpParser.ENTITY_TYPE_VARCHAR);
+        Unsafe.getUnsafe().putInt(address + Byte.BYTES, size);
+        Vect.memcpy(address + Byte.BYTES + Integer.BYTES, value.getLo(), size);
+        return address + size + Integer.BYTES + Byte.BYTES;
+    }
+
     public long addTimestamp(long address, long value) {
         checkCapacity(address, Long.BYTES + Byte.BYTES);
         Unsafe.getUnsafe().putByte(address, LineTcpParser.ENTITY_TYPE_TIMESTAMP);
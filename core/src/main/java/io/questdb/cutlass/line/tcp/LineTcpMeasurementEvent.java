@@ -26,8 +26,6 @@ package io.questdb.cutlass.line.tcp;
 
 import io.questdb.cairo.*;
 import io.questdb.cutlass.line.LineProtoTimestampAdapter;
-import io.questdb.log.Log;
-import io.questdb.log.LogFactory;
 import io.questdb.std.Misc;
 import io.questdb.std.Numbers;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
@@ -39,15 +37,15 @@ import static io.questdb.cutlass.line.tcp.LineTcpParser.ENTITY_TYPE_NULL;
 import static io.questdb.cutlass.line.tcp.TableUpdateDetails.ThreadLocalDetails.COLUMN_NOT_FOUND;
 
 class LineTcpMeasurementEvent implements Closeable {
-    private static final Log LOG = LogFactory.getLog(LineTcpMeasurementEvent.class);
     private final MicrosecondClock clock;
     private final LineProtoTimestampAdapter timestampAdapter;
     private final LineTcpEventBuffer buffer;
-    private final DefaultColumnTypes defaultColumnTypes;
     private final boolean stringToCharCastAllowed;
     private final boolean symbolAsFieldSupported;
     private final int maxColumnNameLength;
     private final boolean autoCreateNewColumns;
+    // size of serialized measurement in the buffer
+    private long size;
     private int writerWorkerId;
     private TableUpdateDetails tableUpdateDetails;
     private boolean commitOnWriterClose;
@@ -57,7 +55,6 @@ class LineTcpMeasurementEvent implements Closeable {
             long bufSize,
             MicrosecondClock clock,
             LineProtoTimestampAdapter timestampAdapter,
-            DefaultColumnTypes defaultColumnTypes,
             boolean stringToCharCastAllowed,
             boolean symbolAsFieldSupported,
             int maxColumnNameLength,
@@ -68,7 +65,6 @@ class LineTcpMeasurementEvent implements Closeable {
         this.buffer = new LineTcpEventBuffer(bufLo, bufSize);
         this.clock = clock;
         this.timestampAdapter = timestampAdapter;
-        this.defaultColumnTypes = defaultColumnTypes;
         this.stringToCharCastAllowed = stringToCharCastAllowed;
         this.symbolAsFieldSupported = symbolAsFieldSupported;
     }
@@ -91,141 +87,20 @@ class LineTcpMeasurementEvent implements Closeable {
         tableUpdateDetails.releaseWriter(commitOnWriterClose);
     }
 
-    void append() throws CommitFailedException {
-        TableWriter.Row row = null;
-        try {
-            TableWriter writer = tableUpdateDetails.getWriter();
-            long offset = buffer.getAddress();
-            long timestamp = buffer.readLong(offset);
-            offset += Long.BYTES;
-            if (timestamp == LineTcpParser.NULL_TIMESTAMP) {
-                timestamp = clock.getTicks();
-            }
-            row = writer.newRow(timestamp);
-            int nEntities = buffer.readInt(offset);
-            offset += Integer.BYTES;
-            for (int nEntity = 0; nEntity < nEntities; nEntity++) {
-                int colIndex = buffer.readInt(offset);
-                offset += Integer.BYTES;
-                byte entityType;
-                if (colIndex > -1) {
-                    entityType = buffer.readByte(offset);
-                    offset += Byte.BYTES;
-                } else {
-                    // Column is passed by name, it is possible that
-                    // column is new and has to be added. It is also possible that column
-                    // already exist but the publisher is a little out of date and does not yet
-                    // have column index.
-
-                    // Column name will be UTF16 encoded already
-                    final CharSequence columnName = buffer.readUtf16Chars(offset, -colIndex);
-                    offset += -colIndex * 2L;
-
-                    entityType = buffer.readByte(offset);
-                    offset += Byte.BYTES;
-                    colIndex = writer.getMetadata().getColumnIndexQuiet(columnName);
-                    if (colIndex < 0) {
-                        // we have to cancel "active" row to avoid writer committing when
-                        // column is added
-                        row.cancel();
-                        row = null;
-                        final int colType = defaultColumnTypes.MAPPED_COLUMN_TYPES[entityType];
-                        writer.addColumn(columnName, colType);
-
-                        // Seek to beginning of entities
-                        offset = Long.BYTES + Integer.BYTES + buffer.getAddress();
-                        nEntity = -1;
-                        row = writer.newRow(timestamp);
-                        continue;
-                    }
-                }
+    void append(LineTcpRowAppender appender) throws CommitFailedException {
+        appender.append(tableUpdateDetails, buffer.getAddress());
+    }
 
-                CharSequence cs;
-                switch (entityType) {
-                    case LineTcpParser.ENTITY_TYPE_TAG:
-                        cs = buffer.readUtf16Chars(offset);
-                        row.putSym(colIndex, cs);
-                        offset += cs.length() * 2L + Integer.BYTES;
-                        break;
-                    case LineTcpParser.ENTITY_TYPE_CACHED_TAG:
-                        row.putSymIndex(colIndex, buffer.readInt(offset));
-                        offset += Integer.BYTES;
-                        break;
-                    case LineTcpParser.ENTITY_TYPE_LONG:
-                    case LineTcpParser.ENTITY_TYPE_GEOLONG:
-                        row.putLong(colIndex, buffer.readLong(offset));
-                        offset += Long.BYTES;
-                        break;
-                    case LineTcpParser.ENTITY_TYPE_INTEGER:
-                    case LineTcpParser.ENTITY_TYPE_GEOINT:
-                        row.putInt(colIndex, buffer.readInt(offset));
-                        offset += Integer.BYTES;
-                        break;
-                    case LineTcpParser.ENTITY_TYPE_SHORT:
-                    case LineTcpParser.ENTITY_TYPE_GEOSHORT:
-                        row.putShort(colIndex, buffer.readShort(offset));
-                        offset += Short.BYTES;
-                        break;
-                    case LineTcpParser.ENTITY_TYPE_BYTE:
-                    case LineTcpParser.ENTITY_TYPE_GEOBYTE:
-                        row.putByte(colIndex, buffer.readByte(offset));
-                        offset += Byte.BYTES;
-                        break;
-                    case LineTcpParser.ENTITY_TYPE_DATE:
-                        row.putDate(colIndex, buffer.readLong(offset));
-                        offset += Long.BYTES;
-                        break;
-                    case LineTcpParser.ENTITY_TYPE_DOUBLE:
-                        row.putDouble(colIndex, buffer.readDouble(offset));
-                        offset += Double.BYTES;
-                        break;
-                    case LineTcpParser.ENTITY_TYPE_FLOAT:
-                        row.putFloat(colIndex, buffer.readFloat(offset));
-                        offset += Float.BYTES;
-                        break;
-                    case LineTcpParser.ENTITY_TYPE_BOOLEAN:
-                        row.putBool(colIndex, buffer.readByte(offset) == 1);
-                        offset += Byte.BYTES;
-                        break;
-                    case LineTcpParser.ENTITY_TYPE_STRING:
-                        cs = buffer.readUtf16Chars(offset);
-                        row.putStr(colIndex, cs);
-                        offset += cs.length() * 2L + Integer.BYTES;
-                        break;
-                    case LineTcpParser.ENTITY_TYPE_CHAR:
-                        row.putChar(colIndex, buffer.readChar(offset));
-                        offset += Character.BYTES;
-                        break;
-                    case LineTcpParser.ENTITY_TYPE_LONG256:
-                        cs = buffer.readUtf16Chars(offset);
-                        row.putLong256(colIndex, cs);
-                        offset += cs.length() * 2L + Integer.BYTES;
-                        break;
-                    case LineTcpParser.ENTITY_TYPE_TIMESTAMP:
-                        row.putTimestamp(colIndex, buffer.readLong(offset));
-                        offset += Long.BYTES;
-                        break;
-                    case ENTITY_TYPE_NULL:
-                        // ignored, default nulls is used
-                        break;
-                    default:
-                        throw new UnsupportedOperationException("entityType " + entityType + " is not implemented!");
-                }
-            }
-            row.append();
-            tableUpdateDetails.commitIfMaxUncommittedRowsCountReached();
-        } catch (CommitFailedException commitFailedException) {
-            throw commitFailedException;
-        } catch (Throwable th) {
-            LOG.error()
-                    .$("could not write line protocol measurement [tableName=").$(tableUpdateDetails.getTableNameUtf16())
-                    .$(", message=").$(th.getMessage())
-                    .$(th)
-                    .I$();
-            if (row != null) {
-                row.cancel();
-            }
+    /**
+     * Copies serialized measurement to the batch, measurements without timestamp are
+     * stamped with current time, as they would be when appended directly.
+     */
+    void appendToBatch(LineTcpTableBatch batch) {
+        long timestamp = buffer.readLong(buffer.getAddress());
+        if (timestamp == LineTcpParser.NULL_TIMESTAMP) {
+            timestamp = clock.getTicks();
         }
+        batch.add(buffer.getAddress(), size, timestamp);
     }
 
     private CairoException boundsError(long entityValue, int columnWriterIndex, int colType) {
@@ -397,6 +272,10 @@ class LineTcpMeasurementEvent implements Closeable {
                                 offset = buffer.addString(offset, entityValue, parser.hasNonAsciiChars());
                                 break;
 
+                            case ColumnType.VARCHAR:
+                                offset = buffer.addVarchar(offset, entityValue);
+                                break;
+
                             case ColumnType.CHAR:
                                 if (stringToCharCastAllowed || entityValue.length() == 1) {
                                     offset = buffer.addChar(offset, entityValue.charAt(0));
@@ -502,6 +381,7 @@ class LineTcpMeasurementEvent implements Closeable {
         }
         buffer.addDesignatedTimestamp(buffer.getAddress(), timestamp);
         buffer.addNumOfColumns(buffer.getAddress() + Long.BYTES, entitiesWritten);
+        size = offset - buffer.getAddress();
         writerWorkerId = tableUpdateDetails.getWriterThreadId();
     }
 
@@ -45,8 +45,10 @@ import java.io.Closeable;
 import java.util.Arrays;
 import java.util.concurrent.locks.ReadWriteLock;
 
-class LineTcpMeasurementScheduler implements Closeable {
+class LineTcpMeasurementScheduler implements Closeable, WriterAssignmentSource {
     private static final Log LOG = LogFactory.getLog(LineTcpMeasurementScheduler.class);
+    // tables are handed over when the least loaded writer thread is this much less loaded than the busiest one
+    private static final int REBALANCE_MIN_LOAD_DIFF_PERCENT = 20;
     private final DefaultColumnTypes defaultColumnTypes;
     private final CairoEngine engine;
     private final CairoSecurityContext securityContext;
@@ -56,6 +58,7 @@ class LineTcpMeasurementScheduler implements Closeable {
     private final LowerCaseCharSequenceObjHashMap<TableUpdateDetails> idleTableUpdateDetailsUtf16;
     private final long[] loadByWriterThread;
     private final long writerIdleTimeout;
+    private final long writerRebalanceInterval;
     private final NetworkIOJob[] netIoJobs;
     private final StringSink[] tableNameSinks;
     private final TableStructureAdapter tableStructureAdapter;
@@ -66,6 +69,8 @@ class LineTcpMeasurementScheduler implements Closeable {
     private final boolean autoCreateNewTables;
     private final boolean autoCreateNewColumns;
     private LineTcpReceiver.SchedulerListener listener;
+    // guarded by tableUpdateDetailsLock
+    private long lastRebalanceMillis;
 
     LineTcpMeasurementScheduler(
             LineTcpReceiverConfiguration lineConfiguration,
@@ -101,6 +106,8 @@ class LineTcpMeasurementScheduler implements Closeable {
         int queueSize = lineConfiguration.getWriterQueueCapacity();
         long commitIntervalDefault = configuration.getCommitIntervalDefault();
         int nWriterThreads = writerWorkerPool.getWorkerCount();
+        writerRebalanceInterval = lineConfiguration.getWriterRebalanceInterval();
+        lastRebalanceMillis = milliClock.getTicks();
         pubSeq = new MPSequence[nWriterThreads];
         //noinspection unchecked
         queue = new RingQueue[nWriterThreads];
@@ -114,7 +121,6 @@ class LineTcpMeasurementScheduler implements Closeable {
                             addressSize,
                             lineConfiguration.getMicrosecondClock(),
                             lineConfiguration.getTimestampAdapter(),
-                            defaultColumnTypes,
                             lineConfiguration.isStringToCharCastAllowed(),
                             lineConfiguration.isSymbolAsFieldSupported(),
                             lineConfiguration.getMaxFileNameLength(),
@@ -136,17 +142,24 @@ class LineTcpMeasurementScheduler implements Closeable {
                     milliClock,
                     commitIntervalDefault,
                     this,
-                    engine.getMetrics()
+                    engine.getMetrics(),
+                    new LineTcpRowAppender(lineConfiguration.getMicrosecondClock(), defaultColumnTypes),
+                    cairoConfiguration.getNanosecondClock(),
+                    writerRebalanceInterval > 0
             );
             writerWorkerPool.assign(i, lineTcpWriterJob);
             writerWorkerPool.freeOnExit(lineTcpWriterJob);
         }
         this.tableStructureAdapter = new TableStructureAdapter(cairoConfiguration, defaultColumnTypes, configuration.getDefaultPartitionBy());
         writerIdleTimeout = lineConfiguration.getWriterIdleTimeout();
+        engine.setWriterAssignmentSource(this);
     }
 
     @Override
     public void close() {
+        if (engine.getWriterAssignmentSource() == this) {
+            engine.setWriterAssignmentSource(null);
+        }
         tableUpdateDetailsLock.writeLock().lock();
         try {
             closeLocals(
@@ -163,11 +176,37 @@ class LineTcpMeasurementScheduler implements Closeable {
         }
     }
 
+    @Override
+    public void collectAssignments(Sink sink) {
+        tableUpdateDetailsLock.readLock().lock();
+        try {
+            ObjList<CharSequence> tableNames = tableUpdateDetailsUtf16.keys();
+            for (int n = 0, sz = tableNames.size(); n < sz; n++) {
+                final TableUpdateDetails tab = tableUpdateDetailsUtf16.get(tableNames.getQuick(n));
+                if (tab != null) {
+                    sink.put(
+                            tab.getTableNameUtf16(),
+                            tab.getWriterThreadId(),
+                            tab.getEventsProcessedSinceReshuffle(),
+                            tab.getWriterNanosSinceReshuffle()
+                    );
+                }
+            }
+        } finally {
+            tableUpdateDetailsLock.readLock().unlock();
+        }
+    }
+
     public boolean doMaintenance(
             CharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf8,
             int readerWorkerId,
             long millis
     ) {
+        if (writerRebalanceInterval > 0 && millis - lastRebalanceMillis >= writerRebalanceInterval) {
+            if (rebalance(tableUpdateDetailsUtf8, readerWorkerId, millis)) {
+                return true;
+            }
+        }
         for (int n = 0, sz = tableUpdateDetailsUtf8.size(); n < sz; n++) {
             final CharSequence tableNameUtf8 = tableUpdateDetailsUtf8.keys().get(n);
             final TableUpdateDetails tab = tableUpdateDetailsUtf8.get(tableNameUtf8);
@@ -175,17 +214,8 @@ class LineTcpMeasurementScheduler implements Closeable {
                 tableUpdateDetailsLock.writeLock().lock();
                 try {
                     if (tab.getNetworkIOOwnerCount() == 1) {
-                        final int writerWorkerId = tab.getWriterThreadId();
-                        final long seq = getNextPublisherEventSequence(writerWorkerId);
-                        if (seq > -1) {
-                            LineTcpMeasurementEvent event = queue[writerWorkerId].get(seq);
-                            event.createWriterReleaseEvent(tab, true);
-                            tableUpdateDetailsUtf8.remove(tableNameUtf8);
+                        if (unsafeReleaseWriter(tableUpdateDetailsUtf8, tableNameUtf8, tab, readerWorkerId)) {
                             final CharSequence tableNameUtf16 = tab.getTableNameUtf16();
-                            tableUpdateDetailsUtf16.remove(tableNameUtf16);
-                            idleTableUpdateDetailsUtf16.put(tableNameUtf16, tab);
-                            tab.removeReference(readerWorkerId);
-                            pubSeq[writerWorkerId].done(seq);
                             if (listener != null) {
                                 // table going idle
                                 listener.onEvent(tableNameUtf16, 1);
@@ -292,6 +322,11 @@ class LineTcpMeasurementScheduler implements Closeable {
                 final int idleTudKeyIndex = idleTableUpdateDetailsUtf16.keyIndex(tableNameUtf16);
                 if (idleTudKeyIndex < 0) {
                     tab = idleTableUpdateDetailsUtf16.valueAt(idleTudKeyIndex);
+                    if (tab.isMigrating() && tab.getWriter() != null) {
+                        // table is being handed over to another writer thread, events
+                        // can be published once the current writer thread releases the writer
+                        return null;
+                    }
                     LOG.info().$("idle table going active [tableName=").$(tab.getTableNameUtf16()).I$();
                     if (tab.getWriter() == null) {
                         tab.closeNoLock();
@@ -332,6 +367,10 @@ class LineTcpMeasurementScheduler implements Closeable {
             tab = netIoJob.getLocalTableDetails(parser.getMeasurementName());
             if (tab == null) {
                 tab = getTableUpdateDetailsFromSharedArea(netIoJob, parser);
+                if (tab == null) {
+                    // retry when writer handover is complete
+                    return true;
+                }
             }
         } catch (EntryUnavailableException ex) {
             // Table writer is locked
@@ -401,6 +440,73 @@ class LineTcpMeasurementScheduler implements Closeable {
         return tableUpdateDetails;
     }
 
+    private boolean rebalance(CharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf8, int readerWorkerId, long millis) {
+        tableUpdateDetailsLock.writeLock().lock();
+        try {
+            if (millis - lastRebalanceMillis < writerRebalanceInterval) {
+                // another network IO thread has just checked the load
+                return false;
+            }
+            lastRebalanceMillis = millis;
+            unsafeCalcThreadLoad();
+            int maxLoadThreadId = 0;
+            int minLoadThreadId = 0;
+            for (int i = 1, n = loadByWriterThread.length; i < n; i++) {
+                if (loadByWriterThread[i] > loadByWriterThread[maxLoadThreadId]) {
+                    maxLoadThreadId = i;
+                }
+                if (loadByWriterThread[i] < loadByWriterThread[minLoadThreadId]) {
+                    minLoadThreadId = i;
+                }
+            }
+            final long maxLoad = loadByWriterThread[maxLoadThreadId];
+            final long loadDiff = maxLoad - loadByWriterThread[minLoadThreadId];
+
+            // Only tables exclusively used by this network IO thread can be handed over. The table
+            // that brings the two threads closest to even load is picked, moving a table that costs
+            // more than the difference would only swap the threads.
+            CharSequence candidateNameUtf8 = null;
+            TableUpdateDetails candidate = null;
+            long candidateImbalance = loadDiff;
+            if (loadDiff > maxLoad * REBALANCE_MIN_LOAD_DIFF_PERCENT / 100) {
+                for (int n = 0, sz = tableUpdateDetailsUtf8.size(); n < sz; n++) {
+                    final CharSequence tableNameUtf8 = tableUpdateDetailsUtf8.keys().get(n);
+                    final TableUpdateDetails tab = tableUpdateDetailsUtf8.get(tableNameUtf8);
+                    if (tab.getWriterThreadId() == maxLoadThreadId && tab.getNetworkIOOwnerCount() == 1) {
+                        final long imbalance = Math.abs(loadDiff - 2 * tab.getWriterNanosSinceReshuffle());
+                        if (imbalance < candidateImbalance) {
+                            candidateImbalance = imbalance;
+                            candidateNameUtf8 = tableNameUtf8;
+                            candidate = tab;
+                        }
+                    }
+                }
+            }
+
+            // start the next measurement window
+            ObjList<CharSequence> tableNames = tableUpdateDetailsUtf16.keys();
+            for (int n = 0, sz = tableNames.size(); n < sz; n++) {
+                final TableUpdateDetails tab = tableUpdateDetailsUtf16.get(tableNames.getQuick(n));
+                if (tab != null) {
+                    tab.markReshuffle();
+                }
+            }
+
+            if (candidate != null && unsafeReleaseWriter(tableUpdateDetailsUtf8, candidateNameUtf8, candidate, readerWorkerId)) {
+                candidate.setMigrating();
+                LOG.info().$("rebalancing table [tableName=").$(candidate.getTableNameUtf16())
+                        .$(", fromThreadId=").$(maxLoadThreadId)
+                        .$(", maxLoadNanos=").$(maxLoad)
+                        .$(", loadDiffNanos=").$(loadDiff)
+                        .I$();
+                return true;
+            }
+            return false;
+        } finally {
+            tableUpdateDetailsLock.writeLock().unlock();
+        }
+    }
+
     private void unsafeCalcThreadLoad() {
         Arrays.fill(loadByWriterThread, 0);
         ObjList<CharSequence> tableNames = tableUpdateDetailsUtf16.keys();
@@ -408,10 +514,36 @@ class LineTcpMeasurementScheduler implements Closeable {
             final CharSequence tableName = tableNames.getQuick(n);
             final TableUpdateDetails stats = tableUpdateDetailsUtf16.get(tableName);
             if (stats != null) {
-                loadByWriterThread[stats.getWriterThreadId()] += stats.getEventsProcessedSinceReshuffle();
+                loadByWriterThread[stats.getWriterThreadId()] += writerRebalanceInterval > 0
+                        ? stats.getWriterNanosSinceReshuffle()
+                        : stats.getEventsProcessedSinceReshuffle();
             } else {
                 LOG.error().$("could not find statistic for table [name=").$(tableName).I$();
             }
         }
     }
+
+    // Publishes writer release event for the table and moves it to the idle tables. Table is assigned
+    // to the least loaded writer thread when it goes active after the writer is released.
+    private boolean unsafeReleaseWriter(
+            CharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf8,
+            CharSequence tableNameUtf8,
+            TableUpdateDetails tab,
+            int readerWorkerId
+    ) {
+        final int writerWorkerId = tab.getWriterThreadId();
+        final long seq = getNextPublisherEventSequence(writerWorkerId);
+        if (seq > -1) {
+            LineTcpMeasurementEvent event = queue[writerWorkerId].get(seq);
+            event.createWriterReleaseEvent(tab, true);
+            tableUpdateDetailsUtf8.remove(tableNameUtf8);
+            final CharSequence tableNameUtf16 = tab.getTableNameUtf16();
+            tableUpdateDetailsUtf16.remove(tableNameUtf16);
+            idleTableUpdateDetailsUtf16.put(tableNameUtf16, tab);
+            tab.removeReference(readerWorkerId);
+            pubSeq[writerWorkerId].done(seq);
+            return true;
+        }
+        return false;
+    }
 }
@@ -57,7 +57,8 @@ public class LineTcpParser {
     public static final byte ENTITY_TYPE_BYTE = 17;
     public static final byte ENTITY_TYPE_DATE = 18;
     public static final byte ENTITY_TYPE_CHAR = 19;
-    public static final int N_MAPPED_ENTITY_TYPES = ENTITY_TYPE_CHAR + 1;
+    public static final byte ENTITY_TYPE_VARCHAR = 20;
+    public static final int N_MAPPED_ENTITY_TYPES = ENTITY_TYPE_VARCHAR + 1;
     static final byte ENTITY_TYPE_NONE = (byte) 0xff; // visible for testing
 
     private static final byte ENTITY_HANDLER_TABLE = 0;
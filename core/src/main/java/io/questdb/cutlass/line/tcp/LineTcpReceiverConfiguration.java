@@ -80,6 +80,21 @@ public interface LineTcpReceiverConfiguration {
 
     int getWriterQueueCapacity();
 
+    /**
+     * Maximum number of measurements writer thread accumulates per table before they are sorted
+     * by timestamp and appended to the table. Zero disables batching, measurements are appended
+     * as they arrive.
+     */
+    int getWriterBatchRows();
+
+    /**
+     * Interval in milliseconds between checks of the writer thread load. When enabled, the load is measured
+     * as the time writer threads spend appending and committing rows of each table, and the cheapest table
+     * that evens out the most and the least loaded threads is handed over between them. Zero disables
+     * rebalancing, tables are assigned by the number of events.
+     */
+    long getWriterRebalanceInterval();
+
     WorkerPoolConfiguration getWriterWorkerPoolConfiguration();
 
     boolean isEnabled();
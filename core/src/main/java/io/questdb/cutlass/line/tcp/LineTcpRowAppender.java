@@ -0,0 +1,208 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.CommitFailedException;
+import io.questdb.cairo.TableWriter;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.Unsafe;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import io.questdb.std.str.DirectByteCharSequence;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.std.str.FloatingDirectCharSink;
+
+import static io.questdb.cutlass.line.tcp.LineTcpParser.ENTITY_TYPE_NULL;
+
+/**
+ * Decodes measurements serialized by {@link LineTcpMeasurementEvent} and appends them to table writer.
+ * Measurements are read by absolute address, so that the same appender serves both
+ * queue events and batched copies of them in {@link LineTcpTableBatch}.
+ */
+class LineTcpRowAppender {
+    private static final Log LOG = LogFactory.getLog(LineTcpRowAppender.class);
+    private final MicrosecondClock clock;
+    private final DefaultColumnTypes defaultColumnTypes;
+    private final FloatingDirectCharSink tempSink = new FloatingDirectCharSink();
+    private final DirectByteCharSequence utf8Sequence = new DirectByteCharSequence();
+
+    LineTcpRowAppender(MicrosecondClock clock, DefaultColumnTypes defaultColumnTypes) {
+        this.clock = clock;
+        this.defaultColumnTypes = defaultColumnTypes;
+    }
+
+    void append(TableUpdateDetails tableUpdateDetails, long address) throws CommitFailedException {
+        TableWriter.Row row = null;
+        try {
+            TableWriter writer = tableUpdateDetails.getWriter();
+            long offset = address;
+            long timestamp = Unsafe.getUnsafe().getLong(offset);
+            offset += Long.BYTES;
+            if (timestamp == LineTcpParser.NULL_TIMESTAMP) {
+                timestamp = clock.getTicks();
+            }
+            row = writer.newRow(timestamp);
+            int nEntities = Unsafe.getUnsafe().getInt(offset);
+            offset += Integer.BYTES;
+            for (int nEntity = 0; nEntity < nEntities; nEntity++) {
+                int colIndex = Unsafe.getUnsafe().getInt(offset);
+                offset += Integer.BYTES;
+                byte entityType;
+                if (colIndex > -1) {
+                    entityType = Unsafe.getUnsafe().getByte(offset);
+                    offset += Byte.BYTES;
+                } else {
+                    // Column is passed by name, it is possible that
+                    // column is new and has to be added. It is also possible that column
+                    // already exist but the publisher is a little out of date and does not yet
+                    // have column index.
+
+                    // Column name will be UTF16 encoded already
+                    final CharSequence columnName = readUtf16Chars(offset, -colIndex);
+                    offset += -colIndex * 2L;
+
+                    entityType = Unsafe.getUnsafe().getByte(offset);
+                    offset += Byte.BYTES;
+                    colIndex = writer.getMetadata().getColumnIndexQuiet(columnName);
+                    if (colIndex < 0) {
+                        // we have to cancel "active" row to avoid writer committing when
+                        // column is added
+                        row.cancel();
+                        row = null;
+                        final int colType = defaultColumnTypes.MAPPED_COLUMN_TYPES[entityType];
+                        writer.addColumn(columnName, colType);
+
+                        // Seek to beginning of entities
+                        offset = Long.BYTES + Integer.BYTES + address;
+                        nEntity = -1;
+                        row = writer.newRow(timestamp);
+                        continue;
+                    }
+                }
+
+                CharSequence cs;
+                switch (entityType) {
+                    case LineTcpParser.ENTITY_TYPE_TAG:
+                        cs = readUtf16Chars(offset);
+                        row.putSym(colIndex, cs);
+                        offset += cs.length() * 2L + Integer.BYTES;
+                        break;
+                    case LineTcpParser.ENTITY_TYPE_CACHED_TAG:
+                        row.putSymIndex(colIndex, Unsafe.getUnsafe().getInt(offset));
+                        offset += Integer.BYTES;
+                        break;
+                    case LineTcpParser.ENTITY_TYPE_LONG:
+                    case LineTcpParser.ENTITY_TYPE_GEOLONG:
+                        row.putLong(colIndex, Unsafe.getUnsafe().getLong(offset));
+                        offset += Long.BYTES;
+                        break;
+                    case LineTcpParser.ENTITY_TYPE_INTEGER:
+                    case LineTcpParser.ENTITY_TYPE_GEOINT:
+                        row.putInt(colIndex, Unsafe.getUnsafe().getInt(offset));
+                        offset += Integer.BYTES;
+                        break;
+                    case LineTcpParser.ENTITY_TYPE_SHORT:
+                    case LineTcpParser.ENTITY_TYPE_GEOSHORT:
+                        row.putShort(colIndex, Unsafe.getUnsafe().getShort(offset));
+                        offset += Short.BYTES;
+                        break;
+                    case LineTcpParser.ENTITY_TYPE_BYTE:
+                    case LineTcpParser.ENTITY_TYPE_GEOBYTE:
+                        row.putByte(colIndex, Unsafe.getUnsafe().getByte(offset));
+                        offset += Byte.BYTES;
+                        break;
+                    case LineTcpParser.ENTITY_TYPE_DATE:
+                        row.putDate(colIndex, Unsafe.getUnsafe().getLong(offset));
+                        offset += Long.BYTES;
+                        break;
+                    case LineTcpParser.ENTITY_TYPE_DOUBLE:
+                        row.putDouble(colIndex, Unsafe.getUnsafe().getDouble(offset));
+                        offset += Double.BYTES;
+                        break;
+                    case LineTcpParser.ENTITY_TYPE_FLOAT:
+                        row.putFloat(colIndex, Unsafe.getUnsafe().getFloat(offset));
+                        offset += Float.BYTES;
+                        break;
+                    case LineTcpParser.ENTITY_TYPE_BOOLEAN:
+                        row.putBool(colIndex, Unsafe.getUnsafe().getByte(offset) == 1);
+                        offset += Byte.BYTES;
+                        break;
+                    case LineTcpParser.ENTITY_TYPE_STRING:
+                        cs = readUtf16Chars(offset);
+                        row.putStr(colIndex, cs);
+                        offset += cs.length() * 2L + Integer.BYTES;
+                        break;
+                    case LineTcpParser.ENTITY_TYPE_VARCHAR: {
+                        final int size = Unsafe.getUnsafe().getInt(offset);
+                        offset += Integer.BYTES;
+                        row.putVarchar(colIndex, (Utf8Sequence) utf8Sequence.of(offset, offset + size));
+                        offset += size;
+                        break;
+                    }
+                    case LineTcpParser.ENTITY_TYPE_CHAR:
+                        row.putChar(colIndex, Unsafe.getUnsafe().getChar(offset));
+                        offset += Character.BYTES;
+                        break;
+                    case LineTcpParser.ENTITY_TYPE_LONG256:
+                        cs = readUtf16Chars(offset);
+                        row.putLong256(colIndex, cs);
+                        offset += cs.length() * 2L + Integer.BYTES;
+                        break;
+                    case LineTcpParser.ENTITY_TYPE_TIMESTAMP:
+                        row.putTimestamp(colIndex, Unsafe.getUnsafe().getLong(offset));
+                        offset += Long.BYTES;
+                        break;
+                    case ENTITY_TYPE_NULL:
+                        // ignored, default nulls is used
+                        break;
+                    default:
+                        throw new UnsupportedOperationException("entityType " + entityType + " is not implemented!");
+                }
+            }
+            row.append();
+            tableUpdateDetails.commitIfMaxUncommittedRowsCountReached();
+        } catch (CommitFailedException commitFailedException) {
+            throw commitFailedException;
+        } catch (Throwable th) {
+            LOG.error()
+                    .$("could not write line protocol measurement [tableName=").$(tableUpdateDetails.getTableNameUtf16())
+                    .$(", message=").$(th.getMessage())
+                    .$(th)
+                    .I$();
+            if (row != null) {
+                row.cancel();
+            }
+        }
+    }
+
+    private CharSequence readUtf16Chars(long address) {
+        return readUtf16Chars(address + Integer.BYTES, Unsafe.getUnsafe().getInt(address));
+    }
+
+    private CharSequence readUtf16Chars(long address, int length) {
+        tempSink.asCharSequence(address, address + length * 2L);
+        return tempSink;
+    }
+}
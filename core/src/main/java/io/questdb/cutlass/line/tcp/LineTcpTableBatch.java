@@ -0,0 +1,125 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.CommitFailedException;
+import io.questdb.std.*;
+
+import java.io.Closeable;
+
+/**
+ * Accumulates serialized measurements of a single table on its writer thread. Before
+ * the batch is appended to the table writer, measurements are sorted by designated timestamp,
+ * so that out-of-order feeds arrive to the writer in order. Unless the batch overlaps rows
+ * that are already in the table, writer never switches to O3 mode for the batch, otherwise
+ * the whole batch is merged as one ordered O3 chunk on commit.
+ * <p>
+ * The sort is stable, measurements with equal timestamps keep their arrival order.
+ */
+class LineTcpTableBatch implements Closeable, Mutable {
+    private static final long MIN_BUFFER_SIZE = 64 * 1024;
+    // (timestamp, offset in buffer) pairs, sorted by timestamp before append
+    private final DirectLongList index;
+    private final DirectLongList indexCopy;
+    private final int maxRows;
+    private long bufferAddress;
+    private long bufferCapacity;
+    private long bufferSize;
+    private long maxTimestamp = Long.MIN_VALUE;
+    private boolean ordered = true;
+
+    LineTcpTableBatch(int maxRows) {
+        this.maxRows = maxRows;
+        this.index = new DirectLongList(2L * maxRows, MemoryTag.NATIVE_ILP_RSS);
+        this.indexCopy = new DirectLongList(2L * maxRows, MemoryTag.NATIVE_ILP_RSS);
+    }
+
+    @Override
+    public void clear() {
+        index.clear();
+        bufferSize = 0;
+        maxTimestamp = Long.MIN_VALUE;
+        ordered = true;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(index);
+        Misc.free(indexCopy);
+        if (bufferAddress != 0) {
+            bufferAddress = Unsafe.free(bufferAddress, bufferCapacity, MemoryTag.NATIVE_ILP_RSS);
+            bufferCapacity = 0;
+        }
+    }
+
+    boolean isEmpty() {
+        return index.size() == 0;
+    }
+
+    boolean isFull() {
+        return index.size() >= 2L * maxRows;
+    }
+
+    void add(long address, long size, long timestamp) {
+        if (bufferSize + size > bufferCapacity) {
+            final long newCapacity = Math.max(Numbers.ceilPow2(bufferSize + size), MIN_BUFFER_SIZE);
+            bufferAddress = bufferAddress == 0
+                    ? Unsafe.malloc(newCapacity, MemoryTag.NATIVE_ILP_RSS)
+                    : Unsafe.realloc(bufferAddress, bufferCapacity, newCapacity, MemoryTag.NATIVE_ILP_RSS);
+            bufferCapacity = newCapacity;
+        }
+        final long offset = bufferSize;
+        Vect.memcpy(bufferAddress + offset, address, size);
+        // measurement is stored with the resolved timestamp
+        Unsafe.getUnsafe().putLong(bufferAddress + offset, timestamp);
+        bufferSize += size;
+
+        index.add(timestamp);
+        index.add(offset);
+        ordered &= timestamp >= maxTimestamp;
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+    }
+
+    /**
+     * Appends batched measurements to the table writer in timestamp order and empties the batch.
+     */
+    void appendTo(TableUpdateDetails tableUpdateDetails, LineTcpRowAppender appender) throws CommitFailedException {
+        try {
+            final long rowCount = index.size() / 2;
+            if (!ordered) {
+                if (indexCopy.getCapacity() < index.size()) {
+                    indexCopy.setCapacity(index.size());
+                }
+                Vect.radixSortLongIndexAscInPlace(index.getAddress(), rowCount, indexCopy.getAddress());
+            }
+            for (long i = 0; i < rowCount; i++) {
+                appender.append(tableUpdateDetails, bufferAddress + index.get(2 * i + 1));
+            }
+        } finally {
+            clear();
+        }
+    }
+}
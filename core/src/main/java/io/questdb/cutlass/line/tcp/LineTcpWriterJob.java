@@ -31,6 +31,7 @@ import io.questdb.mp.Job;
 import io.questdb.mp.RingQueue;
 import io.questdb.mp.Sequence;
 import io.questdb.std.Misc;
+import io.questdb.std.NanosecondClock;
 import io.questdb.std.ObjList;
 import io.questdb.std.Os;
 import io.questdb.std.datetime.millitime.MillisecondClock;
@@ -50,6 +51,10 @@ class LineTcpWriterJob implements Job, Closeable {
     private final LineTcpMeasurementScheduler scheduler;
     private long nextCommitTime;
     private final Metrics metrics;
+    private final LineTcpRowAppender appender;
+    private final NanosecondClock nanosecondClock;
+    // time spent on each table is measured only when the scheduler balances load by it
+    private final boolean measureTableCost;
 
     LineTcpWriterJob(
             int workerId,
@@ -58,7 +63,10 @@ class LineTcpWriterJob implements Job, Closeable {
             MillisecondClock millisecondClock,
             long commitIntervalDefault,
             LineTcpMeasurementScheduler scheduler,
-            Metrics metrics
+            Metrics metrics,
+            LineTcpRowAppender appender,
+            NanosecondClock nanosecondClock,
+            boolean measureTableCost
     ) {
         this.workerId = workerId;
         this.queue = queue;
@@ -68,6 +76,9 @@ class LineTcpWriterJob implements Job, Closeable {
         this.nextCommitTime = millisecondClock.getTicks();
         this.scheduler = scheduler;
         this.metrics = metrics;
+        this.appender = appender;
+        this.nanosecondClock = nanosecondClock;
+        this.measureTableCost = measureTableCost;
     }
 
     @Override
@@ -79,6 +90,7 @@ class LineTcpWriterJob implements Job, Closeable {
                 break;
             }
         }
+        appendBatches();
 
         Misc.free(path);
         Misc.freeObjList(assignedTables);
@@ -89,6 +101,8 @@ class LineTcpWriterJob implements Job, Closeable {
     public boolean run(int workerId) {
         assert this.workerId == workerId;
         boolean busy = drainQueue();
+        // queue is empty, batched measurements go to writers before they are committed
+        appendBatches();
         // while ILP is hammering the database via multiple connections the writer
         // is likely to be very busy so commitTables() will run infrequently
         // commit should run regardless the busy flag but has to finish quickly
@@ -101,6 +115,32 @@ class LineTcpWriterJob implements Job, Closeable {
         return busy;
     }
 
+    private void appendBatch(TableUpdateDetails tab) {
+        if (tab.isBatchEnabled() && !tab.getBatch().isEmpty()) {
+            final long start = measureTableCost ? nanosecondClock.getTicks() : 0;
+            try {
+                tab.getBatch().appendTo(tab, appender);
+                if (measureTableCost) {
+                    tab.addWriterNanos(nanosecondClock.getTicks() - start);
+                }
+            } catch (Throwable ex) {
+                // writer will be released on the next event for the table
+                tab.setWriterInError();
+                LOG.critical()
+                        .$("batch append failed [table=").$(tab.getTableNameUtf16())
+                        .$(",ex=").$(ex)
+                        .I$();
+                metrics.health().incrementUnhandledErrors();
+            }
+        }
+    }
+
+    private void appendBatches() {
+        for (int n = 0, sz = assignedTables.size(); n < sz; n++) {
+            appendBatch(assignedTables.getQuick(n));
+        }
+    }
+
     private void commitTables() {
         long wallClockMillis = millisecondClock.getTicks();
         if (wallClockMillis > nextCommitTime) {
@@ -109,8 +149,13 @@ class LineTcpWriterJob implements Job, Closeable {
                 // the heap based solution mentioned above will eliminate the minimum search
                 // we could just process the min element of the heap until we hit the first commit
                 // time greater than millis and that will be our nextCommitTime
+                final TableUpdateDetails tab = assignedTables.getQuick(n);
+                final long start = measureTableCost ? nanosecondClock.getTicks() : 0;
                 try {
-                    long tableNextCommitTime = assignedTables.getQuick(n).commitIfIntervalElapsed(wallClockMillis);
+                    long tableNextCommitTime = tab.commitIfIntervalElapsed(wallClockMillis);
+                    if (measureTableCost) {
+                        tab.addWriterNanos(nanosecondClock.getTicks() - start);
+                    }
                     // get current time again, commit is not instant and take quite some time.
                     wallClockMillis = millisecondClock.getTicks();
                     if (tableNextCommitTime < minTableNextCommitTime) {
@@ -119,7 +164,7 @@ class LineTcpWriterJob implements Job, Closeable {
                     }
                 } catch (Throwable ex) {
                     LOG.critical()
-                            .$("commit failed [table=").$(assignedTables.getQuick(n).getTableNameUtf16())
+                            .$("commit failed [table=").$(tab.getTableNameUtf16())
                             .$(",ex=").$(ex)
                             .I$();
                     metrics.health().incrementUnhandledErrors();
@@ -163,7 +208,19 @@ class LineTcpWriterJob implements Job, Closeable {
                                         .$(", threadId=").$(workerId)
                                         .I$();
                             }
-                            event.append();
+                            final long start = measureTableCost ? nanosecondClock.getTicks() : 0;
+                            if (tab.isBatchEnabled()) {
+                                final LineTcpTableBatch batch = tab.getBatch();
+                                event.appendToBatch(batch);
+                                if (batch.isFull()) {
+                                    batch.appendTo(tab, appender);
+                                }
+                            } else {
+                                event.append(appender);
+                            }
+                            if (measureTableCost) {
+                                tab.addWriterNanos(nanosecondClock.getTicks() - start);
+                            }
                         }
                     } catch (Throwable ex) {
                         tab.setWriterInError();
@@ -183,6 +240,9 @@ class LineTcpWriterJob implements Job, Closeable {
                 }
 
                 if (closeWriter && tab.getWriter() != null) {
+                    if (!tab.isWriterInError() && tab.getWriterThreadId() == workerId) {
+                        appendBatch(tab);
+                    }
                     scheduler.processWriterReleaseEvent(event, workerId);
                     assignedTables.remove(tab);
                     tab.setAssignedToJob(false);
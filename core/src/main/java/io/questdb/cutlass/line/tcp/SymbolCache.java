@@ -25,15 +25,18 @@
 package io.questdb.cutlass.line.tcp;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.SymbolDictionaryCache;
 import io.questdb.cairo.SymbolMapReaderImpl;
 import io.questdb.cairo.TxReader;
 import io.questdb.cairo.sql.SymbolLookup;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.std.Chars;
+import io.questdb.std.Misc;
 import io.questdb.std.ObjIntHashMap;
 import io.questdb.std.Unsafe;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.str.Path;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 
@@ -49,6 +52,9 @@ class SymbolCache implements Closeable, SymbolLookup {
     private final long waitUsBeforeReload;
     private long lastSymbolReaderReloadTimestamp;
     private int symbolIndexInTxFile;
+    // engine-wide cache of committed symbols, local map only keeps symbols that are not there yet
+    private SymbolDictionaryCache.Entry dictionary;
+    private int maxLocalKey = -1;
 
     SymbolCache(LineTcpReceiverConfiguration configuration) {
         this.clock = configuration.getMicrosecondClock();
@@ -57,6 +63,7 @@ class SymbolCache implements Closeable, SymbolLookup {
 
     @Override
     public void close() {
+        dictionary = Misc.free(dictionary);
         txReader = null;
         symbolMapReader.close();
         symbolValueToKeyMap.reset();
@@ -64,6 +71,17 @@ class SymbolCache implements Closeable, SymbolLookup {
 
     @Override
     public int keyOf(CharSequence value) {
+        if (dictionary != null) {
+            final int key = dictionary.keyOf(value);
+            if (key != SymbolTable.VALUE_NOT_FOUND) {
+                return key;
+            }
+            if (dictionary.getSize() > maxLocalKey && symbolValueToKeyMap.size() > 0) {
+                // all locally cached symbols have been committed and published
+                symbolValueToKeyMap.clear();
+            }
+        }
+
         final int index = symbolValueToKeyMap.keyIndex(value);
         if (index < 0) {
             return symbolValueToKeyMap.valueAt(index);
@@ -84,6 +102,7 @@ class SymbolCache implements Closeable, SymbolLookup {
 
         if (SymbolTable.VALUE_NOT_FOUND != symbolKey) {
             symbolValueToKeyMap.putAt(index, Chars.toString(value), symbolKey);
+            maxLocalKey = Math.max(maxLocalKey, symbolKey);
         }
 
         return symbolKey;
@@ -104,6 +123,20 @@ class SymbolCache implements Closeable, SymbolLookup {
             TxReader txReader,
             long columnNameTxn
     ) {
+        of(configuration, path, columnName, symbolIndexInTxFile, txReader, columnNameTxn, null);
+    }
+
+    void of(CairoConfiguration configuration,
+            Path path,
+            CharSequence columnName,
+            int symbolIndexInTxFile,
+            TxReader txReader,
+            long columnNameTxn,
+            @Nullable SymbolDictionaryCache.Entry dictionary
+    ) {
+        Misc.free(this.dictionary);
+        this.dictionary = dictionary;
+        this.maxLocalKey = -1;
         this.symbolIndexInTxFile = symbolIndexInTxFile;
         final int plen = path.length();
         this.txReader = txReader;
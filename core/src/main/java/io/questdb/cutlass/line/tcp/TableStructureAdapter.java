@@ -93,6 +93,16 @@ class TableStructureAdapter implements TableStructure {
         return false;
     }
 
+    @Override
+    public boolean isBloomFilter(int columnIndex) {
+        return false;
+    }
+
+    @Override
+    public boolean isDedupKey(int columnIndex) {
+        return false;
+    }
+
     @Override
     public boolean isSequential(int columnIndex) {
         return false;
@@ -52,10 +52,20 @@ public class TableUpdateDetails implements Closeable {
     private final CairoEngine engine;
     private final MillisecondClock millisecondClock;
     private final long writerTickRowsCountMod;
+    private final int writerBatchRows;
+    // measurements accumulated by the writer thread, created on first use
+    private LineTcpTableBatch batch;
     private int writerThreadId;
     // Number of rows processed since the last reshuffle, this is an estimate because it is incremented by
     // multiple threads without synchronisation
     private long eventsProcessedSinceReshuffle = 0;
+    // Time writer thread spent appending and committing rows of this table. It is written by the writer
+    // thread only and read by the scheduler without synchronisation, so the scheduler sees an estimate
+    private long writerNanos = 0;
+    // writerNanos value captured by the scheduler at the last load check
+    private long writerNanosAtReshuffle = 0;
+    // set by the scheduler when writer is released to hand the table over to another writer thread
+    private boolean migrating = false;
     private TableWriter writer;
     private boolean assignedToJob = false;
     private long lastMeasurementMillis = Long.MAX_VALUE;
@@ -84,6 +94,7 @@ public class TableUpdateDetails implements Closeable {
         TableWriterMetadata metadata = writer.getMetadata();
         this.millisecondClock = cairoConfiguration.getMillisecondClock();
         this.writerTickRowsCountMod = cairoConfiguration.getWriterTickRowsCountMod();
+        this.writerBatchRows = configuration.getWriterBatchRows();
         this.writer = writer;
         this.timestampIndex = metadata.getTimestampIndex();
         this.tableNameUtf16 = writer.getTableName();
@@ -139,14 +150,26 @@ public class TableUpdateDetails implements Closeable {
                     writer = Misc.free(writer);
                 }
             }
+            batch = Misc.free(batch);
             writerThreadId = Integer.MIN_VALUE;
         }
     }
 
+    LineTcpTableBatch getBatch() {
+        if (batch == null) {
+            batch = new LineTcpTableBatch(writerBatchRows);
+        }
+        return batch;
+    }
+
     public long getEventsProcessedSinceReshuffle() {
         return eventsProcessedSinceReshuffle;
     }
 
+    public long getWriterNanosSinceReshuffle() {
+        return writerNanos - writerNanosAtReshuffle;
+    }
+
     public long getLastMeasurementMillis() {
         return lastMeasurementMillis;
     }
@@ -167,6 +190,26 @@ public class TableUpdateDetails implements Closeable {
         ++eventsProcessedSinceReshuffle;
     }
 
+    void addWriterNanos(long nanos) {
+        writerNanos += nanos;
+    }
+
+    boolean isMigrating() {
+        return migrating;
+    }
+
+    void markReshuffle() {
+        writerNanosAtReshuffle = writerNanos;
+    }
+
+    void setMigrating() {
+        migrating = true;
+    }
+
+    boolean isBatchEnabled() {
+        return writerBatchRows > 0;
+    }
+
     public boolean isAssignedToJob() {
         return assignedToJob;
     }
@@ -282,6 +325,7 @@ public class TableUpdateDetails implements Closeable {
                 // writer or FS can be in a bad state
                 // do not leave writer locked
                 writer = Misc.free(writer);
+                batch = Misc.free(batch);
             }
         }
     }
@@ -360,7 +404,15 @@ public class TableUpdateDetails implements Closeable {
 
                 long columnNameTxn = reader.getColumnVersionReader().getDefaultColumnNameTxn(colWriterIndex);
                 assert symIndex <= colWriterIndex;
-                symCache.of(engine.getConfiguration(), path, symbolNameTemp, symIndex, txReader, columnNameTxn);
+                symCache.of(
+                        engine.getConfiguration(),
+                        path,
+                        symbolNameTemp,
+                        symIndex,
+                        txReader,
+                        columnNameTxn,
+                        engine.getSymbolDictionaryCache().acquire(reader.getMetadata().getId(), colWriterIndex, columnNameTxn)
+                );
                 symbolCacheByColumnIndex.extendAndSet(colWriterIndex, symCache);
                 return symCache;
             }
@@ -408,6 +408,7 @@ public class LineUdpParserImpl implements LineUdpParser, Closeable {
                         break;
                     case ColumnType.STRING:
                         valid = columnTypeTag == ColumnType.STRING ||
+                                columnTypeTag == ColumnType.VARCHAR ||
                                 columnTypeTag == ColumnType.CHAR ||
                                 isForField &&
                                         (geoHashBits = ColumnType.getGeoHashBits(columnType)) != 0;
@@ -591,6 +592,16 @@ public class LineUdpParserImpl implements LineUdpParser, Closeable {
             return false;
         }
 
+        @Override
+        public boolean isBloomFilter(int columnIndex) {
+            return false;
+        }
+
+        @Override
+        public boolean isDedupKey(int columnIndex) {
+            return false;
+        }
+
         @Override
         public boolean isSequential(int columnIndex) {
             return false;
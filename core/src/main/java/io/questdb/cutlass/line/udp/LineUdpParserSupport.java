@@ -66,6 +66,9 @@ public class LineUdpParserSupport {
                     case ColumnType.STRING:
                         row.putStr(columnIndex, value, 1, value.length() - 2);
                         break;
+                    case ColumnType.VARCHAR:
+                        row.putVarchar(columnIndex, value, 1, value.length() - 2);
+                        break;
                     case ColumnType.SYMBOL:
                         row.putSym(columnIndex, value);
                         break;
@@ -250,6 +253,9 @@ public class LineUdpParserSupport {
             case ColumnType.STRING:
                 row.putStr(columnIndex, null);
                 break;
+            case ColumnType.VARCHAR:
+                row.putVarchar(columnIndex, (CharSequence) null);
+                break;
             case ColumnType.SYMBOL:
                 row.putSym(columnIndex, null);
                 break;
@@ -30,14 +30,15 @@ import io.questdb.cairo.pool.WriterSource;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
-import io.questdb.cutlass.text.TextLoader;
 import io.questdb.cutlass.text.types.TypeManager;
 import io.questdb.griffin.*;
 import io.questdb.griffin.engine.functions.bind.BindVariableServiceImpl;
 import io.questdb.griffin.engine.ops.AbstractOperation;
 import io.questdb.griffin.engine.ops.UpdateOperation;
+import io.questdb.griffin.model.CopyModel;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.metrics.Gauge;
 import io.questdb.mp.SCSequence;
 import io.questdb.network.*;
 import io.questdb.std.*;
@@ -134,6 +135,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     private final CharSequenceObjHashMap<Portal> namedPortalMap;
     private final IntList syncActions = new IntList(4);
     private final CairoEngine engine;
+    private final int copyCommitBatchSize;
     private final ObjectPool<DirectBinarySequence> binarySequenceParamsPool;
     private final NetworkSqlExecutionCircuitBreaker circuitBreaker;
     private final SCSequence tempSequence = new SCSequence();
@@ -154,6 +156,8 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     private int parsePhaseBindVariableCount;
     private long sendBufferPtr;
     private boolean requireInitialMessage = true;
+    // created on first COPY FROM STDIN, most connections never use it
+    private PGCopyInProcessor copyIn;
     private long recvBufferWriteOffset = 0;
     private long totalReceived = 0;
     private long recvBufferReadOffset = 0;
@@ -164,8 +168,8 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     private RecordCursorFactory currentFactory = null;
     // these references are held by context only for a period of processing single request
     // in PF world this request can span multiple messages, but still, only for one request
-    // the rationale is to be able to return "selectAndTypes" instance to thread-local
-    // cache, which is "typesAndSelectCache". We typically do this after query results are
+    // the rationale is to be able to return select factory to the engine-wide
+    // cache, which is "queryCache". We typically do this after query results are
     // served to client or query errored out due to network issues
     private TypesAndSelect typesAndSelect = null;
     private TypesAndInsert typesAndInsert = null;
@@ -186,7 +190,10 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     private int transactionState = NO_TRANSACTION;
     private final PGResumeProcessor resumeQueryCompleteRef = this::resumeQueryComplete;
     private NamedStatementWrapper wrapper;
-    private AssociativeCache<TypesAndSelect> typesAndSelectCache;
+    private final SharedQueryCache queryCache;
+    private final Gauge cachedSelectsGauge;
+    // key of the select factory in the query cache, built before the query is compiled
+    private final StringSink queryCacheKey = new StringSink();
     private WeakSelfReturningObjectPool<TypesAndSelect> typesAndSelectPool;
     // this is a reference to types either from the context or named statement, where it is provided
     private IntList activeBindVariableTypes;
@@ -230,6 +237,9 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         this.batchCallback = new PGConnectionBatchCallback();
         this.bindSelectColumnFormats = new IntList();
         this.queryTag = TAG_OK;
+        this.queryCache = configuration.isSelectCacheEnabled() ? engine.getQueryCache() : null;
+        this.cachedSelectsGauge = engine.getMetrics().pgWire().cachedSelectsGauge();
+        this.copyCommitBatchSize = configuration.getCopyCommitBatchSize();
     }
 
     public static int getInt(long address, long msgLimit, CharSequence errorMessage) throws BadProtocolException {
@@ -299,6 +309,9 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         authenticationRequired = true;
         username = null;
         typeManager.clear();
+        if (copyIn != null) {
+            copyIn.clear();
+        }
         clearWriters();
         clearRecvBuffer();
         typesAndInsertCache.clear();
@@ -354,6 +367,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         clear();
         this.fd = -1;
         sqlExecutionContext.with(AllowAllCairoSecurityContext.INSTANCE, null, null, -1, null);
+        copyIn = Misc.free(copyIn);
         Misc.free(path);
         Misc.free(utf8Sink);
         Misc.free(circuitBreaker);
@@ -371,14 +385,12 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
 
     public void handleClientOperation(
             @Transient SqlCompiler compiler,
-            @Transient AssociativeCache<TypesAndSelect> selectAndTypesCache,
             @Transient WeakSelfReturningObjectPool<TypesAndSelect> selectAndTypesPool,
             @Transient AssociativeCache<TypesAndUpdate> typesAndUpdateCache,
             @Transient WeakSelfReturningObjectPool<TypesAndUpdate> typesAndUpdatePool,
             int operation
     ) throws PeerDisconnectedException, PeerIsSlowToReadException, PeerIsSlowToWriteException, BadProtocolException {
 
-        this.typesAndSelectCache = selectAndTypesCache;
         this.typesAndSelectPool = selectAndTypesPool;
         this.typesAndUpdateCache = typesAndUpdateCache;
         this.typesAndUpdatePool = typesAndUpdatePool;
@@ -572,6 +584,12 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         }
     }
 
+    private void abortCopyIn() {
+        if (copyIn != null) {
+            copyIn.clear();
+        }
+    }
+
     private void appendBinColumn(Record record, int i) throws SqlException {
         BinarySequence sequence = record.getBin(i);
         if (sequence == null) {
@@ -768,8 +786,10 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                 case ColumnType.INT:
                     appendIntCol(record, i);
                     break;
+                case ColumnType.VARCHAR:
                 case ColumnType.STRING:
                 case BINARY_TYPE_STRING:
+                case BINARY_TYPE_VARCHAR:
                     appendStrColumn(record, i);
                     break;
                 case ColumnType.SYMBOL:
@@ -1050,11 +1070,11 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         // we do not want to overwrite cache entries and potentially
         // leak memory
         if (typesAndSelect != null) {
-            if (typesAndSelectIsCached) {
-                typesAndSelectCache.put(queryText, typesAndSelect);
-                // clear selectAndTypes so that context doesn't accidentally
-                // free the factory when context finishes abnormally
-                this.typesAndSelect = null;
+            if (typesAndSelectIsCached && queryCache != null) {
+                // the cache takes ownership of the factory, the type container goes back to its pool
+                final RecordCursorFactory factory = typesAndSelect.detachFactory();
+                queryCache.push(queryCacheKey, factory, typesAndSelect.getTypes(), cachedSelectsGauge);
+                this.typesAndSelect = Misc.free(this.typesAndSelect);
             } else {
                 this.typesAndSelect = Misc.free(this.typesAndSelect);
             }
@@ -1101,19 +1121,24 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                 return false;
             }
 
-            typesAndSelect = typesAndSelectCache.poll(queryText);
-
-            if (typesAndSelect != null) {
-                LOG.info().$("query cache used [fd=").$(fd).I$();
-                // cache hit, define bind variables
-                bindVariableService.clear();
-                typesAndSelect.defineBindVariables(bindVariableService);
-                queryTag = TAG_SELECT;
-                return false;
+            if (queryCache != null) {
+                SharedQueryCache.buildKey(queryCacheKey, queryText, bindVariableService);
+                // cache hit defines bind variables the factory was compiled with
+                final RecordCursorFactory factory = queryCache.poll(queryCacheKey, bindVariableService);
+                if (factory != null) {
+                    LOG.info().$("query cache used [fd=").$(fd).I$();
+                    typesAndSelect = typesAndSelectPool.pop();
+                    typesAndSelect.of(factory, bindVariableService);
+                    queryTag = TAG_SELECT;
+                    return false;
+                }
             }
 
             // not cached - compile to see what it is
             final CompiledQuery cc = compiler.compile(queryText, sqlExecutionContext); //here
+            if (cc.getType() == CompiledQuery.COPY_REMOTE) {
+                throw SqlException.$(0, "COPY FROM STDIN is supported in simple query protocol only");
+            }
             processCompiledQuery(cc);
         } else {
             isEmptyQuery = true;
@@ -1480,6 +1505,10 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         }
     }
 
+    private boolean isCopyInActive() {
+        return copyIn != null && copyIn.isActive();
+    }
+
     /**
      * returns address of where parsing stopped. If there are remaining bytes left
      * in the buffer they need to be passed again in parse function along with
@@ -1542,6 +1571,10 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
             doAuthentication(msgLo, msgLimit);
             return;
         }
+        if ((type == 'S' || type == 'H') && isCopyInActive()) {
+            // flush and sync are ignored in copy-in mode
+            return;
+        }
         switch (type) {
             case 'P': //parse
                 sendRNQ = true;
@@ -1591,7 +1624,14 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                 sendRNQ = true;
                 processQuery(msgLo, msgLimit, compiler);
                 break;
-            case 'd': // COPY data 
+            case 'd': // COPY data
+                processCopyData(msgLo, msgLimit);
+                break;
+            case 'c': // COPY done
+                processCopyDone();
+                break;
+            case 'f': // COPY fail
+                processCopyFail(msgLo, msgLimit);
                 break;
             default:
                 LOG.error().$("unknown message [type=").$(type).$(']').$();
@@ -2042,6 +2082,9 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                 }
                 queryTag = TAG_COPY;
                 break;
+            case CompiledQuery.COPY_REMOTE:
+                queryTag = TAG_COPY;
+                break;
             case CompiledQuery.SET:
                 queryTag = TAG_SET;
                 break;
@@ -2078,6 +2121,45 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         }
     }
 
+    private void processCopyData(long lo, long msgLimit) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        // when COPY has failed, the rest of client data is dropped until CopyDone or CopyFail
+        if (isCopyInActive()) {
+            try {
+                copyIn.onData(lo, msgLimit);
+            } catch (CairoException e) {
+                abortCopyIn();
+                prepareError(e);
+                sendReadyForNewQuery();
+            }
+        }
+    }
+
+    private void processCopyDone() throws PeerDisconnectedException, PeerIsSlowToReadException {
+        if (isCopyInActive()) {
+            try {
+                rowCount = copyIn.onDone();
+                queryTag = TAG_COPY;
+                prepareCommandComplete(true);
+            } catch (CairoException e) {
+                abortCopyIn();
+                prepareError(e);
+            }
+            sendReadyForNewQuery();
+        }
+    }
+
+    private void processCopyFail(long lo, long msgLimit) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        if (isCopyInActive()) {
+            abortCopyIn();
+            final CharacterStoreEntry e = characterStore.newEntry();
+            e.put("COPY from stdin failed: ");
+            // message is a null-terminated string
+            Chars.utf8Decode(lo, msgLimit - 1, e);
+            prepareNonCriticalError(-1, characterStore.toImmutable());
+            sendReadyForNewQuery();
+        }
+    }
+
     private void processDescribe(long lo, long msgLimit, @Transient SqlCompiler compiler)
             throws SqlException, BadProtocolException {
         sqlExecutionContext.getCircuitBreaker().resetTimer();
@@ -2327,8 +2409,10 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                 // we need to continue parsing receive buffer even if we errored out
                 // this is because PG client might expect separate responses to everything it sent
             } catch (SqlException ex) {
+                abortCopyIn();
                 prepareNonCriticalError(ex.getPosition(), ex.getFlyweightMessage());
             } catch (CairoException ex) {
+                abortCopyIn();
                 if (ex.isInterruption()) {
                     prepareQueryCanceled(ex.getFlyweightMessage());
                 } else {
@@ -2339,6 +2423,11 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
             LOG.error().$("invalid UTF8 bytes in parse query").$();
             throw BadProtocolException.INSTANCE;
         }
+        if (isCopyInActive()) {
+            // ready for query is sent once copy is complete
+            sendCopyInResponse();
+            return;
+        }
         sendReadyForNewQuery();
     }
 
@@ -2486,32 +2575,18 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         responseAsciiSink.reset();
     }
 
-    // This method is currently unused. it's used for the COPY sub-protocol, which is currently not implemented.
-    // It's left here so when we add the sub-protocol later we won't need to reimplemented it.
-    // We could keep it just in git history, but chances are nobody would recall to search for it there
-    private void sendCopyInResponse(CairoEngine engine, TextLoader textLoader) throws PeerDisconnectedException, PeerIsSlowToReadException {
-        if (
-                TableUtils.TABLE_EXISTS == engine.getStatus(
-                        sqlExecutionContext.getCairoSecurityContext(),
-                        path,
-                        textLoader.getTableName()
-                )) {
-            responseAsciiSink.put(MESSAGE_TYPE_COPY_IN_RESPONSE);
-            long addr = responseAsciiSink.skip();
-            responseAsciiSink.put((byte) 0); // TEXT (1=BINARY, which we do not support yet)
-            try (TableWriter writer = engine.getWriter(sqlExecutionContext.getCairoSecurityContext(), textLoader.getTableName(), WRITER_LOCK_REASON)) {
-                RecordMetadata metadata = writer.getMetadata();
-                responseAsciiSink.putNetworkShort((short) metadata.getColumnCount());
-                for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
-                    responseAsciiSink.putNetworkShort((short) PGOids.getTypeOid(metadata.getColumnType(i)));
-                }
-            }
-            responseAsciiSink.putLen(addr);
-        } else {
-            final SqlException e = SqlException.$(0, "table does not exist [table=").put(textLoader.getTableName()).put(']');
-            prepareNonCriticalError(e.getPosition(), e.getFlyweightMessage());
-            prepareReadyForQuery();
+    private void sendCopyInResponse() throws PeerDisconnectedException, PeerIsSlowToReadException {
+        final byte format = (byte) (copyIn.isBinary() ? 1 : 0);
+        final RecordMetadata metadata = copyIn.getMetadata();
+        responseAsciiSink.put(MESSAGE_TYPE_COPY_IN_RESPONSE);
+        long addr = responseAsciiSink.skip();
+        responseAsciiSink.put(format);
+        responseAsciiSink.putNetworkShort((short) metadata.getColumnCount());
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            // per-column format codes must match overall format
+            responseAsciiSink.putNetworkShort(format);
         }
+        responseAsciiSink.putLen(addr);
         sendAndReset();
     }
 
@@ -2601,6 +2676,10 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                         }
                         LOG.info().$(e.getFlyweightMessage()).$();
                         freeFactory();
+                        if (queryCache != null) {
+                            // pooled copies of the factory are stale too
+                            queryCache.invalidate(queryCacheKey);
+                        }
                         compileQuery(compiler);
                         buildSelectColumnTypes();
                         applyLatestBindColumnFormats();
@@ -2646,6 +2725,16 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         recvBufferReadOffset = 0;
     }
 
+    private void startCopyIn(CopyModel model) {
+        if (copyIn == null) {
+            copyIn = new PGCopyInProcessor(engine.getConfiguration().getTextConfiguration(), typeManager, utf8Sink, copyCommitBatchSize);
+        }
+        final CharSequence tableName = GenericLexer.unquote(model.getTarget().token);
+        // writer is not shared with the transaction, COPY commits on its own
+        copyIn.of(engine.getWriter(sqlExecutionContext.getCairoSecurityContext(), tableName, WRITER_LOCK_REASON), model);
+        queryTag = TAG_COPY;
+    }
+
     private void validateParameterCounts(short parameterFormatCount, short parameterValueCount, int parameterTypeCount) throws BadProtocolException {
         if (parameterValueCount > 0) {
             if (parameterValueCount < parameterTypeCount) {
@@ -2695,6 +2784,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                 throws SqlException, PeerIsSlowToReadException, PeerDisconnectedException {
             try {
                 PGConnectionContext.this.queryText = text;
+                SharedQueryCache.buildKey(queryCacheKey, text, null);
                 LOG.info().$("parse [fd=").$(fd).$(", q=").utf8(text).I$();
                 processCompiledQuery(cq);
 
@@ -2713,6 +2803,9 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                 } else if (cq.getType() == CompiledQuery.INSERT_AS_SELECT ||
                         cq.getType() == CompiledQuery.CREATE_TABLE_AS_SELECT) {
                     prepareCommandComplete(true);
+                } else if (cq.getType() == CompiledQuery.COPY_REMOTE) {
+                    // command completes when client sends CopyDone
+                    startCopyIn(cq.getCopyModel());
                 } else {
                     executeTag();
                     prepareCommandComplete(false);
@@ -2723,7 +2816,10 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         }
 
         @Override
-        public void preCompile(SqlCompiler compiler) {
+        public void preCompile(SqlCompiler compiler) throws SqlException {
+            if (isCopyInActive()) {
+                throw SqlException.$(0, "COPY FROM STDIN must be the last statement of the query");
+            }
             sendRNQ = true;
             prepareForNewBatchQuery();
             PGConnectionContext.this.typesAndInsert = null;
@@ -0,0 +1,836 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.pgwire;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ImplicitCastException;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cutlass.text.Atomicity;
+import io.questdb.cutlass.text.TextConfiguration;
+import io.questdb.cutlass.text.types.TypeAdapter;
+import io.questdb.cutlass.text.types.TypeManager;
+import io.questdb.griffin.SqlKeywords;
+import io.questdb.griffin.SqlUtil;
+import io.questdb.griffin.model.CopyModel;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.std.str.DirectByteCharSequence;
+import io.questdb.std.str.DirectCharSink;
+import io.questdb.std.str.Utf8Sequence;
+
+import java.io.Closeable;
+
+/**
+ * Streams payload of COPY FROM STDIN into table writer. Client splits the payload into CopyData
+ * messages arbitrarily, so text lines and binary tuples that straddle messages are kept in a buffer
+ * until the rest of the line or tuple arrives. Rows are committed in batches of configured size.
+ * <p>
+ * Text and CSV lines are split into fields following PostgreSQL rules. In text format backslash
+ * escapes are decoded and only {@code \N} is NULL. In CSV format fields may be quoted, quotes
+ * inside quoted fields are doubled and only an unquoted empty field is NULL. Lines with more or
+ * fewer fields than the table has columns are errors.
+ */
+public class PGCopyInProcessor implements Closeable, Mutable {
+    private static final Log LOG = LogFactory.getLog(PGCopyInProcessor.class);
+    // PGCOPY\n\377\r\n\0
+    private static final long BINARY_SIGNATURE_LO = 0xff0a59504f434750L;
+    private static final int BINARY_SIGNATURE_HI = 0x000a0d;
+    private static final int BINARY_SIGNATURE_LEN = 11;
+    // signature, flags and header extension length
+    private static final int BINARY_HEADER_LEN = BINARY_SIGNATURE_LEN + 2 * Integer.BYTES;
+    private static final int BINARY_FLAG_OIDS = 1 << 16;
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+    private final TypeManager typeManager;
+    private final DirectCharSink utf8Sink;
+    private final int commitBatchSize;
+    private final int maxLineLength;
+    private final ObjList<TypeAdapter> adapters = new ObjList<>();
+    private final IntList columnTypes = new IntList();
+    // address and length pairs of current tuple fields, NULL has negative length
+    private final LongList fields = new LongList();
+    private final DirectByteCharSequence dbcs = new DirectByteCharSequence();
+    private TableWriter writer;
+    private int format;
+    private int atomicity;
+    private byte delimiter;
+    private boolean header;
+    private int timestampIndex;
+    private long rowCount;
+    private long uncommittedRowCount;
+    // zero-based number of the current text line or binary tuple, header line is not counted
+    private long tupleCount;
+    private boolean binaryHeaderParsed;
+    private boolean trailerParsed;
+    private long buffer;
+    private long bufferCapacity;
+    private long bufferSize;
+    // unescaped field values of the current text line
+    private long fieldBuffer;
+    private long fieldBufferCapacity;
+
+    public PGCopyInProcessor(TextConfiguration textConfiguration, TypeManager typeManager, DirectCharSink utf8Sink, int commitBatchSize) {
+        this.maxLineLength = textConfiguration.getRollBufferLimit();
+        this.typeManager = typeManager;
+        this.utf8Sink = utf8Sink;
+        this.commitBatchSize = commitBatchSize;
+    }
+
+    @Override
+    public void clear() {
+        if (writer != null) {
+            // rows appended after the last batch commit are discarded
+            writer.rollback();
+            writer = Misc.free(writer);
+        }
+        adapters.clear();
+        columnTypes.clear();
+        fields.clear();
+        rowCount = 0;
+        uncommittedRowCount = 0;
+        tupleCount = 0;
+        binaryHeaderParsed = false;
+        trailerParsed = false;
+        bufferSize = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        if (buffer != 0) {
+            Unsafe.free(buffer, bufferCapacity, MemoryTag.NATIVE_PGW_CONN);
+            buffer = 0;
+            bufferCapacity = 0;
+        }
+        if (fieldBuffer != 0) {
+            Unsafe.free(fieldBuffer, fieldBufferCapacity, MemoryTag.NATIVE_PGW_CONN);
+            fieldBuffer = 0;
+            fieldBufferCapacity = 0;
+        }
+    }
+
+    public RecordMetadata getMetadata() {
+        return writer.getMetadata();
+    }
+
+    public boolean isActive() {
+        return writer != null;
+    }
+
+    public boolean isBinary() {
+        return format == CopyModel.FORMAT_BINARY;
+    }
+
+    /**
+     * Takes ownership of the writer. The writer is released on {@link #clear()} or when copy is complete.
+     */
+    public void of(TableWriter writer, CopyModel model) {
+        this.writer = writer;
+        this.format = model.getFormat();
+        this.atomicity = model.getAtomicity() != -1 ? model.getAtomicity() : Atomicity.SKIP_ALL;
+        final RecordMetadata metadata = writer.getMetadata();
+        this.timestampIndex = metadata.getTimestampIndex();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final int columnType = metadata.getColumnType(i);
+            columnTypes.add(columnType);
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.BOOLEAN:
+                case ColumnType.DATE:
+                case ColumnType.TIMESTAMP:
+                    // parsed here, text adapters expect import specific formats
+                    adapters.add(null);
+                    break;
+                case ColumnType.BINARY:
+                    if (format != CopyModel.FORMAT_BINARY) {
+                        clear();
+                        throw CairoException.nonCritical().put("cannot import text into BINARY column [column=").put(metadata.getColumnName(i)).put(']');
+                    }
+                    adapters.add(null);
+                    break;
+                default:
+                    try {
+                        adapters.add(typeManager.getTypeAdapter(columnType));
+                    } catch (CairoException e) {
+                        clear();
+                        throw e;
+                    }
+                    break;
+            }
+        }
+
+        delimiter = model.getDelimiter();
+        if (delimiter < 0) {
+            delimiter = format == CopyModel.FORMAT_CSV ? (byte) ',' : (byte) '\t';
+        }
+        header = model.isHeader();
+    }
+
+    public void onData(long lo, long hi) {
+        if (bufferSize == 0) {
+            final long p = parse(lo, hi);
+            if (p < hi) {
+                appendToBuffer(p, hi);
+            }
+        } else {
+            // previous message ended in the middle of a line or tuple
+            appendToBuffer(lo, hi);
+            final long p = parse(buffer, buffer + bufferSize);
+            bufferSize -= p - buffer;
+            if (bufferSize > 0 && p > buffer) {
+                Vect.memmove(buffer, p, bufferSize);
+            }
+        }
+        if (format != CopyModel.FORMAT_BINARY && bufferSize > maxLineLength) {
+            throw CairoException.nonCritical().put("line is too long [line=").put(tupleCount)
+                    .put(", maxLineLength=").put(maxLineLength)
+                    .put(']');
+        }
+    }
+
+    /**
+     * Flushes what is left of the payload and commits the table.
+     *
+     * @return number of rows written
+     */
+    public long onDone() {
+        if (format != CopyModel.FORMAT_BINARY) {
+            if (bufferSize > 0) {
+                // last line is not terminated
+                onTextLine(buffer, buffer + bufferSize);
+                bufferSize = 0;
+            }
+        } else if (bufferSize > 0 || (binaryHeaderParsed && !trailerParsed)) {
+            throw CairoException.nonCritical().put("incomplete binary COPY data [table=").put(writer.getTableName()).put(']');
+        }
+        writer.commit();
+        final long rowCount = this.rowCount;
+        LOG.info().$("copy complete [table=").$(writer.getTableName()).$(", rows=").$(rowCount).I$();
+        clear();
+        return rowCount;
+    }
+
+    /**
+     * @return address of the line feed that ends the line or -1 when line is incomplete
+     */
+    private static long findCsvLineEnd(long lo, long hi) {
+        boolean quoted = false;
+        for (long p = lo; p < hi; p++) {
+            final byte c = Unsafe.getUnsafe().getByte(p);
+            if (c == '"') {
+                // doubled quote inside quoted field flips the state twice
+                quoted = !quoted;
+            } else if (c == '\n' && !quoted) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return address of the line feed that ends the line or -1 when line is incomplete
+     */
+    private static long findTextLineEnd(long lo, long hi) {
+        for (long p = lo; p < hi; p++) {
+            final byte c = Unsafe.getUnsafe().getByte(p);
+            if (c == '\n') {
+                return p;
+            }
+            if (c == '\\') {
+                // escaped byte, backslash followed by line feed is data
+                p++;
+            }
+        }
+        return -1;
+    }
+
+    private static double getBinaryDouble(long address, int len) {
+        switch (len) {
+            case Float.BYTES:
+                return Float.intBitsToFloat(Numbers.bswap(Unsafe.getUnsafe().getInt(address)));
+            case Double.BYTES:
+                return Double.longBitsToDouble(Numbers.bswap(Unsafe.getUnsafe().getLong(address)));
+            default:
+                throw CairoException.nonCritical().put("unexpected floating point length [length=").put(len).put(']');
+        }
+    }
+
+    private static long getBinaryInteger(long address, int len) {
+        switch (len) {
+            case Byte.BYTES:
+                return Unsafe.getUnsafe().getByte(address);
+            case Short.BYTES:
+                return Numbers.bswap(Unsafe.getUnsafe().getShort(address));
+            case Integer.BYTES:
+                return Numbers.bswap(Unsafe.getUnsafe().getInt(address));
+            case Long.BYTES:
+                return Numbers.bswap(Unsafe.getUnsafe().getLong(address));
+            default:
+                throw CairoException.nonCritical().put("unexpected integer length [length=").put(len).put(']');
+        }
+    }
+
+    private static long getBinaryTimestamp(long address, int len) {
+        switch (len) {
+            case Integer.BYTES:
+                // PostgreSQL date, days since 2000-01-01
+                return Numbers.bswap(Unsafe.getUnsafe().getInt(address)) * Timestamps.DAY_MICROS + Numbers.JULIAN_EPOCH_OFFSET_USEC;
+            case Long.BYTES:
+                // PostgreSQL timestamp, micros since 2000-01-01
+                return Numbers.bswap(Unsafe.getUnsafe().getLong(address)) + Numbers.JULIAN_EPOCH_OFFSET_USEC;
+            default:
+                throw CairoException.nonCritical().put("unexpected timestamp length [length=").put(len).put(']');
+        }
+    }
+
+    private static int hexDigit(byte c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    /**
+     * @return true when byte at the address is preceded by an odd number of backslashes
+     */
+    private static boolean isEscaped(long lo, long address) {
+        long p = address;
+        while (p > lo && Unsafe.getUnsafe().getByte(p - 1) == '\\') {
+            p--;
+        }
+        return ((address - p) & 1) == 1;
+    }
+
+    private static boolean isOctalDigit(byte c) {
+        return c >= '0' && c <= '7';
+    }
+
+    private static boolean isTextTrue(DirectByteCharSequence value) {
+        if (value.length() == 1) {
+            final char c = (char) (value.charAt(0) | 32);
+            return c == 't' || c == 'y' || c == '1';
+        }
+        return SqlKeywords.isTrueKeyword(value);
+    }
+
+    private void appendToBuffer(long lo, long hi) {
+        final long len = hi - lo;
+        if (bufferSize + len > bufferCapacity) {
+            final long capacity = Math.max(Numbers.ceilPow2(bufferSize + len), INITIAL_BUFFER_SIZE);
+            buffer = Unsafe.realloc(buffer, bufferCapacity, capacity, MemoryTag.NATIVE_PGW_CONN);
+            bufferCapacity = capacity;
+        }
+        Vect.memcpy(buffer + bufferSize, lo, len);
+        bufferSize += len;
+    }
+
+    private void commitBatch() {
+        if (++uncommittedRowCount >= commitBatchSize) {
+            writer.commit();
+            uncommittedRowCount = 0;
+        }
+    }
+
+    /**
+     * Checks that the line has a field for every column.
+     *
+     * @return false when line is skipped
+     */
+    private boolean checkFieldCount(long line) {
+        final int fieldCount = fields.size() / 2;
+        final int columnCount = columnTypes.size();
+        if (fieldCount > columnCount) {
+            onLineError(line, -1, "extra data after last expected column");
+            return false;
+        }
+        if (fieldCount < columnCount) {
+            onLineError(line, fieldCount, "missing data for column");
+            return false;
+        }
+        return true;
+    }
+
+    private void ensureFieldBufferCapacity(long capacity) {
+        if (capacity > fieldBufferCapacity) {
+            final long newCapacity = Math.max(Numbers.ceilPow2(capacity), INITIAL_BUFFER_SIZE);
+            fieldBuffer = Unsafe.realloc(fieldBuffer, fieldBufferCapacity, newCapacity, MemoryTag.NATIVE_PGW_CONN);
+            fieldBufferCapacity = newCapacity;
+        }
+    }
+
+    private void logError(long line, int columnIndex, Exception e) {
+        LOG.error()
+                .$("could not copy value [table=").$(writer.getTableName())
+                .$(", line=").$(line)
+                .$(", column=").$(writer.getMetadata().getColumnName(columnIndex))
+                .$(", type=").$(ColumnType.nameOf(columnTypes.getQuick(columnIndex)))
+                .$(", error=").$(e instanceof FlyweightMessageContainer ? ((FlyweightMessageContainer) e).getFlyweightMessage() : e.getMessage())
+                .I$();
+    }
+
+    private void onBinaryTuple() {
+        final int columnCount = columnTypes.size();
+        if (fields.size() / 2 != columnCount) {
+            throw CairoException.nonCritical()
+                    .put("column count mismatch [tuple=").put(tupleCount)
+                    .put(", fieldCount=").put(fields.size() / 2)
+                    .put(", tableColumnCount=").put(columnCount)
+                    .put(']');
+        }
+
+        final TableWriter.Row row;
+        if (timestampIndex > -1) {
+            final int len = (int) fields.getQuick(2 * timestampIndex + 1);
+            final long timestamp;
+            try {
+                if (len < 0) {
+                    throw CairoException.nonCritical().put("designated timestamp cannot be null");
+                }
+                timestamp = getBinaryTimestamp(fields.getQuick(2 * timestampIndex), len);
+            } catch (CairoException e) {
+                onRowError(tupleCount, timestampIndex, e);
+                return;
+            }
+            row = writer.newRow(timestamp);
+        } else {
+            row = writer.newRow();
+        }
+
+        for (int i = 0; i < columnCount; i++) {
+            final int len = (int) fields.getQuick(2 * i + 1);
+            if (i == timestampIndex || len < 0) {
+                continue;
+            }
+            try {
+                putBinary(row, i, fields.getQuick(2 * i), len);
+            } catch (Exception e) {
+                if (onFieldError(row, tupleCount, i, e)) {
+                    return;
+                }
+            }
+        }
+        row.append();
+        rowCount++;
+        commitBatch();
+    }
+
+    /**
+     * @return true when row has been cancelled
+     */
+    private boolean onFieldError(TableWriter.Row row, long line, int columnIndex, Exception e) {
+        logError(line, columnIndex, e);
+        switch (atomicity) {
+            case Atomicity.SKIP_ALL:
+                row.cancel();
+                throw CairoException.nonCritical()
+                        .put("bad syntax [line=").put(line)
+                        .put(", column=").put(writer.getMetadata().getColumnName(columnIndex))
+                        .put(']');
+            case Atomicity.SKIP_ROW:
+                row.cancel();
+                return true;
+            default:
+                // SKIP column
+                return false;
+        }
+    }
+
+    private void onLineError(long line, int columnIndex, CharSequence error) {
+        LOG.error()
+                .$("could not copy line [table=").$(writer.getTableName())
+                .$(", line=").$(line)
+                .$(", error=").$(error)
+                .I$();
+        if (atomicity == Atomicity.SKIP_ALL) {
+            final CairoException e = CairoException.nonCritical().put(error).put(" [line=").put(line);
+            if (columnIndex > -1) {
+                e.put(", column=").put(writer.getMetadata().getColumnName(columnIndex));
+            }
+            throw e.put(']');
+        }
+    }
+
+    private void onRowError(long line, int columnIndex, Exception e) {
+        logError(line, columnIndex, e);
+        if (atomicity == Atomicity.SKIP_ALL) {
+            throw CairoException.nonCritical()
+                    .put("bad syntax [line=").put(line)
+                    .put(", column=").put(writer.getMetadata().getColumnName(columnIndex))
+                    .put(']');
+        }
+    }
+
+    private void onTextLine(long lo, long hi) {
+        if (trailerParsed) {
+            // data after end-of-data marker is ignored
+            return;
+        }
+        if (hi > lo && Unsafe.getUnsafe().getByte(hi - 1) == '\r' && (format == CopyModel.FORMAT_CSV || !isEscaped(lo, hi - 1))) {
+            hi--;
+        }
+        if (hi - lo == 2 && Unsafe.getUnsafe().getByte(lo) == '\\' && Unsafe.getUnsafe().getByte(lo + 1) == '.') {
+            trailerParsed = true;
+            return;
+        }
+        if (header) {
+            header = false;
+            return;
+        }
+
+        // unescaped value is never longer than its raw text
+        ensureFieldBufferCapacity(hi - lo);
+        fields.clear();
+        if (format == CopyModel.FORMAT_CSV) {
+            splitCsvLine(lo, hi);
+        } else {
+            splitTextLine(lo, hi);
+        }
+        onTextTuple(tupleCount);
+        tupleCount++;
+    }
+
+    private void onTextTuple(long line) {
+        if (!checkFieldCount(line)) {
+            return;
+        }
+
+        final TableWriter.Row row;
+        if (timestampIndex > -1) {
+            final int len = (int) fields.getQuick(2 * timestampIndex + 1);
+            final long timestamp;
+            try {
+                if (len < 0) {
+                    throw CairoException.nonCritical().put("designated timestamp cannot be null");
+                }
+                final long address = fields.getQuick(2 * timestampIndex);
+                timestamp = SqlUtil.implicitCastStrAsTimestamp(dbcs.of(address, address + len));
+            } catch (CairoException | ImplicitCastException e) {
+                onRowError(line, timestampIndex, e);
+                return;
+            }
+            row = writer.newRow(timestamp);
+        } else {
+            row = writer.newRow();
+        }
+
+        for (int i = 0, n = columnTypes.size(); i < n; i++) {
+            final int len = (int) fields.getQuick(2 * i + 1);
+            if (i == timestampIndex || len < 0) {
+                continue;
+            }
+            try {
+                final long address = fields.getQuick(2 * i);
+                putText(row, i, dbcs.of(address, address + len));
+            } catch (Exception e) {
+                if (onFieldError(row, line, i, e)) {
+                    return;
+                }
+            }
+        }
+        row.append();
+        rowCount++;
+        commitBatch();
+    }
+
+    private long parse(long lo, long hi) {
+        return format == CopyModel.FORMAT_BINARY ? parseBinary(lo, hi) : parseText(lo, hi);
+    }
+
+    /**
+     * @return address of the first byte that has not been consumed
+     */
+    private long parseBinary(long lo, long hi) {
+        long p = lo;
+        if (!binaryHeaderParsed) {
+            if (hi - p < BINARY_HEADER_LEN) {
+                return p;
+            }
+            if (Unsafe.getUnsafe().getLong(p) != BINARY_SIGNATURE_LO
+                    || (Unsafe.getUnsafe().getInt(p + Long.BYTES) & 0xffffff) != BINARY_SIGNATURE_HI) {
+                throw CairoException.nonCritical().put("invalid binary COPY signature");
+            }
+            final int flags = Numbers.bswap(Unsafe.getUnsafe().getInt(p + BINARY_SIGNATURE_LEN));
+            if ((flags & BINARY_FLAG_OIDS) != 0) {
+                throw CairoException.nonCritical().put("binary COPY with OIDs is not supported");
+            }
+            final int extensionLen = Numbers.bswap(Unsafe.getUnsafe().getInt(p + BINARY_SIGNATURE_LEN + Integer.BYTES));
+            if (extensionLen < 0) {
+                throw CairoException.nonCritical().put("invalid binary COPY header extension length [length=").put(extensionLen).put(']');
+            }
+            if (hi - p < BINARY_HEADER_LEN + extensionLen) {
+                return p;
+            }
+            p += BINARY_HEADER_LEN + extensionLen;
+            binaryHeaderParsed = true;
+        }
+
+        while (hi - p >= Short.BYTES) {
+            if (trailerParsed) {
+                throw CairoException.nonCritical().put("unexpected data after binary COPY trailer");
+            }
+            final short fieldCount = Numbers.bswap(Unsafe.getUnsafe().getShort(p));
+            if (fieldCount == -1) {
+                trailerParsed = true;
+                p += Short.BYTES;
+                continue;
+            }
+
+            // make sure the entire tuple is available before writing the row
+            fields.clear();
+            long q = p + Short.BYTES;
+            for (int i = 0; i < fieldCount; i++) {
+                if (hi - q < Integer.BYTES) {
+                    return p;
+                }
+                final int len = Numbers.bswap(Unsafe.getUnsafe().getInt(q));
+                q += Integer.BYTES;
+                fields.add(q, len);
+                if (len > 0) {
+                    if (hi - q < len) {
+                        return p;
+                    }
+                    q += len;
+                }
+            }
+            onBinaryTuple();
+            tupleCount++;
+            p = q;
+        }
+        return p;
+    }
+
+    /**
+     * @return address of the first byte of incomplete line
+     */
+    private long parseText(long lo, long hi) {
+        long p = lo;
+        while (p < hi) {
+            final long lineEnd = format == CopyModel.FORMAT_CSV ? findCsvLineEnd(p, hi) : findTextLineEnd(p, hi);
+            if (lineEnd == -1) {
+                break;
+            }
+            onTextLine(p, lineEnd);
+            p = lineEnd + 1;
+        }
+        return p;
+    }
+
+    private void putBinary(TableWriter.Row row, int columnIndex, long address, int len) throws Exception {
+        final int columnType = columnTypes.getQuick(columnIndex);
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                row.putBool(columnIndex, getBinaryInteger(address, len) != 0);
+                break;
+            case ColumnType.BYTE:
+                row.putByte(columnIndex, (byte) getBinaryInteger(address, len));
+                break;
+            case ColumnType.SHORT:
+                row.putShort(columnIndex, (short) getBinaryInteger(address, len));
+                break;
+            case ColumnType.INT:
+                row.putInt(columnIndex, (int) getBinaryInteger(address, len));
+                break;
+            case ColumnType.LONG:
+                row.putLong(columnIndex, getBinaryInteger(address, len));
+                break;
+            case ColumnType.FLOAT:
+                row.putFloat(columnIndex, (float) getBinaryDouble(address, len));
+                break;
+            case ColumnType.DOUBLE:
+                row.putDouble(columnIndex, getBinaryDouble(address, len));
+                break;
+            case ColumnType.DATE:
+                row.putDate(columnIndex, getBinaryTimestamp(address, len) / 1000);
+                break;
+            case ColumnType.TIMESTAMP:
+                row.putTimestamp(columnIndex, getBinaryTimestamp(address, len));
+                break;
+            case ColumnType.BINARY:
+                row.putBin(columnIndex, address, len);
+                break;
+            case ColumnType.VARCHAR:
+                // values are stored as received, decoding only validates them
+                utf8Sink.clear();
+                if (!Chars.utf8Decode(address, address + len, utf8Sink)) {
+                    throw CairoException.nonCritical().put("invalid UTF8 bytes");
+                }
+                row.putVarchar(columnIndex, (Utf8Sequence) dbcs.of(address, address + len));
+                break;
+            case ColumnType.STRING:
+            case ColumnType.SYMBOL:
+                utf8Sink.clear();
+                if (!Chars.utf8Decode(address, address + len, utf8Sink)) {
+                    throw CairoException.nonCritical().put("invalid UTF8 bytes");
+                }
+                if (ColumnType.isSymbol(columnType)) {
+                    row.putSym(columnIndex, utf8Sink);
+                } else {
+                    row.putStr(columnIndex, utf8Sink);
+                }
+                break;
+            default:
+                // char, long256 and geohash values are sent in their text representation
+                adapters.getQuick(columnIndex).write(row, columnIndex, dbcs.of(address, address + len));
+                break;
+        }
+    }
+
+    private void putText(TableWriter.Row row, int columnIndex, DirectByteCharSequence value) throws Exception {
+        switch (ColumnType.tagOf(columnTypes.getQuick(columnIndex))) {
+            case ColumnType.BOOLEAN:
+                row.putBool(columnIndex, isTextTrue(value));
+                break;
+            case ColumnType.DATE:
+                row.putDate(columnIndex, SqlUtil.implicitCastStrAsDate(value));
+                break;
+            case ColumnType.TIMESTAMP:
+                row.putTimestamp(columnIndex, SqlUtil.implicitCastStrAsTimestamp(value));
+                break;
+            default:
+                adapters.getQuick(columnIndex).write(row, columnIndex, value);
+                break;
+        }
+    }
+
+    private void splitCsvLine(long lo, long hi) {
+        long p = lo;
+        long w = fieldBuffer;
+        while (true) {
+            final long fieldLo = w;
+            boolean quoted = false;
+            boolean inQuote = false;
+            while (p < hi) {
+                final byte c = Unsafe.getUnsafe().getByte(p++);
+                if (inQuote) {
+                    if (c != '"') {
+                        Unsafe.getUnsafe().putByte(w++, c);
+                    } else if (p < hi && Unsafe.getUnsafe().getByte(p) == '"') {
+                        Unsafe.getUnsafe().putByte(w++, c);
+                        p++;
+                    } else {
+                        inQuote = false;
+                    }
+                } else if (c == delimiter) {
+                    p--;
+                    break;
+                } else if (c == '"') {
+                    inQuote = quoted = true;
+                } else {
+                    Unsafe.getUnsafe().putByte(w++, c);
+                }
+            }
+            if (inQuote) {
+                throw CairoException.nonCritical().put("unterminated CSV quoted field [line=").put(tupleCount).put(']');
+            }
+            // quoted empty string is an empty value, not NULL
+            fields.add(fieldLo, !quoted && w == fieldLo ? -1 : w - fieldLo);
+            if (p == hi) {
+                break;
+            }
+            // skip delimiter
+            p++;
+        }
+    }
+
+    private void splitTextLine(long lo, long hi) {
+        long p = lo;
+        long w = fieldBuffer;
+        while (true) {
+            final long rawLo = p;
+            final long fieldLo = w;
+            while (p < hi) {
+                byte c = Unsafe.getUnsafe().getByte(p++);
+                if (c == delimiter) {
+                    p--;
+                    break;
+                }
+                if (c == '\\' && p < hi) {
+                    c = Unsafe.getUnsafe().getByte(p++);
+                    switch (c) {
+                        case 'b':
+                            c = '\b';
+                            break;
+                        case 'f':
+                            c = '\f';
+                            break;
+                        case 'n':
+                            c = '\n';
+                            break;
+                        case 'r':
+                            c = '\r';
+                            break;
+                        case 't':
+                            c = '\t';
+                            break;
+                        case 'v':
+                            c = 11;
+                            break;
+                        case 'x':
+                            // one or two hex digits, otherwise 'x' stands for itself
+                            if (p < hi && hexDigit(Unsafe.getUnsafe().getByte(p)) > -1) {
+                                int v = hexDigit(Unsafe.getUnsafe().getByte(p++));
+                                if (p < hi && hexDigit(Unsafe.getUnsafe().getByte(p)) > -1) {
+                                    v = (v << 4) | hexDigit(Unsafe.getUnsafe().getByte(p++));
+                                }
+                                c = (byte) v;
+                            }
+                            break;
+                        default:
+                            if (isOctalDigit(c)) {
+                                // one to three octal digits
+                                int v = c - '0';
+                                for (int i = 0; i < 2 && p < hi && isOctalDigit(Unsafe.getUnsafe().getByte(p)); i++) {
+                                    v = (v << 3) | (Unsafe.getUnsafe().getByte(p++) - '0');
+                                }
+                                c = (byte) v;
+                            }
+                            // any other byte, including backslash and delimiter, stands for itself
+                            break;
+                    }
+                }
+                Unsafe.getUnsafe().putByte(w++, c);
+            }
+            if (p - rawLo == 2 && Unsafe.getUnsafe().getByte(rawLo) == '\\' && Unsafe.getUnsafe().getByte(rawLo + 1) == 'N') {
+                fields.add(fieldLo, -1);
+            } else {
+                fields.add(fieldLo, w - fieldLo);
+            }
+            if (p == hi) {
+                break;
+            }
+            // skip delimiter
+            p++;
+        }
+    }
+}
@@ -41,7 +41,6 @@ import java.io.Closeable;
 public class PGJobContext implements Closeable {
 
     private final SqlCompiler compiler;
-    private final AssociativeCache<TypesAndSelect> typesAndSelectCache;
     private final WeakSelfReturningObjectPool<TypesAndSelect> typesAndSelectPool;
     private final AssociativeCache<TypesAndUpdate> typesAndUpdateCache;
     private final WeakSelfReturningObjectPool<TypesAndUpdate> typesAndUpdatePool;
@@ -56,10 +55,10 @@ public class PGJobContext implements Closeable {
 
         final Metrics metrics = engine.getMetrics();
 
+        // select factories are cached by the engine, the pool only recycles type containers
         final boolean enableSelectCache = configuration.isSelectCacheEnabled();
         final int blockCount = enableSelectCache ? configuration.getSelectCacheBlockCount() : 1;
         final int rowCount = enableSelectCache ? configuration.getSelectCacheRowCount() : 1;
-        typesAndSelectCache = new AssociativeCache<>(blockCount, rowCount, metrics.pgWire().cachedSelectsGauge());
         typesAndSelectPool = new WeakSelfReturningObjectPool<>(TypesAndSelect::new, blockCount * rowCount);
 
         final boolean enabledUpdateCache = configuration.isUpdateCacheEnabled();
@@ -72,7 +71,6 @@ public class PGJobContext implements Closeable {
     @Override
     public void close() {
         Misc.free(compiler);
-        Misc.free(typesAndSelectCache);
         Misc.free(typesAndUpdateCache);
     }
 
@@ -83,7 +81,6 @@ public class PGJobContext implements Closeable {
             BadProtocolException {
         context.handleClientOperation(
                 compiler,
-                typesAndSelectCache,
                 typesAndSelectPool,
                 typesAndUpdateCache,
                 typesAndUpdatePool,
@@ -92,7 +89,7 @@ public class PGJobContext implements Closeable {
     }
 
     public void flushQueryCache() {
-        typesAndSelectCache.clear();
+        // select cache is shared and is flushed by the engine
         typesAndUpdateCache.clear();
     }
 }
@@ -40,6 +40,9 @@ public interface PGWireConfiguration extends WorkerPoolConfiguration {
 
     int getConnectionPoolInitialCapacity();
 
+    // number of rows COPY FROM STDIN appends to the table between commits
+    int getCopyCommitBatchSize();
+
     String getDefaultPassword();
 
     String getDefaultUsername();
@@ -415,6 +415,16 @@ public class CairoTextWriter implements Closeable, Mutable {
             return types.getQuick(columnIndex).isIndexed();
         }
 
+        @Override
+        public boolean isBloomFilter(int columnIndex) {
+            return false;
+        }
+
+        @Override
+        public boolean isDedupKey(int columnIndex) {
+            return false;
+        }
+
         @Override
         public boolean isSequential(int columnIndex) {
             return false;
@@ -1588,6 +1588,16 @@ public class ParallelCsvFileImporter implements Closeable, Mutable {
             return !ignoreColumnIndexedFlag && Numbers.decodeHighInt(columnBits.getQuick(columnIndex)) != 0;
         }
 
+        @Override
+        public boolean isBloomFilter(int columnIndex) {
+            return false;
+        }
+
+        @Override
+        public boolean isDedupKey(int columnIndex) {
+            return false;
+        }
+
         @Override
         public boolean isSequential(int columnIndex) {
             return false;
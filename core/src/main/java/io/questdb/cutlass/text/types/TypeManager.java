@@ -39,6 +39,7 @@ public class TypeManager implements Mutable {
     private final ObjList<TypeAdapter> probes = new ObjList<>();
     private final int probeCount;
     private final StringAdapter stringAdapter;
+    private final VarcharAdapter varcharAdapter;
     private final SymbolAdapter indexedSymbolAdapter;
     private final SymbolAdapter notIndexedSymbolAdapter;
     private final ObjectPool<DateUtf8Adapter> dateAdapterPool;
@@ -55,6 +56,7 @@ public class TypeManager implements Mutable {
         this.timestampAdapterPool = new ObjectPool<>(TimestampAdapter::new, configuration.getTimestampAdapterPoolCapacity());
         this.inputFormatConfiguration = configuration.getInputFormatConfiguration();
         this.stringAdapter = new StringAdapter(utf8Sink);
+        this.varcharAdapter = new VarcharAdapter(utf8Sink);
         this.indexedSymbolAdapter = new SymbolAdapter(utf8Sink, true);
         this.notIndexedSymbolAdapter = new SymbolAdapter(utf8Sink, false);
         addDefaultProbes();
@@ -122,6 +124,8 @@ public class TypeManager implements Mutable {
                 return DoubleAdapter.INSTANCE;
             case ColumnType.STRING:
                 return stringAdapter;
+            case ColumnType.VARCHAR:
+                return varcharAdapter;
             case ColumnType.SYMBOL:
                 return nextSymbolAdapter(false);
             case ColumnType.LONG256:
@@ -27,11 +27,11 @@ package io.questdb.griffin;
 import io.questdb.cairo.sql.InsertOperation;
 import io.questdb.cairo.sql.OperationFuture;
 import io.questdb.cairo.sql.RecordCursorFactory;
-import io.questdb.cutlass.text.TextLoader;
 import io.questdb.griffin.engine.ops.AbstractOperation;
 import io.questdb.griffin.engine.ops.AlterOperation;
 import io.questdb.griffin.engine.ops.OperationDispatcher;
 import io.questdb.griffin.engine.ops.UpdateOperation;
+import io.questdb.griffin.model.CopyModel;
 import io.questdb.mp.SCSequence;
 
 public interface CompiledQuery {
@@ -64,7 +64,10 @@ public interface CompiledQuery {
 
     RecordCursorFactory getRecordCursorFactory();
 
-    TextLoader getTextLoader();
+    /**
+     * Returns model of COPY FROM STDIN statement. Model is valid until the next compilation. Used e.g. in pg wire protocol.
+     */
+    CopyModel getCopyModel();
 
     InsertOperation getInsertOperation();
 
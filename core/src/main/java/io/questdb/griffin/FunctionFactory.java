@@ -89,6 +89,15 @@ public interface FunctionFactory {
         return false;
     }
 
+    /**
+     * @return true if the factory creates window (analytic) variant of the function, e.g. sum() over (...).
+     * Window factories are looked up only when function is called in analytic context and can share
+     * name with non-window functions.
+     */
+    default boolean isWindow() {
+        return false;
+    }
+
     Function newInstance(
             int position,
             @Transient ObjList<Function> args,
@@ -28,6 +28,7 @@ import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.ImplicitCastException;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
 import io.questdb.griffin.engine.functions.AbstractUnaryTimestampFunction;
 import io.questdb.griffin.engine.functions.CursorFunction;
 import io.questdb.griffin.engine.functions.GroupByFunction;
@@ -111,6 +112,7 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
             case ColumnType.DOUBLE:
                 return DoubleColumn.newInstance(index);
             case ColumnType.STRING:
+            case ColumnType.VARCHAR:
                 return StrColumn.newInstance(index);
             case ColumnType.SYMBOL:
                 return new SymbolColumn(index, metadata.isSymbolTableStatic(index));
@@ -489,6 +491,11 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
             return Constants.getTypeConstant(columnType);
         }
 
+        // VARCHAR is a storage type, values are cast to and processed as STRING
+        if (columnType == ColumnType.VARCHAR) {
+            return Constants.getTypeConstant(ColumnType.STRING);
+        }
+
         // geohash type constant
 
         if (startsWithGeoHashKeyword(tok)) {
@@ -521,7 +528,14 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
             @Transient ObjList<Function> args,
             @Transient IntList argPositions
     ) throws SqlException {
-        final ObjList<FunctionFactoryDescriptor> overload = functionFactoryCache.getOverloadList(node.token);
+        ObjList<FunctionFactoryDescriptor> overload = null;
+        final AnalyticContext analyticContext = sqlExecutionContext != null ? sqlExecutionContext.getAnalyticContext() : null;
+        if (analyticContext != null && !analyticContext.isEmpty()) {
+            overload = functionFactoryCache.getWindowOverloadList(node.token);
+        }
+        if (overload == null) {
+            overload = functionFactoryCache.getOverloadList(node.token);
+        }
         if (overload == null) {
             throw invalidFunction(node, args);
         }
@@ -28,6 +28,7 @@ import io.questdb.cairo.*;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.str.SingleCharCharSequence;
 
 public class RecordToRowCopierUtils {
     private RecordToRowCopierUtils() {
@@ -118,6 +119,8 @@ public class RecordToRowCopierUtils {
         int wPutStrChar = asm.poolInterfaceMethod(TableWriter.Row.class, "putStr", "(IC)V");
         int wPutChar = asm.poolInterfaceMethod(TableWriter.Row.class, "putChar", "(IC)V");
         int wPutBin = asm.poolInterfaceMethod(TableWriter.Row.class, "putBin", "(ILio/questdb/std/BinarySequence;)V");
+        int wPutVarchar = asm.poolInterfaceMethod(TableWriter.Row.class, "putVarchar", "(ILjava/lang/CharSequence;)V");
+        int charAsStr = asm.poolMethod(SingleCharCharSequence.class, "get", "(C)Ljava/lang/CharSequence;");
         int implicitCastGeoHashAsGeoHash = asm.poolMethod(SqlUtil.class, "implicitCastGeoHashAsGeoHash", "(JII)J");
 
         // in case of Geo Hashes column type can overflow short and asm.iconst() will not provide
@@ -540,6 +543,10 @@ public class RecordToRowCopierUtils {
                         case ColumnType.SYMBOL:
                             asm.invokeInterface(wPutSymChar, 2);
                             break;
+                        case ColumnType.VARCHAR:
+                            asm.invokeStatic(charAsStr);
+                            asm.invokeInterface(wPutVarchar, 2);
+                            break;
                         case ColumnType.GEOBYTE:
                             asm.ldc(toColumnType_0 + i * 2);
                             asm.invokeStatic(implicitCastCharAsGeoHash);
@@ -559,6 +566,9 @@ public class RecordToRowCopierUtils {
                         case ColumnType.STRING:
                             asm.invokeInterface(wPutStr, 2);
                             break;
+                        case ColumnType.VARCHAR:
+                            asm.invokeInterface(wPutVarchar, 2);
+                            break;
                         default:
                             assert false;
                             break;
@@ -619,6 +629,27 @@ public class RecordToRowCopierUtils {
                         case ColumnType.STRING:
                             asm.invokeInterface(wPutStr, 2);
                             break;
+                        case ColumnType.VARCHAR:
+                            asm.invokeInterface(wPutVarchar, 2);
+                            break;
+                        default:
+                            assert false;
+                            break;
+                    }
+                    break;
+                case ColumnType.VARCHAR:
+                    // wrapping records do not expose getVarchar(), values are copied via their UTF-16 view
+                    asm.invokeInterface(rGetStr);
+                    switch (toColumnTypeTag) {
+                        case ColumnType.VARCHAR:
+                            asm.invokeInterface(wPutVarchar, 2);
+                            break;
+                        case ColumnType.STRING:
+                            asm.invokeInterface(wPutStr, 2);
+                            break;
+                        case ColumnType.SYMBOL:
+                            asm.invokeInterface(wPutSym, 2);
+                            break;
                         default:
                             assert false;
                             break;
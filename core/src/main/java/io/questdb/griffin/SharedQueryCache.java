@@ -0,0 +1,395 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.MatViewRegistry;
+import io.questdb.cairo.sql.BindVariableService;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.metrics.Gauge;
+import io.questdb.std.*;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+import java.io.Closeable;
+
+/**
+ * Engine-wide cache of compiled {@link RecordCursorFactory} instances shared by HTTP and PG wire workers.
+ * <p>
+ * Cache key is normalised SQL text followed by types of bind variables defined at compile time, see
+ * {@link #buildKey(StringSink, CharSequence, BindVariableService)}. Every key maps to a pool of
+ * interchangeable factories. Factories are not thread-safe, so {@link #poll(CharSequence, BindVariableService)}
+ * checks a factory out of the pool exclusively and the caller returns it via {@link #push} once the cursor
+ * is closed. Several workers running the same query each get their own factory, the pool grows up to the
+ * cache capacity, which is the total number of pooled factories across all keys.
+ * <p>
+ * Keys are spread across segments by hash and each segment has its own lock, capacity and LRU list, so
+ * workers running different queries rarely contend. When segment capacity is exceeded the least recently
+ * used key of the segment gives up one factory. Evicted and invalidated factories are freed outside the lock.
+ * <p>
+ * Table structure changes are detected lazily: a stale factory throws
+ * {@link io.questdb.cairo.sql.ReaderOutOfDateException} when cursor is opened and the caller is expected
+ * to {@link #invalidate(CharSequence)} the key, which frees all pooled copies compiled against the old structure.
+ */
+public class SharedQueryCache implements Closeable {
+    private static final Log LOG = LogFactory.getLog(SharedQueryCache.class);
+    private static final int MAX_SEGMENT_COUNT = 16;
+    // smaller segments would evict keys long before the cache as a whole is full
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+    private final MatViewRegistry matViewRegistry;
+    private final QueryCacheMetrics metrics;
+    private final int segmentMask;
+    private final Segment[] segments;
+
+    public SharedQueryCache(int capacity, QueryCacheMetrics metrics) {
+        this(capacity, metrics, null);
+    }
+
+    public SharedQueryCache(int capacity, QueryCacheMetrics metrics, @Nullable MatViewRegistry matViewRegistry) {
+        this(capacity, segmentCount(capacity, Runtime.getRuntime().availableProcessors()), metrics, matViewRegistry);
+    }
+
+    public SharedQueryCache(int capacity, int segmentCount, QueryCacheMetrics metrics, @Nullable MatViewRegistry matViewRegistry) {
+        assert Numbers.isPow2(segmentCount);
+        this.metrics = metrics;
+        this.matViewRegistry = matViewRegistry;
+        this.segments = new Segment[segmentCount];
+        this.segmentMask = segmentCount - 1;
+        final int segmentCapacity = Math.max(1, capacity / segmentCount);
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    /**
+     * Builds cache key for the given SQL text. Leading and trailing whitespace as well as trailing
+     * semicolons are not significant. Bind variable types are appended after a separator, so that the same
+     * text compiled for different parameter types does not share factories.
+     */
+    public static void buildKey(StringSink sink, CharSequence sql, @Nullable BindVariableService bindVariableService) {
+        sink.clear();
+        int lo = 0;
+        int hi = sql.length();
+        while (lo < hi && Character.isWhitespace(sql.charAt(lo))) {
+            lo++;
+        }
+        while (hi > lo && (Character.isWhitespace(sql.charAt(hi - 1)) || sql.charAt(hi - 1) == ';')) {
+            hi--;
+        }
+        sink.put(sql, lo, hi);
+        sink.put('\0');
+        if (bindVariableService != null) {
+            for (int i = 0, n = bindVariableService.getIndexedVariableCount(); i < n; i++) {
+                final Function function = bindVariableService.getFunction(i);
+                if (i > 0) {
+                    sink.put(',');
+                }
+                if (function != null) {
+                    sink.put(function.getType());
+                }
+            }
+        }
+    }
+
+    static int segmentCount(int capacity, int cpuCount) {
+        int segmentCount = Math.min(MAX_SEGMENT_COUNT, Numbers.ceilPow2(Math.max(cpuCount, 1)));
+        while (segmentCount > 1 && capacity / segmentCount < MIN_SEGMENT_CAPACITY) {
+            segmentCount >>= 1;
+        }
+        return segmentCount;
+    }
+
+    public void clear() {
+        for (int i = 0, n = segments.length; i < n; i++) {
+            // entries are detached under the segment lock and freed once it is released
+            Entry entry = segments[i].clear();
+            while (entry != null) {
+                final Entry older = entry.older;
+                entry.free();
+                entry.older = null;
+                entry = older;
+            }
+        }
+        LOG.info().$("cleared").$();
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    @TestOnly
+    public int getSegmentCount() {
+        return segments.length;
+    }
+
+    @TestOnly
+    public int getSize() {
+        int size = 0;
+        for (int i = 0, n = segments.length; i < n; i++) {
+            size += segments[i].getSize();
+        }
+        return size;
+    }
+
+    /**
+     * Frees all pooled factories of the key. Factories currently checked out are not affected, they are
+     * expected to fail the same way and get discarded by their callers.
+     */
+    public void invalidate(CharSequence key) {
+        final Entry entry = segmentOf(key).remove(key);
+        if (entry != null) {
+            entry.free();
+            LOG.info().$("invalidated [key=").utf8(key).I$();
+        }
+    }
+
+    /**
+     * Checks out cached factory for the key. When bind variable service is provided, it is populated with
+     * bind variable types the factory was compiled with.
+     *
+     * @return factory or null when there is nothing cached for the key
+     */
+    public RecordCursorFactory poll(CharSequence key, @Nullable BindVariableService bindVariableService) throws SqlException {
+        final Segment segment = segmentOf(key);
+        final RecordCursorFactory factory;
+        final Entry entry;
+        synchronized (segment) {
+            entry = segment.get(key);
+            if (entry == null) {
+                factory = null;
+            } else {
+                factory = segment.checkOut(entry);
+            }
+        }
+
+        if (factory == null) {
+            metrics.markMiss();
+            return null;
+        }
+
+        // bind types are immutable once entry is published
+        if (bindVariableService != null) {
+            bindVariableService.clear();
+            final IntList bindTypes = entry.bindTypes;
+            for (int i = 0, n = bindTypes.size(); i < n; i++) {
+                bindVariableService.define(i, bindTypes.getQuick(i), 0);
+            }
+        }
+        metrics.markHit();
+        return factory;
+    }
+
+    /**
+     * Returns factory to the pool. The cache takes ownership of the factory and will free it on eviction.
+     *
+     * @param key         cache key, as built by {@link #buildKey(StringSink, CharSequence, BindVariableService)}
+     *                    before query was compiled
+     * @param factory     factory, ignored when null
+     * @param bindTypes   bind variable types factory was compiled with, null when query has no bind variables
+     * @param originGauge gauge of the protocol that returns factory, it tracks how many factories the protocol
+     *                    keeps in the cache
+     */
+    public void push(CharSequence key, RecordCursorFactory factory, @Nullable IntList bindTypes, Gauge originGauge) {
+        if (factory == null) {
+            return;
+        }
+        // queries of materialized views are rewritten to scan the view only while it is fresh,
+        // factory compiled for either source must not outlive that decision
+        if (matViewRegistry != null && !matViewRegistry.isEmpty() && matViewRegistry.getViewByQueryKey(key) != null) {
+            Misc.free(factory);
+            return;
+        }
+        originGauge.inc();
+        final RecordCursorFactory evicted = segmentOf(key).push(key, factory, bindTypes, originGauge);
+        if (evicted != null) {
+            metrics.markEviction();
+            Misc.free(evicted);
+        }
+    }
+
+    private Segment segmentOf(CharSequence key) {
+        return segments[Hash.spread(Chars.hashCode(key)) & segmentMask];
+    }
+
+    private static class Entry {
+        private final IntList bindTypes = new IntList();
+        private final ObjList<RecordCursorFactory> factories = new ObjList<>();
+        private final CharSequence key;
+        private final ObjList<Gauge> origins = new ObjList<>();
+        // neighbours in the segment's LRU list, head is the most recently used entry
+        private Entry newer;
+        private Entry older;
+
+        private Entry(CharSequence key) {
+            this.key = key;
+        }
+
+        private void free() {
+            for (int i = 0, n = factories.size(); i < n; i++) {
+                origins.getQuick(i).dec();
+            }
+            Misc.freeObjListAndClear(factories);
+            origins.clear();
+        }
+    }
+
+    private static class Segment {
+        private final int capacity;
+        private final CharSequenceObjHashMap<Entry> entries = new CharSequenceObjHashMap<>();
+        private Entry head;
+        private int size;
+        private Entry tail;
+
+        private Segment(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private void addFirst(Entry entry) {
+            entry.older = head;
+            entry.newer = null;
+            if (head != null) {
+                head.newer = entry;
+            } else {
+                tail = entry;
+            }
+            head = entry;
+        }
+
+        // must be called under the segment lock
+        private RecordCursorFactory checkOut(Entry entry) {
+            final int last = entry.factories.size() - 1;
+            final RecordCursorFactory factory = entry.factories.getQuick(last);
+            entry.origins.getQuick(last).dec();
+            entry.factories.remove(last);
+            entry.origins.remove(last);
+            size--;
+            if (last == 0) {
+                entries.remove(entry.key);
+                unlink(entry);
+            } else {
+                touch(entry);
+            }
+            return factory;
+        }
+
+        /**
+         * @return most recently used entry, the rest of detached entries are reachable via {@link Entry#older}
+         */
+        private synchronized Entry clear() {
+            final Entry detached = head;
+            entries.clear();
+            head = tail = null;
+            size = 0;
+            return detached;
+        }
+
+        // must be called under the segment lock
+        private Entry get(CharSequence key) {
+            return entries.get(key);
+        }
+
+        private synchronized int getSize() {
+            return size;
+        }
+
+        /**
+         * @return factory evicted to make room for the pushed one, or null
+         */
+        private synchronized RecordCursorFactory push(CharSequence key, RecordCursorFactory factory, @Nullable IntList bindTypes, Gauge originGauge) {
+            final int index = entries.keyIndex(key);
+            Entry entry;
+            if (index > -1) {
+                final String keyStr = Chars.toString(key);
+                entry = new Entry(keyStr);
+                if (bindTypes != null) {
+                    entry.bindTypes.addAll(bindTypes);
+                }
+                entries.putAt(index, keyStr, entry);
+                addFirst(entry);
+            } else {
+                entry = entries.valueAt(index);
+                touch(entry);
+            }
+            entry.factories.add(factory);
+            entry.origins.add(originGauge);
+            size++;
+
+            if (size <= capacity) {
+                return null;
+            }
+
+            // the oldest factory of the least recently used key sits at the bottom of its pool
+            entry = tail;
+            final RecordCursorFactory evicted = entry.factories.getQuick(0);
+            entry.origins.getQuick(0).dec();
+            entry.factories.remove(0);
+            entry.origins.remove(0);
+            size--;
+            if (entry.factories.size() == 0) {
+                entries.remove(entry.key);
+                unlink(entry);
+            }
+            return evicted;
+        }
+
+        private synchronized Entry remove(CharSequence key) {
+            final int index = entries.keyIndex(key);
+            if (index > -1) {
+                return null;
+            }
+            final Entry entry = entries.valueAt(index);
+            entries.removeAt(index);
+            unlink(entry);
+            size -= entry.factories.size();
+            return entry;
+        }
+
+        private void touch(Entry entry) {
+            if (head != entry) {
+                unlink(entry);
+                addFirst(entry);
+            }
+        }
+
+        private void unlink(Entry entry) {
+            if (entry.newer != null) {
+                entry.newer.older = entry.older;
+            } else {
+                head = entry.older;
+            }
+            if (entry.older != null) {
+                entry.older.newer = entry.newer;
+            } else {
+                tail = entry.newer;
+            }
+            entry.newer = null;
+            entry.older = null;
+        }
+    }
+}
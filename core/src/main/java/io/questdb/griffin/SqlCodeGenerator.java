@@ -37,6 +37,7 @@ import io.questdb.griffin.engine.LimitOverflowException;
 import io.questdb.griffin.engine.LimitRecordCursorFactory;
 import io.questdb.griffin.engine.RecordComparator;
 import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.engine.analytic.AnalyticRecordCursorFactory;
 import io.questdb.griffin.engine.analytic.CachedAnalyticRecordCursorFactory;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.SymbolFunction;
@@ -62,6 +63,7 @@ import io.questdb.jit.JitUtil;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
+import io.questdb.std.str.SingleCharCharSequence;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -387,18 +389,140 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return null;
     }
 
+    private @Nullable ObjList<ObjList<GroupByFunction>> compileWorkerGroupByFunctionsConditionally(
+            boolean condition,
+            int workerCount,
+            QueryModel model,
+            RecordMetadata metadata,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        if (condition) {
+            final ObjList<ObjList<GroupByFunction>> allWorkerFunctions = new ObjList<>(workerCount);
+            final ArrayColumnTypes workerValueTypes = new ArrayColumnTypes();
+            final IntList workerFunctionPositions = new IntList();
+            try {
+                for (int i = 0; i < workerCount; i++) {
+                    final ObjList<GroupByFunction> workerFunctions = new ObjList<>();
+                    allWorkerFunctions.extendAndSet(i, workerFunctions);
+                    workerValueTypes.clear();
+                    GroupByUtils.prepareGroupByFunctions(
+                            model,
+                            metadata,
+                            functionParser,
+                            executionContext,
+                            workerFunctions,
+                            workerFunctionPositions,
+                            workerValueTypes
+                    );
+                }
+            } catch (Throwable e) {
+                for (int i = 0, n = allWorkerFunctions.size(); i < n; i++) {
+                    Misc.freeObjList(allWorkerFunctions.getQuick(i));
+                }
+                throw e;
+            }
+            return allWorkerFunctions;
+        }
+        return null;
+    }
+
+    private void configureAnalyticContext(
+            AnalyticColumn ac,
+            RecordMetadata metadata,
+            boolean baseSupportsRandomAccess,
+            int timestampIndex,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        ObjList<Function> partitionBy = null;
+        int psz = ac.getPartitionBy().size();
+        if (psz > 0) {
+            partitionBy = new ObjList<>(psz);
+            try {
+                for (int j = 0; j < psz; j++) {
+                    partitionBy.add(
+                            functionParser.parseFunction(ac.getPartitionBy().getQuick(j), metadata, executionContext)
+                    );
+                }
+            } catch (Throwable e) {
+                Misc.freeObjList(partitionBy);
+                throw e;
+            }
+        }
+
+        final VirtualRecord partitionByRecord;
+        final RecordSink partitionBySink;
+
+        if (partitionBy != null) {
+            partitionByRecord = new VirtualRecord(partitionBy);
+            keyTypes.clear();
+            final int partitionByCount = partitionBy.size();
+
+            for (int j = 0; j < partitionByCount; j++) {
+                keyTypes.add(partitionBy.getQuick(j).getType());
+            }
+            entityColumnFilter.of(partitionByCount);
+            // create sink
+            partitionBySink = RecordSinkFactory.getInstance(
+                    asm,
+                    keyTypes,
+                    entityColumnFilter,
+                    false
+            );
+        } else {
+            partitionByRecord = null;
+            partitionBySink = null;
+        }
+
+        final int osz = ac.getOrderBy().size();
+        // default frame is the whole partition, or up to the current row when analytic is ordered
+        final int framingMode = ac.getFramingMode() == AnalyticColumn.FRAMING_DEFAULT ? AnalyticColumn.FRAMING_RANGE : ac.getFramingMode();
+        final long rowsHi = ac.getFramingMode() == AnalyticColumn.FRAMING_DEFAULT && osz == 0 ? AnalyticColumn.UNBOUNDED_FOLLOWING : ac.getRowsHi();
+        executionContext.configureAnalyticContext(
+                partitionByRecord,
+                partitionBySink,
+                keyTypes,
+                osz > 0,
+                baseSupportsRandomAccess,
+                framingMode,
+                ac.getRowsLo(),
+                ac.getRowsLoPos(),
+                rowsHi,
+                ac.getRowsHiPos(),
+                timestampIndex
+        );
+    }
+
     private RecordCursorFactory createAsOfJoin(
             RecordMetadata metadata,
             RecordCursorFactory master,
             RecordSink masterKeySink,
             RecordCursorFactory slave,
             RecordSink slaveKeySink,
-            int columnSplit
+            int columnSplit,
+            SqlExecutionContext executionContext
     ) {
         valueTypes.clear();
         valueTypes.add(ColumnType.LONG);
         valueTypes.add(ColumnType.LONG);
 
+        if (isParallelAsOfJoinSupported(master, slave, executionContext)) {
+            return new AsyncAsOfJoinRecordCursorFactory(
+                    configuration,
+                    executionContext.getMessageBus(),
+                    metadata,
+                    master,
+                    slave,
+                    keyTypes,
+                    valueTypes,
+                    masterKeySink,
+                    slaveKeySink,
+                    columnSplit,
+                    reduceTaskPool,
+                    executionContext.getSharedWorkerCount(),
+                    false
+            );
+        }
+
         return new AsOfJoinLightRecordCursorFactory(
                 configuration,
                 metadata,
@@ -591,7 +715,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             RecordMetadata metadata,
             RecordCursorFactory master,
             RecordCursorFactory slave,
-            int joinType
+            int joinType,
+            SqlExecutionContext executionContext
     ) {
         /*
          * JoinContext provides the following information:
@@ -625,6 +750,28 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         valueTypes.add(ColumnType.LONG);
 
         if (slave.recordCursorSupportsRandomAccess() && !fullFatJoins) {
+            final int workerCount = executionContext.getSharedWorkerCount();
+            if (configuration.isSqlParallelHashJoinEnabled()
+                    && workerCount > 0
+                    && master.supportPageFrameCursor()
+            ) {
+                return new AsyncHashJoinRecordCursorFactory(
+                        asm,
+                        configuration,
+                        executionContext.getMessageBus(),
+                        metadata,
+                        master,
+                        slave,
+                        keyTypes,
+                        masterKeySink,
+                        slaveKeySink,
+                        masterMetadata.getColumnCount(),
+                        reduceTaskPool,
+                        workerCount,
+                        joinType != JOIN_INNER
+                );
+            }
+
             if (joinType == JOIN_INNER) {
                 return new HashJoinLightRecordCursorFactory(
                         configuration,
@@ -660,6 +807,15 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 false
         );
 
+        // master records are copied only when join spills to disk
+        entityColumnFilter.of(masterMetadata.getColumnCount());
+        RecordSink masterSink = RecordSinkFactory.getInstance(
+                asm,
+                masterMetadata,
+                entityColumnFilter,
+                false
+        );
+
         if (joinType == JOIN_INNER) {
             return new HashJoinRecordCursorFactory(
                     configuration,
@@ -671,6 +827,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     masterKeySink,
                     slaveKeySink,
                     slaveSink,
+                    masterSink,
                     masterMetadata.getColumnCount()
             );
         }
@@ -685,6 +842,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 masterKeySink,
                 slaveKeySink,
                 slaveSink,
+                masterSink,
                 masterMetadata.getColumnCount()
         );
     }
@@ -734,12 +892,31 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             RecordSink masterKeySink,
             RecordCursorFactory slave,
             RecordSink slaveKeySink,
-            int columnSplit
+            int columnSplit,
+            SqlExecutionContext executionContext
     ) {
         valueTypes.clear();
         valueTypes.add(ColumnType.LONG);
         valueTypes.add(ColumnType.LONG);
 
+        if (isParallelAsOfJoinSupported(master, slave, executionContext)) {
+            return new AsyncAsOfJoinRecordCursorFactory(
+                    configuration,
+                    executionContext.getMessageBus(),
+                    metadata,
+                    master,
+                    slave,
+                    keyTypes,
+                    valueTypes,
+                    masterKeySink,
+                    slaveKeySink,
+                    columnSplit,
+                    reduceTaskPool,
+                    executionContext.getSharedWorkerCount(),
+                    true
+            );
+        }
+
         return new LtJoinLightRecordCursorFactory(
                 configuration,
                 metadata,
@@ -977,6 +1154,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 );
                         }
                         break;
+                    case ColumnType.VARCHAR:
                     case ColumnType.STRING:
                         switch (fromTag) {
                             case ColumnType.BOOLEAN:
@@ -1016,6 +1194,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                         configuration.getDoubleToStrCastScale()
                                 ));
                                 break;
+                            case ColumnType.VARCHAR:
                             case ColumnType.STRING:
                                 castFunctions.add(new StrColumn(i));
                                 break;
@@ -1086,6 +1265,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                         break;
                     case ColumnType.GEOBYTE:
                         switch (fromTag) {
+                            case ColumnType.VARCHAR:
                             case ColumnType.STRING:
                                 castFunctions.add(
                                         CastStrToGeoHashFunctionFactory.newInstance(
@@ -1139,6 +1319,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                         break;
                     case ColumnType.GEOSHORT:
                         switch (fromTag) {
+                            case ColumnType.VARCHAR:
                             case ColumnType.STRING:
                                 castFunctions.add(
                                         CastStrToGeoHashFunctionFactory.newInstance(
@@ -1182,6 +1363,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                         break;
                     case ColumnType.GEOINT:
                         switch (fromTag) {
+                            case ColumnType.VARCHAR:
                             case ColumnType.STRING:
                                 castFunctions.add(
                                         CastStrToGeoHashFunctionFactory.newInstance(
@@ -1215,6 +1397,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                         break;
                     case ColumnType.GEOLONG:
                         switch (fromTag) {
+                            case ColumnType.VARCHAR:
                             case ColumnType.STRING:
                                 castFunctions.add(
                                         CastStrToGeoHashFunctionFactory.newInstance(
@@ -1460,7 +1643,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                                         listColumnFilterA,
                                                         true
                                                 ),
-                                                masterMetadata.getColumnCount()
+                                                masterMetadata.getColumnCount(),
+                                                executionContext
                                         );
                                     } else {
                                         master = new AsOfJoinNoKeyRecordCursorFactory(
@@ -1508,7 +1692,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                                         listColumnFilterA,
                                                         true
                                                 ),
-                                                masterMetadata.getColumnCount()
+                                                masterMetadata.getColumnCount(),
+                                                executionContext
                                         );
                                     } else {
                                         master = new LtJoinNoKeyRecordCursorFactory(
@@ -1571,7 +1756,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                         createJoinMetadata(masterAlias, masterMetadata, slaveModel.getName(), slaveMetadata),
                                         master,
                                         slave,
-                                        joinType
+                                        joinType,
+                                        executionContext
                                 );
                                 masterAlias = null;
                                 break;
@@ -2059,7 +2245,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 configuration,
                                 orderedMetadata,
                                 recordCursorFactory,
-                                recordComparatorCompiler.compile(metadata, listColumnFilterA)
+                                recordComparatorCompiler.compile(metadata, listColumnFilterA),
+                                listColumnFilterA
                         );
                     }
                 }
@@ -2513,6 +2700,17 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
     private RecordCursorFactory generateSelectAnalytic(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         final RecordCursorFactory base = generateSubQuery(model, executionContext);
+        final RecordCursorFactory streamingFactory;
+        try {
+            streamingFactory = generateSelectAnalyticStreaming(model, base, executionContext);
+        } catch (Throwable e) {
+            Misc.free(base);
+            throw e;
+        }
+        if (streamingFactory != null) {
+            return streamingFactory;
+        }
+
         final RecordMetadata baseMetadata = base.getMetadata();
         final ObjList<QueryColumn> columns = model.getColumns();
         final int columnCount = columns.size();
@@ -2581,62 +2779,32 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             if (qc instanceof AnalyticColumn) {
                 final AnalyticColumn ac = (AnalyticColumn) qc;
                 final ExpressionNode ast = qc.getAst();
-                if (ast.paramCount > 1) {
+                if (ast.paramCount > 2) {
                     Misc.free(base);
                     throw SqlException.$(ast.position, "too many arguments");
                 }
 
-                ObjList<Function> partitionBy = null;
-                int psz = ac.getPartitionBy().size();
-                if (psz > 0) {
-                    partitionBy = new ObjList<>(psz);
-                    for (int j = 0; j < psz; j++) {
-                        partitionBy.add(
-                                functionParser.parseFunction(ac.getPartitionBy().getQuick(j), chainMetadata, executionContext)
-                        );
-                    }
-                }
-
-                final VirtualRecord partitionByRecord;
-                final RecordSink partitionBySink;
-
-                if (partitionBy != null) {
-                    partitionByRecord = new VirtualRecord(partitionBy);
-                    keyTypes.clear();
-                    final int partitionByCount = partitionBy.size();
-
-                    for (int j = 0; j < partitionByCount; j++) {
-                        keyTypes.add(partitionBy.getQuick(j).getType());
+                final int osz = ac.getOrderBy().size();
+                // frame keys can be timestamps only when rows are sorted by single timestamp column
+                int timestampIndex = -1;
+                if (osz == 1 && ac.getOrderByDirection().getQuick(0) == QueryModel.ORDER_DIRECTION_ASCENDING) {
+                    final int index = chainMetadata.getColumnIndexQuiet(ac.getOrderBy().getQuick(0).token);
+                    if (index > -1 && ColumnType.isTimestamp(chainMetadata.getColumnType(index))) {
+                        timestampIndex = index;
                     }
-                    entityColumnFilter.of(partitionByCount);
-                    // create sink
-                    partitionBySink = RecordSinkFactory.getInstance(
-                            asm,
-                            keyTypes,
-                            entityColumnFilter,
-                            false
-                    );
-                } else {
-                    partitionByRecord = null;
-                    partitionBySink = null;
                 }
 
-
-                final int osz = ac.getOrderBy().size();
-                executionContext.configureAnalyticContext(
-                        partitionByRecord,
-                        partitionBySink,
-                        keyTypes,
-                        osz > 0,
-                        base.recordCursorSupportsRandomAccess()
-                );
                 final Function f;
                 try {
-                    f = functionParser.parseFunction(ast, baseMetadata, executionContext);
+                    configureAnalyticContext(ac, chainMetadata, base.recordCursorSupportsRandomAccess(), timestampIndex, executionContext);
+                    f = functionParser.parseFunction(ast, chainMetadata, executionContext);
                     if (!(f instanceof AnalyticFunction)) {
-                        Misc.free(base);
+                        Misc.free(f);
                         throw SqlException.$(ast.position, "non-analytic function called in analytic context");
                     }
+                } catch (Throwable e) {
+                    Misc.free(base);
+                    throw e;
                 } finally {
                     executionContext.clearAnalyticContext();
                 }
@@ -2730,6 +2898,94 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         );
     }
 
+    /**
+     * Creates factory that computes analytic functions as base records stream by. This is possible
+     * when all analytic functions are ordered by the designated timestamp of the base, which is
+     * the order base records arrive in, and all functions support streaming.
+     *
+     * @return factory or null when query has to fall back to {@link CachedAnalyticRecordCursorFactory}
+     */
+    @Nullable
+    private RecordCursorFactory generateSelectAnalyticStreaming(
+            QueryModel model,
+            RecordCursorFactory base,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final RecordMetadata baseMetadata = base.getMetadata();
+        final int timestampIndex = baseMetadata.getTimestampIndex();
+        if (timestampIndex == -1 || base.hasDescendingOrder()) {
+            return null;
+        }
+
+        final ObjList<QueryColumn> columns = model.getColumns();
+        final int columnCount = columns.size();
+        final CharSequence timestampName = baseMetadata.getColumnName(timestampIndex);
+        for (int i = 0; i < columnCount; i++) {
+            final QueryColumn qc = columns.getQuick(i);
+            if (qc instanceof AnalyticColumn) {
+                final AnalyticColumn ac = (AnalyticColumn) qc;
+                if (ac.getOrderBy().size() != 1
+                        || ac.getOrderByDirection().getQuick(0) != QueryModel.ORDER_DIRECTION_ASCENDING
+                        || !Chars.equalsIgnoreCase(ac.getOrderBy().getQuick(0).token, timestampName)
+                        || ac.getRowsHi() == AnalyticColumn.UNBOUNDED_FOLLOWING
+                        || ac.getAst().paramCount > 2) {
+                    return null;
+                }
+            }
+        }
+
+        final GenericRecordMetadata metadata = new GenericRecordMetadata();
+        final ObjList<Function> functions = new ObjList<>(columnCount);
+        final ObjList<AnalyticFunction> analyticFunctions = new ObjList<>();
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                final QueryColumn qc = columns.getQuick(i);
+                if (qc instanceof AnalyticColumn) {
+                    final AnalyticColumn ac = (AnalyticColumn) qc;
+                    final ExpressionNode ast = qc.getAst();
+                    final Function f;
+                    try {
+                        configureAnalyticContext(ac, baseMetadata, base.recordCursorSupportsRandomAccess(), timestampIndex, executionContext);
+                        f = functionParser.parseFunction(ast, baseMetadata, executionContext);
+                    } finally {
+                        executionContext.clearAnalyticContext();
+                    }
+                    functions.add(f);
+                    if (!(f instanceof AnalyticFunction)) {
+                        throw SqlException.$(ast.position, "non-analytic function called in analytic context");
+                    }
+                    final AnalyticFunction analyticFunction = (AnalyticFunction) f;
+                    if (analyticFunction.getPassCount() != AnalyticFunction.ZERO_PASS) {
+                        Misc.freeObjList(functions);
+                        return null;
+                    }
+                    analyticFunctions.add(analyticFunction);
+                    metadata.add(new TableColumnMetadata(
+                            Chars.toString(qc.getAlias()),
+                            0, // transient column hash is 0
+                            f.getType(),
+                            false,
+                            0,
+                            false,
+                            null
+                    ));
+                } else {
+                    final int columnIndex = baseMetadata.getColumnIndexQuiet(qc.getAst().token);
+                    functions.add(functionParser.parseFunction(qc.getAst(), baseMetadata, executionContext));
+                    metadata.add(BaseRecordMetadata.copyOf(baseMetadata, columnIndex));
+                    if (columnIndex == timestampIndex) {
+                        // analytic functions do not change record order
+                        metadata.setTimestampIndex(i);
+                    }
+                }
+            }
+        } catch (Throwable e) {
+            Misc.freeObjList(functions);
+            throw e;
+        }
+        return new AnalyticRecordCursorFactory(base, metadata, functions, analyticFunctions);
+    }
+
     private RecordCursorFactory generateSelectChoose(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         final RecordCursorFactory factory = generateSubQuery(model, executionContext);
 
@@ -3168,6 +3424,42 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 );
             }
 
+            final int workerCount = executionContext.getSharedWorkerCount();
+            if (configuration.isSqlParallelGroupByEnabled()
+                    && workerCount > 0
+                    && factory.supportPageFrameCursor()
+                    && GroupByUtils.supportsParallelism(groupByFunctions)
+            ) {
+                final ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions;
+                try {
+                    perWorkerGroupByFunctions = compileWorkerGroupByFunctionsConditionally(
+                            !GroupByUtils.isReadThreadSafe(groupByFunctions),
+                            workerCount,
+                            model,
+                            metadata,
+                            executionContext
+                    );
+                } catch (Throwable e) {
+                    Misc.freeObjList(recordFunctions);
+                    throw e;
+                }
+                return new AsyncGroupByRecordCursorFactory(
+                        asm,
+                        configuration,
+                        executionContext.getMessageBus(),
+                        factory,
+                        listColumnFilterA,
+                        keyTypes,
+                        valueTypes,
+                        groupByMetadata,
+                        groupByFunctions,
+                        perWorkerGroupByFunctions,
+                        recordFunctions,
+                        reduceTaskPool,
+                        workerCount
+                );
+            }
+
             return new io.questdb.griffin.engine.groupby.GroupByRecordCursorFactory(
                     asm,
                     configuration,
@@ -3636,12 +3928,15 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
                 // below code block generates index-based filter
                 final boolean intervalHitsOnlyOnePartition;
+                final ZoneMapFilter zoneMapFilter = intrinsicModel.keyColumn == null
+                        ? generateZoneMapFilter(intrinsicModel.filter, reader, myMeta, columnIndexes, readerTimestampIndex, executionContext)
+                        : null;
                 if (intrinsicModel.hasIntervalFilters()) {
                     RuntimeIntrinsicIntervalModel intervalModel = intrinsicModel.buildIntervalModel();
-                    dfcFactory = new IntervalFwdDataFrameCursorFactory(tableName, model.getTableId(), model.getTableVersion(), intervalModel, readerTimestampIndex);
+                    dfcFactory = new IntervalFwdDataFrameCursorFactory(tableName, model.getTableId(), model.getTableVersion(), intervalModel, readerTimestampIndex, zoneMapFilter);
                     intervalHitsOnlyOnePartition = intervalModel.allIntervalsHitOnePartition(reader.getPartitionedBy());
                 } else {
-                    dfcFactory = new FullFwdDataFrameCursorFactory(tableName, model.getTableId(), model.getTableVersion());
+                    dfcFactory = new FullFwdDataFrameCursorFactory(tableName, model.getTableId(), model.getTableVersion(), zoneMapFilter);
                     intervalHitsOnlyOnePartition = false;
                 }
 
@@ -4014,6 +4309,278 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return unionFactory;
     }
 
+    // Zone map filter is a pre-filter that is derived from top-level conjunction of "column op constant"
+    // predicates. Everything else, including bind variables, is left to the row filter.
+    private @Nullable ZoneMapFilter generateZoneMapFilter(
+            ExpressionNode filter,
+            TableReader reader,
+            RecordMetadata metadata,
+            IntList columnIndexes,
+            int readerTimestampIndex,
+            SqlExecutionContext executionContext
+    ) {
+        if (filter == null || !configuration.isZoneMapEnabled()) {
+            return null;
+        }
+        final ZoneMapFilter zoneMapFilter = new ZoneMapFilter();
+        generateZoneMapPredicates(zoneMapFilter, filter, reader, metadata, columnIndexes, readerTimestampIndex, executionContext);
+        return zoneMapFilter.isEmpty() ? null : zoneMapFilter;
+    }
+
+    private void generateZoneMapPredicates(
+            ZoneMapFilter zoneMapFilter,
+            ExpressionNode node,
+            TableReader reader,
+            RecordMetadata metadata,
+            IntList columnIndexes,
+            int readerTimestampIndex,
+            SqlExecutionContext executionContext
+    ) {
+        if (node.type != ExpressionNode.OPERATION || node.paramCount != 2) {
+            return;
+        }
+
+        if (SqlKeywords.isAndKeyword(node.token)) {
+            generateZoneMapPredicates(zoneMapFilter, node.lhs, reader, metadata, columnIndexes, readerTimestampIndex, executionContext);
+            generateZoneMapPredicates(zoneMapFilter, node.rhs, reader, metadata, columnIndexes, readerTimestampIndex, executionContext);
+            return;
+        }
+
+        int op = zoneMapOp(node.token);
+        if (op == -1) {
+            return;
+        }
+
+        final ExpressionNode literal;
+        final ExpressionNode constant;
+        if (node.lhs.type == ExpressionNode.LITERAL && isConstantExpression(node.rhs)) {
+            literal = node.lhs;
+            constant = node.rhs;
+        } else if (node.rhs.type == ExpressionNode.LITERAL && isConstantExpression(node.lhs)) {
+            literal = node.rhs;
+            constant = node.lhs;
+            op = zoneMapSwapOp(op);
+        } else {
+            return;
+        }
+
+        final int columnIndex = metadata.getColumnIndexQuiet(literal.token);
+        if (columnIndex < 0) {
+            return;
+        }
+        final int readerColumnIndex = columnIndexes.getQuick(columnIndex);
+        final int columnType = metadata.getColumnType(columnIndex);
+        // equality can also be checked against Bloom filters of columns created with them
+        final boolean bloomFilter = op == ZoneMapFilter.OP_EQ
+                && BloomFilterReader.isSupported(columnType)
+                && reader.getMetadata().isColumnBloomFilter(readerColumnIndex);
+        if (readerColumnIndex == readerTimestampIndex || !(ZoneMapReader.isSupported(columnType) || bloomFilter)) {
+            return;
+        }
+
+        final Function function;
+        try {
+            function = functionParser.parseFunction(constant, EmptyRecordMetadata.INSTANCE, executionContext);
+        } catch (SqlException e) {
+            // the row filter will report the error
+            return;
+        }
+
+        try {
+            if (!function.isConstant()) {
+                return;
+            }
+            final int constantType = ColumnType.tagOf(function.getType());
+            final boolean ordered = op != ZoneMapFilter.OP_EQ && op != ZoneMapFilter.OP_NE;
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.DOUBLE: {
+                    final double value;
+                    switch (constantType) {
+                        case ColumnType.BYTE:
+                        case ColumnType.SHORT:
+                        case ColumnType.INT:
+                        case ColumnType.LONG:
+                        case ColumnType.FLOAT:
+                        case ColumnType.DOUBLE:
+                            value = function.getDouble(null);
+                            break;
+                        case ColumnType.NULL:
+                            value = Double.NaN;
+                            break;
+                        default:
+                            return;
+                    }
+                    if (value == value) {
+                        zoneMapFilter.add(readerColumnIndex, columnType, op, value);
+                    } else if (!ordered) {
+                        zoneMapFilter.add(readerColumnIndex, columnType, zoneMapNullOp(op), Double.NaN);
+                    }
+                    break;
+                }
+                case ColumnType.TIMESTAMP: {
+                    final long value;
+                    switch (constantType) {
+                        case ColumnType.INT:
+                        case ColumnType.LONG:
+                            value = function.getLong(null);
+                            break;
+                        case ColumnType.TIMESTAMP:
+                            value = function.getTimestamp(null);
+                            break;
+                        case ColumnType.STRING:
+                            value = SqlUtil.implicitCastStrAsTimestamp(function.getStr(null));
+                            break;
+                        case ColumnType.NULL:
+                            value = Numbers.LONG_NaN;
+                            break;
+                        default:
+                            return;
+                    }
+                    addZoneMapLongPredicate(zoneMapFilter, readerColumnIndex, columnType, op, value, true);
+                    break;
+                }
+                case ColumnType.STRING: {
+                    final CharSequence value = getZoneMapStrConstant(function, constantType);
+                    if (value != null) {
+                        zoneMapFilter.addEq(readerColumnIndex, columnType, BloomFilterReader.hashStr(value), Chars.toString(value));
+                    }
+                    break;
+                }
+                case ColumnType.SYMBOL: {
+                    final CharSequence value = getZoneMapStrConstant(function, constantType);
+                    if (value != null) {
+                        // symbol keys never change, but the value may not be in the symbol table yet
+                        final int key = reader.getSymbolMapReader(readerColumnIndex).keyOf(value);
+                        if (key > -1) {
+                            zoneMapFilter.addEq(readerColumnIndex, columnType, BloomFilterReader.hashLong(key), Chars.toString(value));
+                        }
+                    }
+                    break;
+                }
+                default: {
+                    final long value;
+                    switch (constantType) {
+                        case ColumnType.BYTE:
+                        case ColumnType.SHORT:
+                        case ColumnType.INT:
+                        case ColumnType.LONG:
+                            value = function.getLong(null);
+                            break;
+                        case ColumnType.NULL:
+                            value = Numbers.LONG_NaN;
+                            break;
+                        default:
+                            return;
+                    }
+                    // byte and short columns have no null
+                    final boolean nullable = ColumnType.tagOf(columnType) == ColumnType.INT || ColumnType.tagOf(columnType) == ColumnType.LONG;
+                    addZoneMapLongPredicate(zoneMapFilter, readerColumnIndex, columnType, op, value, nullable);
+                    break;
+                }
+            }
+            if (bloomFilter) {
+                zoneMapFilter.enableBloomFilter(readerColumnIndex);
+            }
+        } catch (ImplicitCastException e) {
+            // the row filter will report the error
+        } finally {
+            Misc.free(function);
+        }
+    }
+
+    private static void addZoneMapLongPredicate(
+            ZoneMapFilter zoneMapFilter,
+            int columnIndex,
+            int columnType,
+            int op,
+            long value,
+            boolean nullable
+    ) {
+        if (value != Numbers.LONG_NaN) {
+            zoneMapFilter.add(columnIndex, columnType, op, value);
+        } else if (nullable && (op == ZoneMapFilter.OP_EQ || op == ZoneMapFilter.OP_NE)) {
+            zoneMapFilter.add(columnIndex, columnType, zoneMapNullOp(op), Numbers.LONG_NaN);
+        }
+    }
+
+    private static @Nullable CharSequence getZoneMapStrConstant(Function function, int constantType) {
+        switch (constantType) {
+            case ColumnType.STRING:
+                return function.getStr(null);
+            case ColumnType.CHAR: {
+                final char value = function.getChar(null);
+                return value != 0 ? SingleCharCharSequence.get(value) : null;
+            }
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isConstantExpression(ExpressionNode node) {
+        if (node == null) {
+            return true;
+        }
+        switch (node.type) {
+            case ExpressionNode.CONSTANT:
+                return true;
+            case ExpressionNode.OPERATION:
+            case ExpressionNode.FUNCTION:
+                if (node.paramCount < 3) {
+                    return isConstantExpression(node.lhs) && isConstantExpression(node.rhs);
+                }
+                for (int i = 0, n = node.args.size(); i < n; i++) {
+                    if (!isConstantExpression(node.args.getQuick(i))) {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static int zoneMapNullOp(int op) {
+        return op == ZoneMapFilter.OP_EQ ? ZoneMapFilter.OP_IS_NULL : ZoneMapFilter.OP_IS_NOT_NULL;
+    }
+
+    private static int zoneMapOp(CharSequence token) {
+        if (Chars.equals(token, '=')) {
+            return ZoneMapFilter.OP_EQ;
+        }
+        if (Chars.equals(token, "!=") || Chars.equals(token, "<>")) {
+            return ZoneMapFilter.OP_NE;
+        }
+        if (Chars.equals(token, '<')) {
+            return ZoneMapFilter.OP_LT;
+        }
+        if (Chars.equals(token, "<=")) {
+            return ZoneMapFilter.OP_LE;
+        }
+        if (Chars.equals(token, '>')) {
+            return ZoneMapFilter.OP_GT;
+        }
+        if (Chars.equals(token, ">=")) {
+            return ZoneMapFilter.OP_GE;
+        }
+        return -1;
+    }
+
+    // "constant op column" is the same as "column swapped-op constant"
+    private static int zoneMapSwapOp(int op) {
+        switch (op) {
+            case ZoneMapFilter.OP_LT:
+                return ZoneMapFilter.OP_GT;
+            case ZoneMapFilter.OP_LE:
+                return ZoneMapFilter.OP_GE;
+            case ZoneMapFilter.OP_GT:
+                return ZoneMapFilter.OP_LT;
+            case ZoneMapFilter.OP_GE:
+                return ZoneMapFilter.OP_LE;
+            default:
+                return op;
+        }
+    }
+
     @Nullable
     private Function getHiFunction(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         return toLimitFunction(executionContext, model.getLimitHi(), null);
@@ -4057,6 +4624,20 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 getOrderByDirectionOrDefault(model, 0) == ORDER_DIRECTION_DESCENDING;
     }
 
+    private boolean isParallelAsOfJoinSupported(
+            RecordCursorFactory master,
+            RecordCursorFactory slave,
+            SqlExecutionContext executionContext
+    ) {
+        // both sides are read as page frames, slave is binary searched on its designated timestamp
+        return configuration.isSqlParallelAsOfJoinEnabled()
+                && executionContext.getSharedWorkerCount() > 0
+                && master.supportPageFrameCursor()
+                && !master.hasDescendingOrder()
+                && slave.supportPageFrameCursor()
+                && !slave.hasDescendingOrder();
+    }
+
     private boolean isSingleColumnFunction(ExpressionNode ast, CharSequence name) {
         return ast.type == FUNCTION && ast.paramCount == 1 && Chars.equalsIgnoreCase(ast.token, name) && ast.rhs.type == LITERAL;
     }
@@ -4121,6 +4702,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     case ColumnType.INT:
                     case ColumnType.LONG:
                     case ColumnType.LONG256:
+                    case ColumnType.VARCHAR:
                     case ColumnType.STRING:
                     case ColumnType.SYMBOL:
                         // we are reusing collections which leads to confusing naming for this method
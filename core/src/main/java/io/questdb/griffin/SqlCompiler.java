@@ -100,11 +100,12 @@ public class SqlCompiler implements Closeable {
     private final TableStructureAdapter tableStructureAdapter = new TableStructureAdapter();
     private final FunctionParser functionParser;
     private final ExecutableMethod insertAsSelectMethod = this::insertAsSelect;
-    private final TextLoader textLoader;
     private final FilesFacade ff;
     private final TimestampValueRecord partitionFunctionRec = new TimestampValueRecord();
     private final IndexBuilder rebuildIndex = new IndexBuilder();
     private final VacuumColumnVersions vacuumColumnVersions;
+    private final StringSink matViewQueryKey = new StringSink();
+    private final StringSink matViewQuery = new StringSink();
     //determines how compiler parses query text
     //true - compiler treats whole input as single query and doesn't stop on ';'. Default mode.
     //false - compiler treats input as list of statements and stops processing statement on ';'. Used in batch processing.
@@ -225,7 +226,6 @@ public class SqlCompiler implements Closeable {
                 queryModelPool,
                 postOrderTreeTraversalAlgo
         );
-        this.textLoader = new TextLoader(engine);
         alterOperationBuilder = new AlterOperationBuilder();
     }
 
@@ -247,7 +247,6 @@ public class SqlCompiler implements Closeable {
         vacuumColumnVersions.close();
         Misc.free(path);
         Misc.free(renamePath);
-        Misc.free(textLoader);
         Misc.free(rebuildIndex);
         Misc.free(codeGenerator);
         Misc.free(mem);
@@ -258,7 +257,7 @@ public class SqlCompiler implements Closeable {
     public CompiledQuery compile(@NotNull CharSequence query, @NotNull SqlExecutionContext executionContext) throws SqlException {
         clear();
         // these are quick executions that do not require building of a model
-        lexer.of(query);
+        lexer.of(rewriteToMatView(query));
         isSingleQueryMode = true;
 
         compileInner(executionContext);
@@ -266,6 +265,29 @@ public class SqlCompiler implements Closeable {
         return compiledQuery;
     }
 
+    /**
+     * Compiles query of materialized view with the scan of its base table restricted to [lo, hi) interval
+     * of the designated timestamp. Refresh uses it to recompute view partitions affected by base table commits.
+     *
+     * @param view            materialized view definition
+     * @param timestampColumn name of designated timestamp column of the base table
+     * @param lo              interval start, inclusive
+     * @param hi              interval end, exclusive
+     */
+    public RecordCursorFactory compileMatViewQuery(
+            MatViewDefinition view,
+            CharSequence timestampColumn,
+            long lo,
+            long hi,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        clear();
+        lexer.of(view.getQuery());
+        codeGenerator.clear();
+        final QueryModel model = parser.parseMatViewQuery(lexer, timestampColumn, lo, hi);
+        return generate(optimiser.optimise(model, executionContext), executionContext);
+    }
+
     /*
      * Allows processing of batches of sql statements (sql scripts) separated by ';' .
      * Each query is processed in sequence and processing stops on first error and whole batch gets discarded .
@@ -470,6 +492,13 @@ public class SqlCompiler implements Closeable {
                     } else {
                         throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
                     }
+                } else if (SqlKeywords.isCompressKeyword(tok)) {
+                    tok = expectToken(lexer, "'partition'");
+                    if (SqlKeywords.isPartitionKeyword(tok)) {
+                        return alterTableDropDetachOrAttachPartition(reader, PartitionAction.COMPRESS, executionContext);
+                    } else {
+                        throw SqlException.$(lexer.lastTokenPosition(), "'partition' expected");
+                    }
                 } else if (SqlKeywords.isRenameKeyword(tok)) {
                     tok = expectToken(lexer, "'column'");
                     if (SqlKeywords.isColumnKeyword(tok)) {
@@ -541,7 +570,7 @@ public class SqlCompiler implements Closeable {
                         throw SqlException.$(lexer.lastTokenPosition(), "'param' expected");
                     }
                 } else {
-                    throw SqlException.$(lexer.lastTokenPosition(), "'add', 'drop', 'attach', 'detach', 'set' or 'rename' expected");
+                    throw SqlException.$(lexer.lastTokenPosition(), "'add', 'drop', 'attach', 'detach', 'compress', 'set' or 'rename' expected");
                 }
             } catch (CairoException e) {
                 LOG.info().$("could not alter table [table=").$(name).$(", ex=").$((Throwable) e).$();
@@ -869,8 +898,11 @@ public class SqlCompiler implements Closeable {
                 case PartitionAction.DETACH:
                     alterPartitionStatement = alterOperationBuilder.ofDetachPartition(pos, tableName, reader.getMetadata().getId());
                     break;
+                case PartitionAction.COMPRESS:
+                    alterPartitionStatement = alterOperationBuilder.ofCompressPartition(pos, tableName, reader.getMetadata().getId());
+                    break;
                 default:
-                    throw SqlException.$(pos, "WHERE clause can only be used with command DROP PARTITION, or DETACH PARTITION");
+                    throw SqlException.$(pos, "WHERE clause can only be used with command DROP PARTITION, DETACH PARTITION or COMPRESS PARTITION");
             }
             ExpressionNode expr = parser.expr(lexer, (QueryModel) null);
             String designatedTimestampColumnName = null;
@@ -907,11 +939,14 @@ public class SqlCompiler implements Closeable {
             case PartitionAction.DETACH:
                 partitions = alterOperationBuilder.ofDetachPartition(pos, tableName, reader.getMetadata().getId());
                 break;
+            case PartitionAction.COMPRESS:
+                partitions = alterOperationBuilder.ofCompressPartition(pos, tableName, reader.getMetadata().getId());
+                break;
             default:
                 // attach
                 partitions = alterOperationBuilder.ofAttachPartition(pos, tableName, reader.getMetadata().getId());
         }
-        assert action == PartitionAction.DROP || action == PartitionAction.ATTACH || action == PartitionAction.DETACH;
+        assert action == PartitionAction.DROP || action == PartitionAction.ATTACH || action == PartitionAction.DETACH || action == PartitionAction.COMPRESS;
         int semicolonPos = -1;
         do {
             CharSequence tok = maybeExpectToken(lexer, "partition name", semicolonPos < 0);
@@ -1451,6 +1486,12 @@ public class SqlCompiler implements Closeable {
                         }
                         engine.createTableUnsafe(executionContext.getCairoSecurityContext(), mem, path, createTableModel);
                         newTable = true;
+                    } else if (createTableModel.isMatView()) {
+                        // base table state is captured before the query runs, commits that land
+                        // in between are picked up by the first refresh
+                        final MatViewDefinition matView = snapshotMatViewBase(createTableModel, executionContext);
+                        writer = createTableFromCursor(createTableModel, executionContext);
+                        engine.getMatViewRegistry().register(matView, path);
                     } else {
                         writer = createTableFromCursor(createTableModel, executionContext);
                     }
@@ -1476,6 +1517,19 @@ public class SqlCompiler implements Closeable {
         }
     }
 
+    private MatViewDefinition snapshotMatViewBase(CreateTableModel model, SqlExecutionContext executionContext) throws SqlException {
+        final ExpressionNode baseTableName = model.getMatViewBaseTableName();
+        tableExistsOrFail(baseTableName.position, baseTableName.token, executionContext);
+        try (TableReader reader = engine.getReader(executionContext.getCairoSecurityContext(), baseTableName.token)) {
+            if (reader.getMetadata().getTimestampIndex() == -1) {
+                throw SqlException.$(baseTableName.position, "base table of materialized view must have designated timestamp");
+            }
+            final MatViewDefinition matView = new MatViewDefinition(model.getName().token, baseTableName.token, model.getMatViewQuery());
+            matView.snapshot(reader);
+            return matView;
+        }
+    }
+
     private void copyTableReaderMetadataToCreateTableModel(SqlExecutionContext executionContext, CreateTableModel model) throws SqlException {
         ExpressionNode likeTableName = model.getLikeTableName();
         CharSequence likeTableNameToken = likeTableName.token;
@@ -1597,9 +1651,12 @@ public class SqlCompiler implements Closeable {
     private CompiledQuery executeCopy(SqlExecutionContext executionContext, CopyModel executionModel) throws SqlException {
         executionContext.getCairoSecurityContext().checkWritePermission();
         if (!executionModel.isCancel() && Chars.equalsLowerCaseAscii(executionModel.getFileName().token, "stdin")) {
-            // no-op implementation
-            setupTextLoaderFromModel(executionModel);
-            return compiledQuery.ofCopyRemote(textLoader);
+            // data is streamed by the client, e.g. over PG wire, after the statement is compiled
+            final ExpressionNode target = executionModel.getTarget();
+            if (engine.getStatus(executionContext.getCairoSecurityContext(), path, GenericLexer.unquote(target.token)) != TableUtils.TABLE_EXISTS) {
+                throw SqlException.$(target.position, "table does not exist [table=").put(target.token).put(']');
+            }
+            return compiledQuery.ofCopyRemote(executionModel);
         }
         RecordCursorFactory copyFactory = executeCopy0(executionModel);
         return compiledQuery.ofCopyLocal(copyFactory);
@@ -1648,6 +1705,26 @@ public class SqlCompiler implements Closeable {
         throw SqlException.position(0).put("underlying cursor is extremely volatile");
     }
 
+    /**
+     * Query that matches materialized view definition is answered from the view, as long as the view has
+     * been refreshed up to the latest commit of its base table.
+     */
+    private CharSequence rewriteToMatView(CharSequence query) {
+        final MatViewRegistry registry = engine.getMatViewRegistry();
+        if (registry.isEmpty()) {
+            return query;
+        }
+        SharedQueryCache.buildKey(matViewQueryKey, query, null);
+        final MatViewDefinition view = registry.getViewByQueryKey(matViewQueryKey);
+        if (view == null || !registry.isFresh(view)) {
+            return query;
+        }
+        LOG.info().$("query rewritten to materialized view [view=").$(view.getViewName()).I$();
+        matViewQuery.clear();
+        matViewQuery.put("select * from \"").put(view.getViewName()).put('"');
+        return matViewQuery;
+    }
+
     RecordCursorFactory generate(QueryModel queryModel, SqlExecutionContext executionContext) throws SqlException {
         return codeGenerator.generate(queryModel, executionContext);
     }
@@ -2041,7 +2118,7 @@ public class SqlCompiler implements Closeable {
                 int tableColumnType = tableColumnTypes.get(tableColumnIndex);
 
                 if (virtualColumnType != tableColumnType) {
-                    if (!ColumnType.isSymbol(tableColumnType) || virtualColumnType != ColumnType.STRING) {
+                    if ((!ColumnType.isSymbol(tableColumnType) && !ColumnType.isVarchar(tableColumnType)) || virtualColumnType != ColumnType.STRING) {
                         // get column position
                         ExpressionNode setRhs = updateQueryModel.getNestedModel().getColumns().getQuick(i).getAst();
                         throw SqlException.inconvertibleTypes(setRhs.position, virtualColumnType, "", tableColumnType, updateColumnName);
@@ -2163,19 +2240,6 @@ public class SqlCompiler implements Closeable {
         codeGenerator.setFullFatJoins(value);
     }
 
-    private void setupTextLoaderFromModel(CopyModel model) {
-        textLoader.clear();
-        textLoader.setState(TextLoader.ANALYZE_STRUCTURE);
-        // todo: configure the following
-        //   - what happens when data row errors out, max errors may be?
-        //   - we should be able to skip X rows from top, dodgy headers etc.
-
-        textLoader.configureDestination(model.getTarget().token, false, false,
-                model.getAtomicity() != -1 ? model.getAtomicity() : Atomicity.SKIP_ROW,
-                model.getPartitionBy() < 0 ? PartitionBy.NONE : model.getPartitionBy(),
-                model.getTimestampColumnName(), model.getTimestampFormat());
-    }
-
     private CompiledQuery snapshotDatabase(SqlExecutionContext executionContext) throws SqlException {
         executionContext.getCairoSecurityContext().checkWritePermission();
         CharSequence tok = expectToken(lexer, "'prepare' or 'complete'");
@@ -2464,6 +2528,20 @@ public class SqlCompiler implements Closeable {
         if (PartitionBy.isPartitioned(model.getPartitionBy()) && model.getTimestampIndex() == -1 && metadata.getTimestampIndex() == -1) {
             throw SqlException.position(0).put("timestamp is not defined");
         }
+
+        // column types of "create table as select" are known only now
+        for (int i = 0, n = model.getColumnCount(); i < n; i++) {
+            if (model.isDedupKey(i)) {
+                final int castIndex = typeCast.keyIndex(i);
+                final int columnType = castIndex < 0 ? typeCast.valueAt(castIndex) : metadata.getColumnType(i);
+                if (ColumnType.isVariableLength(columnType)) {
+                    throw SqlException.position(0)
+                            .put("deduplication key must be a fixed size column [column=").put(model.getColumnName(i))
+                            .put(", type=").put(ColumnType.nameOf(columnType))
+                            .put(']');
+                }
+            }
+        }
     }
 
     @FunctionalInterface
@@ -2480,6 +2558,7 @@ public class SqlCompiler implements Closeable {
         public static final int DROP = 1;
         public static final int ATTACH = 2;
         public static final int DETACH = 3;
+        public static final int COMPRESS = 4;
     }
 
     private static class TableStructureAdapter implements TableStructure {
@@ -2571,6 +2650,16 @@ public class SqlCompiler implements Closeable {
             return model.isIndexed(columnIndex);
         }
 
+        @Override
+        public boolean isBloomFilter(int columnIndex) {
+            return model.isBloomFilter(columnIndex);
+        }
+
+        @Override
+        public boolean isDedupKey(int columnIndex) {
+            return model.isDedupKey(columnIndex);
+        }
+
         @Override
         public boolean isSequential(int columnIndex) {
             return model.isSequential(columnIndex);
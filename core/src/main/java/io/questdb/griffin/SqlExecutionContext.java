@@ -88,7 +88,13 @@ public interface SqlExecutionContext extends Closeable {
             @Nullable RecordSink partitionBySink,
             @Transient @Nullable ColumnTypes keyTypes,
             boolean isOrdered,
-            boolean baseSupportsRandomAccess
+            boolean baseSupportsRandomAccess,
+            int framingMode,
+            long rowsLo,
+            int rowsLoPos,
+            long rowsHi,
+            int rowsHiPos,
+            int timestampIndex
     );
 
     void clearAnalyticContext();
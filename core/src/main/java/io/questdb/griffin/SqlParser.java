@@ -24,13 +24,17 @@
 
 package io.questdb.griffin;
 
+import io.questdb.cairo.BloomFilterReader;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.PartitionBy;
 import io.questdb.cairo.TableUtils;
 import io.questdb.cutlass.text.Atomicity;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.griffin.engine.groupby.TimestampSamplerFactory;
 import io.questdb.griffin.model.*;
 import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -169,6 +173,12 @@ public final class SqlParser {
         topLevelWithModel.clear();
     }
 
+    private void checkCopyEnabled(int position) throws SqlException {
+        if (Chars.isBlank(configuration.getSqlCopyInputRoot())) {
+            throw SqlException.$(position, "COPY is disabled ['cairo.sql.copy.root' is not set?]");
+        }
+    }
+
     private CharSequence createColumnAlias(ExpressionNode node, QueryModel model) {
         return SqlUtil.createColumnAlias(
                 characterStore,
@@ -354,6 +364,20 @@ public final class SqlParser {
         return expressionNodePool.next().of(ExpressionNode.CONSTANT, value, 0, 0);
     }
 
+    private ExpressionNode nextOperation(CharSequence token, ExpressionNode lhs, ExpressionNode rhs) {
+        final ExpressionNode node = expressionNodePool.next().of(ExpressionNode.OPERATION, token, 0, 0);
+        node.paramCount = 2;
+        node.lhs = lhs;
+        node.rhs = rhs;
+        return node;
+    }
+
+    private ExpressionNode nextTimestampConstant(long timestamp) {
+        final CharacterStoreEntry entry = characterStore.newEntry();
+        entry.put('\'').putISODate(timestamp).put('\'');
+        return nextConstant(entry.toImmutable());
+    }
+
     private ExpressionNode nextLiteral(CharSequence token, int position) {
         return SqlUtil.nextLiteral(expressionNodePool, token, position);
     }
@@ -408,6 +432,28 @@ public final class SqlParser {
         return parseSelect(lexer);
     }
 
+    /**
+     * Parses query of materialized view and restricts scan of its base table to [lo, hi) interval of
+     * the designated timestamp. Interval is added to the where clause of the base table model, so that
+     * optimiser turns it into interval scan.
+     */
+    QueryModel parseMatViewQuery(GenericLexer lexer, CharSequence timestampColumn, long lo, long hi) throws SqlException {
+        final QueryModel model = parseDml(lexer, null, 0);
+        final CharSequence tok = optTok(lexer);
+        if (tok != null && !Chars.equals(tok, ';')) {
+            throw errUnexpected(lexer, tok);
+        }
+        final QueryModel baseModel = validateMatViewQuery(model, 0);
+        final ExpressionNode interval = nextOperation(
+                "and",
+                nextOperation(">=", nextLiteral(timestampColumn, 0), nextTimestampConstant(lo)),
+                nextOperation("<", nextLiteral(timestampColumn, 0), nextTimestampConstant(hi))
+        );
+        final ExpressionNode where = baseModel.getWhereClause();
+        baseModel.setWhereClause(where == null ? interval : nextOperation("and", where, interval));
+        return model;
+    }
+
     QueryModel parseAsSubQuery(GenericLexer lexer, @Nullable LowerCaseCharSequenceObjHashMap<WithClauseModel> withClauses) throws SqlException {
         QueryModel model;
         this.subQueryMode = true;
@@ -419,6 +465,86 @@ public final class SqlParser {
         return model;
     }
 
+    private void parseAnalyticFrame(GenericLexer lexer, AnalyticColumn col, CharSequence tok) throws SqlException {
+        final int framingMode = isRowsKeyword(tok) ? AnalyticColumn.FRAMING_ROWS : AnalyticColumn.FRAMING_RANGE;
+        col.setFramingMode(framingMode, lexer.lastTokenPosition());
+
+        tok = tok(lexer, "'between', 'unbounded', 'current' or integer");
+        if (isBetweenKeyword(tok)) {
+            parseAnalyticFrameBound(lexer, col, framingMode, true);
+            expectTok(lexer, "and");
+            parseAnalyticFrameBound(lexer, col, framingMode, false);
+        } else {
+            // short form, e.g. "rows 10 preceding", frame ends at the current row
+            lexer.unparseLast();
+            parseAnalyticFrameBound(lexer, col, framingMode, true);
+            col.setRowsHi(0, col.getRowsLoPos());
+        }
+
+        if (col.getRowsLo() == AnalyticColumn.UNBOUNDED_FOLLOWING) {
+            throw SqlException.$(col.getRowsLoPos(), "frame start cannot be UNBOUNDED FOLLOWING");
+        }
+        if (col.getRowsHi() == AnalyticColumn.UNBOUNDED_PRECEDING) {
+            throw SqlException.$(col.getRowsHiPos(), "frame end cannot be UNBOUNDED PRECEDING");
+        }
+        if (col.getRowsLo() > col.getRowsHi()) {
+            throw SqlException.$(col.getRowsLoPos(), "frame start cannot be after frame end");
+        }
+    }
+
+    private void parseAnalyticFrameBound(GenericLexer lexer, AnalyticColumn col, int framingMode, boolean lo) throws SqlException {
+        CharSequence tok = tok(lexer, "'unbounded', 'current' or integer");
+        final int pos = lexer.lastTokenPosition();
+        final long bound;
+        if (isUnboundedKeyword(tok)) {
+            tok = tok(lexer, "'preceding' or 'following'");
+            if (isPrecedingKeyword(tok)) {
+                bound = AnalyticColumn.UNBOUNDED_PRECEDING;
+            } else if (isFollowingKeyword(tok)) {
+                bound = AnalyticColumn.UNBOUNDED_FOLLOWING;
+            } else {
+                throw SqlException.$(lexer.lastTokenPosition(), "'preceding' or 'following' expected");
+            }
+        } else if (isCurrentKeyword(tok)) {
+            expectTok(lexer, "row");
+            bound = 0;
+        } else {
+            long value;
+            try {
+                value = Numbers.parseLong(tok);
+            } catch (NumericException e) {
+                throw SqlException.$(pos, "'unbounded', 'current' or integer expected");
+            }
+
+            tok = tok(lexer, "'preceding' or 'following'");
+            if (framingMode == AnalyticColumn.FRAMING_RANGE) {
+                // range offsets are applied to timestamp, which is in microseconds
+                final long multiplier = rangeUnitMultiplier(tok);
+                if (multiplier > 0) {
+                    if (value > Long.MAX_VALUE / multiplier) {
+                        throw SqlException.$(pos, "frame offset is too large");
+                    }
+                    value *= multiplier;
+                    tok = tok(lexer, "'preceding' or 'following'");
+                }
+            }
+
+            if (isPrecedingKeyword(tok)) {
+                bound = -value;
+            } else if (isFollowingKeyword(tok)) {
+                bound = value;
+            } else {
+                throw SqlException.$(lexer.lastTokenPosition(), "'preceding' or 'following' expected");
+            }
+        }
+
+        if (lo) {
+            col.setRowsLo(bound, pos);
+        } else {
+            col.setRowsHi(bound, pos);
+        }
+    }
+
     private QueryModel parseAsSubQueryAndExpectClosingBrace(GenericLexer lexer, LowerCaseCharSequenceObjHashMap<WithClauseModel> withClauses) throws SqlException {
         final QueryModel model = parseAsSubQuery(lexer, withClauses);
         expectTok(lexer, ')');
@@ -426,13 +552,12 @@ public final class SqlParser {
     }
 
     private ExecutionModel parseCopy(GenericLexer lexer) throws SqlException {
-        if (Chars.isBlank(configuration.getSqlCopyInputRoot())) {
-            throw SqlException.$(lexer.lastTokenPosition(), "COPY is disabled ['cairo.sql.copy.root' is not set?]");
-        }
+        final int copyPosition = lexer.lastTokenPosition();
         ExpressionNode target = expectExpr(lexer);
         CharSequence tok = tok(lexer, "'from' or 'to' or 'cancel'");
 
         if (isCancelKeyword(tok)) {
+            checkCopyEnabled(copyPosition);
             CopyModel model = copyModelPool.next();
             model.setCancel(true);
             model.setTarget(target);
@@ -445,15 +570,29 @@ public final class SqlParser {
                 throw SqlException.$(fileName.position, "file name expected");
             }
 
+            // STDIN data is streamed by the client over PG wire, it does not need import root
+            final boolean stdin = isStdinKeyword(fileName.token);
+            if (!stdin) {
+                checkCopyEnabled(copyPosition);
+            }
+
             CopyModel model = copyModelPool.next();
             model.setTarget(target);
             model.setFileName(fileName);
 
             tok = optTok(lexer);
+            if (tok != null && (isBinaryKeyword(tok) || isCsvKeyword(tok))) {
+                // PostgreSQL legacy syntax, e.g. "copy x from stdin binary"
+                parseCopyFormat(lexer, tok, model, stdin);
+                tok = optTok(lexer);
+            }
             if (tok != null && isWithKeyword(tok)) {
                 tok = tok(lexer, "copy option");
                 while (tok != null && !isSemicolon(tok)) {
-                    if (isHeaderKeyword(tok)) {
+                    if (isBinaryKeyword(tok) || isCsvKeyword(tok)) {
+                        parseCopyFormat(lexer, tok, model, stdin);
+                        tok = optTok(lexer);
+                    } else if (isHeaderKeyword(tok)) {
                         model.setHeader(isTrueKeyword(tok(lexer, "'true' or 'false'")));
                         tok = optTok(lexer);
                     } else if (isPartitionKeyword(tok)) {
@@ -475,6 +614,11 @@ public final class SqlParser {
                         tok = optTok(lexer);
                     } else if (isFormatKeyword(tok)) {
                         tok = tok(lexer, "timestamp format expected");
+                        if (isBinaryKeyword(tok) || isCsvKeyword(tok)) {
+                            parseCopyFormat(lexer, tok, model, stdin);
+                            tok = optTok(lexer);
+                            continue;
+                        }
                         CharSequence format = GenericLexer.immutableOf(GenericLexer.unquote(tok));
                         model.setTimestampFormat(format);
                         tok = optTok(lexer);
@@ -515,12 +659,25 @@ public final class SqlParser {
         throw SqlException.$(lexer.lastTokenPosition(), "'from' expected");
     }
 
+    private void parseCopyFormat(GenericLexer lexer, CharSequence tok, CopyModel model, boolean stdin) throws SqlException {
+        if (!stdin) {
+            throw SqlException.$(lexer.lastTokenPosition(), "format option is supported for STDIN only");
+        }
+        model.setFormat(isBinaryKeyword(tok) ? CopyModel.FORMAT_BINARY : CopyModel.FORMAT_CSV);
+    }
+
     private ExecutionModel parseCreateStatement(GenericLexer lexer, SqlExecutionContext executionContext) throws SqlException {
+        final CharSequence tok = optTok(lexer);
+        if (tok != null && isMaterializedKeyword(tok)) {
+            expectTok(lexer, "view");
+            return parseCreateTable(lexer, executionContext, true);
+        }
+        lexer.unparseLast();
         expectTok(lexer, "table");
-        return parseCreateTable(lexer, executionContext);
+        return parseCreateTable(lexer, executionContext, false);
     }
 
-    private ExecutionModel parseCreateTable(GenericLexer lexer, SqlExecutionContext executionContext) throws SqlException {
+    private ExecutionModel parseCreateTable(GenericLexer lexer, SqlExecutionContext executionContext, boolean matView) throws SqlException {
         final CreateTableModel model = createTableModelPool.next();
         final CharSequence tableName;
         CharSequence tok = tok(lexer, "table name or 'if'");
@@ -537,9 +694,14 @@ public final class SqlParser {
 
         model.setName(nextLiteral(GenericLexer.assertNoDotsAndSlashes(GenericLexer.unquote(tableName), lexer.lastTokenPosition()), lexer.lastTokenPosition()));
 
-        tok = tok(lexer, "'(' or 'as'");
+        tok = tok(lexer, matView ? "'as'" : "'(' or 'as'");
 
-        if (Chars.equals(tok, '(')) {
+        if (matView) {
+            if (!isAsKeyword(tok)) {
+                throw SqlException.$(lexer.lastTokenPosition(), "'as' expected");
+            }
+            parseCreateTableAsSelect(lexer, model, executionContext, true);
+        } else if (Chars.equals(tok, '(')) {
             tok = tok(lexer, "like");
             if (isLikeKeyword(tok)) {
                 parseLikeTableName(lexer, model);
@@ -549,7 +711,7 @@ public final class SqlParser {
                 parseCreateTableColumns(lexer, model);
             }
         } else if (isAsKeyword(tok)) {
-            parseCreateTableAsSelect(lexer, model, executionContext);
+            parseCreateTableAsSelect(lexer, model, executionContext, false);
         } else {
             throw errUnexpected(lexer, tok);
         }
@@ -642,6 +804,11 @@ public final class SqlParser {
             }
         }
 
+        if (tok != null && isDedupKeyword(tok)) {
+            parseCreateTableDedupKeys(lexer, model);
+            tok = optTok(lexer);
+        }
+
         model.setMaxUncommittedRows(maxUncommittedRows);
         model.setCommitLag(commitLag);
         final boolean isWalEnabled =
@@ -651,12 +818,60 @@ public final class SqlParser {
 
         model.setWalEnabled(isWalEnabled);
 
+        if (matView) {
+            validateMatViewPartitioning(lexer, model, walSetting == walEnabled);
+        }
+
         if (tok == null || Chars.equals(tok, ';')) {
             return model;
         }
         throw errUnexpected(lexer, tok);
     }
 
+    private void parseCreateTableDedupKeys(GenericLexer lexer, CreateTableModel model) throws SqlException {
+        final int dedupPosition = lexer.lastTokenPosition();
+        if (!PartitionBy.isPartitioned(model.getPartitionBy())) {
+            throw SqlException.position(dedupPosition).put("deduplication is possible only on partitioned tables");
+        }
+        CharSequence tok = tok(lexer, "'upsert'");
+        if (!isUpsertKeyword(tok)) {
+            throw SqlException.position(lexer.lastTokenPosition()).put("'upsert' expected");
+        }
+        tok = tok(lexer, "'keys'");
+        if (!isKeysKeyword(tok)) {
+            throw SqlException.position(lexer.lastTokenPosition()).put("'keys' expected");
+        }
+        expectTok(lexer, '(');
+
+        boolean timestampKey = false;
+        do {
+            tok = tok(lexer, "deduplication key column name");
+            final int position = lexer.lastTokenPosition();
+            final CharSequence columnName = GenericLexer.unquote(tok);
+            final int columnIndex = getCreateTableColumnIndex(model, columnName, position);
+            final int columnType = model.getColumnType(columnIndex);
+            // type can be -1 for create table as select, it is validated by the compiler
+            if (columnType != -1 && ColumnType.isVariableLength(columnType)) {
+                throw SqlException.position(position)
+                        .put("deduplication key must be a fixed size column [column=").put(columnName)
+                        .put(", type=").put(ColumnType.nameOf(columnType))
+                        .put(']');
+            }
+            if (Chars.equalsIgnoreCase(model.getTimestamp().token, columnName)) {
+                timestampKey = true;
+            }
+            model.setDedupKeyFlag(columnIndex);
+            tok = tok(lexer, "',' or ')'");
+        } while (Chars.equals(tok, ','));
+
+        if (!Chars.equals(tok, ')')) {
+            throw errUnexpected(lexer, tok);
+        }
+        if (!timestampKey) {
+            throw SqlException.position(dedupPosition).put("deduplication keys must include the designated timestamp");
+        }
+    }
+
     private void parseLikeTableName(GenericLexer lexer, CreateTableModel model) throws SqlException {
         CharSequence tok;
         tok = tok(lexer, "table name");
@@ -671,9 +886,25 @@ public final class SqlParser {
         }
     }
 
-    private void parseCreateTableAsSelect(GenericLexer lexer, CreateTableModel model, SqlExecutionContext executionContext) throws SqlException {
+    private void parseCreateTableAsSelect(
+            GenericLexer lexer,
+            CreateTableModel model,
+            SqlExecutionContext executionContext,
+            boolean matView
+    ) throws SqlException {
         expectTok(lexer, '(');
-        QueryModel queryModel = optimiser.optimise(parseDml(lexer, null, lexer.getPosition()), executionContext);
+        final int queryLo = lexer.getPosition();
+        // sub-query mode lets view query end with 'align to calendar' right before the closing brace
+        final QueryModel dmlModel = matView ? parseAsSubQuery(lexer, null) : parseDml(lexer, null, queryLo);
+        ExpressionNode baseTableName = null;
+        ExpressionNode sampleBy = null;
+        if (matView) {
+            // view query is validated before optimiser rewrites the model
+            final QueryModel baseModel = validateMatViewQuery(dmlModel, queryLo);
+            baseTableName = baseModel.getTableName();
+            sampleBy = baseModel.getSampleBy();
+        }
+        QueryModel queryModel = optimiser.optimise(dmlModel, executionContext);
         ObjList<QueryColumn> columns = queryModel.getBottomUpColumns();
         assert columns.size() > 0;
 
@@ -685,6 +916,9 @@ public final class SqlParser {
 
         model.setQueryModel(queryModel);
         expectTok(lexer, ')');
+        if (matView) {
+            model.setMatView(baseTableName, sampleBy, Chars.toString(lexer.getContent(), queryLo, lexer.lastTokenPosition()));
+        }
     }
 
     private void parseCreateTableCastDef(GenericLexer lexer, CreateTableModel model) throws SqlException {
@@ -791,6 +1025,17 @@ public final class SqlParser {
                 tok = tok(lexer, "',' or ')'");
             }
 
+            if (isBloomKeyword(tok)) {
+                if (!BloomFilterReader.isSupported(type)) {
+                    throw SqlException.position(lexer.lastTokenPosition())
+                            .put("bloom filter is supported only for LONG, SYMBOL and STRING columns [column=").put(name)
+                            .put(", type=").put(ColumnType.nameOf(type))
+                            .put(']');
+                }
+                model.setBloomFilterFlag(model.getColumnCount() - 1);
+                tok = tok(lexer, "',' or ')'");
+            }
+
             //ignoring `PRECISION`
             if (SqlKeywords.isPrecisionKeyword(tok)) {
                 tok = tok(lexer, "'NOT' or 'NULL' or ',' or ')'");
@@ -834,7 +1079,7 @@ public final class SqlParser {
     private CharSequence parseCreateTableInlineIndexDef(GenericLexer lexer, CreateTableModel model) throws SqlException {
         CharSequence tok = tok(lexer, "')', or 'index'");
 
-        if (isFieldTerm(tok)) {
+        if (isFieldTerm(tok) || isBloomKeyword(tok)) {
             model.setIndexFlags(false, configuration.getIndexValueBlockSize());
             return tok;
         }
@@ -1686,6 +1931,10 @@ public final class SqlParser {
                         }
                     } while (Chars.equals(tok, ','));
                 }
+                if (isRowsKeyword(tok) || isRangeKeyword(tok)) {
+                    parseAnalyticFrame(lexer, (AnalyticColumn) col, tok);
+                    tok = tokIncludingLocalBrace(lexer, "')'");
+                }
                 expectTok(tok, lexer.lastTokenPosition(), ')');
                 tok = optTok(lexer);
 
@@ -1858,6 +2107,28 @@ public final class SqlParser {
         return tok;
     }
 
+    private static long rangeUnitMultiplier(CharSequence tok) {
+        if (isMicrosecondsKeyword(tok)) {
+            return 1;
+        }
+        if (isMillisecondsKeyword(tok)) {
+            return Timestamps.MILLI_MICROS;
+        }
+        if (isSecondKeyword(tok) || isSecondsKeyword(tok)) {
+            return Timestamps.SECOND_MICROS;
+        }
+        if (isMinuteKeyword(tok) || isMinutesKeyword(tok)) {
+            return Timestamps.MINUTE_MICROS;
+        }
+        if (isHourKeyword(tok) || isHoursKeyword(tok)) {
+            return Timestamps.HOUR_MICROS;
+        }
+        if (isDayKeyword(tok) || isDaysKeyword(tok)) {
+            return Timestamps.DAY_MICROS;
+        }
+        return -1;
+    }
+
     private ExpressionNode rewriteCase(ExpressionNode parent) throws SqlException {
         traversalAlgo.traverse(parent, rewriteCase0Ref);
         return parent;
@@ -2101,6 +2372,72 @@ public final class SqlParser {
         return tok;
     }
 
+    private void validateMatViewPartitioning(GenericLexer lexer, CreateTableModel model, boolean walRequested) throws SqlException {
+        if (model.getTimestamp() == null || !PartitionBy.isPartitioned(model.getPartitionBy())) {
+            throw SqlException.$(lexer.lastTokenPosition(), "materialized view must have designated timestamp and be partitioned");
+        }
+        if (walRequested) {
+            throw SqlException.$(lexer.lastTokenPosition(), "materialized view cannot use WAL");
+        }
+        // the view is refreshed by its own writer
+        model.setWalEnabled(false);
+
+        // view partitions are recomputed one at a time, so sample buckets must not span partition boundary
+        final ExpressionNode sampleBy = model.getMatViewSampleBy();
+        final TimestampSampler sampler = TimestampSamplerFactory.getInstance(sampleBy.token, sampleBy.position);
+        final char unit = sampleBy.token.charAt(sampleBy.token.length() - 1);
+        if (unit == 'M' || unit == 'y') {
+            throw SqlException.$(sampleBy.position, "materialized view SAMPLE BY interval must be of fixed size, 'd' or smaller units expected");
+        }
+        final long partitionMicros = model.getPartitionBy() == PartitionBy.HOUR ? Timestamps.HOUR_MICROS : Timestamps.DAY_MICROS;
+        if (partitionMicros % sampler.getBucketSize() != 0) {
+            throw SqlException.$(sampleBy.position, "materialized view SAMPLE BY interval must divide partition interval");
+        }
+    }
+
+    /**
+     * Materialized view is refreshed by re-running its query over the affected time intervals of the base table,
+     * which is only possible when query output rows are computed from a bounded interval of one table.
+     *
+     * @return model that selects from the base table
+     */
+    private QueryModel validateMatViewQuery(QueryModel model, int position) throws SqlException {
+        final QueryModel baseModel = model.getNestedModel();
+        if (
+                model.getUnionModel() != null
+                        || model.getWithClauses().size() > 0
+                        || baseModel == null
+                        || baseModel.getTableName() == null
+                        || baseModel.getTableName().type != ExpressionNode.LITERAL
+                        || baseModel.getNestedModel() != null
+                        || baseModel.getJoinModels().size() > 1
+        ) {
+            throw SqlException.$(position, "materialized view query must select from a single table");
+        }
+        if (baseModel.getSampleBy() == null || baseModel.getSampleByUnit() != null) {
+            throw SqlException.$(position, "materialized view query must use SAMPLE BY with constant interval");
+        }
+        final ExpressionNode offset = baseModel.getSampleByOffset();
+        if (offset == null || baseModel.getSampleByTimezoneName() != null || !Chars.equals(offset.token, "'00:00'")) {
+            throw SqlException.$(baseModel.getSampleBy().position, "materialized view requires SAMPLE BY ALIGN TO CALENDAR without time zone and offset");
+        }
+        final ObjList<ExpressionNode> fill = baseModel.getSampleByFill();
+        for (int i = 0, n = fill.size(); i < n; i++) {
+            if (!Chars.equalsLowerCaseAscii(fill.getQuick(i).token, "none")) {
+                throw SqlException.$(fill.getQuick(i).position, "materialized view does not support FILL");
+            }
+        }
+        if (
+                model.getLimitLo() != null
+                        || model.getLimitHi() != null
+                        || model.getOrderBy().size() > 0
+                        || baseModel.getOrderBy().size() > 0
+        ) {
+            throw SqlException.$(position, "materialized view query does not support ORDER BY and LIMIT");
+        }
+        return baseModel;
+    }
+
     private void validateLiteral(int pos, CharSequence tok) throws SqlException {
         switch (tok.charAt(0)) {
             case '(':
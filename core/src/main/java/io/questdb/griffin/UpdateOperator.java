@@ -171,6 +171,12 @@ public class UpdateOperator extends PurgingOperator implements QuietCloseable {
                             rebuildIndexes(tableWriter.getPartitionTimestamp(partitionIndex), tableName, writerMetadata, tableWriter);
                         }
 
+                        if (tableWriter.isPartitionCompressed(rowPartitionIndex)) {
+                            throw CairoException.nonCritical().put("cannot update compressed partition [table=").put(tableName)
+                                    .put(", partition=").ts(tableWriter.getPartitionTimestamp(rowPartitionIndex))
+                                    .put(']');
+                        }
+
                         openColumns(srcColumns, rowPartitionIndex, false);
                         openColumns(dstColumns, rowPartitionIndex, true);
 
@@ -292,6 +298,7 @@ public class UpdateOperator extends PurgingOperator implements QuietCloseable {
                 }
                 break;
             case ColumnType.BINARY:
+            case ColumnType.VARCHAR:
                 for (long row = fromRow; row < toRow; row++) {
                     dstFixMem.putLong(dstVarMem.putNullBin());
                 }
@@ -399,6 +406,9 @@ public class UpdateOperator extends PurgingOperator implements QuietCloseable {
                 case ColumnType.BINARY:
                     dstFixMem.putLong(dstVarMem.putBin(masterRecord.getBin(i)));
                     break;
+                case ColumnType.VARCHAR:
+                    dstFixMem.putLong(VarcharTypeDriver.appendValue(dstVarMem, masterRecord.getStr(i)));
+                    break;
                 case ColumnType.LONG128:
                     dstFixMem.putLong(masterRecord.getLong128Lo(i));
                     dstFixMem.putLong(masterRecord.getLong128Hi(i));
@@ -423,6 +433,7 @@ public class UpdateOperator extends PurgingOperator implements QuietCloseable {
                     break;
                 case ColumnType.STRING:
                 case ColumnType.BINARY:
+                case ColumnType.VARCHAR:
                     // Primary and secondary
                     srcColumns.add(Vm.getCMRInstance());
                     srcColumns.add(Vm.getCMRInstance());
@@ -563,6 +574,7 @@ public class UpdateOperator extends PurgingOperator implements QuietCloseable {
         switch (ColumnType.tagOf(columnType)) {
             case ColumnType.STRING:
             case ColumnType.BINARY:
+            case ColumnType.VARCHAR:
                 long varStartOffset = srcFixMem.getLong(fromRowId * Long.BYTES);
                 long varEndOffset = srcFixMem.getLong((toRowId) * Long.BYTES);
                 long varAddress = srcVarMem.addressOf(varStartOffset);
@@ -40,4 +40,24 @@ public interface AnalyticContext {
     boolean isOrdered();
 
     boolean baseSupportsRandomAccess();
+
+    /**
+     * @return one of {@link io.questdb.griffin.model.AnalyticColumn#FRAMING_ROWS} or
+     * {@link io.questdb.griffin.model.AnalyticColumn#FRAMING_RANGE}, default frame is resolved by the code generator
+     */
+    int getFramingMode();
+
+    long getRowsHi();
+
+    int getRowsHiPos();
+
+    long getRowsLo();
+
+    int getRowsLoPos();
+
+    /**
+     * @return index of timestamp column the analytic is ordered by (ascending) in the record functions are
+     * evaluated against or -1 when order is not by a single timestamp column
+     */
+    int getTimestampIndex();
 }
@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.analytic;
 import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.griffin.model.AnalyticColumn;
 import io.questdb.std.Mutable;
 import io.questdb.std.Transient;
 import org.jetbrains.annotations.Nullable;
@@ -38,6 +39,12 @@ public class AnalyticContextImpl implements AnalyticContext, Mutable {
     private boolean empty = true;
     private boolean ordered;
     private boolean baseSupportsRandomAccess;
+    private int framingMode;
+    private long rowsLo;
+    private int rowsLoPos;
+    private long rowsHi;
+    private int rowsHiPos;
+    private int timestampIndex = -1;
 
     @Override
     public boolean isEmpty() {
@@ -69,6 +76,36 @@ public class AnalyticContextImpl implements AnalyticContext, Mutable {
         return baseSupportsRandomAccess;
     }
 
+    @Override
+    public int getFramingMode() {
+        return framingMode;
+    }
+
+    @Override
+    public long getRowsHi() {
+        return rowsHi;
+    }
+
+    @Override
+    public int getRowsHiPos() {
+        return rowsHiPos;
+    }
+
+    @Override
+    public long getRowsLo() {
+        return rowsLo;
+    }
+
+    @Override
+    public int getRowsLoPos() {
+        return rowsLoPos;
+    }
+
+    @Override
+    public int getTimestampIndex() {
+        return timestampIndex;
+    }
+
     @Override
     public void clear() {
         this.empty = true;
@@ -77,6 +114,12 @@ public class AnalyticContextImpl implements AnalyticContext, Mutable {
         this.partitionByKeyTypes = null;
         this.ordered = false;
         this.baseSupportsRandomAccess = false;
+        this.framingMode = AnalyticColumn.FRAMING_DEFAULT;
+        this.rowsLo = AnalyticColumn.UNBOUNDED_PRECEDING;
+        this.rowsLoPos = 0;
+        this.rowsHi = 0;
+        this.rowsHiPos = 0;
+        this.timestampIndex = -1;
     }
 
     public void of(
@@ -84,7 +127,13 @@ public class AnalyticContextImpl implements AnalyticContext, Mutable {
             @Nullable RecordSink partitionBySink,
             @Transient @Nullable ColumnTypes partitionByKeyTypes,
             boolean ordered,
-            boolean baseSupportsRandomAccess
+            boolean baseSupportsRandomAccess,
+            int framingMode,
+            long rowsLo,
+            int rowsLoPos,
+            long rowsHi,
+            int rowsHiPos,
+            int timestampIndex
     ) {
         this.empty = false;
         this.partitionByRecord = partitionByRecord;
@@ -92,5 +141,11 @@ public class AnalyticContextImpl implements AnalyticContext, Mutable {
         this.partitionByKeyTypes = partitionByKeyTypes;
         this.ordered = ordered;
         this.baseSupportsRandomAccess = baseSupportsRandomAccess;
+        this.framingMode = framingMode;
+        this.rowsLo = rowsLo;
+        this.rowsLoPos = rowsLoPos;
+        this.rowsHi = rowsHi;
+        this.rowsHiPos = rowsHiPos;
+        this.timestampIndex = timestampIndex;
     }
 }
@@ -33,9 +33,27 @@ import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
 import io.questdb.std.IntList;
 
 public interface AnalyticFunction extends Function {
-    int STREAM = 1;
+    // function value is computed as records stream by, see computeNext()
+    int ZERO_PASS = 0;
+    // function writes value to the record chain in pass1()
+    int ONE_PASS = 1;
+    // function needs to see all records before it can write values in pass2()
     int TWO_PASS = 2;
-    int THREE_PASS = 3;
+
+    /**
+     * Computes function value for the next record of the streaming cursor. Value is
+     * then available via getter, e.g. {@link #getDouble(Record)}. Only
+     * called on functions that return {@link #ZERO_PASS} pass count.
+     *
+     * @param record current record
+     */
+    default void computeNext(Record record) {
+        throw new UnsupportedOperationException();
+    }
+
+    default int getPassCount() {
+        return ONE_PASS;
+    }
 
     void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order);
 
@@ -43,7 +61,7 @@ public interface AnalyticFunction extends Function {
 
     void preparePass2(RecordCursor cursor);
 
-    void pass2(Record record);
+    void pass2(Record record, long recordOffset, AnalyticSPI spi);
 
     void reset();
 
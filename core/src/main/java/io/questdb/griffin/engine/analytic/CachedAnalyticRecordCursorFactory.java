@@ -46,6 +46,7 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
     private final ObjList<ObjList<AnalyticFunction>> orderedFunctions;
     @Nullable private final ObjList<AnalyticFunction> unorderedFunctions;
     private final ObjList<AnalyticFunction> allFunctions;
+    private final ObjList<AnalyticFunction> twoPassFunctions;
     private final ObjList<RecordComparator> comparators;
     private boolean closed = false;
 
@@ -96,6 +97,14 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
             allFunctions.addAll(unorderedFunctions);
         }
 
+        this.twoPassFunctions = new ObjList<>();
+        for (int i = 0, n = allFunctions.size(); i < n; i++) {
+            final AnalyticFunction f = allFunctions.getQuick(i);
+            if (f.getPassCount() == AnalyticFunction.TWO_PASS) {
+                twoPassFunctions.add(f);
+            }
+        }
+
         this.unorderedFunctions = unorderedFunctions;
     }
 
@@ -149,7 +158,7 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
             this.orderedSources = orderedSources;
         }
 
-        private void of(RecordCursor base, SqlExecutionContext context) {
+        private void of(RecordCursor base, SqlExecutionContext context) throws SqlException {
             this.base = base;
             if (!isOpen) {
                 recordChain.reopen();
@@ -158,6 +167,7 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
                 reopen(allFunctions);
                 isOpen = true;
             }
+            Function.init(allFunctions, this, context);
             buildRecordChain(context);
         }
 
@@ -232,6 +242,17 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
                 }
             }
 
+            // run pass2 for functions that need to see all records before they can compute values
+            for (int j = 0, n = twoPassFunctions.size(); j < n; j++) {
+                final AnalyticFunction f = twoPassFunctions.getQuick(j);
+                f.preparePass2(recordChain);
+                recordChain.toTop();
+                while (recordChain.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    f.pass2(chainRecord, chainRecord.getRowId(), recordChain);
+                }
+            }
+
             recordChain.toTop();
         }
 
@@ -58,6 +58,19 @@ public interface GroupByFunction extends Function, Mutable {
         return true;
     }
 
+    /**
+     * Merges partial aggregate state accumulated by another instance of the same function
+     * into the destination value. Both values must share the same layout, i.e. they are
+     * produced by maps created with identical value types. Used by parallel GROUP BY to
+     * combine per-worker maps, hence it must not touch function arguments.
+     *
+     * @param destValue map value the partial state is merged into
+     * @param srcValue  map value holding partial state
+     */
+    default void merge(MapValue destValue, MapValue srcValue) {
+        throw new UnsupportedOperationException();
+    }
+
     void pushValueTypes(ArrayColumnTypes columnTypes);
 
     default void setByte(MapValue mapValue, byte value) {
@@ -89,4 +102,12 @@ public interface GroupByFunction extends Function, Mutable {
     default void setShort(MapValue mapValue, short value) {
         throw new UnsupportedOperationException();
     }
+
+    /**
+     * @return true when the function implements {@link #merge(MapValue, MapValue)} and its partial
+     * state does not depend on the order rows are seen in.
+     */
+    default boolean supportsParallelism() {
+        return false;
+    }
 }
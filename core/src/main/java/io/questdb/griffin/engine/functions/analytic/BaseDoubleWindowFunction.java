@@ -0,0 +1,262 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.groupby.SimpleMapValue;
+import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
+import io.questdb.std.IntList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.CharSink;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Base for window functions over double values. Keeps per-partition state in a map, or in a single
+ * value when there is no PARTITION BY, and optional per-partition ring buffers in shared native memory.
+ * Ring buffer of a partition is addressed by its offset in the memory, so the memory can grow freely.
+ */
+abstract class BaseDoubleWindowFunction extends DoubleFunction implements ScalarFunction, AnalyticFunction, UnaryFunction, Reopenable {
+    // map value layout
+    protected static final int RING_OFFSET = 0;
+    protected static final int RING_CAPACITY = 1;
+    protected static final int RING_FIRST = 2;
+    protected static final int RING_SIZE = 3;
+    protected static final int FRAME_SIZE = 4;
+    protected static final int ROW_NUMBER = 5;
+    // aggregate state
+    protected static final int COUNT = 6;
+    protected static final int VALUE = 7;
+    protected static final ArrayColumnTypes VALUE_TYPES = new ArrayColumnTypes();
+    protected final Function arg;
+    protected final MemoryCARW ringMemory;
+    private final Map map;
+    private final VirtualRecord partitionByRecord;
+    private final RecordSink partitionBySink;
+    private final SimpleMapValue simpleValue;
+    protected double result;
+    private int columnIndex;
+
+    protected BaseDoubleWindowFunction(
+            Function arg,
+            AnalyticContext analyticContext,
+            CairoConfiguration configuration,
+            boolean ringRequired
+    ) {
+        this.arg = arg;
+        this.partitionByRecord = analyticContext.getPartitionByRecord();
+        this.partitionBySink = analyticContext.getPartitionBySink();
+        if (partitionByRecord != null) {
+            this.map = MapFactory.createMap(configuration, analyticContext.getPartitionByKeyTypes(), VALUE_TYPES);
+            this.simpleValue = null;
+        } else {
+            this.map = null;
+            this.simpleValue = new SimpleMapValue(VALUE_TYPES.getColumnCount());
+        }
+        this.ringMemory = ringRequired
+                ? Vm.getCARWInstance(configuration.getSqlAnalyticStorePageSize(), configuration.getSqlAnalyticStoreMaxPages(), MemoryTag.NATIVE_DEFAULT)
+                : null;
+    }
+
+    @Override
+    public void close() {
+        arg.close();
+        Misc.free(map);
+        Misc.free(ringMemory);
+        if (partitionByRecord != null) {
+            Misc.freeObjList(partitionByRecord.getFunctions());
+        }
+    }
+
+    @Override
+    public Function getArg() {
+        return arg;
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        // value of the last record passed to computeNext()
+        return result;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        arg.init(symbolTableSource, executionContext);
+        if (partitionByRecord != null) {
+            Function.init(partitionByRecord.getFunctions(), symbolTableSource, executionContext);
+        }
+        clearState();
+    }
+
+    @Override
+    public boolean isConstant() {
+        return false;
+    }
+
+    @Override
+    public boolean isRuntimeConstant() {
+        return false;
+    }
+
+    @Override
+    public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+    }
+
+    @Override
+    public boolean isReadThreadSafe() {
+        return false;
+    }
+
+    @Override
+    public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+        computeNext(record);
+        Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), result);
+    }
+
+    @Override
+    public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
+    }
+
+    @Override
+    public void preparePass2(RecordCursor cursor) {
+    }
+
+    @Override
+    public void reopen() {
+        if (map != null) {
+            map.reopen();
+        }
+    }
+
+    @Override
+    public void reset() {
+        if (map != null) {
+            map.close();
+        }
+        if (ringMemory != null) {
+            ringMemory.close();
+        }
+    }
+
+    @Override
+    public void setColumnIndex(int columnIndex) {
+        this.columnIndex = columnIndex;
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        sink.put(getName()).put('(').put(arg).put(')');
+    }
+
+    @Override
+    public void toTop() {
+        arg.toTop();
+        clearState();
+    }
+
+    private void clearState() {
+        if (map != null) {
+            map.clear();
+        }
+        if (ringMemory != null) {
+            ringMemory.truncate();
+        }
+        if (simpleValue != null) {
+            initValue(simpleValue);
+        }
+        result = Double.NaN;
+    }
+
+    protected long allocateRing(long capacity, int entrySize) {
+        final long offset = ringMemory.getAppendOffset();
+        ringMemory.appendAddressFor(capacity * entrySize);
+        return offset;
+    }
+
+    protected int getColumnIndex() {
+        return columnIndex;
+    }
+
+    protected abstract String getName();
+
+    /**
+     * Looks up state of the partition the record belongs to, new partitions are initialised.
+     *
+     * @param record record to evaluate PARTITION BY against
+     * @return partition state
+     */
+    protected MapValue getPartitionValue(Record record) {
+        if (map == null) {
+            return simpleValue;
+        }
+        partitionByRecord.of(record);
+        final MapKey key = map.withKey();
+        key.put(partitionByRecord, partitionBySink);
+        final MapValue value = key.createValue();
+        if (value.isNew()) {
+            initValue(value);
+        }
+        return value;
+    }
+
+    @Nullable
+    protected MapValue findPartitionValue(Record record) {
+        if (map == null) {
+            return simpleValue;
+        }
+        partitionByRecord.of(record);
+        final MapKey key = map.withKey();
+        key.put(partitionByRecord, partitionBySink);
+        return key.findValue();
+    }
+
+    protected abstract void initValue(MapValue value);
+
+    static {
+        for (int i = 0; i < VALUE; i++) {
+            VALUE_TYPES.add(ColumnType.LONG);
+        }
+        VALUE_TYPES.add(ColumnType.DOUBLE);
+    }
+}
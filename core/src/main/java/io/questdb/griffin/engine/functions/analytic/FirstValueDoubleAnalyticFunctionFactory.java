@@ -0,0 +1,103 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+
+public class FirstValueDoubleAnalyticFunctionFactory implements FunctionFactory {
+
+    @Override
+    public String getSignature() {
+        return "first_value(D)";
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final AnalyticContext analyticContext = sqlExecutionContext.getAnalyticContext();
+        if (analyticContext.isEmpty()) {
+            throw SqlException.$(position, "analytic function called in non-analytic context, make sure to add OVER clause");
+        }
+        return new FirstValueFunction(args.getQuick(0), analyticContext, configuration, position);
+    }
+
+    private static class FirstValueFunction extends FrameDoubleWindowFunction {
+
+        public FirstValueFunction(Function arg, AnalyticContext analyticContext, CairoConfiguration configuration, int position) throws SqlException {
+            super(arg, analyticContext, configuration, position);
+        }
+
+        @Override
+        protected void add(MapValue value, double d) {
+            if (value.getLong(COUNT) == 0) {
+                value.putLong(COUNT, 1);
+                value.putDouble(VALUE, d);
+            }
+        }
+
+        @Override
+        protected String getName() {
+            return "first_value";
+        }
+
+        @Override
+        protected double getResult(MapValue value, long ringAddress, long capacity, long first, long frameSize) {
+            if (isLowerBounded()) {
+                return frameSize > 0 ? getFrameFirst(ringAddress, capacity, first) : Double.NaN;
+            }
+            return value.getDouble(VALUE);
+        }
+
+        @Override
+        protected boolean remove(MapValue value, double d) {
+            // first value of lower-bounded frame is read from the ring
+            return false;
+        }
+
+        @Override
+        protected void reset(MapValue value) {
+            value.putLong(COUNT, 0);
+            value.putDouble(VALUE, Double.NaN);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.AnalyticSPI;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.model.AnalyticColumn;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+/**
+ * Aggregate over a sliding ROWS or RANGE frame that ends at or before the current row.
+ * <p>
+ * Rows of each partition are kept in a ring of (key, value) entries, where key is the row number
+ * in ROWS mode and the timestamp in RANGE mode. A row is added to the aggregate once its key is
+ * within the frame end and removed once its key falls behind the frame start, so the cost per row is
+ * amortised O(1) for invertible aggregates. Aggregates that cannot remove values, e.g. min/max,
+ * are rebuilt from the ring when a value they depend on leaves the frame.
+ * <p>
+ * Frame that spans the whole partition is computed in two passes without the ring.
+ */
+abstract class FrameDoubleWindowFunction extends BaseDoubleWindowFunction {
+    private static final int ENTRY_SIZE = 2 * Long.BYTES;
+    private static final long INITIAL_RING_CAPACITY = 16;
+    private final boolean lowerBounded;
+    private final long rowsHi;
+    private final long rowsLo;
+    private final int timestampIndex;
+    private final boolean wholePartition;
+
+    protected FrameDoubleWindowFunction(
+            Function arg,
+            AnalyticContext analyticContext,
+            CairoConfiguration configuration,
+            int position
+    ) throws SqlException {
+        this(
+                arg,
+                analyticContext,
+                configuration,
+                position,
+                analyticContext.getFramingMode(),
+                analyticContext.getRowsLo(),
+                analyticContext.getRowsHi(),
+                analyticContext.getRowsHiPos()
+        );
+    }
+
+    protected FrameDoubleWindowFunction(
+            Function arg,
+            AnalyticContext analyticContext,
+            CairoConfiguration configuration,
+            int position,
+            int framingMode,
+            long rowsLo,
+            long rowsHi,
+            int rowsHiPos
+    ) throws SqlException {
+        super(arg, analyticContext, configuration, !isWholePartition(rowsLo, rowsHi));
+        this.rowsLo = rowsLo;
+        this.rowsHi = rowsHi;
+        this.wholePartition = isWholePartition(rowsLo, rowsHi);
+        this.lowerBounded = rowsLo != AnalyticColumn.UNBOUNDED_PRECEDING;
+
+        if (!wholePartition && rowsHi > 0) {
+            close();
+            throw SqlException.$(rowsHiPos, "frame end FOLLOWING is not supported");
+        }
+
+        if (framingMode == AnalyticColumn.FRAMING_RANGE && (lowerBounded || rowsHi != 0) && !wholePartition) {
+            if (analyticContext.getTimestampIndex() == -1) {
+                close();
+                throw SqlException.$(position, "RANGE with offset requires ORDER BY designated timestamp");
+            }
+            this.timestampIndex = analyticContext.getTimestampIndex();
+        } else {
+            // ROWS frame and RANGE frame without offsets are keyed by row number
+            this.timestampIndex = -1;
+        }
+    }
+
+    @Override
+    public void computeNext(Record record) {
+        final MapValue value = getPartitionValue(record);
+        final double d = arg.getDouble(record);
+        if (wholePartition) {
+            add(value, d);
+            return;
+        }
+
+        final long rowNumber = value.getLong(ROW_NUMBER);
+        value.putLong(ROW_NUMBER, rowNumber + 1);
+        final long key = timestampIndex == -1 ? rowNumber : record.getTimestamp(timestampIndex);
+
+        // append current row to the ring, it is pending until the frame end reaches it
+        append(value, key, d);
+
+        long ringOffset = value.getLong(RING_OFFSET);
+        long capacity = value.getLong(RING_CAPACITY);
+        long first = value.getLong(RING_FIRST);
+        long size = value.getLong(RING_SIZE);
+        long frameSize = value.getLong(FRAME_SIZE);
+        long ringAddress = ringMemory.addressOf(ringOffset);
+
+        // admit pending rows that are now within the frame end
+        final long frameHi = key + rowsHi;
+        while (frameSize < size) {
+            final long entry = entryAddress(ringAddress, capacity, first + frameSize);
+            if (Unsafe.getUnsafe().getLong(entry) > frameHi) {
+                break;
+            }
+            add(value, Unsafe.getUnsafe().getDouble(entry + Long.BYTES));
+            frameSize++;
+        }
+
+        if (lowerBounded) {
+            // evict rows that fell behind the frame start
+            final long frameLo = key + rowsLo;
+            boolean rebuild = false;
+            while (frameSize > 0) {
+                final long entry = entryAddress(ringAddress, capacity, first);
+                if (Unsafe.getUnsafe().getLong(entry) >= frameLo) {
+                    break;
+                }
+                rebuild |= remove(value, Unsafe.getUnsafe().getDouble(entry + Long.BYTES));
+                first = (first + 1) % capacity;
+                frameSize--;
+                size--;
+            }
+            if (rebuild) {
+                reset(value);
+                for (long i = 0; i < frameSize; i++) {
+                    add(value, Unsafe.getUnsafe().getDouble(entryAddress(ringAddress, capacity, first + i) + Long.BYTES));
+                }
+            }
+        } else {
+            // admitted rows never leave unbounded frame, they are only needed in the aggregate
+            first = (first + frameSize) % capacity;
+            size -= frameSize;
+            frameSize = 0;
+        }
+
+        value.putLong(RING_FIRST, first);
+        value.putLong(RING_SIZE, size);
+        value.putLong(FRAME_SIZE, frameSize);
+        result = getResult(value, ringAddress, capacity, first, frameSize);
+    }
+
+    @Override
+    public int getPassCount() {
+        return wholePartition ? TWO_PASS : ZERO_PASS;
+    }
+
+    @Override
+    public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+        if (wholePartition) {
+            computeNext(record);
+        } else {
+            super.pass1(record, recordOffset, spi);
+        }
+    }
+
+    @Override
+    public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
+        final MapValue value = findPartitionValue(record);
+        final double d = value != null ? getResult(value, 0, 0, 0, 0) : Double.NaN;
+        Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, getColumnIndex()), d);
+    }
+
+    private static long entryAddress(long ringAddress, long capacity, long index) {
+        return ringAddress + (index % capacity) * ENTRY_SIZE;
+    }
+
+    private static boolean isWholePartition(long rowsLo, long rowsHi) {
+        return rowsLo == AnalyticColumn.UNBOUNDED_PRECEDING && rowsHi == AnalyticColumn.UNBOUNDED_FOLLOWING;
+    }
+
+    private void append(MapValue value, long key, double d) {
+        long ringOffset = value.getLong(RING_OFFSET);
+        long capacity = value.getLong(RING_CAPACITY);
+        long first = value.getLong(RING_FIRST);
+        final long size = value.getLong(RING_SIZE);
+
+        if (size == capacity) {
+            // grow the ring, old space is abandoned until the memory is truncated
+            final long newCapacity = Math.max(INITIAL_RING_CAPACITY, capacity * 2);
+            final long newOffset = allocateRing(newCapacity, ENTRY_SIZE);
+            if (size > 0) {
+                final long newAddress = ringMemory.addressOf(newOffset);
+                final long oldAddress = ringMemory.addressOf(ringOffset);
+                final long tail = Math.min(size, capacity - first);
+                Vect.memcpy(newAddress, oldAddress + first * ENTRY_SIZE, tail * ENTRY_SIZE);
+                Vect.memcpy(newAddress + tail * ENTRY_SIZE, oldAddress, (size - tail) * ENTRY_SIZE);
+            }
+            ringOffset = newOffset;
+            capacity = newCapacity;
+            first = 0;
+            value.putLong(RING_OFFSET, ringOffset);
+            value.putLong(RING_CAPACITY, capacity);
+            value.putLong(RING_FIRST, first);
+        }
+
+        final long entry = entryAddress(ringMemory.addressOf(ringOffset), capacity, first + size);
+        Unsafe.getUnsafe().putLong(entry, key);
+        Unsafe.getUnsafe().putDouble(entry + Long.BYTES, d);
+        value.putLong(RING_SIZE, size + 1);
+    }
+
+    /**
+     * Adds value to the aggregate.
+     */
+    protected abstract void add(MapValue value, double d);
+
+    /**
+     * Returns value of the first row in the frame, frame must not be empty.
+     */
+    protected double getFrameFirst(long ringAddress, long capacity, long first) {
+        return Unsafe.getUnsafe().getDouble(entryAddress(ringAddress, capacity, first) + Long.BYTES);
+    }
+
+    /**
+     * Computes function value. Ring arguments describe rows in the frame and are only
+     * meaningful for lower-bounded frames.
+     */
+    protected abstract double getResult(MapValue value, long ringAddress, long capacity, long first, long frameSize);
+
+    @Override
+    protected void initValue(MapValue value) {
+        value.putLong(RING_OFFSET, 0);
+        value.putLong(RING_CAPACITY, 0);
+        value.putLong(RING_FIRST, 0);
+        value.putLong(RING_SIZE, 0);
+        value.putLong(FRAME_SIZE, 0);
+        value.putLong(ROW_NUMBER, 0);
+        reset(value);
+    }
+
+    protected boolean isLowerBounded() {
+        return lowerBounded;
+    }
+
+    /**
+     * Removes value that left the frame from the aggregate.
+     *
+     * @return true when aggregate cannot remove the value and has to be rebuilt from the rows in the frame
+     */
+    protected abstract boolean remove(MapValue value, double d);
+
+    /**
+     * Resets aggregate to its empty state.
+     */
+    protected abstract void reset(MapValue value);
+}
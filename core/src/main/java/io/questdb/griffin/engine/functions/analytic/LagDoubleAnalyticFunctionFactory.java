@@ -0,0 +1,125 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.model.AnalyticColumn;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.CharSink;
+
+public class LagDoubleAnalyticFunctionFactory implements FunctionFactory {
+
+    @Override
+    public String getSignature() {
+        return "lag(Dv)";
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final AnalyticContext analyticContext = sqlExecutionContext.getAnalyticContext();
+        if (analyticContext.isEmpty()) {
+            throw SqlException.$(position, "analytic function called in non-analytic context, make sure to add OVER clause");
+        }
+        final long offset = getOffset(args, argPositions);
+        // lag is the first value of single-row frame "offset" rows behind the current row, frame of the OVER clause does not apply
+        return new LagFunction(args.getQuick(0), analyticContext, configuration, position, -offset, argPositions);
+    }
+
+    static long getOffset(ObjList<Function> args, IntList argPositions) throws SqlException {
+        if (args.size() < 2) {
+            return 1;
+        }
+        if (args.size() > 2) {
+            throw SqlException.$(argPositions.getQuick(2), "too many arguments");
+        }
+        final long offset = args.getQuick(1).getLong(null);
+        if (offset < 1) {
+            throw SqlException.$(argPositions.getQuick(1), "offset must be a positive integer");
+        }
+        return offset;
+    }
+
+    private static class LagFunction extends FrameDoubleWindowFunction {
+        private final long offset;
+
+        public LagFunction(
+                Function arg,
+                AnalyticContext analyticContext,
+                CairoConfiguration configuration,
+                int position,
+                long bound,
+                IntList argPositions
+        ) throws SqlException {
+            super(arg, analyticContext, configuration, position, AnalyticColumn.FRAMING_ROWS, bound, bound, argPositions.getQuick(0));
+            this.offset = -bound;
+        }
+
+        @Override
+        public void toSink(CharSink sink) {
+            sink.put("lag(").put(arg).put(',').put(offset).put(')');
+        }
+
+        @Override
+        protected void add(MapValue value, double d) {
+        }
+
+        @Override
+        protected String getName() {
+            return "lag";
+        }
+
+        @Override
+        protected double getResult(MapValue value, long ringAddress, long capacity, long first, long frameSize) {
+            return frameSize > 0 ? getFrameFirst(ringAddress, capacity, first) : Double.NaN;
+        }
+
+        @Override
+        protected boolean remove(MapValue value, double d) {
+            return false;
+        }
+
+        @Override
+        protected void reset(MapValue value) {
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.AnalyticSPI;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.CharSink;
+
+public class LeadDoubleAnalyticFunctionFactory implements FunctionFactory {
+
+    @Override
+    public String getSignature() {
+        return "lead(Dv)";
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final AnalyticContext analyticContext = sqlExecutionContext.getAnalyticContext();
+        if (analyticContext.isEmpty()) {
+            throw SqlException.$(position, "analytic function called in non-analytic context, make sure to add OVER clause");
+        }
+        return new LeadFunction(
+                args.getQuick(0),
+                analyticContext,
+                configuration,
+                LagDoubleAnalyticFunctionFactory.getOffset(args, argPositions)
+        );
+    }
+
+    /**
+     * Value of the current row is not known until "offset" rows of the partition later. Function keeps
+     * record chain offsets of the last "offset" rows of each partition and back-fills the value of the
+     * oldest one as rows arrive. Rows that are never back-filled keep NULL.
+     */
+    private static class LeadFunction extends BaseDoubleWindowFunction {
+        private final long offset;
+
+        public LeadFunction(Function arg, AnalyticContext analyticContext, CairoConfiguration configuration, long offset) {
+            super(arg, analyticContext, configuration, true);
+            this.offset = offset;
+        }
+
+        @Override
+        public int getPassCount() {
+            return ONE_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            final MapValue value = getPartitionValue(record);
+            final double d = arg.getDouble(record);
+            final int columnIndex = getColumnIndex();
+
+            long ringOffset = value.getLong(RING_OFFSET);
+            if (value.getLong(RING_CAPACITY) == 0) {
+                ringOffset = allocateRing(offset, Long.BYTES);
+                value.putLong(RING_OFFSET, ringOffset);
+                value.putLong(RING_CAPACITY, offset);
+            }
+            final long ringAddress = ringMemory.addressOf(ringOffset);
+            final long first = value.getLong(RING_FIRST);
+            final long size = value.getLong(RING_SIZE);
+
+            if (size == offset) {
+                // the oldest row is exactly "offset" rows behind, current value is its lead
+                final long entry = ringAddress + first * Long.BYTES;
+                Unsafe.getUnsafe().putDouble(spi.getAddress(Unsafe.getUnsafe().getLong(entry), columnIndex), d);
+                Unsafe.getUnsafe().putLong(entry, recordOffset);
+                value.putLong(RING_FIRST, (first + 1) % offset);
+            } else {
+                Unsafe.getUnsafe().putLong(ringAddress + ((first + size) % offset) * Long.BYTES, recordOffset);
+                value.putLong(RING_SIZE, size + 1);
+            }
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), Double.NaN);
+        }
+
+        @Override
+        public void toSink(CharSink sink) {
+            sink.put("lead(").put(arg).put(',').put(offset).put(')');
+        }
+
+        @Override
+        protected String getName() {
+            return "lead";
+        }
+
+        @Override
+        protected void initValue(MapValue value) {
+            value.putLong(RING_OFFSET, 0);
+            value.putLong(RING_CAPACITY, 0);
+            value.putLong(RING_FIRST, 0);
+            value.putLong(RING_SIZE, 0);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+
+public class MinDoubleAnalyticFunctionFactory implements FunctionFactory {
+
+    @Override
+    public String getSignature() {
+        return "min(D)";
+    }
+
+    @Override
+    public boolean isWindow() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final AnalyticContext analyticContext = sqlExecutionContext.getAnalyticContext();
+        if (analyticContext.isEmpty()) {
+            throw SqlException.$(position, "analytic function called in non-analytic context, make sure to add OVER clause");
+        }
+        return new MinFunction(args.getQuick(0), analyticContext, configuration, position);
+    }
+
+    private static class MinFunction extends FrameDoubleWindowFunction {
+
+        public MinFunction(Function arg, AnalyticContext analyticContext, CairoConfiguration configuration, int position) throws SqlException {
+            super(arg, analyticContext, configuration, position);
+        }
+
+        @Override
+        protected void add(MapValue value, double d) {
+            if (d == d) {
+                final double current = value.getDouble(VALUE);
+                if (d < current || current != current) {
+                    value.putDouble(VALUE, d);
+                }
+            }
+        }
+
+        @Override
+        protected String getName() {
+            return "min";
+        }
+
+        @Override
+        protected double getResult(MapValue value, long ringAddress, long capacity, long first, long frameSize) {
+            return value.getDouble(VALUE);
+        }
+
+        @Override
+        protected boolean remove(MapValue value, double d) {
+            // rebuild only when the value we are holding on to leaves the frame
+            return d == value.getDouble(VALUE);
+        }
+
+        @Override
+        protected void reset(MapValue value) {
+            value.putDouble(VALUE, Double.NaN);
+        }
+    }
+}
@@ -29,6 +29,7 @@ import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SharedQueryCache;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.BooleanFunction;
 import io.questdb.log.Log;
@@ -53,20 +54,25 @@ public class FlushQueryCacheFunctionFactory implements FunctionFactory {
                                 CairoConfiguration configuration,
                                 SqlExecutionContext sqlExecutionContext
     ) {
-        return new FlushQueryCacheFunction(sqlExecutionContext.getMessageBus());
+        return new FlushQueryCacheFunction(sqlExecutionContext.getMessageBus(), sqlExecutionContext.getCairoEngine().getQueryCache());
     }
 
     private static class FlushQueryCacheFunction extends BooleanFunction {
 
         private final MessageBus messageBus;
+        private final SharedQueryCache queryCache;
 
-        public FlushQueryCacheFunction(MessageBus messageBus) {
+        public FlushQueryCacheFunction(MessageBus messageBus, SharedQueryCache queryCache) {
             this.messageBus = messageBus;
+            this.queryCache = queryCache;
         }
 
         @Override
         public boolean getBool(Record rec) {
             LOG.info().$("flushing query caches").$();
+            queryCache.clear();
+
+            // per-worker caches, such as PG wire update caches, are flushed asynchronously
 
             while (true) {
                 final long pubCursor = messageBus.getQueryCacheEventPubSeq().next();
@@ -47,6 +47,16 @@ public class CountLongGroupByFunction extends LongFunction implements GroupByFun
         mapValue.addLong(valueIndex, 1);
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        destValue.addLong(valueIndex, srcValue.getLong(valueIndex));
+    }
+
+    @Override
+    public boolean supportsParallelism() {
+        return true;
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -78,6 +88,11 @@ public class CountLongGroupByFunction extends LongFunction implements GroupByFun
         return false;
     }
 
+    @Override
+    public boolean isReadThreadSafe() {
+        return true;
+    }
+
     public void toSink(CharSink sink) {
         sink.put("Count(").put(valueIndex).put(')');
     }
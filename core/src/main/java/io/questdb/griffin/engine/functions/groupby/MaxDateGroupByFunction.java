@@ -58,6 +58,20 @@ public class MaxDateGroupByFunction extends DateFunction implements GroupByFunct
         }
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        long max = destValue.getDate(valueIndex);
+        long value = srcValue.getDate(valueIndex);
+        if (value > max) {
+            destValue.putDate(valueIndex, value);
+        }
+    }
+
+    @Override
+    public boolean supportsParallelism() {
+        return true;
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -57,6 +57,20 @@ public class MaxDoubleGroupByFunction extends DoubleFunction implements GroupByF
         }
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        double max = destValue.getDouble(valueIndex);
+        double value = srcValue.getDouble(valueIndex);
+        if (value > max || Double.isNaN(max)) {
+            destValue.putDouble(valueIndex, value);
+        }
+    }
+
+    @Override
+    public boolean supportsParallelism() {
+        return true;
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
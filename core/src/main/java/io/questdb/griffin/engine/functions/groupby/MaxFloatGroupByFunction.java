@@ -57,6 +57,20 @@ public class MaxFloatGroupByFunction extends FloatFunction implements GroupByFun
         }
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        float max = destValue.getFloat(valueIndex);
+        float value = srcValue.getFloat(valueIndex);
+        if (value > max) {
+            destValue.putFloat(valueIndex, value);
+        }
+    }
+
+    @Override
+    public boolean supportsParallelism() {
+        return true;
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -59,6 +59,20 @@ public class MaxIntGroupByFunction extends IntFunction implements GroupByFunctio
         }
     }
 
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        int max = destValue.getInt(valueIndex);
+        int value = srcValue.getInt(valueIndex);
+        if (value > max) {
+            destValue.putInt(valueIndex, value);
+        }
+    }
+
+    @Override
+    public boolean supportsParallelism() {
+        return true;
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -0,0 +1,260 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.*;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Shared state of parallel keyed GROUP BY. Each worker aggregates page frames into its own map,
+ * while the query owner thread aggregates into the owner map. Once all frames are reduced,
+ * per-worker maps are merged into the owner map via {@link GroupByFunction#merge}.
+ */
+public class AsyncGroupByAtom implements StatefulAtom, Closeable, Mutable {
+
+    private final ObjList<GroupByFunction> ownerFunctions;
+    private final GroupByFunctionsUpdater ownerFunctionsUpdater;
+    private final Map ownerMap;
+    // null when group by functions are thread-safe and can be shared between workers
+    private final ObjList<ObjList<GroupByFunction>> perWorkerFunctions;
+    private final ObjList<GroupByFunctionsUpdater> perWorkerFunctionsUpdaters;
+    private final ObjList<Map> perWorkerMaps;
+    private final AtomicIntegerArray perWorkerLocks;
+    // Per-worker maps are reopened by the first thread that acquires the slot, normally the
+    // worker with the same id, so that their memory is first touched on that worker's NUMA node.
+    private final boolean[] perWorkerMapsOpen;
+    // copies key columns from base records to map keys
+    private final RecordSink mapSink;
+    // copies key columns from per-worker map records to owner map keys
+    private final RecordSink mergeKeySink;
+    // copies value columns of keys seen by a single worker only
+    private final RecordValueSink mergeValueSink;
+    // Used to randomize acquire attempts for work stealing threads. Accessed in a racy way, intentionally.
+    private final Rnd rnd = new Rnd();
+
+    public AsyncGroupByAtom(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ColumnTypes baseTypes,
+            @Transient @NotNull ListColumnFilter listColumnFilter,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            @NotNull ObjList<GroupByFunction> ownerFunctions,
+            @Nullable ObjList<ObjList<GroupByFunction>> perWorkerFunctions,
+            int workerCount
+    ) {
+        assert perWorkerFunctions == null || perWorkerFunctions.size() == workerCount;
+        try {
+            this.ownerFunctions = ownerFunctions;
+            this.perWorkerFunctions = perWorkerFunctions;
+            this.mapSink = RecordSinkFactory.getInstance(asm, baseTypes, listColumnFilter, false);
+            this.ownerFunctionsUpdater = GroupByFunctionsUpdaterFactory.getInstance(asm, ownerFunctions);
+            if (perWorkerFunctions != null) {
+                perWorkerFunctionsUpdaters = new ObjList<>(workerCount);
+                for (int i = 0; i < workerCount; i++) {
+                    perWorkerFunctionsUpdaters.extendAndSet(i, GroupByFunctionsUpdaterFactory.getInstance(asm, perWorkerFunctions.getQuick(i)));
+                }
+            } else {
+                perWorkerFunctionsUpdaters = null;
+            }
+
+            // Map records expose value columns first, followed by key columns.
+            final int valueCount = valueTypes.getColumnCount();
+            final int keyCount = keyTypes.getColumnCount();
+            final ArrayColumnTypes mapRecordTypes = new ArrayColumnTypes();
+            final ListColumnFilter mergeColumnFilter = new ListColumnFilter();
+            for (int i = 0; i < valueCount; i++) {
+                mapRecordTypes.add(valueTypes.getColumnType(i));
+                mergeColumnFilter.add(i + 1);
+            }
+            this.mergeValueSink = RecordValueSinkFactory.getInstance(asm, mapRecordTypes, mergeColumnFilter);
+            mergeColumnFilter.clear();
+            for (int i = 0; i < keyCount; i++) {
+                mapRecordTypes.add(keyTypes.getColumnType(i));
+                mergeColumnFilter.add(valueCount + i + 1);
+            }
+            this.mergeKeySink = RecordSinkFactory.getInstance(asm, mapRecordTypes, mergeColumnFilter, false);
+
+            this.ownerMap = MapFactory.createMap(configuration, keyTypes, valueTypes);
+            this.perWorkerMaps = new ObjList<>(workerCount);
+            for (int i = 0; i < workerCount; i++) {
+                perWorkerMaps.extendAndSet(i, MapFactory.createMap(configuration, keyTypes, valueTypes));
+            }
+            this.perWorkerLocks = new AtomicIntegerArray(workerCount);
+            this.perWorkerMapsOpen = new boolean[workerCount];
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use the owner map anytime.
+            return -1;
+        }
+        final int size = perWorkerMaps.size();
+        workerId = workerId == -1 ? rnd.nextInt(size) : workerId;
+        while (true) {
+            for (int i = 0; i < size; i++) {
+                int id = (i + workerId) % size;
+                if (perWorkerLocks.compareAndSet(id, 0, 1)) {
+                    return id;
+                }
+            }
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            Os.pause();
+        }
+    }
+
+    @Override
+    public void clear() {
+        Misc.free(ownerMap);
+        Misc.freeObjListAndKeepObjects(perWorkerMaps);
+        Misc.clearObjList(ownerFunctions);
+        if (perWorkerFunctions != null) {
+            for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+                Misc.clearObjList(perWorkerFunctions.getQuick(i));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ownerMap);
+        Misc.freeObjList(perWorkerMaps);
+        // owner functions are freed by the factory as a part of record functions
+        if (perWorkerFunctions != null) {
+            for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+                Misc.freeObjList(perWorkerFunctions.getQuick(i));
+            }
+        }
+    }
+
+    public GroupByFunctionsUpdater getFunctionsUpdater(int slotId) {
+        if (slotId == -1 || perWorkerFunctionsUpdaters == null) {
+            return ownerFunctionsUpdater;
+        }
+        return perWorkerFunctionsUpdaters.getQuick(slotId);
+    }
+
+    public Map getMap(int slotId) {
+        if (slotId == -1) {
+            return ownerMap;
+        }
+        final Map map = perWorkerMaps.getQuick(slotId);
+        if (!perWorkerMapsOpen[slotId]) {
+            // slot is locked by the caller
+            map.reopen();
+            perWorkerMapsOpen[slotId] = true;
+        }
+        return map;
+    }
+
+    public RecordSink getMapSink() {
+        return mapSink;
+    }
+
+    public int getWorkerCount() {
+        return perWorkerMaps.size();
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        ownerMap.reopen();
+        Arrays.fill(perWorkerMapsOpen, false);
+
+        Function.init(ownerFunctions, symbolTableSource, executionContext);
+        if (perWorkerFunctions != null) {
+            final boolean current = executionContext.getCloneSymbolTables();
+            executionContext.setCloneSymbolTables(true);
+            try {
+                for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+                    Function.init(perWorkerFunctions.getQuick(i), symbolTableSource, executionContext);
+                }
+            } finally {
+                executionContext.setCloneSymbolTables(current);
+            }
+        }
+    }
+
+    /**
+     * Merges per-worker maps into the owner map. Must be called on the query owner thread
+     * once all page frames are reduced.
+     *
+     * @param circuitBreaker circuit breaker instance
+     * @return owner map holding the final aggregation results
+     */
+    public Map mergeWorkerMaps(SqlExecutionCircuitBreaker circuitBreaker) {
+        for (int i = 0, n = perWorkerMaps.size(); i < n; i++) {
+            final Map srcMap = perWorkerMaps.getQuick(i);
+            if (!perWorkerMapsOpen[i] || srcMap.size() == 0) {
+                continue;
+            }
+            final RecordCursor srcCursor = srcMap.getCursor();
+            final MapRecord srcRecord = srcMap.getRecord();
+            while (srcCursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                final MapKey destKey = ownerMap.withKey();
+                mergeKeySink.copy(srcRecord, destKey);
+                final MapValue destValue = destKey.createValue();
+                final MapValue srcValue = srcRecord.getValue();
+                if (destValue.isNew()) {
+                    mergeValueSink.copy(srcValue, destValue);
+                } else {
+                    for (int j = 0, m = ownerFunctions.size(); j < m; j++) {
+                        ownerFunctions.getQuick(j).merge(destValue, srcValue);
+                    }
+                }
+            }
+            // release worker map memory early, the map is reopened on next execution
+            srcMap.close();
+        }
+        return ownerMap;
+    }
+
+    public void release(int slotId) {
+        if (slotId == -1) {
+            return;
+        }
+        perWorkerLocks.set(slotId, 0);
+    }
+}
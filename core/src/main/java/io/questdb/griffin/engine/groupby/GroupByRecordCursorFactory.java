@@ -34,6 +34,7 @@ import io.questdb.cairo.sql.*;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.LimitOverflowException;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.std.BytecodeAssembler;
 import io.questdb.std.Misc;
@@ -49,6 +50,9 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
     private final ObjList<GroupByFunction> groupByFunctions;
     // this sink is used to copy recordKeyMap keys to dataMap
     private final RecordSink mapSink;
+    // base records and aggregated rows go to disk when data map outgrows its limits, null when spill is disabled
+    private final RecordSpill inputSpill;
+    private final RecordSpill resultSpill;
 
     public GroupByRecordCursorFactory(
             @Transient @NotNull BytecodeAssembler asm,
@@ -68,6 +72,28 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             this.base = base;
             this.groupByFunctions = groupByFunctions;
             this.recordFunctions = recordFunctions;
+            if (RecordSpill.isEnabled(configuration)) {
+                final EntityColumnFilter entityColumnFilter = new EntityColumnFilter();
+                final RecordMetadata baseMetadata = base.getMetadata();
+                entityColumnFilter.of(baseMetadata.getColumnCount());
+                this.inputSpill = new RecordSpill(
+                        configuration,
+                        baseMetadata,
+                        RecordSinkFactory.getInstance(asm, baseMetadata, entityColumnFilter, false),
+                        "groupby-input"
+                );
+                entityColumnFilter.of(groupByMetadata.getColumnCount());
+                this.resultSpill = new RecordSpill(
+                        configuration,
+                        groupByMetadata,
+                        RecordSinkFactory.getInstance(asm, groupByMetadata, entityColumnFilter, false),
+                        "groupby-result",
+                        1
+                );
+            } else {
+                this.inputSpill = null;
+                this.resultSpill = null;
+            }
             final GroupByFunctionsUpdater updater = GroupByFunctionsUpdaterFactory.getInstance(asm, groupByFunctions);
             this.cursor = new GroupByRecordCursor(recordFunctions, updater, keyTypes, valueTypes, configuration);
         } catch (Throwable e) {
@@ -81,6 +107,8 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
         Misc.freeObjList(recordFunctions);
         Misc.free(base);
         Misc.free(cursor);
+        Misc.free(inputSpill);
+        Misc.free(resultSpill);
     }
 
     @Override
@@ -121,7 +149,11 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
     class GroupByRecordCursor extends VirtualFunctionSkewedSymbolRecordCursor {
         private final Map dataMap;
         private final GroupByFunctionsUpdater groupByFunctionsUpdater;
+        private final RecordHasher hasher = new RecordHasher();
         private boolean isOpen;
+        // set when aggregated rows are read from result spill rather than from data map
+        private RecordChain resultChain;
+        private long resultSize;
 
         public GroupByRecordCursor(
                 ObjList<Function> functions,
@@ -142,6 +174,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                     isOpen = true;
                     dataMap.reopen();
                 }
+                clearSpill();
                 final Record baseRecord = baseCursor.getRecord();
                 while (baseCursor.hasNext()) {
                     circuitBreaker.statefulThrowExceptionIfTripped();
@@ -155,6 +188,12 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                     }
                 }
                 super.of(baseCursor, dataMap.getCursor());
+            } catch (LimitOverflowException e) {
+                if (inputSpill == null) {
+                    close();
+                    throw e;
+                }
+                ofSpilled(baseCursor, circuitBreaker);
             } catch (Throwable e) {
                 close();
                 throw e;
@@ -167,8 +206,115 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                 isOpen = false;
                 Misc.free(dataMap);
                 Misc.clearObjList(groupByFunctions);
+                clearSpill();
                 super.close();
             }
         }
+
+        @Override
+        public Record getRecord() {
+            return resultChain != null ? resultChain.getRecord() : super.getRecord();
+        }
+
+        @Override
+        public Record getRecordB() {
+            return resultChain != null ? resultChain.getRecordB() : super.getRecordB();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return resultChain != null ? resultChain.hasNext() : super.hasNext();
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            if (resultChain != null) {
+                resultChain.recordAt(record, atRowId);
+            } else {
+                super.recordAt(record, atRowId);
+            }
+        }
+
+        @Override
+        public long size() {
+            return resultChain != null ? resultSize : super.size();
+        }
+
+        @Override
+        public void toTop() {
+            if (resultChain != null) {
+                resultChain.toTop();
+            } else {
+                super.toTop();
+            }
+        }
+
+        private void aggregate(RecordChain partition, SqlExecutionCircuitBreaker circuitBreaker) {
+            final Record record = partition.getRecord();
+            while (partition.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                final MapKey key = dataMap.withKey();
+                mapSink.copy(record, key);
+                MapValue value = key.createValue();
+                if (value.isNew()) {
+                    groupByFunctionsUpdater.updateNew(value, record);
+                } else {
+                    groupByFunctionsUpdater.updateExisting(value, record);
+                }
+            }
+        }
+
+        private void aggregateSpilled(RecordCursor baseCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+            dataMap.restoreInitialCapacity();
+            dataMap.clear();
+            Misc.clearObjList(groupByFunctions);
+
+            // same keys go to the same partition, each partition aggregates independently
+            final int partitionCount = inputSpill.getPartitionCount();
+            baseCursor.toTop();
+            final Record baseRecord = baseCursor.getRecord();
+            while (baseCursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                inputSpill.put(baseRecord, hasher.partition(baseRecord, mapSink, partitionCount));
+            }
+            inputSpill.setSymbolTableResolver(baseCursor);
+
+            for (int i = 0; i < partitionCount; i++) {
+                final RecordChain partition = inputSpill.getPartition(i);
+                aggregate(partition, circuitBreaker);
+                // aggregated rows are copied out before functions and map are reset for the next partition
+                super.of(baseCursor, dataMap.getCursor());
+                final Record record = super.getRecord();
+                while (super.hasNext()) {
+                    resultSpill.put(record, 0);
+                    resultSize++;
+                }
+                dataMap.clear();
+                Misc.clearObjList(groupByFunctions);
+            }
+            inputSpill.clear();
+
+            resultChain = resultSpill.getPartition(0);
+            // symbol columns are stored as keys, functions resolve them
+            resultChain.setSymbolTableResolver(this);
+        }
+
+        private void clearSpill() {
+            if (inputSpill != null) {
+                inputSpill.clear();
+                resultSpill.clear();
+            }
+            resultChain = null;
+            resultSize = 0;
+        }
+
+        private void ofSpilled(RecordCursor baseCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+            try {
+                aggregateSpilled(baseCursor, circuitBreaker);
+            } catch (Throwable e) {
+                close();
+                throw e;
+            }
+        }
     }
 }
@@ -44,6 +44,15 @@ import org.jetbrains.annotations.NotNull;
 
 public class GroupByUtils {
 
+    public static boolean isReadThreadSafe(ObjList<GroupByFunction> functions) {
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            if (!functions.getQuick(i).isReadThreadSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static void prepareGroupByFunctions(
             QueryModel model,
             RecordMetadata metadata,
@@ -159,6 +168,7 @@ public class GroupByUtils {
                         case ColumnType.DOUBLE:
                             fun = DoubleColumn.newInstance(keyColumnIndex - 1);
                             break;
+                        case ColumnType.VARCHAR:
                         case ColumnType.STRING:
                             fun = StrColumn.newInstance(keyColumnIndex - 1);
                             break;
@@ -252,6 +262,15 @@ public class GroupByUtils {
         validateGroupByColumns(model, inferredKeyColumnCount);
     }
 
+    public static boolean supportsParallelism(ObjList<GroupByFunction> functions) {
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            if (!functions.getQuick(i).supportsParallelism()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static void toTop(ObjList<? extends Function> args) {
         for (int i = 0, n = args.size(); i < n; i++) {
             args.getQuick(i).toTop();
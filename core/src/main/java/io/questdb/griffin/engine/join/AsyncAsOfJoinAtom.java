@@ -0,0 +1,332 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.BinarySearch;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * Shared state of parallel ASOF and LT joins. Master page frames never span partitions, so each
+ * frame is a partition-aligned time range that is joined independently. A worker binary searches
+ * the slave for the last row visible to the first master row of the range, then scans the slave
+ * forward as master timestamps grow. Keys that are not found in the forward scan are looked up
+ * by scanning the slave backwards from the range start, lazily, until the key shows up. Both
+ * scans keep their own per-key map of last seen slave rows, one pair of maps per worker.
+ * <p>
+ * Slave rows are referenced by (frame index, row index) pairs packed with {@link Rows#toRowID(int, long)}.
+ */
+public class AsyncAsOfJoinAtom implements StatefulAtom, Closeable {
+    private final ObjList<Map> backwardMaps;
+    private final ObjList<Map> forwardMaps;
+    private final int masterTimestampIndex;
+    private final RecordSink masterKeySink;
+    private final AtomicIntegerArray perWorkerLocks;
+    // Used to randomize acquire attempts for work stealing threads. Accessed in a racy way, intentionally.
+    private final Rnd rnd = new Rnd();
+    private final PageAddressCache slaveAddressCache;
+    private final LongList slaveFrameRowCounts = new LongList();
+    private final RecordSink slaveKeySink;
+    private final ObjList<PageAddressCacheRecord> slaveRecords;
+    private final int slaveTimestampIndex;
+    // true for LT join, slave timestamp has to be strictly less than master timestamp
+    private final boolean strict;
+    private final int workerCount;
+    private int slaveFrameCount;
+    private PageFrameCursor slavePageFrameCursor;
+
+    public AsyncAsOfJoinAtom(
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ColumnTypes joinColumnTypes,
+            @Transient @NotNull ColumnTypes valueTypes,
+            @NotNull RecordSink masterKeySink,
+            @NotNull RecordSink slaveKeySink,
+            int masterTimestampIndex,
+            int slaveTimestampIndex,
+            int workerCount,
+            boolean strict
+    ) {
+        this.masterKeySink = masterKeySink;
+        this.slaveKeySink = slaveKeySink;
+        this.masterTimestampIndex = masterTimestampIndex;
+        this.slaveTimestampIndex = slaveTimestampIndex;
+        this.workerCount = workerCount;
+        this.strict = strict;
+        this.perWorkerLocks = new AtomicIntegerArray(workerCount);
+        this.slaveAddressCache = new PageAddressCache(configuration);
+        // the last slot belongs to the owner thread
+        final int slotCount = workerCount + 1;
+        this.forwardMaps = new ObjList<>(slotCount);
+        this.backwardMaps = new ObjList<>(slotCount);
+        this.slaveRecords = new ObjList<>(slotCount);
+        try {
+            for (int i = 0; i < slotCount; i++) {
+                forwardMaps.extendAndSet(i, MapFactory.createMap(configuration, joinColumnTypes, valueTypes));
+                backwardMaps.extendAndSet(i, MapFactory.createMap(configuration, joinColumnTypes, valueTypes));
+                slaveRecords.extendAndSet(i, new PageAddressCacheRecord());
+            }
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use its own maps anytime.
+            return -1;
+        }
+        workerId = workerId == -1 ? rnd.nextInt(workerCount) : workerId;
+        while (true) {
+            for (int i = 0; i < workerCount; i++) {
+                int id = (i + workerId) % workerCount;
+                if (perWorkerLocks.compareAndSet(id, 0, 1)) {
+                    return id;
+                }
+            }
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            Os.pause();
+        }
+    }
+
+    public void clear() {
+        for (int i = 0, n = forwardMaps.size(); i < n; i++) {
+            Misc.free(forwardMaps.getQuick(i));
+            Misc.free(backwardMaps.getQuick(i));
+        }
+        slavePageFrameCursor = Misc.free(slavePageFrameCursor);
+        slaveAddressCache.clear();
+        slaveFrameRowCounts.clear();
+        slaveFrameCount = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.freeObjList(forwardMaps);
+        Misc.freeObjList(backwardMaps);
+        Misc.freeObjList(slaveRecords);
+    }
+
+    public PageAddressCache getSlaveAddressCache() {
+        return slaveAddressCache;
+    }
+
+    public SymbolTableSource getSlaveSymbolTableSource() {
+        return slavePageFrameCursor;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+        for (int i = 0, n = forwardMaps.size(); i < n; i++) {
+            forwardMaps.getQuick(i).reopen();
+            backwardMaps.getQuick(i).reopen();
+        }
+    }
+
+    /**
+     * Finds matching slave rows for all rows of the master page frame.
+     *
+     * @param slotId         slot acquired via {@link #acquire(int, boolean, SqlExecutionCircuitBreaker)}
+     * @param masterRecord   master record positioned at the page frame
+     * @param frameRowCount  number of rows in the page frame
+     * @param matches        receives packed slave row reference or -1 for each master row
+     * @param circuitBreaker circuit breaker instance
+     */
+    public void joinFrame(
+            int slotId,
+            PageAddressCacheRecord masterRecord,
+            long frameRowCount,
+            DirectLongList matches,
+            SqlExecutionCircuitBreaker circuitBreaker
+    ) {
+        final int slot = slotId == -1 ? workerCount : slotId;
+        final Map forwardMap = forwardMaps.getQuick(slot);
+        final Map backwardMap = backwardMaps.getQuick(slot);
+        final PageAddressCacheRecord slaveRecord = slaveRecords.getQuick(slot);
+        forwardMap.clear();
+        backwardMap.clear();
+
+        masterRecord.setRowIndex(0);
+        final long start = findSlaveRow(toSlaveTimestampLimit(masterRecord.getTimestamp(masterTimestampIndex)));
+
+        // the forward scan starts right after the range start, the backward one at the range start
+        int forwardFrame;
+        long forwardRow;
+        int backwardFrame;
+        long backwardRow;
+        if (start != -1) {
+            forwardFrame = backwardFrame = Rows.toPartitionIndex(start);
+            backwardRow = Rows.toLocalRowID(start);
+            forwardRow = backwardRow + 1;
+        } else {
+            forwardFrame = 0;
+            forwardRow = 0;
+            backwardFrame = -1;
+            backwardRow = -1;
+        }
+
+        for (long r = 0; r < frameRowCount; r++) {
+            masterRecord.setRowIndex(r);
+            final long limit = toSlaveTimestampLimit(masterRecord.getTimestamp(masterTimestampIndex));
+
+            while (forwardFrame < slaveFrameCount) {
+                if (forwardRow == slaveFrameRowCounts.getQuick(forwardFrame)) {
+                    forwardFrame++;
+                    forwardRow = 0;
+                    continue;
+                }
+                if (getSlaveTimestamp(forwardFrame, forwardRow) > limit) {
+                    break;
+                }
+                slaveRecord.setFrameIndex(forwardFrame);
+                slaveRecord.setRowIndex(forwardRow);
+                final MapKey key = forwardMap.withKey();
+                key.put(slaveRecord, slaveKeySink);
+                key.createValue().putLong(0, Rows.toRowID(forwardFrame, forwardRow++));
+            }
+
+            MapKey key = forwardMap.withKey();
+            key.put(masterRecord, masterKeySink);
+            MapValue value = key.findValue();
+            if (value == null) {
+                key = backwardMap.withKey();
+                key.put(masterRecord, masterKeySink);
+                value = key.findValue();
+            }
+
+            long match = value != null ? value.getLong(0) : -1;
+            if (value == null && backwardFrame > -1) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                while (backwardFrame > -1) {
+                    if (backwardRow < 0) {
+                        if (--backwardFrame > -1) {
+                            backwardRow = slaveFrameRowCounts.getQuick(backwardFrame) - 1;
+                        }
+                        continue;
+                    }
+                    slaveRecord.setFrameIndex(backwardFrame);
+                    slaveRecord.setRowIndex(backwardRow);
+                    final long slaveRow = Rows.toRowID(backwardFrame, backwardRow--);
+                    key = backwardMap.withKey();
+                    key.put(slaveRecord, slaveKeySink);
+                    value = key.createValue();
+                    if (value.isNew()) {
+                        value.putLong(0, slaveRow);
+                        // master key may only show up as a key we haven't seen before
+                        key = backwardMap.withKey();
+                        key.put(masterRecord, masterKeySink);
+                        if (key.findValue() != null) {
+                            match = slaveRow;
+                            break;
+                        }
+                    }
+                }
+            }
+            matches.add(match);
+        }
+    }
+
+    /**
+     * Opens slave page frames and caches their addresses. Has to be called before master
+     * page frames are dispatched.
+     */
+    public void ofSlave(RecordCursorFactory slaveFactory, SqlExecutionContext executionContext) throws SqlException {
+        slavePageFrameCursor = slaveFactory.getPageFrameCursor(executionContext, ORDER_ASC);
+        slaveAddressCache.of(slaveFactory.getMetadata());
+        PageFrame frame;
+        int frameIndex = 0;
+        while ((frame = slavePageFrameCursor.next()) != null) {
+            final long frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+            if (frameRowCount > 0) {
+                slaveAddressCache.add(frameIndex++, frame);
+                slaveFrameRowCounts.add(frameRowCount);
+            }
+        }
+        slaveFrameCount = frameIndex;
+        for (int i = 0, n = slaveRecords.size(); i < n; i++) {
+            slaveRecords.getQuick(i).of(slavePageFrameCursor, slaveAddressCache);
+        }
+    }
+
+    public void release(int slotId) {
+        if (slotId == -1) {
+            return;
+        }
+        perWorkerLocks.set(slotId, 0);
+    }
+
+    // returns the last slave row with timestamp not exceeding the limit or -1
+    private long findSlaveRow(long timestampLimit) {
+        // frames are in timestamp order, find the last one that starts at or before the limit
+        int lo = 0;
+        int hi = slaveFrameCount - 1;
+        int frameIndex = -1;
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (getSlaveTimestamp(mid, 0) <= timestampLimit) {
+                frameIndex = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (frameIndex == -1) {
+            return -1;
+        }
+        final long row = Vect.boundedBinarySearch64Bit(
+                slaveAddressCache.getPageAddress(frameIndex, slaveTimestampIndex),
+                timestampLimit,
+                0,
+                slaveFrameRowCounts.getQuick(frameIndex) - 1,
+                BinarySearch.SCAN_DOWN
+        );
+        return Rows.toRowID(frameIndex, row);
+    }
+
+    private long getSlaveTimestamp(int frameIndex, long rowIndex) {
+        return Unsafe.getUnsafe().getLong(slaveAddressCache.getPageAddress(frameIndex, slaveTimestampIndex) + rowIndex * Long.BYTES);
+    }
+
+    private long toSlaveTimestampLimit(long masterTimestamp) {
+        return strict ? masterTimestamp - 1 : masterTimestamp;
+    }
+}
@@ -0,0 +1,338 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import io.questdb.tasks.HashJoinBuildTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Shared state of parallel light hash join. Slave records are split on join key hash into
+ * partitions, each with its own {@link FastMap} and {@link LongChain} of slave row ids.
+ * Partitions are built concurrently on the shared worker pool and then probed by page frame
+ * reducers. Lookups in a partition map are serialized by a per-partition spin lock, the
+ * number of partitions is a multiple of thread count, so that lock collisions are rare.
+ */
+public class AsyncHashJoinAtom implements StatefulAtom, Closeable, Mutable {
+    private static final Log LOG = LogFactory.getLog(AsyncHashJoinAtom.class);
+    private static final int MIN_PAGE_SIZE = 64 * 1024;
+    private static final int PARTITIONS_PER_THREAD = 4;
+    // copies slave keys followed by slave row id, one chain per partition
+    private final ObjList<RecordChain> buildChains;
+    private final LongList buildChainTails = new LongList();
+    // copies key columns of build chain records to map keys
+    private final RecordSink buildKeySink;
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+    private final boolean isOuterJoin;
+    private final ObjList<FastMap> maps;
+    private final RecordSink masterKeySink;
+    private final RecordHasher ownerHasher = new RecordHasher();
+    private final int partitionCount;
+    private final AtomicIntegerArray partitionLocks;
+    private final ObjList<RecordHasher> perWorkerHashers;
+    private final AtomicIntegerArray perWorkerLocks;
+    // Used to randomize acquire attempts for work stealing threads. Accessed in a racy way, intentionally.
+    private final Rnd rnd = new Rnd();
+    private final int rowIdColumnIndex;
+    private final ObjList<LongChain> slaveChains;
+    private final RecordSink slaveKeySink;
+    private volatile String buildError;
+
+    public AsyncHashJoinAtom(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ColumnTypes joinColumnTypes,
+            @NotNull RecordSink masterKeySink,
+            @NotNull RecordSink slaveKeySink,
+            int workerCount,
+            boolean isOuterJoin
+    ) {
+        this.masterKeySink = masterKeySink;
+        this.slaveKeySink = slaveKeySink;
+        this.isOuterJoin = isOuterJoin;
+        this.partitionCount = Numbers.ceilPow2(workerCount + 1) * PARTITIONS_PER_THREAD;
+        this.partitionLocks = new AtomicIntegerArray(partitionCount);
+        this.perWorkerLocks = new AtomicIntegerArray(workerCount);
+        this.perWorkerHashers = new ObjList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            perWorkerHashers.extendAndSet(i, new RecordHasher());
+        }
+
+        final int keyCount = joinColumnTypes.getColumnCount();
+        final ArrayColumnTypes buildTypes = new ArrayColumnTypes();
+        final ListColumnFilter buildKeyFilter = new ListColumnFilter();
+        for (int i = 0; i < keyCount; i++) {
+            buildTypes.add(joinColumnTypes.getColumnType(i));
+            buildKeyFilter.add(i + 1);
+        }
+        buildTypes.add(ColumnType.LONG);
+        this.rowIdColumnIndex = keyCount;
+        this.buildKeySink = RecordSinkFactory.getInstance(asm, buildTypes, buildKeyFilter, false);
+
+        final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+        valueTypes.add(ColumnType.LONG);
+        valueTypes.add(ColumnType.LONG);
+
+        // each partition holds a fraction of the slave side, so are its memory limits
+        final int partitionBits = Numbers.msb(partitionCount);
+        final int mapPageSize = Math.max(configuration.getSqlMapPageSize() / partitionCount, MIN_PAGE_SIZE);
+        final int mapKeyCapacity = Math.max(configuration.getSqlMapKeyCapacity() / partitionCount, 16);
+        final int mapMaxResizes = configuration.getSqlMapMaxResizes() + partitionBits;
+        final long chainPageSize = Math.max(configuration.getSqlHashJoinLightValuePageSize() / partitionCount, MIN_PAGE_SIZE);
+        final int chainMaxPages = partitionMaxPages(configuration.getSqlHashJoinLightValueMaxPages());
+        final long buildPageSize = Math.max(configuration.getSqlHashJoinValuePageSize() / partitionCount, MIN_PAGE_SIZE);
+        final int buildMaxPages = partitionMaxPages(configuration.getSqlHashJoinValueMaxPages());
+
+        this.maps = new ObjList<>(partitionCount);
+        this.slaveChains = new ObjList<>(partitionCount);
+        this.buildChains = new ObjList<>(partitionCount);
+        try {
+            for (int i = 0; i < partitionCount; i++) {
+                maps.extendAndSet(i, new FastMap(
+                        mapPageSize,
+                        joinColumnTypes,
+                        valueTypes,
+                        mapKeyCapacity,
+                        configuration.getSqlFastMapLoadFactor(),
+                        mapMaxResizes
+                ));
+                slaveChains.extendAndSet(i, new LongChain(chainPageSize, chainMaxPages));
+                buildChains.extendAndSet(i, new RecordChain(buildTypes, slaveKeySink, buildPageSize, buildMaxPages));
+                buildChainTails.add(-1);
+            }
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use the owner hasher anytime.
+            return -1;
+        }
+        final int size = perWorkerHashers.size();
+        workerId = workerId == -1 ? rnd.nextInt(size) : workerId;
+        while (true) {
+            for (int i = 0; i < size; i++) {
+                int id = (i + workerId) % size;
+                if (perWorkerLocks.compareAndSet(id, 0, 1)) {
+                    return id;
+                }
+            }
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            Os.pause();
+        }
+    }
+
+    /**
+     * Builds partitioned join key maps of slave records. Slave cursor is consumed on the calling
+     * thread, partition maps are built on the shared worker pool, the calling thread helps out.
+     *
+     * @param slaveCursor    slave cursor at the top
+     * @param messageBus     message bus to publish partition build tasks to
+     * @param circuitBreaker circuit breaker instance
+     */
+    public void build(RecordCursor slaveCursor, MessageBus messageBus, SqlExecutionCircuitBreaker circuitBreaker) {
+        final Record record = slaveCursor.getRecord();
+        while (slaveCursor.hasNext()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            final int partitionIndex = ownerHasher.partition(record, slaveKeySink, partitionCount);
+            final RecordChain chain = buildChains.getQuick(partitionIndex);
+            buildChainTails.setQuick(partitionIndex, chain.beginRecord(buildChainTails.getQuick(partitionIndex)));
+            slaveKeySink.copy(record, chain);
+            chain.putLong(record.getRowId());
+        }
+
+        final RingQueue<HashJoinBuildTask> queue = messageBus.getHashJoinBuildQueue();
+        final Sequence pubSeq = messageBus.getHashJoinBuildPubSeq();
+        final Sequence subSeq = messageBus.getHashJoinBuildSubSeq();
+
+        buildError = null;
+        doneLatch.reset();
+        int queuedCount = 0;
+        for (int i = 0; i < partitionCount; i++) {
+            if (buildChainTails.getQuick(i) == -1) {
+                continue;
+            }
+            final long seq = pubSeq.next();
+            if (seq < 0) {
+                buildPartition(i);
+            } else {
+                queue.get(seq).of(this, i, doneLatch);
+                pubSeq.done(seq);
+                queuedCount++;
+            }
+        }
+
+        // help out with our own tasks, this also avoids deadlock with single worker
+        while (doneLatch.getCount() > -queuedCount) {
+            final long seq = subSeq.next();
+            if (seq > -1) {
+                queue.get(seq).run();
+                subSeq.done(seq);
+            }
+        }
+        doneLatch.await(queuedCount);
+
+        if (buildError != null) {
+            throw CairoException.nonCritical().put(buildError);
+        }
+    }
+
+    /**
+     * Builds join key map and slave row id chain of single partition. Called by
+     * the shared pool workers as well as the query owner thread.
+     *
+     * @param partitionIndex index of the partition
+     */
+    public void buildPartition(int partitionIndex) {
+        final RecordChain chain = buildChains.getQuick(partitionIndex);
+        final FastMap map = maps.getQuick(partitionIndex);
+        final LongChain slaveChain = slaveChains.getQuick(partitionIndex);
+        try {
+            final Record record = chain.getRecord();
+            chain.toTop();
+            while (chain.hasNext()) {
+                final MapKey key = map.withKey();
+                key.put(record, buildKeySink);
+                final MapValue value = key.createValue();
+                final long rowId = record.getLong(rowIdColumnIndex);
+                if (value.isNew()) {
+                    final long offset = slaveChain.put(rowId, -1);
+                    value.putLong(0, offset);
+                    value.putLong(1, offset);
+                } else {
+                    value.putLong(1, slaveChain.put(rowId, value.getLong(1)));
+                }
+            }
+        } catch (Throwable e) {
+            LOG.error().$("could not build hash join partition [partition=").$(partitionIndex).$(", ex=").$(e).I$();
+            // exception instances can be thread local, keep the message only
+            buildError = e instanceof FlyweightMessageContainer
+                    ? ((FlyweightMessageContainer) e).getFlyweightMessage().toString()
+                    : e.toString();
+        } finally {
+            // slave keys are in the map now
+            chain.clear();
+            buildChainTails.setQuick(partitionIndex, -1);
+        }
+    }
+
+    @Override
+    public void clear() {
+        Misc.freeObjListAndKeepObjects(maps);
+        Misc.freeObjListAndKeepObjects(slaveChains);
+        Misc.freeObjListAndKeepObjects(buildChains);
+        buildChainTails.setAll(partitionCount, -1);
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjList(maps);
+        Misc.freeObjList(slaveChains);
+        Misc.freeObjList(buildChains);
+    }
+
+    /**
+     * Looks up slave rows matching the key of the master record. Safe to call from
+     * multiple threads concurrently.
+     *
+     * @param partitionIndex partition of master record key, see {@link #getPartitionIndex(RecordHasher, Record)}
+     * @param masterRecord   master record
+     * @return offset of the first slave row id in the partition chain or -1 when there is no match
+     */
+    public long findSlaveChain(int partitionIndex, Record masterRecord) {
+        while (!partitionLocks.compareAndSet(partitionIndex, 0, 1)) {
+            Os.pause();
+        }
+        try {
+            final MapKey key = maps.getQuick(partitionIndex).withKey();
+            key.put(masterRecord, masterKeySink);
+            final MapValue value = key.findValue();
+            return value != null ? value.getLong(0) : -1;
+        } finally {
+            partitionLocks.set(partitionIndex, 0);
+        }
+    }
+
+    public RecordHasher getHasher(int slotId) {
+        return slotId == -1 ? ownerHasher : perWorkerHashers.getQuick(slotId);
+    }
+
+    public int getPartitionIndex(RecordHasher hasher, Record masterRecord) {
+        return hasher.partition(masterRecord, masterKeySink, partitionCount);
+    }
+
+    public LongChain getSlaveChain(int partitionIndex) {
+        return slaveChains.getQuick(partitionIndex);
+    }
+
+    public int getWorkerCount() {
+        return perWorkerHashers.size();
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+        for (int i = 0; i < partitionCount; i++) {
+            maps.getQuick(i).reopen();
+        }
+    }
+
+    public boolean isOuterJoin() {
+        return isOuterJoin;
+    }
+
+    public void release(int slotId) {
+        if (slotId == -1) {
+            return;
+        }
+        perWorkerLocks.set(slotId, 0);
+    }
+
+    private int partitionMaxPages(int maxPages) {
+        return (int) Math.min((long) maxPages * partitionCount, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,270 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Os;
+import org.jetbrains.annotations.Nullable;
+
+class AsyncHashJoinRecordCursor implements NoRandomAccessRecordCursor {
+
+    private static final Log LOG = LogFactory.getLog(AsyncHashJoinRecordCursor.class);
+    private static final String exceptionMessage = "timeout, query aborted";
+    private final int columnSplit;
+    private final boolean hasDescendingOrder;
+    private final PageAddressCacheRecord masterRecord;
+    // null for inner join
+    private final OuterJoinRecord outerJoinRecord;
+    private final JoinRecord record;
+    private boolean allFramesActive;
+    private AsyncHashJoinAtom atom;
+    private long cursor = -1;
+    private int frameIndex;
+    private int frameLimit;
+    // number of matched master rows in the current frame and index of the next one
+    private long frameMatchCount;
+    private long frameMatchIndex;
+    private PageFrameSequence<AsyncHashJoinAtom> frameSequence;
+    private boolean isOpen;
+    private DirectLongList rows;
+    private LongChain.TreeCursor slaveChainCursor;
+    private RecordCursor slaveCursor;
+    private Record slaveRecord;
+
+    public AsyncHashJoinRecordCursor(int columnSplit, @Nullable Record nullRecord, boolean hasDescendingOrder) {
+        this.columnSplit = columnSplit;
+        this.hasDescendingOrder = hasDescendingOrder;
+        this.masterRecord = new PageAddressCacheRecord();
+        if (nullRecord != null) {
+            this.outerJoinRecord = new OuterJoinRecord(columnSplit, nullRecord);
+            this.record = outerJoinRecord;
+        } else {
+            this.outerJoinRecord = null;
+            this.record = new JoinRecord(columnSplit);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            LOG.debug()
+                    .$("closing [shard=").$(frameSequence.getShard())
+                    .$(", frameIndex=").$(frameIndex)
+                    .$(", frameCount=").$(frameLimit)
+                    .$(", cursor=").$(cursor)
+                    .I$();
+
+            collectCursor(true);
+            if (frameLimit > -1) {
+                frameSequence.await();
+            }
+            frameSequence.clear();
+            atom.clear();
+            slaveCursor = Misc.free(slaveCursor);
+            slaveChainCursor = null;
+            isOpen = false;
+        }
+    }
+
+    public void freeRecords() {
+        Misc.free(masterRecord);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        if (columnIndex < columnSplit) {
+            return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+        }
+        return slaveCursor.getSymbolTable(columnIndex - columnSplit);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (slaveChainCursor != null && slaveChainCursor.hasNext()) {
+            slaveCursor.recordAt(slaveRecord, slaveChainCursor.next());
+            return true;
+        }
+
+        // check for the first hasNext call
+        if (frameIndex == -1 && frameLimit > -1) {
+            fetchNextFrame();
+        }
+
+        // we have matches in the current frame we still need to dispatch
+        if (frameMatchIndex < frameMatchCount) {
+            nextMatch();
+            return true;
+        }
+
+        // Release previous queue item.
+        collectCursor(false);
+
+        // do we have more frames?
+        if (frameIndex < frameLimit) {
+            fetchNextFrame();
+            if (frameMatchIndex < frameMatchCount) {
+                nextMatch();
+                return true;
+            }
+        }
+
+        if (!allFramesActive) {
+            throw CairoException.nonCritical().put(exceptionMessage).setInterruption(true);
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        if (columnIndex < columnSplit) {
+            return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+        }
+        return slaveCursor.newSymbolTable(columnIndex - columnSplit);
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        collectCursor(false);
+        frameSequence.toTop();
+        if (frameLimit > -1) {
+            frameIndex = -1;
+        }
+        frameMatchIndex = 0;
+        frameMatchCount = 0;
+        slaveChainCursor = null;
+        allFramesActive = true;
+    }
+
+    private void collectCursor(boolean forceCollect) {
+        if (cursor > -1) {
+            frameSequence.collect(cursor, forceCollect);
+            // It is necessary to clear 'cursor' value
+            // because we updated frameIndex and loop can exit due to lack of frames.
+            // Non-update of 'cursor' could cause double-free.
+            cursor = -1;
+        }
+    }
+
+    private void fetchNextFrame() {
+        try {
+            do {
+                this.cursor = frameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+                    this.allFramesActive &= frameSequence.isActive();
+                    this.rows = task.getRows();
+                    this.frameMatchCount = rows.size() / 3;
+                    this.frameIndex = task.getFrameIndex();
+                    this.frameMatchIndex = 0;
+                    if (this.frameMatchCount > 0 && frameSequence.isActive()) {
+                        masterRecord.setFrameIndex(task.getFrameIndex());
+                        break;
+                    } else {
+                        this.frameMatchCount = 0; // force reset frame size if frameSequence was canceled or failed
+                        collectCursor(false);
+                    }
+                } else {
+                    Os.pause();
+                }
+            } while (this.frameIndex < frameLimit);
+        } catch (Throwable e) {
+            LOG.critical().$("unexpected error [ex=").$(e).I$();
+            throw CairoException.nonCritical().put(exceptionMessage).setInterruption(true);
+        }
+    }
+
+    private void nextMatch() {
+        final long index = 3 * (hasDescendingOrder ? frameMatchCount - frameMatchIndex - 1 : frameMatchIndex);
+        frameMatchIndex++;
+        masterRecord.setRowIndex(rows.get(index));
+        final long slaveChainOffset = rows.get(index + 2);
+        if (slaveChainOffset != -1) {
+            slaveChainCursor = atom.getSlaveChain((int) rows.get(index + 1)).getCursor(slaveChainOffset);
+            // we know cursor has values
+            // advance to get first value
+            slaveChainCursor.hasNext();
+            slaveCursor.recordAt(slaveRecord, slaveChainCursor.next());
+            if (outerJoinRecord != null) {
+                outerJoinRecord.hasSlave(true);
+            }
+        } else {
+            slaveChainCursor = null;
+            outerJoinRecord.hasSlave(false);
+        }
+    }
+
+    void of(
+            PageFrameSequence<AsyncHashJoinAtom> frameSequence,
+            RecordCursor slaveCursor,
+            SqlExecutionContext executionContext
+    ) {
+        this.isOpen = true;
+        this.frameSequence = frameSequence;
+        this.atom = frameSequence.getAtom();
+        this.slaveCursor = slaveCursor;
+        this.frameIndex = -1;
+        this.frameLimit = frameSequence.getFrameCount() - 1;
+        this.frameMatchIndex = 0;
+        this.frameMatchCount = 0;
+        this.slaveChainCursor = null;
+        this.allFramesActive = true;
+        try {
+            atom.build(slaveCursor, executionContext.getMessageBus(), executionContext.getCircuitBreaker());
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+        this.slaveRecord = slaveCursor.getRecordB();
+        masterRecord.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        record.of(masterRecord, slaveRecord);
+    }
+}
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordHasher;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_DESC;
+
+/**
+ * Light hash join, inner or left outer, that builds partitioned slave maps on the shared
+ * worker pool and probes them with master page frames dispatched to the same pool. Frames
+ * are collected in order, so the output follows master order, same as
+ * {@link HashJoinLightRecordCursorFactory}.
+ */
+public class AsyncHashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
+
+    private static final PageFrameReducer REDUCER = AsyncHashJoinRecordCursorFactory::probe;
+
+    private final AsyncHashJoinAtom atom;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncHashJoinRecordCursor cursor;
+    private final PageFrameSequence<AsyncHashJoinAtom> frameSequence;
+    private final RecordCursorFactory masterFactory;
+    private final RecordCursorFactory slaveFactory;
+
+    public AsyncHashJoinRecordCursorFactory(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory masterFactory,
+            @NotNull RecordCursorFactory slaveFactory,
+            @Transient @NotNull ColumnTypes joinColumnTypes,
+            @NotNull RecordSink masterKeySink,
+            @NotNull RecordSink slaveKeySink,
+            int columnSplit,
+            @NotNull @Transient WeakClosableObjectPool<PageFrameReduceTask> localTaskPool,
+            int workerCount,
+            boolean isOuterJoin
+    ) {
+        super(metadata);
+        this.masterFactory = masterFactory;
+        this.slaveFactory = slaveFactory;
+        this.atom = new AsyncHashJoinAtom(
+                asm,
+                configuration,
+                joinColumnTypes,
+                masterKeySink,
+                slaveKeySink,
+                workerCount,
+                isOuterJoin
+        );
+        this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, localTaskPool);
+        this.cursor = new AsyncHashJoinRecordCursor(
+                columnSplit,
+                isOuterJoin ? NullRecordFactory.getInstance(slaveFactory.getMetadata()) : null,
+                masterFactory.hasDescendingOrder()
+        );
+    }
+
+    @Override
+    protected void _close() {
+        ((JoinRecordMetadata) getMetadata()).close();
+        Misc.free(cursor);
+        Misc.free(masterFactory);
+        Misc.free(slaveFactory);
+        Misc.free(atom);
+        Misc.free(frameSequence);
+        cursor.freeRecords();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final RecordCursor slaveCursor = slaveFactory.getCursor(executionContext);
+        try {
+            final PageFrameSequence<AsyncHashJoinAtom> frameSequence = this.frameSequence.of(
+                    masterFactory,
+                    executionContext,
+                    collectSubSeq,
+                    atom,
+                    masterFactory.hasDescendingOrder() ? ORDER_DESC : ORDER_ASC
+            );
+            cursor.of(frameSequence, slaveCursor, executionContext);
+            return cursor;
+        } catch (Throwable e) {
+            Misc.free(slaveCursor);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean hasDescendingOrder() {
+        return masterFactory.hasDescendingOrder();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    private static void probe(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final DirectLongList rows = task.getRows();
+        final long frameRowCount = task.getFrameRowCount();
+        final AsyncHashJoinAtom atom = task.getFrameSequence(AsyncHashJoinAtom.class).getAtom();
+        final boolean isOuterJoin = atom.isOuterJoin();
+
+        rows.clear();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final RecordHasher hasher = atom.getHasher(slotId);
+        try {
+            // matches are stored as (row index, partition index, slave chain offset) triplets
+            for (long r = 0; r < frameRowCount; r++) {
+                record.setRowIndex(r);
+                final int partitionIndex = atom.getPartitionIndex(hasher, record);
+                final long slaveChainOffset = atom.findSlaveChain(partitionIndex, record);
+                if (slaveChainOffset != -1 || isOuterJoin) {
+                    rows.add(r);
+                    rows.add(partitionIndex);
+                    rows.add(slaveChainOffset);
+                }
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+}
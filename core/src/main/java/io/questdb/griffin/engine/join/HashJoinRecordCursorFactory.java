@@ -33,6 +33,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.LimitOverflowException;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
 
@@ -41,6 +42,7 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
     private final RecordCursorFactory slaveFactory;
     private final RecordSink masterSink;
     private final RecordSink slaveKeySink;
+    private final HashJoinSpill spill;
     private final HashJoinRecordCursor cursor;
 
     public HashJoinRecordCursorFactory(
@@ -53,6 +55,7 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
             RecordSink masterSink,
             RecordSink slaveKeySink,
             RecordSink slaveChainSink,
+            RecordSink masterChainSink,
             int columnSplit
     ) {
         super(metadata);
@@ -62,6 +65,15 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         RecordChain slaveChain = new RecordChain(slaveFactory.getMetadata(), slaveChainSink, configuration.getSqlHashJoinValuePageSize(), configuration.getSqlHashJoinValueMaxPages());
         this.masterSink = masterSink;
         this.slaveKeySink = slaveKeySink;
+        this.spill = HashJoinSpill.newInstance(
+                configuration,
+                masterFactory.getMetadata(),
+                slaveFactory.getMetadata(),
+                masterSink,
+                masterChainSink,
+                slaveKeySink,
+                slaveChainSink
+        );
         this.cursor = new HashJoinRecordCursor(columnSplit, joinKeyMap, slaveChain);
     }
 
@@ -71,6 +83,7 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         masterFactory.close();
         slaveFactory.close();
         cursor.close();
+        Misc.free(spill);
     }
 
     @Override
@@ -105,6 +118,8 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         private final JoinRecord recordA;
         private final RecordChain slaveChain;
         private final Map joinKeyMap;
+        private SqlExecutionCircuitBreaker circuitBreaker;
+        private RecordChain masterPartition;
         private Record masterRecord;
         private boolean useSlaveCursor;
         private boolean isOpen;
@@ -133,6 +148,10 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
                 return true;
             }
 
+            if (spill != null && spill.isActive()) {
+                return hasNextSpilled();
+            }
+
             while (masterCursor.hasNext()) {
                 MapKey key = joinKeyMap.withKey();
                 key.put(masterRecord, masterSink);
@@ -151,10 +170,39 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
 
         @Override
         public void toTop() {
-            masterCursor.toTop();
+            if (spill != null && spill.isActive()) {
+                spill.toTop();
+                masterPartition = null;
+            } else {
+                masterCursor.toTop();
+            }
             useSlaveCursor = false;
         }
 
+        private boolean hasNextSpilled() {
+            while (true) {
+                if (masterPartition != null) {
+                    while (masterPartition.hasNext()) {
+                        MapKey key = joinKeyMap.withKey();
+                        key.put(masterRecord, masterSink);
+                        MapValue value = key.findValue();
+                        if (value != null) {
+                            slaveChain.of(value.getLong(0));
+                            slaveChain.hasNext();
+                            useSlaveCursor = true;
+                            return true;
+                        }
+                    }
+                }
+                masterPartition = spill.nextPartition(joinKeyMap, slaveChain, circuitBreaker);
+                if (masterPartition == null) {
+                    return false;
+                }
+                masterRecord = masterPartition.getRecord();
+                recordA.of(masterRecord, slaveChain.getRecord());
+            }
+        }
+
         private void buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
             if (!isOpen) {
                 isOpen = true;
@@ -165,10 +213,31 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
             HashOuterJoinRecordCursorFactory.buildMap(slaveCursor, slaveCursor.getRecord(), joinKeyMap, factory.slaveKeySink, slaveChain, circuitBreaker);
         }
 
+        private boolean buildMapOfSlaveRecordsOrOverflow(RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+            if (spill == null) {
+                buildMapOfSlaveRecords(slaveCursor, circuitBreaker);
+                return false;
+            }
+            spill.clear();
+            try {
+                buildMapOfSlaveRecords(slaveCursor, circuitBreaker);
+                return false;
+            } catch (LimitOverflowException e) {
+                joinKeyMap.restoreInitialCapacity();
+                slaveChain.clear();
+                return true;
+            }
+        }
+
         void of(SqlExecutionContext executionContext, RecordCursor slaveCursor) throws SqlException {
             try {
-                buildMapOfSlaveRecords(slaveCursor, executionContext.getCircuitBreaker());
+                this.circuitBreaker = executionContext.getCircuitBreaker();
+                this.masterPartition = null;
+                final boolean overflow = buildMapOfSlaveRecordsOrOverflow(slaveCursor, executionContext.getCircuitBreaker());
                 this.masterCursor = masterFactory.getCursor(executionContext);
+                if (overflow) {
+                    spill.spill(masterCursor, slaveCursor, circuitBreaker);
+                }
                 this.slaveCursor = slaveCursor;
                 this.masterRecord = masterCursor.getRecord();
                 Record slaveRecord = slaveChain.getRecord();
@@ -187,6 +256,9 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
                 isOpen = false;
                 joinKeyMap.close();
                 slaveChain.close();
+                if (spill != null) {
+                    spill.clear();
+                }
                 super.close();
             }
         }
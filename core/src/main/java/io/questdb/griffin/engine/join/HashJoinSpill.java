@@ -0,0 +1,154 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.std.Misc;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Grace hash join state. When slave records do not fit join key map or record chain, both sides
+ * of the join are hashed on join key into on-disk partitions. Matching keys always land in the
+ * same partition, so partitions can be joined one at a time with a map that holds only a
+ * fraction of slave records.
+ */
+class HashJoinSpill implements Closeable {
+    private final RecordHasher hasher = new RecordHasher();
+    private final RecordSink masterKeySink;
+    private final RecordSpill masterSpill;
+    private final RecordSink slaveKeySink;
+    private final RecordSpill slaveSpill;
+    private boolean active;
+    private int partition;
+
+    private HashJoinSpill(
+            CairoConfiguration configuration,
+            RecordMetadata masterMetadata,
+            RecordMetadata slaveMetadata,
+            RecordSink masterKeySink,
+            RecordSink masterChainSink,
+            RecordSink slaveKeySink,
+            RecordSink slaveChainSink
+    ) {
+        this.masterKeySink = masterKeySink;
+        this.slaveKeySink = slaveKeySink;
+        this.masterSpill = new RecordSpill(configuration, masterMetadata, masterChainSink, "join-master");
+        this.slaveSpill = new RecordSpill(configuration, slaveMetadata, slaveChainSink, "join-slave");
+    }
+
+    @Nullable
+    static HashJoinSpill newInstance(
+            CairoConfiguration configuration,
+            RecordMetadata masterMetadata,
+            RecordMetadata slaveMetadata,
+            RecordSink masterKeySink,
+            RecordSink masterChainSink,
+            RecordSink slaveKeySink,
+            RecordSink slaveChainSink
+    ) {
+        if (RecordSpill.isEnabled(configuration)) {
+            return new HashJoinSpill(configuration, masterMetadata, slaveMetadata, masterKeySink, masterChainSink, slaveKeySink, slaveChainSink);
+        }
+        return null;
+    }
+
+    public void clear() {
+        active = false;
+        masterSpill.clear();
+        slaveSpill.clear();
+    }
+
+    @Override
+    public void close() {
+        active = false;
+        Misc.free(masterSpill);
+        Misc.free(slaveSpill);
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Builds join key map of the next slave partition.
+     *
+     * @return chain of master records of the same partition or null when there are no more partitions
+     */
+    RecordChain nextPartition(Map joinKeyMap, RecordChain slaveChain, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (++partition < slaveSpill.getPartitionCount()) {
+            final RecordChain slavePartition = slaveSpill.getPartition(partition);
+            HashOuterJoinRecordCursorFactory.buildMap(
+                    slavePartition,
+                    slavePartition.getRecord(),
+                    joinKeyMap,
+                    slaveKeySink,
+                    slaveChain,
+                    circuitBreaker
+            );
+            return masterSpill.getPartition(partition);
+        }
+        return null;
+    }
+
+    /**
+     * Partitions all records of both cursors. Slave cursor is rewound, master cursor is expected
+     * to be at the top.
+     */
+    void spill(RecordCursor masterCursor, RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+        clear();
+        final int partitionCount = slaveSpill.getPartitionCount();
+
+        slaveCursor.toTop();
+        final Record slaveRecord = slaveCursor.getRecord();
+        while (slaveCursor.hasNext()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            slaveSpill.put(slaveRecord, hasher.partition(slaveRecord, slaveKeySink, partitionCount));
+        }
+
+        final Record masterRecord = masterCursor.getRecord();
+        while (masterCursor.hasNext()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            masterSpill.put(masterRecord, hasher.partition(masterRecord, masterKeySink, partitionCount));
+        }
+
+        // symbols are stored as keys, they are resolved by the original cursors
+        slaveSpill.setSymbolTableResolver(slaveCursor);
+        masterSpill.setSymbolTableResolver(masterCursor);
+        active = true;
+        toTop();
+    }
+
+    void toTop() {
+        partition = -1;
+    }
+}
@@ -33,6 +33,7 @@ import io.questdb.cairo.sql.*;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.LimitOverflowException;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
 
@@ -41,6 +42,7 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
     private final RecordCursorFactory slaveFactory;
     private final RecordSink masterSink;
     private final RecordSink slaveKeySink;
+    private final HashJoinSpill spill;
     private final HashOuterJoinRecordCursor cursor;
 
     public HashOuterJoinRecordCursorFactory(
@@ -53,6 +55,7 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
             RecordSink masterSink,
             RecordSink slaveKeySink,
             RecordSink slaveChainSink,
+            RecordSink masterChainSink,
             int columnSplit
 
     ) {
@@ -62,6 +65,15 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
         RecordChain slaveChain = new RecordChain(slaveFactory.getMetadata(), slaveChainSink, configuration.getSqlHashJoinValuePageSize(), configuration.getSqlHashJoinValueMaxPages());
         this.masterSink = masterSink;
         this.slaveKeySink = slaveKeySink;
+        this.spill = HashJoinSpill.newInstance(
+                configuration,
+                masterFactory.getMetadata(),
+                slaveFactory.getMetadata(),
+                masterSink,
+                masterChainSink,
+                slaveKeySink,
+                slaveChainSink
+        );
 
         Map joinKeyMap = MapFactory.createMap(configuration, joinColumnTypes, valueTypes);
         this.cursor = new HashOuterJoinRecordCursor(
@@ -103,6 +115,7 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
         masterFactory.close();
         slaveFactory.close();
         cursor.close();
+        Misc.free(spill);
     }
 
     @Override
@@ -132,6 +145,8 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
         private final OuterJoinRecord record;
         private final RecordChain slaveChain;
         private final Map joinKeyMap;
+        private SqlExecutionCircuitBreaker circuitBreaker;
+        private RecordChain masterPartition;
         private Record masterRecord;
         private boolean useSlaveCursor;
         private boolean isOpen;
@@ -160,7 +175,7 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
                 return true;
             }
 
-            if (masterCursor.hasNext()) {
+            if (nextMaster()) {
                 MapKey key = joinKeyMap.withKey();
                 key.put(masterRecord, masterSink);
                 MapValue value = key.findValue();
@@ -180,9 +195,30 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
             return false;
         }
 
+        private boolean nextMaster() {
+            if (spill == null || !spill.isActive()) {
+                return masterCursor.hasNext();
+            }
+            // spilled master rows are read back partition by partition, slave map holds the matching partition
+            while (masterPartition == null || !masterPartition.hasNext()) {
+                masterPartition = spill.nextPartition(joinKeyMap, slaveChain, circuitBreaker);
+                if (masterPartition == null) {
+                    return false;
+                }
+                masterRecord = masterPartition.getRecord();
+                record.of(masterRecord, slaveChain.getRecord());
+            }
+            return true;
+        }
+
         @Override
         public void toTop() {
-            masterCursor.toTop();
+            if (spill != null && spill.isActive()) {
+                spill.toTop();
+                masterPartition = null;
+            } else {
+                masterCursor.toTop();
+            }
             useSlaveCursor = false;
         }
 
@@ -196,10 +232,37 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
             buildMap(slaveCursor, slaveCursor.getRecord(), this.joinKeyMap, factory.slaveKeySink, this.slaveChain, circuitBreaker);
         }
 
+        /**
+         * Builds the slave map and, when it hits memory limits and the join can spill, falls back to
+         * partitioning both sides on disk.
+         *
+         * @return true when the join has to be spilled
+         */
+        private boolean buildMapOfSlaveRecordsOrOverflow(RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+            if (spill == null) {
+                buildMapOfSlaveRecords(slaveCursor, circuitBreaker);
+                return false;
+            }
+            spill.clear();
+            try {
+                buildMapOfSlaveRecords(slaveCursor, circuitBreaker);
+                return false;
+            } catch (LimitOverflowException e) {
+                joinKeyMap.restoreInitialCapacity();
+                slaveChain.clear();
+                return true;
+            }
+        }
+
         void of(SqlExecutionContext executionContext, RecordCursor slaveCursor) throws SqlException {
             try {
-                buildMapOfSlaveRecords(slaveCursor, executionContext.getCircuitBreaker());
+                this.circuitBreaker = executionContext.getCircuitBreaker();
+                this.masterPartition = null;
+                final boolean overflow = buildMapOfSlaveRecordsOrOverflow(slaveCursor, executionContext.getCircuitBreaker());
                 this.masterCursor = masterFactory.getCursor(executionContext);
+                if (overflow) {
+                    spill.spill(masterCursor, slaveCursor, circuitBreaker);
+                }
 
                 this.slaveCursor = slaveCursor;
                 this.masterRecord = masterCursor.getRecord();
@@ -219,6 +282,9 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
                 isOpen = false;
                 joinKeyMap.close();
                 slaveChain.close();
+                if (spill != null) {
+                    spill.clear();
+                }
                 super.close();
             }
         }
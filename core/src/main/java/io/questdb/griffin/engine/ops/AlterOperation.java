@@ -50,6 +50,7 @@ public class AlterOperation extends AbstractOperation implements Mutable {
     public final static short SET_PARAM_MAX_UNCOMMITTED_ROWS = 10;
     public final static short SET_PARAM_COMMIT_LAG = 11;
     public final static short DETACH_PARTITION = 12;
+    public final static short COMPRESS_PARTITION = 13;
 
     private final static Log LOG = LogFactory.getLog(AlterOperation.class);
 
@@ -100,6 +101,9 @@ public class AlterOperation extends AbstractOperation implements Mutable {
                 case ATTACH_PARTITION:
                     applyAttachPartition(tableWriter);
                     break;
+                case COMPRESS_PARTITION:
+                    applyCompressPartition(tableWriter);
+                    break;
                 case ADD_INDEX:
                     applyAddIndex(tableWriter);
                     break;
@@ -289,6 +293,30 @@ public class AlterOperation extends AbstractOperation implements Mutable {
         }
     }
 
+    private void applyCompressPartition(TableWriter tableWriter) throws SqlException {
+        for (int i = 0, n = longList.size(); i < n; i++) {
+            long partitionTimestamp = longList.getQuick(i);
+            try {
+                if (!tableWriter.compressPartition(partitionTimestamp)) {
+                    throw putPartitionName(SqlException.$(tableNamePosition, "could not compress partition '"),
+                            tableWriter.getPartitionBy(),
+                            partitionTimestamp).put('\'');
+                }
+            } catch (CairoException e) {
+                LOG.error().$("failed to compress partition [table=").$(tableName)
+                        .$(", ts=").$ts(partitionTimestamp)
+                        .$(", errno=").$(e.getErrno())
+                        .$(", error=").$(e.getFlyweightMessage())
+                        .I$();
+
+                throw putPartitionName(SqlException.$(tableNamePosition, "could not compress partition '"),
+                        tableWriter.getPartitionBy(),
+                        partitionTimestamp).put("'. ")
+                        .put(e.getFlyweightMessage());
+            }
+        }
+    }
+
     private void applyDetachPartition(TableWriter tableWriter) throws SqlException {
         for (int i = 0, n = longList.size(); i < n; i++) {
             long partitionTimestamp = longList.getQuick(i);
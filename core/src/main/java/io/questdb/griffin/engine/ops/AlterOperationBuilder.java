@@ -93,6 +93,14 @@ public class AlterOperationBuilder {
         return this;
     }
 
+    public AlterOperationBuilder ofCompressPartition(int tableNamePosition, String tableName, int tableId) {
+        this.command = COMPRESS_PARTITION;
+        this.tableNamePosition = tableNamePosition;
+        this.tableName = tableName;
+        this.tableId = tableId;
+        return this;
+    }
+
     public AlterOperationBuilder ofDetachPartition(int tableNamePosition, String tableName, int tableId) {
         this.command = DETACH_PARTITION;
         this.tableNamePosition = tableNamePosition;
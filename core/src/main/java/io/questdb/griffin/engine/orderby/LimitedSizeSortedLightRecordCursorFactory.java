@@ -104,7 +104,7 @@ public class LimitedSizeSortedLightRecordCursorFactory extends AbstractRecordCur
                 configuration
                         .getSqlSortLightValuePageSize(),
                 configuration.getSqlSortLightValueMaxPages());
-        this.cursor = new SortedLightRecordCursor(chain, comparator);
+        this.cursor = new SortedLightRecordCursor(chain, comparator, null, 0);
     }
 
     /*
@@ -0,0 +1,343 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import io.questdb.tasks.SortTask;
+
+import java.io.Closeable;
+
+/**
+ * Orders row ids by fixed-width sort keys. Every key value is normalised into unsigned long, so that
+ * unsigned comparison of normalised keys matches SQL order, including direction and nulls. Sorting
+ * (key, position) pairs is done by native radix sort in chunks that are shared with worker pool,
+ * sorted chunks are then merged in rounds, also in parallel.
+ * <p>
+ * Rows with equal keys come out in reverse order of insertion, same as out of tree chains. Float and
+ * double keys follow {@link Numbers#compare(float, float)}: NaN is the smallest value and negative zero
+ * is greater than positive zero.
+ */
+public class ParallelRadixSorter implements Closeable, Mutable, Reopenable {
+    // sorting less than that on a separate thread is not worth the hand-off
+    private static final long MIN_CHUNK_SIZE = 64 * 1024;
+    private static final long SIGN_BIT = Long.MIN_VALUE;
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+    // (key, position) pairs, the second half of memory is used as radix sort and merge scratch
+    private final DirectLongList entries;
+    private final IntList keyColumnIndexes = new IntList();
+    private final IntList keyColumnTypes = new IntList();
+    private final int keyCount;
+    private final ObjList<DirectLongList> keys = new ObjList<>();
+    private final DirectLongList rowIds;
+    private long copyAddress;
+    private long entriesAddress;
+    private long mergeDstAddress;
+    private long mergeSrcAddress;
+    private long size;
+    private long sortedAddress;
+
+    /**
+     * @param metadata         metadata of the sorted records
+     * @param keyColumnIndexes 1-based indexes of key columns, negative index means descending order
+     */
+    public ParallelRadixSorter(RecordMetadata metadata, IntList keyColumnIndexes) {
+        assert isSupported(metadata, keyColumnIndexes);
+        this.keyCount = keyColumnIndexes.size();
+        for (int i = 0; i < keyCount; i++) {
+            final int index = keyColumnIndexes.getQuick(i);
+            this.keyColumnIndexes.add(index);
+            this.keyColumnTypes.add(metadata.getColumnType(Math.abs(index) - 1));
+            this.keys.add(new DirectLongList(MIN_CHUNK_SIZE / 64, MemoryTag.NATIVE_TREE_CHAIN));
+        }
+        this.rowIds = new DirectLongList(MIN_CHUNK_SIZE / 64, MemoryTag.NATIVE_TREE_CHAIN);
+        // sized on sort
+        this.entries = new DirectLongList(64, MemoryTag.NATIVE_TREE_CHAIN);
+    }
+
+    public static boolean isSupported(RecordMetadata metadata, IntList keyColumnIndexes) {
+        for (int i = 0, n = keyColumnIndexes.size(); i < n; i++) {
+            switch (ColumnType.tagOf(metadata.getColumnType(Math.abs(keyColumnIndexes.getQuick(i)) - 1))) {
+                case ColumnType.BOOLEAN:
+                case ColumnType.BYTE:
+                case ColumnType.SHORT:
+                case ColumnType.CHAR:
+                case ColumnType.INT:
+                case ColumnType.LONG:
+                case ColumnType.DATE:
+                case ColumnType.TIMESTAMP:
+                case ColumnType.FLOAT:
+                case ColumnType.DOUBLE:
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < keyCount; i++) {
+            keys.getQuick(i).clear();
+        }
+        rowIds.clear();
+        size = 0;
+        sortedAddress = 0;
+    }
+
+    @Override
+    public void close() {
+        for (int i = 0; i < keyCount; i++) {
+            keys.getQuick(i).close();
+        }
+        rowIds.close();
+        entries.close();
+        size = 0;
+        sortedAddress = 0;
+    }
+
+    /**
+     * @param index position in insertion order
+     * @return row id as it was inserted
+     */
+    public long getInsertedRowId(long index) {
+        return rowIds.get(index);
+    }
+
+    /**
+     * @param index position in sort order
+     * @return row id, only valid after {@link #sort(SqlExecutionContext)}
+     */
+    public long getRowId(long index) {
+        return rowIds.get(Unsafe.getUnsafe().getLong(sortedAddress + (index << 4) + Long.BYTES));
+    }
+
+    public void mergeRuns(long lo, long mid, long hi) {
+        final long src = mergeSrcAddress;
+        long dst = mergeDstAddress + (lo << 4);
+        long i = lo;
+        long j = mid;
+        while (i < mid && j < hi) {
+            final long left = src + (i << 4);
+            final long right = src + (j << 4);
+            // left run holds rows inserted later, it wins ties
+            final long entry;
+            if (compare(left, right) <= 0) {
+                entry = left;
+                i++;
+            } else {
+                entry = right;
+                j++;
+            }
+            Unsafe.getUnsafe().putLong(dst, Unsafe.getUnsafe().getLong(entry));
+            Unsafe.getUnsafe().putLong(dst + Long.BYTES, Unsafe.getUnsafe().getLong(entry + Long.BYTES));
+            dst += 2 * Long.BYTES;
+        }
+        if (i < mid) {
+            Vect.memcpy(dst, src + (i << 4), (mid - i) << 4);
+        } else if (j < hi) {
+            Vect.memcpy(dst, src + (j << 4), (hi - j) << 4);
+        }
+    }
+
+    public void put(Record record, long rowId) {
+        rowIds.add(rowId);
+        for (int i = 0; i < keyCount; i++) {
+            final int index = keyColumnIndexes.getQuick(i);
+            final long key = normalise(record, Math.abs(index) - 1, keyColumnTypes.getQuick(i));
+            keys.getQuick(i).add(index > 0 ? key : ~key);
+        }
+    }
+
+    @Override
+    public void reopen() {
+        for (int i = 0; i < keyCount; i++) {
+            keys.getQuick(i).reopen();
+        }
+        rowIds.reopen();
+        entries.reopen();
+    }
+
+    public long size() {
+        return rowIds.size();
+    }
+
+    public void sort(SqlExecutionContext executionContext) {
+        size = rowIds.size();
+        if (size == 0) {
+            return;
+        }
+        entries.setCapacity(4 * size);
+        entriesAddress = entries.getAddress();
+        copyAddress = entriesAddress + (size << 4);
+
+        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
+        final MessageBus bus = executionContext.getMessageBus();
+        final long taskCount = Math.max(1, Math.min(executionContext.getSharedWorkerCount(), size / MIN_CHUNK_SIZE));
+        final long chunkSize = (size + taskCount - 1) / taskCount;
+
+        runTasks(bus, SortTask.TYPE_SORT, chunkSize, chunkSize);
+
+        long src = entriesAddress;
+        long dst = copyAddress;
+        for (long width = chunkSize; width < size; width <<= 1) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            mergeSrcAddress = src;
+            mergeDstAddress = dst;
+            runTasks(bus, SortTask.TYPE_MERGE, width, width << 1);
+            dst = src;
+            src = mergeDstAddress;
+        }
+        sortedAddress = src;
+    }
+
+    public void sortChunk(long lo, long hi) {
+        final long count = hi - lo;
+        final long address = entriesAddress + (lo << 4);
+        final long cpy = copyAddress + (lo << 4);
+        // least significant key first, radix sort is stable and
+        // keeps the order established by the previous pass for equal keys
+        for (int k = keyCount - 1; k > -1; k--) {
+            final DirectLongList keyList = keys.getQuick(k);
+            for (long i = 0; i < count; i++) {
+                final long entry = address + (i << 4);
+                // entries start in reverse insertion order to match tree chains on equal keys
+                final long position = k == keyCount - 1 ? size - 1 - lo - i : Unsafe.getUnsafe().getLong(entry + Long.BYTES);
+                Unsafe.getUnsafe().putLong(entry, keyList.get(position));
+                Unsafe.getUnsafe().putLong(entry + Long.BYTES, position);
+            }
+            Vect.radixSortLongIndexAscInPlace(address, count, cpy);
+        }
+    }
+
+    private static long normalise(double value) {
+        if (value != value) {
+            return 0;
+        }
+        final long bits = Double.doubleToRawLongBits(value);
+        if (bits == SIGN_BIT) {
+            // negative zero goes right after positive zero
+            return SIGN_BIT + 1;
+        }
+        if (bits < 0) {
+            return ~bits;
+        }
+        return bits == 0 ? SIGN_BIT : (bits | SIGN_BIT) + 1;
+    }
+
+    private static long normalise(Record record, int columnIndex, int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                return record.getBool(columnIndex) ? 1 : 0;
+            case ColumnType.BYTE:
+                return record.getByte(columnIndex) ^ SIGN_BIT;
+            case ColumnType.SHORT:
+                return record.getShort(columnIndex) ^ SIGN_BIT;
+            case ColumnType.CHAR:
+                return record.getChar(columnIndex);
+            case ColumnType.INT:
+                return record.getInt(columnIndex) ^ SIGN_BIT;
+            case ColumnType.LONG:
+                return record.getLong(columnIndex) ^ SIGN_BIT;
+            case ColumnType.DATE:
+                return record.getDate(columnIndex) ^ SIGN_BIT;
+            case ColumnType.TIMESTAMP:
+                return record.getTimestamp(columnIndex) ^ SIGN_BIT;
+            case ColumnType.FLOAT:
+                // float to double conversion preserves order, NaN and negative zero
+                return normalise(record.getFloat(columnIndex));
+            default:
+                return normalise(record.getDouble(columnIndex));
+        }
+    }
+
+    private int compare(long left, long right) {
+        int cmp = Long.compareUnsigned(Unsafe.getUnsafe().getLong(left), Unsafe.getUnsafe().getLong(right));
+        if (cmp != 0 || keyCount == 1) {
+            return cmp;
+        }
+        // entries are keyed on the first column after chunk sort, the rest are looked up
+        final long leftPosition = Unsafe.getUnsafe().getLong(left + Long.BYTES);
+        final long rightPosition = Unsafe.getUnsafe().getLong(right + Long.BYTES);
+        for (int k = 1; k < keyCount; k++) {
+            final DirectLongList keyList = keys.getQuick(k);
+            cmp = Long.compareUnsigned(keyList.get(leftPosition), keyList.get(rightPosition));
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    private void runTask(int type, long lo, long mid, long hi) {
+        if (type == SortTask.TYPE_SORT) {
+            sortChunk(lo, hi);
+        } else {
+            mergeRuns(lo, mid, hi);
+        }
+    }
+
+    private void runTasks(MessageBus bus, int type, long width, long step) {
+        final RingQueue<SortTask> queue = bus.getSortQueue();
+        final Sequence pubSeq = bus.getSortPubSeq();
+        final Sequence subSeq = bus.getSortSubSeq();
+
+        doneLatch.reset();
+        int queuedCount = 0;
+        for (long lo = 0; lo < size; lo += step) {
+            final long mid = Math.min(lo + width, size);
+            final long hi = Math.min(lo + step, size);
+            final long seq = pubSeq.next();
+            if (seq < 0) {
+                runTask(type, lo, mid, hi);
+            } else {
+                queue.get(seq).of(this, type, lo, mid, hi, doneLatch);
+                pubSeq.done(seq);
+                queuedCount++;
+            }
+        }
+
+        // help out with our own tasks, this also avoids deadlock with single worker
+        while (doneLatch.getCount() > -queuedCount) {
+            final long seq = subSeq.next();
+            if (seq > -1) {
+                queue.get(seq).run();
+                subSeq.done(seq);
+            }
+        }
+        doneLatch.await(queuedCount);
+    }
+}
@@ -299,6 +299,7 @@ public class RecordComparatorCompiler {
                     getterNameA = "getChar";
                     comparatorClass = Character.class;
                     break;
+                case ColumnType.VARCHAR:
                 case ColumnType.STRING:
                     getterNameA = "getStr";
                     getterNameB = "getStrB";
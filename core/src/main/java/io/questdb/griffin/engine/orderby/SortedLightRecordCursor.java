@@ -34,13 +34,26 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
     private final LongTreeChain chain;
     private final RecordComparator comparator;
     private final LongTreeChain.TreeCursor chainCursor;
+    // null when sort keys are not fixed-width
+    private final ParallelRadixSorter sorter;
+    private final int sorterThreshold;
     private RecordCursor base;
     private Record baseRecord;
     private boolean isOpen;
-
-    public SortedLightRecordCursor(LongTreeChain chain, RecordComparator comparator) {
+    private long sortedIndex;
+    private long sortedSize;
+    private boolean sorterActive;
+
+    public SortedLightRecordCursor(
+            LongTreeChain chain,
+            RecordComparator comparator,
+            ParallelRadixSorter sorter,
+            int sorterThreshold
+    ) {
         this.chain = chain;
         this.comparator = comparator;
+        this.sorter = sorter;
+        this.sorterThreshold = sorterThreshold;
         // assign it once, it's the same instance anyway
         this.chainCursor = chain.getCursor();
         this.isOpen = true;
@@ -51,6 +64,7 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
         if (isOpen) {
             isOpen = false;
             Misc.free(chain);
+            Misc.free(sorter);
             base = Misc.free(base);
             baseRecord = null;
         }
@@ -78,6 +92,13 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
 
     @Override
     public boolean hasNext() {
+        if (sorterActive) {
+            if (sortedIndex < sortedSize) {
+                base.recordAt(baseRecord, sorter.getRowId(sortedIndex++));
+                return true;
+            }
+            return false;
+        }
         if (chainCursor.hasNext()) {
             base.recordAt(baseRecord, chainCursor.next());
             return true;
@@ -98,20 +119,56 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
     @Override
     public void toTop() {
         chainCursor.toTop();
+        sortedIndex = 0;
     }
 
     @Override
     public void of(RecordCursor base, SqlExecutionContext executionContext) {
         if (!isOpen) {
             chain.reopen();
+            if (sorter != null) {
+                sorter.reopen();
+            }
             isOpen = true;
         }
 
         this.base = base;
         this.baseRecord = base.getRecord();
-        final Record placeHolderRecord = base.getRecordB();
+        this.sorterActive = false;
         final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
 
+        final long baseSize = base.size();
+        if (sorter == null || (baseSize > -1 && baseSize < sorterThreshold)) {
+            buildTree(circuitBreaker);
+            return;
+        }
+
+        sorter.clear();
+        while (base.hasNext()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            sorter.put(baseRecord, baseRecord.getRowId());
+        }
+
+        if (sorter.size() < sorterThreshold) {
+            // too few rows to pay for the sort set up, tree does better
+            final Record placeHolderRecord = base.getRecordB();
+            for (long i = 0, n = sorter.size(); i < n; i++) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                base.recordAt(baseRecord, sorter.getInsertedRowId(i));
+                chain.put(baseRecord, base, placeHolderRecord, comparator);
+            }
+            chainCursor.toTop();
+            return;
+        }
+
+        sorter.sort(executionContext);
+        sorterActive = true;
+        sortedSize = sorter.size();
+        sortedIndex = 0;
+    }
+
+    private void buildTree(SqlExecutionCircuitBreaker circuitBreaker) {
+        final Record placeHolderRecord = base.getRecordB();
         while (base.hasNext()) {
             circuitBreaker.statefulThrowExceptionIfTripped();
             // Tree chain is liable to re-position record to
@@ -32,6 +32,7 @@ import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.std.IntList;
 
 public class SortedLightRecordCursorFactory extends AbstractRecordCursorFactory {
     private final RecordCursorFactory base;
@@ -41,7 +42,8 @@ public class SortedLightRecordCursorFactory extends AbstractRecordCursorFactory
             CairoConfiguration configuration,
             RecordMetadata metadata,
             RecordCursorFactory base,
-            RecordComparator comparator
+            RecordComparator comparator,
+            IntList sortColumnFilter
     ) {
         super(metadata);
         LongTreeChain chain = new LongTreeChain(
@@ -51,7 +53,10 @@ public class SortedLightRecordCursorFactory extends AbstractRecordCursorFactory
                         .getSqlSortLightValuePageSize(),
                 configuration.getSqlSortLightValueMaxPages());
         this.base = base;
-        this.cursor = new SortedLightRecordCursor(chain, comparator);
+        ParallelRadixSorter sorter = ParallelRadixSorter.isSupported(metadata, sortColumnFilter)
+                ? new ParallelRadixSorter(metadata, sortColumnFilter)
+                : null;
+        this.cursor = new SortedLightRecordCursor(chain, comparator, sorter, configuration.getSqlSortRadixThreshold());
     }
 
     @Override
@@ -181,6 +181,7 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable {
                     case ColumnType.GEOLONG:
                         sum += record.getGeoLong(i);
                         break;
+                    case ColumnType.VARCHAR:
                     case ColumnType.STRING:
                         CharSequence cs = record.getStr(i);
                         if (cs !=null && cs.length() > 0) {
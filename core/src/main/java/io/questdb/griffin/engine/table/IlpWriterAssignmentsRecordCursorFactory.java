@@ -0,0 +1,174 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Chars;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.ObjList;
+
+/**
+ * Lists active ILP tables with the writer threads they are assigned to and the load
+ * the scheduler measured for them.
+ */
+public final class IlpWriterAssignmentsRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final int TABLE_COLUMN_INDEX = 0;
+    private static final int WRITER_THREAD_COLUMN_INDEX = 1;
+    private static final int EVENTS_COLUMN_INDEX = 2;
+    private static final int COST_NANOS_COLUMN_INDEX = 3;
+
+    private static final RecordMetadata METADATA;
+    private final CairoEngine cairoEngine;
+    private final IlpWriterAssignmentsCursor cursor = new IlpWriterAssignmentsCursor();
+
+    public IlpWriterAssignmentsRecordCursorFactory(CairoEngine cairoEngine) {
+        super(METADATA);
+        this.cairoEngine = cairoEngine;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        cursor.clear();
+        final WriterAssignmentSource source = cairoEngine.getWriterAssignmentSource();
+        if (source != null) {
+            source.collectAssignments(cursor);
+        }
+        cursor.toTop();
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    static {
+        final GenericRecordMetadata metadata = new GenericRecordMetadata();
+        metadata.add(TABLE_COLUMN_INDEX, new TableColumnMetadata("table", 1, ColumnType.STRING))
+                .add(WRITER_THREAD_COLUMN_INDEX, new TableColumnMetadata("writer_thread", 1, ColumnType.INT))
+                .add(EVENTS_COLUMN_INDEX, new TableColumnMetadata("events", 1, ColumnType.LONG))
+                .add(COST_NANOS_COLUMN_INDEX, new TableColumnMetadata("cost_nanos", 1, ColumnType.LONG));
+        METADATA = metadata;
+    }
+
+    private static class IlpWriterAssignmentsCursor implements RecordCursor, WriterAssignmentSource.Sink {
+        private final LongList costs = new LongList();
+        private final LongList events = new LongList();
+        private final IlpWriterAssignmentRecord record = new IlpWriterAssignmentRecord();
+        private final ObjList<String> tableNames = new ObjList<>();
+        private final IntList writerThreadIds = new IntList();
+        private int index;
+
+        public void clear() {
+            tableNames.clear();
+            writerThreadIds.clear();
+            events.clear();
+            costs.clear();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public Record getRecordB() {
+            throw new UnsupportedOperationException("RecordB not implemented");
+        }
+
+        @Override
+        public boolean hasNext() {
+            return ++index < tableNames.size();
+        }
+
+        @Override
+        public void put(CharSequence tableName, int writerThreadId, long eventCount, long costNanos) {
+            tableNames.add(Chars.toString(tableName));
+            writerThreadIds.add(writerThreadId);
+            events.add(eventCount);
+            costs.add(costNanos);
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            throw new UnsupportedOperationException("Random access not implemented");
+        }
+
+        @Override
+        public long size() {
+            return tableNames.size();
+        }
+
+        @Override
+        public void toTop() {
+            index = -1;
+        }
+
+        private class IlpWriterAssignmentRecord implements Record {
+            @Override
+            public int getInt(int col) {
+                assert col == WRITER_THREAD_COLUMN_INDEX;
+                return writerThreadIds.getQuick(index);
+            }
+
+            @Override
+            public long getLong(int col) {
+                switch (col) {
+                    case EVENTS_COLUMN_INDEX:
+                        return events.getQuick(index);
+                    case COST_NANOS_COLUMN_INDEX:
+                        return costs.getQuick(index);
+                    default:
+                        throw CairoException.nonCritical().put("unsupported column number. [column=").put(col).put("]");
+                }
+            }
+
+            @Override
+            public CharSequence getStr(int col) {
+                assert col == TABLE_COLUMN_INDEX;
+                return tableNames.getQuick(index);
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                return getStr(col);
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                return getStr(col).length();
+            }
+        }
+    }
+}
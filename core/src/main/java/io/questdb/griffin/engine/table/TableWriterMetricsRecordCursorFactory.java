@@ -42,7 +42,9 @@ public final class TableWriterMetricsRecordCursorFactory extends AbstractRecordC
     private static final int ROLLBACKS_COLUMN_INDEX = 2;
     private static final int COMMITTED_ROWS_COLUMN_INDEX = 3;
     private static final int PHYSICALLY_WRITTEN_ROWS_COLUMN_INDEX = 4;
-    private static final int TOTAL_NUMBER_OF_METRIC = PHYSICALLY_WRITTEN_ROWS_COLUMN_INDEX + 1;
+    private static final int O3_MERGE_MICROS_COLUMN_INDEX = 5;
+    private static final int O3_MERGE_COPIED_BYTES_COLUMN_INDEX = 6;
+    private static final int TOTAL_NUMBER_OF_METRIC = O3_MERGE_COPIED_BYTES_COLUMN_INDEX + 1;
     private static final long METRICS_DISABLED_VALUE = -1;
     private static final String[] KEYS = new String[TOTAL_NUMBER_OF_METRIC];
     private final StringLongTuplesRecordCursor cursor = new StringLongTuplesRecordCursor();
@@ -67,12 +69,16 @@ public final class TableWriterMetricsRecordCursorFactory extends AbstractRecordC
             values[ROLLBACKS_COLUMN_INDEX] = tableWriterMetrics.getRollbackCount();
             values[COMMITTED_ROWS_COLUMN_INDEX] = tableWriterMetrics.getCommittedRows();
             values[PHYSICALLY_WRITTEN_ROWS_COLUMN_INDEX] = tableWriterMetrics.getPhysicallyWrittenRows();
+            values[O3_MERGE_MICROS_COLUMN_INDEX] = tableWriterMetrics.getO3MergeMicros();
+            values[O3_MERGE_COPIED_BYTES_COLUMN_INDEX] = tableWriterMetrics.getO3MergeCopiedBytes();
         } else {
             values[TOTAL_COMMITS_COLUMN_INDEX] = METRICS_DISABLED_VALUE;
             values[O3_COMMITS_COLUMN_INDEX] = METRICS_DISABLED_VALUE;
             values[ROLLBACKS_COLUMN_INDEX] = METRICS_DISABLED_VALUE;
             values[COMMITTED_ROWS_COLUMN_INDEX] = METRICS_DISABLED_VALUE;
             values[PHYSICALLY_WRITTEN_ROWS_COLUMN_INDEX] = METRICS_DISABLED_VALUE;
+            values[O3_MERGE_MICROS_COLUMN_INDEX] = METRICS_DISABLED_VALUE;
+            values[O3_MERGE_COPIED_BYTES_COLUMN_INDEX] = METRICS_DISABLED_VALUE;
         }
         cursor.of(KEYS, values);
         return cursor;
@@ -89,5 +95,7 @@ public final class TableWriterMetricsRecordCursorFactory extends AbstractRecordC
         KEYS[ROLLBACKS_COLUMN_INDEX] = "rollbacks";
         KEYS[COMMITTED_ROWS_COLUMN_INDEX] = "committed_rows";
         KEYS[PHYSICALLY_WRITTEN_ROWS_COLUMN_INDEX] = "physically_written_rows";
+        KEYS[O3_MERGE_MICROS_COLUMN_INDEX] = "o3_merge_micros";
+        KEYS[O3_MERGE_COPIED_BYTES_COLUMN_INDEX] = "o3_merge_copied_bytes";
     }
 }
@@ -30,9 +30,22 @@ import io.questdb.std.ObjectFactory;
 
 public final class AnalyticColumn extends QueryColumn {
     public final static ObjectFactory<AnalyticColumn> FACTORY = AnalyticColumn::new;
+    public static final int FRAMING_DEFAULT = 0;
+    public static final int FRAMING_ROWS = 1;
+    public static final int FRAMING_RANGE = 2;
+    // frame bounds are relative to the current row: negative values are PRECEDING,
+    // positive are FOLLOWING and 0 is CURRENT ROW
+    public static final long UNBOUNDED_PRECEDING = Long.MIN_VALUE;
+    public static final long UNBOUNDED_FOLLOWING = Long.MAX_VALUE;
     private final ObjList<ExpressionNode> partitionBy = new ObjList<>(2);
     private final ObjList<ExpressionNode> orderBy = new ObjList<>(2);
     private final IntList orderByDirection = new IntList(2);
+    private int framingMode = FRAMING_DEFAULT;
+    private int framingModePos;
+    private long rowsLo = UNBOUNDED_PRECEDING;
+    private int rowsLoPos;
+    private long rowsHi = 0;
+    private int rowsHiPos;
 
     private AnalyticColumn() {
     }
@@ -48,6 +61,20 @@ public final class AnalyticColumn extends QueryColumn {
         partitionBy.clear();
         orderBy.clear();
         orderByDirection.clear();
+        framingMode = FRAMING_DEFAULT;
+        framingModePos = 0;
+        rowsLo = UNBOUNDED_PRECEDING;
+        rowsLoPos = 0;
+        rowsHi = 0;
+        rowsHiPos = 0;
+    }
+
+    public int getFramingMode() {
+        return framingMode;
+    }
+
+    public int getFramingModePos() {
+        return framingModePos;
     }
 
     public ObjList<ExpressionNode> getPartitionBy() {
@@ -62,8 +89,39 @@ public final class AnalyticColumn extends QueryColumn {
         return orderByDirection;
     }
 
+    public long getRowsHi() {
+        return rowsHi;
+    }
+
+    public int getRowsHiPos() {
+        return rowsHiPos;
+    }
+
+    public long getRowsLo() {
+        return rowsLo;
+    }
+
+    public int getRowsLoPos() {
+        return rowsLoPos;
+    }
+
     @Override
     public AnalyticColumn of(CharSequence alias, ExpressionNode ast) {
         return (AnalyticColumn) super.of(alias, ast);
     }
+
+    public void setFramingMode(int framingMode, int framingModePos) {
+        this.framingMode = framingMode;
+        this.framingModePos = framingModePos;
+    }
+
+    public void setRowsHi(long rowsHi, int rowsHiPos) {
+        this.rowsHi = rowsHi;
+        this.rowsHiPos = rowsHiPos;
+    }
+
+    public void setRowsLo(long rowsLo, int rowsLoPos) {
+        this.rowsLo = rowsLo;
+        this.rowsLoPos = rowsLoPos;
+    }
 }
@@ -31,6 +31,8 @@ import io.questdb.std.str.CharSink;
 
 public class CopyModel implements ExecutionModel, Mutable, Sinkable {
     public static final ObjectFactory<CopyModel> FACTORY = CopyModel::new;
+    public static final int FORMAT_CSV = 1;
+    public static final int FORMAT_BINARY = 2;
     private ExpressionNode target; // holds table name (new import) or import id (cancel model)
     private ExpressionNode fileName;
     private boolean header;
@@ -41,6 +43,7 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
     private int partitionBy;
     private byte delimiter;
     private int atomicity;
+    private int format;
 
     public CopyModel() {
     }
@@ -56,6 +59,7 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         partitionBy = -1;
         delimiter = -1;
         atomicity = -1;
+        format = -1;
     }
 
     public int getAtomicity() {
@@ -70,6 +74,13 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         return fileName;
     }
 
+    /**
+     * @return FORMAT_CSV, FORMAT_BINARY or -1 when format is not specified
+     */
+    public int getFormat() {
+        return format;
+    }
+
     public int getPartitionBy() {
         return partitionBy;
     }
@@ -94,6 +105,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         this.fileName = fileName;
     }
 
+    public void setFormat(int format) {
+        this.format = format;
+    }
+
     @Override
     public int getModelType() {
         return ExecutionModel.COPY;
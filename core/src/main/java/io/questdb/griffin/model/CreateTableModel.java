@@ -35,6 +35,8 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
     public static final ObjectFactory<CreateTableModel> FACTORY = CreateTableModel::new;
     private static final int COLUMN_FLAG_CACHED = 1;
     private static final int COLUMN_FLAG_INDEXED = 2;
+    private static final int COLUMN_FLAG_DEDUP_KEY = 4;
+    private static final int COLUMN_FLAG_BLOOM_FILTER = 8;
     private final CharSequenceObjHashMap<ColumnCastModel> columnCastModels = new CharSequenceObjHashMap<>();
     private final LongList columnBits = new LongList();
     private final LongList columnHashes = new LongList();
@@ -49,6 +51,9 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
     private long commitLag;
     private boolean ignoreIfExists = false;
     private boolean walEnabled;
+    private ExpressionNode matViewBaseTableName;
+    private ExpressionNode matViewSampleBy;
+    private CharSequence matViewQuery;
 
     private CreateTableModel() {
     }
@@ -98,6 +103,9 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         columnHashes.clear();
         columnNameIndexMap.clear();
         ignoreIfExists = false;
+        matViewBaseTableName = null;
+        matViewSampleBy = null;
+        matViewQuery = null;
     }
 
     public CharSequenceObjHashMap<ColumnCastModel> getColumnCastModels() {
@@ -129,6 +137,25 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return getHighAt(index * 2 + 1);
     }
 
+    @Override
+    public boolean isBloomFilter(int columnIndex) {
+        return (getLowAt(columnIndex * 2 + 1) & COLUMN_FLAG_BLOOM_FILTER) != 0;
+    }
+
+    @Override
+    public boolean isDedupKey(int columnIndex) {
+        return (getLowAt(columnIndex * 2 + 1) & COLUMN_FLAG_DEDUP_KEY) != 0;
+    }
+
+    public boolean hasDedupKeys() {
+        for (int i = 0, n = getColumnCount(); i < n; i++) {
+            if (isDedupKey(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean isIndexed(int index) {
         return (getLowAt(index * 2 + 1) & COLUMN_FLAG_INDEXED) != 0;
@@ -207,6 +234,28 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return CREATE_TABLE;
     }
 
+    public ExpressionNode getMatViewBaseTableName() {
+        return matViewBaseTableName;
+    }
+
+    public CharSequence getMatViewQuery() {
+        return matViewQuery;
+    }
+
+    public ExpressionNode getMatViewSampleBy() {
+        return matViewSampleBy;
+    }
+
+    public boolean isMatView() {
+        return matViewQuery != null;
+    }
+
+    public void setMatView(ExpressionNode baseTableName, ExpressionNode sampleBy, CharSequence query) {
+        this.matViewBaseTableName = baseTableName;
+        this.matViewSampleBy = sampleBy;
+        this.matViewQuery = query;
+    }
+
     public ExpressionNode getName() {
         return name;
     }
@@ -247,6 +296,16 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         this.ignoreIfExists = flag;
     }
 
+    public void setBloomFilterFlag(int columnIndex) {
+        final int index = columnIndex * 2 + 1;
+        columnBits.setQuick(index, Numbers.encodeLowHighInts(getLowAt(index) | COLUMN_FLAG_BLOOM_FILTER, getHighAt(index)));
+    }
+
+    public void setDedupKeyFlag(int columnIndex) {
+        final int index = columnIndex * 2 + 1;
+        columnBits.setQuick(index, Numbers.encodeLowHighInts(getLowAt(index) | COLUMN_FLAG_DEDUP_KEY, getHighAt(index)));
+    }
+
     public void setIndexFlags(boolean indexFlag, int indexValueBlockSize) {
         setIndexFlags0(columnBits.size() - 1, indexFlag, indexValueBlockSize);
     }
@@ -265,7 +324,7 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
 
     @Override
     public void toSink(CharSink sink) {
-        sink.put("create table ");
+        sink.put(isMatView() ? "create materialized view " : "create table ");
         sink.put(getName().token);
         if (getQueryModel() != null) {
             sink.put(" as (");
@@ -336,6 +395,10 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
                         sink.put(" index capacity ");
                         sink.put(getIndexBlockCapacity(i));
                     }
+
+                    if (isBloomFilter(i)) {
+                        sink.put(" bloom");
+                    }
                 }
             }
             sink.put(')');
@@ -350,6 +413,21 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         if (partitionBy != null) {
             sink.put(" partition by ").put(partitionBy.token);
         }
+
+        if (hasDedupKeys()) {
+            sink.put(" dedup upsert keys(");
+            boolean first = true;
+            for (int i = 0, n = getColumnCount(); i < n; i++) {
+                if (isDedupKey(i)) {
+                    if (!first) {
+                        sink.put(", ");
+                    }
+                    sink.put(getColumnName(i));
+                    first = false;
+                }
+            }
+            sink.put(')');
+        }
     }
 
     private int getHighAt(int index) {
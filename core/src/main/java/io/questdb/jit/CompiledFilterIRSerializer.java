@@ -88,6 +88,10 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
     static final int I8_TYPE = 4;
     static final int F8_TYPE = 5;
 
+    // IN lists are expanded into a chain of equality checks; longer lists are
+    // left to the hash set based Java function
+    static final int MAX_IN_LIST_SIZE = 64;
+
     private final PostOrderTreeTraversalAlgo traverseAlgo = new PostOrderTreeTraversalAlgo();
     private final PredicateContext predicateContext = new PredicateContext();
     // contains <memory_offset, constant_node> pairs for backfilling purposes
@@ -183,6 +187,11 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         // Check if we're at the start of an arithmetic expression
         predicateContext.onNodeDescended(node);
 
+        if (SqlKeywords.isInKeyword(node.token) && node.paramCount > 1) {
+            serializeIn(node);
+            return false;
+        }
+
         // Look ahead for negative const
         if (node.type == ExpressionNode.OPERATION && node.paramCount == 1 && Chars.equals(node.token, "-")) {
             ExpressionNode nextNode = node.lhs != null ? node.lhs : node.rhs;
@@ -220,6 +229,10 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
             serializeOperator(node.position, node.token, argCount);
         }
 
+        onNodeVisited(node);
+    }
+
+    private void onNodeVisited(ExpressionNode node) throws SqlException {
         boolean predicateLeft = predicateContext.onNodeVisited(node);
 
         if (predicateLeft) {
@@ -320,6 +333,50 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         putOperand(MEM, typeCode, index);
     }
 
+    /**
+     * Writes "col in (a, b, c)" as "col = a or col = b or col = c". Only SYMBOL
+     * and CHAR columns have IN functions, so only these are supported.
+     */
+    private void serializeIn(final ExpressionNode node) throws SqlException {
+        final ExpressionNode rootNode = predicateContext.rootNode;
+        if (rootNode != node && !(SqlKeywords.isNotKeyword(rootNode.token) && (rootNode.lhs == node || rootNode.rhs == node))) {
+            throw SqlException.position(node.position).put("IN list inside of expression");
+        }
+
+        final int valueCount = node.paramCount - 1;
+        if (valueCount > MAX_IN_LIST_SIZE) {
+            throw SqlException.position(node.position)
+                    .put("too many values in IN list [count=").put(valueCount)
+                    .put(", max=").put(MAX_IN_LIST_SIZE)
+                    .put(']');
+        }
+
+        final ExpressionNode columnNode = node.paramCount < 3 ? node.lhs : node.args.getLast();
+        if (!isInListColumn(columnNode)) {
+            throw SqlException.position(columnNode.position)
+                    .put("unsupported IN list column: ")
+                    .put(columnNode.token);
+        }
+
+        for (int i = 0; i < valueCount; i++) {
+            // args are stored in reverse order, the column is the last one
+            final ExpressionNode valueNode = node.paramCount < 3 ? node.rhs : node.args.getQuick(valueCount - 1 - i);
+            if (valueNode.type != ExpressionNode.CONSTANT && valueNode.type != ExpressionNode.BIND_VARIABLE) {
+                throw SqlException.position(valueNode.position)
+                        .put("unsupported IN list value: ")
+                        .put(valueNode.token);
+            }
+            visit(valueNode);
+            visit(columnNode);
+            putOperator(EQ);
+            if (i > 0) {
+                putOperator(OR);
+            }
+        }
+
+        onNodeVisited(node);
+    }
+
     private void serializeBindVariable(final ExpressionNode node) throws SqlException {
         if (!predicateContext.isActive()) {
             throw SqlException.position(node.position)
@@ -823,6 +880,9 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         if (Chars.equals(token, "=")) {
             return true;
         }
+        if (SqlKeywords.isInKeyword(token)) {
+            return true;
+        }
         if (Chars.equals(token, "<>") || Chars.equals(token, "!=")) {
             return true;
         }
@@ -864,6 +924,18 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         return columnTypeTag == ColumnType.BOOLEAN;
     }
 
+    private boolean isInListColumn(ExpressionNode node) {
+        if (node == null || node.type != ExpressionNode.LITERAL) {
+            return false;
+        }
+        int index = metadata.getColumnIndexQuiet(node.token);
+        if (index == -1) {
+            return false;
+        }
+        final int columnTypeTag = ColumnType.tagOf(metadata.getColumnType(index));
+        return columnTypeTag == ColumnType.SYMBOL || columnTypeTag == ColumnType.CHAR;
+    }
+
     private static boolean isArithmeticOperation(ExpressionNode node) {
         final CharSequence token = node.token;
         if (node.paramCount < 2) {
@@ -28,12 +28,16 @@ import io.questdb.std.Numbers;
 import io.questdb.std.Unsafe;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
 
 //abstract multi producer or consumer sequence 
 abstract class AbstractMSequence extends AbstractSSequence {
     private final int[] flags;
     private final int mask;
     private final int shift;
+    // contention counters, they are only touched on the slow path
+    private final LongAdder casFailureCounter = new LongAdder();
+    private final LongAdder parkCounter = new LongAdder();
 
     AbstractMSequence(int cycle, WaitStrategy waitStrategy) {
         super(waitStrategy);
@@ -51,6 +55,34 @@ abstract class AbstractMSequence extends AbstractSSequence {
         return l - 1;
     }
 
+    @Override
+    public long waitForNext() {
+        long r;
+        WaitStrategy waitStrategy = getWaitStrategy();
+        while ((r = next()) < 0) {
+            if (r == -2) {
+                continue;
+            }
+            parkCounter.increment();
+            waitStrategy.await();
+        }
+        return r;
+    }
+
+    /**
+     * @return number of times a thread lost the race to claim a cursor of this sequence
+     */
+    public long getCasFailureCount() {
+        return casFailureCounter.sum();
+    }
+
+    /**
+     * @return number of times a thread waited on the wait strategy of this sequence for a cursor
+     */
+    public long getParkCount() {
+        return parkCounter.sum();
+    }
+
     @Override
     public long current() {
         return value;
@@ -67,7 +99,12 @@ abstract class AbstractMSequence extends AbstractSSequence {
         barrier.getWaitStrategy().signal();
     }
 
-    private boolean available0(long lo) {
+    protected long casFailed() {
+        casFailureCounter.increment();
+        return -2;
+    }
+
+    boolean available0(long lo) {
         return Unsafe.getUnsafe().getIntVolatile(flags, (((lo & mask)) << Unsafe.INT_SCALE) + Unsafe.INT_OFFSET) == (int) (lo >>> shift);
     }
 }
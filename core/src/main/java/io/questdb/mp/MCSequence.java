@@ -75,6 +75,6 @@ public class MCSequence extends AbstractMSequence {
                 return -1;
             }
         }
-        return casValue(current, next) ? next : -2;
+        return casValue(current, next) ? next : casFailed();
     }
 }
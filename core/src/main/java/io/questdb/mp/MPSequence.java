@@ -49,7 +49,7 @@ public class MPSequence extends AbstractMSequence {
         long lo = next - cycle;
 
         if (lo <= cached) {
-            return casValue(current, next) ? next : -2;
+            return casValue(current, next) ? next : casFailed();
         }
 
         final long avail = barrier.availableIndex(lo);
@@ -57,7 +57,7 @@ public class MPSequence extends AbstractMSequence {
         if (avail > cached) {
             setCacheFenced(avail);
             if (lo <= avail) {
-                return casValue(current, next) ? next : -2;
+                return casValue(current, next) ? next : casFailed();
             }
         }
         return -1;
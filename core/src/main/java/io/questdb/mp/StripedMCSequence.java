@@ -0,0 +1,180 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.mp;
+
+import io.questdb.std.NumaTopology;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+
+/**
+ * Multi consumer sequence that splits the queue into stripes to reduce CAS
+ * contention between consumers. Cursor belongs to stripe {@code cursor % stripeCount}
+ * and every stripe has its own consumer position on a separate cache line.
+ * Consumer claims cursors of its "home" stripe first, which is derived from the
+ * worker id or, for non-worker threads, from the thread id. When the home stripe
+ * is empty or contended, the consumer steals from the other stripes, so that a
+ * stripe without consumers never blocks the queue.
+ * <p>
+ * Workers of NUMA aware pools get home stripes from an aligned group of stripes
+ * of their node and steal within that group first. Stripe cursors are then mostly
+ * updated by the CPUs of a single node and their cache lines stay on that socket.
+ * <p>
+ * Consumers release slots via {@link #done(long)} exactly as with {@link MCSequence},
+ * so producers and downstream barriers observe the same contiguous index.
+ */
+public class StripedMCSequence extends MCSequence {
+    // 16 longs, the stripe cursors are 128 bytes apart to keep adjacent cache line prefetch out
+    private static final int STRIPE_SHIFT = 4;
+    private static final int VALUE = 0;
+    private static final int CACHE = 1;
+    private final int nodeStripeMask;
+    private final int nodeStripeShift;
+    private final int stripeCount;
+    private final int stripeMask;
+    private final long[] stripes;
+
+    public StripedMCSequence(int cycle, int stripeCount) {
+        this(cycle, stripeCount, null);
+    }
+
+    public StripedMCSequence(int cycle, int stripeCount, WaitStrategy waitStrategy) {
+        super(cycle, waitStrategy);
+        assert stripeCount > 0 && stripeCount <= cycle;
+        this.stripeCount = Numbers.ceilPow2(stripeCount);
+        this.stripeMask = this.stripeCount - 1;
+        // stripes per NUMA node, rounded down to a power of two so that node groups are aligned
+        final int nodeCount = NumaTopology.INSTANCE.getNodeCount();
+        this.nodeStripeShift = Math.max(0, Numbers.msb(Math.max(1, this.stripeCount / nodeCount)));
+        this.nodeStripeMask = (1 << nodeStripeShift) - 1;
+        // extra stripe worth of padding in front of the first cursor
+        this.stripes = new long[(this.stripeCount + 1) << STRIPE_SHIFT];
+        setCurrent(-1);
+    }
+
+    @SuppressWarnings("StatementWithEmptyBody")
+    @Override
+    public long availableIndex(final long lo) {
+        long l = lo;
+        for (long hi = current() + 1; l < hi && available0(l); l++) ;
+        return l - 1;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        setCurrent(-1);
+    }
+
+    /**
+     * @return the highest cursor claimed by any of the stripes; cursors below it
+     * may still be unclaimed when stripes progress unevenly
+     */
+    @Override
+    public long current() {
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < stripeCount; i++) {
+            max = Math.max(max, Unsafe.arrayGetVolatile(stripes, index(i, VALUE)));
+        }
+        return max;
+    }
+
+    public int getStripeCount() {
+        return stripeCount;
+    }
+
+    @Override
+    public long next() {
+        final int home = homeStripe();
+        long cursor = next(home);
+        if (cursor > -1) {
+            return cursor;
+        }
+
+        boolean contended = cursor == -2;
+        // xor order visits the aligned group of the home stripe before the other groups
+        for (int i = 1; i < stripeCount; i++) {
+            cursor = next(home ^ i);
+            if (cursor > -1) {
+                return cursor;
+            }
+            contended |= cursor == -2;
+        }
+        return contended ? -2 : -1;
+    }
+
+    /**
+     * Positions every stripe so that the next cursor it claims is the first
+     * cursor of that stripe above the given value.
+     *
+     * @param value the last consumed cursor
+     */
+    @Override
+    public void setCurrent(long value) {
+        for (int i = 0; i < stripeCount; i++) {
+            final long v = value - ((value - i) & stripeMask);
+            Unsafe.arrayPutOrdered(stripes, index(i, VALUE), v);
+            Unsafe.arrayPutOrdered(stripes, index(i, CACHE), Math.max(v, -1));
+        }
+    }
+
+    private static int index(int stripe, int field) {
+        return ((stripe + 1) << STRIPE_SHIFT) + field;
+    }
+
+    private int homeStripe() {
+        final Thread thread = Thread.currentThread();
+        if (thread instanceof Worker) {
+            final Worker worker = (Worker) thread;
+            final int node = worker.getNumaNode();
+            if (node > -1) {
+                return ((node << nodeStripeShift) | (worker.getWorkerId() & nodeStripeMask)) & stripeMask;
+            }
+            return worker.getWorkerId() & stripeMask;
+        }
+        return (int) thread.getId() & stripeMask;
+    }
+
+    private long next(int stripe) {
+        final int valueIndex = index(stripe, VALUE);
+        final int cacheIndex = index(stripe, CACHE);
+        // same as in MCSequence, cache has to be read before value
+        final long cached = stripes[cacheIndex];
+        final long current = Unsafe.arrayGetVolatile(stripes, valueIndex);
+        final long next = current + stripeCount;
+
+        if (next > cached) {
+            final long avail = barrier.availableIndex(next);
+            if (avail > cached) {
+                Unsafe.arrayPutOrdered(stripes, cacheIndex, avail);
+                if (next > avail) {
+                    return -1;
+                }
+            } else {
+                return -1;
+            }
+        }
+        return Unsafe.cas(stripes, valueIndex, current, next) ? next : casFailed();
+    }
+}
@@ -42,6 +42,7 @@ public class Worker extends Thread {
     private final WorkerCleaner cleaner;
     private final boolean haltOnError;
     private final int workerId;
+    private final int numaNode;
     private final long sleepMs;
     private final long yieldThreshold;
     private final long sleepThreshold;
@@ -62,6 +63,24 @@ public class Worker extends Thread {
             long sleepThreshold,
             long sleepMs,
             HealthMetrics metrics
+    ) {
+        this(jobs, haltLatch, affinity, log, cleaner, haltOnError, workerId, poolName, yieldThreshold, sleepThreshold, sleepMs, metrics, -1);
+    }
+
+    public Worker(
+            final ObjHashSet<? extends Job> jobs,
+            final SOCountDownLatch haltLatch,
+            final int affinity,
+            final Log log,
+            final WorkerCleaner cleaner,
+            final boolean haltOnError,
+            final int workerId,
+            String poolName,
+            long yieldThreshold,
+            long sleepThreshold,
+            long sleepMs,
+            HealthMetrics metrics,
+            int numaNode
     ) {
         this.log = log;
         this.jobs = jobs;
@@ -71,6 +90,7 @@ public class Worker extends Thread {
         this.cleaner = cleaner;
         this.haltOnError = haltOnError;
         this.workerId = workerId;
+        this.numaNode = numaNode;
         this.yieldThreshold = yieldThreshold;
         this.sleepThreshold = sleepThreshold;
         this.sleepMs = sleepMs;
@@ -78,6 +98,13 @@ public class Worker extends Thread {
         this.criticalErrorLine = "0000-00-00T00:00:00.000000Z C Unhandled exception in worker " + getName();
     }
 
+    /**
+     * @return NUMA node of the worker or -1 when its pool is not NUMA aware
+     */
+    public int getNumaNode() {
+        return numaNode;
+    }
+
     public int getWorkerId() {
         return workerId;
     }
@@ -94,7 +121,7 @@ public class Worker extends Thread {
                 if (affinity > -1) {
                     if (Os.setCurrentThreadAffinity(this.affinity) == 0) {
                         if (log != null) {
-                            log.info().$("affinity set [cpu=").$(affinity).$(", name=").$(getName()).I$();
+                            log.info().$("affinity set [cpu=").$(affinity).$(", numaNode=").$(numaNode).$(", name=").$(getName()).I$();
                         }
                     } else {
                         if (log != null) {
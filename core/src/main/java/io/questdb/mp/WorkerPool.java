@@ -26,7 +26,9 @@ package io.questdb.mp;
 
 import io.questdb.log.Log;
 import io.questdb.metrics.HealthMetrics;
+import io.questdb.std.IntHashSet;
 import io.questdb.std.Misc;
+import io.questdb.std.NumaTopology;
 import io.questdb.std.ObjHashSet;
 import io.questdb.std.ObjList;
 import io.questdb.std.str.Path;
@@ -50,6 +52,7 @@ public class WorkerPool implements Closeable {
     private final AtomicBoolean closed = new AtomicBoolean();
     private final int workerCount;
     private final int[] workerAffinity;
+    private final int[] workerNumaNodes;
     private final SOCountDownLatch started = new SOCountDownLatch(1);
     private final ObjList<ObjHashSet<Job>> workerJobs;
     private final SOCountDownLatch halted;
@@ -72,10 +75,17 @@ public class WorkerPool implements Closeable {
         this.workerCount = configuration.getWorkerCount();
         int[] workerAffinity = configuration.getWorkerAffinity();
         if (workerAffinity != null && workerAffinity.length > 0) {
-            this.workerAffinity = workerAffinity;
+            // copy, NUMA assignment must not change the configuration
+            this.workerAffinity = workerAffinity.clone();
         } else {
             this.workerAffinity = Misc.getWorkerAffinity(workerCount);
         }
+        if (configuration.isNumaAware()) {
+            this.workerNumaNodes = new int[workerCount];
+            assignNumaNodes(NumaTopology.INSTANCE, this.workerAffinity, workerNumaNodes);
+        } else {
+            this.workerNumaNodes = null;
+        }
         this.halted = new SOCountDownLatch(workerCount);
         this.haltOnError = configuration.haltOnError();
         this.daemons = configuration.isDaemonPool();
@@ -145,6 +155,14 @@ public class WorkerPool implements Closeable {
         return workerCount;
     }
 
+    /**
+     * @param worker worker index
+     * @return NUMA node the worker belongs to or -1 when the pool is not NUMA aware
+     */
+    public int getWorkerNumaNode(int worker) {
+        return workerNumaNodes != null ? workerNumaNodes[worker] : -1;
+    }
+
     public void halt() {
         if (closed.compareAndSet(false, true)) {
             if (running.compareAndSet(true, false)) {
@@ -193,7 +211,8 @@ public class WorkerPool implements Closeable {
                         yieldThreshold,
                         sleepThreshold,
                         sleepMs,
-                        metrics
+                        metrics,
+                        workerNumaNodes != null ? workerNumaNodes[i] : -1
                 );
                 worker.setDaemon(daemons);
                 workers.add(worker);
@@ -205,4 +224,49 @@ public class WorkerPool implements Closeable {
             started.countDown();
         }
     }
+
+    /**
+     * Splits workers into contiguous per node groups, sized proportionally to the number
+     * of CPUs on every node. Workers with explicit affinity stay on their CPU and join the
+     * node of that CPU. The rest is pinned to free CPUs of their node, or stays unpinned
+     * once the node runs out of CPUs.
+     */
+    static void assignNumaNodes(NumaTopology topology, int[] affinity, int[] numaNodes) {
+        final int workerCount = affinity.length;
+        final int nodeCount = topology.getNodeCount();
+        int cpuCount = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            cpuCount += topology.getCpuCount(node);
+        }
+
+        final IntHashSet pinned = new IntHashSet();
+        for (int i = 0; i < workerCount; i++) {
+            if (affinity[i] > -1) {
+                pinned.add(affinity[i]);
+            }
+        }
+
+        final int[] nextCpu = new int[nodeCount];
+        int node = 0;
+        int nodeCpuLimit = topology.getCpuCount(0);
+        for (int i = 0; i < workerCount; i++) {
+            if (affinity[i] > -1) {
+                numaNodes[i] = Math.max(topology.getNode(affinity[i]), 0);
+                continue;
+            }
+            // move to the next node once this node has its proportional share of workers
+            while (node < nodeCount - 1 && (long) i * cpuCount >= (long) nodeCpuLimit * workerCount) {
+                nodeCpuLimit += topology.getCpuCount(++node);
+            }
+            numaNodes[i] = node;
+            int cpu;
+            do {
+                cpu = topology.getCpu(node, nextCpu[node]++);
+            } while (cpu > -1 && pinned.contains(cpu));
+            if (cpu > -1) {
+                pinned.add(cpu);
+            }
+            affinity[i] = cpu;
+        }
+    }
 }
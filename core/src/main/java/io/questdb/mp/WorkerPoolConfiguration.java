@@ -58,4 +58,15 @@ public interface WorkerPoolConfiguration {
     default boolean isEnabled() {
         return true;
     }
+
+    /**
+     * When set, workers are split into per NUMA node groups of contiguous worker ids.
+     * Workers without explicit affinity are pinned to CPUs of their node, so that
+     * the per-worker memory they touch first is allocated on that node.
+     *
+     * @return true to group workers by NUMA node
+     */
+    default boolean isNumaAware() {
+        return false;
+    }
 }
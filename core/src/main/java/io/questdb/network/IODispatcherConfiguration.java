@@ -24,6 +24,8 @@
 
 package io.questdb.network;
 
+import io.questdb.std.IOURingFacade;
+import io.questdb.std.IOURingFacadeImpl;
 import io.questdb.std.Numbers;
 import io.questdb.std.Os;
 import io.questdb.std.datetime.millitime.MillisecondClock;
@@ -66,6 +68,10 @@ public interface IODispatcherConfiguration {
         return false;
     }
 
+    default IOURingFacade getIOURingFacade() {
+        return IOURingFacadeImpl.INSTANCE;
+    }
+
     default int getListenBacklog() {
         if (Os.type == Os.WINDOWS && getHint()) {
             // Windows OS might have a limit of 200 concurrent connections. To overcome
@@ -90,4 +96,12 @@ public interface IODispatcherConfiguration {
     int getSndBufSize();
 
     long getQueueTimeout();
+
+    /**
+     * When enabled and io_uring is available, Linux dispatcher receives data on behalf of
+     * {@link RecvBufferIOContext} contexts via io_uring instead of epoll and a recv() call per socket.
+     */
+    default boolean isIOURingEnabled() {
+        return false;
+    }
 }
@@ -0,0 +1,333 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.network;
+
+import io.questdb.std.IOURing;
+import io.questdb.std.LongMatrix;
+
+/**
+ * Linux dispatcher that receives data for {@link RecvBufferIOContext} contexts via io_uring. Receive
+ * operations are submitted straight into the context buffers in a single io_uring_enter() call per
+ * dispatcher iteration and completions are reaped from the shared completion queue, so there is no
+ * epoll_ctl() re-arm or recv() call per ready socket. Write interest, listener socket and contexts
+ * that do not expose their receive buffer are handled with epoll, same as {@link IODispatcherLinux}.
+ */
+public class IODispatcherLinuxIOURing<C extends IOContext> extends AbstractIODispatcher<C> {
+    private static final int M_ID = 2;
+    // set on receive rows when the connection timed out and its receive was cancelled
+    private static final int M_CANCELLED = 3;
+    private final Epoll epoll;
+    private final IOURing ring;
+    // contexts with a receive operation in flight, ordered by timestamp and by operation id
+    private final LongMatrix<C> pendingRecv = new LongMatrix<>(4);
+    private long fdid = 1;
+    // number of sqes enqueued since the last submit
+    private int unsubmitted = 0;
+
+    public IODispatcherLinuxIOURing(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory
+    ) {
+        super(configuration, ioContextFactory);
+        this.epoll = new Epoll(configuration.getEpollFacade(), configuration.getEventCapacity());
+        // there is at most one receive in flight per connection, cancellations are submitted as they are enqueued
+        this.ring = configuration.getIOURingFacade().newInstance(configuration.getEventCapacity());
+        registerListenerFd();
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        // kernel may still write to the receive buffers, contexts can be freed
+        // only after all in-flight receive operations completed
+        for (int i = 0, n = pendingRecv.size(); i < n; i++) {
+            if (pendingRecv.get(i, M_CANCELLED) == 0) {
+                cancelRecv(i);
+            }
+        }
+        while (pendingRecv.size() > 0) {
+            ring.submitAndWait();
+            unsubmitted = 0;
+            while (ring.nextCqe()) {
+                final int row = pendingRecv.binarySearch(ring.getCqeId(), M_ID);
+                if (row > -1) {
+                    final C context = pendingRecv.get(row);
+                    pendingRecv.deleteRow(row);
+                    doDisconnect(context, DISCONNECT_SRC_SHUTDOWN);
+                }
+            }
+        }
+        ring.close();
+        epoll.close();
+        LOG.info().$("closed").$();
+    }
+
+    private void cancelRecv(int row) {
+        long id = ring.enqueueCancel(pendingRecv.get(row, M_ID));
+        if (id < 0) {
+            submit();
+            id = ring.enqueueCancel(pendingRecv.get(row, M_ID));
+        }
+        if (id > -1) {
+            unsubmitted++;
+            pendingRecv.set(row, M_CANCELLED, 1);
+        }
+    }
+
+    private void enqueuePending(int watermark) {
+        for (int i = watermark, sz = pending.size(), offset = 0; i < sz; i++, offset += EpollAccessor.SIZEOF_EVENT) {
+            epoll.setOffset(offset);
+            if (
+                    epoll.control(
+                            (int) pending.get(i, M_FD),
+                            pending.get(i, M_ID),
+                            EpollAccessor.EPOLL_CTL_ADD,
+                            initialBias == IODispatcherConfiguration.BIAS_READ ? EpollAccessor.EPOLLIN : EpollAccessor.EPOLLOUT
+                    ) < 0) {
+                LOG.debug().$("epoll_ctl failure ").$(nf.errno()).$();
+            }
+        }
+    }
+
+    private void enqueueRecv(C context, long timestamp) {
+        final RecvBufferIOContext recvContext = (RecvBufferIOContext) context;
+        final int len = recvContext.getRecvBufferSize();
+        if (len < 1) {
+            // nothing can be received, let the context deal with its buffer
+            publishOperation(IOOperation.READ, context);
+            return;
+        }
+        final long fd = context.getFd();
+        long id = ring.enqueueRecv(fd, recvContext.getRecvBufferAddress(), len);
+        if (id < 0) {
+            // submission queue is full
+            submit();
+            id = ring.enqueueRecv(fd, recvContext.getRecvBufferAddress(), len);
+        }
+        if (id < 0) {
+            LOG.error().$("could not enqueue receive [fd=").$(fd).I$();
+            doDisconnect(context, DISCONNECT_SRC_QUEUE);
+            return;
+        }
+        unsubmitted++;
+        LOG.debug().$("receive enqueued [fd=").$(fd).$(", id=").$(id).$(']').$();
+        final int r = pendingRecv.addRow();
+        pendingRecv.set(r, M_TIMESTAMP, timestamp);
+        pendingRecv.set(r, M_FD, fd);
+        pendingRecv.set(r, M_ID, id);
+        pendingRecv.set(r, M_CANCELLED, 0);
+        pendingRecv.set(r, context);
+    }
+
+    private boolean isRecvContext(int operation, C context) {
+        return operation == IOOperation.READ && context instanceof RecvBufferIOContext;
+    }
+
+    private void processIdleConnections(long deadline) {
+        int count = 0;
+        for (int i = 0, n = pending.size(); i < n && pending.get(i, M_TIMESTAMP) < deadline; i++, count++) {
+            doDisconnect(pending.get(i), DISCONNECT_SRC_IDLE);
+        }
+        pending.zapTop(count);
+    }
+
+    private void processIdleRecvs(long deadline) {
+        // receive buffer belongs to the kernel until the operation completes,
+        // connection is closed once the cancelled receive produces its cqe
+        for (int i = 0, n = pendingRecv.size(); i < n && pendingRecv.get(i, M_TIMESTAMP) < deadline; i++) {
+            if (pendingRecv.get(i, M_CANCELLED) == 0) {
+                cancelRecv(i);
+            }
+        }
+    }
+
+    private boolean processRecvCompletions(long timestamp) {
+        boolean useful = false;
+        while (ring.nextCqe()) {
+            useful = true;
+            final long id = ring.getCqeId();
+            final int row = pendingRecv.binarySearch(id, M_ID);
+            if (row < 0) {
+                // completion of a cancel operation
+                continue;
+            }
+            final int res = ring.getCqeRes();
+            final C context = pendingRecv.get(row);
+            final boolean cancelled = pendingRecv.get(row, M_CANCELLED) == 1;
+            pendingRecv.deleteRow(row);
+            if (cancelled) {
+                doDisconnect(context, DISCONNECT_SRC_IDLE);
+            } else if (res == -Net.EWOULDBLOCK) {
+                // Kernel does not wait for data on non-blocking sockets. Wait for the socket
+                // to become readable with epoll and submit receive again.
+                registerEpoll(context, IOOperation.READ, timestamp, 0);
+            } else {
+                ((RecvBufferIOContext) context).onRecv(res);
+                publishOperation(IOOperation.READ, context);
+            }
+        }
+        return useful;
+    }
+
+    private boolean processRegistrations(long timestamp) {
+        long cursor;
+        int offset = 0;
+        boolean useful = false;
+        while ((cursor = interestSubSeq.next()) > -1) {
+            IOEvent<C> evt = interestQueue.get(cursor);
+            C context = evt.context;
+            int operation = evt.operation;
+            interestSubSeq.done(cursor);
+            useful = true;
+
+            if (isRecvContext(operation, context)) {
+                enqueueRecv(context, timestamp);
+            } else {
+                registerEpoll(context, operation, timestamp, offset);
+                offset += EpollAccessor.SIZEOF_EVENT;
+            }
+        }
+        return useful;
+    }
+
+    private void registerEpoll(C context, int operation, long timestamp, int offset) {
+        final int fd = (int) context.getFd();
+        final long id = fdid++;
+        final int event = operation == IOOperation.READ ? EpollAccessor.EPOLLIN : EpollAccessor.EPOLLOUT;
+        LOG.debug().$("registered [fd=").$(fd).$(", op=").$(operation).$(", id=").$(id).$(']').$();
+        epoll.setOffset(offset);
+        // sockets that have been receiving via io_uring are not known to epoll yet
+        if (
+                epoll.control(fd, id, EpollAccessor.EPOLL_CTL_MOD, event) < 0
+                        && epoll.control(fd, id, EpollAccessor.EPOLL_CTL_ADD, event) < 0
+        ) {
+            LOG.error().$("epoll_ctl failure [fd=").$(fd).$(", errno=").$(nf.errno()).$(']').$();
+        }
+
+        int r = pending.addRow();
+        pending.set(r, M_TIMESTAMP, timestamp);
+        pending.set(r, M_FD, fd);
+        pending.set(r, M_ID, id);
+        pending.set(r, context);
+    }
+
+    @Override
+    protected void pendingAdded(int index) {
+        final C context = pending.get(index);
+        if (initialBias == IODispatcherConfiguration.BIAS_READ && context instanceof RecvBufferIOContext) {
+            final long timestamp = pending.get(index, M_TIMESTAMP);
+            pending.deleteRow(index);
+            enqueueRecv(context, timestamp);
+        } else {
+            pending.set(index, M_ID, fdid++);
+        }
+    }
+
+    @Override
+    protected boolean runSerially() {
+        boolean useful = false;
+
+        final long timestamp = clock.getTicks();
+        processDisconnects(timestamp);
+        final int n = epoll.poll();
+        int watermark = pending.size();
+        int offset = 0;
+        if (n > 0) {
+            // check all activated FDs
+            LOG.debug().$("epoll [n=").$(n).$(']').$();
+            for (int i = 0; i < n; i++) {
+                epoll.setOffset(offset);
+                offset += EpollAccessor.SIZEOF_EVENT;
+                final long id = epoll.getData();
+                // this is server socket, accept if there aren't too many already
+                if (id == 0) {
+                    accept(timestamp);
+                } else {
+                    int row = pending.binarySearch(id, M_ID);
+                    if (row < 0) {
+                        LOG.error().$("internal error: epoll returned unexpected id [id=").$(id).$(']').$();
+                        continue;
+                    }
+
+                    final C context = pending.get(row);
+                    final int operation = (epoll.getEvent() & EpollAccessor.EPOLLIN) > 0 ? IOOperation.READ : IOOperation.WRITE;
+                    pending.deleteRow(row);
+                    watermark--;
+                    if (isRecvContext(operation, context)) {
+                        // socket is readable, receive completes without waiting
+                        enqueueRecv(context, timestamp);
+                    } else {
+                        publishOperation(operation, context);
+                    }
+                }
+            }
+
+            // process rows over watermark
+            if (watermark < pending.size()) {
+                enqueuePending(watermark);
+            }
+            useful = true;
+        }
+
+        if (processRecvCompletions(timestamp)) {
+            useful = true;
+        }
+
+        // process timed out connections
+        final long deadline = timestamp - idleConnectionTimeout;
+        if (pending.size() > 0 && pending.get(0, M_TIMESTAMP) < deadline) {
+            processIdleConnections(deadline);
+            useful = true;
+        }
+        if (pendingRecv.size() > 0 && pendingRecv.get(0, M_TIMESTAMP) < deadline) {
+            processIdleRecvs(deadline);
+        }
+
+        if (processRegistrations(timestamp)) {
+            useful = true;
+        }
+
+        // single syscall submits receive operations for all registered contexts
+        submit();
+        return useful;
+    }
+
+    private void submit() {
+        if (unsubmitted > 0) {
+            ring.submit();
+            unsubmitted = 0;
+        }
+    }
+
+    @Override
+    protected void registerListenerFd() {
+        this.epoll.listen(serverFd);
+    }
+
+    @Override
+    protected void unregisterListenerFd() {
+        this.epoll.removeListen(serverFd);
+    }
+}
@@ -0,0 +1,51 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.network;
+
+/**
+ * Context that lets the dispatcher receive data into its buffer. Completion based dispatchers
+ * receive straight into the buffer and then hand the context over for the read operation, so
+ * the context must not read from the socket itself once it has been notified via {@link #onRecv(int)}.
+ */
+public interface RecvBufferIOContext extends IOContext {
+
+    /**
+     * @return address the next received bytes should be written to
+     */
+    long getRecvBufferAddress();
+
+    /**
+     * @return number of bytes available at {@link #getRecvBufferAddress()}
+     */
+    int getRecvBufferSize();
+
+    /**
+     * Called by the dispatcher before it publishes read operation for the context.
+     *
+     * @param res number of bytes received into the buffer, 0 when peer closed the connection
+     *            or negative errno when receive failed
+     */
+    void onRecv(int res);
+}
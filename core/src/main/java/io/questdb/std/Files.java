@@ -46,6 +46,7 @@ public final class Files {
     public static final int POSIX_FADV_RANDOM;
     public static final int POSIX_MADV_SEQUENTIAL;
     public static final int POSIX_MADV_RANDOM;
+    public static final int POSIX_MADV_WILLNEED;
     public static final int FILES_RENAME_OK = 0;
     public static final int FILES_RENAME_ERR_EXDEV = 1;
     public static final int FILES_RENAME_ERR_OTHER = 2;
@@ -462,11 +463,14 @@ public final class Files {
             POSIX_FADV_SEQUENTIAL = getPosixFadvSequential();
             POSIX_MADV_RANDOM = getPosixMadvRandom();
             POSIX_MADV_SEQUENTIAL = getPosixMadvSequential();
+            // same value on all Linux architectures
+            POSIX_MADV_WILLNEED = 3;
         } else {
             POSIX_FADV_SEQUENTIAL = -1;
             POSIX_FADV_RANDOM = -1;
             POSIX_MADV_SEQUENTIAL = -1;
             POSIX_MADV_RANDOM = -1;
+            POSIX_MADV_WILLNEED = -1;
         }
     }
 }
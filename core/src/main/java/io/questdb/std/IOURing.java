@@ -33,8 +33,30 @@ public interface IOURing extends Closeable {
     @Override
     void close();
 
+    /**
+     * Enqueues cancellation of a previously enqueued operation. Cancelled operation
+     * still produces its cqe, typically with -ECANCELED result.
+     *
+     * @param id id of the operation to cancel
+     * @return id of the cancel operation or -1 if there are no sqes available.
+     */
+    long enqueueCancel(long id);
+
+    /**
+     * Enqueues madvise(2) call for the given memory range. Used to start read-ahead
+     * of mapped files without blocking the calling thread.
+     *
+     * @param addr   start address of the range
+     * @param len    length of the range
+     * @param advice madvise advice, e.g. {@link Files#POSIX_MADV_WILLNEED}
+     * @return id of the operation or -1 if there are no sqes available.
+     */
+    long enqueueMadvise(long addr, int len, int advice);
+
     long enqueueRead(long fd, long offset, long bufPtr, int len);
 
+    long enqueueRecv(long fd, long bufPtr, int len);
+
     long getCqeId();
 
     int getCqeRes();
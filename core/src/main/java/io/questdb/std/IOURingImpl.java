@@ -94,11 +94,26 @@ public class IOURingImpl implements IOURing {
         closed = true;
     }
 
+    @Override
+    public long enqueueCancel(long id) {
+        return enqueueSqe(IORING_OP_ASYNC_CANCEL, -1, 0, id, 0);
+    }
+
+    @Override
+    public long enqueueMadvise(long addr, int len, int advice) {
+        return enqueueSqe(IORING_OP_MADVISE, -1, 0, addr, len, advice);
+    }
+
     @Override
     public long enqueueRead(long fd, long offset, long bufAddr, int len) {
         return enqueueSqe(IORING_OP_READ, fd, offset, bufAddr, len);
     }
 
+    @Override
+    public long enqueueRecv(long fd, long bufAddr, int len) {
+        return enqueueSqe(IORING_OP_RECV, fd, 0, bufAddr, len);
+    }
+
     @Override
     public long getCqeId() {
         if (cachedIndex < cachedSize) {
@@ -156,6 +171,10 @@ public class IOURingImpl implements IOURing {
     }
 
     private long enqueueSqe(byte op, long fd, long offset, long bufAddr, int len) {
+        return enqueueSqe(op, fd, offset, bufAddr, len, 0);
+    }
+
+    private long enqueueSqe(byte op, long fd, long offset, long bufAddr, int len, int opFlags) {
         final long sqeAddr = nextSqe();
         if (sqeAddr == 0) {
             return -1;
@@ -165,6 +184,8 @@ public class IOURingImpl implements IOURing {
         Unsafe.getUnsafe().putLong(sqeAddr + SQE_OFF_OFFSET, offset);
         Unsafe.getUnsafe().putLong(sqeAddr + SQE_ADDR_OFFSET, bufAddr);
         Unsafe.getUnsafe().putInt(sqeAddr + SQE_LEN_OFFSET, len);
+        // sqes are reused, so op flags have to be reset even when not used by the op
+        Unsafe.getUnsafe().putInt(sqeAddr + SQE_OP_FLAGS_OFFSET, opFlags);
         final long id = idSeq++;
         Unsafe.getUnsafe().putLong(sqeAddr + SQE_USER_DATA_OFFSET, id);
         return id;
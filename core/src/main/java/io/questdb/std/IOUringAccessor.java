@@ -27,7 +27,10 @@ package io.questdb.std;
 public class IOUringAccessor {
 
     static final byte IORING_OP_NOP = 0;
+    static final byte IORING_OP_ASYNC_CANCEL = 14;
     static final byte IORING_OP_READ = 22;
+    static final byte IORING_OP_MADVISE = 25;
+    static final byte IORING_OP_RECV = 27;
 
     static final short RING_FD_OFFSET;
 
@@ -45,6 +48,8 @@ public class IOUringAccessor {
     static final short SQE_OFF_OFFSET;
     static final short SQE_ADDR_OFFSET;
     static final short SQE_LEN_OFFSET;
+    // rw_flags/fadvise_advice union, follows len in io_uring_sqe
+    static final short SQE_OP_FLAGS_OFFSET;
     static final short SQE_USER_DATA_OFFSET;
 
     static final short CQ_KHEAD_OFFSET;
@@ -75,6 +80,7 @@ public class IOUringAccessor {
         SQE_OFF_OFFSET = getSqeOffOffset();
         SQE_ADDR_OFFSET = getSqeAddrOffset();
         SQE_LEN_OFFSET = getSqeLenOffset();
+        SQE_OP_FLAGS_OFFSET = (short) (SQE_LEN_OFFSET + Integer.BYTES);
         SQE_USER_DATA_OFFSET = getSqeUserDataOffset();
 
         final short cqOffset = getCqOffset();
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * NUMA nodes of the host and CPUs that belong to them. On Linux the topology
+ * is read from sysfs, other platforms and hosts without NUMA information are
+ * reported as a single node that owns all available CPUs.
+ * <p>
+ * Nodes are numbered densely in the order of their kernel ids, nodes without
+ * CPUs (memory only nodes) are skipped.
+ */
+public final class NumaTopology {
+    public static final NumaTopology INSTANCE = discover("/sys/devices/system/node");
+    private final ObjList<IntList> nodeCpus;
+    private final IntList cpuNodes = new IntList();
+
+    NumaTopology(ObjList<IntList> nodeCpus) {
+        this.nodeCpus = nodeCpus;
+        int maxCpu = -1;
+        for (int node = 0, n = nodeCpus.size(); node < n; node++) {
+            final IntList cpus = nodeCpus.getQuick(node);
+            for (int i = 0, m = cpus.size(); i < m; i++) {
+                maxCpu = Math.max(maxCpu, cpus.getQuick(i));
+            }
+        }
+        cpuNodes.setAll(maxCpu + 1, -1);
+        for (int node = 0, n = nodeCpus.size(); node < n; node++) {
+            final IntList cpus = nodeCpus.getQuick(node);
+            for (int i = 0, m = cpus.size(); i < m; i++) {
+                cpuNodes.setQuick(cpus.getQuick(i), node);
+            }
+        }
+    }
+
+    public static NumaTopology discover(String nodeDir) {
+        final ObjList<IntList> nodeCpus = new ObjList<>();
+        if (Os.isLinux()) {
+            final String[] names = new File(nodeDir).list();
+            if (names != null) {
+                final int[] nodeIds = new int[names.length];
+                int nodeCount = 0;
+                for (String name : names) {
+                    if (name.startsWith("node")) {
+                        try {
+                            final int nodeId = Numbers.parseInt(name, 4, name.length());
+                            nodeIds[nodeCount++] = nodeId;
+                        } catch (NumericException ignore) {
+                            // not a node directory
+                        }
+                    }
+                }
+                Arrays.sort(nodeIds, 0, nodeCount);
+                for (int i = 0; i < nodeCount; i++) {
+                    final int nodeId = nodeIds[i];
+                    final IntList cpus = new IntList();
+                    final String cpuList = readLine(nodeDir + File.separator + "node" + nodeId + File.separator + "cpulist");
+                    if (cpuList != null && parseCpuList(cpuList, cpus) && cpus.size() > 0) {
+                        nodeCpus.add(cpus);
+                    }
+                }
+            }
+        }
+
+        if (nodeCpus.size() == 0) {
+            final IntList cpus = new IntList();
+            for (int i = 0, n = Runtime.getRuntime().availableProcessors(); i < n; i++) {
+                cpus.add(i);
+            }
+            nodeCpus.add(cpus);
+        }
+        return new NumaTopology(nodeCpus);
+    }
+
+    /**
+     * Parses kernel CPU list format, e.g. "0-3,8-11,16".
+     *
+     * @param cpuList text to parse
+     * @param sink    list CPU ids are appended to
+     * @return false when the text is malformed
+     */
+    public static boolean parseCpuList(CharSequence cpuList, IntList sink) {
+        int lo = 0;
+        final int len = cpuList.length();
+        try {
+            while (lo < len) {
+                int hi = Chars.indexOf(cpuList, lo, len, ',');
+                if (hi == -1) {
+                    hi = len;
+                }
+                if (hi > lo) {
+                    final int dash = Chars.indexOf(cpuList, lo, hi, '-');
+                    if (dash == -1) {
+                        sink.add(Numbers.parseInt(cpuList, lo, hi));
+                    } else {
+                        final int first = Numbers.parseInt(cpuList, lo, dash);
+                        final int last = Numbers.parseInt(cpuList, dash + 1, hi);
+                        for (int cpu = first; cpu <= last; cpu++) {
+                            sink.add(cpu);
+                        }
+                    }
+                }
+                lo = hi + 1;
+            }
+            return true;
+        } catch (NumericException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param node node index
+     * @param i    position of the CPU within the node
+     * @return CPU id or -1 when the node has fewer CPUs
+     */
+    public int getCpu(int node, int i) {
+        final IntList cpus = nodeCpus.getQuick(node);
+        return i < cpus.size() ? cpus.getQuick(i) : -1;
+    }
+
+    public int getCpuCount(int node) {
+        return nodeCpus.getQuick(node).size();
+    }
+
+    /**
+     * @param cpu CPU id
+     * @return node index the CPU belongs to or -1 when the CPU is unknown
+     */
+    public int getNode(int cpu) {
+        return cpu > -1 && cpu < cpuNodes.size() ? cpuNodes.getQuick(cpu) : -1;
+    }
+
+    public int getNodeCount() {
+        return nodeCpus.size();
+    }
+
+    private static String readLine(String path) {
+        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+            final String line = reader.readLine();
+            return line != null ? line.trim() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
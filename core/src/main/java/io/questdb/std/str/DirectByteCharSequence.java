@@ -30,7 +30,7 @@ import io.questdb.std.ObjectFactory;
 import io.questdb.std.Unsafe;
 import org.jetbrains.annotations.NotNull;
 
-public class DirectByteCharSequence extends AbstractCharSequence implements Mutable, ByteSequence {
+public class DirectByteCharSequence extends AbstractCharSequence implements Mutable, Utf8Sequence {
     public static final Factory FACTORY = new Factory();
     private long lo;
     private long hi;
@@ -63,6 +63,11 @@ public class DirectByteCharSequence extends AbstractCharSequence implements Muta
         return (char) byteAt(index);
     }
 
+    @Override
+    public long ptr() {
+        return lo;
+    }
+
     public void shl(long delta) {
         this.lo -= delta;
         this.hi -= delta;
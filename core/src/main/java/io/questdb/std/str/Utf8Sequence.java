@@ -0,0 +1,52 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.std.str;
+
+/**
+ * Read-only view over UTF-8 encoded bytes. Unlike {@link CharSequence}, length is
+ * measured in bytes, so values can be stored and compared without transcoding.
+ */
+public interface Utf8Sequence extends ByteSequence {
+
+    /**
+     * @return true when all bytes of the sequence are 7-bit ASCII characters
+     */
+    default boolean isAscii() {
+        for (int i = 0, n = length(); i < n; i++) {
+            if (byteAt(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return address of the first byte when the sequence is backed by native memory, 0 otherwise
+     */
+    default long ptr() {
+        return 0;
+    }
+}
@@ -0,0 +1,63 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.tasks;
+
+import io.questdb.griffin.engine.orderby.ParallelRadixSorter;
+import io.questdb.mp.CountDownLatchSPI;
+
+public class SortTask {
+    public static final int TYPE_MERGE = 1;
+    public static final int TYPE_SORT = 0;
+    private CountDownLatchSPI doneLatch;
+    private long hi;
+    private long lo;
+    private long mid;
+    private ParallelRadixSorter sorter;
+    private int type;
+
+    public void of(ParallelRadixSorter sorter, int type, long lo, long mid, long hi, CountDownLatchSPI doneLatch) {
+        this.sorter = sorter;
+        this.type = type;
+        this.lo = lo;
+        this.mid = mid;
+        this.hi = hi;
+        this.doneLatch = doneLatch;
+    }
+
+    public boolean run() {
+        try {
+            if (type == TYPE_SORT) {
+                sorter.sortChunk(lo, hi);
+            } else {
+                sorter.mergeRuns(lo, mid, hi);
+            }
+        } finally {
+            sorter = null;
+            doneLatch.countDown();
+        }
+        return true;
+    }
+}
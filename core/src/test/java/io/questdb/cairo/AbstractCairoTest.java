@@ -87,6 +87,7 @@ public class AbstractCairoTest {
     protected static int binaryEncodingMaxLength = -1;
     protected static CharSequence defaultMapType;
     protected static int pageFrameMaxRows = -1;
+    protected static int pageFramePrefetchFrames = -1;
     protected static int jitMode = SqlJitMode.JIT_MODE_ENABLED;
     protected static int rndFunctionMemoryPageSize = -1;
     protected static int rndFunctionMemoryMaxPages = -1;
@@ -94,6 +95,9 @@ public class AbstractCairoTest {
     protected static Boolean snapshotRecoveryEnabled = null;
     protected static Boolean enableParallelFilter = null;
     protected static Boolean enableColumnPreTouch = null;
+    protected static Boolean enableParallelGroupBy = null;
+    protected static Boolean enableParallelHashJoin = null;
+    protected static Boolean enableParallelAsOfJoin = null;
     protected static int queryCacheEventQueueCapacity = -1;
     protected static int pageFrameReduceShardCount = -1;
     protected static int pageFrameReduceQueueCapacity = -1;
@@ -114,6 +118,8 @@ public class AbstractCairoTest {
     protected static int defaultTableWriteMode = -1;
     protected static Boolean copyPartitionOnAttach = null;
     protected static String attachableDirSuffix = null;
+    protected static long zoneMapBlockRows = -1;
+    protected static int sqlSortRadixThreshold = -1;
 
     private static TelemetryConfiguration telemetryConfiguration;
 
@@ -298,6 +304,11 @@ public class AbstractCairoTest {
                 return pageFrameMaxRows < 0 ? super.getSqlPageFrameMaxRows() : pageFrameMaxRows;
             }
 
+            @Override
+            public int getSqlPageFramePrefetchFrames() {
+                return pageFramePrefetchFrames < 0 ? super.getSqlPageFramePrefetchFrames() : pageFramePrefetchFrames;
+            }
+
             @Override
             public TelemetryConfiguration getTelemetryConfiguration() {
                 return telemetryConfiguration;
@@ -353,6 +364,21 @@ public class AbstractCairoTest {
                 return enableColumnPreTouch != null ? enableColumnPreTouch : super.isSqlParallelFilterPreTouchEnabled();
             }
 
+            @Override
+            public boolean isSqlParallelGroupByEnabled() {
+                return enableParallelGroupBy != null ? enableParallelGroupBy : super.isSqlParallelGroupByEnabled();
+            }
+
+            @Override
+            public boolean isSqlParallelHashJoinEnabled() {
+                return enableParallelHashJoin != null ? enableParallelHashJoin : super.isSqlParallelHashJoinEnabled();
+            }
+
+            @Override
+            public boolean isSqlParallelAsOfJoinEnabled() {
+                return enableParallelAsOfJoin != null ? enableParallelAsOfJoin : super.isSqlParallelAsOfJoinEnabled();
+            }
+
             @Override
             public int getColumnPurgeTaskPoolCapacity() {
                 return columnVersionTaskPoolCapacity >= 0 ? columnVersionTaskPoolCapacity : super.getColumnPurgeTaskPoolCapacity();
@@ -392,6 +418,16 @@ public class AbstractCairoTest {
             public String getAttachPartitionSuffix() {
                 return attachableDirSuffix == null ? super.getAttachPartitionSuffix() : attachableDirSuffix;
             }
+
+            @Override
+            public long getZoneMapBlockRows() {
+                return zoneMapBlockRows < 0 ? super.getZoneMapBlockRows() : zoneMapBlockRows;
+            }
+
+            @Override
+            public int getSqlSortRadixThreshold() {
+                return sqlSortRadixThreshold < 0 ? super.getSqlSortRadixThreshold() : sqlSortRadixThreshold;
+            }
         };
         metrics = Metrics.enabled();
         engine = new CairoEngine(configuration, metrics);
@@ -441,6 +477,7 @@ public class AbstractCairoTest {
         writerAsyncCommandBusyWaitTimeout = -1;
         writerAsyncCommandMaxTimeout = -1;
         pageFrameMaxRows = -1;
+        pageFramePrefetchFrames = -1;
         jitMode = SqlJitMode.JIT_MODE_ENABLED;
         rndFunctionMemoryPageSize = -1;
         rndFunctionMemoryMaxPages = -1;
@@ -449,6 +486,9 @@ public class AbstractCairoTest {
         snapshotRecoveryEnabled = null;
         enableParallelFilter = null;
         enableColumnPreTouch = null;
+        enableParallelGroupBy = null;
+        enableParallelHashJoin = null;
+        enableParallelAsOfJoin = null;
         hideTelemetryTable = false;
         writerCommandQueueCapacity = 4;
         queryCacheEventQueueCapacity = -1;
@@ -465,6 +505,8 @@ public class AbstractCairoTest {
         defaultTableWriteMode = -1;
         copyPartitionOnAttach = null;
         attachableDirSuffix = null;
+        zoneMapBlockRows = -1;
+        sqlSortRadixThreshold = -1;
         sink.clear();
         ff = null;
         memoryUsage = -1;
@@ -111,7 +111,13 @@ public final class AllowAllSqlSecurityContext {
                     @Nullable RecordSink partitionBySink,
                     @Nullable ColumnTypes keyTypes,
                     boolean isOrdered,
-                    boolean baseSupportsRandomAccess
+                    boolean baseSupportsRandomAccess,
+                    int framingMode,
+                    long rowsLo,
+                    int rowsLoPos,
+                    long rowsHi,
+                    int rowsHiPos,
+                    int timestampIndex
             ) {
             }
 
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.Files;
+import io.questdb.std.str.Path;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BloomFilterTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp() {
+        zoneMapBlockRows = 1024;
+        super.setUp();
+    }
+
+    @Test
+    public void testFilesCreatedForFlaggedColumnsOnly() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (Path path = new Path()) {
+                path.of(configuration.getRoot()).concat("x").concat("1970-01-01");
+                final int plen = path.length();
+                Assert.assertTrue(Files.exists(TableUtils.bfFile(path.trimTo(plen), "l", -1)));
+                Assert.assertTrue(Files.exists(TableUtils.bfFile(path.trimTo(plen), "s", -1)));
+                Assert.assertTrue(Files.exists(TableUtils.bfFile(path.trimTo(plen), "y", -1)));
+                Assert.assertFalse(Files.exists(TableUtils.bfFile(path.trimTo(plen), "n", -1)));
+            }
+        });
+    }
+
+    @Test
+    public void testIncrementalCommits() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (x long bloom, ts timestamp) timestamp(ts) partition by day");
+            try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "test")) {
+                for (int i = 0; i < 10; i++) {
+                    for (int j = 0; j < 500; j++) {
+                        final long v = i * 500L + j;
+                        TableWriter.Row row = writer.newRow(v * 1_000_000L);
+                        row.putLong(0, v * 2);
+                        row.append();
+                    }
+                    writer.commit();
+                }
+            }
+            assertSql("select count() from x where x = 7", "count\n0\n");
+            assertSql("select count() from x where x = 9000", "count\n1\n");
+
+            // rows of the last block are committed after the filter was brought up to date
+            Assert.assertEquals(904, scannedRows("x", 0, 7));
+            Assert.assertEquals(904, scannedRows("x", 0, 9000));
+        });
+    }
+
+    @Test
+    public void testLongValueWithinZoneMapRange() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql("select count() from x where l = 2001", "count\n0\n");
+            assertSql("select count() from x where l = 2000", "count\n1\n");
+
+            // zone map alone keeps the block, its min and max surround the value
+            final ZoneMapFilter filter = new ZoneMapFilter();
+            filter.add(0, ColumnType.LONG, ZoneMapFilter.OP_EQ, 2001);
+            Assert.assertEquals(1024, scannedRows("x", filter));
+
+            Assert.assertEquals(0, scannedRows("x", 0, 2001));
+            Assert.assertEquals(1024, scannedRows("x", 0, 2000));
+        });
+    }
+
+    @Test
+    public void testString() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql("select l, s from x where s = 'v4500'", "l\ts\n9000\tv4500\n");
+            assertSql("select count() from x where s = 'nope'", "count\n0\n");
+            assertSql("select count() from x where s = null", "count\n0\n");
+
+            Assert.assertEquals(904, scannedRows("x", 1, ColumnType.STRING, "v4500"));
+            Assert.assertEquals(0, scannedRows("x", 1, ColumnType.STRING, "nope"));
+            // column without Bloom filter is scanned in full
+            Assert.assertEquals(5000, scannedRows("x", 3, ColumnType.STRING, "nope"));
+        });
+    }
+
+    @Test
+    public void testSymbol() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql("select count() from x where y = 'a'", "count\n999\n");
+            assertSql("select count() from x where y = 'c'", "count\n0\n");
+
+            final ZoneMapFilter filter = new ZoneMapFilter();
+            // symbol key of 'a'
+            filter.addEq(2, ColumnType.SYMBOL, BloomFilterReader.hashLong(0), "a");
+            filter.enableBloomFilter(2);
+            Assert.assertEquals(1024, scannedRows("x", filter));
+        });
+    }
+
+    private static void createTable() throws Exception {
+        compile("create table x (l long bloom, s string bloom, y symbol bloom, n string, ts timestamp) timestamp(ts) partition by day");
+        compile(
+                "insert into x select" +
+                        " x * 2," +
+                        " 'v' || x," +
+                        " case when x < 1000 then 'a' else 'b' end," +
+                        " 'v' || x," +
+                        " timestamp_sequence(0, 1000000)" +
+                        " from long_sequence(5000)"
+        );
+    }
+
+    private static long scannedRows(CharSequence tableName, ZoneMapFilter filter) {
+        long rows = 0;
+        try (FullFwdDataFrameCursor cursor = new FullFwdDataFrameCursor(filter)) {
+            cursor.of(engine.getReader(AllowAllCairoSecurityContext.INSTANCE, tableName));
+            DataFrame frame;
+            while ((frame = cursor.next()) != null) {
+                rows += frame.getRowHi() - frame.getRowLo();
+            }
+        }
+        return rows;
+    }
+
+    private static long scannedRows(CharSequence tableName, int columnIndex, long value) {
+        final ZoneMapFilter filter = new ZoneMapFilter();
+        filter.add(columnIndex, ColumnType.LONG, ZoneMapFilter.OP_EQ, value);
+        filter.enableBloomFilter(columnIndex);
+        return scannedRows(tableName, filter);
+    }
+
+    private static long scannedRows(CharSequence tableName, int columnIndex, int columnType, CharSequence value) {
+        final ZoneMapFilter filter = new ZoneMapFilter();
+        filter.addEq(columnIndex, columnType, BloomFilterReader.hashStr(value), value);
+        filter.enableBloomFilter(columnIndex);
+        return scannedRows(tableName, filter);
+    }
+}
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MatViewRefreshJobTest extends AbstractGriffinTest {
+
+    @Test
+    public void testDropViewRemovesDefinition() throws Exception {
+        assertMemoryLeak(() -> {
+            createBaseAndView();
+            Assert.assertNotNull(engine.getMatViewRegistry().getView("mv"));
+            compile("drop table mv", sqlExecutionContext);
+            Assert.assertNull(engine.getMatViewRegistry().getView("mv"));
+        });
+    }
+
+    @Test
+    public void testIncrementalRefresh() throws Exception {
+        assertMemoryLeak(() -> {
+            createBaseAndView();
+            final MatViewDefinition view = engine.getMatViewRegistry().getView("mv");
+            Assert.assertNotNull(view);
+
+            try (MatViewRefreshJob job = new MatViewRefreshJob(engine, null)) {
+                Assert.assertFalse(job.run(0));
+                Assert.assertTrue(engine.getMatViewRegistry().isFresh(view));
+
+                // out-of-order row into the first partition and an append into a new one
+                executeInsert("insert into base values (100, '2022-01-01T12:30:00.000000Z')");
+                executeInsert("insert into base values (7, '2022-01-03T01:00:00.000000Z')");
+                Assert.assertFalse(engine.getMatViewRegistry().isFresh(view));
+
+                Assert.assertTrue(job.run(0));
+                Assert.assertFalse(job.run(0));
+                Assert.assertTrue(engine.getMatViewRegistry().isFresh(view));
+
+                assertSql(
+                        "mv",
+                        "ts\ts\tc\n" +
+                                "2022-01-01T00:00:00.000000Z\t400\t25\n" +
+                                "2022-01-02T00:00:00.000000Z\t876\t24\n" +
+                                "2022-01-03T00:00:00.000000Z\t7\t1\n"
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testInvalidDefinitions() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table base (x long, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            assertFailure(
+                    "create materialized view mv as (select ts, sum(x) s from base) timestamp(ts) partition by DAY",
+                    null,
+                    32,
+                    "materialized view query must use SAMPLE BY with constant interval"
+            );
+            assertFailure(
+                    "create materialized view mv as (select ts, sum(x) s from base sample by 1M align to calendar) timestamp(ts) partition by DAY",
+                    null,
+                    72,
+                    "materialized view SAMPLE BY interval must be of fixed size, 'd' or smaller units expected"
+            );
+            assertFailure(
+                    "create materialized view mv as (select ts, sum(x) s from base sample by 7m align to calendar) timestamp(ts) partition by HOUR",
+                    null,
+                    72,
+                    "materialized view SAMPLE BY interval must divide partition interval"
+            );
+            assertFailure(
+                    "create materialized view mv as (select ts, sum(x) s from base sample by 1h) timestamp(ts) partition by DAY",
+                    null,
+                    72,
+                    "materialized view requires SAMPLE BY ALIGN TO CALENDAR without time zone and offset"
+            );
+            assertFailure(
+                    "create materialized view mv (x int)",
+                    null,
+                    28,
+                    "'as' expected"
+            );
+            Assert.assertTrue(engine.getMatViewRegistry().isEmpty());
+        });
+    }
+
+    @Test
+    public void testQueryRewrittenWhenFresh() throws Exception {
+        assertMemoryLeak(() -> {
+            createBaseAndView();
+            try (MatViewRefreshJob job = new MatViewRefreshJob(engine, null)) {
+                job.run(0);
+            }
+            // a row that exists only in the view tells the rewritten query apart from the base query
+            executeInsert("insert into mv values ('2022-01-05T00:00:00.000000Z', 0, 0)");
+            final String query = "select ts, sum(x) s, count() c from base sample by 1d align to calendar";
+            assertSql(
+                    query,
+                    "ts\ts\tc\n" +
+                            "2022-01-01T00:00:00.000000Z\t300\t24\n" +
+                            "2022-01-02T00:00:00.000000Z\t876\t24\n" +
+                            "2022-01-05T00:00:00.000000Z\t0\t0\n"
+            );
+
+            // stale view is bypassed
+            executeInsert("insert into base values (1, '2022-01-03T00:00:00.000000Z')");
+            assertSql(
+                    query,
+                    "ts\ts\tc\n" +
+                            "2022-01-01T00:00:00.000000Z\t300\t24\n" +
+                            "2022-01-02T00:00:00.000000Z\t876\t24\n" +
+                            "2022-01-03T00:00:00.000000Z\t1\t1\n"
+            );
+        });
+    }
+
+    @Test
+    public void testTruncateRecomputesView() throws Exception {
+        assertMemoryLeak(() -> {
+            createBaseAndView();
+            try (MatViewRefreshJob job = new MatViewRefreshJob(engine, null)) {
+                compile("truncate table base", sqlExecutionContext);
+                executeInsert("insert into base values (5, '2022-01-02T01:00:00.000000Z')");
+                Assert.assertTrue(job.run(0));
+                assertSql(
+                        "mv",
+                        "ts\ts\tc\n" +
+                                "2022-01-02T00:00:00.000000Z\t5\t1\n"
+                );
+            }
+        });
+    }
+
+    private void createBaseAndView() throws Exception {
+        compile(
+                "create table base as (" +
+                        "select x, timestamp_sequence('2022-01-01', 3600000000L) ts from long_sequence(48)" +
+                        ") timestamp(ts) partition by DAY",
+                sqlExecutionContext
+        );
+        compile(
+                "create materialized view mv as (" +
+                        "select ts, sum(x) s, count() c from base sample by 1d align to calendar" +
+                        ") timestamp(ts) partition by DAY",
+                sqlExecutionContext
+        );
+    }
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SymbolDictionaryCacheTest extends AbstractGriffinTest {
+
+    @Test
+    public void testEntryIsReleasedWithLastReference() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select cast('k' || (x % 3) as symbol) s, timestamp_sequence(0, 1000000) ts from long_sequence(100)) timestamp(ts)");
+            final int tableId = getTableId("x");
+            engine.releaseAllReaders();
+            engine.releaseAllWriters();
+            Assert.assertEquals(0, engine.getSymbolDictionaryCache().getEntryCount());
+            Assert.assertEquals(0, Unsafe.getMemUsedByTag(MemoryTag.NATIVE_SYMBOL_CACHE));
+
+            try (SymbolDictionaryCache.Entry entry = engine.getSymbolDictionaryCache().acquire(tableId, 0, -1)) {
+                Assert.assertNotNull(entry);
+                Assert.assertEquals(0, entry.getSize());
+
+                // writer publishes symbols committed before it was opened too
+                executeInsert("insert into x values ('d', 100000000)");
+                Assert.assertEquals(4, entry.getSize());
+                Assert.assertEquals(0, entry.keyOf("k1"));
+                Assert.assertEquals(3, entry.keyOf("d"));
+
+                // entry of different column name txn is not shared
+                Assert.assertNull(engine.getSymbolDictionaryCache().acquire(tableId, 0, 1));
+            }
+            engine.releaseAllReaders();
+            engine.releaseAllWriters();
+            Assert.assertEquals(0, engine.getSymbolDictionaryCache().getEntryCount());
+        });
+    }
+
+    @Test
+    public void testPublishedOnCommit() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (s symbol, ts timestamp) timestamp(ts)");
+            try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "test")) {
+                final SymbolDictionaryCache.Entry entry = engine.getSymbolDictionaryCache().acquire(writer.getMetadata().getId(), 0, -1);
+                Assert.assertNotNull(entry);
+                try {
+                    for (int i = 0; i < 10_000; i++) {
+                        TableWriter.Row row = writer.newRow(i);
+                        row.putSym(0, "s" + i);
+                        row.append();
+                    }
+                    Assert.assertEquals(0, entry.getSize());
+                    Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, entry.keyOf("s1"));
+
+                    writer.rollback();
+                    Assert.assertEquals(0, entry.getSize());
+
+                    for (int i = 0; i < 10_000; i++) {
+                        TableWriter.Row row = writer.newRow(i);
+                        row.putSym(0, "v" + i);
+                        row.append();
+                    }
+                    writer.commit();
+                    Assert.assertEquals(10_000, entry.getSize());
+                    for (int i = 0; i < 10_000; i++) {
+                        Assert.assertEquals(i, entry.keyOf("v" + i));
+                    }
+                    Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, entry.keyOf("s1"));
+                } finally {
+                    entry.close();
+                }
+            }
+            assertSql("select count() from x where s = 'v9999'", "count\n1\n");
+            assertSql("select count() from x where s = 's1'", "count\n0\n");
+        });
+    }
+
+    @Test
+    public void testReaderIgnoresKeysAheadOfIt() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (s symbol, ts timestamp) timestamp(ts)");
+            executeInsert("insert into x values ('a', 0)");
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                executeInsert("insert into x values ('b', 1)");
+                final SymbolMapReader symbolMapReader = reader.getSymbolMapReader(0);
+                Assert.assertEquals(0, symbolMapReader.keyOf("a"));
+                Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, symbolMapReader.keyOf("b"));
+
+                reader.reload();
+                Assert.assertEquals(1, symbolMapReader.keyOf("b"));
+            }
+        });
+    }
+
+    @Test
+    public void testTruncate() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (s symbol, ts timestamp) timestamp(ts)");
+            compile("insert into x select 'k' || x, x from long_sequence(100)");
+            final int tableId = getTableId("x");
+            final SymbolDictionaryCache.Entry entry = engine.getSymbolDictionaryCache().acquire(tableId, 0, -1);
+            Assert.assertNotNull(entry);
+            try {
+                Assert.assertEquals(99, entry.keyOf("k100"));
+
+                compile("truncate table x");
+                Assert.assertFalse(entry.isValid());
+                Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, entry.keyOf("k100"));
+            } finally {
+                entry.close();
+            }
+
+            // keys are assigned in different order after truncate
+            compile("insert into x select 'k' || (101 - x), x from long_sequence(100)");
+            assertSql("select ts from x where s = 'k100'", "ts\n1970-01-01T00:00:00.000001Z\n");
+            try (SymbolDictionaryCache.Entry renewed = engine.getSymbolDictionaryCache().acquire(tableId, 0, -1)) {
+                Assert.assertNotNull(renewed);
+                Assert.assertEquals(0, renewed.keyOf("k100"));
+            }
+        });
+    }
+
+    private static int getTableId(CharSequence tableName) {
+        try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, tableName)) {
+            return reader.getMetadata().getId();
+        }
+    }
+}
@@ -80,6 +80,16 @@ public class TableModel implements TableStructure, Closeable {
         return this;
     }
 
+    @Override
+    public boolean isBloomFilter(int columnIndex) {
+        return false;
+    }
+
+    @Override
+    public boolean isDedupKey(int columnIndex) {
+        return false;
+    }
+
     @Override
     public boolean isSequential(int columnIndex) {
         return false;
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.ObjList;
+import io.questdb.std.Rnd;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.DirectByteCharSequence;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class VarcharTypeDriverTest {
+    private static final String[] VALUES = {
+            "",
+            "a",
+            "héllo wörld",
+            null,
+            "日本語テキスト",
+            "emoji 😀 outside of BMP"
+    };
+
+    @Test
+    public void testAppendUtf16AndRead() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (MemoryCARW dataMem = Vm.getCARWInstance(1024, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT)) {
+                final long[] offsets = new long[VALUES.length];
+                for (int i = 0; i < VALUES.length; i++) {
+                    offsets[i] = dataMem.getAppendOffset();
+                    final long appendOffset = VarcharTypeDriver.appendValue(dataMem, VALUES[i]);
+                    Assert.assertEquals(dataMem.getAppendOffset(), appendOffset);
+                }
+                assertValues(dataMem, offsets);
+            }
+        });
+    }
+
+    @Test
+    public void testAppendUtf8AndRead() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (MemoryCARW dataMem = Vm.getCARWInstance(1024, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT)) {
+                final long[] offsets = new long[VALUES.length];
+                for (int i = 0; i < VALUES.length; i++) {
+                    offsets[i] = dataMem.getAppendOffset();
+                    VarcharTypeDriver.appendValue(dataMem, utf8(VALUES[i]));
+                }
+                assertValues(dataMem, offsets);
+            }
+        });
+    }
+
+    @Test
+    public void testAppendUtf16Range() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (MemoryCARW dataMem = Vm.getCARWInstance(1024, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT)) {
+                VarcharTypeDriver.appendValue(dataMem, "\"привет\"", 1, 7);
+                final DirectByteCharSequence view = new DirectByteCharSequence();
+                final StringSink sink = new StringSink();
+                TestUtils.assertEquals("привет", VarcharTypeDriver.toUtf16(dataMem.getVarchar(0, view), sink));
+            }
+        });
+    }
+
+    @Test
+    public void testUnpairedSurrogate() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (MemoryCARW dataMem = Vm.getCARWInstance(1024, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT)) {
+                final String value = "a\ud83db";
+                Assert.assertEquals(3, VarcharTypeDriver.utf8Length(value));
+                VarcharTypeDriver.appendValue(dataMem, value);
+                final StringSink sink = new StringSink();
+                TestUtils.assertEquals("a?b", VarcharTypeDriver.toUtf16(dataMem.getVarcharA(0), sink));
+            }
+        });
+    }
+
+    @Test
+    public void testWriteFromNativeMemory() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final Rnd rnd = new Rnd();
+            final int n = 1000;
+            final int maxLen = 64;
+            final long buf = Unsafe.malloc(maxLen, MemoryTag.NATIVE_DEFAULT);
+            try (MemoryCARW dataMem = Vm.getCARWInstance(1024, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT)) {
+                final DirectByteCharSequence value = new DirectByteCharSequence();
+                final String[] expected = new String[n];
+                final long[] offsets = new long[n];
+                for (int i = 0; i < n; i++) {
+                    final int len = rnd.nextInt(maxLen);
+                    for (int j = 0; j < len; j++) {
+                        Unsafe.getUnsafe().putByte(buf + j, (byte) ('a' + rnd.nextInt(26)));
+                    }
+                    value.of(buf, buf + len);
+                    expected[i] = value.toString();
+                    offsets[i] = dataMem.getAppendOffset();
+                    VarcharTypeDriver.appendValue(dataMem, (Utf8Sequence) value);
+                }
+
+                final ObjList<StringSink> sinks = new ObjList<>();
+                for (int i = 0; i < n; i++) {
+                    final Utf8Sequence actual = dataMem.getVarcharA(offsets[i]);
+                    Assert.assertNotNull(actual);
+                    Assert.assertTrue(actual.isAscii());
+                    TestUtils.assertEquals(expected[i], VarcharTypeDriver.toUtf16(actual, sinks, i % 3));
+                }
+                Assert.assertEquals(3, sinks.size());
+            } finally {
+                Unsafe.free(buf, maxLen, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
+    private static void assertValues(MemoryCARW dataMem, long[] offsets) {
+        final DirectByteCharSequence view = new DirectByteCharSequence();
+        final StringSink sink = new StringSink();
+        for (int i = 0; i < VALUES.length; i++) {
+            final String expected = VALUES[i];
+            final Utf8Sequence actual = dataMem.getVarchar(offsets[i], view);
+            if (expected == null) {
+                Assert.assertNull(actual);
+                Assert.assertNull(VarcharTypeDriver.toUtf16(actual, sink));
+                Assert.assertEquals(TableUtils.NULL_LEN, VarcharTypeDriver.utf16Length(actual));
+                continue;
+            }
+            Assert.assertNotNull(actual);
+            Assert.assertEquals(utf8Size(expected), actual.length());
+            Assert.assertEquals(utf8Size(expected), VarcharTypeDriver.utf8Length(expected));
+            Assert.assertEquals(expected.length(), VarcharTypeDriver.utf16Length(actual));
+            TestUtils.assertEquals(expected, VarcharTypeDriver.toUtf16(actual, sink));
+        }
+    }
+
+    private static Utf8Sequence utf8(String value) {
+        if (value == null) {
+            return null;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return new Utf8Sequence() {
+            @Override
+            public byte byteAt(int index) {
+                return bytes[index];
+            }
+
+            @Override
+            public int length() {
+                return bytes.length;
+            }
+        };
+    }
+
+    private static int utf8Size(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.griffin.AbstractGriffinTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WalApplyJobTest extends AbstractGriffinTest {
+
+    @Test
+    public void testCoalescesTransactionsOfSameSegment() throws Exception {
+        assertMemoryLeak(() -> {
+            final String tableName = testName.getMethodName();
+            createTable(tableName);
+
+            final WalMetrics walMetrics = metrics.wal();
+            final long applyCommits = walMetrics.getApplyCommitCount();
+            final long appliedTxns = walMetrics.getAppliedTxns();
+            final long appliedRows = walMetrics.getAppliedRows();
+            final long txnLag = walMetrics.getTxnLag();
+
+            try (
+                    WalWriter walWriter1 = engine.getWalWriter(sqlExecutionContext.getCairoSecurityContext(), tableName);
+                    WalWriter walWriter2 = engine.getWalWriter(sqlExecutionContext.getCairoSecurityContext(), tableName);
+                    WalApplyJob job = new WalApplyJob(engine, 1)
+            ) {
+                addRow(walWriter1, "a", 1, 1_000_000);
+                addRow(walWriter1, "b", 2, 2_000_000);
+                walWriter1.commit();
+
+                // out of order within transaction, symbol "a" is re-added to the transaction symbol map
+                addRow(walWriter1, "c", 3, 4_000_000);
+                addRow(walWriter1, "a", 4, 3_000_000);
+                walWriter1.commit();
+
+                addRow(walWriter2, "d", 5, 10_000_000);
+                walWriter2.commit();
+
+                addRow(walWriter1, "b", 6, 5_000_000);
+                walWriter1.commit();
+
+                Assert.assertTrue(job.run(0));
+                Assert.assertFalse(job.run(0));
+
+                // first two transactions are from the same segment and go in as one commit
+                Assert.assertEquals(3, walMetrics.getApplyCommitCount() - applyCommits);
+                Assert.assertEquals(4, walMetrics.getAppliedTxns() - appliedTxns);
+                Assert.assertEquals(6, walMetrics.getAppliedRows() - appliedRows);
+                Assert.assertEquals(0, walMetrics.getTxnLag() - txnLag);
+
+                assertSql(
+                        tableName,
+                        "sym\tx\tts\n" +
+                                "a\t1\t1970-01-01T00:00:01.000000Z\n" +
+                                "b\t2\t1970-01-01T00:00:02.000000Z\n" +
+                                "a\t4\t1970-01-01T00:00:03.000000Z\n" +
+                                "c\t3\t1970-01-01T00:00:04.000000Z\n" +
+                                "b\t6\t1970-01-01T00:00:05.000000Z\n" +
+                                "d\t5\t1970-01-01T00:00:10.000000Z\n"
+                );
+
+                try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, tableName, "test")) {
+                    Assert.assertEquals(4, writer.getSeqTxn());
+                }
+
+                addRow(walWriter1, "e", 7, 6_000_000);
+                walWriter1.commit();
+
+                Assert.assertTrue(job.run(0));
+                Assert.assertEquals(5, walMetrics.getAppliedTxns() - appliedTxns);
+
+                assertSql(
+                        "select sym, count() from " + tableName + " order by sym",
+                        "sym\tcount\n" +
+                                "a\t2\n" +
+                                "b\t2\n" +
+                                "c\t1\n" +
+                                "d\t1\n" +
+                                "e\t1\n"
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testSeqTxnSurvivesWriterReopen() throws Exception {
+        assertMemoryLeak(() -> {
+            final String tableName = testName.getMethodName();
+            createTable(tableName);
+
+            try (
+                    WalWriter walWriter = engine.getWalWriter(sqlExecutionContext.getCairoSecurityContext(), tableName);
+                    WalApplyJob job = new WalApplyJob(engine, 1)
+            ) {
+                addRow(walWriter, "a", 1, 1_000_000);
+                walWriter.commit();
+                addRow(walWriter, "b", 2, 2_000_000);
+                walWriter.commit();
+
+                Assert.assertTrue(job.run(0));
+                engine.releaseInactive();
+
+                try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, tableName, "test")) {
+                    Assert.assertEquals(2, writer.getSeqTxn());
+                }
+
+                // applied transactions are not applied again by a fresh job
+                try (WalApplyJob job2 = new WalApplyJob(engine, 1)) {
+                    Assert.assertFalse(job2.run(0));
+                }
+                assertSql(
+                        "select count() from " + tableName,
+                        "count\n" +
+                                "2\n"
+                );
+            }
+        });
+    }
+
+    private static void addRow(WalWriter walWriter, String sym, long x, long timestamp) {
+        TableWriter.Row row = walWriter.newRow(timestamp);
+        row.putSym(0, sym);
+        row.putLong(1, x);
+        row.append();
+    }
+
+    private static void createTable(String tableName) {
+        try (TableModel model = new TableModel(configuration, tableName, PartitionBy.DAY)
+                .col("sym", ColumnType.SYMBOL)
+                .col("x", ColumnType.LONG)
+                .timestamp("ts")
+        ) {
+            engine.createTableUnsafe(
+                    AllowAllCairoSecurityContext.INSTANCE,
+                    model.getMem(),
+                    model.getPath(),
+                    model
+            );
+        }
+    }
+}
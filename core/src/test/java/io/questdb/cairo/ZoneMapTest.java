@@ -0,0 +1,170 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.griffin.AbstractGriffinTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ZoneMapTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp() {
+        zoneMapBlockRows = 1024;
+        super.setUp();
+    }
+
+    @Test
+    public void testColumnTopIsNull() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x, timestamp_sequence(0, 1000000) ts from long_sequence(5000)) timestamp(ts) partition by day", sqlExecutionContext);
+            compile("alter table x add column n int");
+            compiler.compile("insert into x select x + 5000, timestamp_sequence(5000000000, 1000000), x::int from long_sequence(3000)", sqlExecutionContext);
+
+            assertSql("select count() from x where n = null", "count\n5000\n");
+            assertSql("select count() from x where n != null", "count\n3000\n");
+            assertSql("select count() from x where n > 2990", "count\n10\n");
+
+            // rows above column top are nulls, blocks of them never match a comparison
+            Assert.assertEquals(832, scannedRows("x", 2, ColumnType.INT, ZoneMapFilter.OP_GT, 2990));
+        });
+    }
+
+    @Test
+    public void testDoubleAndNaN() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x as (" +
+                            "select case when x > 4096 then NaN else x * 0.5 end d, timestamp_sequence(0, 1000000) ts from long_sequence(5000)" +
+                            ") timestamp(ts) partition by day",
+                    sqlExecutionContext
+            );
+            assertSql("select count() from x where d >= 2000", "count\n97\n");
+            assertSql("select count() from x where d = NaN", "count\n904\n");
+            assertSql("select count() from x where d != NaN", "count\n4096\n");
+
+            Assert.assertEquals(1024, scannedRows("x", 0, ColumnType.DOUBLE, ZoneMapFilter.OP_GE, 2000.0));
+            Assert.assertEquals(904, scannedRows("x", 0, ColumnType.DOUBLE, ZoneMapFilter.OP_IS_NULL, Double.NaN));
+        });
+    }
+
+    @Test
+    public void testIncrementalCommits() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (x long, ts timestamp) timestamp(ts) partition by day", sqlExecutionContext);
+            try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "test")) {
+                for (int i = 0; i < 10; i++) {
+                    for (int j = 0; j < 500; j++) {
+                        final long v = i * 500L + j;
+                        TableWriter.Row row = writer.newRow(v * 1_000_000L);
+                        row.putLong(0, v);
+                        row.append();
+                    }
+                    writer.commit();
+                }
+            }
+            assertSql("select count() from x where x < 10", "count\n10\n");
+            assertSql("select count() from x where x >= 4000", "count\n1000\n");
+
+            // zone map of the active partition is brought up to date when a block fills up,
+            // rows of the last block are committed after that and cannot be pruned
+            Assert.assertEquals(1928, scannedRows("x", 0, ColumnType.LONG, ZoneMapFilter.OP_LT, 10));
+            Assert.assertEquals(1928, scannedRows("x", 0, ColumnType.LONG, ZoneMapFilter.OP_GE, 4000));
+        });
+    }
+
+    @Test
+    public void testOutOfOrderInsert() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x, timestamp_sequence(0, 1000000) ts from long_sequence(10000)) timestamp(ts) partition by day", sqlExecutionContext);
+            // lands in the middle of the partition, which is rewritten
+            compiler.compile("insert into x select x + 100000, timestamp_sequence(100000000, 1000) from long_sequence(10)", sqlExecutionContext);
+
+            assertSql("select count() from x where x > 100000", "count\n10\n");
+            assertSql("select count() from x where x < 0", "count\n0\n");
+            Assert.assertEquals(1024, scannedRows("x", 0, ColumnType.LONG, ZoneMapFilter.OP_GT, 100000));
+            Assert.assertEquals(0, scannedRows("x", 0, ColumnType.LONG, ZoneMapFilter.OP_LT, 0));
+        });
+    }
+
+    @Test
+    public void testPrunesWithIntervals() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x, timestamp_sequence(0, 60000000) ts from long_sequence(10000)) timestamp(ts) partition by day", sqlExecutionContext);
+            assertSql(
+                    "select x, ts from x where ts in '1970-01-02' and x between 1500 and 1502",
+                    "x\tts\n" +
+                            "1500\t1970-01-02T00:59:00.000000Z\n" +
+                            "1501\t1970-01-02T01:00:00.000000Z\n" +
+                            "1502\t1970-01-02T01:01:00.000000Z\n"
+            );
+            assertSql("select count() from x where x > 9990 or x < 3", "count\n12\n");
+        });
+    }
+
+    @Test
+    public void testTruncateNonPartitioned() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x, timestamp_sequence(0, 1000000) ts from long_sequence(5000)) timestamp(ts)", sqlExecutionContext);
+            Assert.assertEquals(1024, scannedRows("x", 0, ColumnType.LONG, ZoneMapFilter.OP_LT, 10));
+
+            compile("truncate table x");
+            compiler.compile("insert into x select x + 10000, timestamp_sequence(0, 1000000) from long_sequence(2000)", sqlExecutionContext);
+
+            assertSql("select count() from x where x < 10", "count\n0\n");
+            assertSql("select count() from x where x > 11990", "count\n10\n");
+            Assert.assertEquals(0, scannedRows("x", 0, ColumnType.LONG, ZoneMapFilter.OP_LT, 10));
+            Assert.assertEquals(976, scannedRows("x", 0, ColumnType.LONG, ZoneMapFilter.OP_GT, 11990));
+        });
+    }
+
+    private static long scannedRows(CharSequence tableName, ZoneMapFilter filter) {
+        long rows = 0;
+        try (FullFwdDataFrameCursor cursor = new FullFwdDataFrameCursor(filter)) {
+            cursor.of(engine.getReader(AllowAllCairoSecurityContext.INSTANCE, tableName));
+            DataFrame frame;
+            while ((frame = cursor.next()) != null) {
+                rows += frame.getRowHi() - frame.getRowLo();
+            }
+        }
+        return rows;
+    }
+
+    private static long scannedRows(CharSequence tableName, int columnIndex, int columnType, int op, long value) {
+        final ZoneMapFilter filter = new ZoneMapFilter();
+        filter.add(columnIndex, columnType, op, value);
+        return scannedRows(tableName, filter);
+    }
+
+    private static long scannedRows(CharSequence tableName, int columnIndex, int columnType, int op, double value) {
+        final ZoneMapFilter filter = new ZoneMapFilter();
+        filter.add(columnIndex, columnType, op, value);
+        return scannedRows(tableName, filter);
+    }
+}
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.AbstractCairoTest;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Rnd;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MemoryCMRCompressedImplTest extends AbstractCairoTest {
+
+    @Test
+    public void testEmptyFile() throws Exception {
+        assertMemoryLeak(() -> {
+            final FilesFacade ff = FilesFacadeImpl.INSTANCE;
+            try (
+                    Path src = new Path().of(root).concat("empty.d").$();
+                    Path dst = new Path().of(root).concat("empty.dz").$()
+            ) {
+                writeLongs(ff, src, 0);
+                BlockCompression.compress(ff, src, dst, 4096);
+                try (MemoryCMR mem = Vm.getCompressedCMRInstance()) {
+                    mem.wholeFile(ff, dst, MemoryTag.MMAP_DEFAULT);
+                    Assert.assertEquals(0, mem.size());
+                    Assert.assertEquals(0, mem.getPageCount());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testExtendBeyondUncompressedSize() throws Exception {
+        assertMemoryLeak(() -> {
+            final FilesFacade ff = FilesFacadeImpl.INSTANCE;
+            try (
+                    Path src = new Path().of(root).concat("x.d").$();
+                    Path dst = new Path().of(root).concat("x.dz").$()
+            ) {
+                writeLongs(ff, src, 1000);
+                BlockCompression.compress(ff, src, dst, 4096);
+                try (MemoryCMR mem = Vm.getCompressedCMRInstance()) {
+                    mem.wholeFile(ff, dst, MemoryTag.MMAP_DEFAULT);
+                    try {
+                        mem.extend(8001);
+                        Assert.fail();
+                    } catch (CairoException e) {
+                        TestUtils.assertContains(e.getFlyweightMessage(), "compressed column cannot be extended");
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testIncompressibleBlocks() throws Exception {
+        assertMemoryLeak(() -> {
+            final FilesFacade ff = FilesFacadeImpl.INSTANCE;
+            final int N = 100_000;
+            final Rnd rnd = new Rnd();
+            try (
+                    Path src = new Path().of(root).concat("rnd.d").$();
+                    Path dst = new Path().of(root).concat("rnd.dz").$()
+            ) {
+                try (MemoryCMARW mem = Vm.getSmallCMARWInstance(ff, src, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE)) {
+                    for (int i = 0; i < N; i++) {
+                        mem.putLong(rnd.nextLong());
+                    }
+                }
+                final long compressedSize = BlockCompression.compress(ff, src, dst, 8192);
+                Assert.assertTrue(compressedSize > N * 8L);
+
+                rnd.reset();
+                try (MemoryCMR mem = Vm.getCompressedCMRInstance()) {
+                    mem.wholeFile(ff, dst, MemoryTag.MMAP_DEFAULT);
+                    Assert.assertEquals(N * 8L, mem.size());
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(rnd.nextLong(), mem.getLong(i * 8L));
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testNotCompressed() throws Exception {
+        assertMemoryLeak(() -> {
+            final FilesFacade ff = FilesFacadeImpl.INSTANCE;
+            try (Path src = new Path().of(root).concat("raw.d").$()) {
+                writeLongs(ff, src, 1000);
+                try (MemoryCMR mem = Vm.getCompressedCMRInstance()) {
+                    mem.wholeFile(ff, src, MemoryTag.MMAP_DEFAULT);
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getFlyweightMessage(), "not a compressed column file");
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testReadIncrementally() throws Exception {
+        assertMemoryLeak(() -> {
+            final FilesFacade ff = FilesFacadeImpl.INSTANCE;
+            final int N = 1_000_003;
+            try (
+                    Path src = new Path().of(root).concat("ts.d").$();
+                    Path dst = new Path().of(root).concat("ts.dz").$()
+            ) {
+                writeLongs(ff, src, N);
+                final long compressedSize = BlockCompression.compress(ff, src, dst, 64 * 1024);
+                Assert.assertTrue(compressedSize < N * 8L / 4);
+
+                try (MemoryCMRCompressedImpl mem = new MemoryCMRCompressedImpl(ff, dst, 100, MemoryTag.MMAP_DEFAULT)) {
+                    Assert.assertEquals(compressedSize, mem.getCompressedSize());
+                    Assert.assertEquals(100, mem.size());
+                    Assert.assertEquals(1, mem.getLong(88));
+
+                    long size = 100;
+                    while (size < N * 8L) {
+                        size = Math.min(size * 3, N * 8L);
+                        mem.extend(size);
+                        Assert.assertEquals(size, mem.size());
+                    }
+
+                    // decompressed memory must be contiguous
+                    Assert.assertEquals(1, mem.getPageCount());
+                    final long address = mem.getPageAddress(0);
+                    for (int i = 0; i < N; i++) {
+                        Assert.assertEquals(address + i * 8L, mem.addressOf(i * 8L));
+                        Assert.assertEquals(i / 7, mem.getLong(i * 8L));
+                    }
+                }
+            }
+        });
+    }
+
+    private static void writeLongs(FilesFacade ff, Path path, int count) {
+        try (MemoryCMARW mem = Vm.getSmallCMARWInstance(ff, path, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE)) {
+            for (int i = 0; i < count; i++) {
+                mem.putLong(i / 7);
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.arrow;
+
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.Unsafe;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class ArrowStreamWriterTest extends AbstractGriffinTest {
+    private static final int MESSAGE_DICTIONARY_BATCH = 2;
+    private static final int MESSAGE_EOS = -1;
+    private static final int MESSAGE_RECORD_BATCH = 3;
+    private static final int MESSAGE_SCHEMA = 1;
+
+    @Test
+    public void testDescendingScanSerializesRecords() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final IntList messages = new IntList();
+            final LongList batchRows = new LongList();
+            final LongList firstValues = new LongList();
+            readStream("x order by ts desc", 0, Long.MAX_VALUE, 4, messages, batchRows, firstValues);
+
+            // symbols are sent as strings, so there are no dictionaries
+            Assert.assertEquals("[1,3,3,3,-1]", messages.toString());
+            Assert.assertEquals("[4,4,2]", batchRows.toString());
+            Assert.assertEquals("[10,6,2]", firstValues.toString());
+        });
+    }
+
+    @Test
+    public void testEmptyResult() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final IntList messages = new IntList();
+            final LongList batchRows = new LongList();
+            final LongList firstValues = new LongList();
+            readStream("x where i > 100", 0, Long.MAX_VALUE, 4, messages, batchRows, firstValues);
+            Assert.assertEquals("[1,-1]", messages.toString());
+        });
+    }
+
+    @Test
+    public void testPageFrames() throws Exception {
+        pageFrameMaxRows = 4;
+        assertMemoryLeak(() -> {
+            createTable();
+            final IntList messages = new IntList();
+            final LongList batchRows = new LongList();
+            final LongList firstValues = new LongList();
+            readStream("x", 0, Long.MAX_VALUE, 4, messages, batchRows, firstValues);
+
+            Assert.assertEquals("[1,2,3,3,3,-1]", messages.toString());
+            Assert.assertEquals("[4,4,2]", batchRows.toString());
+            Assert.assertEquals("[1,5,9]", firstValues.toString());
+        });
+    }
+
+    @Test
+    public void testPageFramesWithLimit() throws Exception {
+        pageFrameMaxRows = 4;
+        assertMemoryLeak(() -> {
+            createTable();
+            final IntList messages = new IntList();
+            final LongList batchRows = new LongList();
+            final LongList firstValues = new LongList();
+            readStream("x", 3, 7, 4, messages, batchRows, firstValues);
+
+            Assert.assertEquals("[1,2,3,3,-1]", messages.toString());
+            Assert.assertEquals("[1,3]", batchRows.toString());
+            Assert.assertEquals("[4,5]", firstValues.toString());
+        });
+    }
+
+    @Test
+    public void testRecordBatchesWithLimit() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final IntList messages = new IntList();
+            final LongList batchRows = new LongList();
+            final LongList firstValues = new LongList();
+            readStream("x where i > 2", 1, 6, 3, messages, batchRows, firstValues);
+
+            Assert.assertEquals("[1,3,3,-1]", messages.toString());
+            Assert.assertEquals("[3,2]", batchRows.toString());
+            Assert.assertEquals("[4,7]", firstValues.toString());
+        });
+    }
+
+    private static int indirect(ByteBuffer buf, int position) {
+        return position + buf.getInt(position);
+    }
+
+    // position of the field in flatbuffer table or -1 when field is absent
+    private static int field(ByteBuffer buf, int table, int slot) {
+        final int vtable = table - buf.getInt(table);
+        final int offset = 4 + 2 * slot;
+        if (offset >= buf.getShort(vtable)) {
+            return -1;
+        }
+        final int fieldOffset = buf.getShort(vtable + offset);
+        return fieldOffset == 0 ? -1 : table + fieldOffset;
+    }
+
+    private void createTable() throws Exception {
+        compiler.compile(
+                "create table x as (" +
+                        "select x::int i, rnd_symbol('a','b',null) s, 'v' || x str, timestamp_sequence(0, 1000000) ts from long_sequence(10)" +
+                        ") timestamp(ts) partition by day",
+                sqlExecutionContext
+        );
+    }
+
+    private void readStream(
+            CharSequence query,
+            long skip,
+            long stop,
+            int batchSize,
+            IntList messages,
+            LongList batchRows,
+            LongList firstValues
+    ) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (
+                RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory();
+                ArrowStreamWriter writer = new ArrowStreamWriter(batchSize, 4096)
+        ) {
+            writer.of(factory, sqlExecutionContext, skip, stop);
+            while (writer.nextMessage()) {
+                for (int i = 0, n = writer.getSegmentCount(); i < n; i++) {
+                    final long address = writer.getSegmentAddress(i);
+                    for (long j = 0, size = writer.getSegmentSize(i); j < size; j++) {
+                        out.write(Unsafe.getUnsafe().getByte(address + j));
+                    }
+                }
+            }
+            Assert.assertFalse(writer.nextMessage());
+        }
+
+        final ByteBuffer buf = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        int position = 0;
+        while (position < buf.limit()) {
+            Assert.assertEquals(-1, buf.getInt(position));
+            final int metadataSize = buf.getInt(position + 4);
+            position += 8;
+            if (metadataSize == 0) {
+                messages.add(MESSAGE_EOS);
+                break;
+            }
+            Assert.assertEquals(0, metadataSize % 8);
+
+            final int message = indirect(buf, position);
+            final int type = buf.get(field(buf, message, 1));
+            final int bodyLength = (int) buf.getLong(field(buf, message, 3));
+            final int body = position + metadataSize;
+            messages.add(type);
+            if (type == MESSAGE_RECORD_BATCH) {
+                final int batch = indirect(buf, field(buf, message, 2));
+                batchRows.add(buf.getLong(field(buf, batch, 0)));
+                // first column is int, its buffers are validity and values
+                final int buffers = indirect(buf, field(buf, batch, 2));
+                final long valuesOffset = buf.getLong(buffers + 4 + 16);
+                Assert.assertEquals(0, valuesOffset % 8);
+                firstValues.add(buf.getInt(body + (int) valuesOffset));
+            }
+            position = body + bodyLength;
+        }
+        Assert.assertEquals(buf.limit(), position);
+    }
+}
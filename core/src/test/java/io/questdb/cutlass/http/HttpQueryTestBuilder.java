@@ -220,7 +220,6 @@ public class HttpQueryTestBuilder {
                     }
                 });
 
-                QueryCache.configure(httpConfiguration, metrics);
 
                 workerPool.start(LOG);
 
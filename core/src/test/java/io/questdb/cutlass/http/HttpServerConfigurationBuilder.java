@@ -124,6 +124,11 @@ public class HttpServerConfigurationBuilder {
                 public long getMaxQueryResponseRowLimit() {
                     return configuredMaxQueryResponseRowLimit;
                 }
+
+                @Override
+                public boolean isQueryCacheEnabled() {
+                    return true;
+                }
             };
 
             @Override
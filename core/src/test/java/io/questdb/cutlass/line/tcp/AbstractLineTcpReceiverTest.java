@@ -82,6 +82,11 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
         public int getBindPort() {
             return bindPort;
         }
+
+        @Override
+        public boolean isIOURingEnabled() {
+            return ioURingEnabled;
+        }
     };
     protected int maxMeasurementSize = 256;
     protected String authKeyId = null;
@@ -92,6 +97,7 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
     protected long commitIntervalDefault = 2000;
     protected boolean disconnectOnError = false;
     protected boolean symbolAsFieldSupported;
+    protected boolean ioURingEnabled;
     protected NetworkFacade nf = NetworkFacadeImpl.INSTANCE;
     protected final LineTcpReceiverConfiguration lineConfiguration = new DefaultLineTcpReceiverConfiguration() {
         @Override
@@ -168,6 +174,7 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
     @After
     public void cleanup() {
         maxMeasurementSize = 256;
+        ioURingEnabled = false;
     }
 
     protected void assertTable(CharSequence expected, CharSequence tableName) {
@@ -97,6 +97,7 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
     protected short integerDefaultColumnType;
     protected boolean autoCreateNewColumns = true;
     protected boolean autoCreateNewTables = true;
+    protected int writerBatchRows;
 
     @Before
     public void before() {
@@ -110,6 +111,7 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
         integerDefaultColumnType = ColumnType.LONG;
         autoCreateNewColumns = true;
         autoCreateNewTables = true;
+        writerBatchRows = 0;
         lineTcpConfiguration = createNoAuthReceiverConfiguration(provideLineTcpNetworkFacade());
     }
 
@@ -230,6 +232,11 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
                 return super.getAuthDbPath();
             }
 
+            @Override
+            public int getWriterBatchRows() {
+                return writerBatchRows;
+            }
+
             @Override
             public long getWriterIdleTimeout() {
                 return 150;
@@ -1840,6 +1840,38 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         });
     }
 
+    @Test
+    public void testOutOfOrderBatch() throws Exception {
+        String table = "outOfOrderBatch";
+        writerBatchRows = 3;
+        // the last row is older than the first flushed batch, it needs O3 on a partitioned table
+        addTable(table, PartitionBy.DAY);
+        runInContext(() -> {
+            recvBuffer =
+                    table + ",location=us-midwest temperature=82 1465839830102300200\n" +
+                            table + ",location=us-midwest temperature=83 1465839830100500200\n" +
+                            table + ",location=us-eastcoast temperature=81 1465839830100400200\n" +
+                            table + ",location=us-midwest temperature=85 1465839830102500200\n" +
+                            table + ",location=us-eastcoast temperature=89 1465839830102400200\n" +
+                            table + ",location=us-eastcoast temperature=80 1465839830102400200\n" +
+                            table + ",location=us-westcost temperature=82 1465839830101400200\n";
+            do {
+                handleContextIO();
+                Assert.assertFalse(disconnected);
+            } while (recvBuffer.length() > 0);
+            closeContext();
+            String expected = "location\ttemperature\ttimestamp\n" +
+                    "us-eastcoast\t81.0\t2016-06-13T17:43:50.100400Z\n" +
+                    "us-midwest\t83.0\t2016-06-13T17:43:50.100500Z\n" +
+                    "us-westcost\t82.0\t2016-06-13T17:43:50.101400Z\n" +
+                    "us-midwest\t82.0\t2016-06-13T17:43:50.102300Z\n" +
+                    "us-eastcoast\t89.0\t2016-06-13T17:43:50.102400Z\n" +
+                    "us-eastcoast\t80.0\t2016-06-13T17:43:50.102400Z\n" +
+                    "us-midwest\t85.0\t2016-06-13T17:43:50.102500Z\n";
+            assertTable(expected, table);
+        });
+    }
+
     @Test
     public void testOverflow() throws Exception {
         runInContext(() -> {
@@ -2036,9 +2068,49 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         });
     }
 
+    @Test
+    public void testWriterAssignments() throws Exception {
+        String table = "writerAssignments";
+        addTable(table);
+        runInContext(() -> {
+            recvBuffer = makeMessages(table);
+            do {
+                handleContextIO();
+                Assert.assertFalse(disconnected);
+            } while (recvBuffer.length() > 0);
+            try (
+                    SqlCompiler compiler = new SqlCompiler(engine);
+                    SqlExecutionContext sqlExecutionContext = new SqlExecutionContextImpl(engine, 1)
+            ) {
+                TestUtils.assertSql(
+                        compiler,
+                        sqlExecutionContext,
+                        "select table, writer_thread, events from ilp_writer_assignments()",
+                        sink,
+                        "table\twriter_thread\tevents\n" +
+                                "writerAssignments\t0\t7\n"
+                );
+                closeContext();
+                TestUtils.assertSql(
+                        compiler,
+                        sqlExecutionContext,
+                        "select table, writer_thread, events from ilp_writer_assignments()",
+                        sink,
+                        "table\twriter_thread\tevents\n"
+                );
+            } catch (SqlException ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+    }
+
     private void addTable(String table) {
+        addTable(table, PartitionBy.NONE);
+    }
+
+    private void addTable(String table, int partitionBy) {
         try (
-                TableModel model = new TableModel(configuration, table, PartitionBy.NONE)
+                TableModel model = new TableModel(configuration, table, partitionBy)
                         .col("location", ColumnType.SYMBOL)
                         .col("temperature", ColumnType.DOUBLE)
                         .timestamp()
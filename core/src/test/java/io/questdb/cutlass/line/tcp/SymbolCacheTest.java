@@ -326,6 +326,63 @@ public class SymbolCacheTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testSharedDictionary() throws Exception {
+        String tableName = "tb1";
+        assertMemoryLeak(() -> {
+            try (Path path = new Path();
+                 TableModel model = new TableModel(configuration, tableName, PartitionBy.NONE).col("symCol", ColumnType.SYMBOL);
+                 SymbolCache cache = new SymbolCache(new DefaultLineTcpReceiverConfiguration() {
+                     @Override
+                     public long getSymbolCacheWaitUsBeforeReload() {
+                         return 0;
+                     }
+                 })
+            ) {
+                CairoTestUtils.create(model);
+                try (
+                        TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, tableName, "test");
+                        TxReader txReader = new TxReader(configuration.getFilesFacade()).ofRO(
+                                path.of(configuration.getRoot()).concat(tableName).concat(TXN_FILE_NAME).$(),
+                                PartitionBy.NONE
+                        )
+                ) {
+                    TableWriter.Row r = writer.newRow();
+                    r.putSym(0, "sym1");
+                    r.append();
+                    writer.commit();
+
+                    cache.of(
+                            configuration,
+                            path.of(configuration.getRoot()).concat(tableName),
+                            "symCol",
+                            0,
+                            txReader,
+                            -1,
+                            engine.getSymbolDictionaryCache().acquire(writer.getMetadata().getId(), 0, -1)
+                    );
+
+                    // committed symbols are resolved by the shared dictionary
+                    Assert.assertEquals(0, cache.keyOf("sym1"));
+                    Assert.assertEquals(0, cache.getCacheValueCount());
+
+                    // uncommitted ones are cached locally
+                    r = writer.newRow();
+                    r.putSym(0, "sym2");
+                    r.append();
+                    Assert.assertEquals(1, cache.keyOf("sym2"));
+                    Assert.assertEquals(1, cache.getCacheValueCount());
+
+                    // until commit publishes them
+                    writer.commit();
+                    Assert.assertEquals(1, cache.keyOf("sym2"));
+                    Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, cache.keyOf("missing"));
+                    Assert.assertEquals(0, cache.getCacheValueCount());
+                }
+            }
+        });
+    }
+
     @Test
     public void testSimpleInteraction() throws Exception {
         String tableName = "tb1";
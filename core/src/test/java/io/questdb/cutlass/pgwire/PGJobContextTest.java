@@ -63,6 +63,8 @@ import org.postgresql.core.BaseConnection;
 import org.postgresql.util.PGTimestamp;
 import org.postgresql.util.PSQLException;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.*;
@@ -1857,29 +1859,276 @@ if __name__ == "__main__":
     }
 
     @Test
-    @Ignore
-    public void testCopyIn() throws SQLException {
-        try (
-                final PGWireServer server = createPGServer(2);
-                final WorkerPool workerPool = server.getWorkerPool()
-        ) {
-            workerPool.start(LOG);
-            try (final Connection connection = getConnection(server.getPort(), false, true)) {
-                PreparedStatement stmt = connection.prepareStatement("create table tab (a int, b int)");
-                stmt.execute();
+    public void testCopyInBadValue() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table tab (a int, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (
+                    final PGWireServer server = createPGServer(2);
+                    final WorkerPool workerPool = server.getWorkerPool()
+            ) {
+                workerPool.start(LOG);
+                try (final Connection connection = getConnection(server.getPort(), true, false)) {
+                    CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                    CopyIn copyIn = copyManager.copyIn("copy tab from STDIN");
+                    byte[] bytes = ("1\t2022-01-01T00:00:00.000000Z\n" +
+                            "x\t2022-01-01T00:00:01.000000Z\n").getBytes(Files.UTF_8);
+                    try {
+                        copyIn.writeToCopy(bytes, 0, bytes.length);
+                        copyIn.endCopy();
+                        Assert.fail();
+                    } catch (PSQLException e) {
+                        TestUtils.assertContains(e.getMessage(), "bad syntax [line=1, column=a]");
+                    }
 
-                CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                    // connection is still usable and the failed copy left nothing behind
+                    try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery("select count() from tab")) {
+                        sink.clear();
+                        assertResultSet("count[BIGINT]\n0\n", sink, rs);
+                    }
+                }
+            }
+        });
+    }
 
-                CopyIn copyIn = copyManager.copyIn("copy tab from STDIN");
+    @Test
+    public void testCopyInBinary() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table tab (a int, b symbol, c string, d double, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (
+                    final PGWireServer server = createPGServer(2);
+                    final WorkerPool workerPool = server.getWorkerPool()
+            ) {
+                workerPool.start(LOG);
+                try (final Connection connection = getConnection(server.getPort(), true, false)) {
+                    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    final DataOutputStream out = new DataOutputStream(bytes);
+                    out.write(new byte[]{'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0});
+                    out.writeInt(0);
+                    out.writeInt(0);
+                    for (int i = 0; i < 3; i++) {
+                        out.writeShort(5);
+                        out.writeInt(4);
+                        out.writeInt(i);
+                        out.writeInt(1);
+                        out.writeByte('a' + i);
+                        if (i == 1) {
+                            out.writeInt(-1);
+                        } else {
+                            out.writeInt(3);
+                            out.writeBytes("str");
+                        }
+                        out.writeInt(8);
+                        out.writeDouble(i + 0.5);
+                        out.writeInt(8);
+                        out.writeLong(i * Timestamps.SECOND_MICROS - Numbers.JULIAN_EPOCH_OFFSET_USEC);
+                    }
+                    out.writeShort(-1);
+
+                    CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                    CopyIn copyIn = copyManager.copyIn("copy tab from STDIN with format binary");
+                    final byte[] payload = bytes.toByteArray();
+                    // tuples are split across CopyData messages
+                    copyIn.writeToCopy(payload, 0, 30);
+                    copyIn.writeToCopy(payload, 30, payload.length - 30);
+                    Assert.assertEquals(3, copyIn.endCopy());
+                }
+            }
+            TestUtils.assertSql(
+                    compiler,
+                    sqlExecutionContext,
+                    "tab",
+                    sink,
+                    "a\tb\tc\td\tts\n" +
+                            "0\ta\tstr\t0.5\t1970-01-01T00:00:00.000000Z\n" +
+                            "1\tb\t\t1.5\t1970-01-01T00:00:01.000000Z\n" +
+                            "2\tc\tstr\t2.5\t1970-01-01T00:00:02.000000Z\n"
+            );
+        });
+    }
 
-                String text = "a,b\r\n" +
-                        "10,20";
+    @Test
+    public void testCopyInCsv() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table tab (a int, b string, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (
+                    final PGWireServer server = createPGServer(2);
+                    final WorkerPool workerPool = server.getWorkerPool()
+            ) {
+                workerPool.start(LOG);
+                try (final Connection connection = getConnection(server.getPort(), true, false)) {
+                    CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                    CopyIn copyIn = copyManager.copyIn("copy tab from STDIN with csv header true");
+                    byte[] bytes = ("a,b,ts\r\n" +
+                            "10,\"x,y\",2022-01-01T00:00:00.000000Z\r\n" +
+                            "20,,2022-01-02T00:00:00.000000Z\r\n").getBytes(Files.UTF_8);
+                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                    Assert.assertEquals(2, copyIn.endCopy());
+                }
+            }
+            TestUtils.assertSql(
+                    compiler,
+                    sqlExecutionContext,
+                    "tab",
+                    sink,
+                    "a\tb\tts\n" +
+                            "10\tx,y\t2022-01-01T00:00:00.000000Z\n" +
+                            "20\t\t2022-01-02T00:00:00.000000Z\n"
+            );
+        });
+    }
 
-                byte[] bytes = text.getBytes();
-                copyIn.writeToCopy(bytes, 0, bytes.length);
-                copyIn.endCopy();
+    @Test
+    public void testCopyInCsvQuotedEmpty() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table tab (a int, b string, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (
+                    final PGWireServer server = createPGServer(2);
+                    final WorkerPool workerPool = server.getWorkerPool()
+            ) {
+                workerPool.start(LOG);
+                try (final Connection connection = getConnection(server.getPort(), true, false)) {
+                    CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                    CopyIn copyIn = copyManager.copyIn("copy tab from STDIN with csv");
+                    // only unquoted empty field is NULL, quoted field may span lines
+                    byte[] bytes = ("1,,2022-01-01T00:00:00.000000Z\n" +
+                            "2,\"\",2022-01-01T00:00:01.000000Z\n" +
+                            "3,\"a \"\"b\"\"\nc\",2022-01-01T00:00:02.000000Z\n" +
+                            "4,\\N,2022-01-01T00:00:03.000000Z").getBytes(Files.UTF_8);
+                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                    Assert.assertEquals(4, copyIn.endCopy());
+                }
             }
-        }
+            TestUtils.assertSql(
+                    compiler,
+                    sqlExecutionContext,
+                    "select a, b, length(b) from tab",
+                    sink,
+                    "a\tb\tlength\n" +
+                            "1\t\t-1\n" +
+                            "2\t\t0\n" +
+                            "3\ta \"b\"\nc\t7\n" +
+                            "4\t\\N\t2\n"
+            );
+        });
+    }
+
+    @Test
+    public void testCopyInExtraData() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table tab (a int, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (
+                    final PGWireServer server = createPGServer(2);
+                    final WorkerPool workerPool = server.getWorkerPool()
+            ) {
+                workerPool.start(LOG);
+                try (final Connection connection = getConnection(server.getPort(), true, false)) {
+                    CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                    CopyIn copyIn = copyManager.copyIn("copy tab from STDIN");
+                    byte[] bytes = ("1\t2022-01-01T00:00:00.000000Z\n" +
+                            "2\t2022-01-01T00:00:01.000000Z\tx\n").getBytes(Files.UTF_8);
+                    try {
+                        copyIn.writeToCopy(bytes, 0, bytes.length);
+                        copyIn.endCopy();
+                        Assert.fail();
+                    } catch (PSQLException e) {
+                        TestUtils.assertContains(e.getMessage(), "extra data after last expected column [line=1]");
+                    }
+
+                    // rows with missing or extra data are skipped when errors are tolerated
+                    copyIn = copyManager.copyIn("copy tab from STDIN with on error skip_row");
+                    bytes = ("1\t2022-01-01T00:00:00.000000Z\n" +
+                            "2\n" +
+                            "3\t2022-01-01T00:00:01.000000Z\tx\n" +
+                            "4\t2022-01-01T00:00:02.000000Z\n").getBytes(Files.UTF_8);
+                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                    Assert.assertEquals(2, copyIn.endCopy());
+                }
+            }
+            TestUtils.assertSql(
+                    compiler,
+                    sqlExecutionContext,
+                    "tab",
+                    sink,
+                    "a\tts\n" +
+                            "1\t2022-01-01T00:00:00.000000Z\n" +
+                            "4\t2022-01-01T00:00:02.000000Z\n"
+            );
+        });
+    }
+
+    @Test
+    public void testCopyInText() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table tab (a int, b symbol, c boolean, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (
+                    final PGWireServer server = createPGServer(new Port0PGWireConfiguration() {
+                        @Override
+                        public int getCopyCommitBatchSize() {
+                            return 2;
+                        }
+                    });
+                    final WorkerPool workerPool = server.getWorkerPool()
+            ) {
+                workerPool.start(LOG);
+                try (final Connection connection = getConnection(server.getPort(), true, false)) {
+                    CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                    CopyIn copyIn = copyManager.copyIn("copy tab from STDIN");
+                    // last line is split across CopyData messages
+                    byte[] bytes = ("1\ta\tt\t2022-01-01T00:00:00.000000Z\n" +
+                            "2\t\\N\tf\t2022-01-01T00:00:01.000000Z\n" +
+                            "3\tb\ttrue\t2022-01-0").getBytes(Files.UTF_8);
+                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                    bytes = ("1T00:00:02.000000Z\n" +
+                            "\\.\n").getBytes(Files.UTF_8);
+                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                    Assert.assertEquals(3, copyIn.endCopy());
+                }
+            }
+            TestUtils.assertSql(
+                    compiler,
+                    sqlExecutionContext,
+                    "tab",
+                    sink,
+                    "a\tb\tc\tts\n" +
+                            "1\ta\ttrue\t2022-01-01T00:00:00.000000Z\n" +
+                            "2\t\tfalse\t2022-01-01T00:00:01.000000Z\n" +
+                            "3\tb\ttrue\t2022-01-01T00:00:02.000000Z\n"
+            );
+        });
+    }
+
+
+    @Test
+    public void testCopyInTextEscapes() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table tab (a int, b string, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+            try (
+                    final PGWireServer server = createPGServer(2);
+                    final WorkerPool workerPool = server.getWorkerPool()
+            ) {
+                workerPool.start(LOG);
+                try (final Connection connection = getConnection(server.getPort(), true, false)) {
+                    CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                    CopyIn copyIn = copyManager.copyIn("copy tab from STDIN");
+                    // empty field is an empty string in text format, quotes are data
+                    byte[] bytes = ("1\ta\\tb\\\\c\\\td\t2022-01-01T00:00:00.000000Z\n" +
+                            "2\t\t2022-01-01T00:00:01.000000Z\n" +
+                            "3\t\"q\\n\\101\\x42\t2022-01-01T00:00:02.000000Z\r\n").getBytes(Files.UTF_8);
+                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                    Assert.assertEquals(3, copyIn.endCopy());
+                }
+            }
+            TestUtils.assertSql(
+                    compiler,
+                    sqlExecutionContext,
+                    "select a, b, length(b) from tab",
+                    sink,
+                    "a\tb\tlength\n" +
+                            "1\ta\tb\\c\td\t7\n" +
+                            "2\t\t0\n" +
+                            "3\t\"q\nAB\t5\n"
+            );
+        });
     }
 
     @Test
@@ -92,6 +92,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getBindVariablePoolSize();
     }
 
+    @Override
+    public int getBloomFilterBitsPerRow() {
+        return conf.getBloomFilterBitsPerRow();
+    }
+
     @Override
     public BuildInformation getBuildInformation() {
         return conf.getBuildInformation();
@@ -252,6 +257,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getGroupByPoolCapacity();
     }
 
+    @Override
+    public int getHashJoinBuildQueueCapacity() {
+        return conf.getHashJoinBuildQueueCapacity();
+    }
+
     @Override
     public long getIdleCheckInterval() {
         return conf.getIdleCheckInterval();
@@ -352,6 +362,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getO3ColumnMemorySize();
     }
 
+    @Override
+    public long getO3MergeMemoryBudget() {
+        return conf.getO3MergeMemoryBudget();
+    }
+
     @Override
     public int getO3CopyQueueCapacity() {
         return conf.getO3CopyQueueCapacity();
@@ -407,11 +422,21 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getPartitionPurgeListCapacity();
     }
 
+    @Override
+    public int getQueryCacheCapacity() {
+        return conf.getQueryCacheCapacity();
+    }
+
     @Override
     public int getQueryCacheEventQueueCapacity() {
         return conf.getQueryCacheEventQueueCapacity();
     }
 
+    @Override
+    public int getQueueConsumerStripeCount() {
+        return conf.getQueueConsumerStripeCount();
+    }
+
     @Override
     public int getReaderPoolMaxSegments() {
         return conf.getReaderPoolMaxSegments();
@@ -462,6 +487,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getSnapshotRoot();
     }
 
+    @Override
+    public int getSortQueueCapacity() {
+        return conf.getSortQueueCapacity();
+    }
+
     @Override
     public long getSpinLockTimeout() {
         return conf.getSpinLockTimeout();
@@ -662,6 +692,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getSqlPageFrameMaxRows();
     }
 
+    @Override
+    public int getSqlPageFramePrefetchFrames() {
+        return conf.getSqlPageFramePrefetchFrames();
+    }
+
     @Override
     public int getSqlPageFrameMinRows() {
         return conf.getSqlPageFrameMinRows();
@@ -687,6 +722,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getSqlSortLightValuePageSize();
     }
 
+    @Override
+    public int getSqlSortRadixThreshold() {
+        return conf.getSqlSortRadixThreshold();
+    }
+
     @Override
     public int getSqlSortValueMaxPages() {
         return conf.getSqlSortValueMaxPages();
@@ -697,6 +737,16 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getSqlSortValuePageSize();
     }
 
+    @Override
+    public int getSqlSpillPartitionCount() {
+        return conf.getSqlSpillPartitionCount();
+    }
+
+    @Override
+    public CharSequence getSqlSpillRoot() {
+        return conf.getSqlSpillRoot();
+    }
+
     @Override
     public CharSequence getSystemTableNamePrefix() {
         return conf.getSystemTableNamePrefix();
@@ -792,6 +842,36 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.isSqlParallelFilterPreTouchEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelGroupByEnabled() {
+        return conf.isSqlParallelGroupByEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelHashJoinEnabled() {
+        return conf.isSqlParallelHashJoinEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelAsOfJoinEnabled() {
+        return conf.isSqlParallelAsOfJoinEnabled();
+    }
+
+    @Override
+    public long getZoneMapBlockRows() {
+        return conf.getZoneMapBlockRows();
+    }
+
+    @Override
+    public boolean isSymbolDictionaryCacheEnabled() {
+        return conf.isSymbolDictionaryCacheEnabled();
+    }
+
+    @Override
+    public boolean isZoneMapEnabled() {
+        return conf.isZoneMapEnabled();
+    }
+
     @Override
     public int getSqlCopyLogRetentionDays() {
         return conf.getSqlCopyLogRetentionDays();
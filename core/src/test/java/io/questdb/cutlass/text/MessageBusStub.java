@@ -59,6 +59,21 @@ public class MessageBusStub implements MessageBus {
         return null;
     }
 
+    @Override
+    public Sequence getHashJoinBuildPubSeq() {
+        return null;
+    }
+
+    @Override
+    public RingQueue<HashJoinBuildTask> getHashJoinBuildQueue() {
+        return null;
+    }
+
+    @Override
+    public Sequence getHashJoinBuildSubSeq() {
+        return null;
+    }
+
     @Override
     public Sequence getIndexerPubSequence() {
         return null;
@@ -189,6 +204,21 @@ public class MessageBusStub implements MessageBus {
         return null;
     }
 
+    @Override
+    public Sequence getSortPubSeq() {
+        return null;
+    }
+
+    @Override
+    public RingQueue<SortTask> getSortQueue() {
+        return null;
+    }
+
+    @Override
+    public Sequence getSortSubSeq() {
+        return null;
+    }
+
     @Override
     public FanOut getTableWriterEventFanOut() {
         return null;
@@ -320,6 +320,10 @@ public class AbstractO3Test {
         executeVanilla(() -> TestUtils.execute(null, code, new DefaultCairoConfiguration(root), Metrics.enabled(), LOG));
     }
 
+    protected static void executeVanillaWithMetrics(CairoConfiguration configuration, CustomisableRunnable code) throws Exception {
+        executeVanilla(() -> TestUtils.execute(null, code, configuration, Metrics.enabled(), LOG));
+    }
+
     static void assertO3DataConsistency(
             final CairoEngine engine,
             final SqlCompiler compiler,
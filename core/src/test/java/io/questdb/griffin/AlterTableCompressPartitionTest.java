@@ -0,0 +1,248 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static io.questdb.griffin.CompiledQuery.ALTER;
+
+public class AlterTableCompressPartitionTest extends AbstractGriffinTest {
+
+    @Test
+    public void testAddIndexAfterCompress() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+
+            final String query = "select sym, count(), sum(i) from x where sym = 'ibm' group by sym";
+            final String expected = select(query);
+
+            compile("alter table x compress partition where timestamp < '2018-01-06'", sqlExecutionContext);
+            compile("alter table x alter column sym add index", sqlExecutionContext);
+
+            assertSql(query, expected);
+        });
+    }
+
+    @Test
+    public void testCompressActivePartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+
+            try {
+                compile("alter table x compress partition list '2018-01-06'", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(23, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), "cannot compress active partition");
+            }
+        });
+    }
+
+    @Test
+    public void testCompressNonExistentPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+
+            try {
+                compile("alter table x compress partition list '2017-01-05'", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(23, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), "could not compress partition '2017-01-05'");
+            }
+        });
+    }
+
+    @Test
+    public void testCompressPartitionExpectListOrWhere() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+
+            try {
+                compile("alter table x compress partition", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(32, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), "'list' or 'where' expected");
+            }
+        });
+    }
+
+    @Test
+    public void testCompressPartitionListRoundTrip() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+
+            final String query = "x";
+            final String expected = select(query);
+
+            Assert.assertEquals(ALTER, compile("alter table x compress partition list '2018-01-02', '2018-01-03'", sqlExecutionContext).getType());
+            assertSql(query, expected);
+            assertCompressed(false, true, true, false);
+
+            // compressing again is a no-op
+            compile("alter table x compress partition list '2018-01-02'", sqlExecutionContext);
+            assertSql(query, expected);
+        });
+    }
+
+    @Test
+    public void testCompressPartitionWhereRoundTrip() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+
+            final String query = "select sym, count(), sum(amt), sum(length(c)), sum(length(n)), min(timestamp), max(timestamp) from x order by sym";
+            final String expected = select(query);
+
+            compile("alter table x compress partition where timestamp < '2018-01-05'", sqlExecutionContext);
+            assertSql(query, expected);
+            assertCompressed(true, true, true, true, false, false);
+        });
+    }
+
+    @Test
+    public void testDetachCompressedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            compile("alter table x compress partition list '2018-01-02'", sqlExecutionContext);
+
+            try {
+                compile("alter table x detach partition list '2018-01-02'", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "DETACH_ERR_COMPRESSED");
+            }
+        });
+    }
+
+    @Test
+    public void testDropPartitionBeforeCompressed() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+
+            final String expected = select("select min(timestamp) from x where timestamp >= '2018-01-02'");
+
+            compile("alter table x compress partition list '2018-01-02'", sqlExecutionContext);
+
+            // min timestamp of the table is read from the compressed partition
+            compile("alter table x drop partition list '2018-01-01'", sqlExecutionContext);
+            assertSql("select min(timestamp) from x", expected);
+        });
+    }
+
+    @Test
+    public void testInsertIntoCompressedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+
+            final String query = "select count(), sum(i) from x";
+            final String expected = select(query);
+
+            compile("alter table x compress partition list '2018-01-02'", sqlExecutionContext);
+
+            try {
+                executeInsert("insert into x (i, timestamp) values (1, '2018-01-02T10:00:00.000000Z')");
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "cannot insert into compressed partition");
+            }
+            assertSql(query, expected);
+
+            // table remains writable outside compressed partitions
+            executeInsert("insert into x (i, timestamp) values (1, '2018-01-07T23:00:00.000000Z')");
+            assertSql(
+                    "select count() from x",
+                    "count\n" +
+                            "1001\n"
+            );
+        });
+    }
+
+    @Test
+    public void testUpdateCompressedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+
+            final String query = "select count(), sum(i) from x";
+            final String expected = select(query);
+
+            compile("alter table x compress partition list '2018-01-02'", sqlExecutionContext);
+
+            try {
+                compile("update x set i = 0 where timestamp in '2018-01-02'", sqlExecutionContext);
+                Assert.fail();
+            } catch (CairoException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "cannot update compressed partition");
+            }
+            assertSql(query, expected);
+        });
+    }
+
+    private void assertCompressed(boolean... expected) {
+        try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x", "testing")) {
+            for (int i = 0; i < expected.length; i++) {
+                Assert.assertEquals("partition " + i, expected[i], writer.isPartitionCompressed(i));
+            }
+        }
+    }
+
+    private void createX() throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select" +
+                        " cast(x as int) i," +
+                        " rnd_symbol('msft','ibm', 'googl') sym," +
+                        " round(rnd_double(0)*100, 3) amt," +
+                        " to_timestamp('2018-01', 'yyyy-MM') + (x - 1) * 518400000 timestamp," +
+                        " rnd_boolean() b," +
+                        " rnd_str('ABC', 'CDE', null, 'XYZ') c," +
+                        " rnd_double(2) d," +
+                        " rnd_float(2) e," +
+                        " rnd_short(10,1024) f," +
+                        " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) g," +
+                        " rnd_symbol(4,4,4,2) ik," +
+                        " rnd_long() j," +
+                        " rnd_byte(2,50) l," +
+                        " rnd_bin(10, 20, 2) m," +
+                        " rnd_str(5,16,2) n" +
+                        " from long_sequence(1000)" +
+                        ") timestamp (timestamp) " +
+                        "partition by DAY",
+                sqlExecutionContext
+        );
+    }
+
+    private String select(CharSequence query) throws SqlException {
+        final StringSink sink = new StringSink();
+        TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+        return sink.toString();
+    }
+}
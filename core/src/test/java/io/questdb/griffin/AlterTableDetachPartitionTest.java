@@ -1980,7 +1980,7 @@ public class AlterTableDetachPartitionTest extends AbstractGriffinTest {
             AbstractSqlParserTest.assertSyntaxError(
                     "ALTER TABLE tab foobar",
                     16,
-                    "'add', 'drop', 'attach', 'detach', 'set' or 'rename' expected",
+                    "'add', 'drop', 'attach', 'detach', 'compress', 'set' or 'rename' expected",
                     tableModel
             );
         }
@@ -376,6 +376,38 @@ public class CompiledFilterRegressionTest extends AbstractGriffinTest {
         assertQueryNullable(query, ddl);
     }
 
+    @Test
+    public void testSymbolInList() throws Exception {
+        final String query = "select * from x where sym in ('ABB', 'HBC', 'XYZ')";
+        final String ddl = "create table x as " +
+                "(select rnd_symbol('ABB','HBC','DXR',null) sym, \n" +
+                " rnd_double() price, \n" +
+                " timestamp_sequence(172800000000, 360000000) ts \n" +
+                "from long_sequence(" + N_SIMD_WITH_SCALAR_TAIL + ")) timestamp (ts)";
+        assertQueryNullable(query, ddl);
+    }
+
+    @Test
+    public void testSymbolNotInList() throws Exception {
+        final String query = "select * from x where sym not in ('ABB', null) and price > 0.5";
+        final String ddl = "create table x as " +
+                "(select rnd_symbol('ABB','HBC','DXR',null) sym, \n" +
+                " rnd_double() price, \n" +
+                " timestamp_sequence(172800000000, 360000000) ts \n" +
+                "from long_sequence(" + N_SIMD_WITH_SCALAR_TAIL + ")) timestamp (ts)";
+        assertQueryNullable(query, ddl);
+    }
+
+    @Test
+    public void testCharInList() throws Exception {
+        final String query = "select * from x where ch in ('A', 'C', 'E') or ch = 'G'";
+        final String ddl = "create table x as " +
+                "(select timestamp_sequence(400000000000, 500000000) as k," +
+                " rnd_char() ch" +
+                " from long_sequence(" + N_SIMD_WITH_SCALAR_TAIL + ")) timestamp(k)";
+        assertQueryNotNull(query, ddl);
+    }
+
     @Test
     public void testDate() throws Exception {
         final String query = "select * from x where d1 != d2";
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.WalApplyJob;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DedupInsertTest extends AbstractGriffinTest {
+
+    @Test
+    public void testDedupAcrossCommits() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (ts timestamp, s symbol, v long) timestamp(ts) partition by day bypass wal dedup upsert keys(ts, s)");
+            executeInsert("insert into x values ('2022-01-02T00:00:00', 'a', 1), ('2022-01-02T00:00:00', 'c', 2), ('2022-01-02T00:00:00', 'a', 3), ('2022-01-03T00:00:00', 'a', 5)");
+            // duplicates land in both the middle and the last partition
+            executeInsert("insert into x values ('2022-01-02T00:00:00', 'a', 10), ('2022-01-03T00:00:00', 'new', 11), ('2022-01-01T00:00:00', 'z', 0)");
+            executeInsert("insert into x values ('2022-01-03T00:00:00', 'a', 50), ('2022-01-02T00:00:00', 'new', 12)");
+
+            assertSql(
+                    "select * from x order by ts, s",
+                    "ts\ts\tv\n" +
+                            "2022-01-01T00:00:00.000000Z\tz\t0\n" +
+                            "2022-01-02T00:00:00.000000Z\ta\t10\n" +
+                            "2022-01-02T00:00:00.000000Z\tc\t2\n" +
+                            "2022-01-02T00:00:00.000000Z\tnew\t12\n" +
+                            "2022-01-03T00:00:00.000000Z\ta\t50\n" +
+                            "2022-01-03T00:00:00.000000Z\tnew\t11\n"
+            );
+            assertSql("select count() from x", "count\n6\n");
+        });
+    }
+
+    @Test
+    public void testDedupKeepsRowsWithDifferentKeys() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (ts timestamp, k int, v long) timestamp(ts) partition by day bypass wal dedup upsert keys(ts, k)");
+            executeInsert("insert into x values ('2022-01-02T00:00:00', 1, 1), ('2022-01-02T00:00:00', 2, 2)");
+            executeInsert("insert into x values ('2022-01-02T00:00:00', 3, 3), ('2022-01-02T00:00:00', 2, 20), ('2022-01-02T00:00:01', 1, 4)");
+
+            assertSql(
+                    "select * from x order by ts, k",
+                    "ts\tk\tv\n" +
+                            "2022-01-02T00:00:00.000000Z\t1\t1\n" +
+                            "2022-01-02T00:00:00.000000Z\t2\t20\n" +
+                            "2022-01-02T00:00:00.000000Z\t3\t3\n" +
+                            "2022-01-02T00:00:01.000000Z\t1\t4\n"
+            );
+        });
+    }
+
+    @Test
+    public void testDedupKeyColumnCannotBeDropped() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (ts timestamp, s symbol, v long) timestamp(ts) partition by day bypass wal dedup upsert keys(ts, s)");
+            try {
+                compile("alter table x drop column s");
+                Assert.fail();
+            } catch (SqlException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "cannot drop column");
+            }
+            compile("alter table x drop column v");
+        });
+    }
+
+    @Test
+    public void testDedupKeyMustBeFixedSize() throws Exception {
+        assertFailure(
+                "create table x (ts timestamp, s string) timestamp(ts) partition by day dedup upsert keys(ts, s)",
+                null,
+                92,
+                "deduplication key must be a fixed size column [column=s, type=STRING]"
+        );
+    }
+
+    @Test
+    public void testDedupKeyMustBeFixedSizeAsSelect() throws Exception {
+        assertFailure(
+                "create table x as (select x::timestamp ts, x::string s from long_sequence(3)) timestamp(ts) partition by day dedup upsert keys(ts, s)",
+                null,
+                0,
+                "deduplication key must be a fixed size column [column=s, type=STRING]"
+        );
+    }
+
+    @Test
+    public void testDedupManyKeysPerTimestamp() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (ts timestamp, k int, v long) timestamp(ts) partition by day bypass wal dedup upsert keys(ts, k)");
+            // every row of the batch has the same timestamp, each key repeats 5 times
+            compile("insert into x select '2022-01-02'::timestamp, (x % 20000)::int, x from long_sequence(100000)");
+            assertSql(
+                    "select count(), count_distinct(k), sum(v) from x",
+                    "count\tcount_distinct\tsum\n" +
+                            "20000\t20000\t1800010000\n"
+            );
+
+            // replaces existing rows of the partition and adds new keys
+            compile("insert into x select '2022-01-02'::timestamp, (x % 30000)::int, -x from long_sequence(30000)");
+            assertSql(
+                    "select count(), count_distinct(k), sum(v) from x",
+                    "count\tcount_distinct\tsum\n" +
+                            "30000\t30000\t-450015000\n"
+            );
+
+            // same merge into a partition that is not the last one
+            executeInsert("insert into x values ('2022-01-03T00:00:00', 1, 1)");
+            compile("insert into x select '2022-01-02'::timestamp, (x % 30000)::int, x from long_sequence(30000)");
+            assertSql(
+                    "select count(), sum(v) from x",
+                    "count\tsum\n" +
+                            "30001\t450015001\n"
+            );
+        });
+    }
+
+    @Test
+    public void testDedupNonPartitioned() throws Exception {
+        assertFailure(
+                "create table x (ts timestamp, k int) timestamp(ts) dedup upsert keys(ts, k)",
+                null,
+                51,
+                "deduplication is possible only on partitioned tables"
+        );
+    }
+
+    @Test
+    public void testDedupWal() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (ts timestamp, s symbol, v long) timestamp(ts) partition by day wal dedup upsert keys(ts, s)");
+            try (WalApplyJob job = new WalApplyJob(engine, 1)) {
+                executeInsert("insert into x values ('2022-01-02T00:00:00', 'a', 1), ('2022-01-02T00:00:00', 'c', 2), ('2022-01-02T00:00:00', 'a', 3), ('2022-01-03T00:00:00', 'a', 5)");
+                while (job.run(0)) {
+                }
+                executeInsert("insert into x values ('2022-01-02T00:00:00', 'a', 10), ('2022-01-03T00:00:00', 'new', 11), ('2022-01-03T00:00:00', 'a', 50), ('2022-01-02T00:00:00', 'new', 12)");
+                while (job.run(0)) {
+                }
+            }
+
+            assertSql(
+                    "select * from x order by ts, s",
+                    "ts\ts\tv\n" +
+                            "2022-01-02T00:00:00.000000Z\ta\t10\n" +
+                            "2022-01-02T00:00:00.000000Z\tc\t2\n" +
+                            "2022-01-02T00:00:00.000000Z\tnew\t12\n" +
+                            "2022-01-03T00:00:00.000000Z\ta\t50\n" +
+                            "2022-01-03T00:00:00.000000Z\tnew\t11\n"
+            );
+        });
+    }
+
+    @Test
+    public void testDedupWithoutTimestampKey() throws Exception {
+        assertFailure(
+                "create table x (ts timestamp, k int) timestamp(ts) partition by day dedup upsert keys(k)",
+                null,
+                68,
+                "deduplication keys must include the designated timestamp"
+        );
+    }
+}
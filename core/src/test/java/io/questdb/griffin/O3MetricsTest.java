@@ -204,6 +204,56 @@ public class O3MetricsTest extends AbstractO3Test {
 
             // There was a single partition which had to be re-written, along with the additional record.
             Assert.assertEquals(initRowCount * 2 + 1, metrics.tableWriter().getPhysicallyWrittenRows());
+            Assert.assertTrue(metrics.tableWriter().getO3MergeCopiedBytes() > 0);
+        });
+    }
+
+    @Test
+    public void testInsertRowsMiddleOfEachPartitionWithMergeBudget() throws Exception {
+        // budget is smaller than any single merge, partitions are merged one at a time
+        final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+            @Override
+            public long getO3MergeMemoryBudget() {
+                return 1;
+            }
+        };
+        executeVanillaWithMetrics(configuration, (engine, compiler, sqlExecutionContext) -> {
+            final long initRowCount = 48;
+            setupBasicTable(engine, compiler, sqlExecutionContext, initRowCount);
+
+            try (TableWriter w = engine.getWriter(sqlExecutionContext.getCairoSecurityContext(), "x", "testing")) {
+                TableWriter.Row r = null;
+
+                r = w.newRow(millenniumTimestamp(8, 30));
+                r.putInt(0, 101);
+                r.append();
+
+                r = w.newRow(millenniumTimestamp(1, 2, 30));
+                r.putInt(0, 201);
+                r.append();
+
+                r = w.newRow(millenniumTimestamp(2, 1, 30));
+                r.putInt(0, 301);
+                r.append();
+
+                w.commit();
+            }
+
+            TestUtils.assertSql(
+                    compiler,
+                    sqlExecutionContext,
+                    "select i, ts from x where i > 100",
+                    sink,
+                    "i\tts\n" +
+                            "101\t2000-01-01T08:30:00.000000Z\n" +
+                            "201\t2000-01-02T02:30:00.000000Z\n" +
+                            "301\t2000-01-03T01:30:00.000000Z\n"
+            );
+
+            Metrics metrics = engine.getMetrics();
+            Assert.assertEquals(initRowCount + 3, metrics.tableWriter().getCommittedRows());
+            Assert.assertTrue(metrics.tableWriter().getO3MergeCopiedBytes() > 0);
+            Assert.assertTrue(metrics.tableWriter().getO3MergeMicros() >= 0);
         });
     }
 
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.griffin.engine.orderby.SortJob;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Test;
+
+/**
+ * Radix sort has to order rows exactly the same way as tree chain does, ties included.
+ */
+public class OrderByRadixSortTest extends AbstractGriffinTest {
+
+    private static final String DDL = "create table x as (" +
+            "select" +
+            " rnd_int(0, 100, 2) i," +
+            " rnd_long(0, 50, 2) l," +
+            " rnd_double(0) d," +
+            " rnd_float(2) f," +
+            " rnd_short(-5, 5) s," +
+            " rnd_byte(2, 10) b," +
+            " rnd_char() c," +
+            " rnd_boolean() bo," +
+            " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) dt," +
+            " x id," +
+            " timestamp_sequence(0, 1000000) ts" +
+            " from long_sequence(ROWS)" +
+            ") timestamp(ts)";
+
+    @Test
+    public void testBooleanAndTimestampDesc() throws Exception {
+        assertRadixSort(200_000, "select * from x order by bo, ts desc", 4);
+    }
+
+    @Test
+    public void testByteShortChar() throws Exception {
+        assertRadixSort(200_000, "select * from x order by s, b, c", 4);
+    }
+
+    @Test
+    public void testDate() throws Exception {
+        assertRadixSort(10_000, "select * from x order by dt desc", 1);
+    }
+
+    @Test
+    public void testDouble() throws Exception {
+        assertRadixSort(200_000, "select * from x order by d", 4);
+    }
+
+    @Test
+    public void testFloatWithNulls() throws Exception {
+        assertRadixSort(200_000, "select * from x order by f desc", 3);
+    }
+
+    @Test
+    public void testIntWithNulls() throws Exception {
+        assertRadixSort(200_000, "select * from x order by i", 4);
+    }
+
+    @Test
+    public void testLongDescThenInt() throws Exception {
+        assertRadixSort(200_000, "select * from x order by l desc, i", 2);
+    }
+
+    @Test
+    public void testSingleWorker() throws Exception {
+        assertRadixSort(10_000, "select * from x order by i desc, l", 1);
+    }
+
+    @Test
+    public void testSmallResultFallsBackToTree() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL.replace("ROWS", "100"));
+            sqlSortRadixThreshold = 1024;
+            // filter hides the row count from the cursor, the rows are re-played into the tree
+            assertRadixSort("select * from x where i > 10 order by i, l desc", 1);
+        });
+    }
+
+    @Test
+    public void testWorkerPool() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL.replace("ROWS", "300000"));
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            pool.assign(new SortJob(engine.getMessageBus()));
+            pool.start(LOG);
+            try {
+                assertRadixSort("select * from x order by l, i desc, id", 4);
+            } finally {
+                pool.halt();
+            }
+        });
+    }
+
+    private void assertRadixSort(int rows, String query, int workerCount) throws Exception {
+        assertMemoryLeak(() -> {
+            compile(DDL.replace("ROWS", Integer.toString(rows)));
+            assertRadixSort(query, workerCount);
+        });
+    }
+
+    private void assertRadixSort(String query, int workerCount) throws SqlException {
+        final int threshold = sqlSortRadixThreshold;
+        sqlSortRadixThreshold = Integer.MAX_VALUE;
+        TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+        final String expected = sink.toString();
+
+        sqlSortRadixThreshold = threshold < 0 ? 0 : threshold;
+        final StringSink actual = new StringSink();
+        try (SqlExecutionContextImpl context = new SqlExecutionContextImpl(engine, workerCount)) {
+            TestUtils.printSql(compiler, context, query, actual);
+        }
+        TestUtils.assertEquals(expected, actual);
+    }
+}
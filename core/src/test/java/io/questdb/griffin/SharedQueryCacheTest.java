@@ -0,0 +1,255 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.Metrics;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.metrics.Gauge;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+import io.questdb.std.Rnd;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SharedQueryCacheTest extends AbstractGriffinTest {
+
+    private final StringSink key = new StringSink();
+
+    @Test
+    public void testBindVariableTypesArePartOfKey() throws Exception {
+        assertMemoryLeak(() -> {
+            final Metrics metrics = Metrics.enabled();
+            final Gauge gauge = metrics.jsonQuery().cachedQueriesGauge();
+            try (SharedQueryCache cache = new SharedQueryCache(4, metrics.queryCache())) {
+                bindVariableService.clear();
+                bindVariableService.setLong(0, 10);
+                SharedQueryCache.buildKey(key, "select x from long_sequence(20) where x > $1", bindVariableService);
+                final RecordCursorFactory factory = compiler.compile("select x from long_sequence(20) where x > $1", sqlExecutionContext).getRecordCursorFactory();
+                final IntList types = new IntList();
+                types.add(ColumnType.LONG);
+                cache.push(key, factory, types, gauge);
+
+                // same text with different bind variable type is a different query
+                bindVariableService.clear();
+                bindVariableService.setInt(0, 10);
+                final StringSink intKey = new StringSink();
+                SharedQueryCache.buildKey(intKey, "select x from long_sequence(20) where x > $1", bindVariableService);
+                Assert.assertNotEquals(key.toString(), intKey.toString());
+                Assert.assertNull(cache.poll(intKey, bindVariableService));
+
+                // hit re-defines bind variables the factory was compiled with
+                bindVariableService.clear();
+                final RecordCursorFactory cached = cache.poll(key, bindVariableService);
+                Assert.assertSame(factory, cached);
+                Assert.assertEquals(1, bindVariableService.getIndexedVariableCount());
+                Assert.assertEquals(ColumnType.LONG, bindVariableService.getFunction(0).getType());
+                cached.close();
+            }
+        });
+    }
+
+    @Test
+    public void testBuildKeyNormalisesText() {
+        final StringSink other = new StringSink();
+        SharedQueryCache.buildKey(key, "select * from x", null);
+        SharedQueryCache.buildKey(other, "\n  select * from x; ", null);
+        TestUtils.assertEquals(key, other);
+
+        SharedQueryCache.buildKey(other, "select * from y", null);
+        Assert.assertNotEquals(key.toString(), other.toString());
+    }
+
+    @Test
+    public void testCheckedOutFactoryIsNotShared() throws Exception {
+        assertMemoryLeak(() -> {
+            final Metrics metrics = Metrics.enabled();
+            final Gauge gauge = metrics.jsonQuery().cachedQueriesGauge();
+            final QueryCacheMetrics cacheMetrics = metrics.queryCache();
+            try (SharedQueryCache cache = new SharedQueryCache(4, cacheMetrics)) {
+                SharedQueryCache.buildKey(key, "select x from long_sequence(10)", null);
+                Assert.assertNull(cache.poll(key, null));
+                Assert.assertEquals(1, cacheMetrics.missCount());
+
+                final RecordCursorFactory f1 = compiler.compile("select x from long_sequence(10)", sqlExecutionContext).getRecordCursorFactory();
+                final RecordCursorFactory f2 = compiler.compile("select x from long_sequence(10)", sqlExecutionContext).getRecordCursorFactory();
+                cache.push(key, f1, null, gauge);
+                cache.push(key, f2, null, gauge);
+                Assert.assertEquals(2, gauge.getValue());
+                Assert.assertEquals(2, cache.getSize());
+
+                final RecordCursorFactory p1 = cache.poll(key, null);
+                final RecordCursorFactory p2 = cache.poll(key, null);
+                Assert.assertNotNull(p1);
+                Assert.assertNotNull(p2);
+                Assert.assertNotSame(p1, p2);
+                Assert.assertNull(cache.poll(key, null));
+                Assert.assertEquals(2, cacheMetrics.hitCount());
+                Assert.assertEquals(2, cacheMetrics.missCount());
+                Assert.assertEquals(0, gauge.getValue());
+
+                cache.push(key, p1, null, gauge);
+                cache.push(key, p2, null, gauge);
+                cache.clear();
+                Assert.assertEquals(0, gauge.getValue());
+                Assert.assertEquals(0, cache.getSize());
+            }
+        });
+    }
+
+    @Test
+    public void testConcurrentPollAndPush() throws Exception {
+        assertMemoryLeak(() -> {
+            final Metrics metrics = Metrics.enabled();
+            final Gauge gauge = metrics.jsonQuery().cachedQueriesGauge();
+            final QueryCacheMetrics cacheMetrics = metrics.queryCache();
+            final int keyCount = 8;
+            final int factoriesPerKey = 2;
+            final int threadCount = 4;
+            final int iterations = 10_000;
+            try (SharedQueryCache cache = new SharedQueryCache(64, 4, cacheMetrics, null)) {
+                final ObjList<String> keys = new ObjList<>();
+                for (int i = 0; i < keyCount; i++) {
+                    final String sql = "select " + i + " from long_sequence(1)";
+                    SharedQueryCache.buildKey(key, sql, null);
+                    keys.add(key.toString());
+                    for (int j = 0; j < factoriesPerKey; j++) {
+                        cache.push(key, compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory(), null, gauge);
+                    }
+                }
+
+                final Set<RecordCursorFactory> checkedOut = ConcurrentHashMap.newKeySet();
+                final AtomicInteger errors = new AtomicInteger();
+                final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+                final SOCountDownLatch haltLatch = new SOCountDownLatch(threadCount);
+                for (int t = 0; t < threadCount; t++) {
+                    final Rnd rnd = new Rnd(t, t);
+                    new Thread(() -> {
+                        try {
+                            barrier.await();
+                            for (int i = 0; i < iterations; i++) {
+                                final String k = keys.getQuick(rnd.nextInt(keyCount));
+                                final RecordCursorFactory factory = cache.poll(k, null);
+                                if (factory != null) {
+                                    // factory must never be handed out twice
+                                    if (!checkedOut.add(factory)) {
+                                        errors.incrementAndGet();
+                                    }
+                                    checkedOut.remove(factory);
+                                    cache.push(k, factory, null, gauge);
+                                }
+                            }
+                        } catch (Throwable e) {
+                            e.printStackTrace();
+                            errors.incrementAndGet();
+                        } finally {
+                            haltLatch.countDown();
+                        }
+                    }).start();
+                }
+                haltLatch.await();
+
+                Assert.assertEquals(0, errors.get());
+                Assert.assertEquals(keyCount * factoriesPerKey, cache.getSize());
+                Assert.assertEquals(keyCount * factoriesPerKey, gauge.getValue());
+                Assert.assertEquals(0, cacheMetrics.evictionCount());
+            }
+        });
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        assertMemoryLeak(() -> {
+            final Metrics metrics = Metrics.enabled();
+            final Gauge gauge = metrics.pgWire().cachedSelectsGauge();
+            try (SharedQueryCache cache = new SharedQueryCache(4, metrics.queryCache())) {
+                SharedQueryCache.buildKey(key, "select x from long_sequence(10)", null);
+                cache.push(key, compiler.compile("select x from long_sequence(10)", sqlExecutionContext).getRecordCursorFactory(), null, gauge);
+                cache.push(key, compiler.compile("select x from long_sequence(10)", sqlExecutionContext).getRecordCursorFactory(), null, gauge);
+
+                cache.invalidate(key);
+                Assert.assertEquals(0, cache.getSize());
+                Assert.assertEquals(0, gauge.getValue());
+                Assert.assertNull(cache.poll(key, null));
+            }
+        });
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws Exception {
+        assertMemoryLeak(() -> {
+            final Metrics metrics = Metrics.enabled();
+            final Gauge gauge = metrics.jsonQuery().cachedQueriesGauge();
+            final QueryCacheMetrics cacheMetrics = metrics.queryCache();
+            final StringSink key1 = new StringSink();
+            final StringSink key2 = new StringSink();
+            final StringSink key3 = new StringSink();
+            try (SharedQueryCache cache = new SharedQueryCache(2, cacheMetrics)) {
+                SharedQueryCache.buildKey(key1, "select 1 from long_sequence(1)", null);
+                SharedQueryCache.buildKey(key2, "select 2 from long_sequence(1)", null);
+                SharedQueryCache.buildKey(key3, "select 3 from long_sequence(1)", null);
+
+                cache.push(key1, compiler.compile("select 1 from long_sequence(1)", sqlExecutionContext).getRecordCursorFactory(), null, gauge);
+                cache.push(key2, compiler.compile("select 2 from long_sequence(1)", sqlExecutionContext).getRecordCursorFactory(), null, gauge);
+
+                // key1 becomes most recently used
+                final RecordCursorFactory factory = cache.poll(key1, null);
+                Assert.assertNotNull(factory);
+                cache.push(key1, factory, null, gauge);
+
+                cache.push(key3, compiler.compile("select 3 from long_sequence(1)", sqlExecutionContext).getRecordCursorFactory(), null, gauge);
+                Assert.assertEquals(1, cacheMetrics.evictionCount());
+                Assert.assertEquals(2, cache.getSize());
+                Assert.assertEquals(2, gauge.getValue());
+
+                Assert.assertNull(cache.poll(key2, null));
+                RecordCursorFactory f = cache.poll(key1, null);
+                Assert.assertNotNull(f);
+                f.close();
+                f = cache.poll(key3, null);
+                Assert.assertNotNull(f);
+                f.close();
+            }
+        });
+    }
+
+    @Test
+    public void testSegmentCount() {
+        Assert.assertEquals(16, SharedQueryCache.segmentCount(256, 64));
+        Assert.assertEquals(4, SharedQueryCache.segmentCount(256, 3));
+        Assert.assertEquals(2, SharedQueryCache.segmentCount(32, 8));
+        // small caches are not split
+        Assert.assertEquals(1, SharedQueryCache.segmentCount(4, 64));
+        Assert.assertEquals(1, SharedQueryCache.segmentCount(256, 1));
+    }
+}
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+
+public class SpillToDiskTest extends AbstractGriffinTest {
+
+    @Test
+    public void testGroupBy() throws Exception {
+        assertSpill("select k, count(), sum(v), first(s), max(ts) from a order by k");
+    }
+
+    @Test
+    public void testGroupByStringKey() throws Exception {
+        assertSpill("select name, max(v), min(ts), first(s) from a order by name");
+    }
+
+    @Test
+    public void testHashJoin() throws Exception {
+        assertSpill("select a.k, a.v, a.s, b.w, b.s from a join b on (k) order by a.k, a.v, b.w");
+    }
+
+    @Test
+    public void testHashJoinStringKey() throws Exception {
+        assertSpill("select a.name, a.v, b.w, b.s from a join b on (name) where a.v < 10 order by a.name, a.v, b.w");
+    }
+
+    @Test
+    public void testHashOuterJoin() throws Exception {
+        assertSpill("select a.k, a.v, b.w, b.name from a left join b on (k) order by a.k, a.v, b.w");
+    }
+
+    private static void assertSpill(String query) throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+            final String expected = sink.toString();
+
+            try (
+                    CairoEngine restrictedEngine = new CairoEngine(restrictedConfiguration(null));
+                    SqlCompiler restrictedCompiler = new SqlCompiler(restrictedEngine);
+                    SqlExecutionContext restrictedContext = new SqlExecutionContextImpl(restrictedEngine, 1)
+            ) {
+                restrictedCompiler.setFullFatJoins(true);
+                TestUtils.printSql(restrictedCompiler, restrictedContext, query, sink);
+                Assert.fail();
+            } catch (LimitOverflowException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "resizes exceeded");
+            }
+
+            final File spillRoot = new File(temp.getRoot(), "spill");
+            try (
+                    CairoEngine spillEngine = new CairoEngine(restrictedConfiguration(spillRoot.getAbsolutePath()));
+                    SqlCompiler spillCompiler = new SqlCompiler(spillEngine);
+                    SqlExecutionContext spillContext = new SqlExecutionContextImpl(spillEngine, 1)
+            ) {
+                spillCompiler.setFullFatJoins(true);
+                try (RecordCursorFactory factory = spillCompiler.compile(query, spillContext).getRecordCursorFactory()) {
+                    final StringSink actual = new StringSink();
+                    try (RecordCursor cursor = factory.getCursor(spillContext)) {
+                        TestUtils.printCursor(cursor, factory.getMetadata(), true, actual, TestUtils.printer);
+                        TestUtils.assertEquals(expected, actual);
+                        String[] files = spillRoot.list();
+                        Assert.assertNotNull(files);
+                        Assert.assertTrue(files.length > 0);
+
+                        cursor.toTop();
+                        TestUtils.printCursor(cursor, factory.getMetadata(), true, actual, TestUtils.printer);
+                        TestUtils.assertEquals(expected, actual);
+                    }
+                    // spill files are removed with the cursor
+                    String[] files = spillRoot.list();
+                    Assert.assertNotNull(files);
+                    Assert.assertEquals(0, files.length);
+
+                    try (RecordCursor cursor = factory.getCursor(spillContext)) {
+                        TestUtils.printCursor(cursor, factory.getMetadata(), true, actual, TestUtils.printer);
+                        TestUtils.assertEquals(expected, actual);
+                    }
+                }
+            }
+        });
+    }
+
+    private static void createTables() throws SqlException {
+        compile("create table a as (" +
+                "select" +
+                " rnd_int(0, 2000, 0) k," +
+                " rnd_long(0, 100, 0) v," +
+                " rnd_symbol(50, 4, 6, 1) s," +
+                " concat('n', rnd_int(0, 1500, 0)) name," +
+                " timestamp_sequence(0, 1000000) ts" +
+                " from long_sequence(10000)" +
+                ") timestamp(ts)");
+        compile("create table b as (" +
+                "select" +
+                " rnd_int(0, 2500, 0) k," +
+                " rnd_double() w," +
+                " rnd_symbol(50, 4, 6, 1) s," +
+                " concat('n', rnd_int(0, 1500, 0)) name" +
+                " from long_sequence(5000)" +
+                ")");
+    }
+
+    private static CairoConfiguration restrictedConfiguration(String spillRoot) {
+        return new DefaultCairoConfiguration(root) {
+            @Override
+            public int getSqlMapMaxResizes() {
+                return 2;
+            }
+
+            @Override
+            public int getSqlMapPageSize() {
+                return 4096;
+            }
+
+            @Override
+            public CharSequence getSqlSpillRoot() {
+                return spillRoot;
+            }
+
+            @Override
+            public boolean isSqlParallelGroupByEnabled() {
+                return false;
+            }
+        };
+    }
+}
@@ -470,6 +470,51 @@ public class SqlParserTest extends AbstractSqlParserTest {
         );
     }
 
+    @Test
+    public void testAnalyticFrameEndBeforeStart() throws Exception {
+        assertSyntaxError(
+                "select a, sum(c) over (order by ts rows between current row and 2 preceding) from xyz",
+                48,
+                "frame start cannot be after frame end",
+                modelOf("xyz").col("a", ColumnType.INT).col("c", ColumnType.DOUBLE).timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testAnalyticFrameRange() throws Exception {
+        assertQuery(
+                "select-analytic a, avg(c) avg over (partition by b order by ts range between 90000000 preceding and current row) from (select [a, c, b, ts] from xyz timestamp (ts))",
+                "select a, avg(c) over (partition by b order by ts range between 90 seconds preceding and current row) from xyz",
+                modelOf("xyz")
+                        .col("a", ColumnType.INT)
+                        .col("b", ColumnType.INT)
+                        .col("c", ColumnType.DOUBLE)
+                        .timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testAnalyticFrameRows() throws Exception {
+        assertQuery(
+                "select-analytic a, sum(c) sum over (order by ts rows between 3 preceding and current row), min(c) min over (order by ts rows between unbounded preceding and 1 preceding) from (select [a, c, ts] from xyz timestamp (ts))",
+                "select a, sum(c) over (order by ts rows 3 preceding), min(c) over (order by ts rows between unbounded preceding and 1 preceding) from xyz",
+                modelOf("xyz")
+                        .col("a", ColumnType.INT)
+                        .col("c", ColumnType.DOUBLE)
+                        .timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testAnalyticFrameUnboundedFollowingStart() throws Exception {
+        assertSyntaxError(
+                "select a, sum(c) over (order by ts rows between unbounded following and current row) from xyz",
+                48,
+                "frame start cannot be UNBOUNDED FOLLOWING",
+                modelOf("xyz").col("a", ColumnType.INT).col("c", ColumnType.DOUBLE).timestamp("ts")
+        );
+    }
+
     @Test
     public void testAnalyticFunctionReferencesSameColumnAsVirtual() throws Exception {
         assertQuery(
@@ -1276,6 +1321,23 @@ public class SqlParserTest extends AbstractSqlParserTest {
         );
     }
 
+    @Test
+    public void testCreateTableBloomFilter() throws SqlException {
+        assertCreateTable(
+                "create table x (a LONG bloom, y SYMBOL capacity 64 cache index capacity 512 bloom, s STRING bloom, t TIMESTAMP) timestamp(t) partition by DAY",
+                "create table x (a long bloom, y symbol capacity 64 index capacity 512 bloom, s string bloom, t timestamp) timestamp(t) partition by day"
+        );
+    }
+
+    @Test
+    public void testCreateTableBloomFilterUnsupportedType() throws Exception {
+        assertSyntaxError(
+                "create table x (a int bloom, t timestamp)",
+                22,
+                "bloom filter is supported only for LONG, SYMBOL and STRING columns [column=a, type=INT]"
+        );
+    }
+
     @Test
     public void testCreateTableCacheCapacity() throws SqlException {
         assertCreateTable("create table x (" +
@@ -1474,6 +1536,23 @@ public class SqlParserTest extends AbstractSqlParserTest {
         );
     }
 
+    @Test
+    public void testCreateTableDedupKeys() throws SqlException {
+        assertCreateTable(
+                "create table x (a INT, b LONG, t TIMESTAMP) timestamp(t) partition by DAY dedup upsert keys(a, t)",
+                "create table x (a int, b long, t timestamp) timestamp(t) partition by DAY dedup upsert keys(t, a)"
+        );
+    }
+
+    @Test
+    public void testCreateTableDedupKeysNoKeysKeyword() throws Exception {
+        assertSyntaxError(
+                "create table x (a int, t timestamp) timestamp(t) partition by day dedup upsert (a, t)",
+                79,
+                "'keys' expected"
+        );
+    }
+
     @Test
     public void testCreateTableDuplicateCast() throws Exception {
         assertSyntaxError(
@@ -2836,7 +2915,7 @@ public class SqlParserTest extends AbstractSqlParserTest {
     @Test
     public void testNonAnalyticFunctionInAnalyticContext() throws Exception {
         assertFailure(
-                "select avg(price) over (partition by symbol) from trades",
+                "select abs(price) over (partition by symbol) from trades",
                 "create table trades " +
                         "(" +
                         " price double," +
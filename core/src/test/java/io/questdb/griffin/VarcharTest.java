@@ -0,0 +1,266 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderRecordCursor;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.Record;
+import io.questdb.std.str.StringSink;
+import io.questdb.std.str.Utf8Sequence;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VarcharTest extends AbstractGriffinTest {
+
+    @Test
+    public void testAddColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            compile("alter table x add column w varchar", sqlExecutionContext);
+            executeInsert("insert into x values ('d', 5, '2022-01-03T00:00:00.000000Z', 'новый')");
+            // O3 row lands in a partition where w has column top
+            executeInsert("insert into x values ('e', 6, '2022-01-01T12:00:00.000000Z', 'o3')");
+            assertSql(
+                    "select v, i, w, length(w) from x",
+                    "v\ti\tw\tlength\n" +
+                            "abc\t1\t\t-1\n" +
+                            "e\t6\to3\t2\n" +
+                            "привет 😀\t2\t\t-1\n" +
+                            "\t3\t\t-1\n" +
+                            "\t4\t\t-1\n" +
+                            "d\t5\tновый\t5\n"
+            );
+        });
+    }
+
+    @Test
+    public void testCastToVarchar() throws Exception {
+        assertMemoryLeak(() -> assertSql(
+                "select cast(42 as varchar) a, 'abc'::varchar b",
+                "a\tb\n" +
+                        "42\tabc\n"
+        ));
+    }
+
+    @Test
+    public void testCreateTableAsSelect() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            compile("create table y as (select v, i, ts from x) timestamp(ts) partition by DAY", sqlExecutionContext);
+            assertColumnType("y", "v");
+            assertSql("y", select("x"));
+        });
+    }
+
+    @Test
+    public void testEmptyIsNotNull() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            assertSql(
+                    "select i from x where v is null",
+                    "i\n" +
+                            "3\n"
+            );
+            assertSql(
+                    "select i from x where v = ''",
+                    "i\n" +
+                            "4\n"
+            );
+        });
+    }
+
+    @Test
+    public void testGroupBy() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            executeInsert("insert into x values ('abc', 5, '2022-01-02T05:00:00.000000Z')");
+            assertSql(
+                    "select v, count(), sum(i) from x order by 3",
+                    "v\tcount\tsum\n" +
+                            "привет 😀\t1\t2\n" +
+                            "\t1\t3\n" +
+                            "\t1\t4\n" +
+                            "abc\t2\t6\n"
+            );
+        });
+    }
+
+    @Test
+    public void testInsertAsSelect() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            compile("create table y (v varchar, s string, c char, sym symbol)", sqlExecutionContext);
+            compile("insert into y select v, v, 'x', v from x where v is not null and v <> ''", sqlExecutionContext);
+            compile("insert into y select s, s, c, sym from y", sqlExecutionContext);
+            compile("insert into y (v) select c from y limit 1", sqlExecutionContext);
+            assertSql(
+                    "y",
+                    "v\ts\tc\tsym\n" +
+                            "abc\tabc\tx\tabc\n" +
+                            "привет 😀\tпривет 😀\tx\tпривет 😀\n" +
+                            "abc\tabc\tx\tabc\n" +
+                            "привет 😀\tпривет 😀\tx\tпривет 😀\n" +
+                            "x\t\t\t\n"
+            );
+        });
+    }
+
+    @Test
+    public void testNonAscii() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            assertSql(
+                    "select v, length(v), upper(v) from x where i = 2",
+                    "v\tlength\tupper\n" +
+                            "привет 😀\t9\tПРИВЕТ 😀\n"
+            );
+        });
+    }
+
+    @Test
+    public void testOutOfOrderInsert() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            // earlier partition and the middle of the last partition
+            executeInsert("insert into x values ('ранний', 10, '2021-12-31T00:00:00.000000Z')");
+            executeInsert("insert into x values (null, 11, '2022-01-02T00:30:00.000000Z')");
+            executeInsert("insert into x values ('', 12, '2022-01-02T01:30:00.000000Z')");
+            assertSql(
+                    "select v, length(v), i from x",
+                    "v\tlength\ti\n" +
+                            "ранний\t6\t10\n" +
+                            "abc\t3\t1\n" +
+                            "\t-1\t11\n" +
+                            "привет 😀\t9\t2\n" +
+                            "\t0\t12\n" +
+                            "\t-1\t3\n" +
+                            "\t0\t4\n"
+            );
+        });
+    }
+
+    @Test
+    public void testOrderBy() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            assertSql(
+                    "select v, length(v) from x order by v desc",
+                    "v\tlength\n" +
+                            "привет 😀\t9\n" +
+                            "abc\t3\n" +
+                            "\t0\n" +
+                            "\t-1\n"
+            );
+        });
+    }
+
+    @Test
+    public void testReadUtf8FromTableReader() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                final TableReaderRecordCursor cursor = reader.getCursor();
+                final Record record = cursor.getRecord();
+                final String[] expected = {"abc", "привет 😀", null, ""};
+                int i = 0;
+                while (cursor.hasNext()) {
+                    final Utf8Sequence value = record.getVarchar(0);
+                    if (expected[i] == null) {
+                        Assert.assertNull(value);
+                        Assert.assertEquals(-1, record.getStrLen(0));
+                    } else {
+                        Assert.assertNotNull(value);
+                        Assert.assertEquals(expected[i].getBytes(java.nio.charset.StandardCharsets.UTF_8).length, value.length());
+                        Assert.assertEquals(expected[i].length(), record.getStrLen(0));
+                        TestUtils.assertEquals(expected[i], record.getStr(0));
+                        TestUtils.assertEquals(expected[i], record.getStrB(0));
+                    }
+                    i++;
+                }
+                Assert.assertEquals(expected.length, i);
+            }
+        });
+    }
+
+    @Test
+    public void testUnion() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            assertSql(
+                    "select v from x where i = 1 union all select 'str' from long_sequence(1) union all select i from x where i = 2",
+                    "v\n" +
+                            "abc\n" +
+                            "str\n" +
+                            "2\n"
+            );
+        });
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        assertMemoryLeak(() -> {
+            createX();
+            compile("update x set v = 'новый' where i = 1", sqlExecutionContext);
+            compile("update x set v = null where i = 2", sqlExecutionContext);
+            compile("update x set v = concat(v, '!') where i = 4", sqlExecutionContext);
+            assertSql(
+                    "select v, length(v), i from x",
+                    "v\tlength\ti\n" +
+                            "новый\t5\t1\n" +
+                            "\t-1\t2\n" +
+                            "\t-1\t3\n" +
+                            "!\t1\t4\n"
+            );
+        });
+    }
+
+    private void assertColumnType(String tableName, String columnName) {
+        try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, tableName)) {
+            final int columnIndex = reader.getMetadata().getColumnIndex(columnName);
+            Assert.assertEquals(ColumnType.VARCHAR, reader.getMetadata().getColumnType(columnIndex));
+        }
+    }
+
+    private void createX() throws SqlException {
+        compile("create table x (v varchar, i int, ts timestamp) timestamp(ts) partition by DAY", sqlExecutionContext);
+        assertColumnType("x", "v");
+        executeInsert(
+                "insert into x values " +
+                        "('abc', 1, '2022-01-01T00:00:00.000000Z'), " +
+                        "('привет 😀', 2, '2022-01-02T01:00:00.000000Z'), " +
+                        "(null, 3, '2022-01-02T02:00:00.000000Z'), " +
+                        "('', 4, '2022-01-02T03:00:00.000000Z')"
+        );
+    }
+
+    private String select(CharSequence query) throws SqlException {
+        final StringSink sink = new StringSink();
+        TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+        return sink.toString();
+    }
+}
@@ -664,4 +664,137 @@ public class AnalyticFunctionTest extends AbstractGriffinTest {
             }
         });
     }
+
+    @Test
+    public void testWindowSumAndAvgRowsAndRange() throws Exception {
+        assertQuery("grp\tprice\tsum\tavg\tts\n" +
+                        "1\t1.5\t1.5\t1.5\t1970-01-01T00:00:00.000000Z\n" +
+                        "2\t3.0\t3.0\t2.25\t1970-01-01T00:01:00.000000Z\n" +
+                        "0\t4.5\t4.5\t3.0\t1970-01-01T00:02:00.000000Z\n" +
+                        "1\t6.0\t7.5\t4.5\t1970-01-01T00:03:00.000000Z\n" +
+                        "2\t7.5\t10.5\t6.0\t1970-01-01T00:04:00.000000Z\n" +
+                        "0\t9.0\t13.5\t7.5\t1970-01-01T00:05:00.000000Z\n" +
+                        "1\t10.5\t18.0\t9.0\t1970-01-01T00:06:00.000000Z\n" +
+                        "2\t12.0\t22.5\t10.5\t1970-01-01T00:07:00.000000Z\n" +
+                        "0\t13.5\t27.0\t12.0\t1970-01-01T00:08:00.000000Z\n" +
+                        "1\t15.0\t31.5\t13.5\t1970-01-01T00:09:00.000000Z\n",
+                "select grp, price, sum(price) over (partition by grp order by ts rows between 2 preceding and current row) sum, avg(price) over (order by ts range between 2 minutes preceding and current row) avg, ts from t",
+                "create table t as " +
+                        "(" +
+                        "select" +
+                        " x % 3 grp," +
+                        " x * 1.5 price," +
+                        " timestamp_sequence(0, 60000000) ts" +
+                        " from long_sequence(10)" +
+                        ") timestamp(ts) partition by day",
+                "ts",
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testWindowMinMaxFirstValue() throws Exception {
+        assertQuery("grp\tprice\tmin\tmax\tfirst\tts\n" +
+                        "1\t1.5\t1.5\tNaN\t1.5\t1970-01-01T00:00:00.000000Z\n" +
+                        "2\t3.0\t3.0\t1.5\t3.0\t1970-01-01T00:01:00.000000Z\n" +
+                        "0\t4.5\t4.5\t3.0\t4.5\t1970-01-01T00:02:00.000000Z\n" +
+                        "1\t6.0\t1.5\t4.5\t1.5\t1970-01-01T00:03:00.000000Z\n" +
+                        "2\t7.5\t3.0\t6.0\t3.0\t1970-01-01T00:04:00.000000Z\n" +
+                        "0\t9.0\t4.5\t7.5\t4.5\t1970-01-01T00:05:00.000000Z\n" +
+                        "1\t10.5\t1.5\t9.0\t6.0\t1970-01-01T00:06:00.000000Z\n" +
+                        "2\t12.0\t3.0\t10.5\t7.5\t1970-01-01T00:07:00.000000Z\n" +
+                        "0\t13.5\t4.5\t12.0\t9.0\t1970-01-01T00:08:00.000000Z\n" +
+                        "1\t15.0\t1.5\t13.5\t10.5\t1970-01-01T00:09:00.000000Z\n",
+                "select grp, price, min(price) over (partition by grp order by ts) min, max(price) over (order by ts rows between 3 preceding and 1 preceding) max, first_value(price) over (partition by grp order by ts rows 1 preceding) first, ts from t",
+                "create table t as " +
+                        "(" +
+                        "select" +
+                        " x % 3 grp," +
+                        " x * 1.5 price," +
+                        " timestamp_sequence(0, 60000000) ts" +
+                        " from long_sequence(10)" +
+                        ") timestamp(ts) partition by day",
+                "ts",
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testWindowLag() throws Exception {
+        assertQuery("grp\tprice\tlag\tlag2\tts\n" +
+                        "1\t1.5\tNaN\tNaN\t1970-01-01T00:00:00.000000Z\n" +
+                        "2\t3.0\tNaN\tNaN\t1970-01-01T00:01:00.000000Z\n" +
+                        "0\t4.5\tNaN\t1.5\t1970-01-01T00:02:00.000000Z\n" +
+                        "1\t6.0\t1.5\t3.0\t1970-01-01T00:03:00.000000Z\n" +
+                        "2\t7.5\t3.0\t4.5\t1970-01-01T00:04:00.000000Z\n" +
+                        "0\t9.0\t4.5\t6.0\t1970-01-01T00:05:00.000000Z\n" +
+                        "1\t10.5\t6.0\t7.5\t1970-01-01T00:06:00.000000Z\n" +
+                        "2\t12.0\t7.5\t9.0\t1970-01-01T00:07:00.000000Z\n" +
+                        "0\t13.5\t9.0\t10.5\t1970-01-01T00:08:00.000000Z\n" +
+                        "1\t15.0\t10.5\t12.0\t1970-01-01T00:09:00.000000Z\n",
+                "select grp, price, lag(price) over (partition by grp order by ts) lag, lag(price, 2) over (order by ts) lag2, ts from t",
+                "create table t as " +
+                        "(" +
+                        "select" +
+                        " x % 3 grp," +
+                        " x * 1.5 price," +
+                        " timestamp_sequence(0, 60000000) ts" +
+                        " from long_sequence(10)" +
+                        ") timestamp(ts) partition by day",
+                "ts",
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testWindowLeadAndWholePartition() throws Exception {
+        assertQuery("grp\tprice\tlead\ttotal\tts\n" +
+                        "1\t1.5\t6.0\t33.0\t1970-01-01T00:00:00.000000Z\n" +
+                        "2\t3.0\t7.5\t22.5\t1970-01-01T00:01:00.000000Z\n" +
+                        "0\t4.5\t9.0\t27.0\t1970-01-01T00:02:00.000000Z\n" +
+                        "1\t6.0\t10.5\t33.0\t1970-01-01T00:03:00.000000Z\n" +
+                        "2\t7.5\t12.0\t22.5\t1970-01-01T00:04:00.000000Z\n" +
+                        "0\t9.0\t13.5\t27.0\t1970-01-01T00:05:00.000000Z\n" +
+                        "1\t10.5\t15.0\t33.0\t1970-01-01T00:06:00.000000Z\n" +
+                        "2\t12.0\tNaN\t22.5\t1970-01-01T00:07:00.000000Z\n" +
+                        "0\t13.5\tNaN\t27.0\t1970-01-01T00:08:00.000000Z\n" +
+                        "1\t15.0\tNaN\t33.0\t1970-01-01T00:09:00.000000Z\n",
+                "select grp, price, lead(price) over (partition by grp order by ts) lead, sum(price) over (partition by grp) total, ts from t",
+                "create table t as " +
+                        "(" +
+                        "select" +
+                        " x % 3 grp," +
+                        " x * 1.5 price," +
+                        " timestamp_sequence(0, 60000000) ts" +
+                        " from long_sequence(10)" +
+                        ") timestamp(ts) partition by day",
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testWindowFrameEndFollowingNotSupported() throws Exception {
+        assertFailure(
+                "select price, sum(price) over (order by ts rows between 1 preceding and 1 following) from t",
+                "create table t as " +
+                        "(" +
+                        "select" +
+                        " x % 3 grp," +
+                        " x * 1.5 price," +
+                        " timestamp_sequence(0, 60000000) ts" +
+                        " from long_sequence(10)" +
+                        ") timestamp(ts) partition by day",
+                72,
+                "frame end FOLLOWING is not supported"
+        );
+    }
 }
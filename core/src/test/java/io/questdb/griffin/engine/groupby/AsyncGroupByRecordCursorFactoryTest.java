@@ -0,0 +1,113 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncGroupByRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp() {
+        super.setUp();
+        enableParallelGroupBy = true;
+        // force many page frames per partition
+        pageFrameMaxRows = 100;
+    }
+
+    @Test
+    public void testFactoryIsUsed() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x % 4 k, x v, timestamp_sequence(0, 1000000) ts from long_sequence(1000)) timestamp(ts) partition by hour", sqlExecutionContext);
+            try (RecordCursorFactory factory = compiler.compile("select k, sum(v) from x", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(AsyncGroupByRecordCursorFactory.class, factory.getClass());
+            }
+            // order-dependent functions are not parallelized
+            try (RecordCursorFactory factory = compiler.compile("select k, first(v) from x", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(GroupByRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testKeyedAggregates() throws Exception {
+        assertQuery(
+                "k\tcount\tsum\tmin\tmax\tavg\n" +
+                        "0\t2500\t12505000\t4\t10000\t5002.0\n" +
+                        "1\t2500\t12497500\t1\t9997\t4999.0\n" +
+                        "2\t2500\t12500000\t2\t9998\t5000.0\n" +
+                        "3\t2500\t12502500\t3\t9999\t5001.0\n",
+                "select k, count(), sum(v), min(v), max(v), avg(v) from x order by k",
+                "create table x as (select x % 4 k, x v, timestamp_sequence(0, 1000000) ts from long_sequence(10000)) timestamp(ts) partition by hour",
+                null
+        );
+    }
+
+    @Test
+    public void testMultipleKeysMatchSerialExecution() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table x as (" +
+                            "select rnd_symbol('A','B','C','D') s, rnd_str('a','b','c') e, rnd_int(0, 1000, 0) i, rnd_long(0, 1000000, 1) l, rnd_double(2) d," +
+                            " timestamp_sequence(0, 100000) ts from long_sequence(100000)" +
+                            ") timestamp(ts) partition by hour",
+                    sqlExecutionContext
+            );
+
+            final String sql = "select s, e, count(), sum(i), sum(l), min(i), max(l), min(d), max(d) from x order by s, e";
+
+            final StringSink parallelSink = new StringSink();
+            TestUtils.printSql(compiler, sqlExecutionContext, sql, parallelSink);
+
+            enableParallelGroupBy = false;
+            final StringSink serialSink = new StringSink();
+            TestUtils.printSql(compiler, sqlExecutionContext, sql, serialSink);
+
+            TestUtils.assertEquals(serialSink, parallelSink);
+        });
+    }
+
+    @Test
+    public void testToTop() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x % 3 k, x v, timestamp_sequence(0, 1000000) ts from long_sequence(1000)) timestamp(ts) partition by hour", sqlExecutionContext);
+            final String expected = "k\tsum\n" +
+                    "0\t166833\n" +
+                    "1\t167167\n" +
+                    "2\t166500\n";
+            try (RecordCursorFactory factory = compiler.compile("select k, sum(v) from x", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(AsyncGroupByRecordCursorFactory.class, factory.getClass());
+            }
+            assertSql("(select k, sum(v) from x) order by k", expected);
+            assertSql("(select k, sum(v) from x) order by k", expected);
+        });
+    }
+}
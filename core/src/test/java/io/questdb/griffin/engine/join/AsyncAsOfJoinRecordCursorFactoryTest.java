@@ -0,0 +1,140 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncAsOfJoinRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp() {
+        super.setUp();
+        enableParallelAsOfJoin = true;
+        // force many page frames per partition
+        pageFrameMaxRows = 100;
+    }
+
+    @Test
+    public void testAsOfJoinMatchesSerialExecution() throws Exception {
+        assertParallelMatchesSerial("select m.ts, m.sym, m.v, s.ts, s.v from m asof join s on (sym)");
+    }
+
+    @Test
+    public void testFactoryIsUsed() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            try (RecordCursorFactory factory = compiler.compile("select * from m asof join s on (sym)", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(AsyncAsOfJoinRecordCursorFactory.class, factory.getClass());
+            }
+            try (RecordCursorFactory factory = compiler.compile("select * from m lt join s on (sym)", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(AsyncAsOfJoinRecordCursorFactory.class, factory.getClass());
+            }
+            // filtered slave cannot be read as page frames
+            try (RecordCursorFactory factory = compiler.compile("select * from m asof join (s where v > 10) s on (sym)", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertNotEquals(AsyncAsOfJoinRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testLongKeyMatchesSerialExecution() throws Exception {
+        assertParallelMatchesSerial("select m.ts, m.k, m.v, s.ts, s.v from m asof join s on (k)");
+    }
+
+    @Test
+    public void testLtJoinMatchesSerialExecution() throws Exception {
+        assertParallelMatchesSerial("select m.ts, m.sym, m.v, s.ts, s.v from m lt join s on (sym)");
+    }
+
+    @Test
+    public void testSparseKeysMatchSerialExecution() throws Exception {
+        // most keys are found only by looking back past the start of master page frame
+        assertMemoryLeak(() -> {
+            compiler.compile(
+                    "create table m as (" +
+                            "select x % 50 k, x v, timestamp_sequence(0, 100000) ts from long_sequence(10000)" +
+                            ") timestamp(ts) partition by hour",
+                    sqlExecutionContext
+            );
+            compiler.compile(
+                    "create table s as (" +
+                            "select x % 40 k, x v, timestamp_sequence(0, 10000000) ts from long_sequence(100)" +
+                            ") timestamp(ts) partition by hour",
+                    sqlExecutionContext
+            );
+            assertParallelMatchesSerial0("select m.ts, m.k, m.v, s.ts, s.v from m asof join s on (k)");
+        });
+    }
+
+    @Test
+    public void testToTop() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            final String expected = "count\n" +
+                    "10000\n";
+            assertSql("select count() from (m asof join s on (sym))", expected);
+            assertSql("select count() from (m asof join s on (sym))", expected);
+        });
+    }
+
+    private void assertParallelMatchesSerial(String sql) throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertParallelMatchesSerial0(sql);
+        });
+    }
+
+    private void assertParallelMatchesSerial0(String sql) throws Exception {
+        final StringSink parallelSink = new StringSink();
+        TestUtils.printSql(compiler, sqlExecutionContext, sql, parallelSink);
+
+        enableParallelAsOfJoin = false;
+        final StringSink serialSink = new StringSink();
+        TestUtils.printSql(compiler, sqlExecutionContext, sql, serialSink);
+
+        TestUtils.assertEquals(serialSink, parallelSink);
+    }
+
+    private void createTables() throws Exception {
+        compiler.compile(
+                "create table m as (" +
+                        "select x % 100 k, rnd_symbol('A','B','C','D') sym, x v, timestamp_sequence(0, 1000000) ts from long_sequence(10000)" +
+                        ") timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+        compiler.compile(
+                "create table s as (" +
+                        "select x % 70 k, rnd_symbol('A','B','E') sym, x v, timestamp_sequence(500000, 3000000) ts from long_sequence(4000)" +
+                        ") timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+    }
+}
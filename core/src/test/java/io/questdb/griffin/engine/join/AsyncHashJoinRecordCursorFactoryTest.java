@@ -0,0 +1,113 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncHashJoinRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp() {
+        super.setUp();
+        enableParallelHashJoin = true;
+        // force many page frames per partition
+        pageFrameMaxRows = 100;
+    }
+
+    @Test
+    public void testFactoryIsUsed() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            try (RecordCursorFactory factory = compiler.compile("select * from m join s on (k)", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(AsyncHashJoinRecordCursorFactory.class, factory.getClass());
+            }
+            try (RecordCursorFactory factory = compiler.compile("select * from m left join s on (k)", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(AsyncHashJoinRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testInnerJoinMatchesSerialExecution() throws Exception {
+        assertParallelMatchesSerial("select m.k, m.v, s.v from m join s on (k)");
+    }
+
+    @Test
+    public void testOuterJoinMatchesSerialExecution() throws Exception {
+        assertParallelMatchesSerial("select m.k, m.v, s.v from m left join s on (k)");
+    }
+
+    @Test
+    public void testSymbolKeyMatchesSerialExecution() throws Exception {
+        assertParallelMatchesSerial("select m.sym, m.v, s.sym, s.v from m join s on (sym)");
+    }
+
+    @Test
+    public void testToTop() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            final String expected = "count\n" +
+                    "10000\n";
+            assertSql("select count() from (m join s on (k))", expected);
+            assertSql("select count() from (m join s on (k))", expected);
+        });
+    }
+
+    private void assertParallelMatchesSerial(String sql) throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+
+            final StringSink parallelSink = new StringSink();
+            TestUtils.printSql(compiler, sqlExecutionContext, sql, parallelSink);
+
+            enableParallelHashJoin = false;
+            final StringSink serialSink = new StringSink();
+            TestUtils.printSql(compiler, sqlExecutionContext, sql, serialSink);
+
+            TestUtils.assertEquals(serialSink, parallelSink);
+        });
+    }
+
+    private void createTables() throws Exception {
+        compiler.compile(
+                "create table m as (" +
+                        "select x % 1000 k, rnd_symbol('A','B','C','D') sym, x v, timestamp_sequence(0, 1000000) ts from long_sequence(10000)" +
+                        ") timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+        compiler.compile(
+                "create table s as (" +
+                        "select x % 500 k, rnd_symbol('A','B','E') sym, x v from long_sequence(1000)" +
+                        ")",
+                sqlExecutionContext
+        );
+    }
+}
@@ -292,6 +292,19 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
         testNoLimit(false, SqlJitMode.JIT_MODE_DISABLED, FilteredRecordCursorFactory.class);
     }
 
+    @Test
+    public void testNoLimitPrefetch() throws Exception {
+        pageFramePrefetchFrames = 3;
+        testNoLimit(true, SqlJitMode.JIT_MODE_DISABLED, AsyncFilteredRecordCursorFactory.class);
+    }
+
+    @Test
+    public void testNoLimitPrefetchMadvise() throws Exception {
+        pageFramePrefetchFrames = 3;
+        ioURingEnabled = false;
+        testNoLimit(true, SqlJitMode.JIT_MODE_DISABLED, AsyncFilteredRecordCursorFactory.class);
+    }
+
     @Test
     public void testNoLimitJit() throws Exception {
         // Disable the test on ARM64.
@@ -869,9 +882,15 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
                 @Nullable RecordSink partitionBySink,
                 @Nullable ColumnTypes keyTypes,
                 boolean isOrdered,
-                boolean baseSupportsRandomAccess
+                boolean baseSupportsRandomAccess,
+                int framingMode,
+                long rowsLo,
+                int rowsLoPos,
+                long rowsHi,
+                int rowsHiPos,
+                int timestampIndex
         ) {
-            sqlExecutionContext.configureAnalyticContext(partitionByRecord, partitionBySink, keyTypes, isOrdered, baseSupportsRandomAccess);
+            sqlExecutionContext.configureAnalyticContext(partitionByRecord, partitionBySink, keyTypes, isOrdered, baseSupportsRandomAccess, framingMode, rowsLo, rowsLoPos, rowsHi, rowsHiPos, timestampIndex);
         }
 
         @Override
@@ -88,7 +88,7 @@ public class TableWriterMetricsRecordCursorFactoryTest extends AbstractGriffinTe
                                  null,
                                  -1,
                                  null)) {
-                MetricsSnapshot metricsWhenDisabled = new MetricsSnapshot(-1, -1, -1, -1, -1);
+                MetricsSnapshot metricsWhenDisabled = new MetricsSnapshot(-1, -1, -1, -1, -1, -1, -1);
                 TestUtils.assertSql(localCompiler, localSqlExecutionContext, "select * from table_writer_metrics()", new StringSink(), toExpectedTableContent(metricsWhenDisabled));
             }
         });
@@ -129,7 +129,9 @@ public class TableWriterMetricsRecordCursorFactoryTest extends AbstractGriffinTe
                 .append("o3commits").append('\t').append(metricsSnapshot.o3CommitCount).append('\n')
                 .append("rollbacks").append('\t').append(metricsSnapshot.rollbackCount).append('\n')
                 .append("committed_rows").append('\t').append(metricsSnapshot.committedRows).append('\n')
-                .append("physically_written_rows").append('\t').append(metricsSnapshot.physicallyWrittenRows).append('\n');
+                .append("physically_written_rows").append('\t').append(metricsSnapshot.physicallyWrittenRows).append('\n')
+                .append("o3_merge_micros").append('\t').append(metricsSnapshot.o3MergeMicros).append('\n')
+                .append("o3_merge_copied_bytes").append('\t').append(metricsSnapshot.o3MergeCopiedBytes).append('\n');
         return sb.toString();
     }
 
@@ -139,13 +141,17 @@ public class TableWriterMetricsRecordCursorFactoryTest extends AbstractGriffinTe
         private final long o3CommitCount;
         private final long rollbackCount;
         private final long physicallyWrittenRows;
+        private final long o3MergeMicros;
+        private final long o3MergeCopiedBytes;
 
-        private MetricsSnapshot(long commitCount, long committedRows, long o3CommitCount, long rollbackCount, long physicallyWrittenRows) {
+        private MetricsSnapshot(long commitCount, long committedRows, long o3CommitCount, long rollbackCount, long physicallyWrittenRows, long o3MergeMicros, long o3MergeCopiedBytes) {
             this.commitCount = commitCount;
             this.committedRows = committedRows;
             this.o3CommitCount = o3CommitCount;
             this.rollbackCount = rollbackCount;
             this.physicallyWrittenRows = physicallyWrittenRows;
+            this.o3MergeMicros = o3MergeMicros;
+            this.o3MergeCopiedBytes = o3MergeCopiedBytes;
         }
 
         @Override
@@ -153,12 +159,12 @@ public class TableWriterMetricsRecordCursorFactoryTest extends AbstractGriffinTe
             if (this == o) return true;
             if (o == null || getClass() != o.getClass()) return false;
             MetricsSnapshot that = (MetricsSnapshot) o;
-            return commitCount == that.commitCount && committedRows == that.committedRows && o3CommitCount == that.o3CommitCount && rollbackCount == that.rollbackCount && physicallyWrittenRows == that.physicallyWrittenRows;
+            return commitCount == that.commitCount && committedRows == that.committedRows && o3CommitCount == that.o3CommitCount && rollbackCount == that.rollbackCount && physicallyWrittenRows == that.physicallyWrittenRows && o3MergeMicros == that.o3MergeMicros && o3MergeCopiedBytes == that.o3MergeCopiedBytes;
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(commitCount, committedRows, o3CommitCount, rollbackCount, physicallyWrittenRows);
+            return Objects.hash(commitCount, committedRows, o3CommitCount, rollbackCount, physicallyWrittenRows, o3MergeMicros, o3MergeCopiedBytes);
         }
 
         @Override
@@ -169,6 +175,8 @@ public class TableWriterMetricsRecordCursorFactoryTest extends AbstractGriffinTe
                     ", o3CommitCount=" + o3CommitCount +
                     ", rollbackCount=" + rollbackCount +
                     ", physicallyWrittenRows=" + physicallyWrittenRows +
+                    ", o3MergeMicros=" + o3MergeMicros +
+                    ", o3MergeCopiedBytes=" + o3MergeCopiedBytes +
                     '}';
         }
     }
@@ -179,7 +187,9 @@ public class TableWriterMetricsRecordCursorFactoryTest extends AbstractGriffinTe
                 writerMetrics.getCommittedRows(),
                 writerMetrics.getO3CommitCount(),
                 writerMetrics.getRollbackCount(),
-                writerMetrics.getPhysicallyWrittenRows()
+                writerMetrics.getPhysicallyWrittenRows(),
+                writerMetrics.getO3MergeMicros(),
+                writerMetrics.getO3MergeCopiedBytes()
         );
     }
 }
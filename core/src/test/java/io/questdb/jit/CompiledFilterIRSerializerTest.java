@@ -294,6 +294,27 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
         Assert.assertEquals(UNKNOWN_SYMBOL, bindVarFunctions.get(0).getStr(null));
     }
 
+    @Test
+    public void testSymbolInList() throws Exception {
+        serialize("asymbol in ('" + KNOWN_SYMBOL_1 + "', '" + UNKNOWN_SYMBOL + "', null)");
+        assertIR("(i32 0L)(i32 asymbol)(=)(i32 :0)(i32 asymbol)(=)(||)(i32 " + Numbers.INT_NaN + "L)(i32 asymbol)(=)(||)(ret)");
+
+        Assert.assertEquals(1, bindVarFunctions.size());
+        Assert.assertEquals(UNKNOWN_SYMBOL, bindVarFunctions.get(0).getStr(null));
+    }
+
+    @Test
+    public void testSymbolNotInList() throws Exception {
+        serialize("not (asymbol in ('" + KNOWN_SYMBOL_1 + "')) and anint > 0");
+        assertIR("(i32 0L)(i32 anint)(>)(i32 0L)(i32 asymbol)(=)(!)(&&)(ret)");
+    }
+
+    @Test
+    public void testCharInList() throws Exception {
+        serialize("achar in ('a', 'b')");
+        assertIR("(i16 97L)(i16 achar)(=)(i16 98L)(i16 achar)(=)(||)(ret)");
+    }
+
     @Test
     public void testNegatedColumn() throws Exception {
         serialize("-ashort > 0");
@@ -516,6 +537,28 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
         serialize("asymbol in (select rnd_symbol('A','B','C') from long_sequence(10))");
     }
 
+    @Test(expected = SqlException.class)
+    public void testUnsupportedInListColumnType() throws Exception {
+        serialize("anint in (1, 2)");
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedInListInsideOfExpression() throws Exception {
+        serialize("(achar in ('a', 'b')) = aboolean");
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedInListSize() throws Exception {
+        StringBuilder sb = new StringBuilder("achar in (");
+        for (int i = 0; i <= CompiledFilterIRSerializer.MAX_IN_LIST_SIZE; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("'a'");
+        }
+        serialize(sb.append(')'));
+    }
+
     @Test(expected = SqlException.class)
     public void testUnsupportedStringConstant() throws Exception {
         serialize("achar = 'abc'");
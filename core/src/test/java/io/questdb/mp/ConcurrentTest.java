@@ -444,89 +444,28 @@ public class ConcurrentTest {
     public void testOneToManyBusy() throws Exception {
         LOG.info().$("testOneToManyBusy").$();
         int cycle = 1024;
-        int size = 1024 * cycle;
-        RingQueue<Event> queue = new RingQueue<>(Event.FACTORY, cycle);
-        SPSequence pubSeq = new SPSequence(cycle);
-        MCSequence subSeq = new MCSequence(cycle);
-        pubSeq.then(subSeq).then(pubSeq);
-
-        CyclicBarrier barrier = new CyclicBarrier(3);
-        CountDownLatch latch = new CountDownLatch(2);
-
-        BusyConsumer[] consumers = new BusyConsumer[2];
-        consumers[0] = new BusyConsumer(size, subSeq, queue, barrier, latch);
-        consumers[1] = new BusyConsumer(size, subSeq, queue, barrier, latch);
-
-        consumers[0].start();
-        consumers[1].start();
-
-        barrier.await();
-        int i = 0;
-        while (true) {
-            long cursor = pubSeq.next();
-            if (cursor < 0) {
-                continue;
-            }
-            queue.get(cursor).value = i++;
-            pubSeq.done(cursor);
-
-            if (i == size) {
-                break;
-            }
-        }
-
-        publishEOE(queue, pubSeq);
-        publishEOE(queue, pubSeq);
-
-        latch.await();
+        testOneToManyBusy(cycle, new MCSequence(cycle));
+    }
 
-        int[] buf = new int[size];
-        System.arraycopy(consumers[0].buf, 0, buf, 0, consumers[0].finalIndex);
-        System.arraycopy(consumers[1].buf, 0, buf, consumers[0].finalIndex, consumers[1].finalIndex);
-        Arrays.sort(buf);
-        for (i = 0; i < buf.length; i++) {
-            Assert.assertEquals(i, buf[i]);
-        }
+    @Test
+    public void testOneToManyBusyStriped() throws Exception {
+        LOG.info().$("testOneToManyBusyStriped").$();
+        int cycle = 1024;
+        testOneToManyBusy(cycle, new StripedMCSequence(cycle, 4));
     }
 
     @Test
     public void testManyToManyBusy() throws Exception {
         LOG.info().$("testManyToManyBusy").$();
         int cycle = 128;
-        int size = 1024 * cycle;
-        RingQueue<Event> queue = new RingQueue<>(Event.FACTORY, cycle);
-        MPSequence pubSeq = new MPSequence(cycle);
-        MCSequence subSeq = new MCSequence(cycle);
-        pubSeq.then(subSeq).then(pubSeq);
-
-        CyclicBarrier barrier = new CyclicBarrier(5);
-        CountDownLatch latch = new CountDownLatch(4);
-
-        BusyProducer[] producers = new BusyProducer[2];
-        producers[0] = new BusyProducer(size / 2, pubSeq, queue, barrier, latch);
-        producers[1] = new BusyProducer(size / 2, pubSeq, queue, barrier, latch);
-
-        producers[0].start();
-        producers[1].start();
-
-        BusyConsumer[] consumers = new BusyConsumer[2];
-        consumers[0] = new BusyConsumer(size, subSeq, queue, barrier, latch);
-        consumers[1] = new BusyConsumer(size, subSeq, queue, barrier, latch);
-
-        consumers[0].start();
-        consumers[1].start();
-
-        barrier.await();
-        latch.await();
+        testManyToManyBusy(cycle, new MCSequence(cycle));
+    }
 
-        int[] buf = new int[size];
-        System.arraycopy(consumers[0].buf, 0, buf, 0, consumers[0].finalIndex);
-        System.arraycopy(consumers[1].buf, 0, buf, consumers[0].finalIndex, consumers[1].finalIndex);
-        Arrays.sort(buf);
-        for (int i = 0; i < buf.length / 2; i++) {
-            Assert.assertEquals(i, buf[2 * i]);
-            Assert.assertEquals(i, buf[2 * i + 1]);
-        }
+    @Test
+    public void testManyToManyBusyStriped() throws Exception {
+        LOG.info().$("testManyToManyBusyStriped").$();
+        int cycle = 128;
+        testManyToManyBusy(cycle, new StripedMCSequence(cycle, 2));
     }
 
     @Test
@@ -570,6 +509,68 @@ public class ConcurrentTest {
         }
     }
 
+    @Test
+    public void testStripedSequenceStealsFromOtherStripes() {
+        final int cycle = 16;
+        SPSequence pubSeq = new SPSequence(cycle);
+        StripedMCSequence subSeq = new StripedMCSequence(cycle, 3);
+        pubSeq.then(subSeq).then(pubSeq);
+        Assert.assertEquals(4, subSeq.getStripeCount());
+
+        for (int i = 0; i < 10; i++) {
+            pubSeq.done(pubSeq.next());
+        }
+
+        // single consumer drains all stripes
+        final LongList cursors = new LongList();
+        long cursor;
+        while ((cursor = subSeq.next()) > -1) {
+            cursors.add(cursor);
+            subSeq.done(cursor);
+        }
+        Assert.assertEquals(-1, cursor);
+        Assert.assertEquals(10, cursors.size());
+        cursors.sort();
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(i, cursors.getQuick(i));
+        }
+        Assert.assertEquals(9, subSeq.current());
+        Assert.assertEquals(9, subSeq.availableIndex(0));
+
+        // whole queue is free again
+        for (int i = 0; i < cycle; i++) {
+            Assert.assertTrue(pubSeq.next() > -1);
+            pubSeq.done(i + 10);
+        }
+        Assert.assertEquals(-1, pubSeq.next());
+    }
+
+    @Test
+    public void testStripedSequenceSetCurrent() {
+        final int cycle = 16;
+        SPSequence pubSeq = new SPSequence(cycle);
+        StripedMCSequence subSeq = new StripedMCSequence(cycle, 4);
+        pubSeq.then(subSeq).then(pubSeq);
+
+        for (int i = 0; i < 10; i++) {
+            pubSeq.done(pubSeq.next());
+        }
+
+        subSeq.setCurrent(5);
+        Assert.assertEquals(5, subSeq.current());
+        final LongList cursors = new LongList();
+        long cursor;
+        while ((cursor = subSeq.next()) > -1) {
+            cursors.add(cursor);
+            subSeq.done(cursor);
+        }
+        cursors.sort();
+        Assert.assertEquals("[6,7,8,9]", cursors.toString());
+
+        subSeq.clear();
+        Assert.assertEquals(-1, subSeq.current());
+    }
+
     @Test
     public void testOneToOneBatched() throws BrokenBarrierException, InterruptedException {
         final int cycle = 1024;
@@ -774,6 +775,87 @@ public class ConcurrentTest {
         Assert.assertEquals(threadCount * size, totalConsumed);
     }
 
+    private void testManyToManyBusy(int cycle, MCSequence subSeq) throws Exception {
+        int size = 1024 * cycle;
+        RingQueue<Event> queue = new RingQueue<>(Event.FACTORY, cycle);
+        MPSequence pubSeq = new MPSequence(cycle);
+        pubSeq.then(subSeq).then(pubSeq);
+
+        CyclicBarrier barrier = new CyclicBarrier(5);
+        CountDownLatch latch = new CountDownLatch(4);
+
+        BusyProducer[] producers = new BusyProducer[2];
+        producers[0] = new BusyProducer(size / 2, pubSeq, queue, barrier, latch);
+        producers[1] = new BusyProducer(size / 2, pubSeq, queue, barrier, latch);
+
+        producers[0].start();
+        producers[1].start();
+
+        BusyConsumer[] consumers = new BusyConsumer[2];
+        consumers[0] = new BusyConsumer(size, subSeq, queue, barrier, latch);
+        consumers[1] = new BusyConsumer(size, subSeq, queue, barrier, latch);
+
+        consumers[0].start();
+        consumers[1].start();
+
+        barrier.await();
+        latch.await();
+
+        int[] buf = new int[size];
+        System.arraycopy(consumers[0].buf, 0, buf, 0, consumers[0].finalIndex);
+        System.arraycopy(consumers[1].buf, 0, buf, consumers[0].finalIndex, consumers[1].finalIndex);
+        Arrays.sort(buf);
+        for (int i = 0; i < buf.length / 2; i++) {
+            Assert.assertEquals(i, buf[2 * i]);
+            Assert.assertEquals(i, buf[2 * i + 1]);
+        }
+    }
+
+    private void testOneToManyBusy(int cycle, MCSequence subSeq) throws Exception {
+        int size = 1024 * cycle;
+        RingQueue<Event> queue = new RingQueue<>(Event.FACTORY, cycle);
+        SPSequence pubSeq = new SPSequence(cycle);
+        pubSeq.then(subSeq).then(pubSeq);
+
+        CyclicBarrier barrier = new CyclicBarrier(3);
+        CountDownLatch latch = new CountDownLatch(2);
+
+        BusyConsumer[] consumers = new BusyConsumer[2];
+        consumers[0] = new BusyConsumer(size, subSeq, queue, barrier, latch);
+        consumers[1] = new BusyConsumer(size, subSeq, queue, barrier, latch);
+
+        consumers[0].start();
+        consumers[1].start();
+
+        barrier.await();
+        int i = 0;
+        while (true) {
+            long cursor = pubSeq.next();
+            if (cursor < 0) {
+                continue;
+            }
+            queue.get(cursor).value = i++;
+            pubSeq.done(cursor);
+
+            if (i == size) {
+                break;
+            }
+        }
+
+        publishEOE(queue, pubSeq);
+        publishEOE(queue, pubSeq);
+
+        latch.await();
+
+        int[] buf = new int[size];
+        System.arraycopy(consumers[0].buf, 0, buf, 0, consumers[0].finalIndex);
+        System.arraycopy(consumers[1].buf, 0, buf, consumers[0].finalIndex, consumers[1].finalIndex);
+        Arrays.sort(buf);
+        for (i = 0; i < buf.length; i++) {
+            Assert.assertEquals(i, buf[i]);
+        }
+    }
+
     static void publishEOE(RingQueue<Event> queue, Sequence sequence) {
         long cursor = sequence.nextBully();
         queue.get(cursor).value = Integer.MIN_VALUE;
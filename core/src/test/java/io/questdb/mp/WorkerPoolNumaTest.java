@@ -0,0 +1,91 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.mp;
+
+import io.questdb.std.NumaTopology;
+import io.questdb.std.Os;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+public class WorkerPoolNumaTest {
+    @Rule
+    public final TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testExplicitAffinityIsKept() throws IOException {
+        final NumaTopology topology = twoNodes();
+        final int[] affinity = {5, -1, -1, 0};
+        final int[] nodes = new int[affinity.length];
+        WorkerPool.assignNumaNodes(topology, affinity, nodes);
+        Assert.assertArrayEquals(new int[]{5, 1, 4, 0}, affinity);
+        Assert.assertArrayEquals(new int[]{1, 0, 1, 0}, nodes);
+    }
+
+    @Test
+    public void testMoreWorkersThanCpus() throws IOException {
+        final NumaTopology topology = twoNodes();
+        final int[] affinity = {-1, -1, -1, -1, -1, -1, -1, -1, -1, -1};
+        final int[] nodes = new int[affinity.length];
+        WorkerPool.assignNumaNodes(topology, affinity, nodes);
+        // surplus workers of a node stay unpinned
+        Assert.assertArrayEquals(new int[]{0, 1, 2, 3, -1, 4, 5, 6, 7, -1}, affinity);
+        Assert.assertArrayEquals(new int[]{0, 0, 0, 0, 0, 1, 1, 1, 1, 1}, nodes);
+    }
+
+    @Test
+    public void testWorkersAreGroupedByNode() throws IOException {
+        final NumaTopology topology = twoNodes();
+        final int[] affinity = {-1, -1, -1, -1};
+        final int[] nodes = new int[affinity.length];
+        WorkerPool.assignNumaNodes(topology, affinity, nodes);
+        Assert.assertArrayEquals(new int[]{0, 1, 4, 5}, affinity);
+        Assert.assertArrayEquals(new int[]{0, 0, 1, 1}, nodes);
+    }
+
+    private NumaTopology twoNodes() throws IOException {
+        Assume.assumeTrue(Os.isLinux());
+        final File root = temp.newFolder("node");
+        writeCpuList(root, "node0", "0-3");
+        writeCpuList(root, "node1", "4-7");
+        final NumaTopology topology = NumaTopology.discover(root.getAbsolutePath());
+        Assert.assertEquals(2, topology.getNodeCount());
+        return topology;
+    }
+
+    private static void writeCpuList(File root, String node, String cpuList) throws IOException {
+        final File dir = new File(root, node);
+        Assert.assertTrue(dir.mkdir());
+        try (FileWriter writer = new FileWriter(new File(dir, "cpulist"))) {
+            writer.write(cpuList);
+        }
+    }
+}
@@ -71,6 +71,30 @@ public class IOURingImplTest {
         Assert.assertTrue(IOURingFacadeImpl.isAvailableOn("7.1.1"));
     }
 
+    @Test
+    public void testMadvise() throws Exception {
+        Assume.assumeTrue(rf.isAvailable());
+
+        TestUtils.assertMemoryLeak(() -> {
+            final long len = 4 * Files.PAGE_SIZE;
+            final long addr = Unsafe.malloc(len + Files.PAGE_SIZE, MemoryTag.NATIVE_DEFAULT);
+            try (IOURing ring = rf.newInstance(4)) {
+                final long alignedAddr = Files.ceilPageSize(addr);
+                final long id = ring.enqueueMadvise(alignedAddr, (int) len, Files.POSIX_MADV_WILLNEED);
+                Assert.assertTrue(id > -1);
+                Assert.assertEquals(1, ring.submit());
+
+                while (!ring.nextCqe()) {
+                    Os.pause();
+                }
+                Assert.assertEquals(id, ring.getCqeId());
+                Assert.assertEquals(0, ring.getCqeRes());
+            } finally {
+                Unsafe.free(addr, len + Files.PAGE_SIZE, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
     @Test
     public void testRead() throws Exception {
         Assume.assumeTrue(rf.isAvailable());
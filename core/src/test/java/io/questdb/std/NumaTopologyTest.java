@@ -0,0 +1,94 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+public class NumaTopologyTest {
+    @Rule
+    public final TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testDiscover() throws IOException {
+        Assume.assumeTrue(Os.isLinux());
+        final File root = temp.newFolder("node");
+        writeCpuList(root, "node1", "4-7");
+        writeCpuList(root, "node0", "0-3");
+        // memory only node
+        writeCpuList(root, "node2", "");
+        Assert.assertTrue(new File(root, "online").createNewFile());
+
+        final NumaTopology topology = NumaTopology.discover(root.getAbsolutePath());
+        Assert.assertEquals(2, topology.getNodeCount());
+        Assert.assertEquals(4, topology.getCpuCount(0));
+        Assert.assertEquals(4, topology.getCpuCount(1));
+        Assert.assertEquals(0, topology.getCpu(0, 0));
+        Assert.assertEquals(4, topology.getCpu(1, 0));
+        Assert.assertEquals(-1, topology.getCpu(1, 4));
+        Assert.assertEquals(0, topology.getNode(3));
+        Assert.assertEquals(1, topology.getNode(4));
+        Assert.assertEquals(-1, topology.getNode(8));
+        Assert.assertEquals(-1, topology.getNode(-1));
+    }
+
+    @Test
+    public void testDiscoverFallsBackToSingleNode() {
+        final NumaTopology topology = NumaTopology.discover(temp.getRoot().getAbsolutePath() + File.separator + "missing");
+        Assert.assertEquals(1, topology.getNodeCount());
+        Assert.assertEquals(Runtime.getRuntime().availableProcessors(), topology.getCpuCount(0));
+        Assert.assertEquals(0, topology.getNode(0));
+    }
+
+    @Test
+    public void testParseCpuList() {
+        final IntList cpus = new IntList();
+        Assert.assertTrue(NumaTopology.parseCpuList("0-2,8,10-11", cpus));
+        Assert.assertEquals("[0,1,2,8,10,11]", cpus.toString());
+
+        cpus.clear();
+        Assert.assertTrue(NumaTopology.parseCpuList("", cpus));
+        Assert.assertEquals(0, cpus.size());
+
+        cpus.clear();
+        Assert.assertFalse(NumaTopology.parseCpuList("0-x", cpus));
+    }
+
+    private static void writeCpuList(File root, String node, String cpuList) throws IOException {
+        final File dir = new File(root, node);
+        Assert.assertTrue(dir.mkdir());
+        try (FileWriter writer = new FileWriter(new File(dir, "cpulist"))) {
+            writer.write(cpuList);
+            writer.write('\n');
+        }
+    }
+}
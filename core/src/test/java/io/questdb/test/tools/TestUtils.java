@@ -152,6 +152,7 @@ public final class TestUtils {
                             Assert.assertEquals(r.getGeoInt(i), l.getGeoInt(i));
                             break;
                         case ColumnType.STRING:
+                        case ColumnType.VARCHAR:
                             CharSequence actual = symbolsAsStrings && ColumnType.isSymbol(metadataActual.getColumnType(i)) ? l.getSym(i) : l.getStr(i);
                             CharSequence expected = r.getStr(i);
                             TestUtils.assertEquals(expected, actual);
@@ -976,6 +977,7 @@ public final class TestUtils {
                 sink.put("null");
                 break;
             case ColumnType.STRING:
+            case ColumnType.VARCHAR:
                 r.getStr(i, sink);
                 break;
             case ColumnType.SYMBOL: